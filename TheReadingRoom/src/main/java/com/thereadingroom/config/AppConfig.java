@@ -5,6 +5,11 @@ import com.thereadingroom.model.dao.book.IBookDAO;
 import com.thereadingroom.service.book.BookService;
 import com.thereadingroom.service.book.IBookService;
 import com.thereadingroom.service.cart.CartService;
+import com.thereadingroom.service.checkout.CheckoutService;
+import com.thereadingroom.service.checkout.ICheckoutService;
+import com.thereadingroom.service.inventory.flashsale.FlashSaleManager;
+import com.thereadingroom.service.recommendation.IRecommendationService;
+import com.thereadingroom.service.recommendation.RecommendationService;
 import com.thereadingroom.service.user.IUserService;
 import com.thereadingroom.service.ServiceManager;
 import com.thereadingroom.service.user.UserService;
@@ -12,9 +17,15 @@ import com.thereadingroom.service.order.IOrderService;
 import com.thereadingroom.service.order.OrderService;
 import com.thereadingroom.service.payment.IPaymentService;
 import com.thereadingroom.service.payment.PaymentService;
+import com.thereadingroom.service.report.IReportService;
+import com.thereadingroom.service.report.ReportService;
 import com.thereadingroom.utils.auth.SessionManager;
+import com.thereadingroom.utils.trace.Tracer;
 import com.thereadingroom.utils.ui.SpringFXMLLoader;
 import com.thereadingroom.utils.ui.UIUtils;
+import com.thereadingroom.utils.ui.store.BookStore;
+import com.thereadingroom.utils.ui.store.OrderStore;
+import com.thereadingroom.utils.ui.store.UserStore;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -24,6 +35,7 @@ import org.springframework.context.annotation.Configuration;
  * Application configuration class for managing Spring beans and dependency injection.
  * This class is marked with @Configuration to indicate that it contains
  * bean definitions and @ComponentScan to enable component scanning for Spring.
+ * Services registered by interface are wrapped by Tracer, so their calls show up in traces.
  */
 @Configuration
 @ComponentScan(basePackages = "com.thereadingroom")
@@ -36,7 +48,7 @@ public class AppConfig {
      */
     @Bean
     public IUserService userService() {
-        return new UserService();  // Register IUserService bean
+        return Tracer.traced(IUserService.class, new UserService());  // Register IUserService bean, traced
     }
 
     /**
@@ -56,7 +68,7 @@ public class AppConfig {
      */
     @Bean
     public IBookService bookService() {
-        return new BookService();  // Register IBookService bean
+        return Tracer.traced(IBookService.class, new BookService());  // Register IBookService bean, traced
     }
 
     /**
@@ -66,7 +78,7 @@ public class AppConfig {
      */
     @Bean
     public IOrderService orderService() {
-        return new OrderService();  // Register IOrderService bean
+        return Tracer.traced(IOrderService.class, new OrderService());  // Register IOrderService bean, traced
     }
 
     /**
@@ -81,12 +93,56 @@ public class AppConfig {
 
     /**
      * Bean definition for IPaymentService.
+     * Uses the shared instance so every payment goes through the same bulkhead and circuit breaker.
      *
-     * @return a new instance of PaymentService implementing IPaymentService.
+     * @return the singleton instance of PaymentService implementing IPaymentService.
      */
     @Bean
     public IPaymentService paymentService() {
-        return new PaymentService();  // Register IPaymentService bean
+        return Tracer.traced(IPaymentService.class, PaymentService.getInstance());  // Register IPaymentService bean, traced
+    }
+
+    /**
+     * Bean definition for ICheckoutService.
+     * Uses the shared instance so in-flight and recently completed checkouts are tracked in one place.
+     *
+     * @return the singleton instance of CheckoutService implementing ICheckoutService.
+     */
+    @Bean
+    public ICheckoutService checkoutService() {
+        return Tracer.traced(ICheckoutService.class, CheckoutService.getInstance());  // Register ICheckoutService bean, traced
+    }
+
+    /**
+     * Bean definition for IReportService.
+     *
+     * @return a new instance of ReportService implementing IReportService.
+     */
+    @Bean
+    public IReportService reportService() {
+        return Tracer.traced(IReportService.class, new ReportService());  // Register IReportService bean, traced
+    }
+
+    /**
+     * Bean definition for IRecommendationService.
+     * Uses the shared instance so the recommendations shown include the orders placed through OrderService.
+     *
+     * @return the singleton instance of RecommendationService implementing IRecommendationService.
+     */
+    @Bean
+    public IRecommendationService recommendationService() {
+        return Tracer.traced(IRecommendationService.class, RecommendationService.getInstance());  // Register IRecommendationService bean, traced
+    }
+
+    /**
+     * Bean definition for FlashSaleManager.
+     * Uses the shared instance so every inventory service reserves from the same flash sale tokens.
+     *
+     * @return the singleton instance of FlashSaleManager.
+     */
+    @Bean
+    public FlashSaleManager flashSaleManager() {
+        return FlashSaleManager.getInstance();  // Register FlashSaleManager bean
     }
 
     /**
@@ -112,6 +168,7 @@ public class AppConfig {
 
     /**
      * Bean definition for UIUtils.
+     * The login and registration screens, revisited on every logout, are retained instead of rebuilt.
      *
      * @param springFXMLLoader the FXML loader responsible for loading JavaFX components.
      * @param context ApplicationContext for Spring dependency injection.
@@ -119,7 +176,44 @@ public class AppConfig {
      */
     @Bean
     public UIUtils uiUtils(SpringFXMLLoader springFXMLLoader, ApplicationContext context) {
-        return new UIUtils(springFXMLLoader, context);  // Pass SpringFXMLLoader and ApplicationContext to UIUtils constructor
+        UIUtils uiUtils = new UIUtils(springFXMLLoader, context);  // Pass SpringFXMLLoader and ApplicationContext to UIUtils constructor
+        uiUtils.retainView("/com/thereadingroom/fxml/common/login.fxml");
+        uiUtils.retainView("/com/thereadingroom/fxml/common/register.fxml");
+        return uiUtils;
+    }
+
+    /**
+     * Bean definition for BookStore.
+     * A single store is shared by every book table, so a changed book updates the same row instance everywhere.
+     *
+     * @param bookService the service used to load and re-read books.
+     * @return the shared BookStore.
+     */
+    @Bean
+    public BookStore bookStore(IBookService bookService) {
+        return new BookStore(bookService);  // Register BookStore bean
+    }
+
+    /**
+     * Bean definition for UserStore.
+     *
+     * @param userService the service used to load and re-read users.
+     * @return the shared UserStore.
+     */
+    @Bean
+    public UserStore userStore(IUserService userService) {
+        return new UserStore(userService);  // Register UserStore bean
+    }
+
+    /**
+     * Bean definition for OrderStore.
+     *
+     * @param orderService the service used to load and re-read orders.
+     * @return the shared OrderStore.
+     */
+    @Bean
+    public OrderStore orderStore(IOrderService orderService) {
+        return new OrderStore(orderService);  // Register OrderStore bean
     }
 
     /**
@@ -3,23 +3,23 @@ package com.thereadingroom.controller.admin;
 import com.thereadingroom.model.entity.User;
 import com.thereadingroom.service.user.IUserService;
 import com.thereadingroom.utils.ui.UIUtils;
-import javafx.collections.FXCollections;
+import com.thereadingroom.utils.ui.cell.ActionButton;
+import com.thereadingroom.utils.ui.cell.TableCells;
+import com.thereadingroom.utils.ui.store.UserStore;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
-import javafx.geometry.Pos;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
-import javafx.util.Callback;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 /**
  * Controller class for managing user accounts in the admin panel.
  * Provides functionality to display, search, edit, and remove users.
+ * The table shows the shared UserStore, so an edited or removed user only changes its own row.
  */
 @Controller
 public class AdminManageUsersController {
@@ -47,19 +47,22 @@ public class AdminManageUsersController {
 
     private final IUserService userService;  // Service for handling user-related operations
     private final UIUtils uiUtils;  // Utility instance for UI-related tasks
+    private final UserStore userStore;  // Shared, live user rows
 
-    private List<User> allUsers;  // List of all users, excluding admin users
+    private FilteredList<User> filteredUsers;  // The non-admin users matching the search
 
     /**
      * Constructor-based dependency injection for UserService and UIUtils.
      *
      * @param userService The service for managing user operations.
      * @param uiUtils Utility for handling UI-related tasks.
+     * @param userStore Shared, live user rows.
      */
     @Autowired
-    public AdminManageUsersController(IUserService userService, UIUtils uiUtils) {
+    public AdminManageUsersController(IUserService userService, UIUtils uiUtils, UserStore userStore) {
         this.userService = userService;
         this.uiUtils = uiUtils;
+        this.userStore = userStore;
     }
 
     /**
@@ -69,7 +72,8 @@ public class AdminManageUsersController {
     @FXML
     public void initialize() {
         setupTableColumns();
-        loadUsers();  // Load users initially and populate the table
+        addActionButtonsToTable();
+        loadUsers();  // Show the users in the table
         applyStyles();
     }
 
@@ -84,84 +88,29 @@ public class AdminManageUsersController {
      * Configures the columns of the user table with the appropriate data fields.
      */
     private void setupTableColumns() {
-        userIdColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        usernameColumn.setCellValueFactory(new PropertyValueFactory<>("username"));
-        firstNameColumn.setCellValueFactory(new PropertyValueFactory<>("firstName"));
-        lastNameColumn.setCellValueFactory(new PropertyValueFactory<>("lastName"));
+        userIdColumn.setCellValueFactory(TableCells.constant(User::getId));
+        usernameColumn.setCellValueFactory(TableCells.property(User::usernameProperty));
+        firstNameColumn.setCellValueFactory(TableCells.property(User::firstNameProperty));
+        lastNameColumn.setCellValueFactory(TableCells.property(User::lastNameProperty));
     }
 
     /**
      * Adds Edit and Remove buttons to the action column for each user row.
      */
     private void addActionButtonsToTable() {
-        actionColumn.setCellFactory(new Callback<>() {
-            @Override
-            public TableCell<User, Void> call(final TableColumn<User, Void> param) {
-                return new TableCell<>() {
-                    private final Button editButton = createEditButton();
-                    private final Button removeButton = createRemoveButton();
-
-                    // Creates an "Edit" button for each row
-                    private Button createEditButton() {
-                        Button button = new Button("Edit");
-                        button.setStyle("-fx-background-color: #228b22; -fx-text-fill: white;");
-                        button.setOnAction(event -> {
-                            User user = getTableView().getItems().get(getIndex());
-                            handleEditUser(user);  // Handle the editing of the user
-                            reloadUserTableWithActions();  // Reload the table after editing
-                        });
-                        return button;
-                    }
-
-                    // Creates a "Remove" button for each row
-                    private Button createRemoveButton() {
-                        Button button = new Button("Remove");
-                        button.setStyle("-fx-background-color: #d2691e; -fx-text-fill: white;");
-                        button.setOnAction(event -> {
-                            User user = getTableView().getItems().get(getIndex());
-                            handleRemoveUser(user);  // Handle the removal of the user
-                            reloadUserTableWithActions();  // Reload the table after removing
-                        });
-                        return button;
-                    }
-
-                    // Update the cell with action buttons if the row is not empty
-                    @Override
-                    protected void updateItem(Void item, boolean empty) {
-                        super.updateItem(item, empty);
-                        if (empty) {
-                            setGraphic(null);  // No buttons for empty rows
-                        } else {
-                            HBox actionButtons = new HBox(editButton, removeButton);
-                            actionButtons.setSpacing(10);
-                            actionButtons.setAlignment(Pos.CENTER);
-                            setGraphic(actionButtons);  // Display the action buttons for non-empty rows
-                        }
-                    }
-                };
-            }
-        });
+        actionColumn.setCellFactory(TableCells.buttons(
+                new ActionButton<>("Edit", "-fx-background-color: #228b22; -fx-text-fill: white;", this::handleEditUser),
+                new ActionButton<>("Remove", "-fx-background-color: #d2691e; -fx-text-fill: white;", this::handleRemoveUser)));
     }
 
     /**
-     * Loads all non-admin users from the database and populates the table view.
+     * Shows the shared non-admin user rows in the table (the users are only queried the first time).
      */
     private void loadUsers() {
-        allUsers = userService.getAllUsers()
-                .stream()
-                .filter(user -> !user.isAdmin())  // Exclude admin users
-                .collect(Collectors.toList());
-
-        reloadUserTableWithActions();  // Populate the table with users and add action buttons
-    }
-
-    /**
-     * Updates the table view with the provided list of users.
-     *
-     * @param users The list of users to display in the table.
-     */
-    private void updateTableView(List<User> users) {
-        userTableView.setItems(FXCollections.observableArrayList(users));
+        filteredUsers = new FilteredList<>(userStore.load(), user -> !user.isAdmin());  // Exclude admin users
+        SortedList<User> sortedUsers = new SortedList<>(filteredUsers);
+        sortedUsers.comparatorProperty().bind(userTableView.comparatorProperty());
+        userTableView.setItems(sortedUsers);
     }
 
     /**
@@ -173,30 +122,28 @@ public class AdminManageUsersController {
         String query = searchField.getText().trim().toLowerCase();
 
         if (query.isEmpty()) {
-            reloadUserTableWithActions();  // Reload all users when search is cleared
+            filteredUsers.setPredicate(user -> !user.isAdmin());  // Show all users when search is cleared
             return;
         }
 
-        List<User> filteredUsers = filterUsers(query);  // Filter users based on the query
-        if (filteredUsers.isEmpty()) {
+        Predicate<User> matchesQuery = matchesQuery(query);  // Filter users based on the query
+        if (userStore.getRows().stream().noneMatch(matchesQuery)) {
             uiUtils.showError("Search Error", "No matching users found.");
         } else {
-            updateTableView(filteredUsers);  // Display filtered users
+            filteredUsers.setPredicate(matchesQuery);  // Display filtered users
         }
     }
 
     /**
-     * Filters the list of all users based on the provided search query.
-     * Supports filtering by user ID or username.
+     * Builds the filter for the provided search query.
+     * Supports filtering by user ID or username; admin users never match.
      *
      * @param query The search query.
-     * @return A list of users that match the query.
+     * @return A predicate matching the non-admin users that match the query.
      */
-    private List<User> filterUsers(String query) {
-        return allUsers.stream()
-                .filter(user -> String.valueOf(user.getId()).equals(query) ||
-                        user.getUsername().toLowerCase().contains(query))
-                .collect(Collectors.toList());
+    private Predicate<User> matchesQuery(String query) {
+        return user -> !user.isAdmin() && (String.valueOf(user.getId()).equals(query) ||
+                user.getUsername().toLowerCase().contains(query));
     }
 
     /**
@@ -209,9 +156,7 @@ public class AdminManageUsersController {
             AdminEditUserController editController = (AdminEditUserController) controller;
             editController.setUser(user);  // Pass the selected user to the edit controller
         }, (Stage) userTableView.getScene().getWindow());
-
-        reloadUserTableWithActions();  // Reload the table after editing a user
-        loadUsers();
+        // The UserStore updates the user's row when the edit is saved
     }
 
     /**
@@ -221,11 +166,8 @@ public class AdminManageUsersController {
      */
     private void handleRemoveUser(User user) {
         if (confirmUserDeletion()) {
-            deleteUser(user);  // Delete the user if confirmed
+            deleteUser(user);  // Delete the user if confirmed; the UserStore then removes the row
         }
-
-        reloadUserTableWithActions();  // Reload the table after removing a user
-        loadUsers();
     }
 
     /**
@@ -250,14 +192,4 @@ public class AdminManageUsersController {
             uiUtils.showError("Error", "Failed to remove user.");
         }
     }
-
-    /**
-     * Reloads the user table and refreshes the UI components, ensuring that
-     * the action buttons (Edit, Remove) are re-added to each row.
-     */
-    public void reloadUserTableWithActions() {
-        userTableView.setItems(FXCollections.observableArrayList(allUsers));  // Set all users to the table
-        userTableView.refresh();  // Refresh the table UI
-        addActionButtonsToTable();  // Add the action buttons back to the table
-    }
 }
@@ -1,28 +1,39 @@
 package com.thereadingroom.controller.admin;
 
+import com.thereadingroom.model.dao.order.OrderQuery;
 import com.thereadingroom.model.entity.Order;
 import com.thereadingroom.service.order.IOrderService;
 import com.thereadingroom.utils.ui.UIUtils;
+import com.thereadingroom.utils.ui.cell.ActionButton;
+import com.thereadingroom.utils.ui.cell.TableCells;
+import com.thereadingroom.utils.ui.store.OrderStore;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.FileChooser;
-import javafx.util.Callback;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import java.io.File;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * Controller class for managing orders in the admin panel.
  * Provides functionalities to view, filter, sort, remove, and export orders.
+ * Filtering and sorting (by the sort option or a column header) run as an OrderQuery in the database, and
+ * the matching orders are paged into the table as the admin scrolls, so only the visible pages are in memory.
+ * The rows live in the shared OrderStore, which patches or removes shown orders when they change.
  */
 @Controller
 public class AdminOrderController {
 
+    private static final int PREFETCH_DISTANCE = 20;  // Load the next page when a row this close to the end is shown
+
     @FXML
     private TableView<Order> orderTableView;  // Table view for displaying the list of orders
 
@@ -30,13 +41,13 @@ public class AdminOrderController {
     private TableColumn<Order, Integer> orderIdColumn;  // Column for displaying order ID
 
     @FXML
-    private TableColumn<Order, Integer> userIdColumn;  // Column for displaying user ID
+    private TableColumn<Order, Number> userIdColumn;  // Column for displaying user ID
 
     @FXML
     private TableColumn<Order, String> orderNumberColumn;  // Column for displaying order number
 
     @FXML
-    private TableColumn<Order, Double> orderTotalColumn;  // Column for displaying total order price
+    private TableColumn<Order, Number> orderTotalColumn;  // Column for displaying total order price
 
     @FXML
     private TableColumn<Order, String> orderDateColumn;  // Column for displaying order date
@@ -47,6 +58,21 @@ public class AdminOrderController {
     @FXML
     private TextField filterUserIdField;  // Input field for filtering orders by user ID
 
+    @FXML
+    private TextField orderNumberPrefixField;  // Input field for filtering orders by the start of the order number
+
+    @FXML
+    private DatePicker fromDatePicker;  // First day of the order date filter
+
+    @FXML
+    private DatePicker toDatePicker;  // Last day of the order date filter
+
+    @FXML
+    private TextField minTotalField;  // Minimum total price filter
+
+    @FXML
+    private TextField maxTotalField;  // Maximum total price filter
+
     @FXML
     private ComboBox<String> sortComboBox;  // Combo box for selecting sorting options
 
@@ -55,43 +81,67 @@ public class AdminOrderController {
 
     private final IOrderService orderService;  // Service for handling order-related operations
     private final UIUtils uiUtils;  // Utility instance for UI-related tasks
+    private final OrderStore orderStore;  // Shared, live order rows
 
-    private List<Order> allOrders;  // List to store all fetched orders
+    private Map<TableColumn<Order, ?>, OrderQuery.SortKey> columnSortKeys;  // Sort key of each sortable column
+    private OrderQuery currentQuery;  // The query of the last loaded page
+    private boolean lastPageLoaded;   // True once a page came back shorter than the page size
+    private boolean pageRequested;    // True while a next-page load is queued
 
     /**
      * Constructor-based dependency injection for OrderService and UIUtils.
      *
      * @param orderService The service for managing order operations.
      * @param uiUtils Utility for handling UI-related tasks.
+     * @param orderStore Shared, live order rows.
      */
     @Autowired
-    public AdminOrderController(IOrderService orderService, UIUtils uiUtils) {
+    public AdminOrderController(IOrderService orderService, UIUtils uiUtils, OrderStore orderStore) {
         this.orderService = orderService;
         this.uiUtils = uiUtils;
+        this.orderStore = orderStore;
     }
 
     /**
      * Initializes the controller after the components are fully loaded.
-     * Sets up the table columns, action buttons, sorting options, and loads orders.
+     * Sets up the table columns, action buttons, sorting options, and loads the first page of orders.
      */
     @FXML
     public void initialize() {
+        currentQuery = null;  // The controller is shared, so forget the query of a previously shown table
         setupTableColumns();
         setupActionButtons();
         setupSortComboBox();
-        loadOrders();
+        setupPaging();
+        orderTableView.setItems(orderStore.follow());
+        runQuery(new OrderQuery());
         uiUtils.loadCSS(orderTableView, "/com/thereadingroom/css/table-style.css");
     }
 
     /**
      * Configures the columns of the order table with appropriate data fields.
+     * Sorting by a column header runs the query again, sorted by that column.
      */
     private void setupTableColumns() {
-        orderIdColumn.setCellValueFactory(new PropertyValueFactory<>("orderId"));
-        userIdColumn.setCellValueFactory(new PropertyValueFactory<>("userId"));
-        orderNumberColumn.setCellValueFactory(new PropertyValueFactory<>("orderNumber"));
-        orderTotalColumn.setCellValueFactory(new PropertyValueFactory<>("totalPrice"));
-        orderDateColumn.setCellValueFactory(new PropertyValueFactory<>("formattedOrderDate"));
+        orderIdColumn.setCellValueFactory(TableCells.constant(Order::getOrderId));
+        userIdColumn.setCellValueFactory(TableCells.property(Order::userIdProperty));
+        orderNumberColumn.setCellValueFactory(TableCells.property(Order::orderNumberProperty));
+        orderTotalColumn.setCellValueFactory(TableCells.property(Order::totalPriceProperty));
+        orderDateColumn.setCellValueFactory(TableCells.constant(Order::getFormattedOrderDate));
+
+        columnSortKeys = Map.of(
+                orderIdColumn, OrderQuery.SortKey.ORDER_ID,
+                userIdColumn, OrderQuery.SortKey.USER_ID,
+                orderNumberColumn, OrderQuery.SortKey.ORDER_NUMBER,
+                orderTotalColumn, OrderQuery.SortKey.TOTAL_PRICE,
+                orderDateColumn, OrderQuery.SortKey.ORDER_DATE);
+        actionColumn.setSortable(false);
+        orderTableView.setSortPolicy(table -> {
+            if (currentQuery != null) {
+                applyFilterAndSort();  // The database returns the rows in the new order
+            }
+            return true;
+        });
 
         orderTableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);  // Allow multiple selections
     }
@@ -100,31 +150,7 @@ public class AdminOrderController {
      * Adds action buttons (Remove) to the action column for each order row.
      */
     private void setupActionButtons() {
-        actionColumn.setCellFactory(new Callback<>() {
-            @Override
-            public TableCell<Order, Void> call(final TableColumn<Order, Void> param) {
-                return new TableCell<>() {
-                    private final Button removeButton = new Button("Remove");
-
-                    {
-                        removeButton.setOnAction(e -> {
-                            Order order = getTableView().getItems().get(getIndex());
-                            handleRemoveOrder(order);  // Handle order removal
-                        });
-                    }
-
-                    @Override
-                    public void updateItem(Void item, boolean empty) {
-                        super.updateItem(item, empty);
-                        if (empty) {
-                            setGraphic(null);  // No button for empty rows
-                        } else {
-                            setGraphic(removeButton);  // Show remove button for each row
-                        }
-                    }
-                };
-            }
-        });
+        actionColumn.setCellFactory(TableCells.buttons(new ActionButton<>("Remove", null, this::handleRemoveOrder)));
     }
 
     /**
@@ -135,63 +161,125 @@ public class AdminOrderController {
     }
 
     /**
-     * Loads all orders from the database and populates the table view.
+     * Installs rows that request the next page of orders when one of the last rows is shown.
      */
-    private void loadOrders() {
-        allOrders = orderService.getAllOrders();  // Fetch all orders from the service
-        updateTableView(allOrders);  // Update the table view with the fetched orders
+    private void setupPaging() {
+        orderTableView.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(Order order, boolean empty) {
+                super.updateItem(order, empty);
+                if (!empty) {
+                    prefetchIfNeeded(getIndex());
+                }
+            }
+        });
     }
 
     /**
-     * Applies filtering and sorting to the orders based on user input and selections.
-     * Updates the table view accordingly.
+     * Runs the query built from the filter fields, the sort option and the sorted column header.
      */
     @FXML
     public void applyFilterAndSort() {
-        List<Order> filteredOrders = applyFilter(allOrders, filterUserIdField.getText().trim());
-        List<Order> sortedOrders = applySort(filteredOrders, sortComboBox.getValue());
-        updateTableView(sortedOrders);
+        OrderQuery query = buildQuery();
+        if (query != null) {
+            runQuery(query);
+        }
     }
 
     /**
-     * Filters the orders based on user ID input.
+     * Builds the order query from the filter inputs and the current sort.
      *
-     * @param orders List of orders to be filtered.
-     * @param userIdFilter The user ID to filter orders by.
-     * @return A list of filtered orders matching the user ID.
+     * @return The query, or null if an input is invalid (an error is shown).
      */
-    private List<Order> applyFilter(List<Order> orders, String userIdFilter) {
-        if (userIdFilter.isEmpty()) {
-            return orders;  // Return all orders if no filter is applied
+    private OrderQuery buildQuery() {
+        OrderQuery query = new OrderQuery();
+        try {
+            String userIdFilter = filterUserIdField.getText().trim();
+            query.setUserId(userIdFilter.isEmpty() ? null : Integer.parseInt(userIdFilter));
+            query.setMinTotal(parseTotal(minTotalField));
+            query.setMaxTotal(parseTotal(maxTotalField));
+        } catch (NumberFormatException e) {
+            uiUtils.showError("Invalid Filter", "User ID and totals must be numbers.");
+            return null;
+        }
+        query.setOrderNumberPrefix(orderNumberPrefixField.getText());
+        LocalDate fromDate = fromDatePicker.getValue();
+        LocalDate toDate = toDatePicker.getValue();
+        query.setFromDate(fromDate == null ? null : fromDate.atStartOfDay());
+        query.setToDate(toDate == null ? null : toDate.plusDays(1).atStartOfDay());  // The last day is included
+
+        TableColumn<Order, ?> sortColumn = orderTableView.getSortOrder().isEmpty() ? null : orderTableView.getSortOrder().get(0);
+        if (sortColumn != null && columnSortKeys.containsKey(sortColumn)) {
+            query.setSortKey(columnSortKeys.get(sortColumn));
+            query.setDescending(sortColumn.getSortType() == TableColumn.SortType.DESCENDING);
+        } else if ("Total Price".equals(sortComboBox.getValue())) {
+            query.setSortKey(OrderQuery.SortKey.TOTAL_PRICE);  // Sort by price (highest first)
+        } else {
+            query.setSortKey(OrderQuery.SortKey.ORDER_DATE);  // Sort by date (latest first)
         }
-        return orders.stream()
-                .filter(order -> String.valueOf(order.getUserId()).equals(userIdFilter))
-                .collect(Collectors.toList());
+        return query;
+    }
+
+    /**
+     * Parses an optional total price filter.
+     *
+     * @param field The input field.
+     * @return The total, or null if the field is empty.
+     */
+    private Double parseTotal(TextField field) {
+        String text = field.getText() == null ? "" : field.getText().trim();
+        return text.isEmpty() ? null : Double.parseDouble(text);
     }
 
     /**
-     * Sorts the orders based on the selected sort option (Order Date or Total Price).
+     * Replaces the shown orders with the first page of a query.
      *
-     * @param orders List of orders to be sorted.
-     * @param sortOption The sorting option selected by the user.
-     * @return A sorted list of orders.
-     */
-    private List<Order> applySort(List<Order> orders, String sortOption) {
-        if ("Order Date".equals(sortOption)) {
-            orders.sort((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()));  // Sort by date (latest first)
-        } else if ("Total Price".equals(sortOption)) {
-            orders.sort((o1, o2) -> Double.compare(o2.getTotalPrice(), o1.getTotalPrice()));  // Sort by price (highest first)
+     * @param query The query to run.
+     */
+    private void runQuery(OrderQuery query) {
+        currentQuery = query;
+        lastPageLoaded = false;
+        pageRequested = false;
+        orderTableView.getSelectionModel().clearSelection();
+        orderStore.clear();
+        showPage(orderService.findOrders(query));
+        orderTableView.scrollTo(0);
+    }
+
+    /**
+     * Appends the next page of the current query.
+     */
+    private void loadNextPage() {
+        pageRequested = false;
+        ObservableList<Order> rows = orderStore.getRows();
+        if (lastPageLoaded || rows.isEmpty()) {
+            return;
         }
-        return orders;
+        currentQuery = currentQuery.nextPage(rows.get(rows.size() - 1));
+        showPage(orderService.findOrders(currentQuery));
     }
 
     /**
-     * Updates the table view with the provided list of orders.
+     * Adds a page of orders to the table.
      *
-     * @param orders The list of orders to display in the table view.
+     * @param page The orders of the page.
      */
-    private void updateTableView(List<Order> orders) {
-        orderTableView.setItems(FXCollections.observableArrayList(orders));  // Set the orders to the table view
+    private void showPage(List<Order> page) {
+        lastPageLoaded = page.size() < currentQuery.getLimit();
+        orderStore.appendAll(page);
+    }
+
+    /**
+     * Queues loading the next page when a row near the end of the loaded orders is shown.
+     * The load runs after the current layout pass, since the rows cannot change while the table lays them out.
+     *
+     * @param index The index of the row being shown.
+     */
+    private void prefetchIfNeeded(int index) {
+        if (!lastPageLoaded && !pageRequested && index >= orderStore.size() - PREFETCH_DISTANCE) {
+            pageRequested = true;
+            Platform.runLater(this::loadNextPage);
+        }
     }
 
     /**
@@ -244,8 +332,7 @@ public class AdminOrderController {
         if (confirm) {
             boolean success = orderService.deleteOrderById(order.getOrderId());
             if (success) {
-                uiUtils.showAlert("Success", "Order removed successfully!");
-                loadOrders();  // Reload orders after successful removal
+                uiUtils.showAlert("Success", "Order removed successfully!");  // The OrderStore then removes the row
             } else {
                 uiUtils.showError("Error", "Failed to remove order.");
             }
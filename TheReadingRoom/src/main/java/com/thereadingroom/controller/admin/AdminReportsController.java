@@ -0,0 +1,309 @@
+package com.thereadingroom.controller.admin;
+
+import com.thereadingroom.model.dao.analytics.CubeQuery;
+import com.thereadingroom.model.entity.BookSales;
+import com.thereadingroom.model.entity.CustomerSales;
+import com.thereadingroom.model.entity.DailySales;
+import com.thereadingroom.model.entity.SalesSlice;
+import com.thereadingroom.service.report.IReportService;
+import com.thereadingroom.utils.ui.UIUtils;
+import com.thereadingroom.utils.ui.cell.TableCells;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controller class for the admin sales reports.
+ * Shows revenue, orders and copies sold per day for a date range, the best-selling books of the range and
+ * the customers with the highest lifetime spend. All figures come from the sales rollups, so the reports
+ * stay fast however many orders there are; the rollups can be rebuilt from the orders if they are ever in doubt.
+ * The explore section groups the order lines of the range by one or two chosen dimensions (for instance
+ * author by month) on the in-memory sales cube, off the JavaFX thread.
+ */
+@Controller
+public class AdminReportsController {
+
+    private static final int DEFAULT_RANGE_DAYS = 30;  // Days shown when the screen opens
+    private static final int TOP_LIMIT = 10;           // Rows in the top books and top customers tables
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private static final String NO_DIMENSION = "None";  // Second grouping option for grouping by one dimension
+
+    @FXML
+    private DatePicker fromDatePicker;  // First day of the report range
+
+    @FXML
+    private DatePicker toDatePicker;  // Last day of the report range
+
+    @FXML
+    private Label revenueLabel;  // Total revenue of the range
+
+    @FXML
+    private Label orderCountLabel;  // Number of orders in the range
+
+    @FXML
+    private Label unitsLabel;  // Number of copies sold in the range
+
+    @FXML
+    private TableView<DailySales> dailySalesTable;  // Sales per day
+
+    @FXML
+    private TableColumn<DailySales, LocalDate> dayColumn;  // Column for the day
+
+    @FXML
+    private TableColumn<DailySales, Integer> dailyOrdersColumn;  // Column for the orders of the day
+
+    @FXML
+    private TableColumn<DailySales, Integer> dailyUnitsColumn;  // Column for the copies sold that day
+
+    @FXML
+    private TableColumn<DailySales, Double> dailyRevenueColumn;  // Column for the revenue of the day
+
+    @FXML
+    private TableView<BookSales> topBooksTable;  // Best-selling books of the range
+
+    @FXML
+    private TableColumn<BookSales, String> bookTitleColumn;  // Column for the book title
+
+    @FXML
+    private TableColumn<BookSales, Integer> bookUnitsColumn;  // Column for the copies sold
+
+    @FXML
+    private TableColumn<BookSales, Double> bookRevenueColumn;  // Column for the book's revenue
+
+    @FXML
+    private TableView<CustomerSales> topCustomersTable;  // Customers with the highest lifetime spend
+
+    @FXML
+    private TableColumn<CustomerSales, String> customerNameColumn;  // Column for the username
+
+    @FXML
+    private TableColumn<CustomerSales, Integer> customerOrdersColumn;  // Column for the customer's orders
+
+    @FXML
+    private TableColumn<CustomerSales, Double> customerRevenueColumn;  // Column for the customer's spend
+
+    @FXML
+    private Button rebuildButton;  // Button to rebuild the rollups from the orders
+
+    @FXML
+    private ComboBox<String> groupByComboBox;  // First grouping dimension of the explore section
+
+    @FXML
+    private ComboBox<String> thenByComboBox;  // Second grouping dimension, or None
+
+    @FXML
+    private TextField authorFilterField;  // Optional author the explored lines must be by
+
+    @FXML
+    private Button exploreButton;  // Button to run the explore query
+
+    @FXML
+    private TableView<SalesSlice> sliceTable;  // Groups of the explore query
+
+    @FXML
+    private TableColumn<SalesSlice, String> groupColumn;  // Column for the first dimension's value
+
+    @FXML
+    private TableColumn<SalesSlice, String> thenColumn;  // Column for the second dimension's value
+
+    @FXML
+    private TableColumn<SalesSlice, Long> sliceUnitsColumn;  // Column for the copies sold in the group
+
+    @FXML
+    private TableColumn<SalesSlice, Double> sliceRevenueColumn;  // Column for the group's revenue
+
+    private final Map<String, CubeQuery.Dimension> dimensionsByLabel = new LinkedHashMap<>();  // Combo box label -> dimension
+
+    private final IReportService reportService;  // Service answering the reports from the sales rollups
+    private final UIUtils uiUtils;  // Utility instance for UI-related tasks
+
+    /**
+     * Constructor-based dependency injection for ReportService and UIUtils.
+     *
+     * @param reportService The service answering the sales reports.
+     * @param uiUtils Utility for handling UI-related tasks.
+     */
+    @Autowired
+    public AdminReportsController(IReportService reportService, UIUtils uiUtils) {
+        this.reportService = reportService;
+        this.uiUtils = uiUtils;
+    }
+
+    /**
+     * Initializes the controller after the components are fully loaded.
+     * Sets up the table columns, selects the last 30 days and loads the reports.
+     */
+    @FXML
+    public void initialize() {
+        setupTableColumns();
+        setupExploreControls();
+        toDatePicker.setValue(LocalDate.now());
+        fromDatePicker.setValue(LocalDate.now().minusDays(DEFAULT_RANGE_DAYS - 1));
+        loadReports();
+        uiUtils.loadCSS(dailySalesTable, "/com/thereadingroom/css/table-style.css");
+        uiUtils.loadCSS(topBooksTable, "/com/thereadingroom/css/table-style.css");
+        uiUtils.loadCSS(topCustomersTable, "/com/thereadingroom/css/table-style.css");
+        uiUtils.loadCSS(sliceTable, "/com/thereadingroom/css/table-style.css");
+    }
+
+    /**
+     * Configures the columns of the report tables.
+     */
+    private void setupTableColumns() {
+        dayColumn.setCellValueFactory(TableCells.constant(DailySales::getDay));
+        dayColumn.setCellFactory(TableCells.formatted(day -> day.format(DAY_FORMAT)));
+        dailyOrdersColumn.setCellValueFactory(TableCells.constant(DailySales::getOrderCount));
+        dailyUnitsColumn.setCellValueFactory(TableCells.constant(DailySales::getUnitsSold));
+        dailyRevenueColumn.setCellValueFactory(TableCells.constant(DailySales::getRevenue));
+        dailyRevenueColumn.setCellFactory(TableCells.formatted(this::formatAmount));
+
+        bookTitleColumn.setCellValueFactory(TableCells.constant(BookSales::getTitle));
+        bookUnitsColumn.setCellValueFactory(TableCells.constant(BookSales::getUnitsSold));
+        bookRevenueColumn.setCellValueFactory(TableCells.constant(BookSales::getRevenue));
+        bookRevenueColumn.setCellFactory(TableCells.formatted(this::formatAmount));
+
+        customerNameColumn.setCellValueFactory(TableCells.constant(CustomerSales::getUsername));
+        customerOrdersColumn.setCellValueFactory(TableCells.constant(CustomerSales::getOrderCount));
+        customerRevenueColumn.setCellValueFactory(TableCells.constant(CustomerSales::getRevenue));
+        customerRevenueColumn.setCellFactory(TableCells.formatted(this::formatAmount));
+
+        groupColumn.setCellValueFactory(TableCells.constant(SalesSlice::getGroupLabel));
+        thenColumn.setCellValueFactory(TableCells.constant(SalesSlice::getThenLabel));
+        sliceUnitsColumn.setCellValueFactory(TableCells.constant(SalesSlice::getUnitsSold));
+        sliceRevenueColumn.setCellValueFactory(TableCells.constant(SalesSlice::getRevenue));
+        sliceRevenueColumn.setCellFactory(TableCells.formatted(this::formatAmount));
+    }
+
+    /**
+     * Fills the dimension combo boxes of the explore section, defaulting to author by month.
+     */
+    private void setupExploreControls() {
+        dimensionsByLabel.clear();
+        for (CubeQuery.Dimension dimension : CubeQuery.Dimension.values()) {
+            dimensionsByLabel.put(dimension.getLabel(), dimension);
+        }
+        groupByComboBox.setItems(FXCollections.observableArrayList(dimensionsByLabel.keySet()));
+        groupByComboBox.setValue(CubeQuery.Dimension.AUTHOR.getLabel());
+        thenByComboBox.setItems(FXCollections.observableArrayList(NO_DIMENSION));
+        thenByComboBox.getItems().addAll(dimensionsByLabel.keySet());
+        thenByComboBox.setValue(CubeQuery.Dimension.MONTH.getLabel());
+        sliceTable.getItems().clear();
+    }
+
+    /**
+     * Reloads the reports for the selected date range.
+     */
+    @FXML
+    public void handleApplyRange() {
+        loadReports();
+    }
+
+    /**
+     * Loads the daily sales, the range totals, the top books and the top customers.
+     */
+    private void loadReports() {
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+        if (from == null || to == null || from.isAfter(to)) {
+            uiUtils.showError("Invalid Range", "Please select a start date on or before the end date.");
+            return;
+        }
+
+        List<DailySales> dailySales = reportService.getDailySales(from, to);
+        dailySalesTable.getItems().setAll(dailySales);
+        revenueLabel.setText(formatAmount(dailySales.stream().mapToDouble(DailySales::getRevenue).sum()));
+        orderCountLabel.setText(String.valueOf(dailySales.stream().mapToInt(DailySales::getOrderCount).sum()));
+        unitsLabel.setText(String.valueOf(dailySales.stream().mapToInt(DailySales::getUnitsSold).sum()));
+
+        topBooksTable.getItems().setAll(reportService.getTopBooks(from, to, TOP_LIMIT));
+        topCustomersTable.getItems().setAll(reportService.getTopCustomers(TOP_LIMIT));
+    }
+
+    /**
+     * Rebuilds the rollups from the orders in the background and reloads the reports when done.
+     */
+    @FXML
+    public void handleRebuildRollups() {
+        boolean confirm = uiUtils.showConfirmation("Rebuild Reports",
+                "Recompute all sales figures from the orders? Checkouts wait until the rebuild is finished.");
+        if (!confirm) {
+            return;
+        }
+        rebuildButton.setDisable(true);
+        CompletableFuture.supplyAsync(reportService::rebuildRollups)
+                .whenComplete((orderCount, error) -> Platform.runLater(() -> {
+                    rebuildButton.setDisable(false);
+                    if (error == null && orderCount >= 0) {
+                        loadReports();
+                        uiUtils.showAlert("Reports Rebuilt", "Sales figures recomputed from " + orderCount + " orders.");
+                    } else {
+                        uiUtils.showError("Rebuild Failed", "The sales figures could not be recomputed.");
+                    }
+                }));
+    }
+
+    /**
+     * Groups the order lines of the selected range by the chosen dimensions in the background and shows the
+     * groups with the highest revenue.
+     */
+    @FXML
+    public void handleExplore() {
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+        if (from == null || to == null || from.isAfter(to)) {
+            uiUtils.showError("Invalid Range", "Please select a start date on or before the end date.");
+            return;
+        }
+        CubeQuery.Dimension groupBy = dimensionsByLabel.get(groupByComboBox.getValue());
+        CubeQuery.Dimension thenBy = dimensionsByLabel.get(thenByComboBox.getValue());
+        if (groupBy == null || groupBy == thenBy) {
+            uiUtils.showError("Invalid Grouping", "Please choose two different dimensions to group by.");
+            return;
+        }
+
+        CubeQuery query = new CubeQuery(groupBy, thenBy);
+        query.setFromDate(from);
+        query.setToDate(to);
+        query.setAuthor(authorFilterField.getText());
+        groupColumn.setText(groupBy.getLabel());
+        thenColumn.setText(thenBy == null ? "" : thenBy.getLabel());
+        thenColumn.setVisible(thenBy != null);
+
+        exploreButton.setDisable(true);
+        CompletableFuture.supplyAsync(() -> reportService.sliceSales(query))
+                .whenComplete((slices, error) -> Platform.runLater(() -> {
+                    exploreButton.setDisable(false);
+                    if (error == null) {
+                        sliceTable.getItems().setAll(slices);
+                    } else {
+                        uiUtils.showError("Explore Failed", "The sales could not be grouped.");
+                    }
+                }));
+    }
+
+    /**
+     * Formats an amount of money for display.
+     *
+     * @param amount The amount.
+     * @return The amount with a dollar sign and two decimals.
+     */
+    private String formatAmount(double amount) {
+        return String.format("$%.2f", amount);
+    }
+}
@@ -5,6 +5,7 @@ import com.thereadingroom.model.entity.User;
 import com.thereadingroom.service.ServiceManager;
 import com.thereadingroom.utils.auth.SessionManager;
 import com.thereadingroom.utils.ui.UIUtils;
+import com.thereadingroom.utils.ui.stall.StallOverlay;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.layout.VBox;
@@ -14,7 +15,8 @@ import org.springframework.stereotype.Controller;
 
 /**
  * Controller for handling the Admin sidebar functionality.
- * This class provides navigation to various admin features such as managing stocks, orders, users, editing profile, and logging out.
+ * This class provides navigation to various admin features such as managing stocks, orders, users, editing profile, and logging out,
+ * and opens the UI stall overlay.
  */
 @Controller
 public class AdminSidebarController {
@@ -102,6 +104,14 @@ public class AdminSidebarController {
         loadSceneWithoutData("/com/thereadingroom/fxml/admin/admin_manage_users.fxml", "Manage Users");
     }
 
+    /**
+     * Handles navigation to the "Sales Reports" section.
+     */
+    @FXML
+    public void handleViewReports() {
+        loadSceneWithoutData("/com/thereadingroom/fxml/admin/admin_reports.fxml", "Sales Reports");
+    }
+
     /**
      * Handles the process for editing the currently logged-in admin's profile.
      * Loads the edit profile scene and pre-populates the form with the user's existing details.
@@ -123,6 +133,14 @@ public class AdminSidebarController {
         }
     }
 
+    /**
+     * Shows or hides the overlay listing the handlers that froze the UI the longest.
+     */
+    @FXML
+    public void handleToggleStallOverlay() {
+        StallOverlay.getInstance().toggle(getCurrentStage());
+    }
+
     /**
      * Handles the admin logout process.
      * Clears the session and redirects the user to the login screen.
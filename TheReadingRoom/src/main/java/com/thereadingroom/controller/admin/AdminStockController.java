@@ -2,22 +2,35 @@ package com.thereadingroom.controller.admin;
 
 import com.thereadingroom.model.entity.Book;
 import com.thereadingroom.service.book.IBookService;
+import com.thereadingroom.service.inventory.flashsale.FlashSaleManager;
+import com.thereadingroom.utils.trace.Span;
+import com.thereadingroom.utils.trace.Tracer;
+import com.thereadingroom.utils.ui.DebouncedSearch;
 import com.thereadingroom.utils.ui.UIUtils;
+import com.thereadingroom.utils.ui.cell.ActionButton;
+import com.thereadingroom.utils.ui.cell.TableCells;
+import com.thereadingroom.utils.ui.store.BookStore;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
-import javafx.geometry.Pos;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
-import javafx.util.Callback;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Controller for managing book stocks in the admin panel.
- * This class provides functionality to view, search, edit, add, and update book stock.
+ * This class provides functionality to view, search, edit, add, and update book stock,
+ * and to start or end a flash sale for a book.
+ * The table shows the shared BookStore, which patches the rows of changed books in place instead of reloading
+ * after each edit, so changes made elsewhere (checkouts, flash sale reconciliation) show up as well.
+ * Searching runs as the admin types, against the in-memory search index, and shows the best matches,
+ * falling back to the closest spellings when no book matches the words as typed.
  */
 @Controller
 public class AdminStockController {
@@ -35,13 +48,13 @@ public class AdminStockController {
     private TableColumn<Book, String> bookAuthorColumn;  // Column for displaying book author
 
     @FXML
-    private TableColumn<Book, Integer> bookStockColumn;  // Column for displaying stock quantity
+    private TableColumn<Book, Number> bookStockColumn;  // Column for displaying stock quantity
 
     @FXML
-    private TableColumn<Book, Double> bookPriceColumn;  // Column for displaying book price
+    private TableColumn<Book, Number> bookPriceColumn;  // Column for displaying book price
 
     @FXML
-    private TableColumn<Book, Integer> bookSoldCopiesColumn;  // Column for displaying number of sold copies
+    private TableColumn<Book, Number> bookSoldCopiesColumn;  // Column for displaying number of sold copies
 
     @FXML
     private TableColumn<Book, Void> actionColumn;  // Column for displaying action buttons (edit/remove)
@@ -57,17 +70,34 @@ public class AdminStockController {
 
     private final IBookService bookService;  // Service for handling book-related operations
     private final UIUtils uiUtils;  // Utility for UI-related tasks
+    private final FlashSaleManager flashSaleManager;  // Manager for per-book flash sales
+    private final BookStore bookStore;  // Shared, live catalog rows
+
+    // Most books shown for a search
+    private static final int SEARCH_LIMIT = 100;
+
+    // Typos tolerated per word when nothing matches the words as typed
+    private static final int FUZZY_MAX_EDITS = 2;
+
+    private SortedList<Book> sortedBooks;  // All catalog rows, in column header order
+    private final ObservableList<Book> matchingBooks = FXCollections.observableArrayList();  // Rows of the latest search, best first
+    private SortedList<Book> sortedMatches;  // The matching rows, in column header order if one is chosen
+    private DebouncedSearch<List<Integer>> liveSearch;  // Runs the search as the admin types
 
     /**
      * Constructor to inject the required services.
      *
      * @param bookService Service to manage book-related operations.
      * @param uiUtils Utility for handling UI-related operations.
+     * @param flashSaleManager Manager for per-book flash sales.
+     * @param bookStore Shared, live catalog rows.
      */
     @Autowired
-    public AdminStockController(IBookService bookService, UIUtils uiUtils) {
+    public AdminStockController(IBookService bookService, UIUtils uiUtils, FlashSaleManager flashSaleManager, BookStore bookStore) {
         this.bookService = bookService;
         this.uiUtils = uiUtils;
+        this.flashSaleManager = flashSaleManager;
+        this.bookStore = bookStore;
     }
 
     /**
@@ -79,74 +109,57 @@ public class AdminStockController {
         addActionButtonsToTable();
         loadBooks();
         uiUtils.loadCSS(bookTableView, "/com/thereadingroom/css/table-style.css");
+
+        // Search as the admin types
+        liveSearch = new DebouncedSearch<>(this::findBooks, this::showMatches);
+        searchField.textProperty().addListener((observable, oldText, newText) -> search(newText, false));
     }
 
     /**
      * Configures the table columns to display book properties.
      */
     private void setupTableColumns() {
-        bookIdColumn.setCellValueFactory(new PropertyValueFactory<>("bookId"));
-        bookTitleColumn.setCellValueFactory(new PropertyValueFactory<>("title"));
-        bookAuthorColumn.setCellValueFactory(new PropertyValueFactory<>("author"));
-        bookStockColumn.setCellValueFactory(new PropertyValueFactory<>("physicalCopies"));
-        bookPriceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
-        bookSoldCopiesColumn.setCellValueFactory(new PropertyValueFactory<>("soldCopies"));
+        bookIdColumn.setCellValueFactory(TableCells.constant(Book::getBookId));
+        bookTitleColumn.setCellValueFactory(TableCells.property(Book::titleProperty));
+        bookAuthorColumn.setCellValueFactory(TableCells.property(Book::authorProperty));
+        bookStockColumn.setCellValueFactory(TableCells.property(Book::physicalCopiesProperty));
+        bookPriceColumn.setCellValueFactory(TableCells.property(Book::priceProperty));
+        bookSoldCopiesColumn.setCellValueFactory(TableCells.property(Book::soldCopiesProperty));
     }
 
     /**
-     * Loads the books from the database and populates the table view.
+     * Shows the shared catalog rows in the table (the catalog is only queried the first time).
+     * Column sorting applies to all books and to search results alike.
      */
     private void loadBooks() {
-        List<Book> books = bookService.getAllBooks();
-        bookTableView.getItems().setAll(books);
+        ObservableList<Book> books = bookStore.load();
+        sortedBooks = new SortedList<>(books);
+        sortedBooks.comparatorProperty().bind(bookTableView.comparatorProperty());
+        sortedMatches = new SortedList<>(matchingBooks);
+        sortedMatches.comparatorProperty().bind(bookTableView.comparatorProperty());
+        books.addListener((ListChangeListener<Book>) change -> {
+            while (change.next()) {
+                matchingBooks.removeAll(change.getRemoved());  // Drop deleted books from the search results
+            }
+        });
+        bookTableView.setItems(sortedBooks);
     }
 
     /**
-     * Adds Edit and Remove buttons to each row in the action column.
+     * Adds Edit, Remove and Flash Sale buttons to each row in the action column.
+     * The Flash Sale button shows whether the row's book is in a sale.
      */
     private void addActionButtonsToTable() {
-        actionColumn.setCellFactory(new Callback<>() {
-            @Override
-            public TableCell<Book, Void> call(final TableColumn<Book, Void> param) {
-                return new TableCell<>() {
-                    private final Button editButton = createEditButton();
-                    private final Button removeButton = createRemoveButton();
-
-                    private Button createEditButton() {
-                        Button button = new Button("Edit");
-                        button.setStyle("-fx-background-color: #d2691e; -fx-text-fill: white;");
-                        button.setOnAction(event -> {
-                            Book book = getTableView().getItems().get(getIndex());
-                            handleEditBook(book);
-                        });
-                        return button;
-                    }
-
-                    private Button createRemoveButton() {
-                        Button button = new Button("Remove");
-                        button.setStyle("-fx-background-color: #ff4500; -fx-text-fill: white;");
-                        button.setOnAction(event -> {
-                            Book book = getTableView().getItems().get(getIndex());
-                            handleRemoveBook(book);
-                        });
-                        return button;
-                    }
-
-                    @Override
-                    protected void updateItem(Void item, boolean empty) {
-                        super.updateItem(item, empty);
-                        if (empty) {
-                            setGraphic(null);
-                        } else {
-                            HBox actionButtons = new HBox(editButton, removeButton);
-                            actionButtons.setSpacing(10);
-                            actionButtons.setAlignment(Pos.CENTER);
-                            setGraphic(actionButtons);
-                        }
-                    }
-                };
-            }
-        });
+        actionColumn.setCellFactory(TableCells.buttons(
+                new ActionButton<>("Edit", "-fx-background-color: #d2691e; -fx-text-fill: white;", this::handleEditBook),
+                new ActionButton<>("Remove", "-fx-background-color: #ff4500; -fx-text-fill: white;", this::handleRemoveBook),
+                new ActionButton<>("Flash Sale", null, this::handleToggleFlashSale, (button, book) -> {
+                    boolean inSale = flashSaleManager.isInSale(book.getBookId());
+                    button.setText(inSale ? "End Sale" : "Flash Sale");
+                    button.setStyle(inSale
+                            ? "-fx-background-color: #8b0000; -fx-text-fill: white;"
+                            : "-fx-background-color: #228b22; -fx-text-fill: white;");
+                })));
     }
 
     /**
@@ -155,11 +168,13 @@ public class AdminStockController {
      * @param book The book to be edited.
      */
     private void handleEditBook(Book book) {
+        if (rejectIfInFlashSale(book.getBookId())) {
+            return;
+        }
         uiUtils.loadModal("/com/thereadingroom/fxml/admin/admin_edit_book.fxml", "Edit Book", controller -> {
             AdminEditBookController editBookController = (AdminEditBookController) controller;
             editBookController.setBook(book);
         }, (Stage) bookTableView.getScene().getWindow());
-        loadBooks();  // Reload books after editing
     }
 
     /**
@@ -169,12 +184,14 @@ public class AdminStockController {
      * @param book The book to be removed.
      */
     private void handleRemoveBook(Book book) {
+        if (rejectIfInFlashSale(book.getBookId())) {
+            return;
+        }
         boolean confirm = uiUtils.showConfirmation("Confirm Deletion", "Are you sure you want to remove the book?");
         if (confirm) {
             boolean success = bookService.deleteBookById(book.getBookId());
             if (success) {
                 uiUtils.showAlert("Success", "Book removed successfully!");
-                loadBooks();
             } else {
                 uiUtils.showError("Error", "Failed to remove book.");
             }
@@ -182,20 +199,96 @@ public class AdminStockController {
     }
 
     /**
-     * Handles searching books based on the title entered in the search field.
-     * If the search field is empty, reloads all books.
+     * Starts a flash sale for the book, or ends the one that is running.
+     * Ending a sale applies the copies sold during the sale and returns the rest to regular stock.
+     *
+     * @param book The book to start or end a flash sale for.
+     */
+    private void handleToggleFlashSale(Book book) {
+        if (flashSaleManager.isInSale(book.getBookId())) {
+            boolean confirm = uiUtils.showConfirmation("End Flash Sale", "End the flash sale for \"" + book.getTitle() + "\"?");
+            if (!confirm) {
+                return;
+            }
+            if (flashSaleManager.endSale(book.getBookId())) {
+                uiUtils.showAlert("Success", "Flash sale ended. Unsold copies were returned to stock.");
+            } else {
+                uiUtils.showError("Error", "Failed to end the flash sale.");
+            }
+        } else {
+            if (flashSaleManager.startSale(book.getBookId())) {
+                uiUtils.showAlert("Success", "Flash sale started with " + flashSaleManager.getAvailableCopies(book.getBookId()) + " copies.");
+            } else {
+                uiUtils.showError("Error", "Could not start a flash sale. Please check that the book is in stock.");
+            }
+        }
+        bookTableView.refresh();  // Update the Flash Sale / End Sale button labels
+    }
+
+    /**
+     * Shows an error if the book is in a flash sale, since its stock cannot be changed until the sale ends.
+     *
+     * @param bookId The ID of the book.
+     * @return true if the book is in a flash sale, false otherwise.
+     */
+    private boolean rejectIfInFlashSale(int bookId) {
+        if (flashSaleManager.isInSale(bookId)) {
+            uiUtils.showError("Flash Sale Active", "This book is in a flash sale. End the sale before changing it.");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Handles the search button: searches for the entered title or author words right away.
      */
     @FXML
     public void handleSearchBooks() {
-        String keyword = searchField.getText().trim();
-        if (!keyword.isEmpty()) {
-            List<Book> searchResults = bookService.searchBooksByTitle(keyword);
-            bookTableView.getItems().setAll(searchResults);
+        search(searchField.getText(), true);
+    }
+
+    /**
+     * Searches for the entered text, or shows all books again if the search field is empty.
+     *
+     * @param text The entered text.
+     * @param now  true to search right away, false to wait for a pause in typing.
+     */
+    private void search(String text, boolean now) {
+        if (text == null || text.isBlank()) {
+            liveSearch.cancel();
+            matchingBooks.clear();
+            bookTableView.setItems(sortedBooks);
+        } else if (now) {
+            liveSearch.submitNow(text);
         } else {
-            loadBooks();  // Reload all books if the search field is empty
+            liveSearch.submit(text);
         }
     }
 
+    /**
+     * Finds the books matching the entered words, or the closest spellings if none match as typed (search thread).
+     *
+     * @param query The entered text.
+     * @return The IDs of the matching books, best matches first.
+     */
+    private List<Integer> findBooks(String query) {
+        List<Integer> bookIds = bookService.searchBookIds(query, SEARCH_LIMIT);
+        return bookIds.isEmpty() ? bookService.fuzzySearch(query, FUZZY_MAX_EDITS, SEARCH_LIMIT) : bookIds;
+    }
+
+    /**
+     * Shows the books found by the latest search, looking the rows up in the shared BookStore.
+     *
+     * @param bookIds The IDs of the matching books, best matches first.
+     */
+    private void showMatches(List<Integer> bookIds) {
+        matchingBooks.setAll(bookIds.stream()
+                .map(bookStore::get)
+                .filter(Objects::nonNull)  // Skips books the store has not received yet
+                .toList());
+        bookTableView.setItems(sortedMatches);
+    }
+
     /**
      * Handles updating the stock of a book based on the entered Book ID and new stock quantity.
      */
@@ -209,11 +302,19 @@ public class AdminStockController {
                 uiUtils.showError("Invalid Input", "Stock value cannot be negative.");
                 return;
             }
+            if (rejectIfInFlashSale(bookId)) {
+                return;
+            }
 
-            boolean success = bookService.updatePhysicalCopies(bookId, newStock);
+            boolean success;
+            Span span = Tracer.begin("controller", "AdminStockController.handleUpdateStock");
+            try {
+                success = bookService.updatePhysicalCopies(bookId, newStock);
+            } finally {
+                span.close();
+            }
             if (success) {
                 uiUtils.showAlert("Success", "Stock updated successfully!");
-                loadBooks();
             } else {
                 uiUtils.showError("Update Failed", "Could not update stock. Please check the Book ID.");
             }
@@ -224,13 +325,11 @@ public class AdminStockController {
 
     /**
      * Handles opening the modal for adding a new book.
-     * After the book is added, reloads the book list.
+     * The new book is added to the table by the BookStore when its BOOK_UPDATED event arrives.
      */
     @FXML
     public void handleAddBook() {
         uiUtils.loadModal("/com/thereadingroom/fxml/admin/admin_add_book.fxml", "Add New Book", controller -> {
-            AdminAddBookController addBookController = (AdminAddBookController) controller;
-            addBookController.setOnBookAdded(this::loadBooks);
         }, (Stage) bookTableView.getScene().getWindow());
     }
 }
@@ -8,6 +8,7 @@ import com.thereadingroom.service.book.BookService;
 import com.thereadingroom.service.cart.CartService;
 import com.thereadingroom.service.user.IUserService;
 import com.thereadingroom.service.ServiceManager;
+import com.thereadingroom.utils.ui.RetainedView;
 import com.thereadingroom.utils.ui.UIUtils;
 import javafx.fxml.FXML;
 import javafx.scene.control.PasswordField;
@@ -25,7 +26,7 @@ import java.util.Optional;
  * and redirect them to the appropriate dashboard based on their roles.
  */
 @Controller
-public class LoginController {
+public class LoginController implements RetainedView {
 
     @FXML
     private TextField usernameField;  // Input field for the username
@@ -63,6 +64,15 @@ public class LoginController {
         uiUtils.loadImage(imageView, "/com/thereadingroom/assets/images/Library.jpg");
     }
 
+    /**
+     * Clears the credentials typed on the previous visit, since the login screen is retained between visits.
+     */
+    @Override
+    public void resetView() {
+        usernameField.clear();
+        passwordField.clear();
+    }
+
     /**
      * Handles the login process.
      * It validates the input fields, checks the user's credentials, and redirects to the correct dashboard based on the user's role.
@@ -1,6 +1,7 @@
 package com.thereadingroom.controller.common;
 
 import com.thereadingroom.service.user.IUserService;
+import com.thereadingroom.utils.ui.RetainedView;
 import com.thereadingroom.utils.ui.UIUtils;
 import javafx.fxml.FXML;
 import javafx.scene.control.PasswordField;
@@ -15,7 +16,7 @@ import org.springframework.stereotype.Controller;
  * Validates user inputs and interacts with the IUserService to register new users.
  */
 @Controller
-public class RegisterController {
+public class RegisterController implements RetainedView {
 
     @FXML
     private TextField usernameField;  // TextField for entering the username
@@ -56,6 +57,17 @@ public class RegisterController {
         uiUtils.loadImage(imageView, "/com/thereadingroom/assets/images/Library.jpg");
     }
 
+    /**
+     * Clears the details typed on the previous visit, since the registration screen is retained between visits.
+     */
+    @Override
+    public void resetView() {
+        usernameField.clear();
+        firstNameField.clear();
+        lastNameField.clear();
+        passwordField.clear();
+    }
+
     /**
      * Handles the registration process when the user submits the form.
      * Validates the input fields and attempts to register the user.
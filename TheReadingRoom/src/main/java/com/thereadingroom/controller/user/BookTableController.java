@@ -6,8 +6,9 @@ import com.thereadingroom.model.entity.ShoppingCart;
 import com.thereadingroom.service.cart.CartService;
 import com.thereadingroom.service.book.IBookService;
 import com.thereadingroom.utils.ui.UIUtils;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.scene.control.Button;
+import com.thereadingroom.utils.ui.cell.ActionButton;
+import com.thereadingroom.utils.ui.cell.TableCells;
+import com.thereadingroom.utils.ui.store.BookStore;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextInputDialog;
@@ -20,6 +21,8 @@ import java.util.Optional;
 /**
  * Abstract controller for managing the display and interaction with a table of books.
  * Provides the core functionality for showing books in a TableView, allowing users to add books to their cart.
+ * The rows come from the shared BookStore and the columns are bound to the books' properties,
+ * so sales and catalog edits update the affected cells while the view is open.
  */
 @Controller
 public abstract class BookTableController {
@@ -28,20 +31,22 @@ public abstract class BookTableController {
     protected final IBookService bookService;  // Service to handle book-related operations
     protected final CartService cartService;  // Service to handle cart-related operations
     protected final UIUtils uiUtils;  // UI utility for showing dialogs and handling UI updates
+    protected final BookStore bookStore;  // Shared, live catalog rows
 
     protected TableView<Book> booksTableView;  // Table view to display books
     protected TableColumn<Book, String> titleColumn;  // Column for book titles
     protected TableColumn<Book, String> authorColumn;  // Column for book authors
-    protected TableColumn<Book, String> priceColumn;  // Column for book prices
-    protected TableColumn<Book, Integer> stockColumn;  // Column for available stock
-    protected TableColumn<Book, Integer> soldCopiesColumn;  // Column for sold copies
-    protected TableColumn<Book, Button> actionColumn;  // Column for the action button (Add to Cart)
+    protected TableColumn<Book, Number> priceColumn;  // Column for book prices
+    protected TableColumn<Book, Number> stockColumn;  // Column for available stock
+    protected TableColumn<Book, Number> soldCopiesColumn;  // Column for sold copies
+    protected TableColumn<Book, Void> actionColumn;  // Column for the action button (Add to Cart)
 
     @Autowired
-    public BookTableController(IBookService bookService, CartService cartService, UIUtils uiUtils) {
+    public BookTableController(IBookService bookService, CartService cartService, UIUtils uiUtils, BookStore bookStore) {
         this.bookService = bookService;
         this.cartService = cartService;
         this.uiUtils = uiUtils;
+        this.bookStore = bookStore;
     }
 
     /**
@@ -56,9 +61,9 @@ public abstract class BookTableController {
      * @param actionColumn The column for the "Add to Cart" action buttons.
      */
     protected void initializeBookTable(TableView<Book> tableView, TableColumn<Book, String> titleColumn,
-                                       TableColumn<Book, String> authorColumn, TableColumn<Book, String> priceColumn,
-                                       TableColumn<Book, Integer> stockColumn, TableColumn<Book, Integer> soldCopiesColumn,
-                                       TableColumn<Book, Button> actionColumn) {
+                                       TableColumn<Book, String> authorColumn, TableColumn<Book, Number> priceColumn,
+                                       TableColumn<Book, Number> stockColumn, TableColumn<Book, Number> soldCopiesColumn,
+                                       TableColumn<Book, Void> actionColumn) {
         this.booksTableView = tableView;
         this.titleColumn = titleColumn;
         this.authorColumn = authorColumn;
@@ -67,43 +72,29 @@ public abstract class BookTableController {
         this.soldCopiesColumn = soldCopiesColumn;
         this.actionColumn = actionColumn;
 
-        // Set cell value factories for each column
-        titleColumn.setCellValueFactory(data -> new SimpleObjectProperty<>(data.getValue().getTitle()));
-        authorColumn.setCellValueFactory(data -> new SimpleObjectProperty<>(data.getValue().getAuthor()));
-        priceColumn.setCellValueFactory(data -> new SimpleObjectProperty<>(String.format("$%.2f", data.getValue().getPrice())));
-        stockColumn.setCellValueFactory(data -> new SimpleObjectProperty<>(bookService.findBookById(data.getValue().getBookId()).getPhysicalCopies()));
-        soldCopiesColumn.setCellValueFactory(data -> new SimpleObjectProperty<>(data.getValue().getSoldCopies()));
+        // Bind each column to the book's property, so the cells follow changes to the book
+        titleColumn.setCellValueFactory(TableCells.property(Book::titleProperty));
+        authorColumn.setCellValueFactory(TableCells.property(Book::authorProperty));
+        priceColumn.setCellValueFactory(TableCells.property(Book::priceProperty));
+        priceColumn.setCellFactory(TableCells.formatted(price -> String.format("$%.2f", price.doubleValue())));
+        stockColumn.setCellValueFactory(TableCells.property(Book::physicalCopiesProperty));
+        soldCopiesColumn.setCellValueFactory(TableCells.property(Book::soldCopiesProperty));
 
-        // Set the action column to display "Add to Cart" buttons
-        actionColumn.setCellValueFactory(data -> new SimpleObjectProperty<>(createAddButton(data.getValue())));
+        // Set the action column to display "Add to Cart" buttons (created once per cell, not per row)
+        actionColumn.setCellFactory(TableCells.buttons(
+                new ActionButton<>("Add to Cart", "-fx-background-color: #d2691e; -fx-text-fill: white;", this::handleAddButton)));
 
         // Load books into the table
         loadBooks();
     }
 
-    /**
-     * Creates the "Add to Cart" button for each book in the table.
-     *
-     * @param book The book to add to the cart.
-     * @return A Button with an action listener that adds the book to the cart.
-     */
-    private Button createAddButton(Book book) {
-        Button addButton = new Button("Add to Cart");
-        addButton.setStyle("-fx-background-color: #d2691e; -fx-text-fill: white;");
-        addButton.setOnAction(event -> {
-            handleAddButton(book);  // Handle adding the book to the cart
-            event.consume();
-        });
-        return addButton;
-    }
-
     /**
      * Handles the action when the "Add to Cart" button is clicked.
      * Prompts the user for the quantity and validates the stock before adding the book to the cart.
      *
      * @param book The book to add.
      */
-    private void handleAddButton(Book book) {
+    protected void handleAddButton(Book book) {
         Optional<String> result = showQuantityDialog();
         result.ifPresent(quantityStr -> {
             try {
@@ -197,7 +188,7 @@ public abstract class BookTableController {
 
     /**
      * Abstract method to load books into the table.
-     * Implementations should fetch books from the database and populate the table view.
+     * Implementations should show a view of the shared BookStore rows in the table view.
      */
     protected abstract void loadBooks();
 
@@ -2,12 +2,15 @@ package com.thereadingroom.controller.user;
 
 import com.thereadingroom.model.entity.CartTableItem;
 import com.thereadingroom.model.entity.ShoppingCart;
+import com.thereadingroom.utils.trace.Span;
+import com.thereadingroom.utils.trace.Tracer;
 import com.thereadingroom.utils.ui.UIUtils;
+import com.thereadingroom.utils.ui.cell.TableCells;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -76,9 +79,9 @@ public class CheckoutConfirmationController {
         this.shoppingCart = shoppingCart;
 
         // Set up the table view columns
-        checkoutTableView.getColumns().get(0).setCellValueFactory(new PropertyValueFactory<>("itemName"));
-        checkoutTableView.getColumns().get(1).setCellValueFactory(new PropertyValueFactory<>("quantity"));
-        checkoutTableView.getColumns().get(2).setCellValueFactory(new PropertyValueFactory<>("totalAmount"));
+        column(0, String.class).setCellValueFactory(TableCells.property(CartTableItem::itemNameProperty));
+        column(1, Number.class).setCellValueFactory(TableCells.property(CartTableItem::quantityProperty));
+        column(2, Number.class).setCellValueFactory(TableCells.property(CartTableItem::totalAmountProperty));
 
         // Populate the table with cart items
         checkoutTableView.setItems(FXCollections.observableArrayList(cartItems));
@@ -87,21 +90,47 @@ public class CheckoutConfirmationController {
         totalPriceLabel.setText("Total Price: $" + String.format("%.2f", totalPrice));
     }
 
+    /**
+     * Returns a column of the checkout table with its value type (the columns are declared in the FXML file only).
+     *
+     * @param index     The column index.
+     * @param valueType The type of the values shown in the column.
+     * @param <T>       The type of the values shown in the column.
+     * @return The column.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> TableColumn<CartTableItem, T> column(int index, Class<T> valueType) {
+        return (TableColumn<CartTableItem, T>) checkoutTableView.getColumns().get(index);
+    }
+
     /**
      * Handles the confirmation of the checkout process. If stock is successfully reserved, the payment screen is loaded.
      * If stock reservation fails, an error is displayed.
      */
     @FXML
     public void handleConfirmCheckout() {
-        boolean reservationSuccessful = shoppingCartController.inventoryService.reserveStockForCheckout(cartItems);
-
-        if (reservationSuccessful) {
-            // If stock reservation is successful, load the payment screen
-            loadPaymentScreen(totalPrice, shoppingCart);
-            // Close the current checkout stage
-            closeStage();
-        } else {
-            // If stock reservation fails, show an error message
+        boolean reservationSuccessful;
+        Span span = Tracer.begin("controller", "CheckoutConfirmationController.handleConfirmCheckout");
+        try {
+            reservationSuccessful = shoppingCartController.inventoryService.reserveStockForCheckout(cartItems);
+
+            if (reservationSuccessful) {
+                // If stock reservation is successful, load the payment screen
+                Span ui = Tracer.beginChild("ui", "CheckoutConfirmationController.loadPaymentScreen");
+                try {
+                    loadPaymentScreen(totalPrice, shoppingCart);
+                } finally {
+                    ui.close();
+                }
+                // Close the current checkout stage
+                closeStage();
+            }
+        } finally {
+            span.close();
+        }
+
+        if (!reservationSuccessful) {
+            // If stock reservation fails, show an error message (outside the span, which must not time the dialog)
             uiUtils.showError("Stock Reservation Error", "Unable to reserve stock for one or more items. Please check your cart.");
         }
     }
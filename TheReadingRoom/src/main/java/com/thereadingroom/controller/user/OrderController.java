@@ -1,42 +1,62 @@
 package com.thereadingroom.controller.user;
 
-import com.thereadingroom.model.entity.Order;
+import com.thereadingroom.model.entity.OrderItem;
+import com.thereadingroom.model.entity.OrderSummary;
 import com.thereadingroom.service.order.IOrderService;
 import com.thereadingroom.service.ServiceManager;
 import com.thereadingroom.utils.ui.UIUtils;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ContentDisplay;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller responsible for displaying and managing user orders in the user interface.
- * Provides functionalities such as listing user orders, selecting orders, and exporting selected orders to a CSV file.
+ * Orders are listed as lightweight summaries in a virtualized ListView and paged in from the database
+ * as the user scrolls. The items of an order are only loaded when its row is expanded, and the
+ * selection for the CSV export is kept as a set of order IDs, so it survives cell recycling.
  */
 @Controller
 public class OrderController {
 
-    private List<Order> userOrders;  // List to hold the user's orders
+    private static final int PAGE_SIZE = 50;           // Order summaries loaded per page
+    private static final int PREFETCH_DISTANCE = 10;   // Load the next page when a row this close to the end is shown
+
     private final IOrderService orderService;  // Service for order-related operations
     private final UIUtils uiUtils;  // Utility class for UI-related functions
     private final ServiceManager serviceManager;  // ServiceManager for managing user sessions and services
-    private final List<CheckBox> orderCheckBoxes = new ArrayList<>();  // List of checkboxes to track selected orders
+    private final Set<Integer> selectedOrderIds = new LinkedHashSet<>();  // Orders selected for export
+    private final Set<Integer> expandedOrderIds = new LinkedHashSet<>();  // Orders whose items are shown
+    private final Map<Integer, String> itemLinesByOrder = new HashMap<>();  // Item lines of expanded orders, loaded on first expand
+
+    private int userId;                // The user whose orders are shown
+    private boolean lastPageLoaded;    // True once a page came back shorter than PAGE_SIZE
+    private boolean pageRequested;     // True while a next-page load is queued
 
     @FXML
     private Button exportOrdersButton;  // Button to trigger the export of selected orders
 
     @FXML
-    private ListView<HBox> orderListView;  // ListView to display orders in the user interface
+    private ListView<OrderSummary> orderListView;  // ListView to display orders in the user interface
 
     /**
      * Constructor-based injection of dependencies.
@@ -54,16 +74,18 @@ public class OrderController {
 
     /**
      * Initializes the controller after the FXML file is loaded.
-     * Disables the export button and applies custom styles to the order list.
+     * Disables the export button, installs the recycled order cells and applies custom styles to the order list.
      */
     @FXML
     public void initialize() {
         exportOrdersButton.setDisable(true);
+        orderListView.setPlaceholder(new Label("No orders found."));
+        orderListView.setCellFactory(listView -> new OrderSummaryCell());
         uiUtils.loadCSS(orderListView, "/com/thereadingroom/css/table-style.css");
     }
 
     /**
-     * Sets the user ID and loads the user's orders.
+     * Sets the user ID and loads the first page of the user's orders.
      *
      * @param userId The ID of the current user.
      */
@@ -76,62 +98,104 @@ public class OrderController {
     }
 
     /**
-     * Loads the user's orders and populates the ListView.
+     * Clears the previous user's state and loads the first page of order summaries.
      *
      * @param userId The ID of the current user.
      */
     private void loadUserOrders(int userId) {
-        userOrders = orderService.getAllOrdersByUser(userId);
+        this.userId = userId;
+        selectedOrderIds.clear();
+        expandedOrderIds.clear();
+        itemLinesByOrder.clear();
+        lastPageLoaded = false;
+        pageRequested = false;
         orderListView.getItems().clear();
-        orderCheckBoxes.clear();
+        exportOrdersButton.setDisable(true);
+        loadNextPage();
+    }
+
+    /**
+     * Appends the next page of order summaries, continuing after the last summary in the list.
+     */
+    private void loadNextPage() {
+        pageRequested = false;
+        if (lastPageLoaded) {
+            return;
+        }
+        List<OrderSummary> items = orderListView.getItems();
+        OrderSummary after = items.isEmpty() ? null : items.get(items.size() - 1);
+        List<OrderSummary> page = orderService.getOrderSummariesByUser(userId, after, PAGE_SIZE);
+        lastPageLoaded = page.size() < PAGE_SIZE;
+        items.addAll(page);
+        exportOrdersButton.setDisable(items.isEmpty());
+    }
 
-        if (userOrders.isEmpty()) {
-            // Display a message if no orders are found
-            orderListView.getItems().add(new HBox(new Label("No orders found.")));
-            exportOrdersButton.setDisable(true);
+    /**
+     * Queues loading the next page when a row near the end of the loaded summaries is shown.
+     * The load runs after the current layout pass, since the list cannot be changed while its cells are updated.
+     *
+     * @param index The index of the row being shown.
+     */
+    private void prefetchIfNeeded(int index) {
+        if (!lastPageLoaded && !pageRequested && index >= orderListView.getItems().size() - PREFETCH_DISTANCE) {
+            pageRequested = true;
+            Platform.runLater(this::loadNextPage);
+        }
+    }
+
+    /**
+     * Selects or deselects an order for export.
+     *
+     * @param orderId  The ID of the order.
+     * @param selected Whether the order is selected.
+     */
+    private void setOrderSelected(int orderId, boolean selected) {
+        if (selected) {
+            selectedOrderIds.add(orderId);
         } else {
-            // Populate the ListView with orders and enable the export button
-            userOrders.forEach(order -> {
-                HBox orderItem = createOrderItem(order);
-                orderListView.getItems().add(orderItem);
-            });
-            exportOrdersButton.setDisable(false);
+            selectedOrderIds.remove(orderId);
         }
     }
 
     /**
-     * Creates an HBox item for displaying an order with a checkbox for selection.
+     * Expands or collapses an order, loading its item lines the first time it is expanded.
      *
-     * @param order The order to display.
-     * @return HBox representing the order.
+     * @param orderId The ID of the order.
      */
-    private HBox createOrderItem(Order order) {
-        CheckBox checkBox = new CheckBox();  // Checkbox to select the order
-        Label orderLabel = new Label(formatOrderForDisplay(order));  // Label to display the order details
-        orderCheckBoxes.add(checkBox);  // Add the checkbox to the tracking list
-        HBox orderBox = new HBox(10, checkBox, orderLabel);  // Layout container for the order
-        orderBox.setStyle("-fx-padding: 5px;");
-        return orderBox;
+    private void toggleExpanded(int orderId) {
+        if (!expandedOrderIds.remove(orderId)) {
+            itemLinesByOrder.computeIfAbsent(orderId, id -> formatItemLines(orderService.getOrderItems(id)));
+            expandedOrderIds.add(orderId);
+        }
     }
 
     /**
-     * Formats the order details for display in the ListView.
+     * Formats the summary line of an order for display in the ListView.
      *
-     * @param order The order to format.
-     * @return A string representing the formatted order details.
+     * @param summary The order summary to format.
+     * @return A string representing the order summary.
      */
-    private String formatOrderForDisplay(Order order) {
-        StringBuilder orderDetails = new StringBuilder(String.format("Order #%s | Date: %s | Total: $%.2f\n",
-                order.getOrderNumber(),
-                order.getFormattedOrderDate(),
-                order.getTotalPrice()));
+    private String formatOrderForDisplay(OrderSummary summary) {
+        return String.format("Order #%s | Date: %s | Total: $%.2f | %d item(s)",
+                summary.getOrderNumber(),
+                summary.getFormattedOrderDate(),
+                summary.getTotalPrice(),
+                summary.getItemCount());
+    }
 
-        order.getOrderItems().forEach(item -> orderDetails.append(String.format("   - %s (x%d): $%.2f\n",
+    /**
+     * Formats the item lines of an expanded order.
+     *
+     * @param orderItems The items of the order.
+     * @return A string with one line per item.
+     */
+    private String formatItemLines(List<OrderItem> orderItems) {
+        StringBuilder itemLines = new StringBuilder();
+        orderItems.forEach(item -> itemLines.append(String.format("   - %s (x%d): $%.2f\n",
                 item.getTitle(),
                 item.getQuantity(),
                 item.getPrice())));
-
-        return orderDetails.toString();
+        return itemLines.toString().stripTrailing();
     }
 
     /**
@@ -140,8 +204,7 @@ public class OrderController {
      */
     @FXML
     public void handleExportOrders() {
-        List<Order> selectedOrders = getSelectedOrders();  // Retrieve selected orders
-        if (selectedOrders.isEmpty()) {
+        if (selectedOrderIds.isEmpty()) {
             uiUtils.showAlert("No Selection", "Please select at least one order to export.");
             return;
         }
@@ -152,32 +215,17 @@ public class OrderController {
         File file = fileChooser.showSaveDialog(exportOrdersButton.getScene().getWindow());  // Show save dialog
 
         if (file != null) {
-            exportOrdersToFile(file, selectedOrders);  // Export orders to the selected file
+            exportOrdersToFile(file, new ArrayList<>(selectedOrderIds));  // Export orders to the selected file
         }
     }
 
-    /**
-     * Retrieves the list of selected orders based on the state of the checkboxes.
-     *
-     * @return A list of selected orders.
-     */
-    private List<Order> getSelectedOrders() {
-        return userOrders.stream()
-                .filter(order -> {
-                    int index = userOrders.indexOf(order);
-                    return orderCheckBoxes.get(index).isSelected();  // Check if the corresponding checkbox is selected
-                })
-                .collect(Collectors.toList());
-    }
-
     /**
      * Exports the selected orders to a CSV file.
      *
-     * @param file            The file to export the orders to.
-     * @param selectedOrders  The list of selected orders to export.
+     * @param file             The file to export the orders to.
+     * @param selectedOrderIds The IDs of the selected orders to export.
      */
-    private void exportOrdersToFile(File file, List<Order> selectedOrders) {
-        List<Integer> selectedOrderIds = selectedOrders.stream().map(Order::getOrderId).collect(Collectors.toList());
+    private void exportOrdersToFile(File file, List<Integer> selectedOrderIds) {
         boolean success = orderService.exportOrdersToCSV(serviceManager.getSessionManager().getUserId(), selectedOrderIds, file.getAbsolutePath());
 
         if (success) {
@@ -186,4 +234,74 @@ public class OrderController {
             uiUtils.showError("Export Failed", "Failed to export orders.");
         }
     }
+
+    /**
+     * A recycled list cell for one order summary: a selection checkbox, the summary line, a toggle
+     * for the item lines and the item lines themselves. The nodes and their handlers are created
+     * once per cell; updateItem only rebinds them to the summary being shown.
+     */
+    private class OrderSummaryCell extends ListCell<OrderSummary> {
+
+        private final CheckBox selectBox = new CheckBox();       // Selects the order for export
+        private final Label summaryLabel = new Label();          // Order number, date, total and item count
+        private final Button toggleButton = new Button();        // Shows or hides the item lines
+        private final Label itemsLabel = new Label();            // Item lines, only shown when expanded
+        private final VBox container;                            // Layout reused for every order
+
+        /**
+         * Builds the cell's nodes and attaches their handlers once.
+         */
+        OrderSummaryCell() {
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            HBox header = new HBox(10, selectBox, summaryLabel, spacer, toggleButton);
+            header.setStyle("-fx-alignment: CENTER_LEFT;");
+            container = new VBox(5, header, itemsLabel);
+            container.setStyle("-fx-padding: 5px;");
+            toggleButton.setStyle("-fx-background-color: transparent; -fx-text-fill: #8b4513; -fx-underline: true;");
+
+            selectBox.setOnAction(event -> {
+                if (getItem() != null) {
+                    setOrderSelected(getItem().getOrderId(), selectBox.isSelected());
+                }
+            });
+            toggleButton.setOnAction(event -> {
+                if (getItem() != null) {
+                    toggleExpanded(getItem().getOrderId());
+                    showExpansion(getItem());
+                }
+            });
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        }
+
+        /**
+         * Rebinds the cell to an order summary, or clears it for empty rows.
+         */
+        @Override
+        protected void updateItem(OrderSummary summary, boolean empty) {
+            super.updateItem(summary, empty);
+            if (empty || summary == null) {
+                setGraphic(null);
+                return;
+            }
+            summaryLabel.setText(formatOrderForDisplay(summary));
+            selectBox.setSelected(selectedOrderIds.contains(summary.getOrderId()));
+            showExpansion(summary);
+            setGraphic(container);
+            prefetchIfNeeded(getIndex());
+        }
+
+        /**
+         * Shows or hides the item lines of the order according to its expansion state.
+         *
+         * @param summary The order summary shown by this cell.
+         */
+        private void showExpansion(OrderSummary summary) {
+            boolean expanded = expandedOrderIds.contains(summary.getOrderId());
+            toggleButton.setText(expanded ? "Hide items" : "Show items");
+            itemsLabel.setText(expanded ? itemLinesByOrder.get(summary.getOrderId()) : null);
+            itemsLabel.setVisible(expanded);
+            itemsLabel.setManaged(expanded);
+        }
+    }
 }
@@ -6,11 +6,19 @@ import com.thereadingroom.model.entity.OrderItem;
 import com.thereadingroom.model.entity.ShoppingCart;
 import com.thereadingroom.model.entity.CartTableItem;
 import com.thereadingroom.service.cart.ICartService;
+import com.thereadingroom.service.checkout.CheckoutResult;
+import com.thereadingroom.service.checkout.ICheckoutService;
 import com.thereadingroom.service.order.IOrderService;
 import com.thereadingroom.service.payment.IPaymentService;
+import com.thereadingroom.service.payment.PaymentException;
+import com.thereadingroom.utils.auth.CardValidationResult;
 import com.thereadingroom.utils.auth.PaymentValidator;
+import com.thereadingroom.utils.trace.Span;
+import com.thereadingroom.utils.trace.Tracer;
 import com.thereadingroom.utils.ui.UIUtils;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
@@ -18,8 +26,14 @@ import javafx.stage.WindowEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
-import java.sql.SQLException;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +43,13 @@ import java.util.stream.Collectors;
 @Controller
 public class PaymentController {
 
+    // Runs order persistence and stock updates off the JavaFX application thread
+    private static final ExecutorService CHECKOUT_EXECUTOR = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "checkout-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @FXML
     public TextField cardNumberField;  // Input field for card number
 
@@ -44,13 +65,23 @@ public class PaymentController {
     @FXML
     public Label totalAmountLabel;  // Label displaying the total amount to be paid
 
+    @FXML
+    public Button payButton;  // Button that starts the payment
+
+    @FXML
+    public Button cancelButton;  // Button that cancels the payment
+
     public double totalAmount;  // The total amount for the payment
     public int userId;  // The ID of the user making the payment
     private ShoppingCart shoppingCart;  // Shopping cart containing the user's selected items
+    private String checkoutToken;  // Identifies this checkout so repeated Pay clicks never order twice
+    private boolean checkoutInFlight;  // Whether a checkout is running; the window cannot be canceled meanwhile (UI thread only)
+    private final AtomicBoolean reservationHeld = new AtomicBoolean();  // Whether this window still holds reserved stock
 
     private final IOrderService orderService;  // Service for handling order-related operations
     private final ICartService cartService;  // Service for handling cart-related operations
     private final IPaymentService paymentService;  // Service for handling payment processing
+    private final ICheckoutService checkoutService;  // Service that deduplicates checkouts by token
     private final UIUtils uiUtils;  // UI utility for handling common UI-related tasks
     private ShoppingCartController shoppingCartController;  // Controller for managing shopping cart operations
     private Stage paymentStage;  // The stage for the payment window
@@ -61,13 +92,16 @@ public class PaymentController {
      * @param orderService         Service for managing orders.
      * @param cartService          Service for managing the shopping cart.
      * @param paymentService       Service for processing payments.
+     * @param checkoutService      Service for idempotent checkouts.
      * @param uiUtils              Utility class for UI operations.
      */
     @Autowired
-    public PaymentController(IOrderService orderService, ICartService cartService, IPaymentService paymentService, UIUtils uiUtils) {
+    public PaymentController(IOrderService orderService, ICartService cartService, IPaymentService paymentService,
+                             ICheckoutService checkoutService, UIUtils uiUtils) {
         this.orderService = orderService;
         this.cartService = cartService;
         this.paymentService = paymentService;
+        this.checkoutService = checkoutService;
         this.uiUtils = uiUtils;
     }
 
@@ -84,17 +118,28 @@ public class PaymentController {
         this.userId = userId;
         this.shoppingCart = shoppingCart;
         this.shoppingCartController = shoppingCartController;
+        this.checkoutToken = UUID.randomUUID().toString();  // New checkout, new token
+        this.reservationHeld.set(true);  // The checkout confirmation reserved the stock before opening this window
         updateTotalAmountLabel();
     }
 
     /**
      * Sets the stage for the payment window and handles stage close actions.
+     * The window cannot be closed while a checkout is running, since its stock reservation may already
+     * belong to an order being saved.
      *
      * @param paymentStage The stage for the payment window.
      */
     public void setStage(Stage paymentStage) {
         this.paymentStage = paymentStage;
 
+        // Keep the window open until the running checkout has an outcome
+        this.paymentStage.setOnCloseRequest(event -> {
+            if (checkoutInFlight) {
+                event.consume();
+            }
+        });
+
         // Handle payment cancellation when the window is closed
         this.paymentStage.setOnHidden(event -> {
             handleCancelPayment(null);
@@ -103,9 +148,13 @@ public class PaymentController {
 
     /**
      * Handles the cancellation of the payment by closing the payment screen.
+     * Ignored while a checkout is running.
      */
     @FXML
     public void handleCancel() {
+        if (checkoutInFlight) {
+            return;
+        }
         closePaymentScreen();
     }
 
@@ -118,39 +167,99 @@ public class PaymentController {
 
     /**
      * Handles the payment process, including validation, payment processing, order saving, and stock adjustments.
+     * The gateway call and all database work run in the background; the UI thread only validates the form
+     * and applies the outcome, so a slow gateway never freezes the application.
+     * The checkout is keyed by this window's checkout token, so a second click while (or after) paying
+     * returns the original order instead of charging and decrementing stock again.
+     * The checkout is traced from here until its outcome is known, across the background threads it uses.
+     * Paying and canceling are disabled until then.
+     * The stock reservation is released only if the checkout fails before its order is saved; once saved,
+     * the stock belongs to the order even if a later step fails. A retry after a release reserves again.
      */
     @FXML
     public void handlePayment() {
+        if (checkoutInFlight) {
+            return;
+        }
         disableForm();
         if (!validatePaymentDetails()) {
             enableForm();
             return;
         }
 
-        try {
-            String orderReference = processPaymentDetails();
-            saveOrder(orderReference);
-            finalizeStockAfterPayment();
-            clearCartAfterPayment();
-            uiUtils.showAlert("Payment Successful", "Your payment was successful! Order Reference: " + orderReference);
-            closePaymentScreen();
-        } catch (Exception e) {
-            handlePaymentError();
-        } finally {
-            enableForm();
+        // Snapshot the checkout on the UI thread so background work never reads UI state
+        List<OrderItem> orderItems = createOrderItems();
+        List<CartTableItem> selectedItems = getSelectedCartItems();
+        List<Book> selectedBooks = getSelectedBooks();
+        String cardNumber = cardNumberField.getText();
+        String cardHolderName = cardHolderNameField.getText();
+        String expiryDate = expiryDateField.getText();
+        String cvv = cvvField.getText();
+        String token = checkoutToken;
+        AtomicReference<String> savedOrderReference = new AtomicReference<>();  // Set once the order is committed
+        checkoutInFlight = true;
+
+        Span span = Tracer.begin("controller", "PaymentController.handlePayment");
+        checkoutService.checkout(token, () -> reserveStockIfReleased(selectedItems)
+                        .thenCompose(reserved -> paymentService.processPaymentAsync(token, cardNumber, cardHolderName, expiryDate, cvv, totalAmount))
+                        .thenApplyAsync(Tracer.wrap(orderReference -> {
+                            saveOrder(orderReference, orderItems, token);
+                            savedOrderReference.set(orderReference);
+                            reservationHeld.set(false);  // The reserved stock now belongs to the order
+                            finalizeStockAfterPayment(selectedItems);
+                            cartService.removeBooksFromCart(shoppingCart.getCartId(), selectedBooks);
+                            return orderReference;
+                        }), CHECKOUT_EXECUTOR))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        span.fail(error);
+                    }
+                    span.close();
+                    Platform.runLater(() -> {
+                        checkoutInFlight = false;
+                        if (error == null) {
+                            completeCheckout(result, selectedBooks);
+                        } else {
+                            handlePaymentError(error, selectedItems, selectedBooks, savedOrderReference.get());
+                        }
+                        enableForm();
+                    });
+                });
+        span.detach();  // The checkout goes on in the background; it ends the span when done
+    }
+
+    /**
+     * Updates the cart and closes the payment window after a successful checkout (runs on the UI thread).
+     * Duplicate results are ignored: the original checkout already updated the cart and the UI.
+     *
+     * @param result        The checkout result.
+     * @param selectedBooks The books that were checked out.
+     */
+    private void completeCheckout(CheckoutResult result, List<Book> selectedBooks) {
+        if (result.isDuplicate()) {
+            System.out.println("Duplicate checkout ignored for order " + result.getOrderReference());
+            return;
         }
+        String orderReference = result.getOrderReference();
+        shoppingCart.removeBooks(selectedBooks);
+        shoppingCartController.removeCheckedOutItemsFromCart();
+        uiUtils.showAlert("Payment Successful", "Your payment was successful! Order Reference: " + orderReference);
+        closePaymentScreen();
     }
 
     /**
      * Handles the cancellation or closure of the payment window and reverts reserved stock.
+     * If the window goes away while a checkout is running, the reservation is left to the checkout,
+     * which releases it itself if the payment fails.
      *
      * @param event The window event triggered when the window is closed.
      */
     @FXML
     public void handleCancelPayment(WindowEvent event) {
         // Revert reserved stock when the payment is canceled or the window is closed
-        List<CartTableItem> selectedItems = getSelectedCartItems();
-        shoppingCartController.revertReservedStock(selectedItems);
+        if (!checkoutInFlight && reservationHeld.compareAndSet(true, false)) {
+            revertReservationInBackground(getSelectedCartItems());
+        }
         closePaymentScreen();
     }
 
@@ -160,72 +269,43 @@ public class PaymentController {
      * @return true if all details are valid, otherwise false.
      */
     private boolean validatePaymentDetails() {
-        String cardNumberError = PaymentValidator.validateCardNumber(cardNumberField.getText());
-        String expiryDateError = PaymentValidator.validateExpiryDate(expiryDateField.getText());
-        String cvvError = PaymentValidator.validateCVV(cvvField.getText());
+        CardValidationResult result = PaymentValidator.validate(cardNumberField.getText(), expiryDateField.getText(), cvvField.getText());
 
-        if (cardNumberError != null) {
-            uiUtils.showError("Payment Failed", cardNumberError);
-            return false;
-        }
-        if (expiryDateError != null) {
-            uiUtils.showError("Payment Failed", expiryDateError);
-            return false;
-        }
-        if (cvvError != null) {
-            uiUtils.showError("Payment Failed", cvvError);
+        if (!result.isValid()) {
+            uiUtils.showError("Payment Failed", result.getErrorMessage());
             return false;
         }
         return true;
     }
 
-    /**
-     * Processes the payment with the provided details (card number, cardholder name, expiry date, CVV).
-     *
-     * @return The order reference if the payment is successful.
-     * @throws SQLException if the payment processing fails.
-     */
-    private String processPaymentDetails() throws SQLException {
-        String cardNumber = cardNumberField.getText();
-        String cardHolderName = cardHolderNameField.getText();
-        String expiryDate = expiryDateField.getText();
-        String cvv = cvvField.getText();
-
-        return paymentService.processPayment(cardNumber, cardHolderName, expiryDate, cvv)
-                .orElseThrow(() -> new SQLException("Payment processing failed."));
-    }
-
     /**
      * Saves the order after successful payment processing.
      *
      * @param orderReference The reference number of the processed order.
-     * @throws SQLException if there is an error saving the order.
+     * @param orderItems     The items in the order.
+     * @param checkoutToken  The checkout token recorded with the order.
+     * @throws IllegalStateException if there is an error saving the order.
      */
-    private void saveOrder(String orderReference) throws SQLException {
-        List<OrderItem> orderItems = createOrderItems();
+    private void saveOrder(String orderReference, List<OrderItem> orderItems, String checkoutToken) {
         Order order = new Order(orderReference, userId, totalAmount, orderItems);
 
-        if (!orderService.placeOrder(order)) {
-            throw new SQLException("Error saving order.");
+        if (!orderService.placeOrder(order, checkoutToken)) {
+            throw new IllegalStateException("Error saving order.");
         }
     }
 
     /**
      * Finalizes the stock after successful payment by adjusting stock and sold copies for each item.
+     *
+     * @param selectedItems The items that were paid for.
      */
-    private void finalizeStockAfterPayment() {
-        List<CartTableItem> selectedItems = shoppingCart.getBooks().entrySet().stream()
-                .filter(entry -> shoppingCartController.isBookSelected(entry.getKey()))
-                .map(entry -> new CartTableItem(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
-
+    private void finalizeStockAfterPayment(List<CartTableItem> selectedItems) {
         if (selectedItems.isEmpty()) {
             return;
         }
 
         // Finalize stock and update sold copies in inventory
         shoppingCartController.inventoryService.finalizeStockAfterPayment(selectedItems);
-        shoppingCartController.removeCheckedOutItemsFromCart();
     }
 
     /**
@@ -241,28 +321,84 @@ public class PaymentController {
     }
 
     /**
-     * Clears the selected books from the cart after successful payment.
+     * Retrieves the books selected for checkout.
      *
-     * @throws SQLException if there is an error removing books from the cart.
+     * @return The list of selected books.
      */
-    private void clearCartAfterPayment() throws SQLException {
-        List<Book> selectedBooks = shoppingCart.getBooks().keySet().stream()
+    private List<Book> getSelectedBooks() {
+        return shoppingCart.getBooks().keySet().stream()
                 .filter(shoppingCartController::isBookSelected)
                 .collect(Collectors.toList());
+    }
 
-        cartService.removeBooksFromCart(shoppingCart.getCartId(), selectedBooks);
-        shoppingCart.removeBooks(selectedBooks);
+    /**
+     * Reserves the checked out stock again if a failed attempt released it, so a retry never sells unreserved copies.
+     *
+     * @param selectedItems The items to reserve.
+     * @return A future completed once the stock is reserved, or exceptionally with a PaymentException.
+     */
+    private CompletableFuture<Void> reserveStockIfReleased(List<CartTableItem> selectedItems) {
+        if (reservationHeld.get()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(Tracer.wrap(() -> {
+            if (!shoppingCartController.inventoryService.reserveStockForCheckout(selectedItems)) {
+                throw new PaymentException("Some of the selected books are no longer in stock.");
+            }
+            reservationHeld.set(true);
+        }), CHECKOUT_EXECUTOR);
+    }
 
-        shoppingCartController.removeCheckedOutItemsFromCart();
+    /**
+     * Handles errors during the payment process (runs on the UI thread).
+     * If the order was never saved (the payment failed or saving the order failed), the reserved stock is
+     * released and an error message is displayed. If the order was saved and a later step failed, the
+     * stock stays with the order and the user is told the order was placed.
+     *
+     * @param error               The failure that ended the checkout.
+     * @param selectedItems       The items whose reserved stock should be released.
+     * @param selectedBooks       The books that were checked out.
+     * @param savedOrderReference The reference of the saved order, or null if no order was saved.
+     */
+    private void handlePaymentError(Throwable error, List<CartTableItem> selectedItems, List<Book> selectedBooks,
+                                    String savedOrderReference) {
+        if (savedOrderReference != null) {
+            System.out.println("Order " + savedOrderReference + " was saved but its checkout did not finish: " + error.getMessage());
+            shoppingCart.removeBooks(selectedBooks);
+            shoppingCartController.removeCheckedOutItemsFromCart();
+            uiUtils.showAlert("Payment Successful", "Your payment was successful! Order Reference: " + savedOrderReference
+                    + "\nYour cart could not be fully updated; please refresh it.");
+            closePaymentScreen();
+            return;
+        }
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause instanceof PaymentException
+                ? cause.getMessage()
+                : "An error occurred during payment. Please try again.";
+        uiUtils.showError("Payment Failed", message);
+        if (reservationHeld.compareAndSet(true, false)) {
+            revertReservationInBackground(selectedItems);
+        }
     }
 
     /**
-     * Handles errors during the payment process, reverting reserved stock and displaying an error message.
+     * Releases the reserved stock on a checkout worker, since it may wait on book locks.
+     * A revert that could neither be applied nor recorded for a later retry is reported to the user.
+     *
+     * @param selectedItems The items whose reserved stock should be released.
      */
-    private void handlePaymentError() {
-        uiUtils.showError("Payment Failed", "An error occurred during payment. Please try again.");
-        List<CartTableItem> selectedItems = getSelectedCartItems();
-        shoppingCartController.revertReservedStock(selectedItems);
+    private void revertReservationInBackground(List<CartTableItem> selectedItems) {
+        CompletableFuture.runAsync(Tracer.wrap(() -> shoppingCartController.revertReservedStock(selectedItems)), CHECKOUT_EXECUTOR)
+                .whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        return;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    System.out.println("Error reverting reserved stock: " + cause.getMessage());
+                    Platform.runLater(() -> uiUtils.showError("Stock Not Released",
+                            "The books reserved for this checkout could not be released. Please contact the store."));
+                });
     }
 
     /**
@@ -273,23 +409,27 @@ public class PaymentController {
     }
 
     /**
-     * Disables the payment form fields during processing to prevent further input.
+     * Disables the payment form fields and buttons during processing to prevent further input.
      */
     public void disableForm() {
         cardNumberField.setDisable(true);
         cardHolderNameField.setDisable(true);
         expiryDateField.setDisable(true);
         cvvField.setDisable(true);
+        payButton.setDisable(true);
+        cancelButton.setDisable(true);
     }
 
     /**
-     * Enables the payment form fields after processing is completed.
+     * Enables the payment form fields and buttons after processing is completed.
      */
     public void enableForm() {
         cardNumberField.setDisable(false);
         cardHolderNameField.setDisable(false);
         expiryDateField.setDisable(false);
         cvvField.setDisable(false);
+        payButton.setDisable(false);
+        cancelButton.setDisable(false);
     }
 
     /**
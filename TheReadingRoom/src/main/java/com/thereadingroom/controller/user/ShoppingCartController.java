@@ -6,17 +6,22 @@ import com.thereadingroom.model.entity.ShoppingCart;
 import com.thereadingroom.service.ServiceManager;
 import com.thereadingroom.service.cart.CartService;
 import com.thereadingroom.service.inventory.InventoryService;
+import com.thereadingroom.service.recommendation.IRecommendationService;
+import com.thereadingroom.utils.trace.Span;
+import com.thereadingroom.utils.trace.Tracer;
 import com.thereadingroom.utils.ui.UIUtils;
+import com.thereadingroom.utils.ui.cell.ActionButton;
+import com.thereadingroom.utils.ui.cell.TableCells;
+import com.thereadingroom.utils.ui.store.BookStore;
 import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -34,19 +39,34 @@ public class ShoppingCartController {
     @FXML
     protected TableColumn<CartTableItem, String> itemNameColumn;  // Column for the item names
     @FXML
-    protected TableColumn<CartTableItem, Integer> quantityColumn;  // Column for the quantity of items
+    protected TableColumn<CartTableItem, Number> quantityColumn;  // Column for the quantity of items
     @FXML
-    protected TableColumn<CartTableItem, Double> totalAmountColumn;  // Column for the total amount of each item
+    protected TableColumn<CartTableItem, Number> totalAmountColumn;  // Column for the total amount of each item
     @FXML
-    protected TableColumn<CartTableItem, String> removeColumn;  // Column for removing items
+    protected TableColumn<CartTableItem, Void> removeColumn;  // Column for removing items
     @FXML
     protected Label totalPriceLabel;  // Label displaying the total price of selected items
+    @FXML
+    protected TableView<Book> recommendedTableView;  // TableView of books often bought with the cart's books
+    @FXML
+    protected TableColumn<Book, String> recommendedTitleColumn;  // Column for a recommended book's title
+    @FXML
+    protected TableColumn<Book, String> recommendedAuthorColumn;  // Column for a recommended book's author
+    @FXML
+    protected TableColumn<Book, Number> recommendedPriceColumn;  // Column for a recommended book's price
+    @FXML
+    protected TableColumn<Book, Void> recommendedAddColumn;  // Column for adding a recommended book to the cart
+
+    // Recommended books shown below the cart
+    private static final int RECOMMENDATION_LIMIT = 5;
 
     protected ShoppingCart shoppingCart;  // The shopping cart containing the user's items
     protected final CartService cartService;  // Service for handling cart operations
     protected InventoryService inventoryService;  // Service for handling inventory-related operations
     protected final UIUtils uiUtils;  // Utility for handling UI-related tasks
     protected final ServiceManager serviceManager;  // Service manager for session and service-related operations
+    protected final IRecommendationService recommendationService;  // "Customers also bought" lookups
+    protected final BookStore bookStore;  // Shared, live catalog rows
 
     protected SimpleDoubleProperty totalPrice = new SimpleDoubleProperty(0.0);  // Property for total price binding
 
@@ -57,13 +77,18 @@ public class ShoppingCartController {
      * @param inventoryService Service for handling inventory-related operations.
      * @param uiUtils          Utility class for handling UI operations.
      * @param serviceManager   Service manager for handling services like session management.
+     * @param recommendationService Service for "customers also bought" lookups.
+     * @param bookStore        Shared, live catalog rows.
      */
     @Autowired
-    public ShoppingCartController(CartService cartService, InventoryService inventoryService, UIUtils uiUtils, ServiceManager serviceManager) {
+    public ShoppingCartController(CartService cartService, InventoryService inventoryService, UIUtils uiUtils, ServiceManager serviceManager,
+                                  IRecommendationService recommendationService, BookStore bookStore) {
         this.cartService = cartService;
         this.inventoryService = inventoryService;
         this.uiUtils = uiUtils;
         this.serviceManager = serviceManager;
+        this.recommendationService = recommendationService;
+        this.bookStore = bookStore;
     }
 
     /**
@@ -84,75 +109,27 @@ public class ShoppingCartController {
 
     /**
      * Configures the table columns with cell factories and sets up action buttons.
+     * The cells own their check box and buttons and are bound to the cart item's properties,
+     * so selecting an item or changing its quantity updates the row without refreshing the table.
      */
     private void setupTableColumns() {
-        selectColumn.setCellFactory(tableColumn -> new TableCell<>() {
-            private final CheckBox checkBox = new CheckBox();
-
-            @Override
-            protected void updateItem(Boolean isSelected, boolean empty) {
-                super.updateItem(isSelected, empty);
-                if (empty) {
-                    setGraphic(null);
-                } else {
-                    CartTableItem cartItem = getTableView().getItems().get(getIndex());
-                    checkBox.setSelected(cartItem.isSelected());
-                    checkBox.selectedProperty().addListener((observableValue, e, newValue) -> {
-                        cartItem.setSelected(newValue);
-                        updateTotalPrice();
-                    });
-                    setGraphic(checkBox);
-                }
-            }
-        });
+        selectColumn.setCellValueFactory(TableCells.property(CartTableItem::selectedProperty));
+        selectColumn.setCellFactory(TableCells.checkBox(CartTableItem::selectedProperty, cartItem -> updateTotalPrice()));
 
-        itemNameColumn.setCellValueFactory(cellData -> cellData.getValue().itemNameProperty());
-        totalAmountColumn.setCellValueFactory(cellData -> cellData.getValue().totalAmountProperty().asObject());
+        itemNameColumn.setCellValueFactory(TableCells.property(CartTableItem::itemNameProperty));
+        totalAmountColumn.setCellValueFactory(TableCells.property(CartTableItem::totalAmountProperty));
 
-        quantityColumn.setCellFactory(tableColumn -> new TableCell<>() {
-            private final Button incrementButton = new Button("+");
-            private final Button decrementButton = new Button("-");
-            private final Label quantityLabel = new Label();
-            private final HBox container = new HBox(10, decrementButton, quantityLabel, incrementButton);
+        quantityColumn.setCellValueFactory(TableCells.property(CartTableItem::quantityProperty));
+        quantityColumn.setCellFactory(TableCells.stepper(this::adjustQuantity));
 
-            {
-                container.setStyle("-fx-alignment: center;");
-            }
+        removeColumn.setCellFactory(TableCells.buttons(new ActionButton<>("Remove", null, this::removeItem)));
 
-            @Override
-            protected void updateItem(Integer quantity, boolean empty) {
-                super.updateItem(quantity, empty);
-                if (empty) {
-                    setGraphic(null);
-                } else {
-                    CartTableItem cartItem = getTableView().getItems().get(getIndex());
-                    quantityLabel.setText(String.valueOf(cartItem.getQuantity()));
-                    setGraphic(container);
-
-                    decrementButton.setOnAction(event -> adjustQuantity(cartItem, -1));
-                    incrementButton.setOnAction(event -> adjustQuantity(cartItem, 1));
-                }
-            }
-        });
-
-        removeColumn.setCellValueFactory(cellDataFeatures -> new SimpleStringProperty("Remove"));
-        removeColumn.setCellFactory(tableColumn -> new TableCell<>() {
-            private final Button removeButton = new Button("Remove");
-
-            @Override
-            protected void updateItem(String item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty) {
-                    setGraphic(null);
-                } else {
-                    setGraphic(removeButton);
-                    removeButton.setOnAction(event -> {
-                        CartTableItem cartItem = getTableView().getItems().get(getIndex());
-                        removeItem(cartItem);
-                    });
-                }
-            }
-        });
+        recommendedTitleColumn.setCellValueFactory(TableCells.property(Book::titleProperty));
+        recommendedAuthorColumn.setCellValueFactory(TableCells.property(Book::authorProperty));
+        recommendedPriceColumn.setCellValueFactory(TableCells.property(Book::priceProperty));
+        recommendedPriceColumn.setCellFactory(TableCells.formatted(price -> String.format("$%.2f", price.doubleValue())));
+        recommendedAddColumn.setCellFactory(TableCells.buttons(
+                new ActionButton<>("Add", "-fx-background-color: #d2691e; -fx-text-fill: white;", this::addRecommendedBook)));
     }
 
     /**
@@ -160,6 +137,7 @@ public class ShoppingCartController {
      */
     private void loadStylesheet() {
         uiUtils.loadCSS(cartTableView, "/com/thereadingroom/css/table-style.css");
+        uiUtils.loadCSS(recommendedTableView, "/com/thereadingroom/css/table-style.css");
     }
 
     /**
@@ -182,6 +160,36 @@ public class ShoppingCartController {
 
         cartTableView.getItems().setAll(cartItems);
         updateTotalPrice();
+        loadRecommendations();
+    }
+
+    /**
+     * Shows the books most often bought together with the books in the cart, leaving out the cart's own books.
+     * The recommendations and the book details are both held in memory, so this does not query the database.
+     */
+    private void loadRecommendations() {
+        List<Integer> cartBookIds = cartTableView.getItems().stream()
+                .map(cartItem -> cartItem.getBook().getBookId())
+                .toList();
+        recommendedTableView.getItems().setAll(recommendationService.getRecommendations(cartBookIds, RECOMMENDATION_LIMIT).stream()
+                .map(bookStore::get)
+                .filter(Objects::nonNull)  // Skips books deleted since they were ordered
+                .toList());
+    }
+
+    /**
+     * Adds one copy of a recommended book to the cart.
+     *
+     * @param book The recommended book.
+     */
+    private void addRecommendedBook(Book book) {
+        if (book.getPhysicalCopies() < 1) {
+            uiUtils.showError("Out of Stock", "The book \"" + book.getTitle() + "\" is no longer available.");
+            return;
+        }
+        shoppingCart.addBook(book, 1);
+        cartService.addOrUpdateBookInCart(shoppingCart.getCartId(), book.getBookId(), shoppingCart.getBooks().get(book));
+        loadCartItems();
     }
 
     /**
@@ -208,7 +216,14 @@ public class ShoppingCartController {
         }
 
         // Revalidate stock before proceeding to checkout
-        if (!inventoryService.validateStockAvailability(selectedItems)) {
+        boolean stockAvailable;
+        Span span = Tracer.begin("controller", "ShoppingCartController.handleCheckout");
+        try {
+            stockAvailable = inventoryService.validateStockAvailability(selectedItems);
+        } finally {
+            span.close();
+        }
+        if (!stockAvailable) {
             CartTableItem soldOutItem = selectedItems.stream()
                     .filter(item -> !inventoryService.isStockAvailable(item.getBook(), item.getQuantity()))
                     .findFirst()
@@ -248,6 +263,7 @@ public class ShoppingCartController {
         cartService.removeBooksFromCart(shoppingCart.getCartId(), booksToRemove);
         shoppingCart.removeBooks(booksToRemove);
         cartTableView.getItems().removeAll(selectedItems);
+        loadRecommendations();
     }
 
     /**
@@ -272,6 +288,7 @@ public class ShoppingCartController {
         cartService.removeBookFromCart(shoppingCart.getCartId(), cartItem.getBook().getBookId());
         cartTableView.getItems().remove(cartItem);
         updateTotalPrice();
+        loadRecommendations();
     }
 
     /**
@@ -286,15 +303,17 @@ public class ShoppingCartController {
             cartItem.setQuantity(newQuantity);
             shoppingCart.updateBookQuantity(cartItem.getBook(), newQuantity);
             cartService.updateBookQuantity(shoppingCart.getCartId(), cartItem.getBook().getBookId(), newQuantity);
-            cartTableView.refresh();
-            updateTotalPrice();
+            updateTotalPrice();  // The row's cells are bound to the quantity and total, so no table refresh is needed
         }
     }
 
     /**
      * Reverts reserved stock if checkout is canceled or fails.
+     * If the books stay busy, the revert is recorded and applied later. It may wait on book locks, so it must not
+     * run on the JavaFX thread.
      *
      * @param selectedItems The items for which stock was reserved.
+     * @throws IllegalStateException if the books could not be locked and the revert could not be recorded either.
      */
     public void revertReservedStock(List<CartTableItem> selectedItems) {
         inventoryService.revertReservedStock(selectedItems);
@@ -5,16 +5,25 @@ import com.thereadingroom.model.entity.User;
 import com.thereadingroom.service.ServiceManager;
 import com.thereadingroom.service.book.IBookService;
 import com.thereadingroom.service.cart.CartService;
+import com.thereadingroom.service.recommendation.IRecommendationService;
 import com.thereadingroom.utils.auth.SessionManager;
 import com.thereadingroom.utils.ui.UIUtils;
+import com.thereadingroom.utils.ui.cell.ActionButton;
+import com.thereadingroom.utils.ui.cell.TableCells;
+import com.thereadingroom.utils.ui.store.BookStore;
+import javafx.collections.ListChangeListener;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
-import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
 /**
  * Controller class for managing the User Dashboard view.
  * It provides a table to display books, and a welcome message for the logged-in user.
@@ -32,21 +41,44 @@ public class UserDashboardController extends BookTableController {
     private TableColumn<Book, String> authorColumn;  // Column to display the book author
 
     @FXML
-    private TableColumn<Book, String> priceColumn;  // Column to display the book price
+    private TableColumn<Book, Number> priceColumn;  // Column to display the book price
 
     @FXML
-    private TableColumn<Book, Integer> stockColumn;  // Column to display available stock of the book
+    private TableColumn<Book, Number> stockColumn;  // Column to display available stock of the book
 
     @FXML
-    private TableColumn<Book, Integer> soldCopiesColumn;  // Column to display the number of sold copies
+    private TableColumn<Book, Number> soldCopiesColumn;  // Column to display the number of sold copies
 
     @FXML
-    private TableColumn<Book, Button> actionColumn;  // Column for actions (e.g., Add to Cart)
+    private TableColumn<Book, Void> actionColumn;  // Column for actions (e.g., Add to Cart)
 
     @FXML
     private Label welcomeLabel;  // Label to display a welcome message for the user
 
+    @FXML
+    private Label alsoBoughtLabel;  // Heading naming the book the recommendations are for
+
+    @FXML
+    private TableView<Book> alsoBoughtTableView;  // TableView of books often bought with the selected book
+
+    @FXML
+    private TableColumn<Book, String> alsoBoughtTitleColumn;  // Column to display a recommended book's title
+
+    @FXML
+    private TableColumn<Book, String> alsoBoughtAuthorColumn;  // Column to display a recommended book's author
+
+    @FXML
+    private TableColumn<Book, Number> alsoBoughtPriceColumn;  // Column to display a recommended book's price
+
+    @FXML
+    private TableColumn<Book, Void> alsoBoughtActionColumn;  // Column for the 'Add to Cart' button of a recommended book
+
+    // Recommended books shown for the selected best-seller
+    private static final int ALSO_BOUGHT_LIMIT = 5;
+
     private final ServiceManager serviceManager;  // Service manager for managing session and services
+    private final IRecommendationService recommendationService;  // "Customers also bought" lookups
+    private SortedList<Book> booksBySales;  // The shared catalog rows, best-selling first
 
     /**
      * Constructor for the UserDashboardController, with dependencies injected via Spring.
@@ -55,11 +87,16 @@ public class UserDashboardController extends BookTableController {
      * @param cartService    Service for managing cart-related operations.
      * @param uiUtils        Utility class for UI-related operations.
      * @param serviceManager Service manager for accessing session and services.
+     * @param bookStore      Shared, live catalog rows.
+     * @param recommendationService Service for "customers also bought" lookups.
      */
     @Autowired
-    public UserDashboardController(IBookService bookService, CartService cartService, UIUtils uiUtils, ServiceManager serviceManager) {
-        super(bookService, cartService, uiUtils);
+    public UserDashboardController(IBookService bookService, CartService cartService, UIUtils uiUtils,
+                                   ServiceManager serviceManager, BookStore bookStore,
+                                   IRecommendationService recommendationService) {
+        super(bookService, cartService, uiUtils, bookStore);
         this.serviceManager = serviceManager;
+        this.recommendationService = recommendationService;
     }
 
     /**
@@ -67,6 +104,9 @@ public class UserDashboardController extends BookTableController {
      */
     @FXML
     public void initialize() {
+        // Set up the recommendations first, so they can be shown as soon as the best-sellers are loaded
+        initializeAlsoBoughtTable();
+
         // Initialize the book table and apply styles
         initializeBookTable(booksTableView, titleColumn, authorColumn, priceColumn, stockColumn, soldCopiesColumn, actionColumn);
         uiUtils.loadCSS(booksTableView, "/com/thereadingroom/css/table-style.css");
@@ -75,6 +115,42 @@ public class UserDashboardController extends BookTableController {
         loadWelcomeMessage();
     }
 
+    /**
+     * Sets up the "Customers Also Bought" table, which follows the best-seller selected in the top 5 table.
+     */
+    private void initializeAlsoBoughtTable() {
+        alsoBoughtTitleColumn.setCellValueFactory(TableCells.property(Book::titleProperty));
+        alsoBoughtAuthorColumn.setCellValueFactory(TableCells.property(Book::authorProperty));
+        alsoBoughtPriceColumn.setCellValueFactory(TableCells.property(Book::priceProperty));
+        alsoBoughtPriceColumn.setCellFactory(TableCells.formatted(price -> String.format("$%.2f", price.doubleValue())));
+        alsoBoughtActionColumn.setCellFactory(TableCells.buttons(
+                new ActionButton<>("Add to Cart", "-fx-background-color: #d2691e; -fx-text-fill: white;", this::handleAddButton)));
+        uiUtils.loadCSS(alsoBoughtTableView, "/com/thereadingroom/css/table-style.css");
+
+        booksTableView.getSelectionModel().selectedItemProperty().addListener((observable, oldBook, newBook) -> showAlsoBought());
+    }
+
+    /**
+     * Shows the books most often bought together with the selected best-seller, or with the top one if none is selected.
+     * The recommendations and the book details are both held in memory, so this does not query the database.
+     */
+    private void showAlsoBought() {
+        Book book = booksTableView.getSelectionModel().getSelectedItem();
+        if (book == null && !booksTableView.getItems().isEmpty()) {
+            book = booksTableView.getItems().get(0);
+        }
+        if (book == null) {
+            alsoBoughtLabel.setText("Customers Also Bought");
+            alsoBoughtTableView.getItems().clear();
+            return;
+        }
+        alsoBoughtLabel.setText("Customers Who Bought \"" + book.getTitle() + "\" Also Bought");
+        alsoBoughtTableView.getItems().setAll(recommendationService.getAlsoBought(book.getBookId(), ALSO_BOUGHT_LIMIT).stream()
+                .map(bookStore::get)
+                .filter(Objects::nonNull)  // Skips books deleted since they were ordered
+                .toList());
+    }
+
     /**
      * Loads and displays a personalized welcome message for the current user.
      * If no user data is available, a generic message is shown.
@@ -92,11 +168,27 @@ public class UserDashboardController extends BookTableController {
     }
 
     /**
-     * Loads the top 5 books from the book service and displays them in the table.
+     * Displays the top 5 books by sold copies, ranked from the shared BookStore rows.
+     * The ranking follows sales as they happen, so the table is only changed when the top 5 changes.
      * This method overrides the abstract loadBooks method from BookTableController.
      */
     @Override
     protected void loadBooks() {
-        booksTableView.getItems().setAll(bookService.getTop5Books());  // Fetch and display the top 5 books
+        if (booksBySales == null) {
+            booksBySales = new SortedList<>(bookStore.load(), Comparator.comparingInt(Book::getSoldCopies).reversed());
+            booksBySales.addListener((ListChangeListener<Book>) change -> showTopBooks());
+        }
+        showTopBooks();
+    }
+
+    /**
+     * Shows the first 5 books of the sales ranking, keeping the rows as they are if the top 5 did not change.
+     */
+    private void showTopBooks() {
+        List<Book> topBooks = booksBySales.subList(0, Math.min(5, booksBySales.size()));
+        if (!booksTableView.getItems().equals(topBooks)) {
+            booksTableView.getItems().setAll(topBooks);
+            showAlsoBought();
+        }
     }
 }
@@ -3,9 +3,14 @@ package com.thereadingroom.controller.user;
 import com.thereadingroom.model.entity.Book;
 import com.thereadingroom.service.book.IBookService;
 import com.thereadingroom.service.cart.CartService;
+import com.thereadingroom.utils.ui.DebouncedSearch;
 import com.thereadingroom.utils.ui.UIUtils;
+import com.thereadingroom.utils.ui.store.BookStore;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
-import javafx.scene.control.Button;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
@@ -13,10 +18,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Controller class for managing the "View All Books" view.
  * This class provides functionality for displaying and searching through all available books.
+ * The search runs as the user types, against the in-memory search index, and shows the best matches;
+ * if no book matches the words as typed, it shows the closest spellings instead.
  */
 @Controller
 public class ViewAllBooksController extends BookTableController {
@@ -31,19 +39,30 @@ public class ViewAllBooksController extends BookTableController {
     private TableColumn<Book, String> allAuthorColumn;  // Column to display the book author
 
     @FXML
-    private TableColumn<Book, String> allPriceColumn;  // Column to display the book price
+    private TableColumn<Book, Number> allPriceColumn;  // Column to display the book price
 
     @FXML
-    private TableColumn<Book, Integer> allStockColumn;  // Column to display the available stock
+    private TableColumn<Book, Number> allStockColumn;  // Column to display the available stock
 
     @FXML
-    private TableColumn<Book, Integer> allSoldCopiesColumn;  // Column to display the sold copies
+    private TableColumn<Book, Number> allSoldCopiesColumn;  // Column to display the sold copies
 
     @FXML
-    private TableColumn<Book, Button> allActionColumn;  // Column for actions (e.g., Add to Cart)
+    private TableColumn<Book, Void> allActionColumn;  // Column for actions (e.g., Add to Cart)
 
     @FXML
-    private TextField searchField;  // Input field for searching books by title
+    private TextField searchField;  // Input field for searching books by title or author
+
+    // Most books shown for a search
+    private static final int SEARCH_LIMIT = 100;
+
+    // Typos tolerated per word when nothing matches the words as typed
+    private static final int FUZZY_MAX_EDITS = 2;
+
+    private SortedList<Book> sortedBooks;  // All catalog rows, in column header order
+    private final ObservableList<Book> matchingBooks = FXCollections.observableArrayList();  // Rows of the latest search, best first
+    private SortedList<Book> sortedMatches;  // The matching rows, in column header order if one is chosen
+    private DebouncedSearch<List<Integer>> liveSearch;  // Runs the search as the user types
 
     /**
      * Constructor for the ViewAllBooksController.
@@ -51,10 +70,11 @@ public class ViewAllBooksController extends BookTableController {
      * @param bookService  Service for managing book-related operations.
      * @param cartService  Service for managing cart-related operations.
      * @param uiUtils      Utility class for UI-related operations.
+     * @param bookStore    Shared, live catalog rows.
      */
     @Autowired
-    public ViewAllBooksController(IBookService bookService, CartService cartService, UIUtils uiUtils) {
-        super(bookService, cartService, uiUtils);  // Pass the services to the parent constructor
+    public ViewAllBooksController(IBookService bookService, CartService cartService, UIUtils uiUtils, BookStore bookStore) {
+        super(bookService, cartService, uiUtils, bookStore);  // Pass the services to the parent constructor
     }
 
     /**
@@ -70,35 +90,77 @@ public class ViewAllBooksController extends BookTableController {
         // Ensure that columns resize to fit the table width
         allBooksTableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
-        // Load all books initially
-        loadBooks();
+        // Search as the user types
+        liveSearch = new DebouncedSearch<>(this::findBooks, this::showMatches);
+        searchField.textProperty().addListener((observable, oldText, newText) -> search(newText, false));
     }
 
     /**
-     * Loads all available books from the book service and displays them in the table.
+     * Displays all available books from the shared BookStore in the table (the catalog is only queried the first time).
      * This method overrides the abstract loadBooks method from BookTableController.
      */
     @Override
     protected void loadBooks() {
-        List<Book> allBooks = bookService.getAllBooks();  // Fetch all books
-        booksTableView.getItems().setAll(allBooks);  // Display the books in the table
+        ObservableList<Book> books = bookStore.load();
+        sortedBooks = new SortedList<>(books);  // Column header sorting
+        sortedBooks.comparatorProperty().bind(booksTableView.comparatorProperty());
+        sortedMatches = new SortedList<>(matchingBooks);
+        sortedMatches.comparatorProperty().bind(booksTableView.comparatorProperty());
+        books.addListener((ListChangeListener<Book>) change -> {
+            while (change.next()) {
+                matchingBooks.removeAll(change.getRemoved());  // Drop deleted books from the search results
+            }
+        });
+        booksTableView.setItems(sortedBooks);  // Display the books in the table
     }
 
     /**
-     * Handles the search functionality.
-     * Searches for books by title based on the user's input and displays the results in the table.
+     * Handles the search button: searches for the entered text right away.
      */
     @FXML
     public void handleSearchBooks() {
-        String keyword = searchField.getText().trim();  // Get the search keyword
+        search(searchField.getText(), true);
+    }
 
-        if (!keyword.isEmpty()) {
-            // Fetch and display the search results if a keyword is provided
-            List<Book> searchResults = bookService.searchBooksByTitle(keyword);
-            booksTableView.getItems().setAll(searchResults);
+    /**
+     * Searches for the entered text, or shows all books again if the search field is empty.
+     *
+     * @param text The entered text.
+     * @param now  true to search right away, false to wait for a pause in typing.
+     */
+    private void search(String text, boolean now) {
+        if (text == null || text.isBlank()) {
+            liveSearch.cancel();
+            matchingBooks.clear();
+            booksTableView.setItems(sortedBooks);
+        } else if (now) {
+            liveSearch.submitNow(text);
         } else {
-            // Reload all books if the search field is empty
-            loadBooks();
+            liveSearch.submit(text);
         }
     }
+
+    /**
+     * Finds the books matching the entered words, or the closest spellings if none match as typed (search thread).
+     *
+     * @param query The entered text.
+     * @return The IDs of the matching books, best matches first.
+     */
+    private List<Integer> findBooks(String query) {
+        List<Integer> bookIds = bookService.searchBookIds(query, SEARCH_LIMIT);
+        return bookIds.isEmpty() ? bookService.fuzzySearch(query, FUZZY_MAX_EDITS, SEARCH_LIMIT) : bookIds;
+    }
+
+    /**
+     * Shows the books found by the latest search, looking the rows up in the shared BookStore.
+     *
+     * @param bookIds The IDs of the matching books, best matches first.
+     */
+    private void showMatches(List<Integer> bookIds) {
+        matchingBooks.setAll(bookIds.stream()
+                .map(bookStore::get)
+                .filter(Objects::nonNull)  // Skips books the store has not received yet
+                .toList());
+        booksTableView.setItems(sortedMatches);
+    }
 }
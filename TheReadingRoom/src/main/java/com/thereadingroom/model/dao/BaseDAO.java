@@ -1,16 +1,21 @@
 package com.thereadingroom.model.dao;
 
 import com.thereadingroom.model.dao.database.Database;
+import com.thereadingroom.model.dao.database.StatementCache;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 import java.util.function.Function;
 
 /**
  * BaseDAO provides common database operations for all DAOs in the application.
  * It encapsulates the basic methods for interacting with the database, ensuring consistent handling of connections.
+ * Statements are taken from the per-connection {@link StatementCache}, so they are prepared once per
+ * pooled connection and must not be closed by callers.
  */
 public abstract class BaseDAO {
 
@@ -23,8 +28,8 @@ public abstract class BaseDAO {
      * @return boolean indicating if the operation was successful (true if rows affected > 0)
      */
     protected boolean executeUpdate(String sql, Object... params) {
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, sql);
 
             // Set parameters for the prepared statement
             setPreparedStatementParams(pstmt, params);
@@ -48,8 +53,8 @@ public abstract class BaseDAO {
      * @return The result of the query, mapped to the desired type.
      */
     protected <T> T executeQuery(String sql, Function<ResultSet, T> mapper, Object... params) {
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, sql);
 
             // Set parameters for the prepared statement
             setPreparedStatementParams(pstmt, params);
@@ -73,8 +78,8 @@ public abstract class BaseDAO {
      * @return boolean indicating if the batch operation was successful (true if executed without errors).
      */
     protected boolean executeBatchUpdate(String sql, Iterable<Object[]> paramsList) {
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, sql);
 
             // Loop through each set of parameters and add them to the batch
             for (Object[] params : paramsList) {
@@ -91,6 +96,58 @@ public abstract class BaseDAO {
         }
     }
 
+    /**
+     * Execute several SQL statements without parameters, such as schema definitions, in one transaction.
+     * Either all of them take effect or none does, and the database is synced once rather than per statement.
+     *
+     * @param statements The SQL statements, executed in order.
+     * @return boolean indicating if all the statements were committed.
+     */
+    protected boolean executeInTransaction(List<String> statements) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : statements) {
+                    stmt.execute(sql);
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.out.println("Error executing statements: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Obtain a cached prepared statement for the given connection.
+     * The statement belongs to the connection's cache and must not be closed by the caller;
+     * any ResultSet opened from it must be closed so the connection does not keep a read lock.
+     *
+     * @param conn The connection borrowed from the pool.
+     * @param sql  The SQL statement to prepare.
+     * @return A prepared statement with cleared parameters.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    protected PreparedStatement prepareCached(Connection conn, String sql) throws SQLException {
+        return StatementCache.forConnection(conn).prepare(sql);
+    }
+
+    /**
+     * Obtain a cached prepared statement that returns generated keys (for INSERT statements).
+     *
+     * @param conn The connection borrowed from the pool.
+     * @param sql  The INSERT statement to prepare.
+     * @return A prepared statement with cleared parameters.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    protected PreparedStatement prepareCachedReturningKeys(Connection conn, String sql) throws SQLException {
+        return StatementCache.forConnection(conn).prepareReturningKeys(sql);
+    }
+
     /**
      * Set the parameters for a prepared statement.
      * This method abstracts the repetitive process of setting prepared statement parameters.
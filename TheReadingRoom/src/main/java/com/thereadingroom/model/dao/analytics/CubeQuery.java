@@ -0,0 +1,203 @@
+package com.thereadingroom.model.dao.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * An ad-hoc aggregation over the sales cube: the order lines matching the filters are grouped by one
+ * dimension, or by two (for instance author by month), and copies sold and revenue are summed per group.
+ * Unset filters match every line. Groups are returned highest revenue first.
+ */
+public class CubeQuery {
+
+    // Groups returned unless another limit is set
+    public static final int DEFAULT_LIMIT = 100;
+
+    // Width of a price band unless another is set ($5.00)
+    public static final int DEFAULT_PRICE_BAND_CENTS = 500;
+
+    /**
+     * The attributes order lines can be grouped by.
+     */
+    public enum Dimension {
+        AUTHOR("Author"),
+        TITLE("Title"),
+        MONTH("Month"),
+        DAY("Day"),
+        PRICE_BAND("Price Band"),
+        CUSTOMER("Customer");
+
+        private final String label;  // Name shown to the admin
+
+        /**
+         * Creates a dimension.
+         *
+         * @param label Name shown to the admin.
+         */
+        Dimension(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the name shown to the admin.
+         *
+         * @return The label.
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private Dimension groupBy = Dimension.AUTHOR;  // The first grouping dimension
+    private Dimension thenBy;                      // The second grouping dimension, or null
+    private LocalDate fromDate;                    // Only lines of orders placed on or after this day, or null
+    private LocalDate toDate;                      // Only lines of orders placed on or before this day, or null
+    private String author;                         // Only lines of books by this author, or null
+    private int priceBandCents = DEFAULT_PRICE_BAND_CENTS;  // Width of the price bands
+    private int limit = DEFAULT_LIMIT;             // The maximum number of groups
+
+    /**
+     * Creates a query grouping all lines by author.
+     */
+    public CubeQuery() {
+    }
+
+    /**
+     * Creates a query grouping all lines by one or two dimensions.
+     *
+     * @param groupBy The first grouping dimension.
+     * @param thenBy  The second grouping dimension, or null.
+     */
+    public CubeQuery(Dimension groupBy, Dimension thenBy) {
+        this.groupBy = groupBy;
+        this.thenBy = thenBy;
+    }
+
+    /**
+     * Returns the first grouping dimension.
+     *
+     * @return The dimension.
+     */
+    public Dimension getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * Sets the first grouping dimension.
+     *
+     * @param groupBy The dimension.
+     */
+    public void setGroupBy(Dimension groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    /**
+     * Returns the second grouping dimension.
+     *
+     * @return The dimension, or null to group by the first only.
+     */
+    public Dimension getThenBy() {
+        return thenBy;
+    }
+
+    /**
+     * Sets the second grouping dimension.
+     *
+     * @param thenBy The dimension, or null to group by the first only.
+     */
+    public void setThenBy(Dimension thenBy) {
+        this.thenBy = thenBy;
+    }
+
+    /**
+     * Returns the first day of the date range.
+     *
+     * @return The day, or null for no lower bound.
+     */
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    /**
+     * Restricts the query to orders placed on or after a day.
+     *
+     * @param fromDate The day, or null for no lower bound.
+     */
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    /**
+     * Returns the last day of the date range.
+     *
+     * @return The day, or null for no upper bound.
+     */
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    /**
+     * Restricts the query to orders placed on or before a day.
+     *
+     * @param toDate The day, or null for no upper bound.
+     */
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    /**
+     * Returns the author filter.
+     *
+     * @return The author's name, or null for all authors.
+     */
+    public String getAuthor() {
+        return author;
+    }
+
+    /**
+     * Restricts the query to one author; blank means all authors.
+     *
+     * @param author The author's name, or null.
+     */
+    public void setAuthor(String author) {
+        this.author = author == null || author.isBlank() ? null : author.trim();
+    }
+
+    /**
+     * Returns the width of the price bands.
+     *
+     * @return The width in cents.
+     */
+    public int getPriceBandCents() {
+        return priceBandCents;
+    }
+
+    /**
+     * Sets the width of the price bands.
+     *
+     * @param priceBandCents The width in cents; must be positive.
+     */
+    public void setPriceBandCents(int priceBandCents) {
+        if (priceBandCents <= 0) {
+            throw new IllegalArgumentException("Price band must be positive: " + priceBandCents);
+        }
+        this.priceBandCents = priceBandCents;
+    }
+
+    /**
+     * Returns the maximum number of groups.
+     *
+     * @return The limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the maximum number of groups.
+     *
+     * @param limit The limit.
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,53 @@
+package com.thereadingroom.model.dao.analytics;
+
+/**
+ * A fixed-capacity block of order lines in the sales cube, stored column by column in primitive arrays.
+ * Lines are only appended, by the cube's single writer, past the line count readers were last given;
+ * readers never look beyond the count of the snapshot they hold, so appending needs no locking.
+ */
+class CubeSegment {
+
+    // Order lines per segment; also the unit of parallel work when aggregating
+    static final int CAPACITY = 1 << 16;
+
+    final int[] userId = new int[CAPACITY];       // Customer who placed the order
+    final int[] bookId = new int[CAPACITY];       // Book sold
+    final int[] title = new int[CAPACITY];        // Book title (dictionary code)
+    final int[] author = new int[CAPACITY];       // Book author (dictionary code)
+    final int[] day = new int[CAPACITY];          // Order date as days since 1970-01-01
+    final int[] month = new int[CAPACITY];        // Order month as year * 12 + month - 1
+    final int[] quantity = new int[CAPACITY];     // Copies sold
+    final int[] priceCents = new int[CAPACITY];   // Unit price in cents
+
+    private int size;  // Number of lines written (by the writer)
+
+    /**
+     * Appends an order line (writer only).
+     *
+     * @return false if the segment is full.
+     */
+    boolean append(int userId, int bookId, int title, int author, int day, int month, int quantity, int priceCents) {
+        if (size == CAPACITY) {
+            return false;
+        }
+        this.userId[size] = userId;
+        this.bookId[size] = bookId;
+        this.title[size] = title;
+        this.author[size] = author;
+        this.day[size] = day;
+        this.month[size] = month;
+        this.quantity[size] = quantity;
+        this.priceCents[size] = priceCents;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the number of lines written so far (writer only; readers use their snapshot's count).
+     *
+     * @return The number of lines.
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,190 @@
+package com.thereadingroom.model.dao.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Lines, units and revenue per group key, in an open-addressing hash table of primitive arrays.
+ * A key packs the codes of up to two dimensions into a long, so aggregating a line allocates nothing.
+ * Not thread-safe: each aggregation task fills its own table and the tables are merged as the tasks join.
+ */
+class GroupTotals {
+
+    private static final long EMPTY = Long.MIN_VALUE;  // Marks a free slot; no packed key has this value
+    private static final int INITIAL_CAPACITY = 64;    // Slots of a new table (a power of two)
+
+    private long[] keys;       // Packed group keys
+    private long[] lines;      // Order lines per key
+    private long[] units;      // Copies sold per key
+    private long[] revenue;    // Revenue in cents per key
+    private int size;          // Number of keys
+
+    /**
+     * Creates an empty table.
+     */
+    GroupTotals() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Packs the codes of two dimensions into a group key.
+     *
+     * @param first  Code of the first dimension.
+     * @param second Code of the second dimension, 0 if there is none.
+     * @return The key.
+     */
+    static long key(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the first dimension's code of a key.
+     */
+    static int first(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Returns the second dimension's code of a key.
+     */
+    static int second(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Adds to the totals of a key.
+     *
+     * @param key          The group key.
+     * @param lineCount    The order lines to add.
+     * @param unitCount    The copies to add.
+     * @param revenueCents The revenue to add in cents.
+     */
+    void add(long key, long lineCount, long unitCount, long revenueCents) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = slot(key);
+            }
+        }
+        lines[slot] += lineCount;
+        units[slot] += unitCount;
+        revenue[slot] += revenueCents;
+    }
+
+    /**
+     * Adds all totals of another table.
+     *
+     * @param other The table to add.
+     * @return This table.
+     */
+    GroupTotals merge(GroupTotals other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                add(other.keys[i], other.lines[i], other.units[i], other.revenue[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot indexes of the keys in the table, highest revenue first.
+     *
+     * @param limit The maximum number of slots.
+     * @return The slots.
+     */
+    int[] topByRevenue(int limit) {
+        Integer[] slots = new Integer[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                slots[count++] = i;
+            }
+        }
+        Arrays.sort(slots, (a, b) -> revenue[a] != revenue[b] ? Long.compare(revenue[b], revenue[a]) : Long.compare(keys[a], keys[b]));
+        int[] top = new int[Math.min(limit, size)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = slots[i];
+        }
+        return top;
+    }
+
+    /**
+     * Returns the key in a slot.
+     */
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the order lines in a slot.
+     */
+    long linesAt(int slot) {
+        return lines[slot];
+    }
+
+    /**
+     * Returns the copies sold in a slot.
+     */
+    long unitsAt(int slot) {
+        return units[slot];
+    }
+
+    /**
+     * Returns the revenue in cents in a slot.
+     */
+    long revenueAt(int slot) {
+        return revenue[slot];
+    }
+
+    /**
+     * Finds the slot holding a key, or the free slot where it belongs (linear probing).
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the table and reinserts the keys.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldLines = lines;
+        long[] oldUnits = units;
+        long[] oldRevenue = revenue;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                lines[slot] = oldLines[i];
+                units[slot] = oldUnits[i];
+                revenue[slot] = oldRevenue[i];
+            }
+        }
+    }
+
+    /**
+     * Allocates empty arrays with the given number of slots.
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        lines = new long[capacity];
+        units = new long[capacity];
+        revenue = new long[capacity];
+    }
+}
@@ -0,0 +1,15 @@
+package com.thereadingroom.model.dao.analytics;
+
+/**
+ * Interface for loading order lines into the in-memory sales cube.
+ */
+public interface ISalesCubeDAO {
+
+    /**
+     * Appends the lines of the orders placed after the last order in the cube and publishes them.
+     *
+     * @param cube The cube to extend.
+     * @return The number of lines appended, or -1 if the orders could not be read.
+     */
+    int appendNewLines(SalesCube cube);
+}
@@ -0,0 +1,72 @@
+package com.thereadingroom.model.dao.analytics;
+
+import com.thereadingroom.model.entity.BookSales;
+import com.thereadingroom.model.entity.CustomerSales;
+import com.thereadingroom.model.entity.DailySales;
+import com.thereadingroom.model.entity.Order;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interface for the sales rollup tables: pre-aggregated sales per day (sales_daily), per book per day
+ * (sales_book_daily) and per user over their lifetime (sales_user).
+ * The rollups are kept current inside the transactions that save and delete orders, so reports never
+ * have to scan the orders and order_items tables.
+ */
+public interface ISalesRollupDAO {
+
+    /**
+     * Adds an order to the rollups, or subtracts it, inside the caller's transaction.
+     *
+     * @param conn  The connection with the order's open transaction.
+     * @param order The order, with its items and date.
+     * @param sign  1 for a saved order, -1 for a deleted one.
+     * @throws SQLException if the rollups cannot be updated (the caller rolls back).
+     */
+    void applyOrder(Connection conn, Order order, int sign) throws SQLException;
+
+    /**
+     * Retrieves the sales of each day in a range that had orders.
+     *
+     * @param from The first day (inclusive).
+     * @param to   The last day (inclusive).
+     * @return The daily sales in date order.
+     */
+    List<DailySales> getDailySales(LocalDate from, LocalDate to);
+
+    /**
+     * Retrieves the books with the highest revenue in a date range.
+     *
+     * @param from  The first day (inclusive).
+     * @param to    The last day (inclusive).
+     * @param limit The maximum number of books.
+     * @return The best-selling books, highest revenue first.
+     */
+    List<BookSales> getTopBooks(LocalDate from, LocalDate to, int limit);
+
+    /**
+     * Retrieves the customers with the highest lifetime revenue.
+     *
+     * @param limit The maximum number of customers.
+     * @return The top customers, highest revenue first.
+     */
+    List<CustomerSales> getTopCustomers(int limit);
+
+    /**
+     * Checks whether the rollups are empty while there are orders (for instance in a database created
+     * before the rollups existed).
+     *
+     * @return true if the rollups must be rebuilt.
+     */
+    boolean needsRebuild();
+
+    /**
+     * Recomputes all rollups from the orders, in parallel, and replaces them in one transaction.
+     *
+     * @return The number of orders aggregated, or -1 if the rebuild failed.
+     */
+    int rebuild();
+}
@@ -0,0 +1,398 @@
+package com.thereadingroom.model.dao.analytics;
+
+import com.thereadingroom.model.entity.SalesSlice;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * In-memory columnar copy of the order lines (orders joined with their items and books) for ad-hoc reports.
+ * Each line is a row across primitive column arrays, held in fixed-size segments; titles and authors are
+ * dictionary-encoded. A query scans the segments in parallel on the fork/join common pool. When the grouping
+ * has few possible keys (authors by month, say) each task sums into flat arrays indexed by the key, otherwise
+ * into its own primitive hash table; the per-task totals are merged as the tasks join.
+ * <p>
+ * Lines are appended by one writer (SalesCubeDAO) and become visible to queries when published; queries
+ * run against the snapshot that was current when they started and never block the writer.
+ */
+public class SalesCube {
+
+    // Largest number of possible group keys summed in flat arrays rather than a hash table
+    static final int DENSE_GROUPS = 1 << 16;
+
+    private static final int DIMENSIONS = CubeQuery.Dimension.values().length;  // Number of grouping dimensions
+
+    private final StringDictionary titles = new StringDictionary();   // Title codes
+    private final StringDictionary authors = new StringDictionary();  // Author codes
+    private final Map<Integer, String> usernames = new ConcurrentHashMap<>();  // User ID -> username
+    private final List<CubeSegment> segments = new ArrayList<>();     // All segments, the last one being filled (writer)
+    private int lastOrderId;                                          // Highest order ID appended (writer)
+    private int minDay = Integer.MAX_VALUE;                           // Range of the day column (writer)
+    private int maxDay = Integer.MIN_VALUE;
+    private int minUserId = Integer.MAX_VALUE;                        // Range of the user column (writer)
+    private int maxUserId = Integer.MIN_VALUE;
+    private int minPriceCents = Integer.MAX_VALUE;                    // Range of the price column (writer)
+    private int maxPriceCents = Integer.MIN_VALUE;
+    private volatile Snapshot snapshot = new Snapshot(new CubeSegment[0], 0, 0, new int[DIMENSIONS], new int[DIMENSIONS]);  // What queries see
+
+    /**
+     * The published state: the segments, the number of lines in the last one, the last order ID and the
+     * smallest and largest code of each dimension's column. Every segment but the last is full.
+     */
+    private static final class Snapshot {
+
+        private final CubeSegment[] segments;  // The published segments
+        private final int tailSize;            // Lines of the last segment that are published
+        private final int lastOrderId;         // Highest published order ID
+        private final int[] minCode;           // Smallest code per dimension (by ordinal)
+        private final int[] maxCode;           // Largest code per dimension (by ordinal)
+
+        Snapshot(CubeSegment[] segments, int tailSize, int lastOrderId, int[] minCode, int[] maxCode) {
+            this.segments = segments;
+            this.tailSize = tailSize;
+            this.lastOrderId = lastOrderId;
+            this.minCode = minCode;
+            this.maxCode = maxCode;
+        }
+
+        /**
+         * Returns the number of published lines of a segment.
+         */
+        int sizeOf(int segment) {
+            return segment == segments.length - 1 ? tailSize : CubeSegment.CAPACITY;
+        }
+
+        /**
+         * Returns the number of published lines.
+         */
+        long lineCount() {
+            return segments.length == 0 ? 0 : (long) (segments.length - 1) * CubeSegment.CAPACITY + tailSize;
+        }
+    }
+
+    /**
+     * Appends an order line; it is seen by queries once published.
+     *
+     * @param orderId  The order the line belongs to.
+     * @param userId   The customer who placed the order.
+     * @param username The customer's username.
+     * @param day      The day the order was placed.
+     * @param bookId   The book sold.
+     * @param title    The book's title.
+     * @param author   The book's author.
+     * @param quantity The number of copies.
+     * @param price    The unit price.
+     */
+    synchronized void append(int orderId, int userId, String username, LocalDate day,
+                             int bookId, String title, String author, int quantity, double price) {
+        CubeSegment tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        int titleCode = titles.encode(title);
+        int authorCode = authors.encode(author);
+        int month = monthOf((int) day.toEpochDay());
+        int priceCents = (int) SalesRollups.toCents(price);
+        if (tail == null || !tail.append(userId, bookId, titleCode, authorCode, (int) day.toEpochDay(), month, quantity, priceCents)) {
+            tail = new CubeSegment();
+            tail.append(userId, bookId, titleCode, authorCode, (int) day.toEpochDay(), month, quantity, priceCents);
+            segments.add(tail);
+        }
+        usernames.putIfAbsent(userId, username);
+        lastOrderId = Math.max(lastOrderId, orderId);
+        minDay = Math.min(minDay, (int) day.toEpochDay());
+        maxDay = Math.max(maxDay, (int) day.toEpochDay());
+        minUserId = Math.min(minUserId, userId);
+        maxUserId = Math.max(maxUserId, userId);
+        minPriceCents = Math.min(minPriceCents, priceCents);
+        maxPriceCents = Math.max(maxPriceCents, priceCents);
+    }
+
+    /**
+     * Makes the lines appended so far visible to queries.
+     */
+    synchronized void publish() {
+        int tailSize = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).size();
+        int[] minCode = new int[DIMENSIONS];
+        int[] maxCode = new int[DIMENSIONS];
+        if (tailSize > 0) {
+            setRange(minCode, maxCode, CubeQuery.Dimension.AUTHOR, 0, authors.size() - 1);
+            setRange(minCode, maxCode, CubeQuery.Dimension.TITLE, 0, titles.size() - 1);
+            setRange(minCode, maxCode, CubeQuery.Dimension.MONTH, monthOf(minDay), monthOf(maxDay));
+            setRange(minCode, maxCode, CubeQuery.Dimension.DAY, minDay, maxDay);
+            setRange(minCode, maxCode, CubeQuery.Dimension.PRICE_BAND, minPriceCents, maxPriceCents);
+            setRange(minCode, maxCode, CubeQuery.Dimension.CUSTOMER, minUserId, maxUserId);
+        }
+        snapshot = new Snapshot(segments.toArray(new CubeSegment[0]), tailSize, lastOrderId, minCode, maxCode);
+    }
+
+    /**
+     * Records the code range of a dimension.
+     */
+    private static void setRange(int[] minCode, int[] maxCode, CubeQuery.Dimension dimension, int min, int max) {
+        minCode[dimension.ordinal()] = min;
+        maxCode[dimension.ordinal()] = max;
+    }
+
+    /**
+     * Returns the month code (year * 12 + month - 1) of an epoch day.
+     */
+    private static int monthOf(int epochDay) {
+        LocalDate day = LocalDate.ofEpochDay(epochDay);
+        return day.getYear() * 12 + day.getMonthValue() - 1;
+    }
+
+    /**
+     * Returns the highest order ID whose lines are in the cube.
+     *
+     * @return The order ID, or 0 if the cube is empty.
+     */
+    public int getLastOrderId() {
+        return snapshot.lastOrderId;
+    }
+
+    /**
+     * Returns the number of order lines queries see.
+     *
+     * @return The line count.
+     */
+    public long getLineCount() {
+        return snapshot.lineCount();
+    }
+
+    /**
+     * Aggregates the published lines matching a query.
+     *
+     * @param query The grouping and filters.
+     * @return The groups, highest revenue first.
+     */
+    public List<SalesSlice> query(CubeQuery query) {
+        Snapshot current = snapshot;
+        int authorCode = -1;
+        if (query.getAuthor() != null) {
+            authorCode = authors.find(query.getAuthor());
+            if (authorCode < 0) {
+                return new ArrayList<>();  // No line can match an author that never sold
+            }
+        }
+        Scan scan = new Scan(query, authorCode, current);
+
+        GroupTotals totals = current.segments.length == 0
+                ? new GroupTotals()
+                : ForkJoinPool.commonPool().invoke(new ScanTask(current, scan, 0, current.segments.length, segmentsPerTask(current)));
+
+        List<SalesSlice> slices = new ArrayList<>();
+        for (int slot : totals.topByRevenue(query.getLimit())) {
+            long key = totals.keyAt(slot);
+            slices.add(new SalesSlice(
+                    label(query.getGroupBy(), GroupTotals.first(key), query.getPriceBandCents()),
+                    query.getThenBy() == null ? "" : label(query.getThenBy(), GroupTotals.second(key), query.getPriceBandCents()),
+                    totals.linesAt(slot),
+                    totals.unitsAt(slot),
+                    totals.revenueAt(slot) / 100.0));
+        }
+        return slices;
+    }
+
+    /**
+     * Turns a dimension code back into the text shown to the admin.
+     */
+    private String label(CubeQuery.Dimension dimension, int code, int priceBandCents) {
+        return switch (dimension) {
+            case AUTHOR -> authors.decode(code);
+            case TITLE -> titles.decode(code);
+            case MONTH -> YearMonth.of(code / 12, code % 12 + 1).toString();
+            case DAY -> LocalDate.ofEpochDay(code).toString();
+            case PRICE_BAND -> String.format("$%.2f - $%.2f", code * priceBandCents / 100.0, ((code + 1) * priceBandCents - 1) / 100.0);
+            case CUSTOMER -> usernames.getOrDefault(code, "User #" + code);
+        };
+    }
+
+    /**
+     * Returns how many segments one task scans: enough tasks to keep every worker busy, few enough that
+     * setting up each task's totals stays cheap.
+     */
+    private static int segmentsPerTask(Snapshot snapshot) {
+        int tasks = ForkJoinPool.getCommonPoolParallelism() * 4;
+        return Math.max(1, (snapshot.segments.length + tasks - 1) / tasks);
+    }
+
+    /**
+     * A query resolved to column codes: which columns form the group key, which lines pass the filters and,
+     * when the key has few enough possible values, how a key maps to an index into flat arrays.
+     */
+    private static final class Scan {
+
+        private final CubeQuery.Dimension groupBy;   // First key column
+        private final CubeQuery.Dimension thenBy;    // Second key column, or null
+        private final int firstDivisor;             // Divisor turning a first column value into its code
+        private final int secondDivisor;            // Divisor turning a second column value into its code
+        private final int fromDay;                  // First day included, as an epoch day
+        private final int toDay;                    // Last day included, as an epoch day
+        private final int authorCode;               // Author code lines must have, or -1 for all
+        private final int firstMin;                 // Smallest first code
+        private final int secondMin;                // Smallest second code (0 without a second dimension)
+        private final int secondCount;              // Number of possible second codes (1 without one)
+        private final int denseGroups;              // Number of possible keys, or 0 to use hash tables
+
+        Scan(CubeQuery query, int authorCode, Snapshot snapshot) {
+            this.groupBy = query.getGroupBy();
+            this.thenBy = query.getThenBy();
+            this.firstDivisor = divisor(groupBy, query);
+            this.secondDivisor = thenBy == null ? 1 : divisor(thenBy, query);
+            this.fromDay = query.getFromDate() == null ? Integer.MIN_VALUE : (int) query.getFromDate().toEpochDay();
+            this.toDay = query.getToDate() == null ? Integer.MAX_VALUE : (int) query.getToDate().toEpochDay();
+            this.authorCode = authorCode;
+
+            this.firstMin = Math.floorDiv(snapshot.minCode[groupBy.ordinal()], firstDivisor);
+            long firstCount = (long) Math.floorDiv(snapshot.maxCode[groupBy.ordinal()], firstDivisor) - firstMin + 1;
+            if (thenBy == null) {
+                this.secondMin = 0;
+                this.secondCount = 1;
+            } else {
+                this.secondMin = Math.floorDiv(snapshot.minCode[thenBy.ordinal()], secondDivisor);
+                this.secondCount = (int) Math.min(Integer.MAX_VALUE,
+                        (long) Math.floorDiv(snapshot.maxCode[thenBy.ordinal()], secondDivisor) - secondMin + 1);
+            }
+            long groups = firstCount * secondCount;
+            this.denseGroups = groups <= DENSE_GROUPS ? (int) groups : 0;
+        }
+
+        /**
+         * Returns the divisor turning a dimension's column value into its code (the width of a price band).
+         */
+        private static int divisor(CubeQuery.Dimension dimension, CubeQuery query) {
+            return dimension == CubeQuery.Dimension.PRICE_BAND ? query.getPriceBandCents() : 1;
+        }
+
+        /**
+         * Sums the matching lines of a range of segments by group key.
+         *
+         * @param snapshot     The published segments.
+         * @param firstSegment First segment of the range (inclusive).
+         * @param endSegment   End of the range (exclusive).
+         * @return The sums per key.
+         */
+        GroupTotals run(Snapshot snapshot, int firstSegment, int endSegment) {
+            if (denseGroups == 0) {
+                GroupTotals totals = new GroupTotals();
+                for (int s = firstSegment; s < endSegment; s++) {
+                    runHashed(snapshot.segments[s], snapshot.sizeOf(s), totals);
+                }
+                return totals;
+            }
+            long[] lines = new long[denseGroups];
+            long[] units = new long[denseGroups];
+            long[] revenue = new long[denseGroups];
+            for (int s = firstSegment; s < endSegment; s++) {
+                runDense(snapshot.segments[s], snapshot.sizeOf(s), lines, units, revenue);
+            }
+            GroupTotals totals = new GroupTotals();
+            for (int index = 0; index < denseGroups; index++) {
+                if (lines[index] != 0) {
+                    int first = index / secondCount + firstMin;
+                    int second = thenBy == null ? 0 : index % secondCount + secondMin;
+                    totals.add(GroupTotals.key(first, second), lines[index], units[index], revenue[index]);
+                }
+            }
+            return totals;
+        }
+
+        /**
+         * Sums the matching lines of one segment into flat arrays indexed by group key.
+         */
+        private void runDense(CubeSegment segment, int size, long[] lines, long[] units, long[] revenue) {
+            int[] first = column(segment, groupBy);
+            int[] second = thenBy == null ? null : column(segment, thenBy);
+            int[] day = segment.day;
+            int[] author = segment.author;
+            int[] quantity = segment.quantity;
+            int[] priceCents = segment.priceCents;
+            for (int i = 0; i < size; i++) {
+                if (day[i] < fromDay || day[i] > toDay || (authorCode >= 0 && author[i] != authorCode)) {
+                    continue;
+                }
+                int index = (first[i] / firstDivisor - firstMin) * secondCount;
+                if (second != null) {
+                    index += second[i] / secondDivisor - secondMin;
+                }
+                lines[index]++;
+                units[index] += quantity[i];
+                revenue[index] += (long) quantity[i] * priceCents[i];
+            }
+        }
+
+        /**
+         * Sums the matching lines of one segment into a hash table.
+         */
+        private void runHashed(CubeSegment segment, int size, GroupTotals totals) {
+            int[] first = column(segment, groupBy);
+            int[] second = thenBy == null ? null : column(segment, thenBy);
+            int[] day = segment.day;
+            int[] author = segment.author;
+            int[] quantity = segment.quantity;
+            int[] priceCents = segment.priceCents;
+            for (int i = 0; i < size; i++) {
+                if (day[i] < fromDay || day[i] > toDay || (authorCode >= 0 && author[i] != authorCode)) {
+                    continue;
+                }
+                int secondCode = second == null ? 0 : second[i] / secondDivisor;
+                totals.add(GroupTotals.key(first[i] / firstDivisor, secondCode), 1, quantity[i], (long) quantity[i] * priceCents[i]);
+            }
+        }
+
+        /**
+         * Returns the column holding a dimension's codes (unit prices for price bands).
+         */
+        private static int[] column(CubeSegment segment, CubeQuery.Dimension dimension) {
+            return switch (dimension) {
+                case AUTHOR -> segment.author;
+                case TITLE -> segment.title;
+                case MONTH -> segment.month;
+                case DAY -> segment.day;
+                case PRICE_BAND -> segment.priceCents;
+                case CUSTOMER -> segment.userId;
+            };
+        }
+    }
+
+    /**
+     * Scans a range of segments, splitting it in halves until a task holds few enough segments.
+     */
+    @SuppressWarnings("serial")  // Fork/join tasks are never serialized
+    private static class ScanTask extends RecursiveTask<GroupTotals> {
+
+        private final Snapshot snapshot;   // The segments being scanned
+        private final Scan scan;           // The resolved query
+        private final int firstSegment;    // First segment of the range (inclusive)
+        private final int endSegment;      // End of the range (exclusive)
+        private final int maxSegments;     // Segments a task scans itself rather than splitting
+
+        ScanTask(Snapshot snapshot, Scan scan, int firstSegment, int endSegment, int maxSegments) {
+            this.snapshot = snapshot;
+            this.scan = scan;
+            this.firstSegment = firstSegment;
+            this.endSegment = endSegment;
+            this.maxSegments = maxSegments;
+        }
+
+        /**
+         * Scans the range if it is small enough, otherwise both halves in parallel, merging their totals.
+         */
+        @Override
+        protected GroupTotals compute() {
+            if (endSegment - firstSegment <= maxSegments) {
+                return scan.run(snapshot, firstSegment, endSegment);
+            }
+            int middle = (firstSegment + endSegment) >>> 1;
+            ScanTask upper = new ScanTask(snapshot, scan, middle, endSegment, maxSegments);
+            upper.fork();
+            GroupTotals lower = new ScanTask(snapshot, scan, firstSegment, middle, maxSegments).compute();
+            GroupTotals upperTotals = upper.join();
+            return lower.size() >= upperTotals.size() ? lower.merge(upperTotals) : upperTotals.merge(lower);
+        }
+    }
+}
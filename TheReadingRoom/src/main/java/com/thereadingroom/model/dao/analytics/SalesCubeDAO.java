@@ -0,0 +1,66 @@
+package com.thereadingroom.model.dao.analytics;
+
+import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.database.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * DAO streaming order lines into the sales cube.
+ * Order IDs only grow and orders are committed one at a time, so the lines of orders after the cube's
+ * last order ID are exactly the ones it has not seen; the scan follows the order_items index on order_id.
+ */
+public class SalesCubeDAO extends BaseDAO implements ISalesCubeDAO {
+
+    // Lines are published in batches so a long first load becomes visible gradually
+    private static final int PUBLISH_EVERY = 1 << 20;
+
+    private static final String NEW_LINES_SQL = "SELECT i.order_id, o.user_id, COALESCE(u.username, 'User #' || o.user_id) AS username, "
+            + "o.order_date, i.book_id, COALESCE(b.title, i.title) AS title, COALESCE(b.author, 'Unknown') AS author, i.quantity, i.price "
+            + "FROM order_items i JOIN orders o ON o.order_id = i.order_id "
+            + "LEFT JOIN books b ON b.id = i.book_id LEFT JOIN users u ON u.id = o.user_id "
+            + "WHERE i.order_id > ? ORDER BY i.order_id";
+
+    /**
+     * Appends the lines of the orders placed after the last order in the cube and publishes them.
+     *
+     * @param cube The cube to extend.
+     * @return The number of lines appended, or -1 if the orders could not be read.
+     */
+    @Override
+    public int appendNewLines(SalesCube cube) {
+        int appended = 0;
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, NEW_LINES_SQL);
+            pstmt.setInt(1, cube.getLastOrderId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp orderDate = rs.getTimestamp("order_date");
+                    cube.append(
+                            rs.getInt("order_id"),
+                            rs.getInt("user_id"),
+                            rs.getString("username"),
+                            orderDate != null ? orderDate.toLocalDateTime().toLocalDate() : LocalDate.now(),
+                            rs.getInt("book_id"),
+                            rs.getString("title"),
+                            rs.getString("author"),
+                            rs.getInt("quantity"),
+                            rs.getDouble("price"));
+                    if (++appended % PUBLISH_EVERY == 0) {
+                        cube.publish();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading the sales cube: " + e.getMessage());
+            appended = -1;
+        }
+        cube.publish();
+        return appended;
+    }
+}
@@ -0,0 +1,331 @@
+package com.thereadingroom.model.dao.analytics;
+
+import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.database.Database;
+import com.thereadingroom.model.entity.BookSales;
+import com.thereadingroom.model.entity.CustomerSales;
+import com.thereadingroom.model.entity.DailySales;
+import com.thereadingroom.model.entity.Order;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO for the sales rollup tables.
+ * Order deltas are added with upserts, so a day, book or user row is created by its first order and
+ * removed again when its last order is deleted. A rebuild aggregates the orders with a SalesRollupRebuilder.
+ */
+public final class SalesRollupDAO extends BaseDAO implements ISalesRollupDAO {
+
+    // Deltas are added to existing rows; the first order of a day, book or user inserts the row
+    public static final String UPSERT_DAILY_SQL = "INSERT INTO sales_daily (day, order_count, units, revenue_cents) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (day) DO UPDATE SET order_count = order_count + excluded.order_count, "
+            + "units = units + excluded.units, revenue_cents = revenue_cents + excluded.revenue_cents";
+    public static final String UPSERT_BOOK_DAILY_SQL = "INSERT INTO sales_book_daily (day, book_id, units, revenue_cents) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (day, book_id) DO UPDATE SET units = units + excluded.units, revenue_cents = revenue_cents + excluded.revenue_cents";
+    public static final String UPSERT_USER_SQL = "INSERT INTO sales_user (user_id, order_count, units, revenue_cents) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (user_id) DO UPDATE SET order_count = order_count + excluded.order_count, "
+            + "units = units + excluded.units, revenue_cents = revenue_cents + excluded.revenue_cents";
+
+    // Rows left empty by deleted orders
+    private static final String PRUNE_DAILY_SQL = "DELETE FROM sales_daily WHERE day = ? AND order_count <= 0";
+    private static final String PRUNE_BOOK_DAILY_SQL = "DELETE FROM sales_book_daily WHERE day = ? AND book_id = ? AND units <= 0";
+    private static final String PRUNE_USER_SQL = "DELETE FROM sales_user WHERE user_id = ? AND order_count <= 0";
+
+    // Reports
+    private static final String DAILY_SALES_SQL = "SELECT day, order_count, units, revenue_cents FROM sales_daily WHERE day BETWEEN ? AND ? ORDER BY day";
+    private static final String TOP_BOOKS_SQL = "SELECT s.book_id, COALESCE(b.title, 'Book #' || s.book_id) AS title, "
+            + "SUM(s.units) AS units, SUM(s.revenue_cents) AS revenue_cents FROM sales_book_daily s LEFT JOIN books b ON b.id = s.book_id "
+            + "WHERE s.day BETWEEN ? AND ? GROUP BY s.book_id ORDER BY revenue_cents DESC, s.book_id LIMIT ?";
+    private static final String TOP_CUSTOMERS_SQL = "SELECT s.user_id, COALESCE(u.username, 'User #' || s.user_id) AS username, "
+            + "s.order_count, s.units, s.revenue_cents FROM sales_user s LEFT JOIN users u ON u.id = s.user_id "
+            + "ORDER BY s.revenue_cents DESC, s.user_id LIMIT ?";
+    private static final String NEEDS_REBUILD_SQL = "SELECT EXISTS (SELECT 1 FROM orders) AND NOT EXISTS (SELECT 1 FROM sales_daily)";
+
+    // Rebuild
+    private static final String ORDER_ID_RANGE_SQL = "SELECT MIN(order_id), MAX(order_id), COUNT(*) FROM orders";
+    private static final String ORDER_CHUNK_SQL = "SELECT o.order_id, o.user_id, o.total_price, o.order_date, i.book_id, i.quantity, i.price "
+            + "FROM orders o LEFT JOIN order_items i ON i.order_id = o.order_id WHERE o.order_id BETWEEN ? AND ? ORDER BY o.order_id";
+    private static final String[] CLEAR_ROLLUPS_SQL = {"DELETE FROM sales_daily", "DELETE FROM sales_book_daily", "DELETE FROM sales_user"};
+
+    private final SalesRollupRebuilder rebuilder = new SalesRollupRebuilder(this::readOrderChunk);  // Parallel rebuild of the rollups
+
+    /**
+     * Adds an order to the rollups, or subtracts it, inside the caller's transaction.
+     *
+     * @param conn  The connection with the order's open transaction.
+     * @param order The order, with its items and date.
+     * @param sign  1 for a saved order, -1 for a deleted one.
+     * @throws SQLException if the rollups cannot be updated (the caller rolls back).
+     */
+    @Override
+    public void applyOrder(Connection conn, Order order, int sign) throws SQLException {
+        SalesRollups delta = new SalesRollups();
+        delta.addOrder(order, sign);
+        writeRollups(conn, delta);
+        if (sign < 0) {
+            pruneEmptyRows(conn, delta);
+        }
+    }
+
+    /**
+     * Adds aggregates to the rollup tables with batched upserts.
+     *
+     * @param conn    The connection with an open transaction.
+     * @param rollups The aggregates (or deltas) to add.
+     */
+    private void writeRollups(Connection conn, SalesRollups rollups) throws SQLException {
+        PreparedStatement dailyStmt = prepareCached(conn, UPSERT_DAILY_SQL);
+        for (Map.Entry<LocalDate, long[]> day : rollups.getDaily().entrySet()) {
+            long[] totals = day.getValue();
+            dailyStmt.setString(1, day.getKey().toString());
+            dailyStmt.setLong(2, totals[SalesRollups.ORDERS]);
+            dailyStmt.setLong(3, totals[SalesRollups.UNITS]);
+            dailyStmt.setLong(4, totals[SalesRollups.REVENUE_CENTS]);
+            dailyStmt.addBatch();
+        }
+        dailyStmt.executeBatch();
+
+        PreparedStatement bookStmt = prepareCached(conn, UPSERT_BOOK_DAILY_SQL);
+        for (Map.Entry<LocalDate, Map<Integer, long[]>> day : rollups.getBookDaily().entrySet()) {
+            for (Map.Entry<Integer, long[]> book : day.getValue().entrySet()) {
+                bookStmt.setString(1, day.getKey().toString());
+                bookStmt.setInt(2, book.getKey());
+                bookStmt.setLong(3, book.getValue()[SalesRollups.BOOK_UNITS]);
+                bookStmt.setLong(4, book.getValue()[SalesRollups.BOOK_REVENUE_CENTS]);
+                bookStmt.addBatch();
+            }
+        }
+        bookStmt.executeBatch();
+
+        PreparedStatement userStmt = prepareCached(conn, UPSERT_USER_SQL);
+        for (Map.Entry<Integer, long[]> user : rollups.getUsers().entrySet()) {
+            long[] totals = user.getValue();
+            userStmt.setInt(1, user.getKey());
+            userStmt.setLong(2, totals[SalesRollups.ORDERS]);
+            userStmt.setLong(3, totals[SalesRollups.UNITS]);
+            userStmt.setLong(4, totals[SalesRollups.REVENUE_CENTS]);
+            userStmt.addBatch();
+        }
+        userStmt.executeBatch();
+    }
+
+    /**
+     * Removes the rollup rows touched by a deleted order that no longer count any order.
+     *
+     * @param conn  The connection with an open transaction.
+     * @param delta The deltas of the deleted order.
+     */
+    private void pruneEmptyRows(Connection conn, SalesRollups delta) throws SQLException {
+        PreparedStatement dailyStmt = prepareCached(conn, PRUNE_DAILY_SQL);
+        PreparedStatement bookStmt = prepareCached(conn, PRUNE_BOOK_DAILY_SQL);
+        for (LocalDate day : delta.getDaily().keySet()) {
+            dailyStmt.setString(1, day.toString());
+            dailyStmt.executeUpdate();
+            for (int bookId : delta.getBookDaily().getOrDefault(day, Map.of()).keySet()) {
+                bookStmt.setString(1, day.toString());
+                bookStmt.setInt(2, bookId);
+                bookStmt.executeUpdate();
+            }
+        }
+        PreparedStatement userStmt = prepareCached(conn, PRUNE_USER_SQL);
+        for (int userId : delta.getUsers().keySet()) {
+            userStmt.setInt(1, userId);
+            userStmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Retrieves the sales of each day in a range that had orders.
+     *
+     * @param from The first day (inclusive).
+     * @param to   The last day (inclusive).
+     * @return The daily sales in date order.
+     */
+    @Override
+    public List<DailySales> getDailySales(LocalDate from, LocalDate to) {
+        List<DailySales> sales = new ArrayList<>();
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, DAILY_SALES_SQL);
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.add(new DailySales(
+                            LocalDate.parse(rs.getString("day")),
+                            rs.getInt("order_count"),
+                            rs.getInt("units"),
+                            rs.getLong("revenue_cents") / 100.0));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching daily sales: " + e.getMessage());
+        }
+        return sales;
+    }
+
+    /**
+     * Retrieves the books with the highest revenue in a date range.
+     *
+     * @param from  The first day (inclusive).
+     * @param to    The last day (inclusive).
+     * @param limit The maximum number of books.
+     * @return The best-selling books, highest revenue first.
+     */
+    @Override
+    public List<BookSales> getTopBooks(LocalDate from, LocalDate to, int limit) {
+        List<BookSales> sales = new ArrayList<>();
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, TOP_BOOKS_SQL);
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            pstmt.setInt(3, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.add(new BookSales(
+                            rs.getInt("book_id"),
+                            rs.getString("title"),
+                            rs.getInt("units"),
+                            rs.getLong("revenue_cents") / 100.0));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching top books: " + e.getMessage());
+        }
+        return sales;
+    }
+
+    /**
+     * Retrieves the customers with the highest lifetime revenue.
+     *
+     * @param limit The maximum number of customers.
+     * @return The top customers, highest revenue first.
+     */
+    @Override
+    public List<CustomerSales> getTopCustomers(int limit) {
+        List<CustomerSales> sales = new ArrayList<>();
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, TOP_CUSTOMERS_SQL);
+            pstmt.setInt(1, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.add(new CustomerSales(
+                            rs.getInt("user_id"),
+                            rs.getString("username"),
+                            rs.getInt("order_count"),
+                            rs.getInt("units"),
+                            rs.getLong("revenue_cents") / 100.0));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching top customers: " + e.getMessage());
+        }
+        return sales;
+    }
+
+    /**
+     * Checks whether the rollups are empty while there are orders.
+     *
+     * @return true if the rollups must be rebuilt.
+     */
+    @Override
+    public boolean needsRebuild() {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, NEEDS_REBUILD_SQL);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error checking sales rollups: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Recomputes all rollups from the orders and replaces them in one transaction.
+     * Emptying the rollups first takes the database's write lock, so no order can be saved or deleted
+     * until the rebuilt rollups are committed; the chunks are meanwhile read on other pooled connections,
+     * which still see every committed order.
+     *
+     * @return The number of orders aggregated, or -1 if the rebuild failed.
+     */
+    @Override
+    public int rebuild() {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (String sql : CLEAR_ROLLUPS_SQL) {
+                    prepareCached(conn, sql).executeUpdate();
+                }
+
+                int firstOrderId;
+                int lastOrderId;
+                int orderCount;
+                PreparedStatement rangeStmt = prepareCached(conn, ORDER_ID_RANGE_SQL);
+                try (ResultSet rs = rangeStmt.executeQuery()) {
+                    rs.next();
+                    firstOrderId = rs.getInt(1);
+                    lastOrderId = rs.getInt(2);
+                    orderCount = rs.getInt(3);
+                }
+
+                if (orderCount > 0) {
+                    writeRollups(conn, rebuilder.aggregate(firstOrderId, lastOrderId));
+                }
+                conn.commit();
+                return orderCount;
+            } catch (SQLException e) {
+                conn.rollback();  // Cached statements bypass the pool's dirty tracking, so roll back explicitly
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.out.println("Error rebuilding sales rollups: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Reads and aggregates the orders of one order ID range on its own pooled connection.
+     *
+     * @param firstOrderId The first order ID (inclusive).
+     * @param lastOrderId  The last order ID (inclusive).
+     * @return The aggregates of the orders in the range.
+     * @throws SQLException if the orders cannot be read.
+     */
+    private SalesRollups readOrderChunk(int firstOrderId, int lastOrderId) throws SQLException {
+        SalesRollups rollups = new SalesRollups();
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, ORDER_CHUNK_SQL);
+            pstmt.setInt(1, firstOrderId);
+            pstmt.setInt(2, lastOrderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int currentOrderId = -1;
+                LocalDate day = null;
+                int userId = 0;
+                while (rs.next()) {
+                    int orderId = rs.getInt("order_id");
+                    if (orderId != currentOrderId) {
+                        currentOrderId = orderId;
+                        Timestamp orderDate = rs.getTimestamp("order_date");
+                        day = orderDate != null ? orderDate.toLocalDateTime().toLocalDate() : LocalDate.now();
+                        userId = rs.getInt("user_id");
+                        rollups.addOrderTotal(day, userId, SalesRollups.toCents(rs.getDouble("total_price")), 1);
+                    }
+                    int bookId = rs.getInt("book_id");
+                    if (!rs.wasNull()) {
+                        int quantity = rs.getInt("quantity");
+                        rollups.addItem(day, userId, bookId, quantity, SalesRollups.toCents(rs.getDouble("price") * quantity), 1);
+                    }
+                }
+            }
+        }
+        return rollups;
+    }
+}
@@ -0,0 +1,127 @@
+package com.thereadingroom.model.dao.analytics;
+
+import java.sql.SQLException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recomputes the sales rollups from the raw orders in parallel.
+ * The order ID range is split in halves on a fork/join pool until a range holds at most CHUNK_SIZE IDs;
+ * each of those chunks is read and aggregated on its own (pooled) connection, and the partial
+ * aggregates are merged as the tasks join.
+ */
+public class SalesRollupRebuilder {
+
+    // Order IDs read and aggregated by one task
+    static final int CHUNK_SIZE = 2_000;
+
+    // At most this many chunks are read at once, leaving pooled connections for the rest of the application
+    private static final int MAX_PARALLELISM = 4;
+
+    /**
+     * Reads and aggregates the orders in an order ID range.
+     */
+    @FunctionalInterface
+    interface ChunkReader {
+
+        /**
+         * Aggregates the orders whose IDs lie in the range.
+         *
+         * @param firstOrderId The first order ID (inclusive).
+         * @param lastOrderId  The last order ID (inclusive).
+         * @return The aggregates of the orders in the range.
+         * @throws SQLException if the orders cannot be read.
+         */
+        SalesRollups read(int firstOrderId, int lastOrderId) throws SQLException;
+    }
+
+    private final ChunkReader reader;    // Reads one chunk of orders
+    private final ForkJoinPool pool;     // Runs the chunk tasks
+
+    /**
+     * Creates a rebuilder reading chunks with the given reader.
+     *
+     * @param reader Reads and aggregates one chunk of orders.
+     */
+    SalesRollupRebuilder(ChunkReader reader) {
+        this(reader, Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates a rebuilder reading chunks with the given reader and parallelism.
+     *
+     * @param reader      Reads and aggregates one chunk of orders.
+     * @param parallelism The maximum number of chunks read at once.
+     */
+    SalesRollupRebuilder(ChunkReader reader, int parallelism) {
+        this.reader = reader;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Aggregates all orders in an order ID range.
+     *
+     * @param firstOrderId The first order ID (inclusive).
+     * @param lastOrderId  The last order ID (inclusive).
+     * @return The merged aggregates.
+     * @throws SQLException if a chunk cannot be read.
+     */
+    SalesRollups aggregate(int firstOrderId, int lastOrderId) throws SQLException {
+        try {
+            return pool.invoke(new AggregateTask(firstOrderId, lastOrderId));
+        } catch (ChunkReadException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Aggregates an order ID range, splitting it while it is larger than a chunk.
+     */
+    @SuppressWarnings("serial")  // Fork/join tasks are never serialized
+    private class AggregateTask extends RecursiveTask<SalesRollups> {
+
+        private final int firstOrderId;   // First order ID of the range (inclusive)
+        private final int lastOrderId;    // Last order ID of the range (inclusive)
+
+        AggregateTask(int firstOrderId, int lastOrderId) {
+            this.firstOrderId = firstOrderId;
+            this.lastOrderId = lastOrderId;
+        }
+
+        /**
+         * Reads the range if it fits in a chunk, otherwise aggregates both halves in parallel and merges them.
+         */
+        @Override
+        protected SalesRollups compute() {
+            if ((long) lastOrderId - firstOrderId < CHUNK_SIZE) {
+                try {
+                    return reader.read(firstOrderId, lastOrderId);
+                } catch (SQLException e) {
+                    throw new ChunkReadException(e);
+                }
+            }
+            int middle = (int) (((long) firstOrderId + lastOrderId) / 2);
+            AggregateTask upper = new AggregateTask(middle + 1, lastOrderId);
+            upper.fork();
+            SalesRollups lower = new AggregateTask(firstOrderId, middle).compute();
+            return lower.merge(upper.join());
+        }
+    }
+
+    /**
+     * Carries a chunk's SQLException out of the fork/join pool.
+     */
+    private static class ChunkReadException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ChunkReadException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.thereadingroom.model.dao.analytics;
+
+import com.thereadingroom.model.entity.Order;
+import com.thereadingroom.model.entity.OrderItem;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory sales aggregates in the shape of the rollup tables: orders, units and revenue per day,
+ * units and revenue per book per day, and orders, units and revenue per user over their lifetime.
+ * Used both for the deltas of a single order and for a full rebuild, where the aggregates of
+ * disjoint order ranges are merged. Revenue is kept in cents so sums stay exact.
+ */
+public class SalesRollups {
+
+    // Indexes into the counter arrays
+    static final int ORDERS = 0;
+    static final int UNITS = 1;
+    static final int REVENUE_CENTS = 2;
+    static final int BOOK_UNITS = 0;
+    static final int BOOK_REVENUE_CENTS = 1;
+
+    private final Map<LocalDate, long[]> daily = new HashMap<>();                       // Day -> orders, units, revenue
+    private final Map<LocalDate, Map<Integer, long[]>> bookDaily = new HashMap<>();     // Day -> book ID -> units, revenue
+    private final Map<Integer, long[]> users = new HashMap<>();                         // User ID -> orders, units, revenue
+
+    /**
+     * Adds (or, with a negative sign, subtracts) an order and its items.
+     *
+     * @param order The order, with its items and date.
+     * @param sign  1 to add the order, -1 to remove it.
+     */
+    public void addOrder(Order order, int sign) {
+        LocalDate day = order.getOrderDate().toLocalDate();
+        addOrderTotal(day, order.getUserId(), toCents(order.getTotalPrice()), sign);
+        for (OrderItem item : order.getOrderItems()) {
+            addItem(day, order.getUserId(), item.getBookId(), item.getQuantity(), toCents(item.getPrice() * item.getQuantity()), sign);
+        }
+    }
+
+    /**
+     * Adds an order's count and total to its day and user.
+     *
+     * @param day          The day the order was placed.
+     * @param userId       The user who placed it.
+     * @param revenueCents The order total in cents.
+     * @param sign         1 to add, -1 to subtract.
+     */
+    void addOrderTotal(LocalDate day, int userId, long revenueCents, int sign) {
+        long[] dayTotals = daily.computeIfAbsent(day, d -> new long[3]);
+        dayTotals[ORDERS] += sign;
+        dayTotals[REVENUE_CENTS] += sign * revenueCents;
+        long[] userTotals = users.computeIfAbsent(userId, id -> new long[3]);
+        userTotals[ORDERS] += sign;
+        userTotals[REVENUE_CENTS] += sign * revenueCents;
+    }
+
+    /**
+     * Adds an order line's units to its day and user, and its units and revenue to its book.
+     *
+     * @param day          The day the order was placed.
+     * @param userId       The user who placed it.
+     * @param bookId       The book sold.
+     * @param quantity     The number of copies.
+     * @param revenueCents The line total in cents.
+     * @param sign         1 to add, -1 to subtract.
+     */
+    void addItem(LocalDate day, int userId, int bookId, int quantity, long revenueCents, int sign) {
+        daily.computeIfAbsent(day, d -> new long[3])[UNITS] += (long) sign * quantity;
+        users.computeIfAbsent(userId, id -> new long[3])[UNITS] += (long) sign * quantity;
+        long[] bookTotals = bookDaily.computeIfAbsent(day, d -> new HashMap<>()).computeIfAbsent(bookId, id -> new long[2]);
+        bookTotals[BOOK_UNITS] += (long) sign * quantity;
+        bookTotals[BOOK_REVENUE_CENTS] += sign * revenueCents;
+    }
+
+    /**
+     * Adds the aggregates of another, disjoint set of orders.
+     *
+     * @param other The aggregates to add.
+     * @return This instance.
+     */
+    public SalesRollups merge(SalesRollups other) {
+        other.daily.forEach((day, totals) -> addAll(daily.computeIfAbsent(day, d -> new long[3]), totals));
+        other.bookDaily.forEach((day, books) -> {
+            Map<Integer, long[]> dayBooks = bookDaily.computeIfAbsent(day, d -> new HashMap<>());
+            books.forEach((bookId, totals) -> addAll(dayBooks.computeIfAbsent(bookId, id -> new long[2]), totals));
+        });
+        other.users.forEach((userId, totals) -> addAll(users.computeIfAbsent(userId, id -> new long[3]), totals));
+        return this;
+    }
+
+    /**
+     * Adds one counter array to another.
+     */
+    private static void addAll(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    /**
+     * Converts an amount to whole cents.
+     *
+     * @param amount The amount in dollars.
+     * @return The amount in cents.
+     */
+    static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Returns the per-day totals.
+     *
+     * @return Day -> {orders, units, revenue cents}.
+     */
+    Map<LocalDate, long[]> getDaily() {
+        return daily;
+    }
+
+    /**
+     * Returns the per-book, per-day totals.
+     *
+     * @return Day -> book ID -> {units, revenue cents}.
+     */
+    Map<LocalDate, Map<Integer, long[]>> getBookDaily() {
+        return bookDaily;
+    }
+
+    /**
+     * Returns the per-user lifetime totals.
+     *
+     * @return User ID -> {orders, units, revenue cents}.
+     */
+    Map<Integer, long[]> getUsers() {
+        return users;
+    }
+
+    /**
+     * Returns the totals of one day.
+     *
+     * @param day The day.
+     * @return {orders, units, revenue cents}, all zero if nothing was sold that day.
+     */
+    public long[] getDayTotals(LocalDate day) {
+        return daily.getOrDefault(day, new long[3]).clone();
+    }
+
+    /**
+     * Returns the lifetime totals of one user.
+     *
+     * @param userId The user ID.
+     * @return {orders, units, revenue cents}, all zero if the user has no orders.
+     */
+    public long[] getUserTotals(int userId) {
+        return users.getOrDefault(userId, new long[3]).clone();
+    }
+}
@@ -0,0 +1,67 @@
+package com.thereadingroom.model.dao.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for a string column of the sales cube.
+ * Each distinct string is stored once and the column holds its int code. Looking codes up is synchronized;
+ * decoding is not, since an entry of the published array is never changed once it is written.
+ */
+class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();  // String -> code
+    private volatile String[] values = new String[64];          // Code -> string
+    private int size;                                            // Number of codes handed out
+
+    /**
+     * Returns the code of a string, adding it if it is new.
+     *
+     * @param value The string.
+     * @return Its code.
+     */
+    synchronized int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current;  // Publishes the new entry
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Returns the code of a string without adding it.
+     *
+     * @param value The string.
+     * @return Its code, or -1 if the string does not occur in the column.
+     */
+    synchronized int find(String value) {
+        return codes.getOrDefault(value, -1);
+    }
+
+    /**
+     * Returns the number of distinct strings.
+     *
+     * @return The size; codes run from 0 to size - 1.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the string of a code.
+     *
+     * @param code A code handed out by encode.
+     * @return The string.
+     */
+    String decode(int code) {
+        return values[code];
+    }
+}
@@ -1,8 +1,15 @@
 package com.thereadingroom.model.dao.book;
 
 import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.catalog.BookCatalog;
 import com.thereadingroom.model.dao.database.Database;
+import com.thereadingroom.model.dao.ledger.StockLedger;
+import com.thereadingroom.model.dao.search.BookSearchIndex;
 import com.thereadingroom.model.entity.Book;
+import com.thereadingroom.model.entity.StockLevel;
+import com.thereadingroom.model.entity.StockMovement;
+import com.thereadingroom.utils.event.DomainEventBus;
+import com.thereadingroom.utils.event.DomainEventType;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -14,9 +21,21 @@ import java.util.List;
 /**
  * Data Access Object (DAO) for the Book entity.
  * Provides methods for interacting with the books table in the database.
+ * Stock changes are recorded as movements in the StockLedger rather than updating the books row in place;
+ * the stock values returned by this DAO come from the ledger's in-memory projection.
+ * Committed catalog changes are applied to the BookSearchIndex and the BookCatalog snapshot, then published
+ * on the DomainEventBus (stock changes are applied and published by the ledger).
  */
 public class BookDAO extends BaseDAO implements IBookDAO {
 
+    // Hot statements that are pre-prepared on every pooled connection at startup
+    public static final String FIND_BOOK_BY_ID_SQL = "SELECT * FROM books WHERE id = ?";
+    public static final String GET_STOCK_FOR_BOOK_SQL = "SELECT physical_copies FROM books WHERE id = ?";
+    public static final String UPDATE_BOOK_SQL = "UPDATE books SET title = ?, author = ?, price = ? WHERE id = ?";
+
+    // Number of books listed as best sellers
+    private static final int TOP_BOOKS_LIMIT = 5;
+
     /**
      * Retrieve all books from the database.
      *
@@ -35,8 +54,20 @@ public class BookDAO extends BaseDAO implements IBookDAO {
      */
     @Override
     public List<Book> getTop5Books() {
-        String query = "SELECT id, title, author, physical_copies, price, sold_copies FROM books ORDER BY sold_copies DESC LIMIT 5";
-        return executeBookListQuery(query);
+        // Sold copies in the books row may trail the ledger until the next snapshot, so rank the ledger's values
+        List<StockLevel> topSelling = StockLedger.getInstance().getTopSelling(TOP_BOOKS_LIMIT);
+        if (topSelling == null) {
+            String query = "SELECT id, title, author, physical_copies, price, sold_copies FROM books ORDER BY sold_copies DESC LIMIT " + TOP_BOOKS_LIMIT;
+            return executeBookListQuery(query);
+        }
+        List<Book> books = new ArrayList<>(topSelling.size());
+        for (StockLevel level : topSelling) {
+            Book book = findBookById(level.getBookId());
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
     }
 
     /**
@@ -59,8 +90,7 @@ public class BookDAO extends BaseDAO implements IBookDAO {
      */
     @Override
     public boolean updatePhysicalCopies(int bookId, int newStock) {
-        String query = "UPDATE books SET physical_copies = ? WHERE id = ?";
-        return executeUpdate(query, newStock, bookId);
+        return StockLedger.getInstance().recordAdjustment(bookId, newStock, null, "admin stock update");
     }
 
     /**
@@ -72,7 +102,7 @@ public class BookDAO extends BaseDAO implements IBookDAO {
      */
     @Override
     public boolean reducePhysicalCopies(int bookId, int quantity) {
-        return updateBookField(bookId, -quantity, "physical_copies");
+        return StockLedger.getInstance().record(new StockMovement(bookId, StockMovement.Type.RESERVE, -quantity, 0, null));
     }
 
     /**
@@ -84,7 +114,7 @@ public class BookDAO extends BaseDAO implements IBookDAO {
      */
     @Override
     public boolean restorePhysicalCopies(int bookId, int quantity) {
-        return updateBookField(bookId, quantity, "physical_copies");
+        return StockLedger.getInstance().record(new StockMovement(bookId, StockMovement.Type.RELEASE, quantity, 0, null));
     }
 
     /**
@@ -96,20 +126,7 @@ public class BookDAO extends BaseDAO implements IBookDAO {
      */
     @Override
     public boolean updateSoldCopiesAfterPayment(int bookId, int quantity) {
-        return updateBookField(bookId, quantity, "sold_copies");
-    }
-
-    /**
-     * Generic method to update a specific field of a book.
-     *
-     * @param bookId    the ID of the book to update.
-     * @param quantity  the amount to update by.
-     * @param fieldName the field to update (e.g., "physical_copies", "sold_copies").
-     * @return true if the update was successful, false otherwise.
-     */
-    private boolean updateBookField(int bookId, int quantity, String fieldName) {
-        String query = "UPDATE books SET " + fieldName + " = " + fieldName + " + ? WHERE id = ?";
-        return executeUpdate(query, quantity, bookId);
+        return StockLedger.getInstance().record(new StockMovement(bookId, StockMovement.Type.SALE, 0, quantity, null));
     }
 
     /**
@@ -121,8 +138,7 @@ public class BookDAO extends BaseDAO implements IBookDAO {
      */
     @Override
     public boolean updateSoldCopies(int bookId, int quantity) {
-        String query = "UPDATE books SET sold_copies = ? WHERE id = ?";
-        return executeUpdate(query, quantity, bookId);
+        return StockLedger.getInstance().recordAdjustment(bookId, null, quantity, "admin sold copies update");
     }
 
     /**
@@ -135,12 +151,13 @@ public class BookDAO extends BaseDAO implements IBookDAO {
     public List<Book> searchBooksByTitle(String keyword) {
         String query = "SELECT * FROM books WHERE LOWER(title) LIKE ?";
         List<Book> books = new ArrayList<>();
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, query);
             pstmt.setString(1, "%" + keyword.toLowerCase() + "%");
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                books.add(constructBookFromResultSet(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(constructBookFromResultSet(rs));
+                }
             }
         } catch (SQLException e) {
             System.out.println("Error searching books by title: " + e.getMessage());
@@ -156,13 +173,13 @@ public class BookDAO extends BaseDAO implements IBookDAO {
      */
     @Override
     public Book findBookById(int bookId) {
-        String query = "SELECT * FROM books WHERE id = ?";
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, FIND_BOOK_BY_ID_SQL);
             pstmt.setInt(1, bookId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return constructBookFromResultSet(rs);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return constructBookFromResultSet(rs);
+                }
             }
         } catch (SQLException e) {
             System.out.println("Error retrieving book by ID: " + e.getMessage());
@@ -179,19 +196,45 @@ public class BookDAO extends BaseDAO implements IBookDAO {
     @Override
     public boolean addBook(Book book) {
         String query = "INSERT INTO books (title, author, physical_copies, price, sold_copies) VALUES (?, ?, ?, ?, 0)";
-        return executeUpdate(query, book.getTitle(), book.getAuthor(), book.getPhysicalCopies(), book.getPrice());
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCachedReturningKeys(conn, query);
+            setPreparedStatementParams(pstmt, book.getTitle(), book.getAuthor(), book.getPhysicalCopies(), book.getPrice());
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    BookSearchIndex.getInstance().upsert(rs.getInt(1), book.getTitle(), book.getAuthor());
+                    BookCatalog.getInstance().upsert(new Book(rs.getInt(1), book.getTitle(), book.getAuthor(), book.getPhysicalCopies(), book.getPrice(), 0));
+                    DomainEventBus.getInstance().publish(DomainEventType.BOOK_UPDATED, rs.getInt(1));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.out.println("Error adding book: " + e.getMessage());
+        }
+        return false;
     }
 
     /**
      * Update the details of an existing book.
+     * The row update runs as a step of the ledger's stock adjustment, so the details and the stock commit together.
      *
      * @param book the book entity to update.
      * @return true if the operation was successful, false otherwise.
      */
     @Override
     public boolean updateBook(Book book) {
-        String query = "UPDATE books SET title = ?, author = ?, physical_copies = ?, price = ?, sold_copies = ? WHERE id = ?";
-        return executeUpdate(query, book.getTitle(), book.getAuthor(), book.getPhysicalCopies(), book.getPrice(), book.getSoldCopies(), book.getBookId());
+        boolean updated = StockLedger.getInstance().recordAdjustment(book.getBookId(), book.getPhysicalCopies(),
+                book.getSoldCopies(), "admin book edit", conn -> {
+                    PreparedStatement pstmt = prepareCached(conn, UPDATE_BOOK_SQL);
+                    setPreparedStatementParams(pstmt, book.getTitle(), book.getAuthor(), book.getPrice(), book.getBookId());
+                    return pstmt.executeUpdate() > 0;
+                });
+        if (updated) {
+            BookSearchIndex.getInstance().upsert(book.getBookId(), book.getTitle(), book.getAuthor());
+            BookCatalog.getInstance().upsert(book);
+            DomainEventBus.getInstance().publish(DomainEventType.BOOK_UPDATED, book.getBookId());
+        }
+        return updated;
     }
 
     /**
@@ -203,7 +246,14 @@ public class BookDAO extends BaseDAO implements IBookDAO {
     @Override
     public boolean deleteBookById(int bookId) {
         String query = "DELETE FROM books WHERE id = ?";
-        return executeUpdate(query, bookId);
+        boolean deleted = executeUpdate(query, bookId);
+        if (deleted) {
+            StockLedger.getInstance().forget(bookId);
+            BookSearchIndex.getInstance().remove(bookId);
+            BookCatalog.getInstance().remove(bookId);
+            DomainEventBus.getInstance().publish(DomainEventType.BOOK_DELETED, bookId);
+        }
+        return deleted;
     }
 
     /**
@@ -215,8 +265,7 @@ public class BookDAO extends BaseDAO implements IBookDAO {
     private List<Book> executeBookListQuery(String query) {
         List<Book> books = new ArrayList<>();
         try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query);
-             ResultSet rs = pstmt.executeQuery()) {
+             ResultSet rs = prepareCached(conn, query).executeQuery()) {
             while (rs.next()) {
                 books.add(constructBookFromResultSet(rs));
             }
@@ -234,30 +283,35 @@ public class BookDAO extends BaseDAO implements IBookDAO {
      * @throws SQLException if an error occurs while accessing the ResultSet.
      */
     private Book constructBookFromResultSet(ResultSet rs) throws SQLException {
-        return new Book(
+        return StockLedger.getInstance().applyCurrentStock(new Book(
                 rs.getInt("id"),
                 rs.getString("title"),
                 rs.getString("author"),
                 rs.getInt("physical_copies"),
                 rs.getDouble("price"),
                 rs.getInt("sold_copies")
-        );
+        ));
     }
 
     /**
      * Helper method to retrieve the stock of a book by its ID.
+     * Reads the ledger's projection, falling back to the books row for books the ledger does not track yet.
      *
      * @param bookId the ID of the book.
      * @return the number of physical copies available.
      */
     public int getStockForBook(int bookId) {
-        String query = "SELECT physical_copies FROM books WHERE id = ?";
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+        StockLevel currentStock = StockLedger.getInstance().getStockLevel(bookId);
+        if (currentStock != null) {
+            return currentStock.getPhysicalCopies();
+        }
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, GET_STOCK_FOR_BOOK_SQL);
             pstmt.setInt(1, bookId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("physical_copies");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("physical_copies");
+                }
             }
         } catch (SQLException e) {
             System.out.println("Error retrieving stock for book ID: " + bookId + " - " + e.getMessage());
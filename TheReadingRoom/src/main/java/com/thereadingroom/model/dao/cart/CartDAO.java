@@ -4,6 +4,8 @@ import com.thereadingroom.model.dao.BaseDAO;
 import com.thereadingroom.model.dao.database.Database;
 import com.thereadingroom.model.entity.Book;
 import com.thereadingroom.model.entity.CartItem;
+import com.thereadingroom.utils.event.DomainEventBus;
+import com.thereadingroom.utils.event.DomainEventType;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -15,9 +17,16 @@ import java.util.List;
 /**
  * DAO implementation for managing cart-related operations.
  * Handles operations like creating a cart, adding/removing items, checking stock, etc.
+ * Changes to a cart's items are announced with CART_CHANGED events on the DomainEventBus.
  */
 public class CartDAO extends BaseDAO implements ICartDAO {
 
+    // Hot statement that is pre-prepared on every pooled connection at startup
+    public static final String GET_CART_ITEMS_SQL = "SELECT ci.cart_item_id, b.id AS book_id, b.title, b.author, ci.quantity, b.price " +
+            "FROM cart_items ci " +
+            "JOIN books b ON ci.book_id = b.id " +
+            "WHERE ci.cart_id = ?";
+
     /**
      * Retrieves the active cart for a user, or creates a new one if no active cart exists.
      *
@@ -41,12 +50,13 @@ public class CartDAO extends BaseDAO implements ICartDAO {
      */
     private int getActiveCart(int userId) {
         String sql = "SELECT cart_id FROM cart WHERE user_id = ? AND status = 'active'";
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, sql);
             pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("cart_id");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("cart_id");
+                }
             }
         } catch (SQLException e) {
             System.out.println("Error fetching active cart: " + e.getMessage());
@@ -62,13 +72,14 @@ public class CartDAO extends BaseDAO implements ICartDAO {
      */
     private int createNewCart(int userId) {
         String sql = "INSERT INTO cart (user_id, status) VALUES (?, 'active')";
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCachedReturningKeys(conn, sql);
             pstmt.setInt(1, userId);
             pstmt.executeUpdate();
-            ResultSet rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                return rs.getInt(1);  // Return the newly generated cart ID
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getInt(1);  // Return the newly generated cart ID
+                }
             }
         } catch (SQLException e) {
             System.out.println("Error creating new cart: " + e.getMessage());
@@ -85,24 +96,21 @@ public class CartDAO extends BaseDAO implements ICartDAO {
     @Override
     public List<CartItem> getCartItems(int cartId) {
         List<CartItem> cartItems = new ArrayList<>();
-        String sql = "SELECT ci.cart_item_id, b.id AS book_id, b.title, b.author, ci.quantity, b.price " +
-                "FROM cart_items ci " +
-                "JOIN books b ON ci.book_id = b.id " +
-                "WHERE ci.cart_id = ?";
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, GET_CART_ITEMS_SQL);
             pstmt.setInt(1, cartId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                CartItem item = new CartItem(
-                        rs.getInt("cart_item_id"),
-                        rs.getInt("book_id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getInt("quantity"),
-                        rs.getDouble("price")
-                );
-                cartItems.add(item);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    CartItem item = new CartItem(
+                            rs.getInt("cart_item_id"),
+                            rs.getInt("book_id"),
+                            rs.getString("title"),
+                            rs.getString("author"),
+                            rs.getInt("quantity"),
+                            rs.getDouble("price")
+                    );
+                    cartItems.add(item);
+                }
             }
         } catch (SQLException e) {
             System.out.println("Error fetching cart items: " + e.getMessage());
@@ -119,7 +127,9 @@ public class CartDAO extends BaseDAO implements ICartDAO {
     @Override
     public void removeBookFromCart(int cartId, int bookId) {
         String sql = "DELETE FROM cart_items WHERE cart_id = ? AND book_id = ?";
-        executeUpdate(sql, cartId, bookId);  // Execute the update to remove the book from the cart
+        if (executeUpdate(sql, cartId, bookId)) {  // Execute the update to remove the book from the cart
+            DomainEventBus.getInstance().publish(DomainEventType.CART_CHANGED, cartId, bookId, 0);
+        }
     }
 
     /**
@@ -132,7 +142,9 @@ public class CartDAO extends BaseDAO implements ICartDAO {
     @Override
     public void updateBookQuantity(int cartId, int bookId, int quantity) {
         String sql = "UPDATE cart_items SET quantity = ? WHERE cart_id = ? AND book_id = ?";
-        executeUpdate(sql, quantity, cartId, bookId);  // Update the book quantity in the cart
+        if (executeUpdate(sql, quantity, cartId, bookId)) {  // Update the book quantity in the cart
+            DomainEventBus.getInstance().publish(DomainEventType.CART_CHANGED, cartId, bookId, quantity);
+        }
     }
 
     /**
@@ -145,7 +157,9 @@ public class CartDAO extends BaseDAO implements ICartDAO {
     @Override
     public void addOrUpdateBookInCart(int cartId, int bookId, int quantity) {
         String sql = "INSERT OR REPLACE INTO cart_items (cart_id, book_id, quantity) VALUES (?, ?, ?)";
-        executeUpdate(sql, cartId, bookId, quantity);  // Add or update the book in the cart
+        if (executeUpdate(sql, cartId, bookId, quantity)) {  // Add or update the book in the cart
+            DomainEventBus.getInstance().publish(DomainEventType.CART_CHANGED, cartId, bookId, quantity);
+        }
     }
 
     /**
@@ -156,14 +170,15 @@ public class CartDAO extends BaseDAO implements ICartDAO {
      */
     public void removeBooksFromCart(int cartId, List<Book> booksToRemove) {
         String sql = "DELETE FROM cart_items WHERE cart_id = ? AND book_id = ?";
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, sql);
             for (Book book : booksToRemove) {
                 pstmt.setInt(1, cartId);
                 pstmt.setInt(2, book.getBookId());
                 pstmt.addBatch();  // Add each removal operation to the batch
             }
             pstmt.executeBatch();  // Execute the batch removal
+            DomainEventBus.getInstance().publish(DomainEventType.CART_CHANGED, cartId, -1, 0);
         } catch (SQLException e) {
             System.out.println("Error removing books from cart: " + e.getMessage());
         }
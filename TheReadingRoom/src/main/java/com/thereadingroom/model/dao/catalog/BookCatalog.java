@@ -0,0 +1,238 @@
+package com.thereadingroom.model.dao.catalog;
+
+import com.thereadingroom.model.dao.database.Database;
+import com.thereadingroom.model.entity.Book;
+import com.thereadingroom.model.entity.StockLevel;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current catalog snapshot for readers that need the whole catalog, such as the book tables.
+ *
+ * The snapshot is loaded on first use. After that, BookDAO applies its catalog writes and the stock ledger its
+ * committed stock changes before publishing their events, so a reader that subscribes to the events and then
+ * takes the snapshot misses nothing. Each change builds a new snapshot from the current one (copy-on-write) and
+ * publishes it through an AtomicReference: readers never lock and keep a consistent snapshot for as long as
+ * they hold it, while writers are serialized.
+ *
+ * At shutdown the snapshot is saved as a catalog image next to the database, so the next start can open it
+ * before the database is even initialized. The image records the database's catalog version, which triggers
+ * increment with every catalog edit: once the database is up, the image is kept only if that version is
+ * unchanged apart from the edits applied here since, and its stock is refreshed from the stock ledger.
+ * Otherwise the catalog is loaded from SQLite as usual.
+ */
+public class BookCatalog {
+
+    // Catalog image file, next to the database
+    public static final String IMAGE_FILE = "readingroom.catalog";
+
+    // Singleton instance
+    private static BookCatalog instance;
+
+    private final ICatalogDAO catalogDAO;                                         // Reads the catalog and its version
+    private final Path imagePath;                                                 // Catalog image, or null for none
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();  // Current snapshot, null until loaded
+
+    // Guarded by this
+    private long baseVersion = -1;     // Catalog version the snapshot was loaded at, or -1 if unknown
+    private int appliedEdits;          // Catalog edits applied since it was loaded
+    private boolean imageUnverified;   // Whether the snapshot came from the image and was not checked yet
+    private boolean imageCurrent;      // Whether the image on disk holds the snapshot as it was loaded
+
+    // Private constructor for Singleton pattern
+    private BookCatalog() {
+        this(new CatalogDAO(), Path.of(Database.DB_FILE).toAbsolutePath().resolveSibling(IMAGE_FILE));
+    }
+
+    /**
+     * Creates an empty catalog without an image.
+     *
+     * @param catalogDAO DAO reading the catalog.
+     */
+    public BookCatalog(ICatalogDAO catalogDAO) {
+        this(catalogDAO, null);
+    }
+
+    /**
+     * Creates an empty catalog that loads its snapshot through the given DAO and saves it to an image.
+     *
+     * @param catalogDAO DAO reading the catalog.
+     * @param imagePath  The catalog image file, or null for none.
+     */
+    public BookCatalog(ICatalogDAO catalogDAO, Path imagePath) {
+        this.catalogDAO = catalogDAO;
+        this.imagePath = imagePath;
+    }
+
+    /**
+     * Singleton - Get the single instance of BookCatalog.
+     *
+     * @return The instance of BookCatalog.
+     */
+    public static synchronized BookCatalog getInstance() {
+        if (instance == null) {
+            instance = new BookCatalog();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the current snapshot without locking, loading it on first use.
+     *
+     * @return The current snapshot, or an empty one if the catalog could not be read.
+     */
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot == null && load()) {
+            snapshot = current.get();
+        }
+        return snapshot != null ? snapshot : CatalogSnapshot.EMPTY;
+    }
+
+    /**
+     * Loads the snapshot from the database unless it is already loaded.
+     *
+     * @return true if the snapshot is loaded, false if the catalog could not be read.
+     */
+    public synchronized boolean load() {
+        if (current.get() != null) {
+            return true;
+        }
+        long version = catalogDAO.getCatalogVersion();  // Read first: an edit committed during the load only looks stale
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+        if (catalogDAO.loadBooks(builder) < 0) {
+            return false;
+        }
+        current.set(builder.build());
+        baseVersion = version;
+        appliedEdits = 0;
+        imageCurrent = false;
+        return true;
+    }
+
+    /**
+     * Opens the catalog image as the current snapshot, before the database is initialized.
+     * The snapshot must be checked with verifyImage once the database is up.
+     *
+     * @return true if the image was opened, false if there is none or it is unreadable, of another format or corrupt.
+     */
+    public synchronized boolean openImage() {
+        if (current.get() != null || imagePath == null) {
+            return false;
+        }
+        CatalogImage.Loaded image = CatalogImage.read(imagePath);
+        if (image == null) {
+            return false;
+        }
+        current.set(image.snapshot);
+        baseVersion = image.catalogVersion;
+        appliedEdits = 0;
+        imageUnverified = true;
+        imageCurrent = true;
+        return true;
+    }
+
+    /**
+     * Checks the snapshot opened from the image against the database. If the catalog was edited since the image
+     * was written, the snapshot is dropped and loaded from SQLite on next use; otherwise its stock is brought up
+     * to date from the stock ledger. Does nothing if the snapshot did not come from the image.
+     *
+     * @return true if the image snapshot was kept, false otherwise.
+     */
+    public synchronized boolean verifyImage() {
+        if (!imageUnverified) {
+            return false;
+        }
+        imageUnverified = false;
+        CatalogSnapshot snapshot = current.get();
+        long version = catalogDAO.getCatalogVersion();
+        if (version < 0 || version != baseVersion + appliedEdits) {
+            System.out.println("Catalog image is stale (version " + baseVersion + ", database " + version + "), loading the catalog from the database.");
+            current.set(null);
+            imageCurrent = false;
+            return false;
+        }
+        Map<Integer, int[]> stockChanges = new HashMap<>();
+        for (int row = 0; row < snapshot.size(); row++) {
+            StockLevel stock = catalogDAO.getStockLevel(snapshot.getBookId(row));
+            if (stock != null && (stock.getPhysicalCopies() != snapshot.getPhysicalCopies(row)
+                    || stock.getSoldCopies() != snapshot.getSoldCopies(row))) {
+                stockChanges.put(stock.getBookId(), new int[]{stock.getPhysicalCopies(), stock.getSoldCopies()});
+            }
+        }
+        current.set(snapshot.withStock(stockChanges));
+        System.out.println("Catalog image opened with " + snapshot.size() + " books at version " + version + ".");
+        return true;
+    }
+
+    /**
+     * Saves the snapshot as the catalog image if the catalog was edited since the image was written.
+     * If the database was edited around the DAOs (its catalog version moved by more than the edits applied
+     * here), the image is deleted instead, so the next start loads the catalog from SQLite.
+     *
+     * @return true if the image on disk matches the catalog.
+     */
+    public synchronized boolean saveImage() {
+        CatalogSnapshot snapshot = current.get();
+        if (imagePath == null || snapshot == null || imageUnverified || baseVersion < 0) {
+            return false;
+        }
+        if (imageCurrent && appliedEdits == 0) {
+            return true;  // Stock is refreshed from the ledger when the image is opened
+        }
+        long version = catalogDAO.getCatalogVersion();
+        if (version != baseVersion + appliedEdits) {
+            CatalogImage.delete(imagePath);
+            imageCurrent = false;
+            return false;
+        }
+        imageCurrent = CatalogImage.write(imagePath, snapshot, version);
+        if (imageCurrent) {
+            baseVersion = version;
+            appliedEdits = 0;
+        }
+        return imageCurrent;
+    }
+
+    /**
+     * Adds or replaces a book after its write has committed.
+     * Ignored until the snapshot is loaded, since the load reads the committed change itself.
+     *
+     * @param book The current state of the book, with its ID.
+     */
+    public synchronized void upsert(Book book) {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            current.set(snapshot.withBook(book));
+            appliedEdits++;
+        }
+    }
+
+    /**
+     * Removes a book after its deletion has committed.
+     *
+     * @param bookId The ID of the deleted book.
+     */
+    public synchronized void remove(int bookId) {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            current.set(snapshot.withoutBook(bookId));
+            appliedEdits++;
+        }
+    }
+
+    /**
+     * Applies committed stock changes, copying only the stock pages they touch.
+     *
+     * @param stockChanges New {physical, sold} copies by book ID.
+     */
+    public synchronized void updateStock(Map<Integer, int[]> stockChanges) {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null && !stockChanges.isEmpty()) {
+            current.set(snapshot.withStock(stockChanges));
+        }
+    }
+}
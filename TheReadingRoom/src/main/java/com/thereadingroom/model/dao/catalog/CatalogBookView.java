@@ -0,0 +1,135 @@
+package com.thereadingroom.model.dao.catalog;
+
+import com.thereadingroom.model.entity.Book;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.StringProperty;
+
+/**
+ * A Book that reads its values from a row of a catalog snapshot instead of holding its own copies.
+ * The title is decoded only when it is read, so a table of a million views only keeps the title Strings of
+ * the rows that have been shown. Setting an attribute, or binding to its property, copies that attribute into
+ * the Book itself; from then on the view behaves like a plain Book for that attribute, so shared stores can
+ * patch views in place as the catalog changes. Snapshots never change, so an untouched attribute always reads
+ * the value the book had when the view was created.
+ */
+public final class CatalogBookView extends Book {
+
+    // Attributes copied into the Book, as bits of copied
+    private static final int TITLE = 1;
+    private static final int AUTHOR = 1 << 1;
+    private static final int PHYSICAL_COPIES = 1 << 2;
+    private static final int PRICE = 1 << 3;
+    private static final int SOLD_COPIES = 1 << 4;
+
+    private final CatalogSnapshot snapshot;  // The snapshot holding the book
+    private final int row;                   // The book's row in the snapshot
+    private int copied;                      // Attributes held by the Book rather than read from the snapshot
+
+    /**
+     * Creates a view of a snapshot row.
+     *
+     * @param snapshot The snapshot.
+     * @param row      The row.
+     */
+    CatalogBookView(CatalogSnapshot snapshot, int row) {
+        super(snapshot.getBookId(row), null, null, 0, 0, 0);
+        this.snapshot = snapshot;
+        this.row = row;
+    }
+
+    @Override
+    public String getTitle() {
+        return (copied & TITLE) != 0 ? super.getTitle() : snapshot.getTitle(row);
+    }
+
+    @Override
+    public void setTitle(String title) {
+        copied |= TITLE;
+        super.setTitle(title);
+    }
+
+    @Override
+    public StringProperty titleProperty() {
+        if ((copied & TITLE) == 0) {
+            setTitle(snapshot.getTitle(row));
+        }
+        return super.titleProperty();
+    }
+
+    @Override
+    public String getAuthor() {
+        return (copied & AUTHOR) != 0 ? super.getAuthor() : snapshot.getAuthor(row);
+    }
+
+    @Override
+    public void setAuthor(String author) {
+        copied |= AUTHOR;
+        super.setAuthor(author);
+    }
+
+    @Override
+    public StringProperty authorProperty() {
+        if ((copied & AUTHOR) == 0) {
+            setAuthor(snapshot.getAuthor(row));
+        }
+        return super.authorProperty();
+    }
+
+    @Override
+    public int getPhysicalCopies() {
+        return (copied & PHYSICAL_COPIES) != 0 ? super.getPhysicalCopies() : snapshot.getPhysicalCopies(row);
+    }
+
+    @Override
+    public void setPhysicalCopies(int physicalCopies) {
+        copied |= PHYSICAL_COPIES;
+        super.setPhysicalCopies(physicalCopies);
+    }
+
+    @Override
+    public IntegerProperty physicalCopiesProperty() {
+        if ((copied & PHYSICAL_COPIES) == 0) {
+            setPhysicalCopies(snapshot.getPhysicalCopies(row));
+        }
+        return super.physicalCopiesProperty();
+    }
+
+    @Override
+    public double getPrice() {
+        return (copied & PRICE) != 0 ? super.getPrice() : snapshot.getPrice(row);
+    }
+
+    @Override
+    public void setPrice(double price) {
+        copied |= PRICE;
+        super.setPrice(price);
+    }
+
+    @Override
+    public DoubleProperty priceProperty() {
+        if ((copied & PRICE) == 0) {
+            setPrice(snapshot.getPrice(row));
+        }
+        return super.priceProperty();
+    }
+
+    @Override
+    public int getSoldCopies() {
+        return (copied & SOLD_COPIES) != 0 ? super.getSoldCopies() : snapshot.getSoldCopies(row);
+    }
+
+    @Override
+    public void setSoldCopies(int soldCopies) {
+        copied |= SOLD_COPIES;
+        super.setSoldCopies(soldCopies);
+    }
+
+    @Override
+    public IntegerProperty soldCopiesProperty() {
+        if ((copied & SOLD_COPIES) == 0) {
+            setSoldCopies(snapshot.getSoldCopies(row));
+        }
+        return super.soldCopiesProperty();
+    }
+}
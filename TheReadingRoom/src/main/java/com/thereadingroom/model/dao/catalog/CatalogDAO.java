@@ -0,0 +1,79 @@
+package com.thereadingroom.model.dao.catalog;
+
+import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.database.Database;
+import com.thereadingroom.model.dao.ledger.StockLedger;
+import com.thereadingroom.model.entity.StockLevel;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * DAO streaming the books table into a catalog snapshot.
+ * Rows go straight into the snapshot's columns, so loading a large catalog does not build Book entities.
+ * Stock values come from the stock ledger's projection when it tracks the book, as in BookDAO.
+ */
+public class CatalogDAO extends BaseDAO implements ICatalogDAO {
+
+    private static final String CATALOG_SQL = "SELECT id, title, author, physical_copies, price, sold_copies FROM books ORDER BY id";
+    private static final String CATALOG_VERSION_SQL = "SELECT version FROM catalog_version WHERE id = 1";
+
+    /**
+     * Reads every book, in ascending ID order and with its current stock, into the snapshot being built.
+     *
+     * @param builder The builder of the snapshot.
+     * @return The number of books read, or -1 if the books could not be read.
+     */
+    @Override
+    public int loadBooks(CatalogSnapshot.Builder builder) {
+        int count = 0;
+        StockLedger ledger = StockLedger.getInstance();
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, CATALOG_SQL);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int bookId = rs.getInt("id");
+                    StockLevel stock = ledger.getStockLevel(bookId);
+                    builder.add(bookId, rs.getString("title"), rs.getString("author"),
+                            stock != null ? stock.getPhysicalCopies() : rs.getInt("physical_copies"),
+                            rs.getDouble("price"),
+                            stock != null ? stock.getSoldCopies() : rs.getInt("sold_copies"));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading the catalog snapshot: " + e.getMessage());
+            return -1;
+        }
+        return count;
+    }
+
+    /**
+     * Reads the catalog version, which triggers on the books table increment with every catalog edit.
+     *
+     * @return The catalog version, or -1 if it could not be read.
+     */
+    @Override
+    public long getCatalogVersion() {
+        try (Connection conn = Database.getInstance().getConnection();
+             ResultSet rs = prepareCached(conn, CATALOG_VERSION_SQL).executeQuery()) {
+            return rs.next() ? rs.getLong("version") : -1;
+        } catch (SQLException e) {
+            System.out.println("Error reading the catalog version: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the current stock of a book as tracked by the stock ledger.
+     *
+     * @param bookId The book ID.
+     * @return The stock levels, or null if the ledger does not track the book.
+     */
+    @Override
+    public StockLevel getStockLevel(int bookId) {
+        return StockLedger.getInstance().getStockLevel(bookId);
+    }
+}
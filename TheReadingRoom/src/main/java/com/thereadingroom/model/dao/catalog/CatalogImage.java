@@ -0,0 +1,210 @@
+package com.thereadingroom.model.dao.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary image of a catalog snapshot, so a restart can open the catalog without querying SQLite.
+ *
+ * Layout (little-endian): a fixed 64-byte header, then the columns. The header holds a magic number, the format
+ * version, the catalog version of the database the image was written from, the book and author counts, the
+ * sizes of the two string heaps and a CRC32 of the header fields and the columns. The columns are the book IDs,
+ * physical copies, sold copies, prices in cents and author codes (one int per book), the title offset index
+ * (one int per book plus the end) and the author offset index, followed by the UTF-8 title heap and author heap.
+ * Reading maps the file with FileChannel.map and bulk-copies each column into the snapshot's arrays.
+ * Images are written to a temporary file and moved into place, so a crash never leaves a half-written image.
+ */
+final class CatalogImage {
+
+    private static final int MAGIC = 0x52524349;    // "RRCI"
+    private static final int FORMAT_VERSION = 1;    // Bumped whenever the layout changes
+    private static final int HEADER_SIZE = 64;
+    private static final int CHECKED_HEADER_SIZE = 32;  // Header bytes covered by the checksum (before it)
+    private static final int CHECKSUM_OFFSET = 32;
+
+    private CatalogImage() {
+    }
+
+    /**
+     * Reads an image.
+     *
+     * @param path The image file.
+     * @return The image, or null if the file is missing, of another format or corrupt.
+     */
+    static Loaded read(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                return null;
+            }
+            long catalogVersion = buffer.getLong(8);
+            int size = buffer.getInt(16);
+            int authorCount = buffer.getInt(20);
+            int titleLength = buffer.getInt(24);
+            int authorLength = buffer.getInt(28);
+            long expectedSize = HEADER_SIZE + 4L * (6L * size + 1 + authorCount + 1) + titleLength + authorLength;
+            if (size < 0 || authorCount < 0 || titleLength < 0 || authorLength < 0 || expectedSize != fileSize) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit(CHECKED_HEADER_SIZE));
+            crc.update(buffer.duplicate().position(HEADER_SIZE));
+            if (crc.getValue() != buffer.getLong(CHECKSUM_OFFSET)) {
+                return null;
+            }
+
+            buffer.position(HEADER_SIZE);
+            int[] bookIds = readInts(buffer, size);
+            int[] physicalCopies = readInts(buffer, size);
+            int[] soldCopies = readInts(buffer, size);
+            int[] priceCents = readInts(buffer, size);
+            int[] authorCodes = readInts(buffer, size);
+            int[] titleOffsets = readInts(buffer, size + 1);
+            int[] authorOffsets = readInts(buffer, authorCount + 1);
+            byte[] titleBytes = new byte[titleLength];
+            buffer.get(titleBytes);
+            byte[] authorBytes = new byte[authorLength];
+            buffer.get(authorBytes);
+            String[] authors = new String[authorCount];
+            for (int i = 0; i < authorCount; i++) {
+                authors[i] = new String(authorBytes, authorOffsets[i], authorOffsets[i + 1] - authorOffsets[i], StandardCharsets.UTF_8);
+            }
+            CatalogSnapshot snapshot = CatalogSnapshot.fromColumns(size, bookIds, physicalCopies, soldCopies, priceCents,
+                    authorCodes, authors, titleOffsets, titleBytes);
+            return new Loaded(snapshot, catalogVersion);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error reading the catalog image: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes an image, replacing the previous one.
+     *
+     * @param path           The image file.
+     * @param snapshot       The snapshot to write.
+     * @param catalogVersion The catalog version of the database the snapshot matches.
+     * @return true if the image was written.
+     */
+    static boolean write(Path path, CatalogSnapshot snapshot, long catalogVersion) {
+        int size = snapshot.size;
+        byte[][] authorBytes = new byte[snapshot.authors.length][];
+        int authorLength = 0;
+        for (int i = 0; i < authorBytes.length; i++) {
+            authorBytes[i] = snapshot.authors[i].getBytes(StandardCharsets.UTF_8);
+            authorLength += authorBytes[i].length;
+        }
+        int titleLength = snapshot.titleOffsets[size];
+        long fileSize = HEADER_SIZE + 4L * (6L * size + 1 + authorBytes.length + 1) + titleLength + authorLength;
+        if (fileSize > Integer.MAX_VALUE) {
+            System.out.println("Error writing the catalog image: the catalog is too large for one image.");
+            return false;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(catalogVersion)
+                .putInt(size).putInt(authorBytes.length).putInt(titleLength).putInt(authorLength);
+        buffer.position(HEADER_SIZE);
+        buffer.asIntBuffer().put(snapshot.bookIds, 0, size);
+        buffer.position(buffer.position() + 4 * size);
+        for (int row = 0; row < size; row++) {
+            buffer.putInt(snapshot.getPhysicalCopies(row));
+        }
+        for (int row = 0; row < size; row++) {
+            buffer.putInt(snapshot.getSoldCopies(row));
+        }
+        buffer.asIntBuffer().put(snapshot.priceCents, 0, size).put(snapshot.authorCodes, 0, size).put(snapshot.titleOffsets, 0, size + 1);
+        buffer.position(buffer.position() + 4 * (3 * size + 1));
+        int offset = 0;
+        for (byte[] author : authorBytes) {
+            buffer.putInt(offset);
+            offset += author.length;
+        }
+        buffer.putInt(offset);
+        buffer.put(snapshot.titleBytes, 0, titleLength);
+        for (byte[] author : authorBytes) {
+            buffer.put(author);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, CHECKED_HEADER_SIZE);
+        crc.update(buffer.array(), HEADER_SIZE, (int) fileSize - HEADER_SIZE);
+        buffer.putLong(CHECKSUM_OFFSET, crc.getValue());
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                buffer.position(0);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error writing the catalog image: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Deletes an image, so the next start loads the catalog from the database.
+     *
+     * @param path The image file.
+     */
+    static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.out.println("Error deleting the catalog image: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bulk-copies the next count ints of the buffer.
+     */
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    /**
+     * A snapshot read from an image, with the catalog version it was written at.
+     */
+    static final class Loaded {
+
+        final CatalogSnapshot snapshot;  // The snapshot
+        final long catalogVersion;       // Catalog version of the database when the image was written
+
+        Loaded(CatalogSnapshot snapshot, long catalogVersion) {
+            this.snapshot = snapshot;
+            this.catalogVersion = catalogVersion;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.thereadingroom.model.dao.catalog;
+
+import com.thereadingroom.model.entity.Book;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An immutable, column-oriented copy of the catalog, compact enough to keep millions of books in memory.
+ *
+ * Each attribute is a primitive array indexed by row, with rows in ascending book ID order so a book is found by
+ * binary search. Prices are kept in cents, each distinct author string is stored once and referenced by code, and
+ * every title is UTF-8 encoded into one shared byte buffer; titles are only decoded into Strings when read.
+ * Stock columns are split into fixed-size pages, so a stock change copies only the pages it touches and shares
+ * every other array with the previous snapshot. Adding, editing or removing a book rebuilds the snapshot.
+ * Snapshots are never modified once built, so any number of threads can read one without locking.
+ */
+public final class CatalogSnapshot {
+
+    // Rows per stock page; a stock change copies the pages of the changed rows only
+    static final int PAGE_SHIFT = 10;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    // A catalog without books
+    public static final CatalogSnapshot EMPTY = new Builder().build();
+
+    // Columns, also read and written by CatalogImage
+    final int size;                // Number of books
+    final int[] bookIds;           // Book IDs, ascending
+    final int[][] physicalPages;   // Physical copies, in pages of PAGE_SIZE rows
+    final int[][] soldPages;       // Sold copies, in pages of PAGE_SIZE rows
+    final int[] priceCents;        // Prices in cents
+    final int[] authorCodes;       // Index of each book's author in authors
+    final String[] authors;        // Distinct authors
+    final int[] titleOffsets;      // Start of each title in titleBytes; titleOffsets[size] is the end
+    final byte[] titleBytes;       // UTF-8 titles, back to back
+
+    private CatalogSnapshot(int size, int[] bookIds, int[][] physicalPages, int[][] soldPages, int[] priceCents,
+                            int[] authorCodes, String[] authors, int[] titleOffsets, byte[] titleBytes) {
+        this.size = size;
+        this.bookIds = bookIds;
+        this.physicalPages = physicalPages;
+        this.soldPages = soldPages;
+        this.priceCents = priceCents;
+        this.authorCodes = authorCodes;
+        this.authors = authors;
+        this.titleOffsets = titleOffsets;
+        this.titleBytes = titleBytes;
+    }
+
+    /**
+     * Creates a snapshot from whole columns, splitting the stock columns into pages.
+     * The stock arrays may be longer than size; the other arrays are used as they are.
+     */
+    static CatalogSnapshot fromColumns(int size, int[] bookIds, int[] physicalCopies, int[] soldCopies, int[] priceCents,
+                                       int[] authorCodes, String[] authors, int[] titleOffsets, byte[] titleBytes) {
+        int pageCount = (size + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+        int[][] physicalPages = new int[pageCount][];
+        int[][] soldPages = new int[pageCount][];
+        for (int page = 0; page < pageCount; page++) {
+            int from = page << PAGE_SHIFT;
+            physicalPages[page] = Arrays.copyOfRange(physicalCopies, from, from + PAGE_SIZE);
+            soldPages[page] = Arrays.copyOfRange(soldCopies, from, from + PAGE_SIZE);
+        }
+        return new CatalogSnapshot(size, bookIds, physicalPages, soldPages, priceCents, authorCodes, authors, titleOffsets, titleBytes);
+    }
+
+    /**
+     * Returns the number of books.
+     *
+     * @return The book count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the row of a book.
+     *
+     * @param bookId The book ID.
+     * @return The row, or a negative number if the catalog does not hold the book.
+     */
+    public int indexOf(int bookId) {
+        return Arrays.binarySearch(bookIds, 0, size, bookId);
+    }
+
+    /**
+     * Returns the book ID of a row.
+     *
+     * @param row The row.
+     * @return The book ID.
+     */
+    public int getBookId(int row) {
+        return bookIds[row];
+    }
+
+    /**
+     * Decodes the title of a row.
+     *
+     * @param row The row.
+     * @return The title.
+     */
+    public String getTitle(int row) {
+        return new String(titleBytes, titleOffsets[row], titleOffsets[row + 1] - titleOffsets[row], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the author of a row.
+     *
+     * @param row The row.
+     * @return The author, shared by every book of the same author.
+     */
+    public String getAuthor(int row) {
+        return authors[authorCodes[row]];
+    }
+
+    /**
+     * Returns the physical copies of a row.
+     *
+     * @param row The row.
+     * @return The number of physical copies available.
+     */
+    public int getPhysicalCopies(int row) {
+        return physicalPages[row >>> PAGE_SHIFT][row & (PAGE_SIZE - 1)];
+    }
+
+    /**
+     * Returns the sold copies of a row.
+     *
+     * @param row The row.
+     * @return The number of copies sold.
+     */
+    public int getSoldCopies(int row) {
+        return soldPages[row >>> PAGE_SHIFT][row & (PAGE_SIZE - 1)];
+    }
+
+    /**
+     * Returns the price of a row in cents.
+     *
+     * @param row The row.
+     * @return The price in cents.
+     */
+    public int getPriceCents(int row) {
+        return priceCents[row];
+    }
+
+    /**
+     * Returns the price of a row.
+     *
+     * @param row The row.
+     * @return The price.
+     */
+    public double getPrice(int row) {
+        return priceCents[row] / 100.0;
+    }
+
+    /**
+     * Returns a lightweight Book reading a row of this snapshot.
+     *
+     * @param row The row.
+     * @return A view of the book; see CatalogBookView.
+     */
+    public Book view(int row) {
+        return new CatalogBookView(this, row);
+    }
+
+    /**
+     * Returns a lightweight Book reading a book of this snapshot.
+     *
+     * @param bookId The book ID.
+     * @return A view of the book, or null if the catalog does not hold it.
+     */
+    public Book find(int bookId) {
+        int row = indexOf(bookId);
+        return row < 0 ? null : view(row);
+    }
+
+    /**
+     * Returns the books as a read-only list of views in book ID order.
+     * Views are created as the list is read, so keep the ones that are needed rather than reading the list again.
+     *
+     * @return The books.
+     */
+    public List<Book> views() {
+        return new ViewList();
+    }
+
+    /**
+     * Estimates the memory used by the snapshot's arrays, counting shared arrays in full.
+     *
+     * @return The approximate size in bytes.
+     */
+    public long estimateBytes() {
+        long bytes = 4L * (bookIds.length + priceCents.length + authorCodes.length + titleOffsets.length) + titleBytes.length;
+        bytes += 2L * physicalPages.length * (16 + 4L * PAGE_SIZE);
+        for (String author : authors) {
+            bytes += 40 + author.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns a copy with new stock values. Only the stock pages of the changed books are copied;
+     * books the catalog does not hold are ignored.
+     *
+     * @param stockChanges New {physical, sold} copies by book ID.
+     * @return The new snapshot, or this one if no held book changed.
+     */
+    public CatalogSnapshot withStock(Map<Integer, int[]> stockChanges) {
+        int[][] physical = null;
+        int[][] sold = null;
+        boolean[] copiedPages = null;
+        for (Map.Entry<Integer, int[]> change : stockChanges.entrySet()) {
+            int row = indexOf(change.getKey());
+            if (row < 0) {
+                continue;
+            }
+            if (physical == null) {
+                physical = physicalPages.clone();
+                sold = soldPages.clone();
+                copiedPages = new boolean[physicalPages.length];
+            }
+            int page = row >>> PAGE_SHIFT;
+            if (!copiedPages[page]) {
+                physical[page] = physical[page].clone();
+                sold[page] = sold[page].clone();
+                copiedPages[page] = true;
+            }
+            physical[page][row & (PAGE_SIZE - 1)] = change.getValue()[0];
+            sold[page][row & (PAGE_SIZE - 1)] = change.getValue()[1];
+        }
+        if (physical == null) {
+            return this;
+        }
+        return new CatalogSnapshot(size, bookIds, physical, sold, priceCents, authorCodes, authors, titleOffsets, titleBytes);
+    }
+
+    /**
+     * Returns a copy with a book added or replaced.
+     *
+     * @param book The current state of the book.
+     * @return The new snapshot.
+     */
+    public CatalogSnapshot withBook(Book book) {
+        Builder builder = new Builder(this, size + 1);
+        int row = 0;
+        while (row < size && bookIds[row] < book.getBookId()) {
+            builder.copy(this, row++);
+        }
+        builder.add(book.getBookId(), book.getTitle(), book.getAuthor(), book.getPhysicalCopies(), book.getPrice(), book.getSoldCopies());
+        if (row < size && bookIds[row] == book.getBookId()) {
+            row++;  // Replaced
+        }
+        while (row < size) {
+            builder.copy(this, row++);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a copy without a book.
+     *
+     * @param bookId The ID of the book to remove.
+     * @return The new snapshot, or this one if the catalog does not hold the book.
+     */
+    public CatalogSnapshot withoutBook(int bookId) {
+        int removed = indexOf(bookId);
+        if (removed < 0) {
+            return this;
+        }
+        Builder builder = new Builder(this, size - 1);
+        for (int row = 0; row < size; row++) {
+            if (row != removed) {
+                builder.copy(this, row);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * The books of the snapshot as views, created on read.
+     */
+    private final class ViewList extends AbstractList<Book> implements RandomAccess {
+
+        @Override
+        public Book get(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException(row);
+            }
+            return view(row);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Builds a snapshot from books added in ascending book ID order.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int[] bookIds;
+        private int[] physicalCopies;
+        private int[] soldCopies;
+        private int[] priceCents;
+        private int[] authorCodes;
+        private final List<String> authors;           // Distinct authors, by code
+        private Map<String, Integer> authorCodesByName; // Author -> code, built on the first new book
+        private int[] titleOffsets;
+        private byte[] titleBytes = new byte[1024];
+        private int titleLength;                      // Bytes of titleBytes in use
+
+        /**
+         * Creates an empty builder.
+         */
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Creates an empty builder sized for the given number of books.
+         *
+         * @param expectedSize The expected number of books.
+         */
+        public Builder(int expectedSize) {
+            this(expectedSize, new ArrayList<>());
+        }
+
+        /**
+         * Creates a builder that copies rows of a base snapshot, reusing its author codes.
+         */
+        private Builder(CatalogSnapshot base, int expectedSize) {
+            this(expectedSize, new ArrayList<>(Arrays.asList(base.authors)));
+            titleBytes = new byte[Math.max(1024, base.titleOffsets[base.size] + 256)];
+        }
+
+        private Builder(int expectedSize, List<String> authors) {
+            int capacity = Math.max(16, expectedSize);
+            this.bookIds = new int[capacity];
+            this.physicalCopies = new int[capacity];
+            this.soldCopies = new int[capacity];
+            this.priceCents = new int[capacity];
+            this.authorCodes = new int[capacity];
+            this.titleOffsets = new int[capacity + 1];
+            this.authors = authors;
+        }
+
+        /**
+         * Adds a book after the ones already added.
+         *
+         * @param bookId         The book ID, greater than every ID added so far.
+         * @param title          The title.
+         * @param author         The author.
+         * @param physicalCopies The physical copies available.
+         * @param price          The price.
+         * @param soldCopies     The copies sold.
+         * @return This builder.
+         * @throws IllegalArgumentException if the book ID is not greater than the previous one.
+         */
+        public Builder add(int bookId, String title, String author, int physicalCopies, double price, int soldCopies) {
+            int row = nextRow(bookId);
+            byte[] encoded = (title == null ? "" : title).getBytes(StandardCharsets.UTF_8);
+            ensureTitleCapacity(encoded.length);
+            System.arraycopy(encoded, 0, titleBytes, titleLength, encoded.length);
+            titleLength += encoded.length;
+            titleOffsets[row + 1] = titleLength;
+            authorCodes[row] = codeOf(author == null ? "" : author);
+            this.physicalCopies[row] = physicalCopies;
+            this.soldCopies[row] = soldCopies;
+            this.priceCents[row] = (int) Math.round(price * 100);
+            return this;
+        }
+
+        /**
+         * Copies a row of the base snapshot without decoding its title.
+         */
+        private void copy(CatalogSnapshot base, int baseRow) {
+            int row = nextRow(base.bookIds[baseRow]);
+            int start = base.titleOffsets[baseRow];
+            int length = base.titleOffsets[baseRow + 1] - start;
+            ensureTitleCapacity(length);
+            System.arraycopy(base.titleBytes, start, titleBytes, titleLength, length);
+            titleLength += length;
+            titleOffsets[row + 1] = titleLength;
+            authorCodes[row] = base.authorCodes[baseRow];
+            physicalCopies[row] = base.getPhysicalCopies(baseRow);
+            soldCopies[row] = base.getSoldCopies(baseRow);
+            priceCents[row] = base.priceCents[baseRow];
+        }
+
+        /**
+         * Builds the snapshot; the builder must not be used afterwards.
+         *
+         * @return The snapshot.
+         */
+        public CatalogSnapshot build() {
+            return fromColumns(size, Arrays.copyOf(bookIds, size), physicalCopies, soldCopies, Arrays.copyOf(priceCents, size),
+                    Arrays.copyOf(authorCodes, size), authors.toArray(new String[0]), Arrays.copyOf(titleOffsets, size + 1),
+                    Arrays.copyOf(titleBytes, titleLength));
+        }
+
+        /**
+         * Checks the ID order, makes room for one more row and returns it.
+         */
+        private int nextRow(int bookId) {
+            if (size > 0 && bookId <= bookIds[size - 1]) {
+                throw new IllegalArgumentException("Books must be added in ascending ID order: " + bookId + " after " + bookIds[size - 1]);
+            }
+            if (size == bookIds.length) {
+                int capacity = size * 2;
+                bookIds = Arrays.copyOf(bookIds, capacity);
+                physicalCopies = Arrays.copyOf(physicalCopies, capacity);
+                soldCopies = Arrays.copyOf(soldCopies, capacity);
+                priceCents = Arrays.copyOf(priceCents, capacity);
+                authorCodes = Arrays.copyOf(authorCodes, capacity);
+                titleOffsets = Arrays.copyOf(titleOffsets, capacity + 1);
+            }
+            bookIds[size] = bookId;
+            return size++;
+        }
+
+        /**
+         * Makes room for more title bytes.
+         */
+        private void ensureTitleCapacity(int length) {
+            if (titleLength + length > titleBytes.length) {
+                titleBytes = Arrays.copyOf(titleBytes, Math.max(titleBytes.length * 2, titleLength + length));
+            }
+        }
+
+        /**
+         * Returns the code of an author, adding it if it is new.
+         */
+        private int codeOf(String author) {
+            if (authorCodesByName == null) {
+                authorCodesByName = new HashMap<>();
+                for (int code = 0; code < authors.size(); code++) {
+                    authorCodesByName.put(authors.get(code), code);
+                }
+            }
+            Integer code = authorCodesByName.get(author);
+            if (code == null) {
+                code = authors.size();
+                authors.add(author);
+                authorCodesByName.put(author, code);
+            }
+            return code;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.thereadingroom.model.dao.catalog;
+
+import com.thereadingroom.model.entity.StockLevel;
+
+/**
+ * Interface for loading the catalog into the in-memory catalog snapshot.
+ */
+public interface ICatalogDAO {
+
+    /**
+     * Reads every book, in ascending ID order and with its current stock, into the snapshot being built.
+     *
+     * @param builder The builder of the snapshot.
+     * @return The number of books read, or -1 if the books could not be read.
+     */
+    int loadBooks(CatalogSnapshot.Builder builder);
+
+    /**
+     * Reads the catalog version, which the database increments whenever a book is added, removed or has its
+     * title, author or price changed (stock is versioned by the stock ledger instead).
+     *
+     * @return The catalog version, or -1 if it could not be read.
+     */
+    long getCatalogVersion();
+
+    /**
+     * Returns the current stock of a book as tracked by the stock ledger.
+     *
+     * @param bookId The book ID.
+     * @return The stock levels, or null if the ledger does not track the book.
+     */
+    StockLevel getStockLevel(int bookId);
+}
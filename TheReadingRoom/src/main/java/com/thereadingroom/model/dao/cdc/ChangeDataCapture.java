@@ -0,0 +1,299 @@
+package com.thereadingroom.model.dao.cdc;
+
+import org.sqlite.SQLiteConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change data capture for the SQLite database.
+ * Update and commit hooks are installed on every physical connection the pool hands out, so every
+ * committed write to the captured tables is seen, whichever DAO (or SQL script) made it. Commits are
+ * passed to a dispatcher thread, which waits a short moment for more commits, merges them into one
+ * ChangeSet (table + rowids) and notifies the listeners registered for those tables.
+ *
+ * SQLite calls the commit hook just before the commit completes. Before notifying, the dispatcher waits
+ * until each committing connection has finished its commit, by taking the lock sqlite-jdbc holds on the
+ * connection's native handle during every statement. So listeners that re-read the changed rows see the
+ * committed values.
+ */
+public class ChangeDataCapture {
+
+    // Tables whose row changes are captured
+    public static final Set<String> CAPTURED_TABLES = Set.of("books", "orders", "order_items", "cart", "cart_items");
+
+    // How long the dispatcher waits for more commits before notifying
+    private static final long DEFAULT_COALESCE_MILLIS = 50;
+
+    // Singleton instance
+    private static ChangeDataCapture instance;
+
+    private final long coalesceMillis;                                           // Coalescing window
+    private final Map<Connection, ConnectionChangeCapture> hookedConnections = new ConcurrentHashMap<>();  // Physical connection -> its hooks
+    private final List<Registration> listeners = new CopyOnWriteArrayList<>();   // Registered listeners
+    private final BlockingQueue<Commit> commits = new LinkedBlockingQueue<>();  // Commits waiting for dispatch
+    private final AtomicLong capturedCommits = new AtomicLong();                 // Commits with captured changes
+    private final AtomicLong notifications = new AtomicLong();                   // Change sets dispatched
+    private volatile Thread dispatcher;
+
+    // Private constructor for Singleton pattern
+    private ChangeDataCapture() {
+        this(DEFAULT_COALESCE_MILLIS);
+    }
+
+    /**
+     * Creates a change data capture with the given coalescing window.
+     *
+     * @param coalesceMillis How long to wait for more commits before notifying listeners.
+     */
+    public ChangeDataCapture(long coalesceMillis) {
+        this.coalesceMillis = coalesceMillis;
+    }
+
+    /**
+     * Singleton - Get the single instance of ChangeDataCapture.
+     *
+     * @return The instance of ChangeDataCapture.
+     */
+    public static synchronized ChangeDataCapture getInstance() {
+        if (instance == null) {
+            instance = new ChangeDataCapture();
+        }
+        return instance;
+    }
+
+    /**
+     * Installs the hooks on the physical connection behind the given (possibly pooled) connection.
+     * Connections that already have hooks are left alone, so this is cheap to call on every borrow.
+     *
+     * @param conn A connection borrowed from the pool.
+     */
+    public void attach(Connection conn) {
+        try {
+            SQLiteConnection physical = conn.unwrap(SQLiteConnection.class);
+            if (hookedConnections.containsKey(physical)) {
+                return;
+            }
+            purgeClosedConnections();  // A new physical connection usually means the pool retired an old one
+            ConnectionChangeCapture hooks = new ConnectionChangeCapture(this, physical.getDatabase());
+            if (hookedConnections.putIfAbsent(physical, hooks) == null) {
+                physical.addUpdateListener(hooks);
+                physical.addCommitListener(hooks);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error installing change capture hooks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Leaves the changes of the transaction running on a connection out of the capture, for writes whose
+     * effects are already published by their writer (such as the stock ledger's snapshots of the books table).
+     * The connection must have autocommit off; capturing resumes with its next transaction.
+     *
+     * @param conn A connection borrowed from the pool, inside a transaction.
+     */
+    public void ignoreTransaction(Connection conn) {
+        try {
+            ConnectionChangeCapture hooks = hookedConnections.get(conn.unwrap(SQLiteConnection.class));
+            if (hooks != null) {
+                hooks.ignoreTransaction();
+            }
+        } catch (SQLException e) {
+            System.out.println("Error ignoring captured changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registers a listener for changes to the given tables.
+     *
+     * @param listener The listener.
+     * @param tables   The tables to listen to (must be captured tables).
+     */
+    public void addListener(ChangeListener listener, String... tables) {
+        for (String table : tables) {
+            if (!CAPTURED_TABLES.contains(table)) {
+                throw new IllegalArgumentException("Changes to table " + table + " are not captured.");
+            }
+        }
+        listeners.add(new Registration(listener, Set.of(tables)));
+        startDispatcher();
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(ChangeListener listener) {
+        listeners.removeIf(registration -> registration.listener == listener);
+    }
+
+    /**
+     * Checks whether changes to a table should be recorded (it is captured and someone is listening).
+     *
+     * @param table The table name.
+     * @return true if the table's changes are recorded.
+     */
+    boolean isCaptured(String table) {
+        return !listeners.isEmpty() && CAPTURED_TABLES.contains(table);
+    }
+
+    /**
+     * Queues the changes of a commit for dispatch (called from the committing thread's commit hook).
+     *
+     * @param commitChanges Table name -> changed rowids.
+     * @param statementLock Lock held on the committing connection until the commit completes.
+     */
+    void enqueueCommit(Map<String, Set<Long>> commitChanges, Object statementLock) {
+        capturedCommits.incrementAndGet();
+        commits.add(new Commit(commitChanges, statementLock));
+    }
+
+    /**
+     * Starts the dispatcher thread if it is not running yet.
+     */
+    private synchronized void startDispatcher() {
+        if (dispatcher == null) {
+            dispatcher = new Thread(this::runDispatcher, "change-capture-dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * Waits for commits, merges those that arrive within the coalescing window, waits until they have
+     * completed and notifies the listeners.
+     */
+    private void runDispatcher() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<Commit> batch = new ArrayList<>();
+                batch.add(commits.take());
+                Thread.sleep(coalesceMillis);  // Batching only; completion is awaited below
+                commits.drainTo(batch);
+
+                ChangeSet changes = new ChangeSet();
+                Set<Object> awaited = new HashSet<>();
+                for (Commit commit : batch) {
+                    if (awaited.add(commit.statementLock)) {
+                        awaitCompletion(commit);
+                    }
+                    changes.addCommit(commit.changes);
+                }
+                dispatch(changes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits until the statement that ran the commit hook has returned, and with it the commit.
+     * sqlite-jdbc runs every statement of a connection while holding the lock of its native handle.
+     *
+     * @param commit The commit to wait for.
+     */
+    private static void awaitCompletion(Commit commit) {
+        synchronized (commit.statementLock) {
+            // Nothing to do: acquiring the lock means the committing statement has finished
+        }
+    }
+
+    /**
+     * Notifies every listener registered for at least one of the changed tables.
+     *
+     * @param changes The merged changes.
+     */
+    private void dispatch(ChangeSet changes) {
+        notifications.incrementAndGet();
+        for (Registration registration : listeners) {
+            if (registration.tables.stream().noneMatch(changes::contains)) {
+                continue;
+            }
+            try {
+                registration.listener.onChanges(changes);
+            } catch (RuntimeException e) {
+                System.out.println("Error notifying change listener: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Forgets the hooks of physical connections closed by the pool.
+     */
+    private void purgeClosedConnections() {
+        hookedConnections.keySet().removeIf(connection -> {
+            try {
+                return connection.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Returns the number of commits whose changes were captured.
+     *
+     * @return The captured commit count.
+     */
+    public long getCapturedCommits() {
+        return capturedCommits.get();
+    }
+
+    /**
+     * Returns the number of change sets dispatched to listeners.
+     *
+     * @return The notification count.
+     */
+    public long getNotifications() {
+        return notifications.get();
+    }
+
+    /**
+     * Unregisters every listener and stops the dispatcher thread.
+     */
+    public synchronized void shutdown() {
+        listeners.clear();  // Also stops the hooks from recording further changes
+        commits.clear();
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher = null;
+        }
+    }
+
+    /**
+     * The changes of one commit, with the lock that shows when it has completed.
+     */
+    private static final class Commit {
+        private final Map<String, Set<Long>> changes;
+        private final Object statementLock;
+
+        Commit(Map<String, Set<Long>> changes, Object statementLock) {
+            this.changes = changes;
+            this.statementLock = statementLock;
+        }
+    }
+
+    /**
+     * A listener together with the tables it registered for.
+     */
+    private static final class Registration {
+        private final ChangeListener listener;
+        private final Set<String> tables;
+
+        Registration(ChangeListener listener, Set<String> tables) {
+            this.listener = listener;
+            this.tables = tables;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.thereadingroom.model.dao.cdc;
+
+/**
+ * Callback for committed row changes captured by ChangeDataCapture.
+ * Called on the capture's dispatcher thread; UI listeners must hop to the JavaFX thread themselves.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    /**
+     * Handles the rows changed by the commits since the previous notification.
+     *
+     * @param changes The changed rows of the tables the listener registered for (and possibly others).
+     */
+    void onChanges(ChangeSet changes);
+}
@@ -0,0 +1,83 @@
+package com.thereadingroom.model.dao.cdc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The rows changed by one or more committed transactions, grouped by table.
+ * Inserts, updates and deletes are not distinguished: listeners re-read the rows they care about,
+ * and a row that no longer exists has been deleted.
+ */
+public class ChangeSet {
+
+    private final Map<String, Set<Long>> rowIdsByTable = new HashMap<>();  // Table name -> changed rowids
+    private int commits;                                                  // Number of commits merged into this set
+
+    /**
+     * Adds the rows changed by one commit.
+     *
+     * @param commitChanges Table name -> changed rowids of the commit.
+     */
+    void addCommit(Map<String, Set<Long>> commitChanges) {
+        for (Map.Entry<String, Set<Long>> entry : commitChanges.entrySet()) {
+            rowIdsByTable.computeIfAbsent(entry.getKey(), table -> new TreeSet<>()).addAll(entry.getValue());
+        }
+        commits++;
+    }
+
+    /**
+     * Returns the names of the tables with changed rows.
+     *
+     * @return The changed tables.
+     */
+    public Set<String> getTables() {
+        return Collections.unmodifiableSet(rowIdsByTable.keySet());
+    }
+
+    /**
+     * Checks whether any row of the table changed.
+     *
+     * @param table The table name.
+     * @return true if the table has changed rows.
+     */
+    public boolean contains(String table) {
+        return rowIdsByTable.containsKey(table);
+    }
+
+    /**
+     * Returns the rowids (the primary keys of this schema's tables) changed in a table.
+     *
+     * @param table The table name.
+     * @return The changed rowids in ascending order, or an empty set if the table did not change.
+     */
+    public Set<Long> getRowIds(String table) {
+        Set<Long> rowIds = rowIdsByTable.get(table);
+        return rowIds == null ? Collections.emptySet() : Collections.unmodifiableSet(rowIds);
+    }
+
+    /**
+     * Returns the number of commits merged into this change set.
+     *
+     * @return The commit count.
+     */
+    public int getCommitCount() {
+        return commits;
+    }
+
+    /**
+     * Checks whether the change set holds no changes.
+     *
+     * @return true if no rows changed.
+     */
+    public boolean isEmpty() {
+        return rowIdsByTable.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeSet{" + commits + " commits, " + rowIdsByTable + "}";
+    }
+}
@@ -0,0 +1,73 @@
+package com.thereadingroom.model.dao.cdc;
+
+import org.sqlite.SQLiteCommitListener;
+import org.sqlite.SQLiteUpdateListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SQLite update and commit hooks for one physical connection.
+ * Row changes are collected while a transaction runs, handed to the ChangeDataCapture when it commits
+ * and discarded when it rolls back. A pooled connection is used by one thread at a time and the hooks
+ * run on that thread, so the pending changes need no locking.
+ */
+class ConnectionChangeCapture implements SQLiteUpdateListener, SQLiteCommitListener {
+
+    private final ChangeDataCapture capture;                       // Receives the changes of each commit
+    private final Object statementLock;                            // Held by sqlite-jdbc while a statement (and its commit) runs
+    private Map<String, Set<Long>> pending = new HashMap<>();      // Changes of the running transaction
+    private boolean ignored;                                       // Whether the running transaction is left out
+
+    /**
+     * Creates the hooks for one connection.
+     *
+     * @param capture       The change data capture to hand commits to.
+     * @param statementLock The connection's native handle, locked by sqlite-jdbc while a statement runs.
+     */
+    ConnectionChangeCapture(ChangeDataCapture capture, Object statementLock) {
+        this.capture = capture;
+        this.statementLock = statementLock;
+    }
+
+    /**
+     * Leaves the running transaction's changes out of the capture, until it commits or rolls back.
+     */
+    void ignoreTransaction() {
+        ignored = true;
+        pending.clear();
+    }
+
+    /**
+     * Records a changed row of a captured table (called by SQLite for every row written).
+     */
+    @Override
+    public void onUpdate(Type type, String database, String table, long rowId) {
+        if (!ignored && capture.isCaptured(table)) {
+            pending.computeIfAbsent(table, t -> new HashSet<>()).add(rowId);
+        }
+    }
+
+    /**
+     * Hands the transaction's changes to the capture (called by SQLite just before the commit completes).
+     */
+    @Override
+    public void onCommit() {
+        ignored = false;
+        if (!pending.isEmpty()) {
+            capture.enqueueCommit(pending, statementLock);
+            pending = new HashMap<>();
+        }
+    }
+
+    /**
+     * Discards the transaction's changes.
+     */
+    @Override
+    public void onRollback() {
+        ignored = false;
+        pending.clear();
+    }
+}
@@ -1,10 +1,15 @@
 package com.thereadingroom.model.dao.database;
 
+import com.thereadingroom.model.dao.cdc.ChangeDataCapture;
+import com.thereadingroom.utils.trace.Span;
+import com.thereadingroom.utils.trace.Tracer;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Singleton class for managing the database connection pool using HikariCP.
@@ -12,8 +17,14 @@ import java.sql.SQLException;
  */
 public class Database {
 
+    // The SQLite database file, relative to the working directory
+    public static final String DB_FILE = "readingroom.db";
+
     // The URL for the SQLite database
-    private static final String DB_URL = "jdbc:sqlite:readingroom.db";
+    private static final String DB_URL = "jdbc:sqlite:" + DB_FILE;
+
+    // Maximum number of pooled connections (each one owns its own statement cache)
+    private static final int MAX_POOL_SIZE = 10;
 
     // HikariCP DataSource for managing database connections
     private static HikariDataSource dataSource;
@@ -47,7 +58,7 @@ public class Database {
         if (dataSource == null) {
             HikariConfig config = new HikariConfig(); // HikariCP configuration settings
             config.setJdbcUrl(DB_URL);               // Set JDBC URL for the database
-            config.setMaximumPoolSize(10);           // Max number of connections in the pool
+            config.setMaximumPoolSize(MAX_POOL_SIZE); // Max number of connections in the pool
             config.setConnectionTimeout(30000);      // Max wait time for a connection (30 seconds)
             config.setIdleTimeout(600000);           // Max idle time for a connection (10 minutes)
             config.setMaxLifetime(1800000);          // Max lifetime for a connection (30 minutes)
@@ -58,11 +69,66 @@ public class Database {
     /**
      * Provides a database connection from the HikariCP connection pool.
      * Connections should be closed after use to return them to the pool.
+     * Every connection carries the change data capture hooks, so committed writes are always reported.
+     * While a trace is in progress, the wait for a pooled connection is recorded as a span.
      *
      * @return a Connection object from the pool
      * @throws SQLException if unable to acquire a connection
      */
     public Connection getConnection() throws SQLException {
-        return dataSource.getConnection();  // Retrieve a connection from the HikariCP pool
+        Span span = Tracer.beginChild("pool", "Database.getConnection");
+        try {
+            Connection conn = dataSource.getConnection();  // Retrieve a connection from the HikariCP pool
+            ChangeDataCapture.getInstance().attach(conn);
+            return conn;
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Pre-prepares the given hot statements on every connection in the pool.
+     * All connections are borrowed at once so that each physical connection gets its own warm cache,
+     * which moves SQLite's parse and plan cost from the first user request to application startup.
+     *
+     * @param statements            Statements to prepare without generated keys.
+     * @param keyReturningStatements INSERT statements to prepare with generated keys.
+     */
+    public void warmUpStatementCache(List<String> statements, List<String> keyReturningStatements) {
+        List<Connection> borrowed = new ArrayList<>();
+        try {
+            for (int i = 0; i < MAX_POOL_SIZE; i++) {
+                Connection conn = dataSource.getConnection();
+                borrowed.add(conn);
+
+                StatementCache cache = StatementCache.forConnection(conn);
+                for (String sql : statements) {
+                    cache.prepare(sql);
+                }
+                for (String sql : keyReturningStatements) {
+                    cache.prepareReturningKeys(sql);
+                }
+            }
+            System.out.println("Statement cache warmed up on " + borrowed.size() + " connections.");
+        } catch (SQLException e) {
+            System.out.println("Error warming up statement cache: " + e.getMessage());
+        } finally {
+            for (Connection conn : borrowed) {
+                try {
+                    conn.close();  // Return the connection to the pool
+                } catch (SQLException e) {
+                    System.out.println("Error returning connection to pool: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the prepared statement cache counters, including the hit rate.
+     *
+     * @return The current statement cache statistics.
+     */
+    public StatementCacheStats getStatementCacheStats() {
+        return StatementCache.getStats();
     }
 }
@@ -1,8 +1,18 @@
 package com.thereadingroom.model.dao.database;
 
 import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.analytics.SalesRollupDAO;
+import com.thereadingroom.model.dao.book.BookDAO;
+import com.thereadingroom.model.dao.cart.CartDAO;
+import com.thereadingroom.model.dao.flashsale.FlashSaleDAO;
+import com.thereadingroom.model.dao.idempotency.IdempotencyDAO;
+import com.thereadingroom.model.dao.ledger.StockLedger;
+import com.thereadingroom.model.dao.ledger.StockLedgerDAO;
+import com.thereadingroom.model.dao.order.OrderDAO;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * DatabaseInitializer is responsible for initializing the database, including
@@ -18,23 +28,72 @@ public class DatabaseInitializer extends BaseDAO {
         createTables();           // Create necessary tables for users, books, orders, etc.
         initializeAdminUser();     // Create the admin user if it doesn't exist
         populateBooks();           // Populate books table with initial data if empty
+        warmUpStatementCache();    // Pre-prepare hot statements on every pooled connection
+        StockLedger.getInstance().start();  // Load stock levels and replay movements since the last snapshot
+        rebuildSalesRollupsIfNeeded();     // Aggregate existing orders into newly created sales rollups
+    }
+
+    /**
+     * Rebuilds the sales rollups when there are orders but no rollups yet (a database created before
+     * the rollups existed); afterwards the rollups are maintained with every saved and deleted order.
+     */
+    private static void rebuildSalesRollupsIfNeeded() {
+        SalesRollupDAO salesRollupDAO = new SalesRollupDAO();
+        if (salesRollupDAO.needsRebuild()) {
+            System.out.println("Sales rollups rebuilt from " + salesRollupDAO.rebuild() + " orders.");
+        }
+    }
+
+    /**
+     * Pre-prepares the statements used on the hot paths (book lookups, cart contents and order inserts)
+     * on every pooled connection, once the schema exists.
+     */
+    private static void warmUpStatementCache() {
+        Database.getInstance().warmUpStatementCache(
+                List.of(BookDAO.FIND_BOOK_BY_ID_SQL,
+                        BookDAO.GET_STOCK_FOR_BOOK_SQL,
+                        CartDAO.GET_CART_ITEMS_SQL,
+                        OrderDAO.INSERT_ORDER_ITEM_SQL,
+                        OrderDAO.FETCH_ORDER_ITEMS_SQL,
+                        IdempotencyDAO.INSERT_KEY_SQL,
+                        SalesRollupDAO.UPSERT_DAILY_SQL,
+                        SalesRollupDAO.UPSERT_BOOK_DAILY_SQL,
+                        SalesRollupDAO.UPSERT_USER_SQL,
+                        FlashSaleDAO.ADD_RECONCILED_SQL,
+                        StockLedgerDAO.INSERT_MOVEMENT_SQL,
+                        StockLedgerDAO.LAST_MOVEMENT_ID_SQL),
+                List.of(OrderDAO.INSERT_ORDER_SQL));
     }
 
     /**
      * Creates all the necessary tables (users, books, orders, and cart) for the application.
+     * The statements run in a single transaction, so a new database is created with one sync instead of one per
+     * statement, and a failure leaves no partial schema behind.
      */
     private static void createTables() {
-        createUsersTable();        // Create the users table
-        createBooksTable();        // Create the books table
-        createOrderTables();       // Create tables related to orders and order items
-        createCartTables();        // Create tables for cart and cart items
+        List<String> schema = new ArrayList<>();
+        createUsersTable(schema);          // Create the users table
+        createBooksTable(schema);          // Create the books table
+        createCatalogVersionTable(schema); // Create the catalog version counter and the triggers maintaining it
+        createOrderTables(schema);         // Create tables related to orders and order items
+        createCartTables(schema);          // Create tables for cart and cart items
+        createIdempotencyTable(schema);    // Create the table mapping checkout tokens to orders
+        createFlashSalesTable(schema);     // Create the table tracking active flash sales
+        createStockLedgerTables(schema);   // Create the stock movement ledger and its snapshot marker
+        createPendingRevertsTable(schema); // Create the table of reserved copies still to be returned to stock
+        createSalesRollupTables(schema);   // Create the pre-aggregated sales tables used by the reports
+        if (new DatabaseInitializer().executeInTransaction(schema)) {
+            System.out.println("Database schema created or already up to date (" + schema.size() + " statements).");
+        }
     }
 
     /**
      * Creates the users table if it doesn't already exist.
      * The table stores user details such as username, password, and admin status.
+     *
+     * @param schema The schema statements, to which this method adds its own.
      */
-    private static void createUsersTable() {
+    private static void createUsersTable(List<String> schema) {
         String sql = """
             CREATE TABLE IF NOT EXISTS users (
                 id INTEGER PRIMARY KEY AUTOINCREMENT, 
@@ -45,15 +104,16 @@ public class DatabaseInitializer extends BaseDAO {
                 is_admin BOOLEAN DEFAULT 0
             );
         """;
-        new DatabaseInitializer().executeUpdate(sql);
-        System.out.println("Users table created or already exists.");
+        schema.add(sql);
     }
 
     /**
      * Creates the books table if it doesn't already exist.
      * The table stores details about books such as title, author, stock, price, and sold copies.
+     *
+     * @param schema The schema statements, to which this method adds its own.
      */
-    private static void createBooksTable() {
+    private static void createBooksTable(List<String> schema) {
         String sql = """
             CREATE TABLE IF NOT EXISTS books (
                 id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -64,14 +124,39 @@ public class DatabaseInitializer extends BaseDAO {
                 sold_copies INTEGER NOT NULL
             );
         """;
-        new DatabaseInitializer().executeUpdate(sql);
-        System.out.println("Books table created or already exists.");
+        schema.add(sql);
+    }
+
+    /**
+     * Creates the catalog_version counter, incremented by triggers whenever a book is added, removed or has its
+     * title, author or price changed, whichever code wrote it. The catalog image records the version it was
+     * written at, so a stale image is detected at startup. The counter starts at a random value, so an image
+     * written from another database never matches. Stock columns are left out: stock comes from the ledger.
+     *
+     * @param schema The schema statements, to which this method adds its own.
+     */
+    private static void createCatalogVersionTable(List<String> schema) {
+        String tableSql = """
+            CREATE TABLE IF NOT EXISTS catalog_version (
+                id INTEGER PRIMARY KEY CHECK (id = 1),
+                version INTEGER NOT NULL
+            );
+        """;
+        String seedSql = "INSERT OR IGNORE INTO catalog_version (id, version) VALUES (1, abs(random() >> 16));";
+        String bump = " BEGIN UPDATE catalog_version SET version = version + 1 WHERE id = 1; END;";
+        schema.add(tableSql);
+        schema.add(seedSql);
+        schema.add("CREATE TRIGGER IF NOT EXISTS catalog_version_insert AFTER INSERT ON books" + bump);
+        schema.add("CREATE TRIGGER IF NOT EXISTS catalog_version_delete AFTER DELETE ON books" + bump);
+        schema.add("CREATE TRIGGER IF NOT EXISTS catalog_version_update AFTER UPDATE OF title, author, price ON books" + bump);
     }
 
     /**
      * Creates the orders and order_items tables to store order and order item details.
+     *
+     * @param schema The schema statements, to which this method adds its own.
      */
-    private static void createOrderTables() {
+    private static void createOrderTables(List<String> schema) {
         String createOrdersTableSQL = """
             CREATE TABLE IF NOT EXISTS orders (
                 order_id INTEGER PRIMARY KEY AUTOINCREMENT, 
@@ -96,17 +181,159 @@ public class DatabaseInitializer extends BaseDAO {
             );
         """;
 
-        DatabaseInitializer initializer = new DatabaseInitializer();
-        initializer.executeUpdate(createOrdersTableSQL);
-        System.out.println("Orders table created.");
-        initializer.executeUpdate(createOrderItemsTableSQL);
-        System.out.println("Order items table created.");
+        // Order history pages (per user, latest first) and item lookups by order
+        String ordersByUserIndexSQL = "CREATE INDEX IF NOT EXISTS idx_orders_user_date ON orders (user_id, order_date, order_id);";
+        String orderItemsIndexSQL = "CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id);";
+        // Admin order search: one index per sort key, with and without the user filter, each ending in order_id
+        // for the page cursor (order_number is covered by its UNIQUE index, order_id by the primary key)
+        String[] orderSearchIndexSQL = {
+                "CREATE INDEX IF NOT EXISTS idx_orders_date ON orders (order_date, order_id);",
+                "CREATE INDEX IF NOT EXISTS idx_orders_total ON orders (total_price, order_id);",
+                "CREATE INDEX IF NOT EXISTS idx_orders_user_total ON orders (user_id, total_price, order_id);",
+                "CREATE INDEX IF NOT EXISTS idx_orders_user ON orders (user_id, order_id);"
+        };
+        schema.add(createOrdersTableSQL);
+        schema.add(ordersByUserIndexSQL);
+        for (String indexSQL : orderSearchIndexSQL) {
+            schema.add(indexSQL);
+        }
+        schema.add(createOrderItemsTableSQL);
+        schema.add(orderItemsIndexSQL);
+    }
+
+    /**
+     * Creates the idempotency_keys table, which maps client-generated checkout tokens to the orders they created
+     * so that a repeated checkout returns the original order instead of placing a new one.
+     *
+     * @param schema The schema statements, to which this method adds its own.
+     */
+    private static void createIdempotencyTable(List<String> schema) {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS idempotency_keys (
+                idempotency_key TEXT PRIMARY KEY,
+                order_id INTEGER NOT NULL,
+                order_number TEXT NOT NULL,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                FOREIGN KEY (order_id) REFERENCES orders(order_id)
+            );
+        """;
+        schema.add(sql);
+    }
+
+    /**
+     * Creates the flash_sales table, which records each active flash sale and how many of its
+     * granted copies have already been subtracted from the books table.
+     *
+     * @param schema The schema statements, to which this method adds its own.
+     */
+    private static void createFlashSalesTable(List<String> schema) {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS flash_sales (
+                book_id INTEGER PRIMARY KEY,
+                epoch INTEGER NOT NULL,
+                allocated INTEGER NOT NULL,
+                reconciled INTEGER NOT NULL DEFAULT 0,
+                started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                FOREIGN KEY (book_id) REFERENCES books(id)
+            );
+        """;
+        schema.add(sql);
+    }
+
+    /**
+     * Creates the append-only stock_movements ledger and the stock_snapshots marker.
+     * The marker records the last movement already written into the books table, so startup only
+     * replays the movements after it.
+     *
+     * @param schema The schema statements, to which this method adds its own.
+     */
+    private static void createStockLedgerTables(List<String> schema) {
+        String movementsSql = """
+            CREATE TABLE IF NOT EXISTS stock_movements (
+                movement_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                book_id INTEGER NOT NULL,
+                movement_type TEXT NOT NULL,
+                physical_delta INTEGER NOT NULL,
+                sold_delta INTEGER NOT NULL,
+                reference TEXT,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            );
+        """;
+        String movementsIndexSql = "CREATE INDEX IF NOT EXISTS idx_stock_movements_book ON stock_movements (book_id, movement_id);";
+        String snapshotsSql = """
+            CREATE TABLE IF NOT EXISTS stock_snapshots (
+                id INTEGER PRIMARY KEY CHECK (id = 1),
+                last_movement_id INTEGER NOT NULL,
+                taken_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            );
+        """;
+        schema.add(movementsSql);
+        schema.add(movementsIndexSql);
+        schema.add(snapshotsSql);
+    }
+
+    /**
+     * Creates the pending_stock_reverts table, which keeps reserved copies that could not be returned to stock
+     * because their books stayed locked, until a retry applies them.
+     *
+     * @param schema The schema statements, to which this method adds its own.
+     */
+    private static void createPendingRevertsTable(List<String> schema) {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS pending_stock_reverts (
+                revert_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                book_id INTEGER NOT NULL,
+                quantity INTEGER NOT NULL,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            );
+        """;
+        schema.add(sql);
+    }
+
+    /**
+     * Creates the sales rollup tables: revenue and units per day, per book per day, and per user.
+     * Days are stored as ISO dates (yyyy-MM-dd) so date ranges are primary key range scans, and revenue
+     * is stored in cents so the running sums stay exact.
+     *
+     * @param schema The schema statements, to which this method adds its own.
+     */
+    private static void createSalesRollupTables(List<String> schema) {
+        String dailySql = """
+            CREATE TABLE IF NOT EXISTS sales_daily (
+                day TEXT PRIMARY KEY,
+                order_count INTEGER NOT NULL,
+                units INTEGER NOT NULL,
+                revenue_cents INTEGER NOT NULL
+            );
+        """;
+        String bookDailySql = """
+            CREATE TABLE IF NOT EXISTS sales_book_daily (
+                day TEXT NOT NULL,
+                book_id INTEGER NOT NULL,
+                units INTEGER NOT NULL,
+                revenue_cents INTEGER NOT NULL,
+                PRIMARY KEY (day, book_id)
+            );
+        """;
+        String userSql = """
+            CREATE TABLE IF NOT EXISTS sales_user (
+                user_id INTEGER PRIMARY KEY,
+                order_count INTEGER NOT NULL,
+                units INTEGER NOT NULL,
+                revenue_cents INTEGER NOT NULL
+            );
+        """;
+        schema.add(dailySql);
+        schema.add(bookDailySql);
+        schema.add(userSql);
     }
 
     /**
      * Creates the cart and cart_items tables to store shopping cart details.
+     *
+     * @param schema The schema statements, to which this method adds its own.
      */
-    private static void createCartTables() {
+    private static void createCartTables(List<String> schema) {
         String createCartTableSQL = """
             CREATE TABLE IF NOT EXISTS cart (
                 cart_id INTEGER PRIMARY KEY AUTOINCREMENT, 
@@ -128,12 +355,8 @@ public class DatabaseInitializer extends BaseDAO {
                 UNIQUE(cart_id, book_id) ON CONFLICT REPLACE
             );
         """;
-
-        DatabaseInitializer initializer = new DatabaseInitializer();
-        initializer.executeUpdate(createCartTableSQL);
-        System.out.println("Cart table created.");
-        initializer.executeUpdate(createCartItemsTableSQL);
-        System.out.println("Cart items table created.");
+        schema.add(createCartTableSQL);
+        schema.add(createCartItemsTableSQL);
     }
 
     /**
@@ -141,7 +364,7 @@ public class DatabaseInitializer extends BaseDAO {
      * If not, it creates an admin user with default credentials.
      */
     private static void initializeAdminUser() {
-        String checkAdminSQL = "SELECT COUNT(*) FROM users WHERE username = 'admin'";
+        String checkAdminSQL = "SELECT EXISTS (SELECT 1 FROM users WHERE username = 'admin')";
         String insertAdminSQL = """
             INSERT INTO users (username, password, first_name, last_name, is_admin)
             VALUES ('admin', 'reading_admin', 'Admin', 'Admin', 1)
@@ -169,7 +392,7 @@ public class DatabaseInitializer extends BaseDAO {
      * The initial data includes a set of predefined books with their stock and price.
      */
     private static void populateBooks() {
-        String checkBooksSQL = "SELECT COUNT(*) FROM books";
+        String checkBooksSQL = "SELECT EXISTS (SELECT 1 FROM books)";  // Stops at the first row instead of counting them all
         String insertBooksSQL = """
             INSERT INTO books (title, author, physical_copies, price, sold_copies)
             VALUES (?, ?, ?, ?, ?)
@@ -209,6 +432,7 @@ public class DatabaseInitializer extends BaseDAO {
      * This is typically used during testing or when resetting the database.
      */
     public static void resetBooksStock() {
+        // Writes the books table directly, so it must run before the stock ledger is started
         String resetBooksSQL = """
         UPDATE books SET 
             physical_copies = CASE 
@@ -0,0 +1,216 @@
+package com.thereadingroom.model.dao.database;
+
+import com.thereadingroom.utils.trace.Tracer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-connection cache of prepared statements.
+ * Each physical SQLite connection owned by the HikariCP pool gets its own size-bounded,
+ * LRU-evicted set of prepared statements, so hot queries are parsed and planned once per
+ * connection instead of on every DAO call.
+ *
+ * Statements handed out by this cache are owned by the cache: callers must close the
+ * ResultSets they open but must never close the statement itself. While a trace is in progress,
+ * they are handed out wrapped so each execution is recorded as a span (see Tracer).
+ */
+public class StatementCache {
+
+    // Default number of statements kept per physical connection
+    public static final int DEFAULT_CAPACITY = 64;
+
+    // One cache per physical connection; stale entries are purged when a closed connection is detected
+    private static final Map<Connection, StatementCache> CACHES = new ConcurrentHashMap<>();
+
+    // Global counters shared by all connection caches
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    private static volatile int capacity = DEFAULT_CAPACITY;
+
+    private final Connection physicalConnection;         // The unwrapped (non-pooled) connection owning the statements
+    private final LinkedHashMap<StatementKey, PreparedStatement> statements;  // Access-ordered map giving LRU iteration order
+
+    /**
+     * Creates a cache bound to a single physical connection.
+     *
+     * @param physicalConnection The physical connection the statements are prepared on.
+     */
+    private StatementCache(Connection physicalConnection) {
+        this.physicalConnection = physicalConnection;
+        this.statements = new LinkedHashMap<>(capacity, 0.75f, true);
+    }
+
+    /**
+     * Returns the statement cache for the physical connection behind the given (possibly pooled) connection.
+     *
+     * @param conn A connection borrowed from the pool.
+     * @return The cache bound to the underlying physical connection.
+     * @throws SQLException if the physical connection cannot be unwrapped.
+     */
+    public static StatementCache forConnection(Connection conn) throws SQLException {
+        Connection physical = conn.unwrap(Connection.class);
+        StatementCache cache = CACHES.get(physical);
+        if (cache == null) {
+            purgeClosedConnections();  // A new physical connection usually means the pool retired an old one
+            cache = CACHES.computeIfAbsent(physical, StatementCache::new);
+        }
+        return cache;
+    }
+
+    /**
+     * Sets the maximum number of statements kept per connection.
+     * Existing caches shrink lazily on their next insertion.
+     *
+     * @param newCapacity The new per-connection capacity (must be positive).
+     */
+    public static void setCapacity(int newCapacity) {
+        if (newCapacity <= 0) {
+            throw new IllegalArgumentException("Statement cache capacity must be positive.");
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * Returns a cached prepared statement for the SQL, preparing it on a miss.
+     *
+     * @param sql The SQL to prepare.
+     * @return A ready-to-use prepared statement with cleared parameters.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return Tracer.traced(prepare(sql, Statement.NO_GENERATED_KEYS), sql);
+    }
+
+    /**
+     * Returns a cached prepared statement that exposes generated keys, preparing it on a miss.
+     *
+     * @param sql The INSERT statement to prepare.
+     * @return A ready-to-use prepared statement with cleared parameters.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    public PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+        return Tracer.traced(prepare(sql, Statement.RETURN_GENERATED_KEYS), sql);
+    }
+
+    /**
+     * Looks up or prepares a statement and resets it for reuse.
+     *
+     * @param sql               The SQL to prepare.
+     * @param autoGeneratedKeys Either Statement.NO_GENERATED_KEYS or Statement.RETURN_GENERATED_KEYS.
+     * @return The cached statement.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    private synchronized PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+        PreparedStatement pstmt = statements.get(key);
+
+        if (pstmt != null && !pstmt.isClosed()) {
+            HITS.increment();
+            pstmt.clearParameters();  // Never leak parameters from the previous borrower
+            pstmt.clearBatch();
+            return pstmt;
+        }
+
+        MISSES.increment();
+        pstmt = physicalConnection.prepareStatement(sql, autoGeneratedKeys);
+        statements.put(key, pstmt);
+        evictOverflow();
+        return pstmt;
+    }
+
+    /**
+     * Evicts least-recently-used statements until the cache fits its capacity.
+     */
+    private void evictOverflow() {
+        Iterator<PreparedStatement> iterator = statements.values().iterator();
+        while (statements.size() > capacity && iterator.hasNext()) {
+            PreparedStatement eldest = iterator.next();
+            iterator.remove();
+            closeQuietly(eldest);
+            EVICTIONS.increment();
+        }
+    }
+
+    /**
+     * Returns the number of statements currently cached on this connection.
+     *
+     * @return The cached statement count.
+     */
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    /**
+     * Removes caches whose physical connection has been closed by the pool.
+     */
+    private static void purgeClosedConnections() {
+        CACHES.entrySet().removeIf(entry -> {
+            try {
+                return entry.getKey().isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Closes a statement, ignoring errors (used when evicting).
+     *
+     * @param pstmt The statement to close.
+     */
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            System.out.println("Error closing evicted statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Takes a snapshot of the global cache counters.
+     *
+     * @return The current statement cache statistics.
+     */
+    public static StatementCacheStats getStats() {
+        int cached = 0;
+        for (StatementCache cache : CACHES.values()) {
+            cached += cache.size();
+        }
+        return new StatementCacheStats(HITS.sum(), MISSES.sum(), EVICTIONS.sum(), CACHES.size(), cached);
+    }
+
+    /**
+     * Cache key combining the SQL text with the generated-keys mode it was prepared with.
+     */
+    private static final class StatementKey {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        StatementKey(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatementKey other)) return false;
+            return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + autoGeneratedKeys;
+        }
+    }
+}
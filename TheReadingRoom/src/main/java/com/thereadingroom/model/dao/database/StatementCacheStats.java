@@ -0,0 +1,67 @@
+package com.thereadingroom.model.dao.database;
+
+/**
+ * Immutable snapshot of the prepared statement cache counters.
+ * Used to report how effective statement reuse is across all pooled connections.
+ */
+public class StatementCacheStats {
+
+    private final long hits;              // Lookups served by an already prepared statement
+    private final long misses;            // Lookups that had to prepare a new statement
+    private final long evictions;         // Statements closed to keep caches within capacity
+    private final int connections;        // Physical connections that currently own a cache
+    private final int cachedStatements;   // Statements currently held across all caches
+
+    /**
+     * Creates a snapshot of the cache counters.
+     *
+     * @param hits             Number of cache hits.
+     * @param misses           Number of cache misses.
+     * @param evictions        Number of evicted statements.
+     * @param connections      Number of connections with a cache.
+     * @param cachedStatements Number of statements currently cached.
+     */
+    public StatementCacheStats(long hits, long misses, long evictions, int connections, int cachedStatements) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.connections = connections;
+        this.cachedStatements = cachedStatements;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public int getCachedStatements() {
+        return cachedStatements;
+    }
+
+    /**
+     * Calculates the fraction of lookups served from the cache.
+     *
+     * @return The hit rate between 0.0 and 1.0, or 0.0 if no lookups happened yet.
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Statement cache: hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, connections=%d, cached=%d",
+                hits, misses, getHitRate() * 100, evictions, connections, cachedStatements);
+    }
+}
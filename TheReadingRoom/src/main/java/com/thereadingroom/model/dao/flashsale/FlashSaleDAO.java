@@ -0,0 +1,119 @@
+package com.thereadingroom.model.dao.flashsale;
+
+import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.book.BookDAO;
+import com.thereadingroom.model.dao.ledger.StockLedger;
+import com.thereadingroom.model.entity.FlashSale;
+import com.thereadingroom.model.entity.StockMovement;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO for the flash_sales table.
+ * Reconciliation batches are recorded in the stock ledger, and the sale's reconciled count is updated
+ * in the same transaction as the ledger movement.
+ */
+public class FlashSaleDAO extends BaseDAO implements IFlashSaleDAO {
+
+    public static final String INSERT_SALE_SQL = "INSERT INTO flash_sales (book_id, epoch, allocated, reconciled) VALUES (?, ?, ?, 0)";
+    public static final String ADD_RECONCILED_SQL = "UPDATE flash_sales SET reconciled = reconciled + ? WHERE book_id = ? AND epoch = ?";
+    public static final String DELETE_SALE_SQL = "DELETE FROM flash_sales WHERE book_id = ? AND epoch = ?";
+
+    /**
+     * Starts a sale by recording it against the book's current stock.
+     *
+     * @param bookId The ID of the book.
+     * @param epoch  The unique id of the new sale.
+     * @return The number of copies allocated to the sale, 0 if the book has no stock, or -1 on error.
+     */
+    @Override
+    public int beginSale(int bookId, long epoch) {
+        // The caller holds the book's inventory lock, so the stock cannot change before the sale is recorded
+        int allocated = new BookDAO().getStockForBook(bookId);
+        if (allocated <= 0) {
+            return 0;
+        }
+        return executeUpdate(INSERT_SALE_SQL, bookId, epoch, allocated) ? allocated : -1;
+    }
+
+    /**
+     * Records a batch of granted copies in the stock ledger and adds it to the sale's reconciled count.
+     *
+     * @param bookId The ID of the book.
+     * @param epoch  The unique id of the sale.
+     * @param delta  The net number of copies granted since the last batch (may be negative).
+     * @return true if the batch was applied, false otherwise.
+     */
+    @Override
+    public boolean applyReconciliation(int bookId, long epoch, int delta) {
+        return applyBatch(bookId, epoch, delta, false);
+    }
+
+    /**
+     * Applies the final batch of a sale and removes its flash_sales row.
+     *
+     * @param bookId The ID of the book.
+     * @param epoch  The unique id of the sale.
+     * @param delta  The net number of copies granted since the last batch.
+     * @return true if the sale was closed, false otherwise.
+     */
+    @Override
+    public boolean endSale(int bookId, long epoch, int delta) {
+        return applyBatch(bookId, epoch, delta, true);
+    }
+
+    /**
+     * Retrieves all sales that have not been ended.
+     *
+     * @return A list of active flash sales.
+     */
+    @Override
+    public List<FlashSale> getActiveSales() {
+        String sql = "SELECT book_id, epoch, allocated, reconciled FROM flash_sales";
+        return executeQuery(sql, rs -> {
+            List<FlashSale> sales = new ArrayList<>();
+            try {
+                while (rs.next()) {
+                    sales.add(new FlashSale(
+                            rs.getInt("book_id"),
+                            rs.getLong("epoch"),
+                            rs.getInt("allocated"),
+                            rs.getInt("reconciled")
+                    ));
+                }
+            } catch (SQLException e) {
+                System.out.println("Error reading flash sales: " + e.getMessage());
+            }
+            return sales;
+        });
+    }
+
+    /**
+     * Records a reconciliation batch in the stock ledger, updating or deleting the sale row in the same transaction.
+     * The batch is rejected if the sale row does not exist, so a stale epoch can never touch the stock.
+     *
+     * @param bookId     The ID of the book.
+     * @param epoch      The unique id of the sale.
+     * @param delta      The net number of copies to subtract from the books row.
+     * @param deleteSale Whether to delete the sale row after applying the batch.
+     * @return true if the batch was applied, false otherwise.
+     */
+    private boolean applyBatch(int bookId, long epoch, int delta, boolean deleteSale) {
+        List<StockMovement> movements = delta == 0 ? List.of()
+                : List.of(new StockMovement(bookId, StockMovement.Type.RESERVE, -delta, 0, "flash sale " + epoch));
+        return StockLedger.getInstance().record(movements, conn -> {
+            PreparedStatement saleStmt = prepareCached(conn, deleteSale ? DELETE_SALE_SQL : ADD_RECONCILED_SQL);
+            int index = 1;
+            if (!deleteSale) {
+                saleStmt.setInt(index++, delta);
+            }
+            saleStmt.setInt(index++, bookId);
+            saleStmt.setLong(index, epoch);
+            return saleStmt.executeUpdate() > 0;
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.thereadingroom.model.dao.flashsale;
+
+import com.thereadingroom.model.entity.FlashSale;
+
+import java.util.List;
+
+/**
+ * Interface for flash sale data access operations.
+ * Every method that changes the stock also updates the flash_sales row in the same transaction,
+ * so the persisted reconciled count always matches what has been applied to the stock.
+ */
+public interface IFlashSaleDAO {
+
+    /**
+     * Starts a sale by recording it against the book's current stock.
+     *
+     * @param bookId The ID of the book.
+     * @param epoch  The unique id of the new sale.
+     * @return The number of copies allocated to the sale, 0 if the book has no stock, or -1 on error.
+     */
+    int beginSale(int bookId, long epoch);
+
+    /**
+     * Records a batch of granted copies as a stock movement and adds it to the sale's reconciled count.
+     *
+     * @param bookId The ID of the book.
+     * @param epoch  The unique id of the sale.
+     * @param delta  The net number of copies granted since the last batch (may be negative).
+     * @return true if the batch was applied, false otherwise.
+     */
+    boolean applyReconciliation(int bookId, long epoch, int delta);
+
+    /**
+     * Applies the final batch of a sale and removes its flash_sales row.
+     *
+     * @param bookId The ID of the book.
+     * @param epoch  The unique id of the sale.
+     * @param delta  The net number of copies granted since the last batch.
+     * @return true if the sale was closed, false otherwise.
+     */
+    boolean endSale(int bookId, long epoch, int delta);
+
+    /**
+     * Retrieves all sales that have not been ended.
+     *
+     * @return A list of active flash sales.
+     */
+    List<FlashSale> getActiveSales();
+}
@@ -0,0 +1,26 @@
+package com.thereadingroom.model.dao.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Interface for the idempotency key Data Access Object (DAO).
+ * Keys are written together with the order they produced (see OrderDAO.saveOrder), so this DAO only reads and cleans them up.
+ */
+public interface IIdempotencyDAO {
+
+    /**
+     * Finds the order number recorded for an idempotency key.
+     *
+     * @param idempotencyKey The client-generated checkout token.
+     * @return The order number, or empty if the key has not been used.
+     */
+    Optional<String> findOrderNumber(String idempotencyKey);
+
+    /**
+     * Deletes keys older than the given number of days.
+     *
+     * @param days The retention period in days.
+     * @return true if any keys were deleted.
+     */
+    boolean deleteKeysOlderThan(int days);
+}
@@ -0,0 +1,48 @@
+package com.thereadingroom.model.dao.idempotency;
+
+import com.thereadingroom.model.dao.BaseDAO;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * DAO for the idempotency_keys table, which maps client-generated checkout tokens to the orders they created.
+ */
+public class IdempotencyDAO extends BaseDAO implements IIdempotencyDAO {
+
+    // Written inside the order transaction so a key exists if and only if its order does
+    public static final String INSERT_KEY_SQL = "INSERT INTO idempotency_keys (idempotency_key, order_id, order_number) VALUES (?, ?, ?)";
+    public static final String FIND_ORDER_NUMBER_SQL = "SELECT order_number FROM idempotency_keys WHERE idempotency_key = ?";
+    public static final String DELETE_KEYS_FOR_ORDER_SQL = "DELETE FROM idempotency_keys WHERE order_id = ?";
+
+    /**
+     * Finds the order number recorded for an idempotency key.
+     *
+     * @param idempotencyKey The client-generated checkout token.
+     * @return The order number, or empty if the key has not been used.
+     */
+    @Override
+    public Optional<String> findOrderNumber(String idempotencyKey) {
+        String orderNumber = executeQuery(FIND_ORDER_NUMBER_SQL, rs -> {
+            try {
+                return rs.next() ? rs.getString("order_number") : null;
+            } catch (SQLException e) {
+                System.out.println("Error reading idempotency key: " + e.getMessage());
+                return null;
+            }
+        }, idempotencyKey);
+        return Optional.ofNullable(orderNumber);
+    }
+
+    /**
+     * Deletes keys older than the given number of days.
+     *
+     * @param days The retention period in days.
+     * @return true if any keys were deleted.
+     */
+    @Override
+    public boolean deleteKeysOlderThan(int days) {
+        String sql = "DELETE FROM idempotency_keys WHERE created_at < datetime('now', ?)";
+        return executeUpdate(sql, "-" + days + " days");
+    }
+}
@@ -0,0 +1,37 @@
+package com.thereadingroom.model.dao.inventory;
+
+import com.thereadingroom.model.entity.PendingStockRevert;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interface for the pending_stock_reverts table, which keeps reserved copies that could not be returned
+ * to stock right away (their books stayed locked) until a retry applies them.
+ */
+public interface IPendingRevertDAO {
+
+    /**
+     * Records reverts to apply later.
+     *
+     * @param quantities Map of book ID to the number of copies to return to stock.
+     * @return true if every revert was recorded, false otherwise.
+     */
+    boolean addPendingReverts(Map<Integer, Integer> quantities);
+
+    /**
+     * Retrieves the reverts not applied yet, oldest first.
+     *
+     * @return The pending reverts, or null on error.
+     */
+    List<PendingStockRevert> getPendingReverts();
+
+    /**
+     * Returns the copies of a pending revert to stock and deletes it, in one ledger transaction,
+     * so a revert is never applied twice.
+     *
+     * @param revert The revert to apply.
+     * @return true if the revert was applied, false otherwise (including when it was already applied).
+     */
+    boolean applyPendingRevert(PendingStockRevert revert);
+}
@@ -0,0 +1,77 @@
+package com.thereadingroom.model.dao.inventory;
+
+import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.ledger.StockLedger;
+import com.thereadingroom.model.entity.PendingStockRevert;
+import com.thereadingroom.model.entity.StockMovement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO for the pending_stock_reverts table.
+ * Applying a revert records its stock movement in the stock ledger and deletes the row in the same transaction.
+ */
+public class PendingRevertDAO extends BaseDAO implements IPendingRevertDAO {
+
+    public static final String INSERT_REVERT_SQL = "INSERT INTO pending_stock_reverts (book_id, quantity) VALUES (?, ?)";
+    public static final String DELETE_REVERT_SQL = "DELETE FROM pending_stock_reverts WHERE revert_id = ?";
+
+    /**
+     * Records reverts to apply later.
+     *
+     * @param quantities Map of book ID to the number of copies to return to stock.
+     * @return true if every revert was recorded, false otherwise.
+     */
+    @Override
+    public boolean addPendingReverts(Map<Integer, Integer> quantities) {
+        List<Object[]> params = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            params.add(new Object[]{entry.getKey(), entry.getValue()});
+        }
+        return executeBatchUpdate(INSERT_REVERT_SQL, params);
+    }
+
+    /**
+     * Retrieves the reverts not applied yet, oldest first.
+     *
+     * @return The pending reverts, or null on error.
+     */
+    @Override
+    public List<PendingStockRevert> getPendingReverts() {
+        String sql = "SELECT revert_id, book_id, quantity FROM pending_stock_reverts ORDER BY revert_id";
+        return executeQuery(sql, rs -> {
+            List<PendingStockRevert> reverts = new ArrayList<>();
+            try {
+                while (rs.next()) {
+                    reverts.add(new PendingStockRevert(rs.getLong("revert_id"), rs.getInt("book_id"), rs.getInt("quantity")));
+                }
+            } catch (SQLException e) {
+                System.out.println("Error reading pending stock reverts: " + e.getMessage());
+                return null;
+            }
+            return reverts;
+        });
+    }
+
+    /**
+     * Returns the copies of a pending revert to stock and deletes it, in one ledger transaction.
+     * The movement is rolled back if the row is already gone, so a revert is never applied twice.
+     *
+     * @param revert The revert to apply.
+     * @return true if the revert was applied, false otherwise.
+     */
+    @Override
+    public boolean applyPendingRevert(PendingStockRevert revert) {
+        StockMovement movement = new StockMovement(revert.getBookId(), StockMovement.Type.RELEASE, revert.getQuantity(), 0,
+                "pending revert " + revert.getRevertId());
+        return StockLedger.getInstance().record(List.of(movement), conn -> {
+            PreparedStatement deleteStmt = prepareCached(conn, DELETE_REVERT_SQL);
+            deleteStmt.setLong(1, revert.getRevertId());
+            return deleteStmt.executeUpdate() > 0;
+        });
+    }
+}
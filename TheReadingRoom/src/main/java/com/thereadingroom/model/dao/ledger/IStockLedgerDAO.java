@@ -0,0 +1,79 @@
+package com.thereadingroom.model.dao.ledger;
+
+import com.thereadingroom.model.entity.StockLevel;
+import com.thereadingroom.model.entity.StockMovement;
+
+import java.util.List;
+
+/**
+ * Interface for the stock ledger tables: the append-only stock_movements table and the
+ * stock_snapshots marker recording which movements are already reflected in the books table.
+ */
+public interface IStockLedgerDAO {
+
+    /**
+     * Appends movements in a single batched transaction and assigns their movement IDs.
+     *
+     * @param movements The movements to append (may be empty if only the step needs to run).
+     * @param step      Optional extra work committed in the same transaction, or null.
+     * @return true if the movements (and step) were committed, false otherwise.
+     */
+    boolean appendMovements(List<StockMovement> movements, LedgerTransactionStep step);
+
+    /**
+     * Reads the stock levels stored in the books table (the last snapshot).
+     *
+     * @return The stock level of every book.
+     */
+    List<StockLevel> loadStockLevels();
+
+    /**
+     * Reads the stock level stored in the books table for one book.
+     *
+     * @param bookId The ID of the book.
+     * @return The stock level, or null if the book does not exist.
+     */
+    StockLevel loadStockLevel(int bookId);
+
+    /**
+     * Returns the last movement already reflected in the books table.
+     *
+     * @return The movement ID of the last snapshot, or 0 if no snapshot has been taken.
+     */
+    long getSnapshotMovementId();
+
+    /**
+     * Retrieves the movements written after the given movement, in ledger order.
+     *
+     * @param movementId The last movement to skip.
+     * @return The later movements.
+     */
+    List<StockMovement> getMovementsSince(long movementId);
+
+    /**
+     * Writes stock levels into the books table and advances the snapshot marker in one transaction.
+     *
+     * @param levels     The stock levels to write.
+     * @param movementId The last movement reflected in the levels.
+     * @return true if the snapshot was written, false otherwise.
+     */
+    boolean writeSnapshot(List<StockLevel> levels, long movementId);
+
+    /**
+     * Deletes movements that are covered by the snapshot and older than the retention period.
+     *
+     * @param snapshotMovementId The last movement covered by the snapshot.
+     * @param retentionDays      How long movements are kept for auditing.
+     * @return The number of movements deleted, or -1 on error.
+     */
+    int compactMovements(long snapshotMovementId, int retentionDays);
+
+    /**
+     * Retrieves the most recent movements for a book, newest first.
+     *
+     * @param bookId The ID of the book.
+     * @param limit  The maximum number of movements.
+     * @return The book's recent movements.
+     */
+    List<StockMovement> getMovementsForBook(int bookId, int limit);
+}
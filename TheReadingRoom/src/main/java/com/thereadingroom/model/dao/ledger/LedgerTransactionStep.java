@@ -0,0 +1,21 @@
+package com.thereadingroom.model.dao.ledger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Extra work that must commit or roll back together with a group of stock movements
+ * (e.g., updating a flash sale's reconciled count).
+ */
+@FunctionalInterface
+public interface LedgerTransactionStep {
+
+    /**
+     * Runs the step inside the ledger's transaction.
+     *
+     * @param conn The connection holding the open transaction.
+     * @return true to commit, false to roll back the movements and the step.
+     * @throws SQLException if the step fails (the transaction is rolled back).
+     */
+    boolean apply(Connection conn) throws SQLException;
+}
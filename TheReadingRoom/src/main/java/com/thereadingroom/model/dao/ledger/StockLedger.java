@@ -0,0 +1,575 @@
+package com.thereadingroom.model.dao.ledger;
+
+import com.thereadingroom.model.dao.catalog.BookCatalog;
+import com.thereadingroom.model.entity.Book;
+import com.thereadingroom.model.entity.StockLevel;
+import com.thereadingroom.model.entity.StockMovement;
+import com.thereadingroom.utils.event.DomainEventBus;
+import com.thereadingroom.utils.event.DomainEventType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-sourced stock ledger.
+ * Every stock change is appended to the stock_movements table and applied to an in-memory projection of
+ * each book's physical and sold copies; the books table is only written by periodic snapshots.
+ *
+ * All writes go through a single writer thread. Callers enqueue their movements and wait for the commit,
+ * and the writer drains whatever has queued up into one batched transaction (group commit), so concurrent
+ * checkouts share a transaction instead of each updating the hot books row. At startup the projection is
+ * loaded from the books table and only the movements written after the last snapshot are replayed.
+ */
+public class StockLedger {
+
+    // Writer settings: batch size, snapshot period, compaction period and audit retention
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long SNAPSHOT_INTERVAL_MILLIS = 5_000;
+    private static final long COMPACTION_INTERVAL_MILLIS = 60 * 60 * 1_000;
+    private static final int MOVEMENT_RETENTION_DAYS = 30;
+
+    // Singleton instance
+    private static StockLedger instance;
+
+    private final IStockLedgerDAO ledgerDAO;                                           // Ledger tables
+    private final Map<Integer, StockCounter> projection = new ConcurrentHashMap<>();   // Book ID -> current stock
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();     // Writes waiting for the writer
+    private volatile boolean started;                                                  // Set once the projection is loaded
+    private Thread writer;                                                             // The single writer thread
+
+    // Writer thread state
+    private long lastAppliedMovementId;     // Last movement reflected in the projection
+    private long snapshotMovementId;        // Last movement reflected in the books table
+    private long nextSnapshotAt;            // When the next snapshot is due
+    private long nextCompactionAt;          // When the next compaction is due
+
+    // Private constructor for Singleton pattern
+    private StockLedger() {
+        this(new StockLedgerDAO());
+    }
+
+    /**
+     * Creates a ledger backed by the given DAO.
+     *
+     * @param ledgerDAO DAO for the ledger tables.
+     */
+    public StockLedger(IStockLedgerDAO ledgerDAO) {
+        this.ledgerDAO = ledgerDAO;
+    }
+
+    /**
+     * Singleton - Get the single instance of StockLedger.
+     *
+     * @return The instance of StockLedger.
+     */
+    public static synchronized StockLedger getInstance() {
+        if (instance == null) {
+            instance = new StockLedger();
+        }
+        return instance;
+    }
+
+    /**
+     * Loads the projection from the last snapshot, replays the later movements and starts the writer thread.
+     * Called once the database schema exists; calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        for (StockLevel level : ledgerDAO.loadStockLevels()) {
+            projection.put(level.getBookId(), new StockCounter(level.getPhysicalCopies(), level.getSoldCopies()));
+        }
+        snapshotMovementId = ledgerDAO.getSnapshotMovementId();
+        lastAppliedMovementId = snapshotMovementId;
+
+        List<StockMovement> replay = ledgerDAO.getMovementsSince(snapshotMovementId);
+        for (StockMovement movement : replay) {
+            StockCounter counter = projection.get(movement.getBookId());
+            if (counter != null) {
+                counter.apply(movement.getPhysicalDelta(), movement.getSoldDelta());
+            }
+            lastAppliedMovementId = movement.getMovementId();
+        }
+        System.out.println("Stock ledger loaded " + projection.size() + " books and replayed " + replay.size()
+                + " movements since snapshot #" + snapshotMovementId + ".");
+
+        long now = System.currentTimeMillis();
+        nextSnapshotAt = now + SNAPSHOT_INTERVAL_MILLIS;
+        nextCompactionAt = now;
+        writer = new Thread(this::runWriter, "stock-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+        started = true;
+    }
+
+    /**
+     * Records a stock movement and waits until it is committed.
+     *
+     * @param movement The movement to record.
+     * @return true if the movement was committed and applied, false otherwise.
+     */
+    public boolean record(StockMovement movement) {
+        return record(List.of(movement), null);
+    }
+
+    /**
+     * Records movements together with extra work that must commit in the same transaction, and waits for the commit.
+     *
+     * @param movements The movements to record (may be empty).
+     * @param step      Extra work to run in the movements' transaction, or null.
+     * @return true if everything was committed and applied, false otherwise.
+     */
+    public boolean record(List<StockMovement> movements, LedgerTransactionStep step) {
+        return submit(PendingWrite.movements(movements, step));
+    }
+
+    /**
+     * Records the movement needed to bring a book's stock to the given absolute values (used by admin edits).
+     * The difference is computed by the writer thread, so it is exact even while other movements are queued.
+     *
+     * @param bookId         The ID of the book.
+     * @param physicalCopies The new number of physical copies, or null to leave it unchanged.
+     * @param soldCopies     The new number of sold copies, or null to leave it unchanged.
+     * @param reference      An optional reference for the audit trail, or null.
+     * @return true if the adjustment was committed and applied, false otherwise.
+     */
+    public boolean recordAdjustment(int bookId, Integer physicalCopies, Integer soldCopies, String reference) {
+        return recordAdjustment(bookId, physicalCopies, soldCopies, reference, null);
+    }
+
+    /**
+     * Records an adjustment together with extra work that must commit in the same transaction (e.g., editing the
+     * rest of the book's row), and waits for the commit.
+     *
+     * @param bookId         The ID of the book.
+     * @param physicalCopies The new number of physical copies, or null to leave it unchanged.
+     * @param soldCopies     The new number of sold copies, or null to leave it unchanged.
+     * @param reference      An optional reference for the audit trail, or null.
+     * @param step           Extra work to run in the adjustment's transaction, or null.
+     * @return true if the adjustment and the step were committed and applied, false otherwise.
+     */
+    public boolean recordAdjustment(int bookId, Integer physicalCopies, Integer soldCopies, String reference,
+                                    LedgerTransactionStep step) {
+        return submit(PendingWrite.adjustment(bookId, physicalCopies, soldCopies, reference, step));
+    }
+
+    /**
+     * Returns a book's current stock levels.
+     *
+     * @param bookId The ID of the book.
+     * @return The stock levels, or null if the ledger does not track the book yet.
+     */
+    public StockLevel getStockLevel(int bookId) {
+        StockCounter counter = started ? projection.get(bookId) : null;
+        return counter == null ? null : new StockLevel(bookId, counter.physical, counter.sold);
+    }
+
+    /**
+     * Replaces the (possibly stale) stock values read from the books table with the ledger's current values.
+     *
+     * @param book The book to update.
+     * @return The same book.
+     */
+    public Book applyCurrentStock(Book book) {
+        StockCounter counter = started ? projection.get(book.getBookId()) : null;
+        if (counter != null) {
+            book.setPhysicalCopies(counter.physical);
+            book.setSoldCopies(counter.sold);
+        }
+        return book;
+    }
+
+    /**
+     * Returns the best-selling books by their current sold copies, using a heap bounded to the limit,
+     * so ranking does not copy or sort every book.
+     *
+     * @param limit The maximum number of books.
+     * @return The stock levels of the best sellers, most sold first, or null if the ledger is not started.
+     */
+    public List<StockLevel> getTopSelling(int limit) {
+        if (!started) {
+            return null;
+        }
+        Comparator<StockLevel> bySold = Comparator.comparingInt(StockLevel::getSoldCopies);
+        PriorityQueue<StockLevel> heap = new PriorityQueue<>(limit + 1, bySold);  // Least sold on top
+        for (Map.Entry<Integer, StockCounter> entry : projection.entrySet()) {
+            int sold = entry.getValue().sold;
+            if (heap.size() < limit || sold > heap.peek().getSoldCopies()) {
+                heap.add(new StockLevel(entry.getKey(), entry.getValue().physical, sold));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+        List<StockLevel> topSelling = new ArrayList<>(heap);
+        topSelling.sort(Collections.reverseOrder(bySold));
+        return topSelling;
+    }
+
+    /**
+     * Stops tracking a deleted book, after the writes queued before it.
+     *
+     * @param bookId The ID of the deleted book.
+     */
+    public void forget(int bookId) {
+        if (started) {
+            submit(PendingWrite.forget(bookId));
+        }
+    }
+
+    /**
+     * Returns the most recent movements for a book, newest first.
+     *
+     * @param bookId The ID of the book.
+     * @param limit  The maximum number of movements.
+     * @return The book's recent movements.
+     */
+    public List<StockMovement> getHistory(int bookId, int limit) {
+        return ledgerDAO.getMovementsForBook(bookId, limit);
+    }
+
+    /**
+     * Writes the current projection into the books table and waits for it to finish.
+     *
+     * @return true if the snapshot was written (or nothing had changed), false otherwise.
+     */
+    public boolean snapshotNow() {
+        return submit(PendingWrite.control(PendingWrite.Kind.SNAPSHOT));
+    }
+
+    /**
+     * Writes a final snapshot and stops the writer thread.
+     */
+    public void shutdown() {
+        if (started) {
+            submit(PendingWrite.control(PendingWrite.Kind.STOP));
+        }
+    }
+
+    /**
+     * Hands a write to the writer thread and waits for its outcome.
+     *
+     * @param write The write to perform.
+     * @return The outcome reported by the writer.
+     */
+    private boolean submit(PendingWrite write) {
+        if (!started) {
+            start();
+        }
+        if (!writer.isAlive()) {
+            System.out.println("Stock ledger is not running; the stock change was not recorded.");
+            return false;
+        }
+        queue.add(write);
+        return write.done.join();
+    }
+
+    /**
+     * Writer thread loop: drains queued writes into batches and takes snapshots and compactions when due.
+     */
+    private void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        boolean running = true;
+        while (running) {
+            try {
+                long wait = Math.max(1, nextSnapshotAt - System.currentTimeMillis());
+                PendingWrite first = queue.poll(wait, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                    running = processBatch(batch);
+                    batch.clear();
+                }
+                long now = System.currentTimeMillis();
+                if (now >= nextSnapshotAt) {
+                    takeSnapshot();
+                    nextSnapshotAt = now + SNAPSHOT_INTERVAL_MILLIS;
+                }
+                if (now >= nextCompactionAt) {
+                    compact();
+                    nextCompactionAt = now + COMPACTION_INTERVAL_MILLIS;
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                System.out.println("Error in stock ledger writer: " + e.getMessage());
+                for (PendingWrite write : batch) {
+                    write.done.complete(false);
+                }
+                batch.clear();
+            }
+        }
+        takeSnapshot();
+        for (PendingWrite write = queue.poll(); write != null; write = queue.poll()) {
+            write.done.complete(false);
+        }
+    }
+
+    /**
+     * Processes a batch of queued writes in order. Plain movements are grouped into one transaction;
+     * writes carrying a transaction step and control requests are handled on their own.
+     *
+     * @param batch The queued writes.
+     * @return false if the writer was asked to stop, true otherwise.
+     */
+    private boolean processBatch(List<PendingWrite> batch) {
+        List<PendingWrite> group = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            boolean stockWrite = write.kind == PendingWrite.Kind.MOVEMENTS || write.kind == PendingWrite.Kind.ADJUSTMENT;
+            if (stockWrite && write.step == null) {
+                group.add(write);
+                continue;
+            }
+            commitGroup(group);
+            group.clear();
+            if (stockWrite) {
+                commitGroup(List.of(write));
+            } else if (write.kind == PendingWrite.Kind.FORGET) {
+                projection.remove(write.bookId);
+                write.done.complete(true);
+            } else if (write.kind == PendingWrite.Kind.SNAPSHOT) {
+                write.done.complete(takeSnapshot());
+            } else {
+                write.done.complete(takeSnapshot());
+                return false;
+            }
+        }
+        commitGroup(group);
+        return true;
+    }
+
+    /**
+     * Commits a group of writes in one transaction, applies them to the projection and the catalog snapshot,
+     * and publishes a STOCK_CHANGED event with the resulting stock for each committed movement.
+     * If the group's transaction fails, its writes are committed one at a time, so only the offending write fails.
+     *
+     * @param group The writes to commit together.
+     */
+    private void commitGroup(List<PendingWrite> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+
+        // Resolve each write against the projection plus the earlier writes of this group
+        Map<Integer, int[]> pending = new HashMap<>();
+        List<StockMovement> movements = new ArrayList<>();
+        List<PendingWrite> accepted = new ArrayList<>();
+        for (PendingWrite write : group) {
+            List<StockMovement> resolved = resolve(write, pending);
+            if (resolved == null) {
+                write.done.complete(false);
+                continue;
+            }
+            for (StockMovement movement : resolved) {
+                int[] delta = pending.computeIfAbsent(movement.getBookId(), id -> new int[2]);
+                delta[0] += movement.getPhysicalDelta();
+                delta[1] += movement.getSoldDelta();
+            }
+            movements.addAll(resolved);
+            accepted.add(write);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        if (movements.isEmpty() && accepted.get(0).step == null) {
+            accepted.forEach(write -> write.done.complete(true));
+            return;
+        }
+
+        boolean committed = ledgerDAO.appendMovements(movements, accepted.get(0).step);
+        if (!committed && accepted.size() > 1) {
+            System.out.println("Stock ledger group commit failed; retrying its " + accepted.size() + " writes one at a time.");
+            for (PendingWrite write : accepted) {
+                commitGroup(List.of(write));
+            }
+            return;
+        }
+        if (committed) {
+            Map<Integer, int[]> stockChanges = new HashMap<>();
+            for (StockMovement movement : movements) {
+                StockCounter counter = projection.get(movement.getBookId());
+                counter.apply(movement.getPhysicalDelta(), movement.getSoldDelta());
+                lastAppliedMovementId = movement.getMovementId();
+                stockChanges.put(movement.getBookId(), new int[]{counter.physical, counter.sold});
+            }
+            BookCatalog.getInstance().updateStock(stockChanges);
+            DomainEventBus eventBus = DomainEventBus.getInstance();
+            for (StockMovement movement : movements) {
+                int[] stock = stockChanges.get(movement.getBookId());
+                eventBus.publish(DomainEventType.STOCK_CHANGED, movement.getBookId(), stock[1], stock[0]);
+            }
+        }
+        accepted.forEach(write -> write.done.complete(committed));
+    }
+
+    /**
+     * Turns a write into the movements to append, loading unknown books from the books table.
+     *
+     * @param write   The write to resolve.
+     * @param pending Deltas of the earlier writes in the same group, by book ID.
+     * @return The movements to append (empty if nothing changes), or null if the book does not exist.
+     */
+    private List<StockMovement> resolve(PendingWrite write, Map<Integer, int[]> pending) {
+        if (write.kind == PendingWrite.Kind.MOVEMENTS) {
+            List<StockMovement> movements = new ArrayList<>();
+            for (StockMovement movement : write.movements) {
+                if (counterFor(movement.getBookId()) == null) {
+                    return null;
+                }
+                if (movement.getPhysicalDelta() != 0 || movement.getSoldDelta() != 0) {
+                    movements.add(movement);
+                }
+            }
+            return movements;
+        }
+
+        StockCounter counter = counterFor(write.bookId);
+        if (counter == null) {
+            return null;
+        }
+        int[] delta = pending.getOrDefault(write.bookId, new int[2]);
+        int physicalDelta = write.physicalTarget == null ? 0 : write.physicalTarget - (counter.physical + delta[0]);
+        int soldDelta = write.soldTarget == null ? 0 : write.soldTarget - (counter.sold + delta[1]);
+        if (physicalDelta == 0 && soldDelta == 0) {
+            return List.of();
+        }
+        StockMovement.Type type = physicalDelta > 0 && soldDelta == 0 ? StockMovement.Type.RESTOCK : StockMovement.Type.ADJUST;
+        return List.of(new StockMovement(write.bookId, type, physicalDelta, soldDelta, write.reference));
+    }
+
+    /**
+     * Returns the projection entry for a book, loading it from the books table if the book was added after startup.
+     *
+     * @param bookId The ID of the book.
+     * @return The book's counter, or null if the book does not exist.
+     */
+    private StockCounter counterFor(int bookId) {
+        StockCounter counter = projection.get(bookId);
+        if (counter == null) {
+            StockLevel level = ledgerDAO.loadStockLevel(bookId);
+            if (level != null) {
+                counter = new StockCounter(level.getPhysicalCopies(), level.getSoldCopies());
+                projection.put(bookId, counter);
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Writes the books whose stock changed since the last snapshot into the books table.
+     *
+     * @return true if the snapshot was written or nothing had changed, false otherwise.
+     */
+    private boolean takeSnapshot() {
+        if (lastAppliedMovementId == snapshotMovementId) {
+            return true;
+        }
+        List<StockLevel> levels = new ArrayList<>();
+        List<StockCounter> written = new ArrayList<>();
+        for (Map.Entry<Integer, StockCounter> entry : projection.entrySet()) {
+            StockCounter counter = entry.getValue();
+            if (counter.dirty) {
+                levels.add(new StockLevel(entry.getKey(), counter.physical, counter.sold));
+                written.add(counter);
+            }
+        }
+        if (!ledgerDAO.writeSnapshot(levels, lastAppliedMovementId)) {
+            return false;
+        }
+        written.forEach(counter -> counter.dirty = false);
+        snapshotMovementId = lastAppliedMovementId;
+        return true;
+    }
+
+    /**
+     * Deletes movements that are covered by the snapshot and past the audit retention period.
+     */
+    private void compact() {
+        int deleted = ledgerDAO.compactMovements(snapshotMovementId, MOVEMENT_RETENTION_DAYS);
+        if (deleted > 0) {
+            System.out.println("Compacted " + deleted + " stock movements older than " + MOVEMENT_RETENTION_DAYS + " days.");
+        }
+    }
+
+    /**
+     * Current stock of one book. Only the writer thread changes it; readers see the latest committed values.
+     */
+    private static final class StockCounter {
+        private volatile int physical;   // Current physical copies
+        private volatile int sold;       // Current sold copies
+        private boolean dirty;           // Changed since the last snapshot (writer thread only)
+
+        StockCounter(int physical, int sold) {
+            this.physical = physical;
+            this.sold = sold;
+        }
+
+        /**
+         * Applies a committed movement.
+         *
+         * @param physicalDelta The change to the physical copies.
+         * @param soldDelta     The change to the sold copies.
+         */
+        void apply(int physicalDelta, int soldDelta) {
+            physical += physicalDelta;
+            sold += soldDelta;
+            dirty = true;
+        }
+    }
+
+    /**
+     * A write queued for the writer thread, completed with its outcome.
+     */
+    private static final class PendingWrite {
+
+        enum Kind { MOVEMENTS, ADJUSTMENT, FORGET, SNAPSHOT, STOP }
+
+        private final Kind kind;
+        private final List<StockMovement> movements;
+        private final LedgerTransactionStep step;
+        private final int bookId;
+        private final Integer physicalTarget;
+        private final Integer soldTarget;
+        private final String reference;
+        private final CompletableFuture<Boolean> done = new CompletableFuture<>();
+
+        private PendingWrite(Kind kind, List<StockMovement> movements, LedgerTransactionStep step,
+                             int bookId, Integer physicalTarget, Integer soldTarget, String reference) {
+            this.kind = kind;
+            this.movements = movements;
+            this.step = step;
+            this.bookId = bookId;
+            this.physicalTarget = physicalTarget;
+            this.soldTarget = soldTarget;
+            this.reference = reference;
+        }
+
+        static PendingWrite movements(List<StockMovement> movements, LedgerTransactionStep step) {
+            return new PendingWrite(Kind.MOVEMENTS, movements, step, 0, null, null, null);
+        }
+
+        static PendingWrite adjustment(int bookId, Integer physicalTarget, Integer soldTarget, String reference,
+                                       LedgerTransactionStep step) {
+            return new PendingWrite(Kind.ADJUSTMENT, List.of(), step, bookId, physicalTarget, soldTarget, reference);
+        }
+
+        static PendingWrite forget(int bookId) {
+            return new PendingWrite(Kind.FORGET, List.of(), null, bookId, null, null, null);
+        }
+
+        static PendingWrite control(Kind kind) {
+            return new PendingWrite(kind, List.of(), null, 0, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.thereadingroom.model.dao.ledger;
+
+import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.cdc.ChangeDataCapture;
+import com.thereadingroom.model.dao.database.Database;
+import com.thereadingroom.model.entity.StockLevel;
+import com.thereadingroom.model.entity.StockMovement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO for the stock ledger.
+ * Movements are written with batched inserts; snapshots copy the in-memory stock levels into the books table.
+ */
+public class StockLedgerDAO extends BaseDAO implements IStockLedgerDAO {
+
+    public static final String INSERT_MOVEMENT_SQL = "INSERT INTO stock_movements (book_id, movement_type, physical_delta, sold_delta, reference) VALUES (?, ?, ?, ?, ?)";
+    public static final String LAST_MOVEMENT_ID_SQL = "SELECT last_insert_rowid()";
+    public static final String WRITE_STOCK_SQL = "UPDATE books SET physical_copies = ?, sold_copies = ? WHERE id = ?";
+    public static final String WRITE_SNAPSHOT_SQL = "INSERT OR REPLACE INTO stock_snapshots (id, last_movement_id, taken_at) VALUES (1, ?, CURRENT_TIMESTAMP)";
+
+    /**
+     * Appends movements in a single batched transaction and assigns their movement IDs.
+     *
+     * @param movements The movements to append (may be empty if only the step needs to run).
+     * @param step      Optional extra work committed in the same transaction, or null.
+     * @return true if the movements (and step) were committed, false otherwise.
+     */
+    @Override
+    public boolean appendMovements(List<StockMovement> movements, LedgerTransactionStep step) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!movements.isEmpty()) {
+                    PreparedStatement insertStmt = prepareCached(conn, INSERT_MOVEMENT_SQL);
+                    for (StockMovement movement : movements) {
+                        insertStmt.setInt(1, movement.getBookId());
+                        insertStmt.setString(2, movement.getType().name());
+                        insertStmt.setInt(3, movement.getPhysicalDelta());
+                        insertStmt.setInt(4, movement.getSoldDelta());
+                        if (movement.getReference() == null) {
+                            insertStmt.setNull(5, Types.VARCHAR);
+                        } else {
+                            insertStmt.setString(5, movement.getReference());
+                        }
+                        insertStmt.addBatch();
+                    }
+                    insertStmt.executeBatch();
+                }
+                if (step != null && !step.apply(conn)) {
+                    conn.rollback();
+                    return false;
+                }
+
+                long lastId = movements.isEmpty() ? 0 : lastInsertedId(conn);
+                conn.commit();
+
+                // Only this DAO's single writer appends, so the batch received consecutive IDs
+                for (int i = 0; i < movements.size(); i++) {
+                    movements.get(i).setMovementId(lastId - movements.size() + 1 + i);
+                }
+                return true;
+            } catch (SQLException e) {
+                // Cached statements bypass the pool's dirty tracking, so roll back explicitly
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.out.println("Error appending stock movements: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Reads the stock levels stored in the books table (the last snapshot).
+     *
+     * @return The stock level of every book.
+     */
+    @Override
+    public List<StockLevel> loadStockLevels() {
+        String sql = "SELECT id, physical_copies, sold_copies FROM books";
+        return executeQuery(sql, rs -> {
+            List<StockLevel> levels = new ArrayList<>();
+            try {
+                while (rs.next()) {
+                    levels.add(mapToStockLevel(rs));
+                }
+            } catch (SQLException e) {
+                System.out.println("Error reading stock levels: " + e.getMessage());
+            }
+            return levels;
+        });
+    }
+
+    /**
+     * Reads the stock level stored in the books table for one book.
+     *
+     * @param bookId The ID of the book.
+     * @return The stock level, or null if the book does not exist.
+     */
+    @Override
+    public StockLevel loadStockLevel(int bookId) {
+        String sql = "SELECT id, physical_copies, sold_copies FROM books WHERE id = ?";
+        return executeQuery(sql, rs -> {
+            try {
+                return rs.next() ? mapToStockLevel(rs) : null;
+            } catch (SQLException e) {
+                System.out.println("Error reading stock level: " + e.getMessage());
+                return null;
+            }
+        }, bookId);
+    }
+
+    /**
+     * Returns the last movement already reflected in the books table.
+     *
+     * @return The movement ID of the last snapshot, or 0 if no snapshot has been taken.
+     */
+    @Override
+    public long getSnapshotMovementId() {
+        String sql = "SELECT last_movement_id FROM stock_snapshots WHERE id = 1";
+        return executeQuery(sql, rs -> {
+            try {
+                return rs.next() ? rs.getLong("last_movement_id") : 0L;
+            } catch (SQLException e) {
+                System.out.println("Error reading stock snapshot: " + e.getMessage());
+                return 0L;
+            }
+        });
+    }
+
+    /**
+     * Retrieves the movements written after the given movement, in ledger order.
+     *
+     * @param movementId The last movement to skip.
+     * @return The later movements.
+     */
+    @Override
+    public List<StockMovement> getMovementsSince(long movementId) {
+        String sql = "SELECT * FROM stock_movements WHERE movement_id > ? ORDER BY movement_id";
+        return executeQuery(sql, this::mapToMovementList, movementId);
+    }
+
+    /**
+     * Writes stock levels into the books table and advances the snapshot marker in one transaction.
+     * The ledger already published these stock values, so the rows written are left out of change data capture.
+     *
+     * @param levels     The stock levels to write.
+     * @param movementId The last movement reflected in the levels.
+     * @return true if the snapshot was written, false otherwise.
+     */
+    @Override
+    public boolean writeSnapshot(List<StockLevel> levels, long movementId) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            ChangeDataCapture.getInstance().ignoreTransaction(conn);
+            try {
+                PreparedStatement stockStmt = prepareCached(conn, WRITE_STOCK_SQL);
+                for (StockLevel level : levels) {
+                    stockStmt.setInt(1, level.getPhysicalCopies());
+                    stockStmt.setInt(2, level.getSoldCopies());
+                    stockStmt.setInt(3, level.getBookId());
+                    stockStmt.addBatch();
+                }
+                stockStmt.executeBatch();
+
+                PreparedStatement snapshotStmt = prepareCached(conn, WRITE_SNAPSHOT_SQL);
+                snapshotStmt.setLong(1, movementId);
+                snapshotStmt.executeUpdate();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                // Cached statements bypass the pool's dirty tracking, so roll back explicitly
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.out.println("Error writing stock snapshot: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Deletes movements that are covered by the snapshot and older than the retention period.
+     *
+     * @param snapshotMovementId The last movement covered by the snapshot.
+     * @param retentionDays      How long movements are kept for auditing.
+     * @return The number of movements deleted, or -1 on error.
+     */
+    @Override
+    public int compactMovements(long snapshotMovementId, int retentionDays) {
+        String sql = "DELETE FROM stock_movements WHERE movement_id <= ? AND created_at < datetime('now', ?)";
+        try (Connection conn = Database.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, snapshotMovementId);
+            pstmt.setString(2, "-" + retentionDays + " days");
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error compacting stock movements: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the most recent movements for a book, newest first.
+     *
+     * @param bookId The ID of the book.
+     * @param limit  The maximum number of movements.
+     * @return The book's recent movements.
+     */
+    @Override
+    public List<StockMovement> getMovementsForBook(int bookId, int limit) {
+        String sql = "SELECT * FROM stock_movements WHERE book_id = ? ORDER BY movement_id DESC LIMIT ?";
+        return executeQuery(sql, this::mapToMovementList, bookId, limit);
+    }
+
+    /**
+     * Reads the ID assigned to the last row inserted on this connection.
+     *
+     * @param conn The connection the rows were inserted on.
+     * @return The last inserted movement ID.
+     * @throws SQLException if the ID cannot be read.
+     */
+    private long lastInsertedId(Connection conn) throws SQLException {
+        try (ResultSet rs = prepareCached(conn, LAST_MOVEMENT_ID_SQL).executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Maps the current row to a StockLevel.
+     *
+     * @param rs The ResultSet positioned on a books row.
+     * @return The stock level.
+     * @throws SQLException if the row cannot be read.
+     */
+    private StockLevel mapToStockLevel(ResultSet rs) throws SQLException {
+        return new StockLevel(rs.getInt("id"), rs.getInt("physical_copies"), rs.getInt("sold_copies"));
+    }
+
+    /**
+     * Maps a result set to a list of movements.
+     *
+     * @param rs The ResultSet of stock_movements rows.
+     * @return The movements.
+     */
+    private List<StockMovement> mapToMovementList(ResultSet rs) {
+        List<StockMovement> movements = new ArrayList<>();
+        try {
+            while (rs.next()) {
+                movements.add(new StockMovement(
+                        rs.getLong("movement_id"),
+                        rs.getInt("book_id"),
+                        StockMovement.Type.valueOf(rs.getString("movement_type")),
+                        rs.getInt("physical_delta"),
+                        rs.getInt("sold_delta"),
+                        rs.getString("reference")
+                ));
+            }
+        } catch (SQLException e) {
+            System.out.println("Error reading stock movements: " + e.getMessage());
+        }
+        return movements;
+    }
+}
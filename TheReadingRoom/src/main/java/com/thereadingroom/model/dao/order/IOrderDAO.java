@@ -1,6 +1,8 @@
 package com.thereadingroom.model.dao.order;
 
 import com.thereadingroom.model.entity.Order;
+import com.thereadingroom.model.entity.OrderItem;
+import com.thereadingroom.model.entity.OrderSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +21,15 @@ public interface IOrderDAO {
      */
     boolean saveOrder(Order order);
 
+    /**
+     * Saves an order and records the idempotency key of the checkout that produced it, atomically.
+     *
+     * @param order          The Order object to save.
+     * @param idempotencyKey The checkout token, or null if the order is not idempotent.
+     * @return true if the order was saved successfully, false otherwise.
+     */
+    boolean saveOrder(Order order, String idempotencyKey);
+
     /**
      * Retrieves all orders made by a specific user.
      *
@@ -35,6 +46,33 @@ public interface IOrderDAO {
      */
     Optional<Order> getOrderById(int orderId);
 
+    /**
+     * Retrieves one page of a user's order history, latest first, without the order items.
+     * Pages are read with a keyset cursor, so later pages cost the same as the first one.
+     *
+     * @param userId The ID of the user.
+     * @param after  The last summary of the previous page, or null for the first page.
+     * @param limit  The maximum number of summaries to return.
+     * @return The summaries of the page; fewer than the limit means there are no more orders.
+     */
+    List<OrderSummary> getOrderSummariesByUser(int userId, OrderSummary after, int limit);
+
+    /**
+     * Retrieves the items of an order.
+     *
+     * @param orderId The ID of the order.
+     * @return The order's items, or an empty list if the order has none or cannot be read.
+     */
+    List<OrderItem> getOrderItems(int orderId);
+
+    /**
+     * Retrieves one page of the orders matching a query, without their items.
+     *
+     * @param query The filters, sort order and page cursor.
+     * @return The orders of the page; fewer than the query's limit means there are no more matches.
+     */
+    List<Order> findOrders(OrderQuery query);
+
     /**
      * Retrieves a subset of orders by their IDs, for a specific user.
      *
@@ -1,9 +1,15 @@
 package com.thereadingroom.model.dao.order;
 
 import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.analytics.ISalesRollupDAO;
+import com.thereadingroom.model.dao.analytics.SalesRollupDAO;
 import com.thereadingroom.model.dao.database.Database;
+import com.thereadingroom.model.dao.idempotency.IdempotencyDAO;
 import com.thereadingroom.model.entity.Order;
 import com.thereadingroom.model.entity.OrderItem;
+import com.thereadingroom.model.entity.OrderSummary;
+import com.thereadingroom.utils.event.DomainEventBus;
+import com.thereadingroom.utils.event.DomainEventType;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -17,9 +23,28 @@ import java.util.stream.Collectors;
 /**
  * Implementation of the IOrderDAO interface for interacting with the orders table in the database.
  * Provides methods to save, retrieve, and delete orders.
+ * Each committed order is announced with an ORDER_PLACED event on the DomainEventBus.
+ * Saving and deleting an order also updates the sales rollups in the same transaction.
  */
 public class OrderDAO extends BaseDAO implements IOrderDAO {
 
+    // Hot statements that are pre-prepared on every pooled connection at startup
+    public static final String INSERT_ORDER_SQL = "INSERT INTO orders (order_number, user_id, total_price, order_date) VALUES (?, ?, ?, ?)";
+    public static final String INSERT_ORDER_ITEM_SQL = "INSERT INTO order_items (order_id, book_id, title, quantity, price) VALUES (?, ?, ?, ?, ?)";
+    public static final String FETCH_ORDER_ITEMS_SQL = "SELECT * FROM order_items WHERE order_id = ?";
+    private static final String FETCH_ORDER_BY_ID_SQL = "SELECT * FROM orders WHERE order_id = ?";
+
+    // Order history pages, latest first; both are served by idx_orders_user_date and idx_order_items_order
+    private static final String ORDER_SUMMARY_COLUMNS = "SELECT o.order_id, o.order_number, o.total_price, o.order_date, "
+            + "(SELECT COUNT(*) FROM order_items i WHERE i.order_id = o.order_id) AS item_count FROM orders o ";
+    private static final String FIRST_SUMMARY_PAGE_SQL = ORDER_SUMMARY_COLUMNS
+            + "WHERE o.user_id = ? ORDER BY o.order_date DESC, o.order_id DESC LIMIT ?";
+    private static final String NEXT_SUMMARY_PAGE_SQL = ORDER_SUMMARY_COLUMNS
+            + "WHERE o.user_id = ? AND (o.order_date < ? OR (o.order_date = ? AND o.order_id < ?)) "
+            + "ORDER BY o.order_date DESC, o.order_id DESC LIMIT ?";
+
+    private final ISalesRollupDAO salesRollupDAO = new SalesRollupDAO();  // Keeps the sales rollups in step with the orders
+
     /**
      * Saves an order in the database along with its associated order items.
      * Uses a transaction to ensure atomicity of the operation.
@@ -29,23 +54,44 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
      */
     @Override
     public boolean saveOrder(Order order) {
-        String insertOrderSQL = "INSERT INTO orders (order_number, user_id, total_price, order_date) VALUES (?, ?, ?, ?)";
-        String insertOrderItemSQL = "INSERT INTO order_items (order_id, book_id, title, quantity, price) VALUES (?, ?, ?, ?, ?)";
+        return saveOrder(order, null);
+    }
 
+    /**
+     * Saves an order together with the idempotency key of the checkout that produced it.
+     * The key is inserted in the same transaction as the order, so a duplicate key rolls back the whole order.
+     *
+     * @param order          The Order object to save.
+     * @param idempotencyKey The checkout token, or null if the order is not idempotent.
+     * @return true if the order is saved successfully, false otherwise (including when the key was already used).
+     */
+    @Override
+    public boolean saveOrder(Order order, String idempotencyKey) {
         try (Connection conn = Database.getInstance().getConnection()) {
             conn.setAutoCommit(false); // Start transaction
-
-            // Insert the order and retrieve the generated order ID
-            int orderId = insertOrder(conn, insertOrderSQL, order);
-
-            if (orderId != -1) {
-                order.setOrderId(orderId);
-                // Insert associated order items
-                insertOrderItems(conn, insertOrderItemSQL, order.getOrderItems(), orderId);
-                conn.commit();  // Commit transaction
-                return true;
+            try {
+                // Insert the order and retrieve the generated order ID
+                int orderId = insertOrder(conn, INSERT_ORDER_SQL, order);
+
+                if (orderId != -1) {
+                    order.setOrderId(orderId);
+                    // Insert associated order items
+                    insertOrderItems(conn, INSERT_ORDER_ITEM_SQL, order.getOrderItems(), orderId);
+                    if (idempotencyKey != null) {
+                        insertIdempotencyKey(conn, idempotencyKey, order);
+                    }
+                    salesRollupDAO.applyOrder(conn, order, 1);
+                    conn.commit();  // Commit transaction
+                    DomainEventBus.getInstance().publish(DomainEventType.ORDER_PLACED, orderId, order.getUserId(),
+                            Math.round(order.getTotalPrice() * 100));
+                    return true;
+                }
+                conn.rollback();
+            } catch (SQLException e) {
+                // Cached statements bypass the pool's dirty tracking, so roll back explicitly
+                conn.rollback();
+                throw e;
             }
-
         } catch (SQLException e) {
             System.out.println("Error saving order: " + e.getMessage());
         }
@@ -62,14 +108,14 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
      * @return The generated order ID, or -1 if insertion failed.
      */
     private int insertOrder(Connection conn, String sql, Order order) throws SQLException {
-        try (PreparedStatement orderStmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            orderStmt.setString(1, order.getOrderNumber());
-            orderStmt.setInt(2, order.getUserId());
-            orderStmt.setDouble(3, order.getTotalPrice());
-            orderStmt.setTimestamp(4, Timestamp.valueOf(order.getOrderDate()));
-            orderStmt.executeUpdate();
-
-            ResultSet rs = orderStmt.getGeneratedKeys();
+        PreparedStatement orderStmt = prepareCachedReturningKeys(conn, sql);
+        orderStmt.setString(1, order.getOrderNumber());
+        orderStmt.setInt(2, order.getUserId());
+        orderStmt.setDouble(3, order.getTotalPrice());
+        orderStmt.setTimestamp(4, Timestamp.valueOf(order.getOrderDate()));
+        orderStmt.executeUpdate();
+
+        try (ResultSet rs = orderStmt.getGeneratedKeys()) {
             if (rs.next()) {
                 return rs.getInt(1);  // Return the generated order ID
             }
@@ -86,17 +132,32 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
      * @param orderId    The ID of the order the items are associated with.
      */
     private void insertOrderItems(Connection conn, String sql, List<OrderItem> orderItems, int orderId) throws SQLException {
-        try (PreparedStatement itemStmt = conn.prepareStatement(sql)) {
-            for (OrderItem item : orderItems) {
-                itemStmt.setInt(1, orderId);
-                itemStmt.setInt(2, item.getBookId());
-                itemStmt.setString(3, item.getTitle());
-                itemStmt.setInt(4, item.getQuantity());
-                itemStmt.setDouble(5, item.getPrice());
-                itemStmt.addBatch();  // Add each item to the batch
-            }
-            itemStmt.executeBatch();  // Execute the batch
+        PreparedStatement itemStmt = prepareCached(conn, sql);
+        for (OrderItem item : orderItems) {
+            itemStmt.setInt(1, orderId);
+            itemStmt.setInt(2, item.getBookId());
+            itemStmt.setString(3, item.getTitle());
+            itemStmt.setInt(4, item.getQuantity());
+            itemStmt.setDouble(5, item.getPrice());
+            itemStmt.addBatch();  // Add each item to the batch
         }
+        itemStmt.executeBatch();  // Execute the batch
+    }
+
+    /**
+     * Records the idempotency key for an order inside the order's transaction.
+     *
+     * @param conn           The database connection with an open transaction.
+     * @param idempotencyKey The checkout token.
+     * @param order          The order that was just inserted.
+     * @throws SQLException if the key already exists or cannot be inserted.
+     */
+    private void insertIdempotencyKey(Connection conn, String idempotencyKey, Order order) throws SQLException {
+        PreparedStatement keyStmt = prepareCached(conn, IdempotencyDAO.INSERT_KEY_SQL);
+        keyStmt.setString(1, idempotencyKey);
+        keyStmt.setInt(2, order.getOrderId());
+        keyStmt.setString(3, order.getOrderNumber());
+        keyStmt.executeUpdate();
     }
 
     /**
@@ -111,6 +172,88 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
         return fetchOrders(fetchOrdersSQL, userId);
     }
 
+    /**
+     * Retrieves one page of a user's order history, latest first, without the order items.
+     * The next page starts right after the (order date, order ID) of the previous page's last summary.
+     *
+     * @param userId The ID of the user.
+     * @param after  The last summary of the previous page, or null for the first page.
+     * @param limit  The maximum number of summaries to return.
+     * @return The summaries of the page; fewer than the limit means there are no more orders.
+     */
+    @Override
+    public List<OrderSummary> getOrderSummariesByUser(int userId, OrderSummary after, int limit) {
+        List<OrderSummary> summaries = new ArrayList<>();
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, after == null ? FIRST_SUMMARY_PAGE_SQL : NEXT_SUMMARY_PAGE_SQL);
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            if (after != null) {
+                Timestamp afterDate = Timestamp.valueOf(after.getOrderDate());
+                pstmt.setTimestamp(index++, afterDate);
+                pstmt.setTimestamp(index++, afterDate);
+                pstmt.setInt(index++, after.getOrderId());
+            }
+            pstmt.setInt(index, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp orderDate = rs.getTimestamp("order_date");
+                    summaries.add(new OrderSummary(
+                            rs.getInt("order_id"),
+                            rs.getString("order_number"),
+                            rs.getDouble("total_price"),
+                            orderDate != null ? orderDate.toLocalDateTime() : LocalDateTime.now(),
+                            rs.getInt("item_count")));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching order summaries: " + e.getMessage());
+        }
+        return summaries;
+    }
+
+    /**
+     * Retrieves the items of an order.
+     *
+     * @param orderId The ID of the order.
+     * @return The order's items, or an empty list if the order has none or cannot be read.
+     */
+    @Override
+    public List<OrderItem> getOrderItems(int orderId) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            return fetchOrderItems(orderId, conn);
+        } catch (SQLException e) {
+            System.out.println("Error fetching order items: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves one page of the orders matching a query, without their items.
+     * Each combination of filters and sort key compiles to its own statement, which the statement cache keeps.
+     *
+     * @param query The filters, sort order and page cursor.
+     * @return The orders of the page; fewer than the query's limit means there are no more matches.
+     */
+    @Override
+    public List<Order> findOrders(OrderQuery query) {
+        List<Object> parameters = new ArrayList<>();
+        String sql = query.toSql(parameters);
+        List<Order> orders = new ArrayList<>();
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, sql);
+            setPreparedStatementParams(pstmt, parameters.toArray());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(extractOrder(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error searching orders: " + e.getMessage());
+        }
+        return orders;
+    }
+
     /**
      * Retrieves an order by its unique ID.
      *
@@ -119,8 +262,7 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
      */
     @Override
     public Optional<Order> getOrderById(int orderId) {
-        String fetchOrderSQL = "SELECT * FROM orders WHERE order_id = ?";
-        return fetchSingleOrder(fetchOrderSQL, orderId);
+        return fetchSingleOrder(FETCH_ORDER_BY_ID_SQL, orderId);
     }
 
     /**
@@ -134,7 +276,7 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
     public List<Order> getSelectedOrdersByUser(int userId, List<Integer> orderIds) {
         String orderIdsSQL = buildPlaceholders(orderIds);
         String fetchOrdersSQL = "SELECT * FROM orders WHERE user_id = ? AND order_id IN (" + orderIdsSQL + ")";
-        return fetchOrders(fetchOrdersSQL, userId, orderIds);
+        return fetchOrders(fetchOrdersSQL, false, userId, orderIds);
     }
 
     // This method will map ResultSet to Order objects specifically for admin
@@ -178,7 +320,7 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
         }
         String orderIdsSQL = buildPlaceholders(orderIds);
         String fetchOrdersSQL = "SELECT * FROM orders WHERE order_id IN (" + orderIdsSQL + ")";
-        return fetchOrders(fetchOrdersSQL, -1, orderIds);
+        return fetchOrders(fetchOrdersSQL, false, -1, orderIds);
     }
 
     /**
@@ -189,45 +331,50 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
      * @return An Optional containing the Order if found.
      */
     private Optional<Order> fetchSingleOrder(String fetchOrderSQL, int orderId) {
-        return fetchOrders(fetchOrderSQL, -1, List.of(orderId)).stream().findFirst();
+        return fetchOrders(fetchOrderSQL, true, -1, List.of(orderId)).stream().findFirst();
     }
 
     /**
-     * Fetches a list of orders based on the provided SQL query and user ID.
+     * Fetches a list of orders based on the provided fixed SQL query and user ID.
      *
      * @param sql    The SQL query to execute.
      * @param userId The ID of the user, or -1 for all users.
      * @return A list of Order objects.
      */
     private List<Order> fetchOrders(String sql, int userId) {
-        return fetchOrders(sql, userId, null);
+        return fetchOrders(sql, true, userId, null);
     }
 
     /**
      * Fetches a list of orders based on the provided SQL query, user ID, and order IDs.
      *
-     * @param sql      The SQL query to execute.
-     * @param userId   The ID of the user, or -1 for all users.
-     * @param orderIds A list of order IDs to filter by.
+     * @param sql       The SQL query to execute.
+     * @param cacheable Whether the SQL has a fixed shape and may go through the statement cache; false for SQL
+     *                  built per call (such as IN-lists sized to the IDs), which would only fill the cache.
+     * @param userId    The ID of the user, or -1 for all users.
+     * @param orderIds  A list of order IDs to filter by.
      * @return A list of Order objects.
      */
-    private List<Order> fetchOrders(String sql, int userId, List<Integer> orderIds) {
+    private List<Order> fetchOrders(String sql, boolean cacheable, int userId, List<Integer> orderIds) {
         List<Order> orders = new ArrayList<>();
 
-        try (Connection conn = Database.getInstance().getConnection();
-             PreparedStatement orderStmt = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            try (PreparedStatement dynamicStmt = cacheable ? null : conn.prepareStatement(sql)) {
+                PreparedStatement orderStmt = cacheable ? prepareCached(conn, sql) : dynamicStmt;
 
-            if (userId != -1) {
-                orderStmt.setInt(1, userId);  // Set userId parameter
-            } else if (orderIds != null) {
-                setPreparedStatementParams(orderStmt, orderIds.toArray());  // Set order ID parameters
-            }
+                if (userId != -1) {
+                    orderStmt.setInt(1, userId);  // Set userId parameter
+                } else if (orderIds != null) {
+                    setPreparedStatementParams(orderStmt, orderIds.toArray());  // Set order ID parameters
+                }
 
-            ResultSet orderRs = orderStmt.executeQuery();
-            while (orderRs.next()) {
-                Order order = extractOrder(orderRs);
-                order.setOrderItems(fetchOrderItems(order.getOrderId(), conn));
-                orders.add(order);
+                try (ResultSet orderRs = orderStmt.executeQuery()) {
+                    while (orderRs.next()) {
+                        Order order = extractOrder(orderRs);
+                        order.setOrderItems(fetchOrderItems(order.getOrderId(), conn));
+                        orders.add(order);
+                    }
+                }
             }
 
         } catch (SQLException e) {
@@ -257,8 +404,9 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
                 preparedStatement.setInt(i + 1, orderIds.get(i));
             }
 
-            ResultSet resultSet = preparedStatement.executeQuery();
-            return mapOrdersForAdmin(resultSet); // Map the result set to Order objects specifically for admin
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return mapOrdersForAdmin(resultSet); // Map the result set to Order objects specifically for admin
+            }
 
         } catch (SQLException e) {
             System.err.println("Error fetching orders for admin: " + e.getMessage());
@@ -275,12 +423,11 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
      * @return A list of OrderItem objects.
      */
     private List<OrderItem> fetchOrderItems(int orderId, Connection conn) throws SQLException {
-        String fetchOrderItemsSQL = "SELECT * FROM order_items WHERE order_id = ?";
         List<OrderItem> orderItems = new ArrayList<>();
 
-        try (PreparedStatement itemStmt = conn.prepareStatement(fetchOrderItemsSQL)) {
-            itemStmt.setInt(1, orderId);
-            ResultSet itemRs = itemStmt.executeQuery();
+        PreparedStatement itemStmt = prepareCached(conn, FETCH_ORDER_ITEMS_SQL);
+        itemStmt.setInt(1, orderId);
+        try (ResultSet itemRs = itemStmt.executeQuery()) {
             while (itemRs.next()) {
                 orderItems.add(new OrderItem(
                         itemRs.getInt("book_id"),
@@ -319,6 +466,27 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
     }
 
 
+    /**
+     * Reads an order with its items on a connection that may have an open transaction.
+     *
+     * @param conn    The database connection.
+     * @param orderId The ID of the order.
+     * @return The order, or null if it does not exist.
+     */
+    private Order readOrder(Connection conn, int orderId) throws SQLException {
+        PreparedStatement orderStmt = prepareCached(conn, FETCH_ORDER_BY_ID_SQL);
+        orderStmt.setInt(1, orderId);
+        Order order;
+        try (ResultSet orderRs = orderStmt.executeQuery()) {
+            if (!orderRs.next()) {
+                return null;
+            }
+            order = extractOrder(orderRs);
+        }
+        order.setOrderItems(fetchOrderItems(orderId, conn));
+        return order;
+    }
+
     /**
      * Builds a comma-separated list of placeholders for SQL IN clauses.
      *
@@ -342,8 +510,12 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
         try (Connection conn = Database.getInstance().getConnection()) {
             conn.setAutoCommit(false);  // Begin transaction
 
-            // Delete order items first
-            try (PreparedStatement itemStmt = conn.prepareStatement(deleteOrderItemsSQL)) {
+            try {
+                // Read the order first, so it can be subtracted from the sales rollups
+                Order order = readOrder(conn, orderId);
+
+                // Delete order items first
+                PreparedStatement itemStmt = prepareCached(conn, deleteOrderItemsSQL);
                 itemStmt.setInt(1, orderId);
                 int affectedItems = itemStmt.executeUpdate();  // Get affected rows count for order items
                 if (affectedItems == 0) {
@@ -351,19 +523,27 @@ public class OrderDAO extends BaseDAO implements IOrderDAO {
                     conn.rollback();
                     return false;
                 }
-            }
 
-            // Then delete the order
-            try (PreparedStatement orderStmt = conn.prepareStatement(deleteOrderSQL)) {
+                // Forget the checkout token that created the order
+                PreparedStatement keyStmt = prepareCached(conn, IdempotencyDAO.DELETE_KEYS_FOR_ORDER_SQL);
+                keyStmt.setInt(1, orderId);
+                keyStmt.executeUpdate();
+
+                // Then delete the order
+                PreparedStatement orderStmt = prepareCached(conn, deleteOrderSQL);
                 orderStmt.setInt(1, orderId);
                 int affectedRows = orderStmt.executeUpdate();
 
                 if (affectedRows > 0) {
+                    salesRollupDAO.applyOrder(conn, order, -1);
                     conn.commit();  // Commit the transaction if successful
                     return true;
                 } else {
                     System.out.println("Order ID not found for deletion: " + orderId);
                 }
+            } catch (SQLException e) {
+                conn.rollback();  // Cached statements bypass the pool's dirty tracking, so roll back explicitly
+                throw e;
             }
 
             conn.rollback();  // Rollback in case of any error
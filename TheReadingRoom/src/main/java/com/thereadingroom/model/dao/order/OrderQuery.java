@@ -0,0 +1,333 @@
+package com.thereadingroom.model.dao.order;
+
+import com.thereadingroom.model.entity.Order;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Search criteria for the admin order list: filters, a sort key and direction, and a page cursor.
+ * Unset filters match every order. The query compiles to parameterized SQL whose shape only depends on
+ * which filters are set, and every sort key is backed by an index ending in order_id, so each page is
+ * an index range scan continuing after the last order of the previous page.
+ */
+public class OrderQuery {
+
+    // Orders returned per page unless another limit is set
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * The columns orders can be sorted by. Orders with equal values are ordered by order ID.
+     */
+    public enum SortKey {
+        ORDER_DATE("order_date", order -> Timestamp.valueOf(order.getOrderDate())),
+        TOTAL_PRICE("total_price", Order::getTotalPrice),
+        ORDER_NUMBER("order_number", Order::getOrderNumber),
+        USER_ID("user_id", Order::getUserId),
+        ORDER_ID("order_id", Order::getOrderId);
+
+        private final String column;                     // The sorted column
+        private final Function<Order, Object> cursorValue;  // Reads the column's value from the last order of a page
+
+        /**
+         * Creates a sort key.
+         *
+         * @param column      The sorted column.
+         * @param cursorValue Reads the column's value from an order.
+         */
+        SortKey(String column, Function<Order, Object> cursorValue) {
+            this.column = column;
+            this.cursorValue = cursorValue;
+        }
+    }
+
+    private Integer userId;               // Only orders of this user, or null for all users
+    private LocalDateTime fromDate;       // Only orders placed at or after this time, or null
+    private LocalDateTime toDate;         // Only orders placed before this time, or null
+    private Double minTotal;              // Only orders with at least this total, or null
+    private Double maxTotal;              // Only orders with at most this total, or null
+    private String orderNumberPrefix;     // Only orders whose number starts with this prefix, or null
+    private SortKey sortKey = SortKey.ORDER_DATE;  // The sort column
+    private boolean descending = true;    // Whether the largest values come first
+    private Order after;                  // The last order of the previous page, or null for the first page
+    private int limit = DEFAULT_PAGE_SIZE;  // The maximum number of orders per page
+
+    /**
+     * Creates a query matching all orders, latest first.
+     */
+    public OrderQuery() {
+    }
+
+    /**
+     * Creates a copy of another query, for instance to fetch its next page.
+     *
+     * @param other The query to copy.
+     */
+    public OrderQuery(OrderQuery other) {
+        this.userId = other.userId;
+        this.fromDate = other.fromDate;
+        this.toDate = other.toDate;
+        this.minTotal = other.minTotal;
+        this.maxTotal = other.maxTotal;
+        this.orderNumberPrefix = other.orderNumberPrefix;
+        this.sortKey = other.sortKey;
+        this.descending = other.descending;
+        this.after = other.after;
+        this.limit = other.limit;
+    }
+
+    /**
+     * Returns the query for the page after the given order, with the same criteria.
+     *
+     * @param lastOrder The last order of the current page.
+     * @return The query for the next page.
+     */
+    public OrderQuery nextPage(Order lastOrder) {
+        OrderQuery next = new OrderQuery(this);
+        next.after = lastOrder;
+        return next;
+    }
+
+    /**
+     * Compiles the query to SQL over the orders table and collects its parameters.
+     *
+     * @param parameters Receives the parameters in placeholder order.
+     * @return The SQL statement.
+     */
+    String toSql(List<Object> parameters) {
+        StringBuilder sql = new StringBuilder("SELECT order_id, order_number, user_id, total_price, order_date FROM orders WHERE 1 = 1");
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            parameters.add(userId);
+        }
+        if (fromDate != null) {
+            sql.append(" AND order_date >= ?");
+            parameters.add(Timestamp.valueOf(fromDate));
+        }
+        if (toDate != null) {
+            sql.append(" AND order_date < ?");
+            parameters.add(Timestamp.valueOf(toDate));
+        }
+        if (minTotal != null) {
+            sql.append(" AND total_price >= ?");
+            parameters.add(minTotal);
+        }
+        if (maxTotal != null) {
+            sql.append(" AND total_price <= ?");
+            parameters.add(maxTotal);
+        }
+        if (orderNumberPrefix != null) {
+            // A range instead of LIKE, so the unique index on order_number is used
+            sql.append(" AND order_number >= ? AND order_number < ?");
+            parameters.add(orderNumberPrefix);
+            parameters.add(prefixUpperBound(orderNumberPrefix));
+        }
+
+        String comparison = descending ? "<" : ">";
+        if (after != null) {
+            if (sortKey == SortKey.ORDER_ID) {
+                sql.append(" AND order_id ").append(comparison).append(" ?");
+            } else {
+                sql.append(" AND (").append(sortKey.column).append(", order_id) ").append(comparison).append(" (?, ?)");
+                parameters.add(sortKey.cursorValue.apply(after));
+            }
+            parameters.add(after.getOrderId());
+        }
+
+        String direction = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ");
+        if (sortKey != SortKey.ORDER_ID) {
+            sql.append(sortKey.column).append(direction).append(", ");
+        }
+        sql.append("order_id").append(direction).append(" LIMIT ?");
+        parameters.add(limit);
+        return sql.toString();
+    }
+
+    /**
+     * Returns the smallest string greater than every string starting with the prefix.
+     *
+     * @param prefix A non-empty prefix.
+     * @return The exclusive upper bound of the prefix range.
+     */
+    private static String prefixUpperBound(String prefix) {
+        int last = prefix.length() - 1;
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+
+    /**
+     * Returns the user filter.
+     *
+     * @return The user ID, or null for all users.
+     */
+    public Integer getUserId() {
+        return userId;
+    }
+
+    /**
+     * Restricts the query to the orders of one user.
+     *
+     * @param userId The user ID, or null for all users.
+     */
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Returns the start of the date range.
+     *
+     * @return The earliest order time (inclusive), or null.
+     */
+    public LocalDateTime getFromDate() {
+        return fromDate;
+    }
+
+    /**
+     * Sets the start of the date range.
+     *
+     * @param fromDate The earliest order time (inclusive), or null.
+     */
+    public void setFromDate(LocalDateTime fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    /**
+     * Returns the end of the date range.
+     *
+     * @return The order time the range ends before (exclusive), or null.
+     */
+    public LocalDateTime getToDate() {
+        return toDate;
+    }
+
+    /**
+     * Sets the end of the date range.
+     *
+     * @param toDate The order time the range ends before (exclusive), or null.
+     */
+    public void setToDate(LocalDateTime toDate) {
+        this.toDate = toDate;
+    }
+
+    /**
+     * Returns the lower bound of the total price range.
+     *
+     * @return The minimum total (inclusive), or null.
+     */
+    public Double getMinTotal() {
+        return minTotal;
+    }
+
+    /**
+     * Sets the lower bound of the total price range.
+     *
+     * @param minTotal The minimum total (inclusive), or null.
+     */
+    public void setMinTotal(Double minTotal) {
+        this.minTotal = minTotal;
+    }
+
+    /**
+     * Returns the upper bound of the total price range.
+     *
+     * @return The maximum total (inclusive), or null.
+     */
+    public Double getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Sets the upper bound of the total price range.
+     *
+     * @param maxTotal The maximum total (inclusive), or null.
+     */
+    public void setMaxTotal(Double maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * Returns the order number prefix.
+     *
+     * @return The upper-case prefix, or null.
+     */
+    public String getOrderNumberPrefix() {
+        return orderNumberPrefix;
+    }
+
+    /**
+     * Sets the order number prefix. Order numbers are upper case, so the prefix is matched in upper case;
+     * a blank prefix clears the filter.
+     *
+     * @param orderNumberPrefix The prefix, or null.
+     */
+    public void setOrderNumberPrefix(String orderNumberPrefix) {
+        this.orderNumberPrefix = orderNumberPrefix == null || orderNumberPrefix.isBlank()
+                ? null : orderNumberPrefix.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the sort column.
+     *
+     * @return The sort key.
+     */
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    /**
+     * Sets the sort column.
+     *
+     * @param sortKey The sort key.
+     */
+    public void setSortKey(SortKey sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    /**
+     * Returns the sort direction.
+     *
+     * @return true if the largest values come first.
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Sets the sort direction.
+     *
+     * @param descending true to put the largest values first.
+     */
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    /**
+     * Returns the page cursor.
+     *
+     * @return The last order of the previous page, or null for the first page.
+     */
+    public Order getAfter() {
+        return after;
+    }
+
+    /**
+     * Returns the page size.
+     *
+     * @return The maximum number of orders per page.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the page size.
+     *
+     * @param limit The maximum number of orders per page.
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,83 @@
+package com.thereadingroom.model.dao.recommendation;
+
+import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.database.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DAO reading the books of each order for the recommendation engine.
+ * Ranges of orders are read on separate pooled connections, so several ranges can be read in parallel.
+ */
+public class CoPurchaseDAO extends BaseDAO implements ICoPurchaseDAO {
+
+    private static final String ORDER_ID_RANGE_SQL = "SELECT MIN(order_id), MAX(order_id), COUNT(*) FROM orders";
+    private static final String ORDER_BOOKS_SQL = "SELECT DISTINCT order_id, book_id FROM order_items "
+            + "WHERE order_id BETWEEN ? AND ? ORDER BY order_id";
+
+    /**
+     * Retrieves the range of order IDs.
+     *
+     * @return {first order ID, last order ID, number of orders}, all 0 if there are no orders, or null on error.
+     */
+    @Override
+    public int[] getOrderIdRange() {
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, ORDER_ID_RANGE_SQL);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return new int[]{rs.getInt(1), rs.getInt(2), rs.getInt(3)};
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching order ID range: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves the distinct books of each order in an order ID range.
+     *
+     * @param firstOrderId The first order ID (inclusive).
+     * @param lastOrderId  The last order ID (inclusive).
+     * @return One array of distinct book IDs per order, or null on error.
+     */
+    @Override
+    public List<int[]> getOrderBooks(int firstOrderId, int lastOrderId) {
+        List<int[]> orders = new ArrayList<>();
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, ORDER_BOOKS_SQL);
+            pstmt.setInt(1, firstOrderId);
+            pstmt.setInt(2, lastOrderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int currentOrderId = -1;
+                int[] books = new int[8];
+                int count = 0;
+                while (rs.next()) {
+                    int orderId = rs.getInt("order_id");
+                    if (orderId != currentOrderId && count > 0) {
+                        orders.add(Arrays.copyOf(books, count));
+                        count = 0;
+                    }
+                    currentOrderId = orderId;
+                    if (count == books.length) {
+                        books = Arrays.copyOf(books, count * 2);
+                    }
+                    books[count++] = rs.getInt("book_id");
+                }
+                if (count > 0) {
+                    orders.add(Arrays.copyOf(books, count));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error fetching order books: " + e.getMessage());
+            return null;
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,25 @@
+package com.thereadingroom.model.dao.recommendation;
+
+import java.util.List;
+
+/**
+ * Interface for reading which books were bought together, order by order, from the order_items table.
+ */
+public interface ICoPurchaseDAO {
+
+    /**
+     * Retrieves the range of order IDs.
+     *
+     * @return {first order ID, last order ID, number of orders}, all 0 if there are no orders, or null on error.
+     */
+    int[] getOrderIdRange();
+
+    /**
+     * Retrieves the distinct books of each order in an order ID range.
+     *
+     * @param firstOrderId The first order ID (inclusive).
+     * @param lastOrderId  The last order ID (inclusive).
+     * @return One array of distinct book IDs per order, or null on error.
+     */
+    List<int[]> getOrderBooks(int firstOrderId, int lastOrderId);
+}
@@ -0,0 +1,604 @@
+package com.thereadingroom.model.dao.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over the words of book titles and authors, for search as you type.
+ *
+ * Words are normalized (lower case, accents removed) and kept in one sorted array, each with the sorted IDs of
+ * the books containing it, so the words starting with a prefix are one contiguous range found by binary search.
+ * A query matches the books having, for every query word, a title or author word that starts with it.
+ * The rarest query word drives the scan, the other words' ID lists are skipped through alongside it (or,
+ * for a short prefix of many words, checked against each book's own words), and the scan stops once enough
+ * matches have been found to rank, so a query's cost depends on the number of results rather than the size
+ * of the catalog. Matches are ranked by how well each query word matches (a whole title word, the start of a
+ * title word, then the same for the author), then shorter titles first.
+ *
+ * Fuzzy search tolerates typos instead: each query word matches the words within a few edits of it, found
+ * through a trigram index over the dictionary, and books rank by their total number of edits.
+ *
+ * The index is loaded on the first search and BookDAO applies its writes to it after they commit.
+ * Searches share a read lock; writes and the load take the write lock.
+ */
+public class BookSearchIndex {
+
+    // Matches ranked for every result returned; a larger window ranks better but scans further
+    private static final int RANK_WINDOW = 2;
+
+    // Scores of a query word matching a whole title word, the start of one, a whole author word or the start of one
+    private static final int TITLE_WORD = 4;
+    private static final int TITLE_PREFIX = 3;
+    private static final int AUTHOR_WORD = 2;
+    private static final int AUTHOR_PREFIX = 1;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");            // Combining marks left by decomposition
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+"); // Anything that is not part of a word
+    private static final String[] NO_WORDS = new String[0];
+
+    // Singleton instance
+    private static BookSearchIndex instance;
+
+    private final ISearchIndexDAO searchIndexDAO;                             // Reads the catalog for the first load
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;                                          // Set once the catalog is indexed
+
+    // Dictionary: sorted words and the sorted IDs of the books containing each (guarded by lock)
+    private String[] terms = new String[0];
+    private int[][] postings = new int[0][];
+    private int[] postingSizes = new int[0];
+    private int termCount;
+
+    private TrigramIndex trigrams = new TrigramIndex();  // Finds the dictionary words close to a misspelled word (guarded by lock)
+
+    // Forward index: the words of each book, by book ID (guarded by lock)
+    private String[][] titleWords = new String[0][];
+    private String[][] authorWords = new String[0][];
+    private int bookCount;
+
+    private Map<String, Postings> staged;  // Words read by the load in progress, or null
+
+    /**
+     * The books containing a word, collected while the index is loaded.
+     */
+    private static final class Postings {
+
+        private final String term;          // The word, shared by the books' forward entries
+        private int[] bookIds = new int[4]; // IDs of the books containing the word
+        private int size;                   // Number of IDs
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int bookId) {
+            if (size == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, size * 2);
+            }
+            bookIds[size++] = bookId;
+        }
+    }
+
+    // Private constructor for Singleton pattern
+    private BookSearchIndex() {
+        this(new SearchIndexDAO());
+    }
+
+    /**
+     * Creates an empty index that loads the catalog through the given DAO.
+     *
+     * @param searchIndexDAO DAO reading the catalog.
+     */
+    public BookSearchIndex(ISearchIndexDAO searchIndexDAO) {
+        this.searchIndexDAO = searchIndexDAO;
+    }
+
+    /**
+     * Singleton - Get the single instance of BookSearchIndex.
+     *
+     * @return The instance of BookSearchIndex.
+     */
+    public static synchronized BookSearchIndex getInstance() {
+        if (instance == null) {
+            instance = new BookSearchIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Splits text into its distinct normalized words: lower case, without accents, split at anything that
+     * is not a letter or a digit.
+     *
+     * @param text The text, or null.
+     * @return The words in the order they first appear.
+     */
+    public static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return NO_WORDS;
+        }
+        String normalized = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words.toArray(NO_WORDS);
+    }
+
+    /**
+     * Indexes the whole catalog if it is not indexed yet. Writes made while it loads wait and are applied after.
+     *
+     * @return true if the index is loaded, false if the catalog could not be read.
+     */
+    public boolean load() {
+        if (loaded) {
+            return true;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return true;
+            }
+            staged = new HashMap<>();
+            trigrams = new TrigramIndex();
+            bookCount = 0;
+            titleWords = new String[0][];
+            authorWords = new String[0][];
+            if (searchIndexDAO.loadBooks(this) < 0) {
+                staged = null;
+                titleWords = new String[0][];
+                authorWords = new String[0][];
+                bookCount = 0;
+                return false;
+            }
+            buildDictionary();
+            staged = null;
+            loaded = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a book read by the load in progress (called by the DAO on the loading thread).
+     *
+     * @param bookId The book ID.
+     * @param title  The title.
+     * @param author The author.
+     */
+    void stage(int bookId, String title, String author) {
+        String[] bookTitleWords = tokenize(title);
+        String[] bookAuthorWords = tokenize(author);
+        Set<String> seen = new HashSet<>();
+        for (String[] words : new String[][]{bookTitleWords, bookAuthorWords}) {
+            for (int i = 0; i < words.length; i++) {
+                Postings entry = staged.computeIfAbsent(words[i], Postings::new);
+                words[i] = entry.term;  // Share one String per word
+                if (seen.add(entry.term)) {
+                    entry.add(bookId);
+                }
+            }
+        }
+        setWords(bookId, bookTitleWords, bookAuthorWords);
+        bookCount++;
+    }
+
+    /**
+     * Indexes a book that was added or edited, replacing its previous words.
+     * Ignored until the index is loaded, since the load reads the committed change itself.
+     *
+     * @param bookId The book ID.
+     * @param title  The title.
+     * @param author The author.
+     */
+    public void upsert(int bookId, String title, String author) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            unindex(bookId);
+            String[] bookTitleWords = tokenize(title);
+            String[] bookAuthorWords = tokenize(author);
+            Set<String> seen = new HashSet<>();
+            for (String[] words : new String[][]{bookTitleWords, bookAuthorWords}) {
+                for (int i = 0; i < words.length; i++) {
+                    int term = insertTerm(words[i]);
+                    words[i] = terms[term];  // Share one String per word
+                    if (seen.add(words[i])) {
+                        insertPosting(term, bookId);
+                    }
+                }
+            }
+            setWords(bookId, bookTitleWords, bookAuthorWords);
+            bookCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted book from the index.
+     *
+     * @param bookId The book ID.
+     */
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                unindex(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books matching a query, best matches first, loading the index on first use.
+     *
+     * @param query The words typed so far; each must start a word of the title or author.
+     * @param limit The maximum number of books.
+     * @return The IDs of the matching books, or an empty list if the query has no words or nothing matches.
+     */
+    public List<Integer> search(String query, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0 || limit <= 0 || !load()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // Find each word's range of dictionary words and drive the scan with the rarest one
+            int driver = -1;
+            long driverBooks = Long.MAX_VALUE;
+            int driverStart = 0;
+            int driverEnd = 0;
+            int[] singleTerms = new int[words.length];  // The one dictionary word a query word starts, or -1
+            for (int i = 0; i < words.length; i++) {
+                int start = lowerBound(words[i]);
+                int end = lowerBound(words[i] + Character.MAX_VALUE);
+                singleTerms[i] = end - start == 1 ? start : -1;
+                long books = 0;
+                for (int term = start; term < end && books < driverBooks; term++) {
+                    books += postingSizes[term];
+                }
+                if (books == 0) {
+                    return List.of();
+                }
+                if (books < driverBooks) {
+                    driver = i;
+                    driverBooks = books;
+                    driverStart = start;
+                    driverEnd = end;
+                }
+            }
+
+            // Collect matches in dictionary order (a whole-word match sorts before the longer words it starts)
+            int window = (int) Math.min((long) limit * RANK_WINDOW, Integer.MAX_VALUE);
+            List<int[]> matches = new ArrayList<>();  // {book ID, score, title words}
+            Set<Integer> seen = driverEnd - driverStart > 1 ? new HashSet<>() : null;  // A book can contain several of the words
+            singleTerms[driver] = -1;
+            int[] cursors = new int[words.length];  // Positions in the single words' IDs
+            scan:
+            for (int term = driverStart; term < driverEnd; term++) {
+                int[] bookIds = postings[term];
+                int size = postingSizes[term];
+                Arrays.fill(cursors, 0);
+                int i = 0;
+                while (i < size) {
+                    int bookId = bookIds[i];
+                    int candidate = nextCandidate(bookId, singleTerms, cursors);
+                    if (candidate != bookId) {
+                        i = seek(bookIds, i, size, candidate);  // Skip the IDs missing from another word
+                        continue;
+                    }
+                    i++;
+                    if (seen != null && !seen.add(bookId)) {
+                        continue;
+                    }
+                    int score = score(bookId, words);
+                    if (score > 0) {
+                        matches.add(new int[]{bookId, score, titleWords[bookId].length});
+                        if (matches.size() == window) {
+                            break scan;
+                        }
+                    }
+                }
+            }
+
+            matches.sort((a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1])
+                    : a[2] != b[2] ? Integer.compare(a[2], b[2]) : Integer.compare(a[0], b[0]));
+            List<Integer> bookIds = new ArrayList<>(Math.min(limit, matches.size()));
+            for (int i = 0; i < matches.size() && i < limit; i++) {
+                bookIds.add(matches.get(i)[0]);
+            }
+            return bookIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books matching a query with typos, fewest edits first, loading the index on first use.
+     * Every query word must be within a few edits of a whole title or author word: short words allow fewer
+     * edits (none up to 2 letters, one up to 5), and never more than maxEdits.
+     *
+     * @param query    The words entered, possibly misspelled.
+     * @param maxEdits The most insertions, deletions, substitutions and swaps of adjacent letters per word.
+     * @param limit    The maximum number of books.
+     * @return The IDs of the matching books, fewest total edits first, then shorter titles.
+     */
+    public List<Integer> fuzzySearch(String query, int maxEdits, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0 || limit <= 0 || maxEdits < 0 || !load()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // Find each word's close dictionary words and how many books contain them
+            List<List<Map.Entry<String, Integer>>> closeWords = new ArrayList<>();
+            long[] bookCounts = new long[words.length];
+            for (int i = 0; i < words.length; i++) {
+                List<Map.Entry<String, Integer>> close = trigrams.similar(words[i], Math.min(maxEdits, allowedEdits(words[i])));
+                for (Map.Entry<String, Integer> entry : close) {
+                    int term = Arrays.binarySearch(terms, 0, termCount, entry.getKey());
+                    bookCounts[i] += term >= 0 ? postingSizes[term] : 0;
+                }
+                if (bookCounts[i] == 0) {
+                    return List.of();
+                }
+                closeWords.add(close);
+            }
+
+            // Sum the fewest edits per book, starting with the word in the fewest books so the maps stay small
+            Integer[] order = new Integer[words.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(bookCounts[a], bookCounts[b]));
+            Map<Integer, Integer> edits = null;  // Book ID -> edits of the words so far
+            for (int i : order) {
+                Map<Integer, Integer> wordEdits = new HashMap<>();
+                for (Map.Entry<String, Integer> entry : closeWords.get(i)) {
+                    int term = Arrays.binarySearch(terms, 0, termCount, entry.getKey());
+                    for (int k = 0; term >= 0 && k < postingSizes[term]; k++) {
+                        int bookId = postings[term][k];
+                        Integer previous = edits == null ? Integer.valueOf(0) : edits.get(bookId);
+                        if (previous != null) {
+                            wordEdits.merge(bookId, previous + entry.getValue(), Math::min);
+                        }
+                    }
+                }
+                if (wordEdits.isEmpty()) {
+                    return List.of();
+                }
+                edits = wordEdits;
+            }
+
+            return edits.entrySet().stream()
+                    .sorted((a, b) -> !a.getValue().equals(b.getValue()) ? Integer.compare(a.getValue(), b.getValue())
+                            : titleWords[a.getKey()].length != titleWords[b.getKey()].length
+                            ? Integer.compare(titleWords[a.getKey()].length, titleWords[b.getKey()].length)
+                            : Integer.compare(a.getKey(), b.getKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed books.
+     *
+     * @return The book count, 0 until the index is loaded.
+     */
+    public int getBookCount() {
+        lock.readLock().lock();
+        try {
+            return bookCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the given book ID if the book contains every query word that starts exactly one dictionary word,
+     * else the lowest larger ID that could: the IDs of those words and of the driver ascend, so the cursors only
+     * move forward and the driver can skip to the next ID present in all of them (a leapfrog intersection).
+     */
+    private int nextCandidate(int bookId, int[] singleTerms, int[] cursors) {
+        for (int i = 0; i < singleTerms.length; i++) {
+            int term = singleTerms[i];
+            if (term < 0) {
+                continue;
+            }
+            cursors[i] = seek(postings[term], cursors[i], postingSizes[term], bookId);
+            if (cursors[i] == postingSizes[term]) {
+                return Integer.MAX_VALUE;  // No later book contains this word
+            }
+            if (postings[term][cursors[i]] != bookId) {
+                return postings[term][cursors[i]];
+            }
+        }
+        return bookId;
+    }
+
+    /**
+     * Returns the first position at or after from whose ID is not less than the target, probing in doubling
+     * steps and then searching the last step, so long skips cost a logarithmic number of reads.
+     */
+    private static int seek(int[] bookIds, int from, int size, int target) {
+        int low = from;
+        int step = 1;
+        while (low + step < size && bookIds[low + step] < target) {
+            low += step;
+            step <<= 1;
+        }
+        if (low < size && bookIds[low] >= target) {
+            return low;
+        }
+        int position = Arrays.binarySearch(bookIds, low, Math.min(low + step + 1, size), target);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    /**
+     * Returns the edits a word of this length may have in a fuzzy search: none up to 2 letters, one up to 5, else two.
+     */
+    private static int allowedEdits(String word) {
+        return word.length() <= 2 ? 0 : word.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Scores how well a book matches every query word, or 0 if some word matches none of its words.
+     */
+    private int score(int bookId, String[] words) {
+        int total = 0;
+        for (String word : words) {
+            int best = bestMatch(titleWords[bookId], word, TITLE_WORD, TITLE_PREFIX);
+            if (best < TITLE_PREFIX) {
+                best = Math.max(best, bestMatch(authorWords[bookId], word, AUTHOR_WORD, AUTHOR_PREFIX));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the given whole-word score if a book word equals the query word, the prefix score if one starts with it, else 0.
+     */
+    private static int bestMatch(String[] bookWords, String word, int wholeWord, int prefix) {
+        int best = 0;
+        for (String bookWord : bookWords) {
+            if (bookWord.equals(word)) {
+                return wholeWord;
+            }
+            if (bookWord.startsWith(word)) {
+                best = prefix;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Removes a book's words from the dictionary and forgets them (holding the write lock).
+     * Words no longer in any book stay in the dictionary with no books; they cost nothing to scan.
+     */
+    private void unindex(int bookId) {
+        if (bookId < 0 || bookId >= titleWords.length || titleWords[bookId] == null) {
+            return;
+        }
+        for (String[] words : new String[][]{titleWords[bookId], authorWords[bookId]}) {
+            for (String word : words) {
+                int term = Arrays.binarySearch(terms, 0, termCount, word);
+                if (term >= 0) {
+                    int position = Arrays.binarySearch(postings[term], 0, postingSizes[term], bookId);
+                    if (position >= 0) {
+                        System.arraycopy(postings[term], position + 1, postings[term], position, postingSizes[term] - position - 1);
+                        postingSizes[term]--;
+                    }
+                }
+            }
+        }
+        titleWords[bookId] = null;
+        authorWords[bookId] = null;
+        bookCount--;
+    }
+
+    /**
+     * Returns the position of a word in the dictionary, inserting it if it is new (holding the write lock).
+     */
+    private int insertTerm(String word) {
+        int term = Arrays.binarySearch(terms, 0, termCount, word);
+        if (term >= 0) {
+            return term;
+        }
+        term = -term - 1;
+        if (termCount == terms.length) {
+            int capacity = Math.max(16, termCount + (termCount >> 1));
+            terms = Arrays.copyOf(terms, capacity);
+            postings = Arrays.copyOf(postings, capacity);
+            postingSizes = Arrays.copyOf(postingSizes, capacity);
+        }
+        System.arraycopy(terms, term, terms, term + 1, termCount - term);
+        System.arraycopy(postings, term, postings, term + 1, termCount - term);
+        System.arraycopy(postingSizes, term, postingSizes, term + 1, termCount - term);
+        terms[term] = word;
+        postings[term] = new int[4];
+        postingSizes[term] = 0;
+        termCount++;
+        trigrams.add(word);
+        return term;
+    }
+
+    /**
+     * Adds a book ID to a word's sorted IDs (holding the write lock).
+     */
+    private void insertPosting(int term, int bookId) {
+        int size = postingSizes[term];
+        int position = -Arrays.binarySearch(postings[term], 0, size, bookId) - 1;
+        if (position < 0) {
+            return;  // Already present
+        }
+        if (size == postings[term].length) {
+            postings[term] = Arrays.copyOf(postings[term], size * 2);
+        }
+        System.arraycopy(postings[term], position, postings[term], position + 1, size - position);
+        postings[term][position] = bookId;
+        postingSizes[term]++;
+    }
+
+    /**
+     * Stores a book's words in the forward index, growing it as needed.
+     */
+    private void setWords(int bookId, String[] title, String[] author) {
+        if (bookId >= titleWords.length) {
+            int capacity = Math.max(bookId + 1, titleWords.length + (titleWords.length >> 1));
+            titleWords = Arrays.copyOf(titleWords, capacity);
+            authorWords = Arrays.copyOf(authorWords, capacity);
+        }
+        titleWords[bookId] = title;
+        authorWords[bookId] = author;
+    }
+
+    /**
+     * Turns the words staged by the load into the sorted dictionary (holding the write lock).
+     */
+    private void buildDictionary() {
+        Postings[] entries = staged.values().toArray(new Postings[0]);
+        Arrays.sort(entries, (a, b) -> a.term.compareTo(b.term));
+        termCount = entries.length;
+        terms = new String[termCount];
+        postings = new int[termCount][];
+        postingSizes = new int[termCount];
+        for (int i = 0; i < termCount; i++) {
+            Arrays.sort(entries[i].bookIds, 0, entries[i].size);
+            terms[i] = entries[i].term;
+            postings[i] = entries[i].bookIds;
+            postingSizes[i] = entries[i].size;
+            trigrams.add(terms[i]);
+        }
+    }
+
+    /**
+     * Returns the position of the first dictionary word not less than the given one.
+     */
+    private int lowerBound(String word) {
+        int position = Arrays.binarySearch(terms, 0, termCount, word);
+        return position >= 0 ? position : -position - 1;
+    }
+}
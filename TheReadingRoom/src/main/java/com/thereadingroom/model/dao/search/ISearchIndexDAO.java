@@ -0,0 +1,15 @@
+package com.thereadingroom.model.dao.search;
+
+/**
+ * Interface for loading the catalog into the in-memory book search index.
+ */
+public interface ISearchIndexDAO {
+
+    /**
+     * Reads the title and author of every book into the index being loaded.
+     *
+     * @param index The index to load.
+     * @return The number of books read, or -1 if the books could not be read.
+     */
+    int loadBooks(BookSearchIndex index);
+}
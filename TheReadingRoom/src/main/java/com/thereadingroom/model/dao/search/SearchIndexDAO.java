@@ -0,0 +1,42 @@
+package com.thereadingroom.model.dao.search;
+
+import com.thereadingroom.model.dao.BaseDAO;
+import com.thereadingroom.model.dao.database.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * DAO streaming the catalog's titles and authors into the book search index.
+ * Only the searchable columns are read, so loading a large catalog does not build Book entities.
+ */
+public class SearchIndexDAO extends BaseDAO implements ISearchIndexDAO {
+
+    private static final String BOOK_TEXT_SQL = "SELECT id, title, author FROM books";
+
+    /**
+     * Reads the title and author of every book into the index being loaded.
+     *
+     * @param index The index to load.
+     * @return The number of books read, or -1 if the books could not be read.
+     */
+    @Override
+    public int loadBooks(BookSearchIndex index) {
+        int count = 0;
+        try (Connection conn = Database.getInstance().getConnection()) {
+            PreparedStatement pstmt = prepareCached(conn, BOOK_TEXT_SQL);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    index.stage(rs.getInt("id"), rs.getString("title"), rs.getString("author"));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading the search index: " + e.getMessage());
+            return -1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,171 @@
+package com.thereadingroom.model.dao.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index over the distinct words of the catalog, for finding the words within a few typos of a query word.
+ *
+ * Each word is padded with a boundary mark ("$java$") and split into its three-letter grams; every gram keeps the
+ * sorted IDs of the words containing it. One edit changes at most four grams of a word (a swap of two letters
+ * touches the grams over both), so a word within e edits of the query shares at least grams - 4e of the query's
+ * grams. Short words can lose every gram that way ("java" and "jvaa" share none), so at least one shared gram is
+ * always required, as in other trigram matchers: such a word is missed rather than comparing the query with the
+ * whole vocabulary. The words sharing enough grams are then checked with a Damerau-Levenshtein distance that gives
+ * up as soon as the bound is exceeded. Word IDs only grow, so adding a word appends to the gram lists and keeps them sorted.
+ * Not thread-safe: BookSearchIndex guards it with its lock.
+ */
+class TrigramIndex {
+
+    private static final char BOUNDARY = '$';  // Pads words so their first and last letters start and end a gram
+
+    private final Map<String, Integer> wordIds = new HashMap<>();  // Word -> ID
+    private String[] words = new String[16];                        // ID -> word
+    private int wordCount;                                          // Number of words
+    private final Map<Long, Grams> grams = new HashMap<>();         // Packed gram -> IDs of the words containing it
+
+    /**
+     * The sorted IDs of the words containing a gram.
+     */
+    private static final class Grams {
+
+        private int[] wordIds = new int[2];  // Word IDs, ascending
+        private int size;                    // Number of IDs
+
+        void add(int wordId) {
+            if (size == wordIds.length) {
+                wordIds = Arrays.copyOf(wordIds, size * 2);
+            }
+            wordIds[size++] = wordId;
+        }
+    }
+
+    /**
+     * Adds a word if it is new.
+     *
+     * @param word The normalized word.
+     */
+    void add(String word) {
+        if (wordIds.containsKey(word)) {
+            return;
+        }
+        int wordId = wordCount++;
+        if (wordId == words.length) {
+            words = Arrays.copyOf(words, wordId * 2);
+        }
+        words[wordId] = word;
+        wordIds.put(word, wordId);
+        for (long gram : gramsOf(word)) {
+            grams.computeIfAbsent(gram, key -> new Grams()).add(wordId);
+        }
+    }
+
+    /**
+     * Finds the indexed words within the given number of edits of a word.
+     *
+     * @param word     The normalized query word.
+     * @param maxEdits The most insertions, deletions, substitutions and swaps of adjacent letters allowed.
+     * @return The similar words, each paired with its distance.
+     */
+    List<Map.Entry<String, Integer>> similar(String word, int maxEdits) {
+        List<Map.Entry<String, Integer>> similar = new ArrayList<>();
+        if (maxEdits <= 0) {
+            if (wordIds.containsKey(word)) {
+                similar.add(Map.entry(word, 0));
+            }
+            return similar;
+        }
+
+        // Count the grams each word shares with the query word; a word is a candidate once it shares enough
+        long[] queryGrams = gramsOf(word);
+        int threshold = Math.max(1, queryGrams.length - 4 * maxEdits);
+        int[] shared = new int[wordCount];
+        List<Integer> candidates = new ArrayList<>();
+        for (long gram : queryGrams) {
+            Grams entry = grams.get(gram);
+            for (int i = 0; entry != null && i < entry.size; i++) {
+                if (++shared[entry.wordIds[i]] == threshold) {
+                    candidates.add(entry.wordIds[i]);
+                }
+            }
+        }
+
+        for (int wordId : candidates) {
+            int distance = distance(word, words[wordId], maxEdits);
+            if (distance <= maxEdits) {
+                similar.add(Map.entry(words[wordId], distance));
+            }
+        }
+        return similar;
+    }
+
+    /**
+     * Returns the number of words.
+     *
+     * @return The word count.
+     */
+    int size() {
+        return wordCount;
+    }
+
+    /**
+     * Computes the Damerau-Levenshtein distance between two words (optimal string alignment: insertions,
+     * deletions, substitutions and swaps of adjacent letters), stopping once it must exceed a bound.
+     *
+     * @param a   The first word.
+     * @param b   The second word.
+     * @param max The bound.
+     * @return The distance, or max + 1 if it is larger than max.
+     */
+    static int distance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int[] beforePrevious = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);  // Swap of adjacent letters
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;  // Every alignment already costs more than the bound
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], max + 1);
+    }
+
+    /**
+     * Returns the distinct grams of a word padded with boundary marks, each packed into a long.
+     */
+    private static long[] gramsOf(String word) {
+        String padded = BOUNDARY + word + BOUNDARY;
+        long[] packed = new long[padded.length() - 2];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return Arrays.stream(packed).distinct().toArray();
+    }
+}
@@ -2,6 +2,8 @@ package com.thereadingroom.model.dao.user;
 
 import com.thereadingroom.model.dao.BaseDAO;
 import com.thereadingroom.model.entity.User;
+import com.thereadingroom.utils.event.DomainEventBus;
+import com.thereadingroom.utils.event.DomainEventType;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -11,6 +13,7 @@ import java.util.List;
 /**
  * User Data Access Object (DAO) implementation.
  * Provides methods to interact with the users table in the database.
+ * Registrations, profile edits and removals are published on the DomainEventBus.
  */
 public class UserDAO extends BaseDAO implements IUserDAO {
 
@@ -44,7 +47,11 @@ public class UserDAO extends BaseDAO implements IUserDAO {
     @Override
     public boolean registerUser(String username, String firstName, String lastName, String password, boolean isAdmin) {
         String sql = "INSERT INTO users (username, first_name, last_name, password, is_admin) VALUES (?, ?, ?, ?, ?)";
-        return executeUpdate(sql, username, firstName, lastName, password, isAdmin);
+        boolean registered = executeUpdate(sql, username, firstName, lastName, password, isAdmin);
+        if (registered) {
+            publishUserUpdated(getUserIdByUsername(username));
+        }
+        return registered;
     }
 
     /**
@@ -97,7 +104,11 @@ public class UserDAO extends BaseDAO implements IUserDAO {
     @Override
     public boolean updateUserProfile(String username, String firstName, String lastName, String password, boolean isAdmin) {
         String sql = "UPDATE users SET first_name = ?, last_name = ?, password = ?, is_admin = ? WHERE username = ?";
-        return executeUpdate(sql, firstName, lastName, password, isAdmin, username);
+        boolean updated = executeUpdate(sql, firstName, lastName, password, isAdmin, username);
+        if (updated) {
+            publishUserUpdated(getUserIdByUsername(username));
+        }
+        return updated;
     }
 
     /**
@@ -145,7 +156,11 @@ public class UserDAO extends BaseDAO implements IUserDAO {
     @Override
     public boolean deleteUserById(int userId) {
         String sql = "DELETE FROM users WHERE id = ?";
-        return executeUpdate(sql, userId);
+        boolean deleted = executeUpdate(sql, userId);
+        if (deleted) {
+            DomainEventBus.getInstance().publish(DomainEventType.USER_DELETED, userId);
+        }
+        return deleted;
     }
 
     /**
@@ -162,7 +177,22 @@ public class UserDAO extends BaseDAO implements IUserDAO {
     @Override
     public boolean updateUserProfileById(int userId, String username, String firstName, String lastName, String password, boolean isAdmin) {
         String sql = "UPDATE users SET username = ?, first_name = ?, last_name = ?, password = ?, is_admin = ? WHERE id = ?";
-        return executeUpdate(sql, username, firstName, lastName, password, isAdmin, userId);
+        boolean updated = executeUpdate(sql, username, firstName, lastName, password, isAdmin, userId);
+        if (updated) {
+            publishUserUpdated(userId);
+        }
+        return updated;
+    }
+
+    /**
+     * Announces a registered or edited user on the DomainEventBus.
+     *
+     * @param userId The ID of the user, or -1 if it could not be read back.
+     */
+    private void publishUserUpdated(int userId) {
+        if (userId > 0) {
+            DomainEventBus.getInstance().publish(DomainEventType.USER_UPDATED, userId);
+        }
     }
 
     /**
@@ -1,8 +1,17 @@
 package com.thereadingroom.model.entity;
 
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
 /**
  * Represents a book entity with attributes such as ID, title, author, available copies, price, and sold copies.
  * This class provides getters and setters for manipulating book data.
+ * The editable attributes are also exposed as JavaFX properties so table rows update in place when a book changes.
+ * The properties are created on first use, so books loaded by the DAOs and services stay plain objects.
  */
 public class Book {
     private int id;               // Unique identifier for the book
@@ -12,6 +21,12 @@ public class Book {
     private double price;         // Price of the book
     private int soldCopies;       // Number of sold copies of the book
 
+    private StringProperty titleProperty;            // Observable title, created on first use
+    private StringProperty authorProperty;           // Observable author, created on first use
+    private IntegerProperty physicalCopiesProperty;  // Observable physical copies, created on first use
+    private DoubleProperty priceProperty;            // Observable price, created on first use
+    private IntegerProperty soldCopiesProperty;      // Observable sold copies, created on first use
+
     /**
      * Constructor to initialize a book instance with its attributes.
      *
@@ -43,51 +58,120 @@ public class Book {
 
     // Getter for the book's title
     public String getTitle() {
-        return title;
+        return titleProperty == null ? title : titleProperty.get();
     }
 
     // Setter for the book's title
     public void setTitle(String title) {
-        this.title = title;
+        if (titleProperty == null) {
+            this.title = title;
+        } else {
+            titleProperty.set(title);
+        }
+    }
+
+    // Observable title, for binding in UI components
+    public StringProperty titleProperty() {
+        if (titleProperty == null) {
+            titleProperty = new SimpleStringProperty(this, "title", title);
+        }
+        return titleProperty;
     }
 
     // Getter for the book's author
     public String getAuthor() {
-        return author;
+        return authorProperty == null ? author : authorProperty.get();
     }
 
     // Setter for the book's author
     public void setAuthor(String author) {
-        this.author = author;
+        if (authorProperty == null) {
+            this.author = author;
+        } else {
+            authorProperty.set(author);
+        }
+    }
+
+    // Observable author, for binding in UI components
+    public StringProperty authorProperty() {
+        if (authorProperty == null) {
+            authorProperty = new SimpleStringProperty(this, "author", author);
+        }
+        return authorProperty;
     }
 
     // Getter for the number of physical copies available
     public int getPhysicalCopies() {
-        return physicalCopies;
+        return physicalCopiesProperty == null ? physicalCopies : physicalCopiesProperty.get();
     }
 
     // Setter for the number of physical copies available
     public void setPhysicalCopies(int physicalCopies) {
-        this.physicalCopies = physicalCopies;
+        if (physicalCopiesProperty == null) {
+            this.physicalCopies = physicalCopies;
+        } else {
+            physicalCopiesProperty.set(physicalCopies);
+        }
+    }
+
+    // Observable number of physical copies, for binding in UI components
+    public IntegerProperty physicalCopiesProperty() {
+        if (physicalCopiesProperty == null) {
+            physicalCopiesProperty = new SimpleIntegerProperty(this, "physicalCopies", physicalCopies);
+        }
+        return physicalCopiesProperty;
     }
 
     // Getter for the book's price
     public double getPrice() {
-        return price;
+        return priceProperty == null ? price : priceProperty.get();
     }
 
     // Setter for the book's price
     public void setPrice(double price) {
-        this.price = price;
+        if (priceProperty == null) {
+            this.price = price;
+        } else {
+            priceProperty.set(price);
+        }
+    }
+
+    // Observable price, for binding in UI components
+    public DoubleProperty priceProperty() {
+        if (priceProperty == null) {
+            priceProperty = new SimpleDoubleProperty(this, "price", price);
+        }
+        return priceProperty;
     }
 
     // Getter for the number of sold copies
     public int getSoldCopies() {
-        return soldCopies;
+        return soldCopiesProperty == null ? soldCopies : soldCopiesProperty.get();
     }
 
     // Setter for the number of sold copies
     public void setSoldCopies(int soldCopies) {
-        this.soldCopies = soldCopies;
+        if (soldCopiesProperty == null) {
+            this.soldCopies = soldCopies;
+        } else {
+            soldCopiesProperty.set(soldCopies);
+        }
+    }
+
+    // Observable number of sold copies, for binding in UI components
+    public IntegerProperty soldCopiesProperty() {
+        if (soldCopiesProperty == null) {
+            soldCopiesProperty = new SimpleIntegerProperty(this, "soldCopies", soldCopies);
+        }
+        return soldCopiesProperty;
+    }
+
+    // Copies the editable attributes of another instance of the same book into this one
+    public void copyFrom(Book other) {
+        setTitle(other.getTitle());
+        setAuthor(other.getAuthor());
+        setPhysicalCopies(other.getPhysicalCopies());
+        setPrice(other.getPrice());
+        setSoldCopies(other.getSoldCopies());
     }
 }
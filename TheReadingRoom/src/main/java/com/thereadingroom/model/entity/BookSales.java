@@ -0,0 +1,63 @@
+package com.thereadingroom.model.entity;
+
+/**
+ * Sales of one book over a date range, summed from the per-book daily sales rollup.
+ */
+public class BookSales {
+
+    private final int bookId;            // Unique identifier for the book
+    private final String title;          // Title of the book
+    private final int unitsSold;         // Number of copies sold in the range
+    private final double revenue;        // Revenue of the book in the range
+
+    /**
+     * Constructor to create the sales of a book.
+     *
+     * @param bookId    The unique ID of the book.
+     * @param title     The title of the book.
+     * @param unitsSold The number of copies sold.
+     * @param revenue   The revenue of the book.
+     */
+    public BookSales(int bookId, String title, int unitsSold, double revenue) {
+        this.bookId = bookId;
+        this.title = title;
+        this.unitsSold = unitsSold;
+        this.revenue = revenue;
+    }
+
+    /**
+     * Gets the unique ID of the book.
+     *
+     * @return The book's unique identifier.
+     */
+    public int getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Gets the title of the book.
+     *
+     * @return The book's title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the number of copies sold.
+     *
+     * @return The units sold.
+     */
+    public int getUnitsSold() {
+        return unitsSold;
+    }
+
+    /**
+     * Gets the revenue of the book.
+     *
+     * @return The revenue.
+     */
+    public double getRevenue() {
+        return revenue;
+    }
+}
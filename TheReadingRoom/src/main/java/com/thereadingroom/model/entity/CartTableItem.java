@@ -56,6 +56,15 @@ public class CartTableItem {
         return quantity.get();
     }
 
+    /**
+     * Property method for the quantity, used for binding in UI components.
+     *
+     * @return A SimpleIntegerProperty representing the quantity.
+     */
+    public SimpleIntegerProperty quantityProperty() {
+        return quantity;
+    }
+
     /**
      * Updates the quantity of the book in the cart and recalculates the total amount.
      *
@@ -93,6 +102,15 @@ public class CartTableItem {
         return selected.get();
     }
 
+    /**
+     * Property method for the selection state, used for binding in UI components.
+     *
+     * @return A SimpleBooleanProperty representing whether the item is selected for checkout.
+     */
+    public SimpleBooleanProperty selectedProperty() {
+        return selected;
+    }
+
     /**
      * Sets whether the item is selected for checkout.
      *
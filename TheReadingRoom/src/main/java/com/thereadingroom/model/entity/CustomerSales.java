@@ -0,0 +1,75 @@
+package com.thereadingroom.model.entity;
+
+/**
+ * Lifetime purchases of one customer, read from the per-user sales rollup.
+ */
+public class CustomerSales {
+
+    private final int userId;            // Unique identifier for the user
+    private final String username;       // Username of the user
+    private final int orderCount;        // Number of orders the user placed
+    private final int unitsBought;       // Number of copies the user bought
+    private final double revenue;        // Sum of the user's order totals
+
+    /**
+     * Constructor to create the purchases of a customer.
+     *
+     * @param userId      The unique ID of the user.
+     * @param username    The username of the user.
+     * @param orderCount  The number of orders the user placed.
+     * @param unitsBought The number of copies the user bought.
+     * @param revenue     The sum of the user's order totals.
+     */
+    public CustomerSales(int userId, String username, int orderCount, int unitsBought, double revenue) {
+        this.userId = userId;
+        this.username = username;
+        this.orderCount = orderCount;
+        this.unitsBought = unitsBought;
+        this.revenue = revenue;
+    }
+
+    /**
+     * Gets the unique ID of the user.
+     *
+     * @return The user's unique identifier.
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the username of the user.
+     *
+     * @return The username.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the number of orders the user placed.
+     *
+     * @return The order count.
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Gets the number of copies the user bought.
+     *
+     * @return The units bought.
+     */
+    public int getUnitsBought() {
+        return unitsBought;
+    }
+
+    /**
+     * Gets the sum of the user's order totals.
+     *
+     * @return The revenue from the user.
+     */
+    public double getRevenue() {
+        return revenue;
+    }
+}
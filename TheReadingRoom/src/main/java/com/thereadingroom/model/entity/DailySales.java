@@ -0,0 +1,65 @@
+package com.thereadingroom.model.entity;
+
+import java.time.LocalDate;
+
+/**
+ * Sales of one day, read from the daily sales rollup: the number of orders, copies sold and revenue.
+ */
+public class DailySales {
+
+    private final LocalDate day;         // The day the orders were placed
+    private final int orderCount;        // Number of orders placed that day
+    private final int unitsSold;         // Number of copies sold that day
+    private final double revenue;        // Sum of the order totals of that day
+
+    /**
+     * Constructor to create the sales of a day.
+     *
+     * @param day        The day.
+     * @param orderCount The number of orders placed that day.
+     * @param unitsSold  The number of copies sold that day.
+     * @param revenue    The sum of the order totals of that day.
+     */
+    public DailySales(LocalDate day, int orderCount, int unitsSold, double revenue) {
+        this.day = day;
+        this.orderCount = orderCount;
+        this.unitsSold = unitsSold;
+        this.revenue = revenue;
+    }
+
+    /**
+     * Gets the day.
+     *
+     * @return The day the orders were placed.
+     */
+    public LocalDate getDay() {
+        return day;
+    }
+
+    /**
+     * Gets the number of orders placed that day.
+     *
+     * @return The order count.
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Gets the number of copies sold that day.
+     *
+     * @return The units sold.
+     */
+    public int getUnitsSold() {
+        return unitsSold;
+    }
+
+    /**
+     * Gets the revenue of the day.
+     *
+     * @return The sum of the order totals.
+     */
+    public double getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,65 @@
+package com.thereadingroom.model.entity;
+
+/**
+ * Represents the persisted state of a flash sale for a single book.
+ * While a sale is active, the book's stock is handed out from memory and the books row is only
+ * brought up to date in batches; the reconciled count records how much of the sale is already applied.
+ */
+public class FlashSale {
+
+    private final int bookId;        // The book on sale
+    private final long epoch;        // Unique id of this sale, used to match journal records
+    private final int allocated;     // Copies moved into the sale when it started
+    private final int reconciled;    // Net copies already subtracted from the books row
+
+    /**
+     * Constructor to initialize a FlashSale with its persisted values.
+     *
+     * @param bookId     The ID of the book on sale.
+     * @param epoch      The unique id of the sale.
+     * @param allocated  The number of copies allocated to the sale.
+     * @param reconciled The net number of copies already applied to the books row.
+     */
+    public FlashSale(int bookId, long epoch, int allocated, int reconciled) {
+        this.bookId = bookId;
+        this.epoch = epoch;
+        this.allocated = allocated;
+        this.reconciled = reconciled;
+    }
+
+    /**
+     * Returns the ID of the book on sale.
+     *
+     * @return The book ID.
+     */
+    public int getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Returns the unique id of the sale.
+     *
+     * @return The sale epoch.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the number of copies allocated to the sale when it started.
+     *
+     * @return The allocated copies.
+     */
+    public int getAllocated() {
+        return allocated;
+    }
+
+    /**
+     * Returns the net number of copies already subtracted from the books row.
+     *
+     * @return The reconciled copies.
+     */
+    public int getReconciled() {
+        return reconciled;
+    }
+}
@@ -1,5 +1,12 @@
 package com.thereadingroom.model.entity;
 
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -9,6 +16,8 @@ import java.util.List;
  * user information, total price, and the list of ordered items.
  * This class is designed to be immutable in terms of order date and flexible in managing
  * other details like items and total price.
+ * The displayed details are also exposed as JavaFX properties (created on first use), so a changed
+ * order's table row updates in place.
  */
 public class Order {
 
@@ -16,9 +25,16 @@ public class Order {
     private String orderNumber;            // Unique reference number for the order
     private int userId;                    // The ID of the user who placed the order
     private double totalPrice;             // Total cost of all the items in the order
+    // Format of the displayed order date (formatters are immutable and thread-safe, so one is shared)
+    static final DateTimeFormatter DISPLAY_DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm");
+
     private final LocalDateTime orderDate; // Date and time when the order was placed, immutable
     private List<OrderItem> orderItems;    // List of items included in the order
 
+    private StringProperty orderNumberProperty;  // Observable order number, created on first use
+    private IntegerProperty userIdProperty;      // Observable user ID, created on first use
+    private DoubleProperty totalPriceProperty;   // Observable total price, created on first use
+
     /**
      * Constructor to create a new Order instance with the current timestamp as the order date.
      * Used when creating new orders at runtime.
@@ -88,7 +104,7 @@ public class Order {
      * @return The unique order number for the transaction.
      */
     public String getOrderNumber() {
-        return orderNumber;
+        return orderNumberProperty == null ? orderNumber : orderNumberProperty.get();
     }
 
     /**
@@ -97,7 +113,23 @@ public class Order {
      * @param orderNumber The order number to set.
      */
     public void setOrderNumber(String orderNumber) {
-        this.orderNumber = orderNumber;
+        if (orderNumberProperty == null) {
+            this.orderNumber = orderNumber;
+        } else {
+            orderNumberProperty.set(orderNumber);
+        }
+    }
+
+    /**
+     * Returns the order number as an observable property.
+     *
+     * @return The order number property.
+     */
+    public StringProperty orderNumberProperty() {
+        if (orderNumberProperty == null) {
+            orderNumberProperty = new SimpleStringProperty(this, "orderNumber", orderNumber);
+        }
+        return orderNumberProperty;
     }
 
     /**
@@ -106,7 +138,7 @@ public class Order {
      * @return The user ID.
      */
     public int getUserId() {
-        return userId;
+        return userIdProperty == null ? userId : userIdProperty.get();
     }
 
     /**
@@ -115,7 +147,23 @@ public class Order {
      * @param userId The user ID to set.
      */
     public void setUserId(int userId) {
-        this.userId = userId;
+        if (userIdProperty == null) {
+            this.userId = userId;
+        } else {
+            userIdProperty.set(userId);
+        }
+    }
+
+    /**
+     * Returns the ID of the user who placed the order as an observable property.
+     *
+     * @return The user ID property.
+     */
+    public IntegerProperty userIdProperty() {
+        if (userIdProperty == null) {
+            userIdProperty = new SimpleIntegerProperty(this, "userId", userId);
+        }
+        return userIdProperty;
     }
 
     /**
@@ -124,7 +172,7 @@ public class Order {
      * @return The total price of the order.
      */
     public double getTotalPrice() {
-        return totalPrice;
+        return totalPriceProperty == null ? totalPrice : totalPriceProperty.get();
     }
 
     /**
@@ -134,7 +182,23 @@ public class Order {
      * @param totalPrice The new total price to set.
      */
     public void setTotalPrice(double totalPrice) {
-        this.totalPrice = totalPrice;
+        if (totalPriceProperty == null) {
+            this.totalPrice = totalPrice;
+        } else {
+            totalPriceProperty.set(totalPrice);
+        }
+    }
+
+    /**
+     * Returns the total price of the order as an observable property.
+     *
+     * @return The total price property.
+     */
+    public DoubleProperty totalPriceProperty() {
+        if (totalPriceProperty == null) {
+            totalPriceProperty = new SimpleDoubleProperty(this, "totalPrice", totalPrice);
+        }
+        return totalPriceProperty;
     }
 
     /**
@@ -171,7 +235,19 @@ public class Order {
      * @return The formatted order date as a string (MM/dd/yyyy HH:mm).
      */
     public String getFormattedOrderDate() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm");
-        return orderDate.format(formatter);
+        return orderDate.format(DISPLAY_DATE_FORMAT);
+    }
+
+    /**
+     * Copies the details of another instance of the same order into this one.
+     * The order date is immutable and is not copied.
+     *
+     * @param other The order holding the new details.
+     */
+    public void copyFrom(Order other) {
+        setOrderNumber(other.getOrderNumber());
+        setUserId(other.getUserId());
+        setTotalPrice(other.getTotalPrice());
+        setOrderItems(other.getOrderItems());
     }
 }
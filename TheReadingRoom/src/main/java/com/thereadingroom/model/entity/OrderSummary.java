@@ -0,0 +1,87 @@
+package com.thereadingroom.model.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * A lightweight, read-only view of an order for order history lists: the order's header and the number
+ * of items, without the items themselves (those are loaded separately when the order is expanded).
+ */
+public class OrderSummary {
+
+    private final int orderId;                 // Unique identifier for the order
+    private final String orderNumber;          // Unique reference number for the order
+    private final double totalPrice;           // Total cost of all the items in the order
+    private final LocalDateTime orderDate;     // Date and time when the order was placed
+    private final int itemCount;               // Number of distinct items (books) in the order
+
+    /**
+     * Constructor to create an order summary.
+     *
+     * @param orderId     The unique ID of the order.
+     * @param orderNumber The unique order number.
+     * @param totalPrice  The total price of the order.
+     * @param orderDate   The date and time when the order was placed.
+     * @param itemCount   The number of distinct items in the order.
+     */
+    public OrderSummary(int orderId, String orderNumber, double totalPrice, LocalDateTime orderDate, int itemCount) {
+        this.orderId = orderId;
+        this.orderNumber = orderNumber;
+        this.totalPrice = totalPrice;
+        this.orderDate = orderDate;
+        this.itemCount = itemCount;
+    }
+
+    /**
+     * Gets the unique ID of the order.
+     *
+     * @return The order's unique identifier.
+     */
+    public int getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Gets the order's reference number.
+     *
+     * @return The unique order number.
+     */
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    /**
+     * Gets the total price of the order.
+     *
+     * @return The total price.
+     */
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    /**
+     * Gets the date and time when the order was placed.
+     *
+     * @return The order date.
+     */
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    /**
+     * Gets the number of distinct items in the order.
+     *
+     * @return The item count.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Formats the order date in a readable format (MM/dd/yyyy HH:mm), like Order does.
+     *
+     * @return The formatted order date.
+     */
+    public String getFormattedOrderDate() {
+        return orderDate.format(Order.DISPLAY_DATE_FORMAT);
+    }
+}
@@ -0,0 +1,52 @@
+package com.thereadingroom.model.entity;
+
+/**
+ * Represents reserved copies of a book that still have to be returned to stock.
+ * A revert is kept here when the book stayed locked by other checkouts, and is applied by a later retry.
+ */
+public class PendingStockRevert {
+
+    private final long revertId;    // Row id of the pending revert
+    private final int bookId;       // The book whose copies were reserved
+    private final int quantity;     // Copies to return to stock
+
+    /**
+     * Constructor to initialize a PendingStockRevert.
+     *
+     * @param revertId The row id of the pending revert.
+     * @param bookId   The ID of the book.
+     * @param quantity The number of copies to return to stock.
+     */
+    public PendingStockRevert(long revertId, int bookId, int quantity) {
+        this.revertId = revertId;
+        this.bookId = bookId;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Returns the row id of the pending revert.
+     *
+     * @return The revert ID.
+     */
+    public long getRevertId() {
+        return revertId;
+    }
+
+    /**
+     * Returns the ID of the book.
+     *
+     * @return The book ID.
+     */
+    public int getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Returns the number of copies to return to stock.
+     *
+     * @return The quantity.
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,76 @@
+package com.thereadingroom.model.entity;
+
+/**
+ * One group of an ad-hoc sales cube query, for instance one author in one month:
+ * the labels of its dimensions, the number of order lines, copies sold and revenue.
+ */
+public class SalesSlice {
+
+    private final String groupLabel;    // Value of the first grouping dimension
+    private final String thenLabel;     // Value of the second grouping dimension, or empty
+    private final long lineCount;       // Number of order lines in the group
+    private final long unitsSold;       // Number of copies sold in the group
+    private final double revenue;       // Sum of the line totals of the group
+
+    /**
+     * Constructor to create a group of a cube query.
+     *
+     * @param groupLabel Value of the first grouping dimension.
+     * @param thenLabel  Value of the second grouping dimension, or empty.
+     * @param lineCount  The number of order lines in the group.
+     * @param unitsSold  The number of copies sold in the group.
+     * @param revenue    The sum of the line totals of the group.
+     */
+    public SalesSlice(String groupLabel, String thenLabel, long lineCount, long unitsSold, double revenue) {
+        this.groupLabel = groupLabel;
+        this.thenLabel = thenLabel;
+        this.lineCount = lineCount;
+        this.unitsSold = unitsSold;
+        this.revenue = revenue;
+    }
+
+    /**
+     * Gets the value of the first grouping dimension.
+     *
+     * @return The label, e.g. an author's name.
+     */
+    public String getGroupLabel() {
+        return groupLabel;
+    }
+
+    /**
+     * Gets the value of the second grouping dimension.
+     *
+     * @return The label, e.g. a month, or empty if the query groups by one dimension.
+     */
+    public String getThenLabel() {
+        return thenLabel;
+    }
+
+    /**
+     * Gets the number of order lines in the group.
+     *
+     * @return The line count.
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Gets the number of copies sold in the group.
+     *
+     * @return The units sold.
+     */
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    /**
+     * Gets the revenue of the group.
+     *
+     * @return The sum of the line totals.
+     */
+    public double getRevenue() {
+        return revenue;
+    }
+}
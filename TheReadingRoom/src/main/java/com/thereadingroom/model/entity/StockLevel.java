@@ -0,0 +1,51 @@
+package com.thereadingroom.model.entity;
+
+/**
+ * Represents a book's stock levels at a point in time.
+ */
+public class StockLevel {
+
+    private final int bookId;           // The book
+    private final int physicalCopies;   // Copies available
+    private final int soldCopies;       // Copies sold
+
+    /**
+     * Constructor to initialize a StockLevel.
+     *
+     * @param bookId         The ID of the book.
+     * @param physicalCopies The number of copies available.
+     * @param soldCopies     The number of copies sold.
+     */
+    public StockLevel(int bookId, int physicalCopies, int soldCopies) {
+        this.bookId = bookId;
+        this.physicalCopies = physicalCopies;
+        this.soldCopies = soldCopies;
+    }
+
+    /**
+     * Returns the ID of the book.
+     *
+     * @return The book ID.
+     */
+    public int getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Returns the number of copies available.
+     *
+     * @return The physical copies.
+     */
+    public int getPhysicalCopies() {
+        return physicalCopies;
+    }
+
+    /**
+     * Returns the number of copies sold.
+     *
+     * @return The sold copies.
+     */
+    public int getSoldCopies() {
+        return soldCopies;
+    }
+}
@@ -0,0 +1,128 @@
+package com.thereadingroom.model.entity;
+
+/**
+ * Represents one entry in the append-only stock ledger.
+ * Every change to a book's physical or sold copies is recorded as a movement, so the current stock
+ * levels can be rebuilt (and explained) by replaying movements on top of the last snapshot.
+ */
+public class StockMovement {
+
+    /**
+     * The reason for a stock movement.
+     */
+    public enum Type {
+        RESERVE,   // Copies held for a checkout
+        RELEASE,   // Held copies returned after a canceled checkout
+        SALE,      // Copies sold after a successful payment
+        ADJUST,    // Manual correction by an admin
+        RESTOCK    // New copies added by an admin
+    }
+
+    private long movementId;           // Ledger position, assigned when the movement is written
+    private final int bookId;          // The book whose stock changed
+    private final Type type;           // Why the stock changed
+    private final int physicalDelta;   // Change to the physical copies
+    private final int soldDelta;       // Change to the sold copies
+    private final String reference;    // Optional reference (e.g., order number or flash sale), may be null
+
+    /**
+     * Constructor to initialize a movement that has not been written yet.
+     *
+     * @param bookId        The ID of the book.
+     * @param type          The reason for the movement.
+     * @param physicalDelta The change to the physical copies.
+     * @param soldDelta     The change to the sold copies.
+     * @param reference     An optional reference, or null.
+     */
+    public StockMovement(int bookId, Type type, int physicalDelta, int soldDelta, String reference) {
+        this(0, bookId, type, physicalDelta, soldDelta, reference);
+    }
+
+    /**
+     * Constructor to initialize a movement read from the ledger.
+     *
+     * @param movementId    The ledger position of the movement.
+     * @param bookId        The ID of the book.
+     * @param type          The reason for the movement.
+     * @param physicalDelta The change to the physical copies.
+     * @param soldDelta     The change to the sold copies.
+     * @param reference     An optional reference, or null.
+     */
+    public StockMovement(long movementId, int bookId, Type type, int physicalDelta, int soldDelta, String reference) {
+        this.movementId = movementId;
+        this.bookId = bookId;
+        this.type = type;
+        this.physicalDelta = physicalDelta;
+        this.soldDelta = soldDelta;
+        this.reference = reference;
+    }
+
+    /**
+     * Returns the ledger position of the movement.
+     *
+     * @return The movement ID, or 0 if it has not been written yet.
+     */
+    public long getMovementId() {
+        return movementId;
+    }
+
+    /**
+     * Sets the ledger position of the movement once it has been written.
+     *
+     * @param movementId The movement ID.
+     */
+    public void setMovementId(long movementId) {
+        this.movementId = movementId;
+    }
+
+    /**
+     * Returns the ID of the book whose stock changed.
+     *
+     * @return The book ID.
+     */
+    public int getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Returns the reason for the movement.
+     *
+     * @return The movement type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the change to the physical copies.
+     *
+     * @return The physical copies delta.
+     */
+    public int getPhysicalDelta() {
+        return physicalDelta;
+    }
+
+    /**
+     * Returns the change to the sold copies.
+     *
+     * @return The sold copies delta.
+     */
+    public int getSoldDelta() {
+        return soldDelta;
+    }
+
+    /**
+     * Returns the optional reference recorded with the movement.
+     *
+     * @return The reference, or null.
+     */
+    public String getReference() {
+        return reference;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + movementId + " " + type + " book " + bookId + ": physical " + physicalDelta + ", sold " + soldDelta
+                + (reference == null ? "" : " (" + reference + ")");
+    }
+}
@@ -1,8 +1,13 @@
 package com.thereadingroom.model.entity;
 
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
 /**
  * Represents a user entity in the application, storing user details such as
  * username, first name, last name, password, and admin status.
+ * The displayed names are also exposed as JavaFX properties (created on first use), so an edited
+ * user's table row updates in place.
  */
 public class User {
 
@@ -13,6 +18,10 @@ public class User {
     private String password;  // Password of the user
     private boolean isAdmin;  // Whether the user is an admin
 
+    private StringProperty usernameProperty;   // Observable username, created on first use
+    private StringProperty firstNameProperty;  // Observable first name, created on first use
+    private StringProperty lastNameProperty;   // Observable last name, created on first use
+
     /**
      * Constructor to initialize the User object with all attributes.
      *
@@ -53,7 +62,7 @@ public class User {
      * @return Username.
      */
     public String getUsername() {
-        return username;
+        return usernameProperty == null ? username : usernameProperty.get();
     }
 
     /**
@@ -62,7 +71,7 @@ public class User {
      * @return First name.
      */
     public String getFirstName() {
-        return firstName;
+        return firstNameProperty == null ? firstName : firstNameProperty.get();
     }
 
     /**
@@ -71,7 +80,7 @@ public class User {
      * @return Last name.
      */
     public String getLastName() {
-        return lastName;
+        return lastNameProperty == null ? lastName : lastNameProperty.get();
     }
 
     /**
@@ -100,7 +109,11 @@ public class User {
      * @param firstName The new first name.
      */
     public void setFirstName(String firstName) {
-        this.firstName = firstName;
+        if (firstNameProperty == null) {
+            this.firstName = firstName;
+        } else {
+            firstNameProperty.set(firstName);
+        }
     }
 
     /**
@@ -109,7 +122,11 @@ public class User {
      * @param lastName The new last name.
      */
     public void setLastName(String lastName) {
-        this.lastName = lastName;
+        if (lastNameProperty == null) {
+            this.lastName = lastName;
+        } else {
+            lastNameProperty.set(lastName);
+        }
     }
 
     /**
@@ -136,6 +153,61 @@ public class User {
      * @param username The new username.
      */
     public void setUsername(String username) {
-        this.username = username;
+        if (usernameProperty == null) {
+            this.username = username;
+        } else {
+            usernameProperty.set(username);
+        }
+    }
+
+    // Observable properties for binding in UI components
+
+    /**
+     * Returns the username as an observable property.
+     *
+     * @return Username property.
+     */
+    public StringProperty usernameProperty() {
+        if (usernameProperty == null) {
+            usernameProperty = new SimpleStringProperty(this, "username", username);
+        }
+        return usernameProperty;
+    }
+
+    /**
+     * Returns the first name as an observable property.
+     *
+     * @return First name property.
+     */
+    public StringProperty firstNameProperty() {
+        if (firstNameProperty == null) {
+            firstNameProperty = new SimpleStringProperty(this, "firstName", firstName);
+        }
+        return firstNameProperty;
+    }
+
+    /**
+     * Returns the last name as an observable property.
+     *
+     * @return Last name property.
+     */
+    public StringProperty lastNameProperty() {
+        if (lastNameProperty == null) {
+            lastNameProperty = new SimpleStringProperty(this, "lastName", lastName);
+        }
+        return lastNameProperty;
+    }
+
+    /**
+     * Copies the details of another instance of the same user into this one.
+     *
+     * @param other The user holding the new details.
+     */
+    public void copyFrom(User other) {
+        setUsername(other.getUsername());
+        setFirstName(other.getFirstName());
+        setLastName(other.getLastName());
+        setPassword(other.getPassword());
+        setAdmin(other.isAdmin());
     }
 }
@@ -17,12 +17,15 @@ import com.thereadingroom.service.payment.PaymentService;
 import com.thereadingroom.service.user.IUserService;
 import com.thereadingroom.service.user.UserService;
 import com.thereadingroom.utils.auth.SessionManager;
+import com.thereadingroom.utils.trace.Tracer;
 
 /**
  * ServiceManager is a singleton class responsible for managing and providing access
  * to various services used in the application. It serves as a central point for
  * creating and retrieving service instances, ensuring that only one instance of each
  * service is created and used throughout the application.
+ * Services are handed out wrapped by Tracer, so calls made during a traced user action are recorded as spans;
+ * InventoryService records its own spans, as controllers also use it directly.
  */
 public class ServiceManager {
 
@@ -47,14 +50,14 @@ public class ServiceManager {
         // Data Access Object (DAO) for books
         IBookDAO bookDAO = new BookDAO();
 
-        // Initialize services
-        this.userService = new UserService();
-        this.orderService = OrderService.getInstance();
+        // Initialize services, traced when called during a traced user action
+        this.userService = Tracer.traced(IUserService.class, new UserService());
+        this.orderService = Tracer.traced(IOrderService.class, OrderService.getInstance());
         this.inventoryService = new InventoryService(bookDAO);  // Injecting bookDAO into inventory service
-        this.paymentService = PaymentService.getInstance();
-        this.cartService = CartService.getInstance();
-        this.bookService = BookService.getInstance();
-        this.csvExportService = CSVExportService.getInstance();
+        this.paymentService = Tracer.traced(IPaymentService.class, PaymentService.getInstance());
+        this.cartService = Tracer.traced(ICartService.class, CartService.getInstance());
+        this.bookService = Tracer.traced(IBookService.class, BookService.getInstance());
+        this.csvExportService = Tracer.traced(ICSVExportService.class, CSVExportService.getInstance());
         this.sessionManager = new SessionManager();  // Create an instance of SessionManager for handling sessions
     }
 
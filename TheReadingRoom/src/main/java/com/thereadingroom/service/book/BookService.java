@@ -1,6 +1,9 @@
 package com.thereadingroom.service.book;
 
 import com.thereadingroom.model.dao.book.BookDAO;
+import com.thereadingroom.model.dao.catalog.BookCatalog;
+import com.thereadingroom.model.dao.catalog.CatalogSnapshot;
+import com.thereadingroom.model.dao.search.BookSearchIndex;
 import com.thereadingroom.model.entity.Book;
 
 import java.util.List;
@@ -46,6 +49,16 @@ public class BookService implements IBookService {
         return bookDAO.getAllBooks();
     }
 
+    /**
+     * Retrieve the current in-memory snapshot of the whole catalog, loading it on first use.
+     *
+     * @return The current catalog snapshot.
+     */
+    @Override
+    public CatalogSnapshot getCatalogSnapshot() {
+        return BookCatalog.getInstance().getSnapshot();
+    }
+
     /**
      * Retrieve the top 5 best-selling books based on the number of copies sold.
      *
@@ -67,6 +80,31 @@ public class BookService implements IBookService {
         return bookDAO.searchBooksByTitle(keyword);
     }
 
+    /**
+     * Search for books as the user types, matching the start of words in their title or author.
+     *
+     * @param query The words typed so far.
+     * @param limit The maximum number of books.
+     * @return The IDs of the matching books, best matches first.
+     */
+    @Override
+    public List<Integer> searchBookIds(String query, int limit) {
+        return BookSearchIndex.getInstance().search(query, limit);
+    }
+
+    /**
+     * Search for books tolerating typos: every word must be within a few edits of a title or author word.
+     *
+     * @param query    The words entered, possibly misspelled.
+     * @param maxEdits The most insertions, deletions, substitutions and swaps of adjacent letters per word.
+     * @param limit    The maximum number of books.
+     * @return The IDs of the matching books, closest matches first.
+     */
+    @Override
+    public List<Integer> fuzzySearch(String query, int maxEdits, int limit) {
+        return BookSearchIndex.getInstance().fuzzySearch(query, maxEdits, limit);
+    }
+
     /**
      * Update the physical stock of a specific book by its ID.
      *
@@ -1,5 +1,6 @@
 package com.thereadingroom.service.book;
 
+import com.thereadingroom.model.dao.catalog.CatalogSnapshot;
 import com.thereadingroom.model.entity.Book;
 import java.util.List;
 
@@ -17,6 +18,14 @@ public interface IBookService {
      */
     List<Book> getAllBooks();
 
+    /**
+     * Retrieve the current in-memory snapshot of the whole catalog, loading it on first use.
+     * Prefer it over getAllBooks for large catalogs: its books are compact views instead of separate entities.
+     *
+     * @return The current catalog snapshot.
+     */
+    CatalogSnapshot getCatalogSnapshot();
+
     /**
      * Retrieve the top 5 best-selling books based on the number of copies sold.
      *
@@ -32,6 +41,27 @@ public interface IBookService {
      */
     List<Book> searchBooksByTitle(String keyword);
 
+    /**
+     * Search for books as the user types, matching the start of words in their title or author.
+     * Answered from an in-memory index, without querying the database.
+     *
+     * @param query The words typed so far.
+     * @param limit The maximum number of books.
+     * @return The IDs of the matching books, best matches first.
+     */
+    List<Integer> searchBookIds(String query, int limit);
+
+    /**
+     * Search for books tolerating typos: every word must be within a few edits of a title or author word.
+     * Answered from an in-memory index, without querying the database.
+     *
+     * @param query    The words entered, possibly misspelled.
+     * @param maxEdits The most insertions, deletions, substitutions and swaps of adjacent letters per word.
+     * @param limit    The maximum number of books.
+     * @return The IDs of the matching books, closest matches first.
+     */
+    List<Integer> fuzzySearch(String query, int maxEdits, int limit);
+
     /**
      * Update the physical stock of a book.
      *
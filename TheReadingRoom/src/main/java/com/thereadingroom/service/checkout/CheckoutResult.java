@@ -0,0 +1,45 @@
+package com.thereadingroom.service.checkout;
+
+/**
+ * Outcome of an idempotent checkout.
+ * A duplicate result means the checkout token had already been used (or was being used concurrently),
+ * so no payment, order or stock change was made for this request.
+ */
+public class CheckoutResult {
+
+    private final String orderReference;  // Order created by the original checkout (null if a concurrent original failed)
+    private final boolean duplicate;      // Whether this request repeated an earlier checkout
+
+    private CheckoutResult(String orderReference, boolean duplicate) {
+        this.orderReference = orderReference;
+        this.duplicate = duplicate;
+    }
+
+    /**
+     * Creates the result of a checkout that placed a new order.
+     *
+     * @param orderReference The new order's reference.
+     * @return The result.
+     */
+    public static CheckoutResult placed(String orderReference) {
+        return new CheckoutResult(orderReference, false);
+    }
+
+    /**
+     * Creates the result of a repeated checkout.
+     *
+     * @param orderReference The original order's reference, or null if unknown.
+     * @return The result.
+     */
+    public static CheckoutResult duplicate(String orderReference) {
+        return new CheckoutResult(orderReference, true);
+    }
+
+    public String getOrderReference() {
+        return orderReference;
+    }
+
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+}
@@ -0,0 +1,138 @@
+package com.thereadingroom.service.checkout;
+
+import com.thereadingroom.model.dao.idempotency.IIdempotencyDAO;
+import com.thereadingroom.model.dao.idempotency.IdempotencyDAO;
+import com.thereadingroom.utils.cache.ConcurrentLruCache;
+import com.thereadingroom.utils.trace.Tracer;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * CheckoutService deduplicates checkouts by their client-generated token.
+ * Lookups go through three layers: in-flight checkouts (so concurrent duplicates share one future),
+ * a concurrent LRU of recently completed tokens, and finally the persisted idempotency_keys table.
+ * The lookup and the checkout action run in the caller's trace (see Tracer), although they run on other threads.
+ */
+public class CheckoutService implements ICheckoutService {
+
+    // Number of recently completed checkout tokens kept in memory
+    private static final int RECENT_CHECKOUTS_CAPACITY = 1024;
+
+    // Days a persisted token is kept; a client only retries a token while its payment screen is open, far less than this
+    static final int TOKEN_RETENTION_DAYS = 30;
+
+    // Singleton instance
+    private static CheckoutService instance;
+
+    private final IIdempotencyDAO idempotencyDAO;                                   // Persisted checkout tokens
+    private final ConcurrentLruCache<String, String> completedCheckouts;            // Token -> order reference
+    private final Map<String, CompletableFuture<CheckoutResult>> inFlightCheckouts = new ConcurrentHashMap<>();
+
+    // Looks up persisted tokens off the caller's (usually the UI) thread
+    private final ExecutorService lookupExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkout-idempotency");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Private constructor for Singleton pattern
+    private CheckoutService() {
+        this(new IdempotencyDAO());
+    }
+
+    /**
+     * Creates a checkout service backed by the given idempotency DAO.
+     *
+     * @param idempotencyDAO DAO for persisted checkout tokens.
+     */
+    public CheckoutService(IIdempotencyDAO idempotencyDAO) {
+        this.idempotencyDAO = idempotencyDAO;
+        this.completedCheckouts = new ConcurrentLruCache<>(RECENT_CHECKOUTS_CAPACITY);
+    }
+
+    /**
+     * Singleton - Get the single instance of CheckoutService.
+     *
+     * @return The instance of CheckoutService.
+     */
+    public static synchronized CheckoutService getInstance() {
+        if (instance == null) {
+            instance = new CheckoutService();
+        }
+        return instance;
+    }
+
+    /**
+     * Runs a checkout at most once per token.
+     *
+     * @param checkoutToken  The client-generated checkout token.
+     * @param checkoutAction Starts the real checkout and yields the order reference.
+     * @return A future completed with the checkout result.
+     */
+    @Override
+    public CompletableFuture<CheckoutResult> checkout(String checkoutToken, Supplier<CompletableFuture<String>> checkoutAction) {
+        String completed = completedCheckouts.get(checkoutToken);
+        if (completed != null) {
+            return CompletableFuture.completedFuture(CheckoutResult.duplicate(completed));
+        }
+
+        CompletableFuture<CheckoutResult> promise = new CompletableFuture<>();
+        CompletableFuture<CheckoutResult> inFlight = inFlightCheckouts.putIfAbsent(checkoutToken, promise);
+        if (inFlight != null) {
+            // Collapse onto the running checkout; only its owner handles success or failure
+            return inFlight.handle((result, error) -> CheckoutResult.duplicate(result == null ? null : result.getOrderReference()));
+        }
+
+        Supplier<CompletableFuture<String>> tracedAction = Tracer.wrap(checkoutAction);
+        CompletableFuture
+                .supplyAsync(Tracer.wrap(() -> findCompletedCheckout(checkoutToken)), lookupExecutor)
+                .thenCompose(orderReference -> orderReference != null
+                        ? CompletableFuture.completedFuture(CheckoutResult.duplicate(orderReference))
+                        : tracedAction.get().thenApply(CheckoutResult::placed))
+                .whenComplete((result, error) -> {
+                    if (error == null && result.getOrderReference() != null) {
+                        completedCheckouts.put(checkoutToken, result.getOrderReference());
+                    }
+                    inFlightCheckouts.remove(checkoutToken, promise);  // Failed checkouts may be retried with the same token
+                    if (error == null) {
+                        promise.complete(result);
+                    } else {
+                        promise.completeExceptionally(error);
+                    }
+                });
+        return promise;
+    }
+
+    /**
+     * Deletes the persisted tokens older than the retention period. Called once at startup.
+     *
+     * @return true if any tokens were deleted.
+     */
+    @Override
+    public boolean purgeExpiredTokens() {
+        boolean deleted = idempotencyDAO.deleteKeysOlderThan(TOKEN_RETENTION_DAYS);
+        if (deleted) {
+            System.out.println("Deleted checkout tokens older than " + TOKEN_RETENTION_DAYS + " days.");
+        }
+        return deleted;
+    }
+
+    /**
+     * Looks for a completed checkout in the in-memory cache, then in the database.
+     *
+     * @param checkoutToken The checkout token.
+     * @return The order reference, or null if the token has not produced an order.
+     */
+    private String findCompletedCheckout(String checkoutToken) {
+        String orderReference = completedCheckouts.get(checkoutToken);
+        if (orderReference != null) {
+            return orderReference;
+        }
+        return idempotencyDAO.findOrderNumber(checkoutToken).orElse(null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.thereadingroom.service.checkout;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * ICheckoutService makes checkouts idempotent.
+ * Each checkout is identified by a client-generated token; repeating a token never charges, orders or adjusts stock twice.
+ */
+public interface ICheckoutService {
+
+    /**
+     * Runs a checkout at most once per token.
+     * If the token already produced an order, the original order reference is returned as a duplicate without running the action.
+     * If the token is being checked out concurrently, the caller is attached to the in-flight checkout and receives a duplicate result.
+     *
+     * @param checkoutToken  The client-generated checkout token.
+     * @param checkoutAction Starts the real checkout (payment, order, stock) and yields the order reference.
+     *                       It must record the token with the order (see IOrderService.placeOrder(Order, String)).
+     * @return A future completed with the checkout result, or exceptionally if the original checkout failed.
+     */
+    CompletableFuture<CheckoutResult> checkout(String checkoutToken, Supplier<CompletableFuture<String>> checkoutAction);
+
+    /**
+     * Deletes the persisted tokens that are too old to be retried, so the idempotency_keys table does not grow forever.
+     *
+     * @return true if any tokens were deleted.
+     */
+    boolean purgeExpiredTokens();
+}
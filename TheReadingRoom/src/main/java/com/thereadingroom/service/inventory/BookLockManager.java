@@ -0,0 +1,64 @@
+package com.thereadingroom.service.inventory;
+
+import com.thereadingroom.utils.lock.StripedLockManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookLockManager holds the striped per-book locks shared by every inventory operation in the application.
+ * Operations on the same book are serialized, operations on unrelated books proceed in parallel,
+ * and no caller waits longer than the lock timeout.
+ */
+public class BookLockManager extends StripedLockManager {
+
+    // Number of lock stripes and the longest time an inventory operation waits for its books
+    private static final int STRIPES = 64;
+    private static final long LOCK_TIMEOUT_MILLIS = 2_000;
+
+    // Singleton instance
+    private static BookLockManager instance;
+
+    // Private constructor for Singleton pattern
+    private BookLockManager() {
+        super(STRIPES);
+    }
+
+    /**
+     * Singleton - Get the single instance of BookLockManager.
+     *
+     * @return The instance of BookLockManager.
+     */
+    public static synchronized BookLockManager getInstance() {
+        if (instance == null) {
+            instance = new BookLockManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Locks the given books, waiting at most the default timeout.
+     *
+     * @param bookIds The IDs of the books to lock.
+     * @return A handle that releases the locks when closed, or null if the books could not be locked in time.
+     */
+    public LockHandle lockBooks(Collection<Integer> bookIds) {
+        try {
+            return tryLockAll(bookIds, LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Locks a single book, waiting at most the default timeout.
+     *
+     * @param bookId The ID of the book to lock.
+     * @return A handle that releases the lock when closed, or null if the book could not be locked in time.
+     */
+    public LockHandle lockBook(int bookId) {
+        return lockBooks(List.of(bookId));
+    }
+}
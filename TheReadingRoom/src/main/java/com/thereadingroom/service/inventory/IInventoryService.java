@@ -28,8 +28,10 @@ public interface IInventoryService {
      * Revert the stock reservation for the provided books.
      * This is used when a user cancels their checkout or when payment fails,
      * returning the previously reserved stock back to inventory.
+     * A revert whose books stay locked is recorded and applied later rather than dropped.
      *
      * @param books Map containing Book objects and the quantities that should be returned to stock.
+     * @throws IllegalStateException if the books could not be locked and the revert could not be recorded either.
      */
     void revertReservations(Map<Book, Integer> books);
 
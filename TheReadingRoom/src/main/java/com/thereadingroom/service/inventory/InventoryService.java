@@ -1,31 +1,84 @@
 package com.thereadingroom.service.inventory;
 
 import com.thereadingroom.model.dao.book.IBookDAO;
+import com.thereadingroom.model.dao.inventory.IPendingRevertDAO;
+import com.thereadingroom.model.dao.inventory.PendingRevertDAO;
 import com.thereadingroom.model.entity.Book;
 import com.thereadingroom.model.entity.CartTableItem;
+import com.thereadingroom.model.entity.PendingStockRevert;
+import com.thereadingroom.service.inventory.flashsale.FlashSaleManager;
+import com.thereadingroom.utils.lock.StripedLockManager;
+import com.thereadingroom.utils.trace.Span;
+import com.thereadingroom.utils.trace.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service implementation for managing book inventory operations,
  * including reserving stock, reverting reservations, checking stock availability,
  * and finalizing stock adjustments after successful purchases.
+ * Books in a flash sale are reserved from the FlashSaleManager's in-memory tokens instead of the books table.
+ * Reservations, reversions and finalizations lock the affected books, so concurrent carts touching
+ * the same books are applied one at a time while unrelated books proceed in parallel.
+ * The checkout steps and lock waits are recorded as spans when called during a traced user action; the service
+ * records them itself because controllers use it directly rather than through a traced interface.
  */
 @Service
 public class InventoryService implements IInventoryService {
 
+    // Attempts to lock the books for a revert or finalize, and the pause before the first retry (doubled each time)
+    private static final int LOCK_ATTEMPTS = 3;
+    private static final long LOCK_RETRY_BACKOFF_MILLIS = 100;
+
+    // How long a revert deferred because its books stayed locked waits before it is retried
+    private static final long PENDING_REVERT_RETRY_MILLIS = 30_000;
+
     private final IBookDAO bookDAO;
+    private final FlashSaleManager flashSaleManager;  // Serves reservations for books in a flash sale
+    private final IPendingRevertDAO pendingRevertDAO;  // Keeps reverts deferred until their books can be locked
+    private final BookLockManager bookLocks = BookLockManager.getInstance();  // Per-book locks shared by all inventory services
+    private ScheduledExecutorService revertRetrier;    // Retries deferred reverts; started when the first is deferred
+    private boolean revertRetryScheduled;              // Whether a retry is already due (guarded by this)
 
     /**
      * Constructor for InventoryService, injecting the necessary DAO dependencies.
      *
      * @param bookDAO Data access object for interacting with the book data.
      */
+    @Autowired
     public InventoryService(IBookDAO bookDAO) {
+        this(bookDAO, FlashSaleManager.getInstance());
+    }
+
+    /**
+     * Constructor for InventoryService with an explicit flash sale manager.
+     *
+     * @param bookDAO          Data access object for interacting with the book data.
+     * @param flashSaleManager Manager serving reservations for books in a flash sale.
+     */
+    public InventoryService(IBookDAO bookDAO, FlashSaleManager flashSaleManager) {
+        this(bookDAO, flashSaleManager, new PendingRevertDAO());
+    }
+
+    /**
+     * Constructor for InventoryService with an explicit flash sale manager and store of deferred reverts.
+     *
+     * @param bookDAO          Data access object for interacting with the book data.
+     * @param flashSaleManager Manager serving reservations for books in a flash sale.
+     * @param pendingRevertDAO Data access object keeping reverts deferred because their books stayed locked.
+     */
+    public InventoryService(IBookDAO bookDAO, FlashSaleManager flashSaleManager, IPendingRevertDAO pendingRevertDAO) {
         this.bookDAO = bookDAO;
+        this.flashSaleManager = flashSaleManager;
+        this.pendingRevertDAO = pendingRevertDAO;
     }
 
     /**
@@ -64,11 +117,16 @@ public class InventoryService implements IInventoryService {
      * @return true if all items could be reserved, false otherwise.
      */
     public boolean reserveStockForCheckout(List<CartTableItem> selectedItems) {
-        Map<Book, Integer> booksToReserve = new HashMap<>();
-        for (CartTableItem item : selectedItems) {
-            booksToReserve.put(item.getBook(), item.getQuantity());
+        Span span = Tracer.beginChild("service", "InventoryService.reserveStockForCheckout");
+        try {
+            Map<Book, Integer> booksToReserve = new HashMap<>();
+            for (CartTableItem item : selectedItems) {
+                booksToReserve.put(item.getBook(), item.getQuantity());
+            }
+            return reserveBooks(booksToReserve);
+        } finally {
+            span.close();
         }
-        return reserveBooks(booksToReserve);
     }
 
     /**
@@ -76,13 +134,19 @@ public class InventoryService implements IInventoryService {
      * This method restores the previously reserved stock to its original state.
      *
      * @param selectedItems List of CartTableItem objects representing the items in the cart.
+     * @throws IllegalStateException if the books could not be locked and the revert could not be recorded either.
      */
     public void revertReservedStock(List<CartTableItem> selectedItems) {
-        Map<Book, Integer> booksToRevert = new HashMap<>();
-        for (CartTableItem item : selectedItems) {
-            booksToRevert.put(item.getBook(), item.getQuantity());
+        Span span = Tracer.beginChild("service", "InventoryService.revertReservedStock");
+        try {
+            Map<Book, Integer> booksToRevert = new HashMap<>();
+            for (CartTableItem item : selectedItems) {
+                booksToRevert.put(item.getBook(), item.getQuantity());
+            }
+            revertReservations(booksToRevert);
+        } finally {
+            span.close();
         }
-        revertReservations(booksToRevert);
     }
 
     /**
@@ -91,31 +155,42 @@ public class InventoryService implements IInventoryService {
      * and updates the number of sold copies.
      *
      * @param selectedItems List of CartTableItem objects representing the items in the cart.
+     * @throws IllegalStateException if the books could not be locked.
      */
     public void finalizeStockAfterPayment(List<CartTableItem> selectedItems) {
-        Map<Book, Integer> booksToFinalize = new HashMap<>();
-        for (CartTableItem item : selectedItems) {
-            booksToFinalize.put(item.getBook(), item.getQuantity());
-        }
+        Span span = Tracer.beginChild("service", "InventoryService.finalizeStockAfterPayment");
+        try {
+            Map<Book, Integer> booksToFinalize = new HashMap<>();
+            for (CartTableItem item : selectedItems) {
+                booksToFinalize.put(item.getBook(), item.getQuantity());
+            }
 
-        for (Map.Entry<Book, Integer> entry : booksToFinalize.entrySet()) {
-            Book book = entry.getKey();
-            int quantitySold = entry.getValue();
+            StripedLockManager.LockHandle locks = lockBooksForUpdate(booksToFinalize, "finalize");
+            try {
+                for (Map.Entry<Book, Integer> entry : booksToFinalize.entrySet()) {
+                    Book book = entry.getKey();
+                    int quantitySold = entry.getValue();
 
-            // Log the finalization process
-            System.out.println("Finalizing stock for book: " + book.getTitle());
-            int currentPhysicalStock = bookDAO.getAvailableCopies(book);
-            System.out.println("Current physical stock: " + currentPhysicalStock + ", Quantity sold: " + quantitySold);
+                    // Log the finalization process
+                    System.out.println("Finalizing stock for book: " + book.getTitle());
+                    int currentPhysicalStock = bookDAO.getAvailableCopies(book);
+                    System.out.println("Current physical stock: " + currentPhysicalStock + ", Quantity sold: " + quantitySold);
 
-            try {
-                // Reduce physical stock and update sold copies in the database
-                bookDAO.updateSoldCopiesAfterPayment(book.getBookId(), quantitySold);
+                    try {
+                        // Reduce physical stock and update sold copies in the database
+                        bookDAO.updateSoldCopiesAfterPayment(book.getBookId(), quantitySold);
 
-                int updatedPhysicalStock = bookDAO.getAvailableCopies(book);
-                System.out.println("Updated physical stock: " + updatedPhysicalStock);
-            } catch (Exception e) {
-                System.err.println("Failed to finalize stock for book: " + book.getTitle() + " due to: " + e.getMessage());
+                        int updatedPhysicalStock = bookDAO.getAvailableCopies(book);
+                        System.out.println("Updated physical stock: " + updatedPhysicalStock);
+                    } catch (Exception e) {
+                        System.err.println("Failed to finalize stock for book: " + book.getTitle() + " due to: " + e.getMessage());
+                    }
+                }
+            } finally {
+                locks.close();
             }
+        } finally {
+            span.close();
         }
     }
 
@@ -127,78 +202,273 @@ public class InventoryService implements IInventoryService {
      * @return true if the stock is sufficient, false otherwise.
      */
     public boolean isStockAvailable(Book book, int quantity) {
-        int availableCopies = bookDAO.getAvailableCopies(book);
+        int availableCopies = flashSaleManager.getAvailableCopies(book.getBookId());
+        if (availableCopies < 0) {
+            availableCopies = bookDAO.getAvailableCopies(book);
+        }
         return availableCopies >= quantity;
     }
 
     /**
      * Reserves stock for a set of books by reducing their physical copies.
+     * The books are locked for the whole operation and every book is checked before any stock is taken,
+     * so a reservation either holds all requested copies or none of them.
      *
      * @param books Map of Book objects and their corresponding quantities to reserve.
      * @return true if all books could be reserved, false otherwise.
      */
     public boolean reserveBooks(Map<Book, Integer> books) {
-        for (Map.Entry<Book, Integer> entry : books.entrySet()) {
-            int availableCopies = bookDAO.getAvailableCopies(entry.getKey());
-            if (availableCopies < entry.getValue()) {
+        try (StripedLockManager.LockHandle locks = lockBooks(books)) {
+            if (locks == null) {
+                System.out.println("Could not reserve stock: the selected books are busy.");
                 return false;
             }
-            // Reserve stock by reducing physical copies
-            bookDAO.reducePhysicalCopies(entry.getKey().getBookId(), entry.getValue());
+
+            // Flash sale books are granted from memory without touching the books table
+            Map<Book, Integer> flashSaleGrants = new HashMap<>();
+            Map<Book, Integer> regularStock = new HashMap<>();
+            for (Map.Entry<Book, Integer> entry : books.entrySet()) {
+                FlashSaleManager.Reservation reservation = flashSaleManager.tryReserve(entry.getKey().getBookId(), entry.getValue());
+                if (reservation == FlashSaleManager.Reservation.GRANTED) {
+                    flashSaleGrants.put(entry.getKey(), entry.getValue());
+                } else if (reservation == FlashSaleManager.Reservation.NOT_IN_SALE) {
+                    regularStock.put(entry.getKey(), entry.getValue());
+                } else {
+                    releaseFlashSaleGrants(flashSaleGrants);
+                    return false;
+                }
+            }
+
+            for (Map.Entry<Book, Integer> entry : regularStock.entrySet()) {
+                if (bookDAO.getAvailableCopies(entry.getKey()) < entry.getValue()) {
+                    releaseFlashSaleGrants(flashSaleGrants);
+                    return false;
+                }
+            }
+
+            // Reserve stock by reducing physical copies (safe: the books are locked and were all checked)
+            for (Map.Entry<Book, Integer> entry : regularStock.entrySet()) {
+                bookDAO.reducePhysicalCopies(entry.getKey().getBookId(), entry.getValue());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Hands flash sale tokens back after a reservation that could not be completed.
+     *
+     * @param grants Map of Book objects and the quantities granted from their flash sales.
+     */
+    private void releaseFlashSaleGrants(Map<Book, Integer> grants) {
+        for (Map.Entry<Book, Integer> entry : grants.entrySet()) {
+            if (!flashSaleManager.release(entry.getKey().getBookId(), entry.getValue())) {
+                bookDAO.restorePhysicalCopies(entry.getKey().getBookId(), entry.getValue());
+            }
         }
-        return true;
     }
 
     /**
      * Reverts the reserved stock for a set of books, restoring the physical copies.
+     * If the books stay locked through every retry, the revert is recorded in the pending_stock_reverts table
+     * and applied by a later retry (see retryPendingReverts), so the copies are never lost to stock.
      *
      * @param books Map of Book objects and their corresponding quantities to restore.
+     * @throws IllegalStateException if the books could not be locked and the revert could not be recorded either.
      */
     public void revertReservations(Map<Book, Integer> books) {
-        for (Map.Entry<Book, Integer> entry : books.entrySet()) {
-            Book book = entry.getKey();
-            int quantityToRevert = entry.getValue();
-            int currentStock = bookDAO.getAvailableCopies(book);
+        StripedLockManager.LockHandle locks;
+        try {
+            locks = lockBooksForUpdate(books, "revert");
+        } catch (IllegalStateException e) {
+            deferReverts(books, e);
+            return;
+        }
+        try {
+            for (Map.Entry<Book, Integer> entry : books.entrySet()) {
+                Book book = entry.getKey();
+                int quantityToRevert = entry.getValue();
+                if (flashSaleManager.release(book.getBookId(), quantityToRevert)) {
+                    System.out.println("Returned " + quantityToRevert + " copies of " + book.getTitle() + " to its flash sale.");
+                    continue;
+                }
+                int currentStock = bookDAO.getAvailableCopies(book);
+
+                // Log the reversion process
+                System.out.println("Reverting stock for book: " + book.getTitle());
+                System.out.println("Current stock: " + currentStock + ", Quantity to revert: " + quantityToRevert);
+
+                try {
+                    bookDAO.restorePhysicalCopies(book.getBookId(), quantityToRevert);
+                    int newStock = bookDAO.getAvailableCopies(book);
+                    System.out.println("Stock after reversion: " + newStock);
+                } catch (Exception e) {
+                    System.err.println("Failed to revert stock for book: " + book.getTitle() + " due to: " + e.getMessage());
+                }
+            }
+        } finally {
+            locks.close();
+        }
+    }
 
-            // Log the reversion process
-            System.out.println("Reverting stock for book: " + book.getTitle());
-            System.out.println("Current stock: " + currentStock + ", Quantity to revert: " + quantityToRevert);
+    /**
+     * Records reverts whose books could not be locked, to be applied by a later retry.
+     *
+     * @param books     Map of Book objects and their corresponding quantities to restore.
+     * @param lockError The failure to lock the books.
+     * @throws IllegalStateException if the reverts could not be recorded.
+     */
+    private void deferReverts(Map<Book, Integer> books, IllegalStateException lockError) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (Map.Entry<Book, Integer> entry : books.entrySet()) {
+            quantities.merge(entry.getKey().getBookId(), entry.getValue(), Integer::sum);
+        }
+        if (!pendingRevertDAO.addPendingReverts(quantities)) {
+            throw new IllegalStateException("Could not revert reserved stock or record it for a later retry.", lockError);
+        }
+        System.out.println(lockError.getMessage() + " Recorded the revert of " + quantities + " for a later retry.");
+        schedulePendingRevertRetry();
+    }
 
+    /**
+     * Applies the reverts that were deferred because their books stayed locked, each under its book's lock.
+     * Reverts whose books are still busy stay recorded and are retried later. Called at startup and by the retry timer.
+     *
+     * @return The number of reverts applied, or -1 if the pending reverts could not be read.
+     */
+    public int retryPendingReverts() {
+        List<PendingStockRevert> pending = pendingRevertDAO.getPendingReverts();
+        if (pending == null) {
+            schedulePendingRevertRetry();
+            return -1;
+        }
+        int applied = 0;
+        for (PendingStockRevert revert : pending) {
+            StripedLockManager.LockHandle locks = bookLocks.lockBook(revert.getBookId());
+            if (locks == null) {
+                continue;
+            }
             try {
-                bookDAO.restorePhysicalCopies(book.getBookId(), quantityToRevert);
-                int newStock = bookDAO.getAvailableCopies(book);
-                System.out.println("Stock after reversion: " + newStock);
-            } catch (Exception e) {
-                System.err.println("Failed to revert stock for book: " + book.getTitle() + " due to: " + e.getMessage());
+                // Copies granted by a flash sale go to regular stock too; the sale's journal still counts them as sold
+                if (pendingRevertDAO.applyPendingRevert(revert)) {
+                    applied++;
+                }
+            } finally {
+                locks.close();
             }
         }
+        if (applied > 0) {
+            System.out.println("Applied " + applied + " of " + pending.size() + " pending stock reverts.");
+        }
+        if (applied < pending.size()) {
+            schedulePendingRevertRetry();
+        }
+        return applied;
+    }
+
+    /**
+     * Schedules a retry of the deferred reverts, unless one is already due.
+     */
+    private synchronized void schedulePendingRevertRetry() {
+        if (revertRetryScheduled) {
+            return;
+        }
+        if (revertRetrier == null) {
+            revertRetrier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "pending-revert-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        revertRetryScheduled = true;
+        revertRetrier.schedule(() -> {
+            synchronized (this) {
+                revertRetryScheduled = false;
+            }
+            retryPendingReverts();
+        }, PENDING_REVERT_RETRY_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     /**
      * Finalizes stock adjustments after a successful payment by updating the physical stock and sold copies.
      *
      * @param books Map of Book objects and their corresponding quantities sold.
+     * @throws IllegalStateException if the books could not be locked.
      */
     public void finalizeStockAdjustments(Map<Book, Integer> books) {
-        for (Map.Entry<Book, Integer> entry : books.entrySet()) {
-            Book book = entry.getKey();
-            int quantitySold = entry.getValue();
+        StripedLockManager.LockHandle locks = lockBooksForUpdate(books, "finalize");
+        try {
+            for (Map.Entry<Book, Integer> entry : books.entrySet()) {
+                Book book = entry.getKey();
+                int quantitySold = entry.getValue();
 
-            // Log the finalization process
-            System.out.println("Finalizing stock for book: " + book.getTitle());
-            int currentPhysicalStock = bookDAO.getAvailableCopies(book);
-            System.out.println("Current physical stock: " + currentPhysicalStock + ", Quantity sold: " + quantitySold);
+                // Log the finalization process
+                System.out.println("Finalizing stock for book: " + book.getTitle());
+                int currentPhysicalStock = bookDAO.getAvailableCopies(book);
+                System.out.println("Current physical stock: " + currentPhysicalStock + ", Quantity sold: " + quantitySold);
 
-            try {
-                // Reduce physical stock and update sold copies in the database
-                bookDAO.reducePhysicalCopies(book.getBookId(), quantitySold);
-                bookDAO.updateSoldCopiesAfterPayment(book.getBookId(), quantitySold);
+                try {
+                    // Reduce physical stock and update sold copies in the database
+                    bookDAO.reducePhysicalCopies(book.getBookId(), quantitySold);
+                    bookDAO.updateSoldCopiesAfterPayment(book.getBookId(), quantitySold);
 
-                int updatedPhysicalStock = bookDAO.getAvailableCopies(book);
-                System.out.println("Updated physical stock: " + updatedPhysicalStock);
-            } catch (Exception e) {
-                System.err.println("Failed to finalize stock for book: " + book.getTitle() + " due to: " + e.getMessage());
+                    int updatedPhysicalStock = bookDAO.getAvailableCopies(book);
+                    System.out.println("Updated physical stock: " + updatedPhysicalStock);
+                } catch (Exception e) {
+                    System.err.println("Failed to finalize stock for book: " + book.getTitle() + " due to: " + e.getMessage());
+                }
+            }
+        } finally {
+            locks.close();
+        }
+    }
+
+    /**
+     * Locks the books in a map, waiting at most the lock timeout.
+     *
+     * @param books Map whose keys are the books to lock.
+     * @return A handle that releases the locks when closed, or null if the books could not be locked in time.
+     */
+    private StripedLockManager.LockHandle lockBooks(Map<Book, Integer> books) {
+        List<Integer> bookIds = new ArrayList<>(books.size());
+        for (Book book : books.keySet()) {
+            bookIds.add(book.getBookId());
+        }
+        Span span = Tracer.beginChild("lock", "InventoryService.lockBooks");
+        try {
+            return bookLocks.lockBooks(bookIds);
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Locks the books for an update that must not be dropped (reverting or finalizing stock).
+     * A timed out attempt is retried after a growing pause, so a burst of reservations on the same books
+     * delays the update instead of letting it run unlocked alongside them.
+     *
+     * @param books     Map whose keys are the books to lock.
+     * @param operation Name of the operation, for logging.
+     * @return A handle that releases the locks when closed.
+     * @throws IllegalStateException if the books could not be locked after every retry, or the thread was interrupted.
+     */
+    private StripedLockManager.LockHandle lockBooksForUpdate(Map<Book, Integer> books, String operation) {
+        long backoffMillis = LOCK_RETRY_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            StripedLockManager.LockHandle locks = lockBooks(books);
+            if (locks != null) {
+                return locks;
+            }
+            if (attempt == LOCK_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Could not lock books to " + operation + " stock.");
+            }
+            System.out.println("Timed out locking books to " + operation + " stock; retrying in " + backoffMillis + " ms.");
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while locking books to " + operation + " stock.", e);
             }
+            backoffMillis *= 2;
         }
     }
 }
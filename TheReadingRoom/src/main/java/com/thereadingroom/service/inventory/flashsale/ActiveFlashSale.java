@@ -0,0 +1,124 @@
+package com.thereadingroom.service.inventory.flashsale;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory state of a running flash sale.
+ * Reservations enter and exit the sale through a striped in-flight counter, so closing the sale can wait
+ * for every reservation that already started without making shoppers contend on a shared lock.
+ */
+class ActiveFlashSale {
+
+    private final int bookId;                               // The book on sale
+    private final long epoch;                               // Unique id of the sale
+    private final StripedTokenCounter tokens;               // Copies still available in the sale
+    private final LongAdder netGranted = new LongAdder();   // Journaled grants minus journaled returns
+    private final LongAdder inFlight = new LongAdder();     // Reservations currently inside the sale
+    private volatile boolean closed;                        // Set once the sale starts ending
+    private long reconciled;                                // Net copies applied to the books row (guarded by this)
+
+    /**
+     * Creates the in-memory state for a sale.
+     *
+     * @param bookId    The ID of the book.
+     * @param epoch     The unique id of the sale.
+     * @param allocated The copies allocated to the sale.
+     */
+    ActiveFlashSale(int bookId, long epoch, int allocated) {
+        this.bookId = bookId;
+        this.epoch = epoch;
+        this.tokens = new StripedTokenCounter(allocated);
+    }
+
+    /**
+     * Registers a reservation inside the sale.
+     *
+     * @return true if the sale is still open, false if it is closing (the caller must not call exit()).
+     */
+    boolean enter() {
+        inFlight.increment();
+        if (closed) {
+            inFlight.decrement();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Marks the end of a reservation started with enter().
+     */
+    void exit() {
+        inFlight.decrement();
+    }
+
+    /**
+     * Stops new reservations and waits for the ones already inside the sale to finish.
+     */
+    void close() {
+        closed = true;
+        while (inFlight.sum() != 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Lets reservations into the sale again after an attempt to end it failed.
+     */
+    void reopen() {
+        closed = false;
+    }
+
+    /**
+     * Returns the ID of the book on sale.
+     *
+     * @return The book ID.
+     */
+    int getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Returns the unique id of the sale.
+     *
+     * @return The sale epoch.
+     */
+    long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the counter holding the copies still available in the sale.
+     *
+     * @return The token counter.
+     */
+    StripedTokenCounter getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Returns the running total of journaled grants minus journaled returns.
+     *
+     * @return The net granted counter.
+     */
+    LongAdder getNetGranted() {
+        return netGranted;
+    }
+
+    /**
+     * Returns the net copies already applied to the books row. Callers must hold this sale's monitor.
+     *
+     * @return The reconciled copies.
+     */
+    long getReconciled() {
+        return reconciled;
+    }
+
+    /**
+     * Records the net copies applied to the books row. Callers must hold this sale's monitor.
+     *
+     * @param reconciled The reconciled copies.
+     */
+    void setReconciled(long reconciled) {
+        this.reconciled = reconciled;
+    }
+}
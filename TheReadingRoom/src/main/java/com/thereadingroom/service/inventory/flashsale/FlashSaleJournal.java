@@ -0,0 +1,231 @@
+package com.thereadingroom.service.inventory.flashsale;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only journal of flash sale activity.
+ * Every granted or returned reservation is written here before it is acknowledged, so after a crash the
+ * net number of copies sold during a sale can be rebuilt and compared with what was already reconciled
+ * to the books table. Records are single text lines: "S book epoch allocated", "G book epoch quantity",
+ * "R book epoch quantity" and "E book epoch".
+ *
+ * Grants are forced to disk before they are acknowledged, using group commit: the first waiting grant waits
+ * a short commit window for others to arrive, then one force covers every record appended so far.
+ */
+public class FlashSaleJournal {
+
+    // Record types
+    private static final char START = 'S';
+    private static final char GRANT = 'G';
+    private static final char RETURN = 'R';
+    private static final char END = 'E';
+
+    // How long the thread forcing a group of grants waits for more grants to join it
+    private static final long GROUP_COMMIT_WINDOW_MICROS = 500;
+
+    private final Path path;              // Location of the journal file
+    private final FileChannel channel;    // Channel opened in append mode
+    private long appendedRecords;         // Records appended so far (guarded by this)
+    private final Object syncMonitor = new Object();  // Guards the sync state below; waiting grants wait on it
+    private long syncedRecords;           // Records known to be on disk
+    private boolean syncing;              // Whether a thread is forcing a group of grants
+    private long syncCount;               // Forces done for grants, for monitoring
+
+    /**
+     * Opens (or creates) the journal at the given path.
+     *
+     * @param path The journal file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public FlashSaleJournal(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Records the start of a sale and forces it to disk.
+     *
+     * @param bookId    The ID of the book.
+     * @param epoch     The unique id of the sale.
+     * @param allocated The number of copies allocated to the sale.
+     * @throws IOException if the record cannot be written.
+     */
+    public void recordStart(int bookId, long epoch, int allocated) throws IOException {
+        append(START, bookId, epoch, allocated);
+        sync();
+    }
+
+    /**
+     * Records a granted reservation and returns once it is on disk, sharing the force with concurrent grants.
+     *
+     * @param bookId   The ID of the book.
+     * @param epoch    The unique id of the sale.
+     * @param quantity The number of copies granted.
+     * @throws IOException if the record cannot be written or forced to disk.
+     */
+    public void recordGrant(int bookId, long epoch, int quantity) throws IOException {
+        awaitSynced(append(GRANT, bookId, epoch, quantity));
+    }
+
+    /**
+     * Records a reservation returned to the sale.
+     *
+     * @param bookId   The ID of the book.
+     * @param epoch    The unique id of the sale.
+     * @param quantity The number of copies returned.
+     * @throws IOException if the record cannot be written.
+     */
+    public void recordReturn(int bookId, long epoch, int quantity) throws IOException {
+        append(RETURN, bookId, epoch, quantity);
+    }
+
+    /**
+     * Records the end of a sale.
+     *
+     * @param bookId The ID of the book.
+     * @param epoch  The unique id of the sale.
+     * @throws IOException if the record cannot be written.
+     */
+    public void recordEnd(int bookId, long epoch) throws IOException {
+        append(END, bookId, epoch, 0);
+    }
+
+    /**
+     * Writes one record. Appends reach the operating system immediately, so they survive a crash of the application;
+     * only forced records survive a crash of the machine.
+     *
+     * @param type     The record type.
+     * @param bookId   The ID of the book.
+     * @param epoch    The unique id of the sale.
+     * @param quantity The record's quantity (unused for end records).
+     * @return The number of records appended so far, including this one.
+     * @throws IOException if the record cannot be written.
+     */
+    private synchronized long append(char type, int bookId, long epoch, int quantity) throws IOException {
+        String record = type == END
+                ? type + " " + bookId + " " + epoch + "\n"
+                : type + " " + bookId + " " + epoch + " " + quantity + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(record.getBytes(StandardCharsets.US_ASCII));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return ++appendedRecords;
+    }
+
+    /**
+     * Waits until the given number of records is on disk. If no other thread is forcing the journal, this thread
+     * waits the commit window for more grants, then forces everything appended so far for all of them.
+     *
+     * @param records The number of records that must be on disk.
+     * @throws IOException if the journal cannot be synced, or the thread is interrupted while waiting.
+     */
+    private void awaitSynced(long records) throws IOException {
+        synchronized (syncMonitor) {
+            while (syncedRecords < records && syncing) {
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the flash sale journal to sync.");
+                }
+            }
+            if (syncedRecords >= records) {
+                return;
+            }
+            syncing = true;
+        }
+
+        boolean synced = false;
+        try {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(GROUP_COMMIT_WINDOW_MICROS));
+            sync();
+            synced = true;
+        } finally {
+            synchronized (syncMonitor) {
+                syncing = false;
+                if (synced) {
+                    syncCount++;
+                }
+                syncMonitor.notifyAll();  // Waiters not covered by this force retry, and one of them forces next
+            }
+        }
+    }
+
+    /**
+     * Forces all records written so far to the storage device.
+     * Called before each reconciliation batch so the journal is never behind the books table.
+     *
+     * @throws IOException if the journal cannot be synced.
+     */
+    public void sync() throws IOException {
+        long records;
+        synchronized (this) {
+            records = appendedRecords;
+        }
+        channel.force(false);
+        synchronized (syncMonitor) {
+            syncedRecords = Math.max(syncedRecords, records);
+        }
+    }
+
+    /**
+     * Returns how many forces were done for grants; concurrent grants share one force.
+     *
+     * @return The number of group commits.
+     */
+    public long getSyncCount() {
+        synchronized (syncMonitor) {
+            return syncCount;
+        }
+    }
+
+    /**
+     * Rebuilds the net number of copies granted per sale (grants minus returns).
+     * A torn record at the end of the file (from a crash mid-write) is ignored.
+     *
+     * @return Map of sale epoch to net copies granted.
+     * @throws IOException if the journal cannot be read.
+     */
+    public synchronized Map<Long, Long> readNetGranted() throws IOException {
+        Map<Long, Long> netGranted = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(" ");
+                if (fields.length != 4 || (fields[0].charAt(0) != GRANT && fields[0].charAt(0) != RETURN)) {
+                    continue;
+                }
+                try {
+                    long epoch = Long.parseLong(fields[2]);
+                    long quantity = Long.parseLong(fields[3]);
+                    netGranted.merge(epoch, fields[0].charAt(0) == GRANT ? quantity : -quantity, Long::sum);
+                } catch (NumberFormatException e) {
+                    System.out.println("Skipping damaged flash sale journal record: " + line);
+                }
+            }
+        }
+        return netGranted;
+    }
+
+    /**
+     * Discards all records. Only safe when no sale is active.
+     *
+     * @throws IOException if the journal cannot be truncated.
+     */
+    public synchronized void clear() throws IOException {
+        channel.truncate(0);
+        channel.force(true);
+    }
+}
@@ -0,0 +1,411 @@
+package com.thereadingroom.service.inventory.flashsale;
+
+import com.thereadingroom.model.dao.flashsale.FlashSaleDAO;
+import com.thereadingroom.model.dao.flashsale.IFlashSaleDAO;
+import com.thereadingroom.model.entity.FlashSale;
+import com.thereadingroom.service.inventory.BookLockManager;
+import com.thereadingroom.utils.id.SnowflakeIdGenerator;
+import com.thereadingroom.utils.lock.StripedLockManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FlashSaleManager runs flash sales for individual books.
+ * While a sale is active, the book's stock is held in a striped in-memory token counter, so reservations are
+ * granted or rejected without touching SQLite. Every grant and return is journaled before it is acknowledged
+ * (grants are forced to disk in small groups), the net result is applied to the books row in periodic batches, and ending the sale applies the final batch,
+ * leaving the unsold copies in regular stock. Sales interrupted by a crash are reconciled from the journal and
+ * closed at the next startup.
+ */
+public class FlashSaleManager {
+
+    // Default journal location (next to the database file) and reconciliation period
+    private static final String JOURNAL_FILE = "flashsale.journal";
+    private static final long RECONCILE_INTERVAL_MILLIS = 2_000;
+
+    /**
+     * Outcome of a reservation attempt against a flash sale.
+     */
+    public enum Reservation {
+        GRANTED,      // Tokens were taken from the sale
+        REJECTED,     // The sale does not have enough tokens left (or is closing)
+        NOT_IN_SALE   // The book is not in a flash sale; use regular stock
+    }
+
+    // Singleton instance
+    private static FlashSaleManager instance;
+
+    private final IFlashSaleDAO flashSaleDAO;                                       // Persisted sale state
+    private final BookLockManager bookLocks = BookLockManager.getInstance();        // Inventory locks shared with InventoryService
+    private final Path journalPath;                                                 // Location of the journal
+    private final Map<Integer, ActiveFlashSale> activeSales = new ConcurrentHashMap<>();  // Book ID -> running sale
+    private FlashSaleJournal journal;                                               // Opened on first use
+    private ScheduledExecutorService reconciler;                                    // Started with the first sale
+
+    // Private constructor for Singleton pattern
+    private FlashSaleManager() {
+        this(new FlashSaleDAO(), Path.of(JOURNAL_FILE));
+    }
+
+    /**
+     * Creates a manager backed by the given DAO and journal file.
+     *
+     * @param flashSaleDAO DAO for persisted sale state.
+     * @param journalPath  Location of the journal file.
+     */
+    public FlashSaleManager(IFlashSaleDAO flashSaleDAO, Path journalPath) {
+        this.flashSaleDAO = flashSaleDAO;
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * Singleton - Get the single instance of FlashSaleManager.
+     *
+     * @return The instance of FlashSaleManager.
+     */
+    public static synchronized FlashSaleManager getInstance() {
+        if (instance == null) {
+            instance = new FlashSaleManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts a flash sale, moving the book's current stock into an in-memory token counter.
+     *
+     * @param bookId The ID of the book.
+     * @return true if the sale started, false if it is already running, the book has no stock, or an error occurred.
+     */
+    public synchronized boolean startSale(int bookId) {
+        // Hold the book's inventory lock so no regular reservation changes the stock while it is allocated
+        try (StripedLockManager.LockHandle lock = bookLocks.lockBook(bookId)) {
+            if (lock == null) {
+                System.out.println("Could not start flash sale for book ID " + bookId + ": the book is busy.");
+                return false;
+            }
+            return startSaleLocked(bookId);
+        }
+    }
+
+    /**
+     * Starts a flash sale while holding the book's inventory lock.
+     *
+     * @param bookId The ID of the book.
+     * @return true if the sale started, false otherwise.
+     */
+    private boolean startSaleLocked(int bookId) {
+        if (activeSales.containsKey(bookId)) {
+            return false;
+        }
+        FlashSaleJournal saleJournal = openJournal();
+        if (saleJournal == null) {
+            return false;
+        }
+
+        long epoch = SnowflakeIdGenerator.getInstance().nextId();
+        int allocated = flashSaleDAO.beginSale(bookId, epoch);
+        if (allocated <= 0) {
+            return false;
+        }
+        try {
+            saleJournal.recordStart(bookId, epoch, allocated);
+        } catch (IOException e) {
+            System.out.println("Error journaling flash sale start: " + e.getMessage());
+            flashSaleDAO.endSale(bookId, epoch, 0);
+            return false;
+        }
+
+        activeSales.put(bookId, new ActiveFlashSale(bookId, epoch, allocated));
+        startReconciler();
+        System.out.println("Flash sale started for book ID " + bookId + " with " + allocated + " copies.");
+        return true;
+    }
+
+    /**
+     * Ends a flash sale: stops new reservations, applies the final batch to the books row and
+     * returns the unsold copies to regular stock.
+     *
+     * @param bookId The ID of the book.
+     * @return true if the sale ended, false if it was not running or the final batch could not be applied.
+     */
+    public synchronized boolean endSale(int bookId) {
+        // Hold the book's inventory lock so regular reservations resume only once the books row is up to date
+        try (StripedLockManager.LockHandle lock = bookLocks.lockBook(bookId)) {
+            if (lock == null) {
+                System.out.println("Could not end flash sale for book ID " + bookId + ": the book is busy.");
+                return false;
+            }
+            return endSaleLocked(bookId);
+        }
+    }
+
+    /**
+     * Ends a flash sale while holding the book's inventory lock.
+     *
+     * @param bookId The ID of the book.
+     * @return true if the sale ended, false otherwise.
+     */
+    private boolean endSaleLocked(int bookId) {
+        ActiveFlashSale sale = activeSales.get(bookId);
+        if (sale == null) {
+            return false;
+        }
+
+        // The sale stays registered (rejecting reservations) until the books row is up to date; if that fails it reopens
+        sale.close();
+        long leftovers = sale.getTokens().drain();
+        long sold;
+        synchronized (sale) {
+            sold = sale.getNetGranted().sum();
+            try {
+                journal.sync();
+            } catch (IOException e) {
+                System.out.println("Error syncing flash sale journal: " + e.getMessage());
+                reopen(sale, leftovers);
+                return false;
+            }
+            if (!flashSaleDAO.endSale(bookId, sale.getEpoch(), (int) (sold - sale.getReconciled()))) {
+                System.out.println("Error ending flash sale for book ID " + bookId + "; the sale stays open.");
+                reopen(sale, leftovers);
+                return false;
+            }
+            sale.setReconciled(sold);
+        }
+        activeSales.remove(bookId);
+
+        try {
+            journal.recordEnd(bookId, sale.getEpoch());
+            if (activeSales.isEmpty()) {
+                journal.clear();  // Nothing left to recover
+            }
+        } catch (IOException e) {
+            System.out.println("Error journaling flash sale end: " + e.getMessage());
+        }
+        System.out.println("Flash sale ended for book ID " + bookId + ": " + sold + " sold, " + leftovers + " returned to stock.");
+        return true;
+    }
+
+    /**
+     * Puts the unsold copies back into a sale that could not be ended and lets reservations in again,
+     * so the sale keeps running (and being reconciled) until it is ended successfully.
+     *
+     * @param sale      The sale that could not be ended.
+     * @param leftovers The unsold copies drained from the sale.
+     */
+    private void reopen(ActiveFlashSale sale, long leftovers) {
+        if (leftovers > 0) {
+            sale.getTokens().release(leftovers);
+        }
+        sale.reopen();
+    }
+
+    /**
+     * Tries to reserve copies of a book from its flash sale.
+     *
+     * @param bookId   The ID of the book.
+     * @param quantity The number of copies to reserve.
+     * @return GRANTED or REJECTED if the book is in a flash sale, or NOT_IN_SALE if regular stock should be used.
+     */
+    public Reservation tryReserve(int bookId, int quantity) {
+        ActiveFlashSale sale = activeSales.get(bookId);
+        if (sale == null) {
+            return Reservation.NOT_IN_SALE;
+        }
+        if (!sale.enter()) {
+            return Reservation.REJECTED;  // Closing: regular stock is not up to date yet
+        }
+        try {
+            if (!sale.getTokens().tryAcquire(quantity)) {
+                return Reservation.REJECTED;
+            }
+            try {
+                journal.recordGrant(bookId, sale.getEpoch(), quantity);
+            } catch (IOException e) {
+                sale.getTokens().release(quantity);
+                System.out.println("Error journaling flash sale reservation: " + e.getMessage());
+                return Reservation.REJECTED;
+            }
+            sale.getNetGranted().add(quantity);
+            return Reservation.GRANTED;
+        } finally {
+            sale.exit();
+        }
+    }
+
+    /**
+     * Returns reserved copies to a book's flash sale (e.g., when a checkout is canceled).
+     *
+     * @param bookId   The ID of the book.
+     * @param quantity The number of copies to return.
+     * @return true if the copies went back into the sale, false if the caller should restore regular stock instead.
+     */
+    public boolean release(int bookId, int quantity) {
+        ActiveFlashSale sale = activeSales.get(bookId);
+        if (sale == null || !sale.enter()) {
+            return false;
+        }
+        try {
+            journal.recordReturn(bookId, sale.getEpoch(), quantity);
+            sale.getTokens().release(quantity);
+            sale.getNetGranted().add(-quantity);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error journaling flash sale return: " + e.getMessage());
+            return false;
+        } finally {
+            sale.exit();
+        }
+    }
+
+    /**
+     * Checks whether a book is currently in a flash sale.
+     *
+     * @param bookId The ID of the book.
+     * @return true if the book is in a flash sale, false otherwise.
+     */
+    public boolean isInSale(int bookId) {
+        return activeSales.containsKey(bookId);
+    }
+
+    /**
+     * Returns the number of copies still available in a book's flash sale.
+     *
+     * @param bookId The ID of the book.
+     * @return The available copies, or -1 if the book is not in a flash sale.
+     */
+    public int getAvailableCopies(int bookId) {
+        ActiveFlashSale sale = activeSales.get(bookId);
+        return sale == null ? -1 : (int) sale.getTokens().available();
+    }
+
+    /**
+     * Returns the IDs of all books currently in a flash sale.
+     *
+     * @return The set of book IDs.
+     */
+    public Set<Integer> getBooksInSale() {
+        return Set.copyOf(activeSales.keySet());
+    }
+
+    /**
+     * Applies the net result of every active sale to the books table.
+     * Runs periodically on the reconciler thread; may also be called directly.
+     */
+    public void reconcileAll() {
+        for (ActiveFlashSale sale : activeSales.values()) {
+            reconcile(sale);
+        }
+    }
+
+    /**
+     * Applies one batch for a sale. The running total is read before the journal is synced, so every grant
+     * included in the batch is on disk before the books row reflects it.
+     *
+     * @param sale The sale to reconcile.
+     */
+    private void reconcile(ActiveFlashSale sale) {
+        synchronized (sale) {
+            long net = sale.getNetGranted().sum();
+            if (net == sale.getReconciled()) {
+                return;
+            }
+            try {
+                journal.sync();
+            } catch (IOException e) {
+                System.out.println("Error syncing flash sale journal: " + e.getMessage());
+                return;
+            }
+            if (flashSaleDAO.applyReconciliation(sale.getBookId(), sale.getEpoch(), (int) (net - sale.getReconciled()))) {
+                sale.setReconciled(net);
+            }
+        }
+    }
+
+    /**
+     * Reconciles and closes sales left open by a crash, using the journal to find the copies
+     * that were granted but not yet applied to the books table. Call once at startup, before any sale starts.
+     */
+    public synchronized void recoverInterruptedSales() {
+        List<FlashSale> interrupted = flashSaleDAO.getActiveSales();
+        FlashSaleJournal saleJournal = openJournal();
+        if (saleJournal == null) {
+            return;
+        }
+
+        boolean allRecovered = true;
+        try {
+            Map<Long, Long> netGranted = interrupted.isEmpty() ? Map.of() : saleJournal.readNetGranted();
+            for (FlashSale sale : interrupted) {
+                long granted = Math.min(netGranted.getOrDefault(sale.getEpoch(), 0L), sale.getAllocated());
+                long delta = granted - sale.getReconciled();
+                if (delta < 0) {
+                    // The journal is behind the books table (e.g., it was deleted); never put copies back on a guess
+                    System.out.println("Flash sale journal is missing records for book ID " + sale.getBookId() + "; keeping reconciled stock.");
+                    delta = 0;
+                }
+                if (flashSaleDAO.endSale(sale.getBookId(), sale.getEpoch(), (int) delta)) {
+                    saleJournal.recordEnd(sale.getBookId(), sale.getEpoch());
+                    System.out.println("Recovered flash sale for book ID " + sale.getBookId() + ": " + delta + " unreconciled copies applied.");
+                } else {
+                    allRecovered = false;
+                }
+            }
+            if (allRecovered) {
+                saleJournal.clear();
+            }
+        } catch (IOException e) {
+            System.out.println("Error recovering flash sales: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the reconciler after applying a final batch for every active sale. Sales stay open and are
+     * closed by recoverInterruptedSales() at the next startup.
+     */
+    public synchronized void shutdown() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+        reconcileAll();
+    }
+
+    /**
+     * Opens the journal on first use.
+     *
+     * @return The journal, or null if it cannot be opened.
+     */
+    private FlashSaleJournal openJournal() {
+        if (journal == null) {
+            try {
+                journal = new FlashSaleJournal(journalPath);
+            } catch (IOException e) {
+                System.out.println("Error opening flash sale journal: " + e.getMessage());
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Starts the background thread that reconciles active sales, if it is not already running.
+     */
+    private void startReconciler() {
+        if (reconciler != null) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flash-sale-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcileAll, RECONCILE_INTERVAL_MILLIS, RECONCILE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+}
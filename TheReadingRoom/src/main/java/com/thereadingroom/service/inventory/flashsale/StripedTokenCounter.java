@@ -0,0 +1,158 @@
+package com.thereadingroom.service.inventory.flashsale;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter of stock tokens spread over several independently updated stripes.
+ * Each thread starts at its own stripe, so concurrent shoppers rarely compare-and-swap the same slot.
+ * A stripe is never taken below zero, which means the counter can never hand out more tokens
+ * than were put into it; under heavy contention a request may be rejected while a few tokens
+ * are momentarily held by another thread's multi-stripe attempt, but it never oversells.
+ */
+public class StripedTokenCounter {
+
+    // Stripes are spaced 16 longs (128 bytes) apart so neighbouring stripes do not share a cache line
+    private static final int PADDING = 16;
+    private static final int MAX_STRIPES = 64;
+
+    private final AtomicLongArray cells;  // Padded stripe values; stripe i lives at index i * PADDING
+    private final int mask;               // Number of stripes minus one (the stripe count is a power of two)
+
+    /**
+     * Creates a counter sized for the machine's processor count.
+     *
+     * @param tokens The initial number of tokens.
+     */
+    public StripedTokenCounter(long tokens) {
+        this(tokens, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a counter with at least the given number of stripes, spreading the tokens evenly across them.
+     *
+     * @param tokens  The initial number of tokens.
+     * @param stripes The minimum number of stripes (rounded up to a power of two, at most 64).
+     */
+    public StripedTokenCounter(long tokens, int stripes) {
+        if (tokens < 0) {
+            throw new IllegalArgumentException("Token count cannot be negative.");
+        }
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(stripes, MAX_STRIPES)) * 2 - 1);
+        this.mask = stripeCount - 1;
+        this.cells = new AtomicLongArray(stripeCount * PADDING);
+
+        long share = tokens / stripeCount;
+        long remainder = tokens % stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            cells.set(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * Takes the given number of tokens if they are available.
+     * The calling thread's own stripe is tried first, then the others; if no single stripe holds
+     * enough, tokens are gathered across stripes and handed back if the total still falls short.
+     *
+     * @param quantity The number of tokens to take (must be positive).
+     * @return true if all tokens were taken, false if there were not enough.
+     */
+    public boolean tryAcquire(long quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive.");
+        }
+        int home = homeStripe();
+
+        // Fast path: one stripe covers the whole request
+        for (int i = 0; i <= mask; i++) {
+            int index = ((home + i) & mask) * PADDING;
+            long current = cells.get(index);
+            while (current >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+                current = cells.get(index);
+            }
+        }
+
+        // Slow path: gather what each stripe has, handing everything back if it is not enough
+        long taken = 0;
+        for (int i = 0; i <= mask && taken < quantity; i++) {
+            int index = ((home + i) & mask) * PADDING;
+            long current = cells.get(index);
+            while (current > 0) {
+                long take = Math.min(current, quantity - taken);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    taken += take;
+                    break;
+                }
+                current = cells.get(index);
+            }
+        }
+        if (taken == quantity) {
+            return true;
+        }
+        if (taken > 0) {
+            release(taken);
+        }
+        return false;
+    }
+
+    /**
+     * Returns tokens to the calling thread's stripe.
+     *
+     * @param quantity The number of tokens to return (must be positive).
+     */
+    public void release(long quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive.");
+        }
+        cells.addAndGet(homeStripe() * PADDING, quantity);
+    }
+
+    /**
+     * Returns the number of tokens currently available.
+     * The value is a sum over the stripes and may be slightly stale while tokens are being taken.
+     *
+     * @return The available token count.
+     */
+    public long available() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Removes and returns all available tokens.
+     *
+     * @return The number of tokens drained.
+     */
+    public long drain() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.getAndSet(i * PADDING, 0);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return The stripe count.
+     */
+    public int getStripeCount() {
+        return mask + 1;
+    }
+
+    /**
+     * Picks the calling thread's home stripe by mixing its id.
+     *
+     * @return The home stripe index.
+     */
+    private int homeStripe() {
+        long id = Thread.currentThread().threadId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
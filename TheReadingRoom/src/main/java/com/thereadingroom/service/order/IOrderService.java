@@ -1,8 +1,12 @@
 package com.thereadingroom.service.order;
 
+import com.thereadingroom.model.dao.order.OrderQuery;
 import com.thereadingroom.model.entity.Order;
+import com.thereadingroom.model.entity.OrderItem;
+import com.thereadingroom.model.entity.OrderSummary;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * IOrderService defines the contract for order-related operations in the system.
@@ -19,6 +23,15 @@ public interface IOrderService {
      */
     boolean placeOrder(Order order);
 
+    /**
+     * Place a new order and record the checkout token that produced it in the same transaction.
+     *
+     * @param order          The order to be placed.
+     * @param idempotencyKey The client-generated checkout token.
+     * @return true if the order was successfully placed, false otherwise.
+     */
+    boolean placeOrder(Order order, String idempotencyKey);
+
     /**
      * Retrieve all orders from the system (Admin only).
      *
@@ -26,6 +39,14 @@ public interface IOrderService {
      */
     List<Order> getAllOrders();  // New method for admin to get all orders
 
+    /**
+     * Retrieve a single order by its ID.
+     *
+     * @param orderId The ID of the order.
+     * @return An Optional containing the order if found, or empty if not found.
+     */
+    Optional<Order> getOrderById(int orderId);
+
     /**
      * Retrieve all orders placed by a specific user.
      *
@@ -34,6 +55,32 @@ public interface IOrderService {
      */
     List<Order> getAllOrdersByUser(int userId);
 
+    /**
+     * Retrieve one page of a user's order history, latest first, without the order items.
+     *
+     * @param userId The ID of the user.
+     * @param after  The last summary of the previous page, or null for the first page.
+     * @param limit  The maximum number of summaries to return.
+     * @return The summaries of the page; fewer than the limit means there are no more orders.
+     */
+    List<OrderSummary> getOrderSummariesByUser(int userId, OrderSummary after, int limit);
+
+    /**
+     * Retrieve the items of an order.
+     *
+     * @param orderId The ID of the order.
+     * @return The order's items.
+     */
+    List<OrderItem> getOrderItems(int orderId);
+
+    /**
+     * Retrieve one page of the orders matching a query, without their items.
+     *
+     * @param query The filters, sort order and page cursor.
+     * @return The orders of the page; fewer than the query's limit means there are no more matches.
+     */
+    List<Order> findOrders(OrderQuery query);
+
     /**
      * Export selected orders of a specific user to a CSV file.
      *
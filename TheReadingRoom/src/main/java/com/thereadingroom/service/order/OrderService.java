@@ -1,10 +1,15 @@
 package com.thereadingroom.service.order;
 
 import com.thereadingroom.model.dao.order.OrderDAO;
+import com.thereadingroom.model.dao.order.OrderQuery;
 import com.thereadingroom.model.entity.Order;
+import com.thereadingroom.model.entity.OrderItem;
+import com.thereadingroom.model.entity.OrderSummary;
+import com.thereadingroom.service.recommendation.RecommendationService;
 import com.thereadingroom.utils.export.CSVExportUtility;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * OrderService handles operations related to orders, including placing orders,
@@ -36,13 +41,40 @@ public class OrderService implements IOrderService {
 
     /**
      * Place a new order in the system by saving it to the database.
+     * A placed order is also counted by the "customers also bought" recommendations.
      *
      * @param order The order to be placed.
      * @return true if the order was successfully placed, false otherwise.
      */
     @Override
     public boolean placeOrder(Order order) {
-        return orderDAO.saveOrder(order);
+        return recordPlaced(order, orderDAO.saveOrder(order));
+    }
+
+    /**
+     * Place a new order and record the checkout token that produced it in the same transaction.
+     *
+     * @param order          The order to be placed.
+     * @param idempotencyKey The client-generated checkout token.
+     * @return true if the order was successfully placed, false otherwise.
+     */
+    @Override
+    public boolean placeOrder(Order order, String idempotencyKey) {
+        return recordPlaced(order, orderDAO.saveOrder(order, idempotencyKey));
+    }
+
+    /**
+     * Counts a saved order's books as bought together.
+     *
+     * @param order  The order.
+     * @param placed Whether the order was saved.
+     * @return The given placed flag.
+     */
+    private boolean recordPlaced(Order order, boolean placed) {
+        if (placed) {
+            RecommendationService.getInstance().recordOrder(order);
+        }
+        return placed;
     }
 
     /**
@@ -55,6 +87,17 @@ public class OrderService implements IOrderService {
         return orderDAO.getAllOrders();  // Method for admin to get all orders
     }
 
+    /**
+     * Retrieve a single order by its ID.
+     *
+     * @param orderId The ID of the order.
+     * @return An Optional containing the order if found, or empty if not found.
+     */
+    @Override
+    public Optional<Order> getOrderById(int orderId) {
+        return orderDAO.getOrderById(orderId);
+    }
+
     /**
      * Retrieve all orders placed by a specific user.
      *
@@ -66,6 +109,41 @@ public class OrderService implements IOrderService {
         return orderDAO.getAllOrdersByUser(userId);
     }
 
+    /**
+     * Retrieve one page of a user's order history, latest first, without the order items.
+     *
+     * @param userId The ID of the user.
+     * @param after  The last summary of the previous page, or null for the first page.
+     * @param limit  The maximum number of summaries to return.
+     * @return The summaries of the page; fewer than the limit means there are no more orders.
+     */
+    @Override
+    public List<OrderSummary> getOrderSummariesByUser(int userId, OrderSummary after, int limit) {
+        return orderDAO.getOrderSummariesByUser(userId, after, limit);
+    }
+
+    /**
+     * Retrieve the items of an order.
+     *
+     * @param orderId The ID of the order.
+     * @return The order's items.
+     */
+    @Override
+    public List<OrderItem> getOrderItems(int orderId) {
+        return orderDAO.getOrderItems(orderId);
+    }
+
+    /**
+     * Retrieve one page of the orders matching a query, without their items.
+     *
+     * @param query The filters, sort order and page cursor.
+     * @return The orders of the page; fewer than the query's limit means there are no more matches.
+     */
+    @Override
+    public List<Order> findOrders(OrderQuery query) {
+        return orderDAO.findOrders(query);
+    }
+
     /**
      * Export selected orders of a user to a CSV file.
      *
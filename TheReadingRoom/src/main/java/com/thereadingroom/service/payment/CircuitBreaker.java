@@ -0,0 +1,74 @@
+package com.thereadingroom.service.payment;
+
+/**
+ * Minimal circuit breaker protecting calls to the payment gateway.
+ * After a number of consecutive failures the breaker opens and rejects calls immediately;
+ * once the open period has passed a single trial call is let through (half-open), and its
+ * outcome decides whether the breaker closes again or re-opens.
+ */
+public class CircuitBreaker {
+
+    /**
+     * States of the circuit breaker.
+     */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;   // Consecutive failures that open the breaker
+    private final long openMillis;        // How long the breaker stays open before a trial call
+
+    private State state = State.CLOSED;   // Current state
+    private int consecutiveFailures;      // Failures since the last success
+    private long openedAt;                // When the breaker last opened
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param failureThreshold Consecutive failures that open the breaker.
+     * @param openMillis       How long the breaker stays open before allowing a trial call.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Checks if a call may proceed. While half-open only the single trial call is allowed.
+     *
+     * @return true if the call may proceed.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            return true;  // This caller performs the trial call
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Records a successful call, closing the breaker.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Records a failed call, opening the breaker if the threshold is reached or the trial call failed.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Returns the current state of the breaker.
+     *
+     * @return The state.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+}
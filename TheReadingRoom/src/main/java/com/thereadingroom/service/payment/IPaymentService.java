@@ -1,6 +1,6 @@
 package com.thereadingroom.service.payment;
 
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * IPaymentService defines the contract for payment processing services.
@@ -20,14 +20,17 @@ public interface IPaymentService {
     boolean validatePayment(String cardNumber, String cardHolderName, String expiryDate, String cvv);
 
     /**
-     * Processes the payment using the provided card details.
-     * If the payment is valid, it returns a unique order reference.
+     * Charges the card through the payment gateway without blocking the calling thread.
+     * Every payment attempt of one checkout uses the same gateway idempotency key, derived from the checkout token,
+     * so the card is charged at most once per checkout.
      *
+     * @param checkoutToken  The token identifying the checkout.
      * @param cardNumber     The credit card number (should be 16 digits).
      * @param cardHolderName The name on the credit card.
      * @param expiryDate     The expiry date in MM/YY format.
      * @param cvv            The CVV code (should be 3 digits).
-     * @return An Optional containing the unique order reference if payment succeeds; otherwise, an empty Optional.
+     * @param amount         The amount to charge.
+     * @return A future completed with the order reference, or exceptionally with a PaymentException.
      */
-    Optional<String> processPayment(String cardNumber, String cardHolderName, String expiryDate, String cvv);
+    CompletableFuture<String> processPaymentAsync(String checkoutToken, String cardNumber, String cardHolderName, String expiryDate, String cvv, double amount);
 }
@@ -0,0 +1,17 @@
+package com.thereadingroom.service.payment;
+
+/**
+ * Raised when a payment cannot be completed. The message is suitable for showing to the user.
+ */
+public class PaymentException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PaymentException(String message) {
+        super(message);
+    }
+
+    public PaymentException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
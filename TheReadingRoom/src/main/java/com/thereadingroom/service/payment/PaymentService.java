@@ -1,20 +1,76 @@
 package com.thereadingroom.service.payment;
 
+import com.thereadingroom.service.payment.gateway.GatewayResponse;
+import com.thereadingroom.service.payment.gateway.IPaymentGateway;
+import com.thereadingroom.service.payment.gateway.PaymentRequest;
+import com.thereadingroom.service.payment.gateway.SimulatedPaymentGateway;
+import com.thereadingroom.utils.auth.CardValidationResult;
 import com.thereadingroom.utils.auth.PaymentValidator;
+import com.thereadingroom.utils.id.SnowflakeIdGenerator;
 
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * PaymentService is responsible for managing payment-related operations.
- * It validates payment details and handles the payment process.
+ * It validates payment details and charges them through a payment gateway without blocking the caller.
+ * Gateway calls are protected by a bulkhead (bounded number of payments in flight), per-attempt timeouts,
+ * retries that reuse the same idempotency key, and a circuit breaker.
+ * A timed out attempt has an unknown outcome, since the gateway may still charge the card: it is retried with the
+ * same key, and if the last attempt times out the gateway is asked for the charge before the payment is reported
+ * as failed. A payment keeps its bulkhead slot until every call it made to the gateway has settled.
  */
 public class PaymentService implements IPaymentService {
 
+    // Default resilience settings
+    private static final int DEFAULT_MAX_CONCURRENT_PAYMENTS = 8;
+    private static final long DEFAULT_ATTEMPT_TIMEOUT_MILLIS = 2_000;
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final long DEFAULT_RETRY_BACKOFF_MILLIS = 200;
+    private static final int DEFAULT_BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long DEFAULT_BREAKER_OPEN_MILLIS = 10_000;
+
     // Singleton instance
     private static PaymentService instance;
 
+    private final IPaymentGateway gateway;            // Gateway used to charge cards
+    private final Semaphore bulkhead;                 // Limits the number of payments in flight
+    private final CircuitBreaker circuitBreaker;      // Stops calling a failing gateway
+    private final long attemptTimeoutMillis;          // Time limit for a single gateway attempt
+    private final int maxAttempts;                    // Attempts per payment, including the first
+    private final long retryBackoffMillis;            // Delay before the first retry (doubled on each retry)
+
     // Private constructor for Singleton pattern
-    public PaymentService() {
+    private PaymentService() {
+        this(new SimulatedPaymentGateway(), DEFAULT_MAX_CONCURRENT_PAYMENTS, DEFAULT_ATTEMPT_TIMEOUT_MILLIS,
+                DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_BACKOFF_MILLIS,
+                new CircuitBreaker(DEFAULT_BREAKER_FAILURE_THRESHOLD, DEFAULT_BREAKER_OPEN_MILLIS));
+    }
+
+    /**
+     * Creates a payment service with a specific gateway and resilience settings.
+     *
+     * @param gateway                The payment gateway.
+     * @param maxConcurrentPayments  Maximum number of payments in flight (bulkhead size).
+     * @param attemptTimeoutMillis   Time limit for a single gateway attempt.
+     * @param maxAttempts            Attempts per payment, including the first.
+     * @param retryBackoffMillis     Delay before the first retry.
+     * @param circuitBreaker         Circuit breaker guarding the gateway.
+     */
+    public PaymentService(IPaymentGateway gateway, int maxConcurrentPayments, long attemptTimeoutMillis,
+                          int maxAttempts, long retryBackoffMillis, CircuitBreaker circuitBreaker) {
+        this.gateway = gateway;
+        this.bulkhead = new Semaphore(maxConcurrentPayments);
+        this.attemptTimeoutMillis = attemptTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.circuitBreaker = circuitBreaker;
     }
 
     /**
@@ -39,30 +95,208 @@ public class PaymentService implements IPaymentService {
      * @return true if the payment details are valid; false otherwise.
      */
     public boolean validatePayment(String cardNumber, String cardHolderName, String expiryDate, String cvv) {
-        return PaymentValidator.validateCardNumber(cardNumber) == null &&
-                PaymentValidator.validateExpiryDate(expiryDate) == null &&
-                PaymentValidator.validateCVV(cvv) == null;
+        // Reuses the controller's result when the same inputs were just validated on this thread
+        return PaymentValidator.validate(cardNumber, expiryDate, cvv).isValid();
     }
 
     /**
-     * Processes the payment for the order.
-     * If the payment is valid, a unique order reference is generated.
+     * Validates the card details and charges them through the payment gateway without blocking.
+     * The idempotency key is derived from the checkout token and the card, so retries within this call and later
+     * calls for the same checkout never charge the card twice; paying the checkout with another card is a new charge.
      *
-     * @param cardNumber     The credit card number (should be 16 digits).
+     * @param checkoutToken  The token identifying the checkout.
+     * @param cardNumber     The credit card number.
      * @param cardHolderName The name on the credit card.
      * @param expiryDate     The expiry date in MM/YY format.
-     * @param cvv            The CVV code (should be 3 digits).
-     * @return An Optional containing a unique order reference if payment succeeds; otherwise, an empty Optional.
+     * @param cvv            The CVV code.
+     * @param amount         The amount to charge.
+     * @return A future completed with the order reference, or exceptionally with a PaymentException.
+     */
+    @Override
+    public CompletableFuture<String> processPaymentAsync(String checkoutToken, String cardNumber, String cardHolderName, String expiryDate, String cvv, double amount) {
+        CardValidationResult validation = PaymentValidator.validate(cardNumber, expiryDate, cvv);
+        if (!validation.isValid()) {
+            return CompletableFuture.failedFuture(new PaymentException(validation.getErrorMessage()));
+        }
+
+        // Bulkhead: reject instead of queueing so a slow gateway cannot pile up checkouts
+        if (!bulkhead.tryAcquire()) {
+            return CompletableFuture.failedFuture(new PaymentException("The payment service is busy. Please try again in a moment."));
+        }
+
+        String cardLast4 = cardNumber.substring(cardNumber.length() - 4);
+        String idempotencyKey = "checkout-" + checkoutToken + "-" + validation.getBrand() + "-" + cardLast4;
+        PaymentRequest request = new PaymentRequest(idempotencyKey, cardHolderName, cardLast4, validation.getBrand(), amount);
+
+        Payment payment = new Payment(request, SnowflakeIdGenerator.getInstance().nextOrderNumber());
+        attemptCharge(payment, 1);
+        // Callers observe completion after the bulkhead slot has been released, unless an abandoned attempt still holds it
+        return payment.result.whenComplete((reference, error) -> payment.settle());
+    }
+
+    /**
+     * Performs one gateway attempt and schedules a retry on transient failures and timeouts.
+     *
+     * @param payment       The payment (shared by all attempts).
+     * @param attemptNumber The attempt number, starting at 1.
+     */
+    private void attemptCharge(Payment payment, int attemptNumber) {
+        if (!circuitBreaker.allowRequest()) {
+            payment.result.completeExceptionally(new PaymentException("Payments are temporarily unavailable. Please try again later."));
+            return;
+        }
+
+        callGateway(payment, () -> gateway.charge(payment.request)).whenComplete((response, error) -> {
+            if (error == null) {
+                circuitBreaker.recordSuccess();
+                completeWith(payment, response);
+                return;
+            }
+
+            circuitBreaker.recordFailure();
+            if (attemptNumber < maxAttempts) {
+                long backoff = retryBackoffMillis << (attemptNumber - 1);
+                Executor delayed = CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS);
+                delayed.execute(() -> attemptCharge(payment, attemptNumber + 1));
+            } else if (unwrap(error) instanceof TimeoutException) {
+                findCharge(payment);  // The gateway may still have charged the card
+            } else {
+                System.out.println("Payment failed after " + attemptNumber + " attempts: " + error);
+                payment.result.completeExceptionally(new PaymentException("The payment could not be completed. Please try again.", error));
+            }
+        });
+    }
+
+    /**
+     * Asks the gateway for the charge made with the payment's idempotency key after the last attempt timed out,
+     * and completes the payment with its outcome.
+     *
+     * @param payment The payment whose outcome is unknown.
+     */
+    private void findCharge(Payment payment) {
+        callGateway(payment, () -> gateway.findCharge(payment.request)).whenComplete((response, error) -> {
+            if (error == null) {
+                completeWith(payment, response);
+            } else if (unwrap(error) instanceof TimeoutException) {
+                System.out.println("Payment outcome unknown for " + payment.request.getIdempotencyKey() + ": " + error);
+                payment.result.completeExceptionally(new PaymentException(
+                        "The payment could not be confirmed. Please check your statement before trying again.", error));
+            } else {
+                System.out.println("Payment failed: no charge found for " + payment.request.getIdempotencyKey());
+                payment.result.completeExceptionally(new PaymentException("The payment could not be completed. Please try again.", error));
+            }
+        });
+    }
+
+    /**
+     * Makes one call to the gateway on behalf of a payment, limited to the attempt timeout.
+     * The payment keeps its bulkhead slot until the gateway settles the call, even after the caller stopped waiting.
+     *
+     * @param payment The payment making the call.
+     * @param call    Starts the gateway call.
+     * @return A future completed with the gateway response, or exceptionally on failure or timeout.
      */
-    public Optional<String> processPayment(String cardNumber, String cardHolderName, String expiryDate, String cvv) {
-        if (validatePayment(cardNumber, cardHolderName, expiryDate, cvv)) {
-            // Simulate successful payment by generating a unique order reference
-            String orderReference = "ORDER-" + System.currentTimeMillis();
-            System.out.println("Payment processed successfully. Order Reference: " + orderReference);
-            return Optional.of(orderReference);  // Return the generated order reference
+    private CompletableFuture<GatewayResponse> callGateway(Payment payment, Supplier<CompletableFuture<GatewayResponse>> call) {
+        CompletableFuture<GatewayResponse> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        payment.callStarted();
+        // The timeout completes only the attempt, so the gateway's own future still reports when the call really settles
+        CompletableFuture<GatewayResponse> attempt = new CompletableFuture<>();
+        response.whenComplete((settled, error) -> {
+            payment.settle();
+            if (error == null) {
+                attempt.complete(settled);
+            } else {
+                attempt.completeExceptionally(error);
+            }
+        });
+        return attempt.orTimeout(attemptTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Completes a payment with the gateway's final answer.
+     *
+     * @param payment  The payment.
+     * @param response The gateway response.
+     */
+    private void completeWith(Payment payment, GatewayResponse response) {
+        if (response.isApproved()) {
+            System.out.println("Payment processed successfully. Order Reference: " + payment.orderReference
+                    + " (" + response.getTransactionId() + ")");
+            payment.result.complete(payment.orderReference);
         } else {
-            System.out.println("Payment validation failed.");
-            return Optional.empty();  // Return empty if validation fails
+            payment.result.completeExceptionally(new PaymentException("Payment declined: " + response.getMessage()));
+        }
+    }
+
+    /**
+     * Returns the cause of a failure wrapped by a dependent future.
+     *
+     * @param error The failure.
+     * @return The underlying failure.
+     */
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Returns the state of the circuit breaker guarding the gateway.
+     *
+     * @return The circuit breaker state.
+     */
+    public CircuitBreaker.State getCircuitBreakerState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Returns how many more payments can start before the bulkhead rejects new ones.
+     *
+     * @return The number of free bulkhead permits.
+     */
+    public int getAvailablePaymentSlots() {
+        return bulkhead.availablePermits();
+    }
+
+    /**
+     * One payment in flight: its request, its outcome and the gateway calls it still has open.
+     * Its bulkhead slot is released once the outcome is known and every gateway call has settled.
+     */
+    private final class Payment {
+
+        private final PaymentRequest request;                                   // Request shared by all attempts
+        private final String orderReference;                                    // Reference of the order this payment is for
+        private final CompletableFuture<String> result = new CompletableFuture<>();  // Completed with the order reference
+        private final AtomicInteger unsettled = new AtomicInteger(1);            // Open gateway calls, plus one for the result
+
+        /**
+         * Creates a payment holding a bulkhead slot.
+         *
+         * @param request        The payment request.
+         * @param orderReference The reference of the order this payment is for.
+         */
+        private Payment(PaymentRequest request, String orderReference) {
+            this.request = request;
+            this.orderReference = orderReference;
+        }
+
+        /**
+         * Records a gateway call that has started.
+         */
+        private void callStarted() {
+            unsettled.incrementAndGet();
+        }
+
+        /**
+         * Records that a gateway call or the result has settled, releasing the slot after the last one.
+         */
+        private void settle() {
+            if (unsettled.decrementAndGet() == 0) {
+                bulkhead.release();
+            }
         }
     }
 }
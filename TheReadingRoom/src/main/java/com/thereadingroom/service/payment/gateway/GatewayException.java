@@ -0,0 +1,14 @@
+package com.thereadingroom.service.payment.gateway;
+
+/**
+ * Transient gateway failure (network error, gateway overload, etc.).
+ * The charge did not go through and may be retried with the same idempotency key.
+ */
+public class GatewayException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public GatewayException(String message) {
+        super(message);
+    }
+}
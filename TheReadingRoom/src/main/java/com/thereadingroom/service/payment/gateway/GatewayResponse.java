@@ -0,0 +1,49 @@
+package com.thereadingroom.service.payment.gateway;
+
+/**
+ * Final answer from a payment gateway for a charge: either approved with a transaction id, or declined with a reason.
+ */
+public class GatewayResponse {
+
+    private final boolean approved;       // Whether the charge was approved
+    private final String transactionId;   // Gateway transaction id (null when declined)
+    private final String message;         // Decline reason or approval message
+
+    private GatewayResponse(boolean approved, String transactionId, String message) {
+        this.approved = approved;
+        this.transactionId = transactionId;
+        this.message = message;
+    }
+
+    /**
+     * Creates an approved response.
+     *
+     * @param transactionId The gateway transaction id.
+     * @return The response.
+     */
+    public static GatewayResponse approved(String transactionId) {
+        return new GatewayResponse(true, transactionId, "Approved");
+    }
+
+    /**
+     * Creates a declined response.
+     *
+     * @param reason The decline reason shown to the user.
+     * @return The response.
+     */
+    public static GatewayResponse declined(String reason) {
+        return new GatewayResponse(false, null, reason);
+    }
+
+    public boolean isApproved() {
+        return approved;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,33 @@
+package com.thereadingroom.service.payment.gateway;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service provider interface for payment gateways.
+ * Implementations must not block the calling thread: the charge is started and its outcome
+ * is delivered through the returned future.
+ */
+public interface IPaymentGateway {
+
+    /**
+     * Starts charging the card described by the request.
+     * Repeating a request with the same idempotency key must never charge the card twice;
+     * the gateway returns the outcome of the original charge instead.
+     *
+     * @param request The payment request.
+     * @return A future completed with the gateway response, or exceptionally with a GatewayException on a transient error.
+     */
+    CompletableFuture<GatewayResponse> charge(PaymentRequest request);
+
+    /**
+     * Looks up the charge made with a request's idempotency key, for a charge whose outcome the caller never learned.
+     * By default the charge is repeated, which an idempotent gateway answers with the original outcome.
+     *
+     * @param request The payment request of the charge.
+     * @return A future completed with the original charge's response, or exceptionally with a GatewayException
+     *         if no charge with the key went through.
+     */
+    default CompletableFuture<GatewayResponse> findCharge(PaymentRequest request) {
+        return charge(request);
+    }
+}
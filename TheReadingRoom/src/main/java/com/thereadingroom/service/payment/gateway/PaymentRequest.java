@@ -0,0 +1,53 @@
+package com.thereadingroom.service.payment.gateway;
+
+import com.thereadingroom.utils.auth.CardBrand;
+
+/**
+ * Immutable request sent to a payment gateway.
+ * Only the last four digits of the card are kept so the full card number never leaves the validation step.
+ */
+public class PaymentRequest {
+
+    private final String idempotencyKey;  // Key shared by all attempts of the same payment
+    private final String cardHolderName;  // Name on the card
+    private final String cardLast4;       // Last four digits of the card number
+    private final CardBrand brand;        // Brand detected during validation
+    private final double amount;          // Amount to charge
+
+    /**
+     * Creates a payment request.
+     *
+     * @param idempotencyKey Key shared by all attempts of the same payment.
+     * @param cardHolderName Name on the card.
+     * @param cardLast4      Last four digits of the card number.
+     * @param brand          Card brand.
+     * @param amount         Amount to charge.
+     */
+    public PaymentRequest(String idempotencyKey, String cardHolderName, String cardLast4, CardBrand brand, double amount) {
+        this.idempotencyKey = idempotencyKey;
+        this.cardHolderName = cardHolderName;
+        this.cardLast4 = cardLast4;
+        this.brand = brand;
+        this.amount = amount;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getCardHolderName() {
+        return cardHolderName;
+    }
+
+    public String getCardLast4() {
+        return cardLast4;
+    }
+
+    public CardBrand getBrand() {
+        return brand;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+}
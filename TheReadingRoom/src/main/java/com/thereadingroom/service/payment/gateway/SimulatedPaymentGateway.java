@@ -0,0 +1,170 @@
+package com.thereadingroom.service.payment.gateway;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local payment gateway simulator with configurable latency, transient failure rate, decline rate and hanging requests.
+ * Charges are completed by a scheduler, so callers are never blocked while the "network" is slow.
+ * Charges are remembered by idempotency key, so retries return the original outcome instead of charging twice.
+ */
+public final class SimulatedPaymentGateway implements IPaymentGateway {
+
+    // Number of completed charges remembered before old ones are forgotten
+    private static final int MAX_REMEMBERED_CHARGES = 10_000;
+
+    private volatile long minLatencyMillis;    // Fastest simulated response time
+    private volatile long maxLatencyMillis;    // Slowest simulated response time
+    private volatile double failureRate;       // Probability of a transient GatewayException
+    private volatile double timeoutRate;       // Probability that a charge hangs for hangMillis before completing
+    private volatile double declineRate;       // Probability that the card is declined
+    private volatile long hangMillis = 30_000; // How long a hanging charge takes to complete
+
+    // Charges by idempotency key, so retries observe the original outcome
+    private final Map<String, CompletableFuture<GatewayResponse>> charges = new ConcurrentHashMap<>();
+    private final AtomicLong transactionCounter = new AtomicLong();
+
+    // Completes simulated charges after their latency elapses
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-gateway-simulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a simulator with realistic defaults: 100-400 ms latency, 5% transient failures, 2% hanging requests and no declines.
+     */
+    public SimulatedPaymentGateway() {
+        this(100, 400, 0.05, 0.02, 0.0);
+    }
+
+    /**
+     * Creates a simulator with the given behaviour.
+     *
+     * @param minLatencyMillis Fastest simulated response time.
+     * @param maxLatencyMillis Slowest simulated response time.
+     * @param failureRate      Probability (0-1) of a transient failure.
+     * @param timeoutRate      Probability (0-1) that a charge hangs.
+     * @param declineRate      Probability (0-1) that the card is declined.
+     */
+    public SimulatedPaymentGateway(long minLatencyMillis, long maxLatencyMillis, double failureRate, double timeoutRate, double declineRate) {
+        setLatency(minLatencyMillis, maxLatencyMillis);
+        this.failureRate = failureRate;
+        this.timeoutRate = timeoutRate;
+        this.declineRate = declineRate;
+    }
+
+    /**
+     * Starts a simulated charge. The returned future is a copy, so callers applying their own
+     * timeouts never complete the shared charge that later retries will observe.
+     *
+     * @param request The payment request.
+     * @return A future completed with the gateway response.
+     */
+    @Override
+    public CompletableFuture<GatewayResponse> charge(PaymentRequest request) {
+        CompletableFuture<GatewayResponse> charge = new CompletableFuture<>();
+        CompletableFuture<GatewayResponse> existing = charges.putIfAbsent(request.getIdempotencyKey(), charge);
+        if (existing != null) {
+            return existing.copy();  // Retry of a charge that is in flight or already finished
+        }
+
+        forgetOldCharges();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = minLatencyMillis + (maxLatencyMillis > minLatencyMillis ? random.nextLong(maxLatencyMillis - minLatencyMillis + 1) : 0);
+        double roll = random.nextDouble();
+
+        if (roll < failureRate) {
+            scheduler.schedule(() -> {
+                charges.remove(request.getIdempotencyKey(), charge);  // Nothing was charged, so a retry may try again
+                charge.completeExceptionally(new GatewayException("Payment gateway is temporarily unavailable."));
+            }, latency, TimeUnit.MILLISECONDS);
+        } else if (roll < failureRate + timeoutRate) {
+            // The gateway is slow but eventually processes the charge
+            scheduler.schedule(() -> charge.complete(approve()), hangMillis, TimeUnit.MILLISECONDS);
+        } else if (roll < failureRate + timeoutRate + declineRate) {
+            scheduler.schedule(() -> charge.complete(GatewayResponse.declined("Card declined by issuer.")), latency, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler.schedule(() -> charge.complete(approve()), latency, TimeUnit.MILLISECONDS);
+        }
+        return charge.copy();
+    }
+
+    /**
+     * Looks up a simulated charge by idempotency key without starting a new one.
+     *
+     * @param request The payment request of the charge.
+     * @return A future completed with the charge's response once it finishes, or failed if no charge was made.
+     */
+    @Override
+    public CompletableFuture<GatewayResponse> findCharge(PaymentRequest request) {
+        CompletableFuture<GatewayResponse> charge = charges.get(request.getIdempotencyKey());
+        if (charge == null) {
+            return CompletableFuture.failedFuture(new GatewayException("No charge found for " + request.getIdempotencyKey() + "."));
+        }
+        return charge.copy();
+    }
+
+    /**
+     * Sets the range of simulated response times.
+     *
+     * @param minLatencyMillis Fastest response time.
+     * @param maxLatencyMillis Slowest response time.
+     */
+    public void setLatency(long minLatencyMillis, long maxLatencyMillis) {
+        if (minLatencyMillis < 0 || maxLatencyMillis < minLatencyMillis) {
+            throw new IllegalArgumentException("Invalid latency range: " + minLatencyMillis + "-" + maxLatencyMillis);
+        }
+        this.minLatencyMillis = minLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public void setTimeoutRate(double timeoutRate) {
+        this.timeoutRate = timeoutRate;
+    }
+
+    public void setDeclineRate(double declineRate) {
+        this.declineRate = declineRate;
+    }
+
+    public void setHangMillis(long hangMillis) {
+        this.hangMillis = hangMillis;
+    }
+
+    /**
+     * Returns the number of distinct charges the gateway currently remembers.
+     *
+     * @return The number of remembered charges.
+     */
+    public int getRememberedChargeCount() {
+        return charges.size();
+    }
+
+    /**
+     * Creates an approved response with a new transaction id.
+     *
+     * @return The approved response.
+     */
+    private GatewayResponse approve() {
+        return GatewayResponse.approved("TXN-" + transactionCounter.incrementAndGet());
+    }
+
+    /**
+     * Drops finished charges once too many are remembered, keeping in-flight ones.
+     */
+    private void forgetOldCharges() {
+        if (charges.size() > MAX_REMEMBERED_CHARGES) {
+            charges.values().removeIf(CompletableFuture::isDone);
+        }
+    }
+}
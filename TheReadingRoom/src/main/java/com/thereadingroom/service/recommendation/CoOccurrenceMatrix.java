@@ -0,0 +1,76 @@
+package com.thereadingroom.service.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Sparse, symmetric book-by-book counts of how many orders contained both books.
+ * Each book has a row, indexed by its ID, holding only the books it was bought with. Not thread-safe.
+ */
+class CoOccurrenceMatrix {
+
+    private IntCountMap[] rows = new IntCountMap[64];  // Book ID -> counts of the books bought with it, or null
+
+    /**
+     * Counts one order: every pair of distinct books in it was bought together once more.
+     *
+     * @param bookIds The distinct book IDs of the order.
+     */
+    void addOrder(int[] bookIds) {
+        for (int a : bookIds) {
+            for (int b : bookIds) {
+                if (a != b) {
+                    row(a).add(b, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the counts of another matrix, built from other orders.
+     *
+     * @param other The matrix to add.
+     * @return This matrix.
+     */
+    CoOccurrenceMatrix merge(CoOccurrenceMatrix other) {
+        for (int bookId = 0; bookId < other.rows.length; bookId++) {
+            if (other.rows[bookId] != null) {
+                row(bookId).addAll(other.rows[bookId]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the counts of the books bought with a book.
+     *
+     * @param bookId The book ID.
+     * @return The row, or null if the book was never bought with another.
+     */
+    IntCountMap getRow(int bookId) {
+        return bookId >= 0 && bookId < rows.length ? rows[bookId] : null;
+    }
+
+    /**
+     * Returns one more than the highest book ID with a row.
+     *
+     * @return The row count.
+     */
+    int rowCount() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the row of a book, creating it (and growing the row array) if needed.
+     */
+    private IntCountMap row(int bookId) {
+        if (bookId >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(rows.length * 2, bookId + 1));
+        }
+        IntCountMap row = rows[bookId];
+        if (row == null) {
+            row = new IntCountMap();
+            rows[bookId] = row;
+        }
+        return row;
+    }
+}
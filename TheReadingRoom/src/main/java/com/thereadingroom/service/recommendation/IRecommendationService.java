@@ -0,0 +1,45 @@
+package com.thereadingroom.service.recommendation;
+
+import com.thereadingroom.model.entity.Order;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface for "customers also bought" recommendations, derived from which books were ordered together.
+ * Lookups are answered from memory, so they can be made while a page loads.
+ */
+public interface IRecommendationService {
+
+    /**
+     * Counts a newly placed order's books as bought together.
+     *
+     * @param order The saved order, with its items.
+     */
+    void recordOrder(Order order);
+
+    /**
+     * Retrieves the books most often bought together with a book.
+     *
+     * @param bookId The book ID.
+     * @param limit  The maximum number of books.
+     * @return The IDs of the other books, most often bought together first.
+     */
+    List<Integer> getAlsoBought(int bookId, int limit);
+
+    /**
+     * Retrieves the books most often bought together with any of a set of books, such as a cart.
+     *
+     * @param bookIds The IDs of the books.
+     * @param limit   The maximum number of books.
+     * @return The IDs of other books, highest combined count first; never one of the given books.
+     */
+    List<Integer> getRecommendations(Collection<Integer> bookIds, int limit);
+
+    /**
+     * Recomputes the counts from the order history.
+     *
+     * @return The number of orders counted, or -1 if the history could not be read or a rebuild is running.
+     */
+    int rebuild();
+}
@@ -0,0 +1,136 @@
+package com.thereadingroom.service.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Counts per int key in an open-addressing hash table of primitive arrays, so a count is stored without
+ * boxing the key or the value. Not thread-safe.
+ */
+class IntCountMap {
+
+    private static final int EMPTY = Integer.MIN_VALUE;  // Marks a free slot; book IDs are never this value
+    private static final int INITIAL_CAPACITY = 8;       // Slots of a new table (a power of two)
+
+    private int[] keys = newKeys(INITIAL_CAPACITY);       // Keys, or EMPTY
+    private int[] counts = new int[INITIAL_CAPACITY];     // Count per key
+    private int size;                                     // Number of keys
+
+    /**
+     * Adds to the count of a key.
+     *
+     * @param key   The key.
+     * @param delta The amount to add.
+     */
+    void add(int key, int delta) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = slot(key);
+            }
+        }
+        counts[slot] += delta;
+    }
+
+    /**
+     * Returns the count of a key.
+     *
+     * @param key The key.
+     * @return The count, 0 if the key was never added.
+     */
+    int get(int key) {
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    /**
+     * Adds all counts of another map.
+     *
+     * @param other The map to add.
+     */
+    void addAll(IntCountMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                add(other.keys[i], other.counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return The size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots, for iterating with keyAt and countAt.
+     *
+     * @return The capacity.
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key in a slot.
+     *
+     * @param slot The slot index.
+     * @return The key, or Integer.MIN_VALUE if the slot is free.
+     */
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the count in a slot.
+     *
+     * @param slot The slot index.
+     * @return The count.
+     */
+    int countAt(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * Finds the slot holding a key, or the free slot where it belongs (linear probing).
+     */
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the table and reinserts the keys.
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = newKeys(oldKeys.length * 2);
+        counts = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Allocates a key array with every slot free.
+     */
+    private static int[] newKeys(int capacity) {
+        int[] keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+}
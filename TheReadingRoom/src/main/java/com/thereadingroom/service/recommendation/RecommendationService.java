@@ -0,0 +1,288 @@
+package com.thereadingroom.service.recommendation;
+
+import com.thereadingroom.model.dao.recommendation.CoPurchaseDAO;
+import com.thereadingroom.model.dao.recommendation.ICoPurchaseDAO;
+import com.thereadingroom.model.entity.Order;
+import com.thereadingroom.model.entity.OrderItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * RecommendationService keeps sparse counts of how often two books were ordered together, and for every book
+ * the TOP_K books it was most often ordered with. The counts are rebuilt from the order history in parallel
+ * at startup and then updated with every placed order; only the top lists of the books in that order are
+ * recomputed. Lookups read the published top lists without locking, so they take microseconds.
+ * It uses the singleton pattern so every order service updates the same counts.
+ */
+public class RecommendationService implements IRecommendationService {
+
+    // Books kept per top list
+    public static final int TOP_K = 10;
+
+    // Orders read and counted by one rebuild task
+    static final int CHUNK_SIZE = 2_000;
+
+    // At most this many chunks are read at once, leaving pooled connections for the rest of the application
+    private static final int MAX_PARALLELISM = 4;
+
+    private static RecommendationService instance;  // Singleton instance
+
+    private final ICoPurchaseDAO coPurchaseDAO;     // Reads the books of past orders
+    private final ForkJoinPool pool = new ForkJoinPool(Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+    private CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();  // Pair counts (guarded by this)
+    private List<Order> ordersDuringRebuild;        // Orders placed while a rebuild runs, or null (guarded by this)
+    private volatile AtomicReferenceArray<TopBooks> topBooks = new AtomicReferenceArray<>(0);  // Book ID -> top list
+
+    /**
+     * The books most often bought with one book, with their counts, most often first.
+     */
+    private static final class TopBooks {
+
+        private final int[] bookIds;  // The other books
+        private final int[] counts;   // Orders containing both books
+
+        TopBooks(int[] bookIds, int[] counts) {
+            this.bookIds = bookIds;
+            this.counts = counts;
+        }
+    }
+
+    // Private constructor for Singleton pattern
+    private RecommendationService() {
+        this(new CoPurchaseDAO());
+    }
+
+    /**
+     * Creates a service reading the order history through the given DAO.
+     *
+     * @param coPurchaseDAO DAO reading the books of past orders.
+     */
+    public RecommendationService(ICoPurchaseDAO coPurchaseDAO) {
+        this.coPurchaseDAO = coPurchaseDAO;
+    }
+
+    /**
+     * Singleton - Get the single instance of RecommendationService.
+     *
+     * @return The single instance of RecommendationService.
+     */
+    public static synchronized RecommendationService getInstance() {
+        if (instance == null) {
+            instance = new RecommendationService();
+        }
+        return instance;
+    }
+
+    /**
+     * Counts a newly placed order's books as bought together and refreshes their top lists.
+     *
+     * @param order The saved order, with its items.
+     */
+    @Override
+    public synchronized void recordOrder(Order order) {
+        int[] bookIds = distinctBookIds(order);
+        if (bookIds.length < 2) {
+            return;  // A single book is not bought together with anything
+        }
+        if (ordersDuringRebuild != null) {
+            ordersDuringRebuild.add(order);  // Re-applied to the rebuilt counts if the rebuild did not read it
+        }
+        matrix.addOrder(bookIds);
+        for (int bookId : bookIds) {
+            publishTopBooks(bookId);
+        }
+    }
+
+    /**
+     * Retrieves the books most often bought together with a book.
+     *
+     * @param bookId The book ID.
+     * @param limit  The maximum number of books.
+     * @return The IDs of the other books, most often bought together first.
+     */
+    @Override
+    public List<Integer> getAlsoBought(int bookId, int limit) {
+        TopBooks top = topBooksOf(bookId);
+        List<Integer> bookIds = new ArrayList<>();
+        for (int i = 0; top != null && i < top.bookIds.length && i < limit; i++) {
+            bookIds.add(top.bookIds[i]);
+        }
+        return bookIds;
+    }
+
+    /**
+     * Retrieves the books most often bought together with any of a set of books, adding up the counts of
+     * each book's top list.
+     *
+     * @param bookIds The IDs of the books.
+     * @param limit   The maximum number of books.
+     * @return The IDs of other books, highest combined count first; never one of the given books.
+     */
+    @Override
+    public List<Integer> getRecommendations(Collection<Integer> bookIds, int limit) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (int bookId : bookIds) {
+            TopBooks top = topBooksOf(bookId);
+            for (int i = 0; top != null && i < top.bookIds.length; i++) {
+                scores.merge(top.bookIds[i], top.counts[i], Integer::sum);
+            }
+        }
+        bookIds.forEach(scores::remove);
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Recomputes the counts from the order history, reading ranges of orders in parallel.
+     * Orders placed meanwhile are counted in the current counts as usual and re-applied to the rebuilt
+     * counts unless the rebuild read them itself; lookups keep using the current top lists until the
+     * rebuilt ones are published.
+     *
+     * @return The number of orders counted, or -1 if the history could not be read or a rebuild is running.
+     */
+    @Override
+    public int rebuild() {
+        synchronized (this) {
+            if (ordersDuringRebuild != null) {
+                return -1;
+            }
+            ordersDuringRebuild = new ArrayList<>();
+        }
+        CoOccurrenceMatrix rebuilt = null;
+        int[] range = coPurchaseDAO.getOrderIdRange();
+        try {
+            if (range != null) {
+                rebuilt = range[2] == 0 ? new CoOccurrenceMatrix() : pool.invoke(new CountTask(range[0], range[1]));
+            }
+        } catch (IllegalStateException e) {
+            System.out.println("Error rebuilding recommendations: " + e.getMessage());
+        }
+
+        synchronized (this) {
+            List<Order> placedMeanwhile = ordersDuringRebuild;
+            ordersDuringRebuild = null;
+            if (rebuilt == null) {
+                return -1;
+            }
+            for (Order order : placedMeanwhile) {
+                if (order.getOrderId() > range[1]) {
+                    rebuilt.addOrder(distinctBookIds(order));
+                }
+            }
+            matrix = rebuilt;
+            topBooks = new AtomicReferenceArray<>(matrix.rowCount());
+            for (int bookId = 0; bookId < matrix.rowCount(); bookId++) {
+                publishTopBooks(bookId);
+            }
+            return range[2];
+        }
+    }
+
+    /**
+     * Returns the published top list of a book.
+     */
+    private TopBooks topBooksOf(int bookId) {
+        AtomicReferenceArray<TopBooks> current = topBooks;
+        return bookId >= 0 && bookId < current.length() ? current.get(bookId) : null;
+    }
+
+    /**
+     * Recomputes a book's top list from its row of counts and publishes it (holding the lock).
+     */
+    private void publishTopBooks(int bookId) {
+        IntCountMap row = matrix.getRow(bookId);
+        if (row == null) {
+            return;
+        }
+        int[] bookIds = new int[Math.min(TOP_K, row.size())];
+        int[] counts = new int[bookIds.length];
+        int size = 0;
+        for (int slot = 0; slot < row.capacity(); slot++) {
+            int otherBookId = row.keyAt(slot);
+            int count = row.countAt(slot);
+            if (otherBookId == Integer.MIN_VALUE || (size == bookIds.length && !ranksBefore(count, otherBookId, counts[size - 1], bookIds[size - 1]))) {
+                continue;
+            }
+            // Insert into the sorted list, dropping the last entry if it is full
+            int position = size < bookIds.length ? size++ : size - 1;
+            while (position > 0 && ranksBefore(count, otherBookId, counts[position - 1], bookIds[position - 1])) {
+                bookIds[position] = bookIds[position - 1];
+                counts[position] = counts[position - 1];
+                position--;
+            }
+            bookIds[position] = otherBookId;
+            counts[position] = count;
+        }
+
+        AtomicReferenceArray<TopBooks> current = topBooks;
+        if (bookId >= current.length()) {
+            AtomicReferenceArray<TopBooks> grown = new AtomicReferenceArray<>(Math.max(current.length() * 2, bookId + 1));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            current = grown;
+            topBooks = grown;
+        }
+        current.set(bookId, new TopBooks(bookIds, counts));
+    }
+
+    /**
+     * Orders top list entries by count, then by book ID so the lists are stable.
+     */
+    private static boolean ranksBefore(int count, int bookId, int otherCount, int otherBookId) {
+        return count > otherCount || (count == otherCount && bookId < otherBookId);
+    }
+
+    /**
+     * Returns the distinct book IDs of an order.
+     */
+    private static int[] distinctBookIds(Order order) {
+        return order.getOrderItems().stream().mapToInt(OrderItem::getBookId).distinct().toArray();
+    }
+
+    /**
+     * Counts the orders in an order ID range, splitting it in halves while it is larger than a chunk.
+     */
+    @SuppressWarnings("serial")  // Fork/join tasks are never serialized
+    private class CountTask extends RecursiveTask<CoOccurrenceMatrix> {
+
+        private final int firstOrderId;   // First order ID of the range (inclusive)
+        private final int lastOrderId;    // Last order ID of the range (inclusive)
+
+        CountTask(int firstOrderId, int lastOrderId) {
+            this.firstOrderId = firstOrderId;
+            this.lastOrderId = lastOrderId;
+        }
+
+        /**
+         * Reads and counts the range if it fits in a chunk, otherwise counts both halves in parallel and merges them.
+         */
+        @Override
+        protected CoOccurrenceMatrix compute() {
+            if ((long) lastOrderId - firstOrderId < CHUNK_SIZE) {
+                List<int[]> orders = coPurchaseDAO.getOrderBooks(firstOrderId, lastOrderId);
+                if (orders == null) {
+                    throw new IllegalStateException("Orders " + firstOrderId + " to " + lastOrderId + " could not be read");
+                }
+                CoOccurrenceMatrix counts = new CoOccurrenceMatrix();
+                orders.forEach(counts::addOrder);
+                return counts;
+            }
+            int middle = (int) (((long) firstOrderId + lastOrderId) / 2);
+            CountTask upper = new CountTask(middle + 1, lastOrderId);
+            upper.fork();
+            CoOccurrenceMatrix lower = new CountTask(firstOrderId, middle).compute();
+            return lower.merge(upper.join());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.thereadingroom.service.report;
+
+import com.thereadingroom.model.dao.analytics.CubeQuery;
+import com.thereadingroom.model.entity.BookSales;
+import com.thereadingroom.model.entity.CustomerSales;
+import com.thereadingroom.model.entity.DailySales;
+import com.thereadingroom.model.entity.SalesSlice;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * IReportService defines the contract for the admin sales reports.
+ * Reports are answered from the pre-aggregated sales rollups, never from the raw orders.
+ */
+public interface IReportService {
+
+    /**
+     * Retrieve the sales of each day in a range that had orders.
+     *
+     * @param from The first day (inclusive).
+     * @param to   The last day (inclusive).
+     * @return The daily sales in date order.
+     */
+    List<DailySales> getDailySales(LocalDate from, LocalDate to);
+
+    /**
+     * Retrieve the books with the highest revenue in a date range.
+     *
+     * @param from  The first day (inclusive).
+     * @param to    The last day (inclusive).
+     * @param limit The maximum number of books.
+     * @return The best-selling books, highest revenue first.
+     */
+    List<BookSales> getTopBooks(LocalDate from, LocalDate to, int limit);
+
+    /**
+     * Retrieve the customers with the highest lifetime revenue.
+     *
+     * @param limit The maximum number of customers.
+     * @return The top customers, highest revenue first.
+     */
+    List<CustomerSales> getTopCustomers(int limit);
+
+    /**
+     * Recompute the sales rollups from the raw orders.
+     *
+     * @return The number of orders aggregated, or -1 if the rebuild failed.
+     */
+    int rebuildRollups();
+
+    /**
+     * Aggregate the order lines by one or two dimensions, for instance revenue by author and month.
+     *
+     * @param query The grouping and filters.
+     * @return The groups, highest revenue first.
+     */
+    List<SalesSlice> sliceSales(CubeQuery query);
+}
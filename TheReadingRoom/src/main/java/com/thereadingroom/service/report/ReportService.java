@@ -0,0 +1,142 @@
+package com.thereadingroom.service.report;
+
+import com.thereadingroom.model.dao.analytics.CubeQuery;
+import com.thereadingroom.model.dao.analytics.ISalesCubeDAO;
+import com.thereadingroom.model.dao.analytics.ISalesRollupDAO;
+import com.thereadingroom.model.dao.analytics.SalesCube;
+import com.thereadingroom.model.dao.analytics.SalesCubeDAO;
+import com.thereadingroom.model.dao.analytics.SalesRollupDAO;
+import com.thereadingroom.model.dao.cdc.ChangeDataCapture;
+import com.thereadingroom.model.dao.cdc.ChangeSet;
+import com.thereadingroom.model.entity.BookSales;
+import com.thereadingroom.model.entity.CustomerSales;
+import com.thereadingroom.model.entity.DailySales;
+import com.thereadingroom.model.entity.SalesSlice;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * ReportService answers the admin sales reports from the sales rollups, which OrderDAO keeps current
+ * with every saved and deleted order, and rebuilds the rollups from the orders on request.
+ * Ad-hoc reports are aggregated from an in-memory sales cube, loaded on first use and extended with the
+ * orders placed since before each query. If an order already in the cube is changed or deleted, which change
+ * data capture reports, the cube is loaded again from scratch.
+ */
+public class ReportService implements IReportService {
+
+    private final ISalesRollupDAO salesRollupDAO;  // DAO for the sales rollup tables
+    private final ISalesCubeDAO salesCubeDAO;      // DAO loading order lines into the sales cube
+    private volatile SalesCube salesCube = new SalesCube();  // Columnar copy of the order lines
+    private volatile boolean cubeStale;            // Whether an order in the cube changed since it was loaded
+    private boolean followingOrders;               // Whether order changes are being followed
+
+    /**
+     * Creates a report service over the sales rollup tables.
+     */
+    public ReportService() {
+        this(new SalesRollupDAO(), new SalesCubeDAO());
+    }
+
+    /**
+     * Creates a report service over the given DAOs.
+     *
+     * @param salesRollupDAO DAO for the sales rollup tables.
+     * @param salesCubeDAO   DAO loading order lines into the sales cube.
+     */
+    public ReportService(ISalesRollupDAO salesRollupDAO, ISalesCubeDAO salesCubeDAO) {
+        this.salesRollupDAO = salesRollupDAO;
+        this.salesCubeDAO = salesCubeDAO;
+    }
+
+    /**
+     * Retrieve the sales of each day in a range that had orders.
+     *
+     * @param from The first day (inclusive).
+     * @param to   The last day (inclusive).
+     * @return The daily sales in date order.
+     */
+    @Override
+    public List<DailySales> getDailySales(LocalDate from, LocalDate to) {
+        return salesRollupDAO.getDailySales(from, to);
+    }
+
+    /**
+     * Retrieve the books with the highest revenue in a date range.
+     *
+     * @param from  The first day (inclusive).
+     * @param to    The last day (inclusive).
+     * @param limit The maximum number of books.
+     * @return The best-selling books, highest revenue first.
+     */
+    @Override
+    public List<BookSales> getTopBooks(LocalDate from, LocalDate to, int limit) {
+        return salesRollupDAO.getTopBooks(from, to, limit);
+    }
+
+    /**
+     * Retrieve the customers with the highest lifetime revenue.
+     *
+     * @param limit The maximum number of customers.
+     * @return The top customers, highest revenue first.
+     */
+    @Override
+    public List<CustomerSales> getTopCustomers(int limit) {
+        return salesRollupDAO.getTopCustomers(limit);
+    }
+
+    /**
+     * Recompute the sales rollups from the raw orders.
+     *
+     * @return The number of orders aggregated, or -1 if the rebuild failed.
+     */
+    @Override
+    public int rebuildRollups() {
+        return salesRollupDAO.rebuild();
+    }
+
+    /**
+     * Aggregate the order lines by one or two dimensions, after bringing the sales cube up to date.
+     *
+     * @param query The grouping and filters.
+     * @return The groups, highest revenue first.
+     */
+    @Override
+    public List<SalesSlice> sliceSales(CubeQuery query) {
+        return refreshCube().query(query);
+    }
+
+    /**
+     * Extends the sales cube with the orders placed since it was last refreshed, or reloads it if an order
+     * in it has changed. Refreshes are serialized; queries on the returned cube run concurrently.
+     *
+     * @return The up-to-date cube.
+     */
+    private synchronized SalesCube refreshCube() {
+        if (!followingOrders) {
+            ChangeDataCapture.getInstance().addListener(this::onOrdersChanged, "orders");
+            followingOrders = true;
+        }
+        if (cubeStale) {
+            cubeStale = false;
+            salesCube = new SalesCube();
+        }
+        if (salesCubeDAO.appendNewLines(salesCube) < 0) {
+            cubeStale = true;  // Part of an order may be missing; start over next time
+        }
+        return salesCube;
+    }
+
+    /**
+     * Marks the cube stale when an order it already holds was changed or deleted; new orders are picked up
+     * by the next refresh anyway.
+     *
+     * @param changes The committed changes to the orders table.
+     */
+    private void onOrdersChanged(ChangeSet changes) {
+        int lastOrderId = salesCube.getLastOrderId();
+        if (changes.getRowIds("orders").stream().anyMatch(rowId -> rowId <= lastOrderId)) {
+            cubeStale = true;
+        }
+    }
+}
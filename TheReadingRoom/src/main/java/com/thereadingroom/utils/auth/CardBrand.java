@@ -0,0 +1,54 @@
+package com.thereadingroom.utils.auth;
+
+/**
+ * Card brands recognised from the issuer identification number (IIN), i.e. the leading digits of a card number.
+ */
+public enum CardBrand {
+    VISA("Visa"),
+    MASTERCARD("Mastercard"),
+    AMERICAN_EXPRESS("American Express"),
+    DISCOVER("Discover"),
+    JCB("JCB"),
+    UNKNOWN("Unknown");
+
+    private final String displayName;  // Name shown to users
+
+    CardBrand(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Detects the brand from the first six digits of a card number.
+     * Uses plain integer range checks so no strings or patterns are involved.
+     *
+     * @param iin The first six digits of the card number as an integer (e.g. 411111).
+     * @return The detected brand, or UNKNOWN.
+     */
+    public static CardBrand fromIin(int iin) {
+        int first1 = iin / 100000;
+        int first2 = iin / 10000;
+        int first3 = iin / 1000;
+        int first4 = iin / 100;
+
+        if (first1 == 4) {
+            return VISA;
+        }
+        if ((first2 >= 51 && first2 <= 55) || (first4 >= 2221 && first4 <= 2720)) {
+            return MASTERCARD;
+        }
+        if (first2 == 34 || first2 == 37) {
+            return AMERICAN_EXPRESS;
+        }
+        if (first4 == 6011 || first2 == 65 || (first3 >= 644 && first3 <= 649)) {
+            return DISCOVER;
+        }
+        if (first4 >= 3528 && first4 <= 3589) {
+            return JCB;
+        }
+        return UNKNOWN;
+    }
+}
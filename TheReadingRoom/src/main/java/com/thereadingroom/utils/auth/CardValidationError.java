@@ -0,0 +1,25 @@
+package com.thereadingroom.utils.auth;
+
+/**
+ * Reasons a payment card can fail validation, each with the message shown to the user.
+ */
+public enum CardValidationError {
+    EMPTY_CARD_NUMBER("Card number cannot be empty."),
+    INVALID_CARD_NUMBER_FORMAT("Card number must be 16 digits."),
+    FAILED_CHECKSUM("Card number is not valid. Please check the digits."),
+    EMPTY_EXPIRY_DATE("Expiry date cannot be empty."),
+    INVALID_EXPIRY_DATE_FORMAT("Expiry date format must be MM/yy."),
+    EXPIRED("Expiry date must be in the future."),
+    EMPTY_CVV("CVV cannot be empty."),
+    INVALID_CVV_FORMAT("CVV must be 3 digits.");
+
+    private final String message;  // User-facing error message
+
+    CardValidationError(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,94 @@
+package com.thereadingroom.utils.auth;
+
+/**
+ * Mutable, reusable outcome of a payment card validation.
+ * A single instance is filled in by PaymentValidator on every call, so validating does not allocate.
+ * Instances are not thread-safe and should be confined to one thread.
+ */
+public class CardValidationResult {
+
+    private CardValidationError error;   // First error found, or null when the card is valid
+    private CardBrand brand = CardBrand.UNKNOWN;  // Brand detected from the card number
+    private int expiryMonthIndex;        // Expiry as year * 12 + (month - 1), used to re-check expiry cheaply
+
+    // References to the validated inputs, used to recognise a repeat validation of the same values
+    private String cardNumber;
+    private String expiryDate;
+    private String cvv;
+
+    /**
+     * Checks if the validated card details are valid.
+     *
+     * @return true if no error was found.
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * Returns the first validation error found.
+     *
+     * @return The error, or null if the card details are valid.
+     */
+    public CardValidationError getError() {
+        return error;
+    }
+
+    /**
+     * Returns the user-facing message for the validation error.
+     *
+     * @return The error message, or null if the card details are valid.
+     */
+    public String getErrorMessage() {
+        return error == null ? null : error.getMessage();
+    }
+
+    /**
+     * Returns the card brand detected from the card number.
+     *
+     * @return The card brand, or UNKNOWN if it could not be detected.
+     */
+    public CardBrand getBrand() {
+        return brand;
+    }
+
+    /**
+     * Checks if this result was produced for exactly these input instances.
+     *
+     * @param cardNumber The card number.
+     * @param expiryDate The expiry date.
+     * @param cvv        The CVV.
+     * @return true if the same string instances were validated.
+     */
+    boolean isFor(String cardNumber, String expiryDate, String cvv) {
+        return this.cardNumber != null && this.cardNumber == cardNumber && this.expiryDate == expiryDate && this.cvv == cvv;
+    }
+
+    /**
+     * Clears the result and remembers the inputs being validated.
+     */
+    void reset(String cardNumber, String expiryDate, String cvv) {
+        this.cardNumber = cardNumber;
+        this.expiryDate = expiryDate;
+        this.cvv = cvv;
+        this.error = null;
+        this.brand = CardBrand.UNKNOWN;
+        this.expiryMonthIndex = 0;
+    }
+
+    void setError(CardValidationError error) {
+        this.error = error;
+    }
+
+    void setBrand(CardBrand brand) {
+        this.brand = brand;
+    }
+
+    int getExpiryMonthIndex() {
+        return expiryMonthIndex;
+    }
+
+    void setExpiryMonthIndex(int expiryMonthIndex) {
+        this.expiryMonthIndex = expiryMonthIndex;
+    }
+}
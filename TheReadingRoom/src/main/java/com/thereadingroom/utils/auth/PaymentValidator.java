@@ -1,51 +1,98 @@
 package com.thereadingroom.utils.auth;
 
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
+/**
+ * Single-pass validator for payment card details.
+ * Card numbers, expiry dates and CVVs are checked by scanning their characters directly
+ * (no regular expressions or date parsing), and the outcome is written into a reusable
+ * CardValidationResult so that validating a payment does not allocate.
+ */
 public class PaymentValidator {
 
-    // Formatter for expiry date string consistently in "MM/yy" format.
-    private static final DateTimeFormatter EXPIRY_DATE_FORMAT = DateTimeFormatter.ofPattern("MM/yy");
+    // Required number of digits in a card number and CVV
+    private static final int CARD_NUMBER_LENGTH = 16;
+    private static final int CVV_LENGTH = 3;
+
+    // Number of leading digits used to detect the card brand
+    private static final int IIN_LENGTH = 6;
+
+    // How often the cached current month is refreshed (one minute)
+    private static final long CURRENT_MONTH_REFRESH_MILLIS = 60_000;
+
+    // Current month as year * 12 + (month - 1), refreshed at most once a minute
+    private static volatile int currentMonthIndex;
+    private static volatile long currentMonthRefreshAt;
+
+    // One reusable result per thread for the allocation-free validate(...) overload
+    private static final ThreadLocal<CardValidationResult> RESULTS = ThreadLocal.withInitial(CardValidationResult::new);
+
+    /**
+     * Validate all card details in one pass, reusing this thread's result object.
+     * Validating the same string instances again on the same thread (for example, in the controller
+     * and then in the payment service) returns the previous result without rescanning, apart from
+     * re-checking the expiry against the current month.
+     *
+     * @param cardNumber The card number.
+     * @param expiryDate The expiry date in "MM/yy" format.
+     * @param cvv        The CVV.
+     * @return This thread's result object; it is overwritten by the next call on the same thread.
+     */
+    public static CardValidationResult validate(String cardNumber, String expiryDate, String cvv) {
+        CardValidationResult result = RESULTS.get();
+        if (result.isValid() && result.isFor(cardNumber, expiryDate, cvv)) {
+            // Same valid inputs as last time: only the expiry verdict can change as time passes
+            if (result.getExpiryMonthIndex() < currentMonthIndex()) {
+                result.setError(CardValidationError.EXPIRED);
+            }
+            return result;
+        }
+        return validate(cardNumber, expiryDate, cvv, result);
+    }
+
+    /**
+     * Validate all card details in one pass, writing the outcome into the given result object.
+     * Checks are run in order (card number, expiry date, CVV) and stop at the first error.
+     *
+     * @param cardNumber The card number.
+     * @param expiryDate The expiry date in "MM/yy" format.
+     * @param cvv        The CVV.
+     * @param result     The result object to fill in.
+     * @return The filled in result object.
+     */
+    public static CardValidationResult validate(String cardNumber, String expiryDate, String cvv, CardValidationResult result) {
+        result.reset(cardNumber, expiryDate, cvv);
+        CardValidationError error = checkCardNumber(cardNumber, result);
+        if (error == null) {
+            error = checkExpiryDate(expiryDate, result);
+        }
+        if (error == null) {
+            error = checkCVV(cvv);
+        }
+        result.setError(error);
+        return result;
+    }
 
     /**
      * Validate the card number.
-     * Checks if the card number is non-empty, exactly 16 digits, and numeric.
+     * Checks if the card number is non-empty, exactly 16 digits, and passes the Luhn checksum.
      *
      * @param cardNumber The card number as a string.
      * @return Error message if invalid, or null if valid.
      */
     public static String validateCardNumber(String cardNumber) {
-        if (cardNumber == null || cardNumber.isEmpty()) {
-            return "Card number cannot be empty.";
-        }
-        if (!cardNumber.matches("\\d{16}")) {  // Ensures card number has exactly 16 digits
-            return "Card number must be 16 digits.";
-        }
-        return null;  // No error, card number is valid
+        return messageOf(checkCardNumber(cardNumber, null));
     }
 
     /**
      * Validate the expiry date.
-     * Ensures the expiry date is in "MM/yy" format and is a future date.
+     * Ensures the expiry date is in "MM/yy" format and is not in the past.
      *
      * @param expiryDate The expiry date as a string in "MM/yy" format.
      * @return Error message if invalid, or null if valid.
      */
     public static String validateExpiryDate(String expiryDate) {
-        if (expiryDate == null || expiryDate.isEmpty()) {
-            return "Expiry date cannot be empty.";
-        }
-        try {
-            YearMonth expiry = YearMonth.parse(expiryDate, EXPIRY_DATE_FORMAT); // Parse expiry date
-            if (expiry.isBefore(YearMonth.now())) {  // Ensure expiry date is in the future
-                return "Expiry date must be in the future.";
-            }
-        } catch (DateTimeParseException e) {
-            return "Expiry date format must be MM/yy.";  // Handle incorrect format
-        }
-        return null;  // No error, expiry date is valid
+        return messageOf(checkExpiryDate(expiryDate, null));
     }
 
     /**
@@ -56,12 +103,146 @@ public class PaymentValidator {
      * @return Error message if invalid, or null if valid.
      */
     public static String validateCVV(String cvv) {
+        return messageOf(checkCVV(cvv));
+    }
+
+    /**
+     * Scans the card number once, checking its digits, computing the Luhn checksum and reading the IIN.
+     *
+     * @param cardNumber The card number.
+     * @param result     Result to record the detected brand in, or null.
+     * @return The validation error, or null if the card number is valid.
+     */
+    private static CardValidationError checkCardNumber(String cardNumber, CardValidationResult result) {
+        if (cardNumber == null || cardNumber.isEmpty()) {
+            return CardValidationError.EMPTY_CARD_NUMBER;
+        }
+        int length = cardNumber.length();
+        if (length != CARD_NUMBER_LENGTH) {
+            return CardValidationError.INVALID_CARD_NUMBER_FORMAT;
+        }
+
+        int sum = 0;
+        int iin = 0;
+        // Luhn: double every second digit counting from the right (the check digit is not doubled)
+        boolean doubleDigit = (length % 2) == 0;
+        for (int i = 0; i < length; i++) {
+            int digit = cardNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return CardValidationError.INVALID_CARD_NUMBER_FORMAT;
+            }
+            if (i < IIN_LENGTH) {
+                iin = iin * 10 + digit;
+            }
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+
+        if (sum % 10 != 0) {
+            return CardValidationError.FAILED_CHECKSUM;
+        }
+        if (result != null) {
+            result.setBrand(CardBrand.fromIin(iin));
+        }
+        return null;
+    }
+
+    /**
+     * Checks the expiry date by reading the "MM/yy" characters directly and comparing against the cached current month.
+     *
+     * @param expiryDate The expiry date.
+     * @param result     Result to record the expiry month in, or null.
+     * @return The validation error, or null if the expiry date is valid.
+     */
+    private static CardValidationError checkExpiryDate(String expiryDate, CardValidationResult result) {
+        if (expiryDate == null || expiryDate.isEmpty()) {
+            return CardValidationError.EMPTY_EXPIRY_DATE;
+        }
+        if (expiryDate.length() != 5 || expiryDate.charAt(2) != '/') {
+            return CardValidationError.INVALID_EXPIRY_DATE_FORMAT;
+        }
+        int month = twoDigits(expiryDate, 0);
+        int year = twoDigits(expiryDate, 3);
+        if (month < 1 || month > 12 || year < 0) {
+            return CardValidationError.INVALID_EXPIRY_DATE_FORMAT;
+        }
+
+        int expiryMonthIndex = (2000 + year) * 12 + (month - 1);  // "yy" is read as 20yy
+        if (result != null) {
+            result.setExpiryMonthIndex(expiryMonthIndex);
+        }
+        if (expiryMonthIndex < currentMonthIndex()) {
+            return CardValidationError.EXPIRED;
+        }
+        return null;
+    }
+
+    /**
+     * Checks that the CVV consists of exactly three digits.
+     *
+     * @param cvv The CVV.
+     * @return The validation error, or null if the CVV is valid.
+     */
+    private static CardValidationError checkCVV(String cvv) {
         if (cvv == null || cvv.isEmpty()) {
-            return "CVV cannot be empty.";
+            return CardValidationError.EMPTY_CVV;
         }
-        if (!cvv.matches("\\d{3}")) {  // Ensures CVV has exactly 3 digits
-            return "CVV must be 3 digits.";
+        if (cvv.length() != CVV_LENGTH) {
+            return CardValidationError.INVALID_CVV_FORMAT;
         }
-        return null;  // No error, CVV is valid
+        for (int i = 0; i < CVV_LENGTH; i++) {
+            char c = cvv.charAt(i);
+            if (c < '0' || c > '9') {
+                return CardValidationError.INVALID_CVV_FORMAT;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads two decimal digits starting at the given offset.
+     *
+     * @param value  The string to read from.
+     * @param offset The offset of the first digit.
+     * @return The two-digit number, or -1 if either character is not a digit.
+     */
+    private static int twoDigits(String value, int offset) {
+        int tens = value.charAt(offset) - '0';
+        int ones = value.charAt(offset + 1) - '0';
+        if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+            return -1;
+        }
+        return tens * 10 + ones;
+    }
+
+    /**
+     * Returns the current month index, recomputing it from the system clock at most once a minute.
+     *
+     * @return The current month as year * 12 + (month - 1).
+     */
+    private static int currentMonthIndex() {
+        long now = System.currentTimeMillis();
+        if (now >= currentMonthRefreshAt) {
+            YearMonth current = YearMonth.now();
+            currentMonthIndex = current.getYear() * 12 + (current.getMonthValue() - 1);
+            currentMonthRefreshAt = now + CURRENT_MONTH_REFRESH_MILLIS;
+        }
+        return currentMonthIndex;
+    }
+
+    /**
+     * Converts a validation error to its message.
+     *
+     * @param error The validation error, or null.
+     * @return The message, or null if there was no error.
+     */
+    private static String messageOf(CardValidationError error) {
+        return error == null ? null : error.getMessage();
     }
 }
@@ -0,0 +1,132 @@
+package com.thereadingroom.utils.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe, size-bounded cache with least-recently-used eviction.
+ * Entries are spread over independently locked segments, each an access-ordered LinkedHashMap,
+ * so concurrent lookups of different keys rarely contend on the same lock.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class ConcurrentLruCache<K, V> {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;  // Independently locked LRU segments
+    private final int segmentMask;           // Mask selecting a segment from a key hash
+
+    /**
+     * Creates a cache holding up to the given number of entries.
+     *
+     * @param capacity The maximum number of entries (spread evenly across segments).
+     */
+    public ConcurrentLruCache(int capacity) {
+        this(capacity, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates a cache with a specific number of segments.
+     *
+     * @param capacity      The maximum number of entries.
+     * @param segmentCount  The number of segments (rounded up to a power of two).
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLruCache(int capacity, int segmentCount) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive.");
+        }
+        int count = Integer.highestOneBit(Math.max(1, Math.min(segmentCount, capacity)) * 2 - 1);
+        int perSegment = Math.max(1, (capacity + count - 1) / count);
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+        this.segmentMask = count - 1;
+    }
+
+    /**
+     * Returns the cached value for a key, marking it as recently used.
+     *
+     * @param key The key.
+     * @return The value, or null if not cached.
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Caches a value, evicting the least recently used entry of its segment if full.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * Removes a key from the cache.
+     *
+     * @param key The key.
+     */
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return The entry count.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Selects the segment for a key using a spread hash.
+     *
+     * @param key The key.
+     * @return The owning segment.
+     */
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & segmentMask];
+    }
+
+    /**
+     * Access-ordered map that evicts its eldest entry when over capacity.
+     */
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
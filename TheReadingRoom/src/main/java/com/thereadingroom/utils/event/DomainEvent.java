@@ -0,0 +1,82 @@
+package com.thereadingroom.utils.event;
+
+/**
+ * A slot in the event ring buffer.
+ * Slots are allocated once when the buffer is created and overwritten by every event that lands in them,
+ * so handlers must copy the fields they need and must not keep a reference to the event.
+ */
+public class DomainEvent {
+
+    private DomainEventType type;   // Kind of event
+    private int entityId;           // Primary entity (book, order or cart ID)
+    private int relatedId;          // Secondary ID or count; see DomainEventType for its meaning
+    private long value;             // Numeric payload; see DomainEventType for its meaning
+    private long timestampMillis;   // When the event was published
+
+    /**
+     * Overwrites the slot with a new event (called by the publisher that claimed the slot).
+     *
+     * @param type            The kind of event.
+     * @param entityId        The primary entity ID.
+     * @param relatedId       The secondary ID or count.
+     * @param value           The numeric payload.
+     * @param timestampMillis The publish time.
+     */
+    void set(DomainEventType type, int entityId, int relatedId, long value, long timestampMillis) {
+        this.type = type;
+        this.entityId = entityId;
+        this.relatedId = relatedId;
+        this.value = value;
+        this.timestampMillis = timestampMillis;
+    }
+
+    /**
+     * Returns the kind of event.
+     *
+     * @return The event type.
+     */
+    public DomainEventType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the primary entity ID (book, order or cart ID).
+     *
+     * @return The entity ID.
+     */
+    public int getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Returns the secondary ID or count.
+     *
+     * @return The related ID.
+     */
+    public int getRelatedId() {
+        return relatedId;
+    }
+
+    /**
+     * Returns the numeric payload.
+     *
+     * @return The value.
+     */
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * Returns when the event was published.
+     *
+     * @return The publish time in epoch milliseconds.
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + entityId + " (related " + relatedId + ", value " + value + ")";
+    }
+}
@@ -0,0 +1,143 @@
+package com.thereadingroom.utils.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DomainEventBus is the in-process publish/subscribe channel for order, stock, catalog and cart changes.
+ * DAOs publish an event once their change has been committed; subscribers (views, caches) react on their
+ * own threads. Events flow through a preallocated ring buffer, so publishing allocates nothing, and a
+ * publisher only ever waits when a subscriber has fallen a full buffer behind.
+ */
+public class DomainEventBus {
+
+    // Default number of ring buffer slots
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    // Singleton instance
+    private static DomainEventBus instance;
+
+    private final EventRingBuffer ringBuffer;                             // Events waiting to be read by subscribers
+    private volatile EventSubscriber[] subscribers = new EventSubscriber[0];  // Current subscribers (copy-on-write)
+
+    // Private constructor for Singleton pattern
+    private DomainEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an event bus with the given ring buffer capacity.
+     *
+     * @param capacity The number of ring buffer slots (must be a power of two).
+     */
+    public DomainEventBus(int capacity) {
+        this.ringBuffer = new EventRingBuffer(capacity);
+    }
+
+    /**
+     * Singleton - Get the single instance of DomainEventBus.
+     *
+     * @return The instance of DomainEventBus.
+     */
+    public static synchronized DomainEventBus getInstance() {
+        if (instance == null) {
+            instance = new DomainEventBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Publishes an event to every subscriber. Call only after the change has been committed.
+     *
+     * @param type      The kind of event.
+     * @param entityId  The primary entity ID.
+     * @param relatedId The secondary ID or count (see DomainEventType).
+     * @param value     The numeric payload (see DomainEventType).
+     */
+    public void publish(DomainEventType type, int entityId, int relatedId, long value) {
+        ringBuffer.publish(type, entityId, relatedId, value);
+        for (EventSubscriber subscriber : subscribers) {
+            subscriber.wakeIfParked();
+        }
+    }
+
+    /**
+     * Publishes an event that has no secondary ID or value.
+     *
+     * @param type     The kind of event.
+     * @param entityId The primary entity ID.
+     */
+    public void publish(DomainEventType type, int entityId) {
+        publish(type, entityId, -1, 0);
+    }
+
+    /**
+     * Registers a handler for the given event types and starts its thread.
+     * The subscriber receives events published after this call.
+     *
+     * @param name    The subscriber name (also used as its thread name).
+     * @param handler The handler called for each matching event.
+     * @param types   The event types to receive.
+     * @return The running subscriber; close it to unsubscribe.
+     */
+    public synchronized EventSubscriber subscribe(String name, DomainEventHandler handler, DomainEventType... types) {
+        EventSubscriber subscriber = new EventSubscriber(name, DomainEventType.maskOf(types), handler, ringBuffer, this);
+        ringBuffer.addGatingSequence(subscriber.getSequence());
+        EventSubscriber[] updated = Arrays.copyOf(subscribers, subscribers.length + 1);
+        updated[updated.length - 1] = subscriber;
+        subscribers = updated;
+        subscriber.start();
+        return subscriber;
+    }
+
+    /**
+     * Removes a subscriber so that publishers stop waiting for it (called when the subscriber is closed).
+     *
+     * @param subscriber The subscriber to remove.
+     */
+    synchronized void unsubscribe(EventSubscriber subscriber) {
+        ringBuffer.removeGatingSequence(subscriber.getSequence());
+        subscribers = Arrays.stream(subscribers).filter(s -> s != subscriber).toArray(EventSubscriber[]::new);
+    }
+
+    /**
+     * Takes a snapshot of every subscriber's metrics.
+     *
+     * @return One statistics entry per subscriber.
+     */
+    public List<EventSubscriberStats> getStats() {
+        List<EventSubscriberStats> stats = new ArrayList<>();
+        for (EventSubscriber subscriber : subscribers) {
+            stats.add(subscriber.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the number of publishes that had to wait because a subscriber was a full buffer behind.
+     *
+     * @return The publisher stall count.
+     */
+    public long getPublisherStalls() {
+        return ringBuffer.getPublisherStalls();
+    }
+
+    /**
+     * Returns the total number of events published.
+     *
+     * @return The published event count.
+     */
+    public long getPublishedCount() {
+        return ringBuffer.getCursor() + 1;
+    }
+
+    /**
+     * Stops every subscriber thread.
+     */
+    public void shutdown() {
+        for (EventSubscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+}
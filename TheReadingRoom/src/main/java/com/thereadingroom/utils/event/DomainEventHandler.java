@@ -0,0 +1,22 @@
+package com.thereadingroom.utils.event;
+
+/**
+ * Callback invoked on a subscriber's own thread for each event it subscribed to.
+ * The event object is a reused ring buffer slot: copy what you need before returning.
+ */
+@FunctionalInterface
+public interface DomainEventHandler {
+
+    /**
+     * Handles one event.
+     *
+     * @param event The event (valid only for the duration of the call).
+     */
+    void onEvent(DomainEvent event);
+
+    /**
+     * Called after the last event of a batch has been handled, so work can be coalesced per batch.
+     */
+    default void onEndOfBatch() {
+    }
+}
@@ -0,0 +1,47 @@
+package com.thereadingroom.utils.event;
+
+/**
+ * The kinds of domain events published on the DomainEventBus.
+ * Events carry only primitive fields, whose meaning depends on the type:
+ * <ul>
+ *     <li>ORDER_PLACED: entityId = order ID, relatedId = user ID, value = order total in cents.</li>
+ *     <li>STOCK_CHANGED: entityId = book ID, relatedId = sold copies, value = physical copies (after the change).</li>
+ *     <li>BOOK_UPDATED: entityId = book ID of a book that was added or edited.</li>
+ *     <li>BOOK_DELETED: entityId = book ID of a book that was removed.</li>
+ *     <li>CART_CHANGED: entityId = cart ID, relatedId = book ID (or -1 for several books), value = new quantity (0 if removed).</li>
+ *     <li>USER_UPDATED: entityId = user ID of a user who registered or whose profile was edited.</li>
+ *     <li>USER_DELETED: entityId = user ID of a user who was removed.</li>
+ * </ul>
+ */
+public enum DomainEventType {
+    ORDER_PLACED,
+    STOCK_CHANGED,
+    BOOK_UPDATED,
+    BOOK_DELETED,
+    CART_CHANGED,
+    USER_UPDATED,
+    USER_DELETED;
+
+    /**
+     * Returns the bit used for this type in a subscriber's type mask.
+     *
+     * @return The type's mask bit.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Combines event types into a subscriber type mask.
+     *
+     * @param types The event types.
+     * @return The combined mask.
+     */
+    public static int maskOf(DomainEventType... types) {
+        int mask = 0;
+        for (DomainEventType type : types) {
+            mask |= type.mask();
+        }
+        return mask;
+    }
+}
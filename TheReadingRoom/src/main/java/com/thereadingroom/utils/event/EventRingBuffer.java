@@ -0,0 +1,189 @@
+package com.thereadingroom.utils.event;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A preallocated, lock-free multi-producer ring buffer of domain events.
+ * Publishers claim a sequence number with a single atomic increment, overwrite the slot it maps to
+ * and mark the slot as published; nothing is allocated on this path. Each subscriber tracks its own
+ * sequence, and a publisher that would overwrite a slot some subscriber has not read yet waits until
+ * that subscriber catches up (backpressure) instead of dropping events.
+ */
+public class EventRingBuffer {
+
+    // How long a publisher parks between checks while the buffer is full
+    private static final long FULL_BUFFER_PARK_NANOS = 1_000;
+
+    private final DomainEvent[] entries;             // Preallocated slots, reused for every lap around the buffer
+    private final int mask;                          // Capacity minus one (the capacity is a power of two)
+    private final int indexShift;                    // log2(capacity), used to compute the lap of a sequence
+    private final AtomicIntegerArray publishedLaps;  // Lap of the last event published into each slot
+    private final Sequence cursor = new Sequence(-1);        // Highest claimed sequence
+    private final Sequence gatingCache = new Sequence(-1);   // Cached minimum of the subscriber sequences
+    private volatile Sequence[] gatingSequences = new Sequence[0];  // Positions of the subscribers
+    private final AtomicLong publisherStalls = new AtomicLong();     // Publishes that had to wait for a subscriber
+
+    /**
+     * Creates a ring buffer with the given capacity.
+     *
+     * @param capacity The number of slots (must be a power of two).
+     */
+    public EventRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two.");
+        }
+        this.entries = new DomainEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new DomainEvent();
+        }
+        this.mask = capacity - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(capacity);
+        this.publishedLaps = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            publishedLaps.set(i, -1);
+        }
+    }
+
+    /**
+     * Publishes an event, waiting for the slowest subscriber if the buffer is full.
+     *
+     * @param type      The kind of event.
+     * @param entityId  The primary entity ID.
+     * @param relatedId The secondary ID or count.
+     * @param value     The numeric payload.
+     * @return The sequence number of the event.
+     */
+    public long publish(DomainEventType type, int entityId, int relatedId, long value) {
+        long sequence = claim();
+        int index = (int) sequence & mask;
+        entries[index].set(type, entityId, relatedId, value, System.currentTimeMillis());
+        publishedLaps.set(index, (int) (sequence >>> indexShift));
+        return sequence;
+    }
+
+    /**
+     * Claims the next sequence number, waiting while its slot still holds an unread event.
+     *
+     * @return The claimed sequence number.
+     */
+    private long claim() {
+        long sequence = cursor.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        if (wrapPoint > gatingCache.get()) {
+            boolean stalled = false;
+            long minimum;
+            while (wrapPoint > (minimum = minimumGatingSequence(sequence - 1))) {
+                if (!stalled) {
+                    publisherStalls.incrementAndGet();
+                    stalled = true;
+                }
+                LockSupport.parkNanos(FULL_BUFFER_PARK_NANOS);
+            }
+            gatingCache.set(minimum);
+        }
+        return sequence;
+    }
+
+    /**
+     * Returns the highest sequence that has been published contiguously from the given one.
+     *
+     * @param from The first sequence to check.
+     * @return The highest published sequence, or from - 1 if the first one is not published yet.
+     */
+    long highestPublished(long from) {
+        long claimed = cursor.get();
+        long sequence = from;
+        while (sequence <= claimed && isPublished(sequence)) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    /**
+     * Checks whether the event with the given sequence has been published into its slot.
+     *
+     * @param sequence The sequence number.
+     * @return true if the slot holds that event.
+     */
+    private boolean isPublished(long sequence) {
+        return publishedLaps.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * Returns the slot holding the event with the given sequence.
+     *
+     * @param sequence A published sequence number.
+     * @return The event slot.
+     */
+    DomainEvent get(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    /**
+     * Registers a subscriber position that publishers must not overtake.
+     * The subscriber starts after the latest claimed event.
+     *
+     * @param sequence The subscriber's sequence.
+     */
+    synchronized void addGatingSequence(Sequence sequence) {
+        sequence.set(cursor.get());
+        Sequence[] updated = Arrays.copyOf(gatingSequences, gatingSequences.length + 1);
+        updated[updated.length - 1] = sequence;
+        gatingSequences = updated;
+        // Events claimed while the array was being replaced did not see this subscriber, so skip them too
+        sequence.set(cursor.get());
+    }
+
+    /**
+     * Unregisters a subscriber position so publishers stop waiting for it.
+     *
+     * @param sequence The subscriber's sequence.
+     */
+    synchronized void removeGatingSequence(Sequence sequence) {
+        gatingSequences = Arrays.stream(gatingSequences).filter(s -> s != sequence).toArray(Sequence[]::new);
+    }
+
+    /**
+     * Returns the position of the slowest subscriber.
+     *
+     * @param defaultValue The value to return when there are no subscribers.
+     * @return The minimum subscriber sequence.
+     */
+    private long minimumGatingSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (Sequence sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Returns the highest claimed sequence number.
+     *
+     * @return The cursor, or -1 if nothing has been published.
+     */
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * Returns the number of publishes that had to wait for a slow subscriber.
+     *
+     * @return The publisher stall count.
+     */
+    public long getPublisherStalls() {
+        return publisherStalls.get();
+    }
+}
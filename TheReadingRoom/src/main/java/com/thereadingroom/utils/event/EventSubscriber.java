@@ -0,0 +1,204 @@
+package com.thereadingroom.utils.event;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A subscriber to the DomainEventBus, running its handler on its own thread.
+ * The thread reads every event published since its last pass in one batch, hands the matching ones to the
+ * handler and then advances its sequence, which frees the slots for publishers. When idle it spins briefly,
+ * then yields, then parks until a publisher wakes it.
+ */
+public class EventSubscriber implements AutoCloseable {
+
+    // Idle strategy: spin, then yield, then park (publishers unpark a parked subscriber)
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long MAX_PARK_NANOS = 50_000_000;
+
+    private final String name;                  // Subscriber name (also the thread name)
+    private final int typeMask;                 // Event types delivered to the handler
+    private final DomainEventHandler handler;   // Callback for matching events
+    private final EventRingBuffer ringBuffer;   // Buffer the events are read from
+    private final DomainEventBus bus;           // Bus to unregister from on close
+    private final Sequence sequence = new Sequence(-1);  // Last event read
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile boolean parked;            // Set while the thread is (about to be) parked
+
+    // Metrics, written only by the subscriber thread
+    private volatile long processed;
+    private volatile long delivered;
+    private volatile long batches;
+    private volatile long largestBatch;
+    private volatile long failures;
+
+    /**
+     * Creates a subscriber; the bus registers it with the ring buffer and then starts it.
+     *
+     * @param name       The subscriber name.
+     * @param typeMask   The mask of event types to deliver.
+     * @param handler    The event handler.
+     * @param ringBuffer The ring buffer to read from.
+     * @param bus        The bus the subscriber belongs to.
+     */
+    EventSubscriber(String name, int typeMask, DomainEventHandler handler, EventRingBuffer ringBuffer, DomainEventBus bus) {
+        this.name = name;
+        this.typeMask = typeMask;
+        this.handler = handler;
+        this.ringBuffer = ringBuffer;
+        this.bus = bus;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Returns the subscriber's position in the ring buffer.
+     *
+     * @return The sequence of the last event read.
+     */
+    Sequence getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Starts the subscriber thread.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Wakes the subscriber thread if it is parked waiting for events.
+     */
+    void wakeIfParked() {
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Reads and handles events until the subscriber is closed.
+     */
+    private void run() {
+        long next = sequence.get() + 1;
+        int idleCount = 0;
+        while (running) {
+            long available = ringBuffer.highestPublished(next);
+            if (available < next) {
+                idleCount = waitForEvents(next, idleCount);
+                continue;
+            }
+            idleCount = 0;
+
+            boolean deliveredAny = false;
+            for (long current = next; current <= available; current++) {
+                DomainEvent event = ringBuffer.get(current);
+                if ((event.getType().mask() & typeMask) != 0) {
+                    deliver(event);
+                    deliveredAny = true;
+                }
+            }
+            if (deliveredAny) {
+                endBatch();
+            }
+
+            long batchSize = available - next + 1;
+            processed += batchSize;
+            batches++;
+            if (batchSize > largestBatch) {
+                largestBatch = batchSize;
+            }
+            sequence.set(available);  // Frees the slots for publishers
+            next = available + 1;
+        }
+    }
+
+    /**
+     * Passes one event to the handler, isolating the subscriber from handler failures.
+     *
+     * @param event The event.
+     */
+    private void deliver(DomainEvent event) {
+        try {
+            handler.onEvent(event);
+            delivered++;
+        } catch (RuntimeException e) {
+            failures++;
+            System.out.println("Error handling " + event + " in subscriber " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tells the handler that a batch has ended, isolating the subscriber from handler failures.
+     */
+    private void endBatch() {
+        try {
+            handler.onEndOfBatch();
+        } catch (RuntimeException e) {
+            failures++;
+            System.out.println("Error ending event batch in subscriber " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits a little for the next event using the spin, yield, park idle strategy.
+     *
+     * @param next      The sequence being waited for.
+     * @param idleCount How many times in a row the subscriber found nothing to read.
+     * @return The updated idle count.
+     */
+    private int waitForEvents(long next, int idleCount) {
+        if (idleCount < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            parked = true;
+            // Re-check after announcing the park, so a publisher that missed the flag cannot strand an event
+            if (running && ringBuffer.highestPublished(next) < next) {
+                LockSupport.parkNanos(this, MAX_PARK_NANOS);
+            }
+            parked = false;
+            return idleCount;
+        }
+        return idleCount + 1;
+    }
+
+    /**
+     * Returns the subscriber name.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Takes a snapshot of this subscriber's metrics.
+     *
+     * @return The subscriber statistics.
+     */
+    public EventSubscriberStats getStats() {
+        long lag = Math.max(0, ringBuffer.getCursor() - sequence.get());
+        return new EventSubscriberStats(name, processed, delivered, batches, largestBatch, failures, lag);
+    }
+
+    /**
+     * Stops the subscriber thread and unregisters it, so publishers no longer wait for it.
+     * Events still in the buffer are not delivered.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        bus.unsubscribe(this);
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
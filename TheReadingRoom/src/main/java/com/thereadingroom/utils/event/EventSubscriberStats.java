@@ -0,0 +1,115 @@
+package com.thereadingroom.utils.event;
+
+/**
+ * Snapshot of the throughput and backpressure metrics for one event bus subscriber.
+ */
+public class EventSubscriberStats {
+
+    private final String name;          // Name of the subscriber (also its thread name)
+    private final long processed;       // Events read from the buffer, including those filtered out
+    private final long delivered;       // Events passed to the handler
+    private final long batches;         // Batches read from the buffer
+    private final long largestBatch;    // Largest number of events read in one batch
+    private final long failures;        // Events whose handler threw an exception
+    private final long lag;             // Events published but not read yet when the snapshot was taken
+
+    /**
+     * Creates a snapshot of a subscriber's metrics.
+     *
+     * @param name         The subscriber name.
+     * @param processed    Events read from the buffer.
+     * @param delivered    Events passed to the handler.
+     * @param batches      Batches read.
+     * @param largestBatch Largest batch size.
+     * @param failures     Handler failures.
+     * @param lag          Current number of unread events.
+     */
+    public EventSubscriberStats(String name, long processed, long delivered, long batches,
+                                long largestBatch, long failures, long lag) {
+        this.name = name;
+        this.processed = processed;
+        this.delivered = delivered;
+        this.batches = batches;
+        this.largestBatch = largestBatch;
+        this.failures = failures;
+        this.lag = lag;
+    }
+
+    /**
+     * Returns the subscriber name.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of events read from the buffer, including those filtered out by type.
+     *
+     * @return The processed event count.
+     */
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * Returns the number of events passed to the handler.
+     *
+     * @return The delivered event count.
+     */
+    public long getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * Returns the number of batches read from the buffer.
+     *
+     * @return The batch count.
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Returns the largest number of events read in one batch.
+     *
+     * @return The largest batch size.
+     */
+    public long getLargestBatch() {
+        return largestBatch;
+    }
+
+    /**
+     * Returns the number of events whose handler threw an exception.
+     *
+     * @return The failure count.
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns how far the subscriber was behind the publishers when the snapshot was taken.
+     *
+     * @return The number of unread events.
+     */
+    public long getLag() {
+        return lag;
+    }
+
+    /**
+     * Returns the average number of events read per batch.
+     *
+     * @return The average batch size, or 0 if nothing was read.
+     */
+    public double getAverageBatchSize() {
+        return batches == 0 ? 0 : (double) processed / batches;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: processed=%d, delivered=%d, batches=%d, avgBatch=%.1f, maxBatch=%d, failures=%d, lag=%d",
+                name, processed, delivered, batches, getAverageBatchSize(), largestBatch, failures, lag);
+    }
+}
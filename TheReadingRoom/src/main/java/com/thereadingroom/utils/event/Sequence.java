@@ -0,0 +1,50 @@
+package com.thereadingroom.utils.event;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A position in the ring buffer, padded so that it does not share a cache line with other sequences.
+ */
+final class Sequence {
+
+    // The value lives 16 longs (128 bytes) into the array, with 15 longs of padding after it
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells = new AtomicLongArray(PADDING * 2);
+
+    /**
+     * Creates a sequence with the given starting value.
+     *
+     * @param initialValue The starting value.
+     */
+    Sequence(long initialValue) {
+        cells.set(PADDING, initialValue);
+    }
+
+    /**
+     * Returns the current value.
+     *
+     * @return The value.
+     */
+    long get() {
+        return cells.get(PADDING);
+    }
+
+    /**
+     * Sets a new value, making it visible to other threads.
+     *
+     * @param value The new value.
+     */
+    void set(long value) {
+        cells.set(PADDING, value);
+    }
+
+    /**
+     * Atomically increments the value.
+     *
+     * @return The incremented value.
+     */
+    long incrementAndGet() {
+        return cells.incrementAndGet(PADDING);
+    }
+}
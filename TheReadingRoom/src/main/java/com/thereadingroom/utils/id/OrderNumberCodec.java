@@ -0,0 +1,79 @@
+package com.thereadingroom.utils.id;
+
+import java.util.Arrays;
+
+/**
+ * Converts 64-bit identifiers to and from human-friendly order numbers.
+ * Uses Crockford's base32 alphabet (no I, L, O or U), fixed to 13 characters so that
+ * order numbers sort in the same order as the identifiers they encode, e.g. "ORD-01HQ3K5ZB0W00".
+ */
+public final class OrderNumberCodec {
+
+    public static final String PREFIX = "ORD-";
+
+    // Crockford base32 alphabet, avoiding characters that are easily confused when read aloud
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    // 13 base32 digits cover all 64 bits (13 * 5 = 65)
+    private static final int ENCODED_LENGTH = 13;
+
+    // Reverse lookup table from ASCII character to digit value (-1 when invalid)
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        // Crockford aliases for commonly misread characters
+        DECODE['O'] = DECODE['o'] = 0;
+        DECODE['I'] = DECODE['i'] = DECODE['L'] = DECODE['l'] = 1;
+    }
+
+    private OrderNumberCodec() {
+    }
+
+    /**
+     * Encodes an identifier as an order number.
+     *
+     * @param id The identifier to encode.
+     * @return The order number, including the prefix.
+     */
+    public static String encode(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        long remaining = id;
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (remaining & 31)];
+            remaining >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Decodes an order number back to its identifier.
+     *
+     * @param orderNumber The order number, with or without the prefix (case-insensitive).
+     * @return The identifier.
+     * @throws IllegalArgumentException if the order number is malformed.
+     */
+    public static long decode(String orderNumber) {
+        String body = orderNumber.regionMatches(true, 0, PREFIX, 0, PREFIX.length())
+                ? orderNumber.substring(PREFIX.length())
+                : orderNumber;
+        if (body.length() != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Invalid order number: " + orderNumber);
+        }
+        long id = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            char c = body.charAt(i);
+            int digit = c < DECODE.length ? DECODE[c] : -1;
+            if (digit < 0 || (i == 0 && digit > 15)) {  // The leading digit only carries 4 of the 64 bits
+                throw new IllegalArgumentException("Invalid order number: " + orderNumber);
+            }
+            id = (id << 5) | digit;
+        }
+        return id;
+    }
+}
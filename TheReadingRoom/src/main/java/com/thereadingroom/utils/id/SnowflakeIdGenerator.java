@@ -0,0 +1,202 @@
+package com.thereadingroom.utils.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free generator of unique 64-bit identifiers using a Snowflake-style layout:
+ *
+ * <pre>
+ *  0 | 41 bits: milliseconds since EPOCH | 10 bits: node id | 12 bits: per-millisecond sequence
+ * </pre>
+ *
+ * The last issued (timestamp, sequence) pair is packed into a single AtomicLong and advanced with a
+ * compare-and-set loop, so concurrent callers never block each other. Identifiers are strictly
+ * increasing per node. If the wall clock moves backwards, or more than 4096 ids are requested in one
+ * millisecond, the generator keeps counting on its own logical clock instead of reusing a timestamp.
+ */
+public class SnowflakeIdGenerator {
+
+    // Custom epoch (2024-01-01T00:00:00Z) so 41 timestamp bits last until the year 2093
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    // System property that overrides the derived node id
+    public static final String NODE_ID_PROPERTY = "thereadingroom.nodeId";
+
+    public static final int NODE_ID_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+    public static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int NODE_ID_SHIFT = SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + NODE_ID_BITS;
+
+    // Shared generator for the application, created on first use
+    private static volatile SnowflakeIdGenerator instance;
+
+    private final long nodeId;                  // Node id placed in bits 12..21 of every identifier
+    private final long nodeBits;                // Node id pre-shifted into position
+    private final LongSupplier clock;           // Source of wall-clock milliseconds
+    private final AtomicLong state;             // Last issued (timestamp << SEQUENCE_BITS | sequence)
+    private final LongAdder clockRegressions = new LongAdder();  // Times the wall clock was seen behind the logical clock
+
+    /**
+     * Creates a generator for the given node using the system clock.
+     *
+     * @param nodeId The node id (0 to MAX_NODE_ID).
+     */
+    public SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a generator for the given node using a custom clock (used for testing clock regressions).
+     *
+     * @param nodeId The node id (0 to MAX_NODE_ID).
+     * @param clock  Supplier of wall-clock time in epoch milliseconds.
+     */
+    public SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = nodeId << NODE_ID_SHIFT;
+        this.clock = clock;
+        this.state = new AtomicLong(currentTimestamp() << SEQUENCE_BITS);
+    }
+
+    /**
+     * Returns the shared generator, using the node id from the system property or the process id.
+     *
+     * @return The application-wide generator.
+     */
+    public static SnowflakeIdGenerator getInstance() {
+        SnowflakeIdGenerator generator = instance;
+        if (generator == null) {
+            synchronized (SnowflakeIdGenerator.class) {
+                generator = instance;
+                if (generator == null) {
+                    generator = new SnowflakeIdGenerator(resolveNodeId());
+                    instance = generator;
+                }
+            }
+        }
+        return generator;
+    }
+
+    /**
+     * Generates the next unique identifier.
+     *
+     * @return A positive, strictly increasing 64-bit identifier.
+     */
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long now = currentTimestamp();
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;  // New millisecond: restart the sequence at 0
+            } else {
+                // Same millisecond or the clock went backwards: keep counting on the logical clock.
+                // When the sequence overflows, the increment carries into the timestamp (borrows the next ms).
+                next = current + 1;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                if (now < lastTimestamp) {
+                    clockRegressions.increment();
+                }
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & MAX_SEQUENCE;
+                return (timestamp << TIMESTAMP_SHIFT) | nodeBits | sequence;
+            }
+        }
+    }
+
+    /**
+     * Generates the next identifier in its human-friendly order number form.
+     *
+     * @return An order number such as "ORD-01HQ3K5ZB0W00".
+     */
+    public String nextOrderNumber() {
+        return OrderNumberCodec.encode(nextId());
+    }
+
+    /**
+     * Returns the node id embedded in this generator's identifiers.
+     *
+     * @return The node id.
+     */
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Returns how many ids were issued while the wall clock was behind the logical clock.
+     *
+     * @return The number of observed clock regressions.
+     */
+    public long getClockRegressions() {
+        return clockRegressions.sum();
+    }
+
+    /**
+     * Extracts the creation time (epoch milliseconds) from an identifier.
+     *
+     * @param id The identifier.
+     * @return The timestamp in epoch milliseconds.
+     */
+    public static long extractTimestamp(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    /**
+     * Extracts the node id from an identifier.
+     *
+     * @param id The identifier.
+     * @return The node id.
+     */
+    public static long extractNodeId(long id) {
+        return (id >>> NODE_ID_SHIFT) & MAX_NODE_ID;
+    }
+
+    /**
+     * Extracts the per-millisecond sequence from an identifier.
+     *
+     * @param id The identifier.
+     * @return The sequence number.
+     */
+    public static long extractSequence(long id) {
+        return id & MAX_SEQUENCE;
+    }
+
+    /**
+     * Reads the clock relative to the custom epoch.
+     *
+     * @return Milliseconds since EPOCH.
+     */
+    private long currentTimestamp() {
+        return clock.getAsLong() - EPOCH;
+    }
+
+    /**
+     * Resolves the node id from the system property, falling back to the low bits of the process id.
+     *
+     * @return The node id to use for the shared generator.
+     */
+    private static long resolveNodeId() {
+        String configured = System.getProperty(NODE_ID_PROPERTY);
+        if (configured != null) {
+            try {
+                return Long.parseLong(configured.trim());
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid node id '" + configured + "', falling back to process id.");
+            }
+        }
+        return ProcessHandle.current().pid() & MAX_NODE_ID;
+    }
+}
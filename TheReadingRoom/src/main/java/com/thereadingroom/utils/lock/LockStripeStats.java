@@ -0,0 +1,116 @@
+package com.thereadingroom.utils.lock;
+
+/**
+ * Snapshot of the contention metrics for one stripe of a StripedLockManager.
+ */
+public class LockStripeStats {
+
+    private final int stripe;              // Index of the stripe
+    private final long acquisitions;       // Successful acquisitions
+    private final long contended;          // Acquisitions that had to wait for another holder
+    private final long timeouts;           // Attempts that gave up after the timeout
+    private final long totalWaitNanos;     // Total time spent waiting for this stripe
+    private final long maxWaitNanos;       // Longest single wait for this stripe
+    private final int queueLength;         // Threads waiting for this stripe when the snapshot was taken
+
+    /**
+     * Creates a snapshot of a stripe's metrics.
+     *
+     * @param stripe         The stripe index.
+     * @param acquisitions   Successful acquisitions.
+     * @param contended      Acquisitions that had to wait.
+     * @param timeouts       Attempts that timed out.
+     * @param totalWaitNanos Total wait time in nanoseconds.
+     * @param maxWaitNanos   Longest wait in nanoseconds.
+     * @param queueLength    Current number of waiting threads.
+     */
+    public LockStripeStats(int stripe, long acquisitions, long contended, long timeouts,
+                           long totalWaitNanos, long maxWaitNanos, int queueLength) {
+        this.stripe = stripe;
+        this.acquisitions = acquisitions;
+        this.contended = contended;
+        this.timeouts = timeouts;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.queueLength = queueLength;
+    }
+
+    /**
+     * Returns the stripe index.
+     *
+     * @return The stripe index.
+     */
+    public int getStripe() {
+        return stripe;
+    }
+
+    /**
+     * Returns the number of successful acquisitions.
+     *
+     * @return The acquisition count.
+     */
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    /**
+     * Returns the number of acquisitions that had to wait for another holder.
+     *
+     * @return The contended acquisition count.
+     */
+    public long getContended() {
+        return contended;
+    }
+
+    /**
+     * Returns the number of attempts that gave up after the timeout.
+     *
+     * @return The timeout count.
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Returns the total time spent waiting for this stripe.
+     *
+     * @return The total wait time in nanoseconds.
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    /**
+     * Returns the longest single wait for this stripe.
+     *
+     * @return The maximum wait time in nanoseconds.
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    /**
+     * Returns the number of threads that were waiting for this stripe when the snapshot was taken.
+     *
+     * @return The queue length.
+     */
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    /**
+     * Returns the average wait per acquisition or timeout.
+     *
+     * @return The average wait time in nanoseconds, or 0 if the stripe was never used.
+     */
+    public long getAverageWaitNanos() {
+        long attempts = acquisitions + timeouts;
+        return attempts == 0 ? 0 : totalWaitNanos / attempts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("stripe %d: acquisitions=%d, contended=%d, timeouts=%d, avgWait=%.3fms, maxWait=%.3fms, queued=%d",
+                stripe, acquisitions, contended, timeouts, getAverageWaitNanos() / 1_000_000.0, maxWaitNanos / 1_000_000.0, queueLength);
+    }
+}
@@ -0,0 +1,219 @@
+package com.thereadingroom.utils.lock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process lock manager with a fixed number of lock stripes keyed by an integer id (e.g., a book id).
+ * Ids that map to different stripes never block each other. Multi-id operations lock their stripes in
+ * ascending stripe order, so two callers locking overlapping sets can never deadlock, and every attempt
+ * is bounded by a timeout. Each stripe records how often it was contended and how long callers waited.
+ */
+public class StripedLockManager {
+
+    private final Stripe[] stripes;  // Lock stripes, indexed by the mixed id
+    private final int mask;          // Number of stripes minus one (the stripe count is a power of two)
+
+    /**
+     * Creates a lock manager with at least the given number of stripes.
+     *
+     * @param stripeCount The minimum number of stripes (rounded up to a power of two).
+     */
+    public StripedLockManager(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive.");
+        }
+        int size = Integer.highestOneBit(stripeCount * 2 - 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Locks the stripes for all the given ids, waiting at most the given time overall.
+     * If the timeout expires, every stripe acquired so far is released.
+     *
+     * @param ids     The ids to lock (duplicates and ids sharing a stripe are locked once).
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return A handle that releases the stripes when closed, or null if the timeout expired.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public LockHandle tryLockAll(Collection<Integer> ids, long timeout, TimeUnit unit) throws InterruptedException {
+        // Sorted, de-duplicated stripe indexes give every caller the same global lock order
+        boolean[] needed = new boolean[stripes.length];
+        for (int id : ids) {
+            needed[stripeFor(id)] = true;
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<Stripe> acquired = new ArrayList<>();
+        try {
+            for (int i = 0; i < needed.length; i++) {
+                if (!needed[i]) {
+                    continue;
+                }
+                if (!stripes[i].tryLock(deadline - System.nanoTime())) {
+                    releaseAll(acquired);
+                    return null;
+                }
+                acquired.add(stripes[i]);
+            }
+        } catch (InterruptedException e) {
+            releaseAll(acquired);
+            throw e;
+        }
+        return new LockHandle(acquired);
+    }
+
+    /**
+     * Locks the stripe for a single id, waiting at most the given time.
+     *
+     * @param id      The id to lock.
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return A handle that releases the stripe when closed, or null if the timeout expired.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public LockHandle tryLock(int id, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryLockAll(List.of(id), timeout, unit);
+    }
+
+    /**
+     * Returns a snapshot of every stripe's contention metrics.
+     *
+     * @return One entry per stripe, in stripe order.
+     */
+    public List<LockStripeStats> getStats() {
+        List<LockStripeStats> stats = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            stats.add(stripes[i].snapshot(i));
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the total number of lock attempts that timed out across all stripes.
+     *
+     * @return The timeout count.
+     */
+    public long getTotalTimeouts() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.timeouts.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return The stripe count.
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Maps an id to its stripe, mixing the bits so that sequential ids spread across stripes.
+     *
+     * @param id The id.
+     * @return The stripe index.
+     */
+    int stripeFor(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Releases stripes in reverse acquisition order.
+     *
+     * @param acquired The stripes to release.
+     */
+    private static void releaseAll(List<Stripe> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).lock.unlock();
+        }
+    }
+
+    /**
+     * Handle for a set of locked stripes; closing it releases them.
+     * Must be closed by the thread that acquired it.
+     */
+    public static final class LockHandle implements AutoCloseable {
+        private final List<Stripe> stripes;
+        private boolean released;
+
+        private LockHandle(List<Stripe> stripes) {
+            this.stripes = stripes;
+        }
+
+        /**
+         * Releases the stripes held by this handle. Calling it more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                releaseAll(stripes);
+            }
+        }
+    }
+
+    /**
+     * A single lock stripe with its contention counters.
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        /**
+         * Acquires the stripe, recording whether and how long the caller had to wait.
+         *
+         * @param timeoutNanos The maximum time to wait.
+         * @return true if the stripe was acquired, false if the timeout expired.
+         * @throws InterruptedException if the thread is interrupted while waiting.
+         */
+        boolean tryLock(long timeoutNanos) throws InterruptedException {
+            if (lock.tryLock()) {
+                acquisitions.increment();
+                return true;
+            }
+
+            long start = System.nanoTime();
+            boolean locked = timeoutNanos > 0 && lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            if (locked) {
+                acquisitions.increment();
+                contended.increment();
+            } else {
+                timeouts.increment();
+            }
+            return locked;
+        }
+
+        /**
+         * Takes a snapshot of this stripe's counters.
+         *
+         * @param index The stripe index.
+         * @return The stripe's metrics.
+         */
+        LockStripeStats snapshot(int index) {
+            return new LockStripeStats(index, acquisitions.sum(), contended.sum(), timeouts.sum(),
+                    totalWaitNanos.sum(), maxWaitNanos.get(), lock.getQueueLength());
+        }
+    }
+}
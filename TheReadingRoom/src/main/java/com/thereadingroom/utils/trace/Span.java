@@ -0,0 +1,145 @@
+package com.thereadingroom.utils.trace;
+
+/**
+ * One timed operation of a trace: a controller handler, a service call, a connection wait or a statement.
+ * Spans are started by Tracer and form a tree through their parent; the root span's id is the trace id.
+ *
+ * A span is ended by close, on any thread, which emits it as a SpanEvent and to the ring buffer if enabled.
+ * While a span is current on a thread (see Tracer.begin), spans started there become its children; close or
+ * detach makes its parent current again. When tracing is off, Tracer hands out NOOP, whose methods do nothing.
+ */
+public final class Span implements AutoCloseable {
+
+    // Returned when nothing is recording; ending it does nothing
+    static final Span NOOP = new Span(0, 0, null, null, null, null);
+
+    private final long traceId;        // Id of the trace, the root span's id
+    private final long spanId;         // Id of this span
+    private final Span parent;         // Enclosing span, or null for a root span
+    private final String layer;        // Layer of the operation ("controller", "service", "pool", "dao", "ui")
+    private final String name;         // Operation, usually "Class.method"
+    private final SpanEvent event;     // Flight recorder event, or null if the event is not enabled
+    private final long startNanos;     // When the span started
+    private final String startThread;  // Thread that started the span
+    private volatile String detail;    // Extra information, such as the SQL of a statement
+    private volatile String error;     // Failure that ended the operation, or null
+    private boolean ended;             // Whether close was called (guarded by this)
+
+    /**
+     * Creates a span; only Tracer starts spans.
+     */
+    Span(long traceId, long spanId, Span parent, String layer, String name, SpanEvent event) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parent = parent;
+        this.layer = layer;
+        this.name = name;
+        this.event = event;
+        this.startNanos = System.nanoTime();
+        this.startThread = traceId == 0 ? null : Thread.currentThread().getName();
+        if (event != null) {
+            event.begin();
+        }
+    }
+
+    /**
+     * Returns the id of the trace this span belongs to.
+     *
+     * @return The trace id, or 0 for NOOP.
+     */
+    public long getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * Returns the id of this span.
+     *
+     * @return The span id, or 0 for NOOP.
+     */
+    public long getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * Returns the enclosing span.
+     *
+     * @return The parent, or null for a root span.
+     */
+    Span getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns whether this span records anything.
+     *
+     * @return false for NOOP.
+     */
+    public boolean isRecording() {
+        return traceId != 0;
+    }
+
+    /**
+     * Attaches extra information to the span, such as the SQL of a statement.
+     *
+     * @param detail The information.
+     */
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    /**
+     * Marks the operation as failed.
+     *
+     * @param failure The failure that ended it.
+     */
+    public void fail(Throwable failure) {
+        if (isRecording()) {
+            this.error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        }
+    }
+
+    /**
+     * Makes the parent current again on this thread without ending the span, for an operation that goes on
+     * in the background. The span is ended later by close, on the thread where the operation completes.
+     */
+    public void detach() {
+        Tracer.restore(this);
+    }
+
+    /**
+     * Ends the span and makes its parent current again if the span is current on this thread.
+     * Ending a span twice records it once.
+     */
+    @Override
+    public void close() {
+        if (!isRecording()) {
+            return;
+        }
+        Tracer.restore(this);
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+        }
+        long durationNanos = System.nanoTime() - startNanos;
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.traceId = traceId;
+                event.spanId = spanId;
+                event.parentId = parent != null ? parent.spanId : 0;
+                event.layer = layer;
+                event.name = name;
+                event.detail = detail;
+                event.error = error;
+                event.commit();
+            }
+        }
+        SpanRingBuffer ringBuffer = Tracer.getRingBuffer();
+        if (ringBuffer != null) {
+            ringBuffer.add(new SpanRecord(traceId, spanId, parent != null ? parent.spanId : 0, layer, name, detail,
+                    startThread, startNanos, durationNanos, error));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.thereadingroom.utils.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a span recorded by Tracer. The event spans the traced operation and is committed
+ * on the thread that ended it; events with the same trace id make up one user action.
+ */
+@Name("com.thereadingroom.Span")
+@Label("Trace Span")
+@Category({"The Reading Room", "Tracing"})
+@Description("One operation of a traced user action: a controller handler, service call, connection wait or statement")
+@StackTrace(false)
+public class SpanEvent extends jdk.jfr.Event {
+
+    @Label("Trace Id")
+    long traceId;     // Id of the trace, the root span's id
+
+    @Label("Span Id")
+    long spanId;      // Id of the span
+
+    @Label("Parent Id")
+    long parentId;    // Id of the enclosing span, 0 for the root
+
+    @Label("Layer")
+    String layer;     // "controller", "service", "pool", "dao" or "ui"
+
+    @Label("Operation")
+    String name;      // Usually "Class.method"
+
+    @Label("Detail")
+    String detail;    // Extra information, such as the SQL of a statement
+
+    @Label("Error")
+    String error;     // Failure that ended the operation, or null
+}
@@ -0,0 +1,142 @@
+package com.thereadingroom.utils.trace;
+
+/**
+ * Snapshot of a finished span, as kept by SpanRingBuffer.
+ */
+public class SpanRecord {
+
+    private final long traceId;        // Id of the trace
+    private final long spanId;         // Id of the span
+    private final long parentId;       // Id of the enclosing span, 0 for the root
+    private final String layer;        // Layer of the operation
+    private final String name;         // Operation, usually "Class.method"
+    private final String detail;       // Extra information, or null
+    private final String thread;       // Thread that started the span
+    private final long startNanos;     // When the span started (System.nanoTime)
+    private final long durationNanos;  // How long the operation took
+    private final String error;        // Failure that ended the operation, or null
+
+    /**
+     * Creates a snapshot of a finished span.
+     *
+     * @param traceId       The trace id.
+     * @param spanId        The span id.
+     * @param parentId      The parent span id, 0 for the root.
+     * @param layer         The layer.
+     * @param name          The operation.
+     * @param detail        Extra information, or null.
+     * @param thread        The thread that started the span.
+     * @param startNanos    The start time (System.nanoTime).
+     * @param durationNanos The duration in nanoseconds.
+     * @param error         The failure, or null.
+     */
+    public SpanRecord(long traceId, long spanId, long parentId, String layer, String name, String detail,
+                      String thread, long startNanos, long durationNanos, String error) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.layer = layer;
+        this.name = name;
+        this.detail = detail;
+        this.thread = thread;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.error = error;
+    }
+
+    /**
+     * Returns the id of the trace.
+     *
+     * @return The trace id.
+     */
+    public long getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * Returns the id of the span.
+     *
+     * @return The span id.
+     */
+    public long getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * Returns the id of the enclosing span.
+     *
+     * @return The parent span id, or 0 for the root of the trace.
+     */
+    public long getParentId() {
+        return parentId;
+    }
+
+    /**
+     * Returns the layer of the operation.
+     *
+     * @return The layer, such as "controller" or "dao".
+     */
+    public String getLayer() {
+        return layer;
+    }
+
+    /**
+     * Returns the operation.
+     *
+     * @return The operation, usually "Class.method".
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the extra information attached to the span.
+     *
+     * @return The detail, such as the SQL of a statement, or null.
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Returns the thread that started the span.
+     *
+     * @return The thread name.
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * Returns when the span started.
+     *
+     * @return The start time, as System.nanoTime.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Returns how long the operation took.
+     *
+     * @return The duration in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Returns the failure that ended the operation.
+     *
+     * @return The failure, or null if it succeeded.
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s %.2f ms [%s]%s%s", layer, name, durationNanos / 1_000_000.0, thread,
+                detail != null ? " " + detail : "", error != null ? " failed: " + error : "");
+    }
+}
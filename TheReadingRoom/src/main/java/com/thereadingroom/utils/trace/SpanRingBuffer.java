@@ -0,0 +1,123 @@
+package com.thereadingroom.utils.trace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory exporter keeping the latest finished spans, overwriting the oldest once full.
+ * It lets a trace be inspected without a flight recording, for example from a test or a debugger.
+ */
+public class SpanRingBuffer {
+
+    private final SpanRecord[] spans;  // Slots, reused round-robin
+    private long written;              // Spans added so far (guarded by this)
+
+    /**
+     * Creates a ring buffer keeping the given number of spans.
+     *
+     * @param capacity The number of spans to keep (must be positive).
+     */
+    public SpanRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Span ring buffer capacity must be positive.");
+        }
+        this.spans = new SpanRecord[capacity];
+    }
+
+    /**
+     * Adds a finished span, overwriting the oldest if the buffer is full.
+     *
+     * @param span The span.
+     */
+    public synchronized void add(SpanRecord span) {
+        spans[(int) (written % spans.length)] = span;
+        written++;
+    }
+
+    /**
+     * Returns the spans kept, in the order they finished.
+     *
+     * @return The spans, oldest first.
+     */
+    public synchronized List<SpanRecord> getSpans() {
+        int size = (int) Math.min(written, spans.length);
+        List<SpanRecord> result = new ArrayList<>(size);
+        for (long i = written - size; i < written; i++) {
+            result.add(spans[(int) (i % spans.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the spans kept for one trace.
+     *
+     * @param traceId The trace id.
+     * @return The trace's spans, in the order they started.
+     */
+    public List<SpanRecord> getTrace(long traceId) {
+        List<SpanRecord> trace = new ArrayList<>();
+        for (SpanRecord span : getSpans()) {
+            if (span.getTraceId() == traceId) {
+                trace.add(span);
+            }
+        }
+        trace.sort(Comparator.comparingLong(SpanRecord::getStartNanos));
+        return trace;
+    }
+
+    /**
+     * Formats a trace as a tree, one span per line, children indented under their parent.
+     *
+     * @param traceId The trace id.
+     * @return The formatted trace, or an empty string if none of its spans are kept.
+     */
+    public String formatTrace(long traceId) {
+        List<SpanRecord> trace = getTrace(traceId);
+        Set<Long> spanIds = new HashSet<>();
+        Map<Long, List<SpanRecord>> children = new HashMap<>();
+        for (SpanRecord span : trace) {
+            spanIds.add(span.getSpanId());
+            children.computeIfAbsent(span.getParentId(), parent -> new ArrayList<>()).add(span);
+        }
+        StringBuilder text = new StringBuilder();
+        for (SpanRecord span : trace) {
+            if (!spanIds.contains(span.getParentId())) {  // The root, or a span whose parent was overwritten
+                appendTree(text, span, children, 0);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns the number of spans the buffer keeps.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return spans.length;
+    }
+
+    /**
+     * Removes every span.
+     */
+    public synchronized void clear() {
+        Arrays.fill(spans, null);
+        written = 0;
+    }
+
+    /**
+     * Appends a span and its children, depth first.
+     */
+    private static void appendTree(StringBuilder text, SpanRecord span, Map<Long, List<SpanRecord>> children, int depth) {
+        text.append("  ".repeat(depth)).append(span).append('\n');
+        for (SpanRecord child : children.getOrDefault(span.getSpanId(), List.of())) {
+            appendTree(text, child, children, depth + 1);
+        }
+    }
+}
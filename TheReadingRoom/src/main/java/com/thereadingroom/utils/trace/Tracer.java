@@ -0,0 +1,411 @@
+package com.thereadingroom.utils.trace;
+
+import jdk.jfr.EventType;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lightweight tracing of a user action through the layers of the application:
+ *
+ * - controller: a handler starts the trace with begin, for example PaymentController.handlePayment.
+ * - service: services wrapped with traced(Class, Object) start a child span for every call; a call that
+ *   returns a CompletionStage is ended when the stage completes.
+ * - pool: Database starts a child span while waiting for a pooled connection.
+ * - dao: StatementCache hands out statements wrapped with traced(PreparedStatement, String), which time each
+ *   execution as a child span named after the DAO method that runs it, with the SQL as detail.
+ *
+ * The current span is kept per thread. Work handed to another thread carries it along when wrapped with wrap,
+ * so a checkout that hops between the JavaFX thread, the payment gateway and the checkout workers stays one trace.
+ *
+ * Every span is emitted as a SpanEvent, so a flight recording shows each trace broken down by layer. Spans can
+ * also be kept in memory (see enableRingBuffer, or the thereadingroom.trace.buffer property). When neither is
+ * on, begin returns Span.NOOP after one check, child spans cost one thread-local read and nothing is wrapped.
+ */
+public final class Tracer {
+
+    // System property giving the capacity of the span ring buffer to enable at startup
+    public static final String RING_BUFFER_PROPERTY = "thereadingroom.trace.buffer";
+
+    private static final String DAO_PACKAGE = "com.thereadingroom.model.dao.";
+    private static final String DAO_INFRASTRUCTURE_PACKAGE = "com.thereadingroom.model.dao.database.";
+    private static final String BASE_DAO = "com.thereadingroom.model.dao.BaseDAO";
+
+    private static final EventType SPAN_EVENT_TYPE = EventType.getEventType(SpanEvent.class);
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();  // Current span of each thread
+    private static final AtomicLong NEXT_ID = new AtomicLong();            // Span ids
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private static volatile SpanRingBuffer ringBuffer = configuredRingBuffer();  // Exporter, or null if off
+
+    private Tracer() {
+    }
+
+    /**
+     * Returns whether spans are recorded, to a flight recording or the ring buffer.
+     *
+     * @return true if spans are recorded.
+     */
+    public static boolean isRecording() {
+        return ringBuffer != null || SPAN_EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Returns the span current on this thread.
+     *
+     * @return The current span, or null if no trace is in progress on this thread.
+     */
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a span and makes it current on this thread. It is a child of the current span, or the root of a
+     * new trace if there is none. Use it in a try-with-resources block, or call detach and close it later.
+     *
+     * @param layer The layer of the operation, such as "controller".
+     * @param name  The operation, usually "Class.method".
+     * @return The span, or Span.NOOP if nothing is recording.
+     */
+    public static Span begin(String layer, String name) {
+        if (!isRecording()) {
+            return Span.NOOP;
+        }
+        return start(CURRENT.get(), layer, name);
+    }
+
+    /**
+     * Starts a span only as part of a trace in progress, and makes it current on this thread.
+     * Used below the controller layer, so background work outside any trace is not recorded.
+     *
+     * @param layer The layer of the operation, such as "dao".
+     * @param name  The operation, usually "Class.method".
+     * @return The span, or Span.NOOP if no trace is in progress on this thread or nothing is recording.
+     */
+    public static Span beginChild(String layer, String name) {
+        Span parent = CURRENT.get();
+        if (parent == null || !isRecording()) {
+            return Span.NOOP;
+        }
+        return start(parent, layer, name);
+    }
+
+    /**
+     * Wraps a task so it runs with this thread's current span as its parent, on whichever thread runs it.
+     *
+     * @param task The task.
+     * @return The wrapped task, or the task itself if no trace is in progress.
+     */
+    public static Runnable wrap(Runnable task) {
+        Span context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = enter(context);
+            try {
+                task.run();
+            } finally {
+                reset(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps a supplier so it runs with this thread's current span as its parent, on whichever thread runs it.
+     *
+     * @param supplier The supplier.
+     * @param <T>      The type of the result.
+     * @return The wrapped supplier, or the supplier itself if no trace is in progress.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> supplier) {
+        Span context = CURRENT.get();
+        if (context == null) {
+            return supplier;
+        }
+        return () -> {
+            Span previous = enter(context);
+            try {
+                return supplier.get();
+            } finally {
+                reset(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps a function so it runs with this thread's current span as its parent, on whichever thread runs it.
+     *
+     * @param function The function.
+     * @param <T>      The type of the argument.
+     * @param <R>      The type of the result.
+     * @return The wrapped function, or the function itself if no trace is in progress.
+     */
+    public static <T, R> Function<T, R> wrap(Function<T, R> function) {
+        Span context = CURRENT.get();
+        if (context == null) {
+            return function;
+        }
+        return argument -> {
+            Span previous = enter(context);
+            try {
+                return function.apply(argument);
+            } finally {
+                reset(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps a service so every call through the given interface runs in a "service" span, named after the
+     * service's class and the method. Calls outside a trace are not recorded.
+     *
+     * @param type    The service interface.
+     * @param service The service.
+     * @param <T>     The service interface.
+     * @return A proxy implementing the interface.
+     */
+    public static <T> T traced(Class<T> type, T service) {
+        ServiceHandler handler = new ServiceHandler(service, service.getClass().getSimpleName());
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Wraps a statement so each execution runs in a "dao" span, if a trace is in progress on this thread.
+     * The span is named after the DAO method preparing the statement and carries the SQL as detail.
+     *
+     * @param statement The statement.
+     * @param sql       The statement's SQL.
+     * @return The wrapped statement, or the statement itself if no trace is in progress.
+     */
+    public static PreparedStatement traced(PreparedStatement statement, String sql) {
+        if (CURRENT.get() == null || !isRecording()) {
+            return statement;
+        }
+        StatementHandler handler = new StatementHandler(statement, findDaoMethod(), sql);
+        return (PreparedStatement) Proxy.newProxyInstance(Tracer.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, handler);
+    }
+
+    /**
+     * Keeps the latest finished spans in memory, replacing any ring buffer kept so far.
+     *
+     * @param capacity The number of spans to keep.
+     */
+    public static void enableRingBuffer(int capacity) {
+        ringBuffer = new SpanRingBuffer(capacity);
+    }
+
+    /**
+     * Stops keeping spans in memory.
+     */
+    public static void disableRingBuffer() {
+        ringBuffer = null;
+    }
+
+    /**
+     * Returns the ring buffer of finished spans.
+     *
+     * @return The ring buffer, or null if spans are not kept in memory.
+     */
+    public static SpanRingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    /**
+     * Starts a span under a parent and makes it current on this thread.
+     */
+    private static Span start(Span parent, String layer, String name) {
+        long spanId = NEXT_ID.incrementAndGet();
+        SpanEvent event = SPAN_EVENT_TYPE.isEnabled() ? new SpanEvent() : null;
+        Span span = new Span(parent != null ? parent.getTraceId() : spanId, spanId, parent, layer, name, event);
+        CURRENT.set(span);
+        return span;
+    }
+
+    /**
+     * Makes a span's parent current again, if the span is current on this thread.
+     *
+     * @param span The span being closed or detached.
+     */
+    static void restore(Span span) {
+        if (CURRENT.get() == span) {
+            reset(span.getParent());
+        }
+    }
+
+    /**
+     * Makes a span current on this thread.
+     *
+     * @return The span that was current before.
+     */
+    private static Span enter(Span context) {
+        Span previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous;
+    }
+
+    /**
+     * Makes a span current on this thread, or clears the current span.
+     */
+    private static void reset(Span span) {
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+    }
+
+    /**
+     * Finds the DAO method on the stack that is preparing a statement.
+     *
+     * @return The method as "DAO.method", or "statement" if no DAO is on the stack.
+     */
+    private static String findDaoMethod() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(DAO_PACKAGE)
+                        && !frame.getClassName().startsWith(DAO_INFRASTRUCTURE_PACKAGE)
+                        && !frame.getClassName().equals(BASE_DAO))
+                .findFirst()
+                .map(frame -> describe(frame.getClassName(), frame.getMethodName()))
+                .orElse("statement"));
+    }
+
+    /**
+     * Describes a method as its simple class name and name, resolving lambdas to their declaring method.
+     */
+    private static String describe(String className, String method) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int nested = simpleName.indexOf('$');
+        if (nested >= 0) {
+            simpleName = simpleName.substring(0, nested);
+        }
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', "lambda$".length());
+            method = method.substring("lambda$".length(), end > 0 ? end : method.length());
+        }
+        return simpleName + "." + method;
+    }
+
+    /**
+     * Creates the ring buffer requested by the thereadingroom.trace.buffer property.
+     *
+     * @return The ring buffer, or null if the property is not set to a positive capacity.
+     */
+    private static SpanRingBuffer configuredRingBuffer() {
+        String configured = System.getProperty(RING_BUFFER_PROPERTY);
+        if (configured == null) {
+            return null;
+        }
+        try {
+            int capacity = Integer.parseInt(configured.trim());
+            return capacity > 0 ? new SpanRingBuffer(capacity) : null;
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid trace buffer capacity '" + configured + "', span ring buffer disabled.");
+            return null;
+        }
+    }
+
+    /**
+     * Runs each call to a service in a "service" span.
+     */
+    private static final class ServiceHandler implements InvocationHandler {
+
+        private final Object service;                                        // The traced service
+        private final String serviceName;                                    // Simple class name of the service
+        private final Map<Method, String> spanNames = new ConcurrentHashMap<>();  // Method -> "Service.method"
+
+        ServiceHandler(Object service, String serviceName) {
+            this.service = service;
+            this.serviceName = serviceName;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class || CURRENT.get() == null || !isRecording()) {
+                return call(method, args);
+            }
+            Span span = beginChild("service", spanNames.computeIfAbsent(method, m -> serviceName + "." + m.getName()));
+            boolean async = false;
+            try {
+                Object result = call(method, args);
+                if (result instanceof CompletionStage) {
+                    // The call returned before the work finished: end the span when it does
+                    async = true;
+                    span.detach();
+                    ((CompletionStage<?>) result).whenComplete((value, error) -> {
+                        if (error != null) {
+                            span.fail(error);
+                        }
+                        span.close();
+                    });
+                }
+                return result;
+            } catch (Throwable failure) {
+                span.fail(failure);
+                throw failure;
+            } finally {
+                if (!async) {
+                    span.close();
+                }
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(service, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Runs each execution of a statement in a "dao" span.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final PreparedStatement statement;  // The traced statement
+        private final String daoMethod;             // DAO method that prepared it
+        private final String sql;                   // The statement's SQL
+
+        StatementHandler(PreparedStatement statement, String daoMethod, String sql) {
+            this.statement = statement;
+            this.daoMethod = daoMethod;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return call(method, args);
+            }
+            try (Span span = beginChild("dao", daoMethod)) {
+                span.setDetail(sql);
+                try {
+                    return call(method, args);
+                } catch (Throwable failure) {
+                    span.fail(failure);
+                    throw failure;
+                }
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.thereadingroom.utils.ui;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a search as the user types, off the JavaFX thread.
+ * Each keystroke restarts a short delay, so the search only runs once typing pauses. A newer request cancels the
+ * pending one, a request that is superseded before it starts is skipped, and results of a superseded request are
+ * dropped instead of being shown, so the results on screen always belong to the latest text.
+ *
+ * @param <T> The type of the search results.
+ */
+public class DebouncedSearch<T> {
+
+    // Pause in typing after which the search runs
+    public static final long DEFAULT_DELAY_MILLIS = 150;
+
+    // Runs the searches of every view, one at a time
+    private static final ScheduledExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "live-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<String, T> search;      // Runs the search (search thread)
+    private final Consumer<T> onResults;           // Shows the results (JavaFX thread)
+    private final long delayMillis;                // Pause in typing before searching
+    private final AtomicLong latestRequest = new AtomicLong();  // Number of the latest request
+    private ScheduledFuture<?> pending;            // The latest scheduled search (JavaFX thread)
+
+    /**
+     * Creates a search that runs after the default pause in typing.
+     *
+     * @param search    Runs the search for a text, off the JavaFX thread.
+     * @param onResults Shows the results, on the JavaFX thread.
+     */
+    public DebouncedSearch(Function<String, T> search, Consumer<T> onResults) {
+        this(search, onResults, DEFAULT_DELAY_MILLIS);
+    }
+
+    /**
+     * Creates a search that runs after the given pause in typing.
+     *
+     * @param search      Runs the search for a text, off the JavaFX thread.
+     * @param onResults   Shows the results, on the JavaFX thread.
+     * @param delayMillis Pause in typing before searching.
+     */
+    public DebouncedSearch(Function<String, T> search, Consumer<T> onResults, long delayMillis) {
+        this.search = search;
+        this.onResults = onResults;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Searches for the text once typing pauses, replacing any earlier request (JavaFX thread).
+     *
+     * @param text The text typed so far.
+     */
+    public void submit(String text) {
+        schedule(text, delayMillis);
+    }
+
+    /**
+     * Searches for the text right away, replacing any earlier request (JavaFX thread).
+     *
+     * @param text The text to search for.
+     */
+    public void submitNow(String text) {
+        schedule(text, 0);
+    }
+
+    /**
+     * Cancels the pending request, so no results are shown until the next one (JavaFX thread).
+     */
+    public void cancel() {
+        latestRequest.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * Cancels the pending request and schedules a new one.
+     */
+    private void schedule(String text, long delay) {
+        cancel();
+        long request = latestRequest.get();
+        pending = SEARCH_EXECUTOR.schedule(() -> run(request, text), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a request unless it was superseded and hands its results to the JavaFX thread (search thread).
+     */
+    private void run(long request, String text) {
+        if (request != latestRequest.get()) {
+            return;  // Superseded while waiting
+        }
+        T results;
+        try {
+            results = search.apply(text);
+        } catch (RuntimeException e) {
+            System.out.println("Error running search: " + e.getMessage());
+            return;
+        }
+        Platform.runLater(() -> {
+            if (request == latestRequest.get()) {
+                onResults.accept(results);
+            }
+        });
+    }
+}
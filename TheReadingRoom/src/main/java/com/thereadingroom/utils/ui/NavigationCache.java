@@ -0,0 +1,304 @@
+package com.thereadingroom.utils.ui;
+
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches what navigating between screens would otherwise read, resolve and decode again on every visit.
+ *
+ * - FXML templates: the resolved location and bytes of each FXML file, so a screen is parsed from memory.
+ *   FXMLLoader has no reusable parsed form, so the XML itself is still parsed on each load.
+ * - Stylesheets: each CSS path resolved once to an interned URL, so every table shares the same string
+ *   and JavaFX's stylesheet cache parses the file once.
+ * - Images: decoded once per path and display size. Images larger than their ImageView are decoded at the
+ *   displayed size, so they do not keep full-resolution pixels in memory.
+ * - Retained scenes: for screens registered with retain, the whole scene graph and its controller are kept
+ *   and shown again instead of being rebuilt (see RetainedView).
+ *
+ * It also keeps the navigation latency of each screen. Resource caches are safe to use from any thread;
+ * retained scenes are only used on the JavaFX application thread.
+ */
+public class NavigationCache {
+
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();            // FXML path -> template
+    private final Map<String, String> stylesheets = new ConcurrentHashMap<>();            // CSS path -> interned URL
+    private final Map<String, Image> images = new ConcurrentHashMap<>();                  // Path and size -> image
+    private final Set<String> retainedPaths = ConcurrentHashMap.newKeySet();              // Screens to retain
+    private final Map<String, RetainedScene> retainedScenes = new ConcurrentHashMap<>();  // FXML path -> scene
+    private final Map<String, Latency> latencies = new ConcurrentHashMap<>();             // FXML path -> latency
+
+    /**
+     * Returns the template of an FXML file, reading it on first use.
+     *
+     * @param fxmlPath The classpath path of the FXML file.
+     * @return The template, or null if there is no such file.
+     */
+    public Template getTemplate(String fxmlPath) {
+        Template template = templates.get(fxmlPath);
+        if (template == null) {
+            URL location = NavigationCache.class.getResource(fxmlPath);
+            if (location == null) {
+                return null;
+            }
+            template = templates.computeIfAbsent(fxmlPath, path -> new Template(location, readBytes(location)));
+        }
+        return template;
+    }
+
+    /**
+     * Returns the URL of a stylesheet as an interned string, resolving it on first use.
+     *
+     * @param cssPath The classpath path of the stylesheet.
+     * @return The stylesheet URL, or null if there is no such file.
+     */
+    public String getStylesheet(String cssPath) {
+        String stylesheet = stylesheets.get(cssPath);
+        if (stylesheet == null) {
+            URL resource = NavigationCache.class.getResource(cssPath);
+            if (resource == null) {
+                return null;
+            }
+            stylesheet = stylesheets.computeIfAbsent(cssPath, path -> resource.toExternalForm().intern());
+        }
+        return stylesheet;
+    }
+
+    /**
+     * Returns an image decoded for display in a box of the given size, decoding it on first use.
+     * An image larger than the box is decoded at the box size; a smaller one keeps its own size and is scaled
+     * up by the ImageView as before.
+     *
+     * @param imagePath     The classpath path of the image.
+     * @param fitWidth      The displayed width, or 0 if not constrained.
+     * @param fitHeight     The displayed height, or 0 if not constrained.
+     * @param preserveRatio Whether the image keeps its aspect ratio when downsampled.
+     * @return The image, or null if there is no such file or it cannot be decoded.
+     */
+    public Image getImage(String imagePath, double fitWidth, double fitHeight, boolean preserveRatio) {
+        String key = imagePath + '@' + (int) fitWidth + 'x' + (int) fitHeight + (preserveRatio ? "r" : "");
+        Image image = images.get(key);
+        if (image == null) {
+            URL resource = NavigationCache.class.getResource(imagePath);
+            if (resource == null) {
+                return null;
+            }
+            image = images.computeIfAbsent(key, k -> decode(resource.toExternalForm(), fitWidth, fitHeight, preserveRatio));
+        }
+        return image;
+    }
+
+    /**
+     * Registers a screen whose scene graph is retained after its first visit and shown again on later visits.
+     *
+     * @param fxmlPath The classpath path of the screen's FXML file.
+     */
+    public void retain(String fxmlPath) {
+        retainedPaths.add(fxmlPath);
+    }
+
+    /**
+     * Returns whether a screen's scene graph is retained.
+     *
+     * @param fxmlPath The classpath path of the screen's FXML file.
+     * @return true if the screen was registered with retain.
+     */
+    public boolean isRetained(String fxmlPath) {
+        return retainedPaths.contains(fxmlPath);
+    }
+
+    /**
+     * Returns the retained scene of a screen.
+     *
+     * @param fxmlPath The classpath path of the screen's FXML file.
+     * @return The retained scene, or null if the screen was not built yet, was evicted or is not retained.
+     */
+    public RetainedScene getRetainedScene(String fxmlPath) {
+        return retainedScenes.get(fxmlPath);
+    }
+
+    /**
+     * Keeps a screen's scene graph, if the screen is registered with retain.
+     *
+     * @param fxmlPath   The classpath path of the screen's FXML file.
+     * @param scene      The scene showing the screen.
+     * @param controller The screen's controller.
+     */
+    public void putRetainedScene(String fxmlPath, Scene scene, Object controller) {
+        if (isRetained(fxmlPath)) {
+            retainedScenes.put(fxmlPath, new RetainedScene(scene, controller));
+        }
+    }
+
+    /**
+     * Drops the retained scene of a screen, so its next visit builds it again.
+     *
+     * @param fxmlPath The classpath path of the screen's FXML file.
+     */
+    public void evict(String fxmlPath) {
+        retainedScenes.remove(fxmlPath);
+    }
+
+    /**
+     * Drops every retained scene, so the next visit to each screen builds it again. The screens stay registered.
+     */
+    public void clearRetainedScenes() {
+        retainedScenes.clear();
+    }
+
+    /**
+     * Records the latency of a navigation.
+     *
+     * @param fxmlPath The classpath path of the screen's FXML file.
+     * @param nanos    The latency in nanoseconds.
+     * @param reused   Whether the retained scene was shown.
+     * @return The screen's navigation statistics including this navigation.
+     */
+    public NavigationStats recordNavigation(String fxmlPath, long nanos, boolean reused) {
+        return latencies.computeIfAbsent(fxmlPath, path -> new Latency()).record(fxmlPath, nanos, reused);
+    }
+
+    /**
+     * Returns the navigation latency of every screen shown so far.
+     *
+     * @return Statistics by FXML path, sorted by path.
+     */
+    public Map<String, NavigationStats> getNavigationStats() {
+        Map<String, NavigationStats> stats = new TreeMap<>();
+        latencies.forEach((path, latency) -> stats.put(path, latency.snapshot(path)));
+        return stats;
+    }
+
+    /**
+     * Reads a resource fully.
+     *
+     * @return The bytes, or null if the resource could not be read (the loader then reads the location itself).
+     */
+    private static byte[] readBytes(URL location) {
+        try (InputStream in = location.openStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            System.out.println("Error reading view template " + location + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decodes an image, downsampling it to the box if it is larger.
+     *
+     * @return The image, or null if it cannot be decoded.
+     */
+    private static Image decode(String url, double fitWidth, double fitHeight, boolean preserveRatio) {
+        Image image = new Image(url);
+        if (image.isError()) {
+            System.out.println("Error decoding image " + url + ": " + image.getException());
+            return null;
+        }
+        boolean wider = fitWidth > 0 && image.getWidth() > fitWidth;
+        boolean taller = fitHeight > 0 && image.getHeight() > fitHeight;
+        if (!wider && !taller) {
+            return image;
+        }
+        double width = wider ? fitWidth : image.getWidth();
+        double height = taller ? fitHeight : image.getHeight();
+        return new Image(url, width, height, preserveRatio, true);
+    }
+
+    /**
+     * The location and contents of an FXML file.
+     */
+    public static final class Template {
+
+        private final URL location;  // Location of the file, against which includes and resources resolve
+        private final byte[] fxml;   // Contents of the file, or null if it could not be read
+
+        Template(URL location, byte[] fxml) {
+            this.location = location;
+            this.fxml = fxml;
+        }
+
+        /**
+         * Returns the location of the FXML file.
+         *
+         * @return The location.
+         */
+        public URL getLocation() {
+            return location;
+        }
+
+        /**
+         * Returns the contents of the FXML file.
+         *
+         * @return The bytes, or null if the file could not be read up front.
+         */
+        public byte[] getFxml() {
+            return fxml;
+        }
+    }
+
+    /**
+     * A retained scene graph and the controller bound to it.
+     */
+    public static final class RetainedScene {
+
+        private final Scene scene;         // The scene showing the screen
+        private final Object controller;   // The controller bound to the scene's nodes
+
+        RetainedScene(Scene scene, Object controller) {
+            this.scene = scene;
+            this.controller = controller;
+        }
+
+        /**
+         * Returns the retained scene.
+         *
+         * @return The scene.
+         */
+        public Scene getScene() {
+            return scene;
+        }
+
+        /**
+         * Returns the controller bound to the scene.
+         *
+         * @return The controller.
+         */
+        public Object getController() {
+            return controller;
+        }
+    }
+
+    /**
+     * Running navigation latency of one screen.
+     */
+    private static final class Latency {
+
+        private long navigations;  // Times the screen was shown
+        private long reused;       // Times the retained scene was shown
+        private long totalNanos;   // Total latency
+        private long maxNanos;     // Slowest navigation
+        private long lastNanos;    // Latest navigation
+
+        synchronized NavigationStats record(String fxmlPath, long nanos, boolean wasReused) {
+            navigations++;
+            if (wasReused) {
+                reused++;
+            }
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            lastNanos = nanos;
+            return snapshot(fxmlPath);
+        }
+
+        synchronized NavigationStats snapshot(String fxmlPath) {
+            return new NavigationStats(fxmlPath, navigations, reused, totalNanos, maxNanos, lastNanos);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.thereadingroom.utils.ui;
+
+/**
+ * Snapshot of the navigation latency of one screen, measured from the navigation request to the first layout
+ * of the screen.
+ */
+public class NavigationStats {
+
+    private final String screen;       // FXML path of the screen
+    private final long navigations;    // Times the screen was shown
+    private final long reused;         // Times its retained scene was shown instead of building a new one
+    private final long totalNanos;     // Total latency of all navigations
+    private final long maxNanos;       // Slowest navigation
+    private final long lastNanos;      // Latest navigation
+
+    /**
+     * Creates a snapshot of a screen's navigation latency.
+     *
+     * @param screen      The FXML path of the screen.
+     * @param navigations Times the screen was shown.
+     * @param reused      Times its retained scene was reused.
+     * @param totalNanos  Total latency in nanoseconds.
+     * @param maxNanos    Slowest latency in nanoseconds.
+     * @param lastNanos   Latest latency in nanoseconds.
+     */
+    public NavigationStats(String screen, long navigations, long reused, long totalNanos, long maxNanos, long lastNanos) {
+        this.screen = screen;
+        this.navigations = navigations;
+        this.reused = reused;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.lastNanos = lastNanos;
+    }
+
+    /**
+     * Returns the FXML path of the screen.
+     *
+     * @return The FXML path.
+     */
+    public String getScreen() {
+        return screen;
+    }
+
+    /**
+     * Returns the number of times the screen was shown.
+     *
+     * @return The navigation count.
+     */
+    public long getNavigations() {
+        return navigations;
+    }
+
+    /**
+     * Returns the number of times the retained scene was shown instead of building a new one.
+     *
+     * @return The reuse count.
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    /**
+     * Returns the total latency of all navigations to the screen.
+     *
+     * @return The total latency in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the slowest navigation to the screen.
+     *
+     * @return The slowest latency in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the latest navigation to the screen.
+     *
+     * @return The latest latency in nanoseconds.
+     */
+    public long getLastNanos() {
+        return lastNanos;
+    }
+
+    /**
+     * Returns the average navigation latency.
+     *
+     * @return The average latency in milliseconds, or 0 if the screen was never shown.
+     */
+    public double getAverageMillis() {
+        return navigations == 0 ? 0 : totalNanos / 1_000_000.0 / navigations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d navigations (%d reused), avg %.1f ms, max %.1f ms, last %.1f ms",
+                screen, navigations, reused, getAverageMillis(), maxNanos / 1_000_000.0, lastNanos / 1_000_000.0);
+    }
+}
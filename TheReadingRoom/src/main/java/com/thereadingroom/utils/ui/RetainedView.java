@@ -0,0 +1,15 @@
+package com.thereadingroom.utils.ui;
+
+/**
+ * Implemented by controllers of screens whose scene UIUtils retains (see UIUtils.retainView).
+ * A retained screen is built once and shown again as it was left, so its controller's initialize() does not run
+ * on later visits; resetView is called instead, before the screen is shown again, to clear what the previous
+ * visit left behind (typed text, selections, messages).
+ */
+public interface RetainedView {
+
+    /**
+     * Resets the screen before its retained scene is shown again. Called on the JavaFX application thread.
+     */
+    void resetView();
+}
@@ -35,8 +35,19 @@ public class SpringFXMLLoader {
      * @throws IOException if there is an issue loading the FXML file.
      */
     public Object load(URL url) throws IOException {
+        return newLoader(url).load();  // Load the FXML and return the root node
+    }
+
+    /**
+     * Creates an FXMLLoader for the given location whose controllers are retrieved from Spring's ApplicationContext.
+     * Callers that need the controller, or that load the FXML from bytes already in memory, use the loader directly.
+     *
+     * @param url The URL of the FXML file, against which includes and resources are resolved.
+     * @return A new loader.
+     */
+    public FXMLLoader newLoader(URL url) {
         FXMLLoader loader = new FXMLLoader(url);  // Create a new FXMLLoader instance with the given FXML URL
         loader.setControllerFactory(context::getBean);  // Set controller factory to use Spring's bean factory
-        return loader.load();  // Load the FXML and return the root node
+        return loader;
     }
 }
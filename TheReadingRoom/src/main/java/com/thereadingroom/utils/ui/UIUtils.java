@@ -14,15 +14,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
 /**
  * Utility class for managing common UI operations in a JavaFX application integrated with Spring.
  * Provides methods for loading scenes, showing alerts, handling CSS, and managing images.
+ * FXML templates, stylesheet URLs, decoded images and the scenes of retained screens are cached in a
+ * NavigationCache, and the latency of each navigation is logged and kept per screen.
  */
 @Component
 public class UIUtils {
@@ -31,6 +33,7 @@ public class UIUtils {
     private final int defaultWidth;
     private final int defaultHeight;
     private final ApplicationContext springContext;
+    private final NavigationCache navigationCache = new NavigationCache();  // Templates, stylesheets, images and retained scenes
 
     /**
      * Constructor with default scene dimensions.
@@ -125,13 +128,8 @@ public class UIUtils {
      */
     public void loadScene(String fxmlPath, Stage stage, String title, int width, int height) {
         try {
-            URL resourceUrl = getClass().getResource(fxmlPath);
-            Parent view = (Parent) springFXMLLoader.load(resourceUrl);  // Use SpringFXMLLoader for loading
-            Scene scene = new Scene(view, width, height);
-            stage.setScene(scene);
-            stage.setTitle(title);
             stage.setResizable(false);
-            stage.show();
+            showView(fxmlPath, stage, title, width, height, controller -> { });
         } catch (IOException e) {
             e.printStackTrace();
             showError("Error", "Unable to load the view: " + e.getMessage());
@@ -149,11 +147,9 @@ public class UIUtils {
      */
     public <T> void loadModal(String fxmlPath, String title, DataLoader<T> dataLoader, Stage owner) {
         try {
-            URL resourceUrl = getClass().getResource(fxmlPath);
-            FXMLLoader loader = new FXMLLoader(resourceUrl);  // Create a new FXMLLoader instance
-            loader.setControllerFactory(springContext::getBean);  // Use Spring context to inject controllers
-
-            Parent root = loader.load();  // Load the FXML
+            long start = System.nanoTime();
+            FXMLLoader loader = loadView(fxmlPath);  // Load the FXML from its cached template
+            Parent root = loader.getRoot();
             T controller = loader.getController();  // Get the controller
             dataLoader.loadData(controller);  // Pass the loaded controller to the dataLoader
 
@@ -163,6 +159,7 @@ public class UIUtils {
             modalStage.setScene(new Scene(root));
             modalStage.setTitle(title);
             modalStage.setResizable(false);
+            recordAfterLayout(modalStage.getScene(), fxmlPath, start, false);
             modalStage.show();
         } catch (IOException e) {
             e.printStackTrace();
@@ -180,19 +177,7 @@ public class UIUtils {
      */
     public void loadSceneWithData(String fxmlPath, Stage currentStage, String title, Consumer<Object> controllerInjector) {
         try {
-            URL resourceUrl = getClass().getResource(fxmlPath);
-            FXMLLoader loader = new FXMLLoader(resourceUrl);  // Create a new FXMLLoader instance
-            loader.setControllerFactory(springContext::getBean);  // Use Spring context to inject controllers
-
-            Parent root = loader.load();  // Load the FXML
-            Scene scene = new Scene(root, defaultWidth, defaultHeight);
-            currentStage.setScene(scene);
-            currentStage.setTitle(title);
-
-            Object controller = loader.getController();  // Get the controller
-            controllerInjector.accept(controller);  // Inject the data into the controller
-
-            currentStage.show();
+            showView(fxmlPath, currentStage, title, defaultWidth, defaultHeight, controllerInjector);
         } catch (IOException e) {
             showError("Loading Error", "Failed to load the scene.");
             e.printStackTrace();
@@ -209,25 +194,127 @@ public class UIUtils {
      */
     public void loadSceneWithDataDefault(String fxmlPath, Stage currentStage, String title, Consumer<Object> controllerInjector) {
         try {
-            URL resourceUrl = getClass().getResource(fxmlPath);
-            FXMLLoader loader = new FXMLLoader(resourceUrl);  // Create a new FXMLLoader instance
-            loader.setControllerFactory(springContext::getBean);  // Use Spring context to inject controllers
-
-            Parent root = loader.load();  // Load the FXML
-            Scene scene = new Scene(root);
-            currentStage.setScene(scene);
-            currentStage.setTitle(title);
-
-            Object controller = loader.getController();  // Get the controller
-            controllerInjector.accept(controller);  // Inject the data into the controller
-
-            currentStage.show();
+            showView(fxmlPath, currentStage, title, -1, -1, controllerInjector);
         } catch (IOException e) {
             showError("Loading Error", "Failed to load the scene.");
             e.printStackTrace();
         }
     }
 
+    /**
+     * Keeps the scene graph of a screen after its first visit and shows it again on later visits instead of
+     * rebuilding it. Suited to screens visited often whose controller is not shared with other screens through
+     * an include (a shared controller is bound to the nodes of the screen loaded last). If the controller
+     * implements RetainedView, resetView is called before each later visit.
+     *
+     * @param fxmlPath The path to the screen's FXML file.
+     */
+    public void retainView(String fxmlPath) {
+        navigationCache.retain(fxmlPath);
+    }
+
+    /**
+     * Drops the retained scene of a screen, so its next visit builds it again.
+     *
+     * @param fxmlPath The path to the screen's FXML file.
+     */
+    public void evictView(String fxmlPath) {
+        navigationCache.evict(fxmlPath);
+    }
+
+    /**
+     * Drops every retained scene, so the next visit to each retained screen builds it again.
+     */
+    public void resetRetainedViews() {
+        navigationCache.clearRetainedScenes();
+    }
+
+    /**
+     * Returns the navigation latency of every screen shown so far, from the navigation request to the first
+     * layout of the screen.
+     *
+     * @return Statistics by FXML path.
+     */
+    public Map<String, NavigationStats> getNavigationStats() {
+        return navigationCache.getNavigationStats();
+    }
+
+    /**
+     * Shows a screen on a stage: its retained scene if there is one, otherwise a scene built from its template.
+     *
+     * @param fxmlPath           The path to the FXML file.
+     * @param stage              The stage where the scene will be set.
+     * @param title              The title of the window.
+     * @param width              The width of a new scene, or -1 for the screen's preferred size.
+     * @param height             The height of a new scene, or -1 for the screen's preferred size.
+     * @param controllerInjector Injects data into the controller before the stage is shown.
+     * @throws IOException if the FXML file cannot be loaded.
+     */
+    private void showView(String fxmlPath, Stage stage, String title, int width, int height,
+                          Consumer<Object> controllerInjector) throws IOException {
+        long start = System.nanoTime();
+        NavigationCache.RetainedScene retained = navigationCache.getRetainedScene(fxmlPath);
+        Scene scene;
+        Object controller;
+        boolean reused = retained != null && (retained.getScene().getWindow() == null || retained.getScene().getWindow() == stage);
+        if (reused) {
+            scene = retained.getScene();
+            controller = retained.getController();
+            if (controller instanceof RetainedView) {
+                ((RetainedView) controller).resetView();
+            }
+        } else {
+            FXMLLoader loader = loadView(fxmlPath);
+            Parent root = loader.getRoot();
+            scene = width < 0 ? new Scene(root) : new Scene(root, width, height);
+            controller = loader.getController();
+            navigationCache.putRetainedScene(fxmlPath, scene, controller);
+        }
+        stage.setScene(scene);
+        stage.setTitle(title);
+
+        controllerInjector.accept(controller);  // Inject the data into the controller
+
+        recordAfterLayout(scene, fxmlPath, start, reused);
+        stage.show();
+    }
+
+    /**
+     * Loads an FXML file from its cached template, with controllers retrieved from Spring's context.
+     *
+     * @param fxmlPath The path to the FXML file.
+     * @return The loader, holding the loaded root and controller.
+     * @throws IOException if the FXML file is missing or cannot be loaded.
+     */
+    private FXMLLoader loadView(String fxmlPath) throws IOException {
+        NavigationCache.Template template = navigationCache.getTemplate(fxmlPath);
+        if (template == null) {
+            throw new IOException("No FXML file at " + fxmlPath);
+        }
+        FXMLLoader loader = springFXMLLoader.newLoader(template.getLocation());
+        if (template.getFxml() != null) {
+            loader.load(new ByteArrayInputStream(template.getFxml()));
+        } else {
+            loader.load();
+        }
+        return loader;
+    }
+
+    /**
+     * Records the navigation latency once the scene has been laid out in the next pulse, and logs it.
+     */
+    private void recordAfterLayout(Scene scene, String fxmlPath, long start, boolean reused) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            NavigationStats stats = navigationCache.recordNavigation(fxmlPath, System.nanoTime() - start, reused);
+            System.out.printf("Navigation to %s took %.1f ms%s (avg %.1f ms over %d)%n", fxmlPath,
+                    stats.getLastNanos() / 1_000_000.0, reused ? " with its retained scene" : "",
+                    stats.getAverageMillis(), stats.getNavigations());
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
     /**
      * Closes the current window.
      *
@@ -240,18 +327,18 @@ public class UIUtils {
 
     /**
      * Loads an image from the specified path into an ImageView.
+     * Images are decoded once and shared, at most at the ImageView's fit size.
      *
      * @param imageView The ImageView where the image will be displayed.
      * @param imagePath The path to the image file.
      */
     public void loadImage(ImageView imageView, String imagePath) {
-        InputStream imageStream = UIUtils.class.getResourceAsStream(imagePath);
-        if (imageStream == null) {
-            showError("Image Load Error", "Unable to load image from path: " + imagePath);
-            return;
-        }
         try {
-            Image image = new Image(imageStream);
+            Image image = navigationCache.getImage(imagePath, imageView.getFitWidth(), imageView.getFitHeight(), imageView.isPreserveRatio());
+            if (image == null) {
+                showError("Image Load Error", "Unable to load image from path: " + imagePath);
+                return;
+            }
             imageView.setImage(image);
         } catch (Exception e) {
             showError("Image Load Error", "Error loading image: " + imagePath);
@@ -261,15 +348,17 @@ public class UIUtils {
 
     /**
      * Loads a CSS stylesheet and applies it to the given Parent node.
+     * The stylesheet URL is resolved once, and is not added again to a node that already has it.
      *
      * @param root    The root node to apply the stylesheet to.
      * @param cssPath The path to the CSS file.
      */
     public void loadCSS(Parent root, String cssPath) {
-        URL resource = UIUtils.class.getResource(cssPath);
-        if (resource != null) {
-            String stylesheetPath = resource.toExternalForm();
-            root.getStylesheets().add(stylesheetPath);
+        String stylesheetPath = navigationCache.getStylesheet(cssPath);
+        if (stylesheetPath != null) {
+            if (!root.getStylesheets().contains(stylesheetPath)) {
+                root.getStylesheets().add(stylesheetPath);
+            }
         } else {
             System.err.println("Error: Unable to load CSS from path: " + cssPath);
         }
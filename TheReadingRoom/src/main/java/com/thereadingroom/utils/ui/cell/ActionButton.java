@@ -0,0 +1,79 @@
+package com.thereadingroom.utils.ui.cell;
+
+import javafx.scene.control.Button;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Describes one button of an action column: its label, its style and what it does with the row's item.
+ * An ActionButtonsCell creates the actual Button once per cell and reuses it for every row the cell shows.
+ *
+ * @param <S> The table's item type.
+ */
+public class ActionButton<S> {
+
+    private final String text;                  // Button label
+    private final String style;                 // Inline CSS style, or null for the default style
+    private final Consumer<S> action;           // Called with the row's item when the button is clicked
+    private final BiConsumer<Button, S> updater;  // Adjusts the button to the row's item, or null if it never changes
+
+    /**
+     * Describes a button whose label and style are the same on every row.
+     *
+     * @param text   The button label.
+     * @param style  The inline CSS style, or null for the default style.
+     * @param action Called with the row's item when the button is clicked.
+     */
+    public ActionButton(String text, String style, Consumer<S> action) {
+        this(text, style, action, null);
+    }
+
+    /**
+     * Describes a button whose label or style depends on the row's item.
+     *
+     * @param text    The initial button label.
+     * @param style   The initial inline CSS style, or null for the default style.
+     * @param action  Called with the row's item when the button is clicked.
+     * @param updater Adjusts the button to the row's item whenever the cell shows a row.
+     */
+    public ActionButton(String text, String style, Consumer<S> action, BiConsumer<Button, S> updater) {
+        this.text = text;
+        this.style = style;
+        this.action = action;
+        this.updater = updater;
+    }
+
+    /**
+     * Creates the button for one cell; clicks are passed to the action with the item supplied at click time.
+     *
+     * @param currentItem Supplies the item of the row the cell currently shows.
+     * @return The button.
+     */
+    Button createButton(Supplier<S> currentItem) {
+        Button button = new Button(text);
+        if (style != null) {
+            button.setStyle(style);
+        }
+        button.setOnAction(event -> {
+            S item = currentItem.get();
+            if (item != null) {
+                action.accept(item);
+            }
+        });
+        return button;
+    }
+
+    /**
+     * Adjusts a button created by this description to the row's item.
+     *
+     * @param button The button.
+     * @param item   The row's item.
+     */
+    void update(Button button, S item) {
+        if (updater != null) {
+            updater.accept(button, item);
+        }
+    }
+}
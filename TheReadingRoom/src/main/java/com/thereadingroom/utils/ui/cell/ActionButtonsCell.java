@@ -0,0 +1,68 @@
+package com.thereadingroom.utils.ui.cell;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.TableCell;
+import javafx.scene.layout.HBox;
+
+import java.util.List;
+
+/**
+ * A table cell showing a row of action buttons (Edit, Remove, ...).
+ * The buttons and their container are created once per cell, and their handlers look up the row's item
+ * when clicked, so showing another row only re-runs the buttons' updaters.
+ *
+ * @param <S> The table's item type.
+ * @param <T> The column's value type (usually Void, since the buttons act on the whole row).
+ */
+public final class ActionButtonsCell<S, T> extends TableCell<S, T> {
+
+    private final List<ActionButton<S>> descriptions;  // What each button looks like and does
+    private final Button[] buttons;                    // The buttons, in the order of the descriptions
+    private final HBox container;                      // Lays the buttons out side by side
+
+    /**
+     * Creates the cell and its buttons.
+     *
+     * @param descriptions The buttons to show, from left to right.
+     */
+    public ActionButtonsCell(List<ActionButton<S>> descriptions) {
+        this.descriptions = descriptions;
+        this.buttons = new Button[descriptions.size()];
+        for (int i = 0; i < buttons.length; i++) {
+            buttons[i] = descriptions.get(i).createButton(this::currentItem);
+        }
+        this.container = new HBox(10, buttons);
+        container.setAlignment(Pos.CENTER);
+    }
+
+    /**
+     * Shows the buttons on non-empty rows, adjusted to the row's item.
+     */
+    @Override
+    protected void updateItem(T value, boolean empty) {
+        super.updateItem(value, empty);
+        S item = empty ? null : currentItem();
+        if (item == null) {
+            setGraphic(null);
+            return;
+        }
+        for (int i = 0; i < buttons.length; i++) {
+            descriptions.get(i).update(buttons[i], item);
+        }
+        setGraphic(container);
+    }
+
+    /**
+     * Returns the item of the row this cell currently shows.
+     *
+     * @return The row's item, or null if the cell is empty.
+     */
+    private S currentItem() {
+        int index = getIndex();
+        if (isEmpty() || getTableView() == null || index < 0 || index >= getTableView().getItems().size()) {
+            return null;
+        }
+        return getTableView().getItems().get(index);
+    }
+}
@@ -0,0 +1,54 @@
+package com.thereadingroom.utils.ui.cell;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TableCell;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A table cell showing a check box for a boolean property of the row's item.
+ * The check box and its single listener are created once per cell; showing another row only sets the
+ * check box's state, and toggling it writes the row's property and notifies the callback.
+ *
+ * @param <S> The table's item type.
+ */
+public final class CheckBoxCell<S> extends TableCell<S, Boolean> {
+
+    private final CheckBox checkBox = new CheckBox();  // The cell's check box
+    private boolean updating;                          // Whether the check box is being set from the row (not by the user)
+
+    /**
+     * Creates the cell.
+     *
+     * @param property Returns the boolean property of an item that the check box edits.
+     * @param onToggle Called with the item after the user toggled its check box.
+     */
+    public CheckBoxCell(Function<S, BooleanProperty> property, Consumer<S> onToggle) {
+        checkBox.selectedProperty().addListener((observable, wasSelected, isSelected) -> {
+            if (updating || isEmpty() || getTableView() == null) {
+                return;
+            }
+            S item = getTableView().getItems().get(getIndex());
+            property.apply(item).set(isSelected);
+            onToggle.accept(item);
+        });
+    }
+
+    /**
+     * Shows the check box with the row's state on non-empty rows.
+     */
+    @Override
+    protected void updateItem(Boolean selected, boolean empty) {
+        super.updateItem(selected, empty);
+        if (empty || selected == null) {
+            setGraphic(null);
+            return;
+        }
+        updating = true;
+        checkBox.setSelected(selected);
+        updating = false;
+        setGraphic(checkBox);
+    }
+}
@@ -0,0 +1,34 @@
+package com.thereadingroom.utils.ui.cell;
+
+import javafx.scene.control.TableCell;
+
+import java.util.function.Function;
+
+/**
+ * A table cell that shows its value as text produced by a typed formatter (e.g. a price as "$9.99").
+ *
+ * @param <S> The table's item type.
+ * @param <T> The column's value type.
+ */
+public class FormattedCell<S, T> extends TableCell<S, T> {
+
+    private final Function<? super T, String> formatter;  // Turns a non-null value into the shown text
+
+    /**
+     * Creates the cell.
+     *
+     * @param formatter Turns a non-null value into the shown text.
+     */
+    public FormattedCell(Function<? super T, String> formatter) {
+        this.formatter = formatter;
+    }
+
+    /**
+     * Shows the formatted value, or nothing for empty rows and null values.
+     */
+    @Override
+    protected void updateItem(T value, boolean empty) {
+        super.updateItem(value, empty);
+        setText(empty || value == null ? null : formatter.apply(value));
+    }
+}
@@ -0,0 +1,62 @@
+package com.thereadingroom.utils.ui.cell;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.layout.HBox;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A table cell showing a number between "-" and "+" buttons (e.g. a cart item's quantity).
+ * The controls are created once per cell and the buttons look up the row's item when clicked,
+ * so showing another row only changes the label text.
+ *
+ * @param <S> The table's item type.
+ */
+public final class StepperCell<S> extends TableCell<S, Number> {
+
+    private final Label valueLabel = new Label();  // Shows the row's value
+    private final HBox container;                  // Lays out the buttons around the value
+
+    /**
+     * Creates the cell.
+     *
+     * @param onStep Called with the item and the step (-1 or +1) when a button is clicked.
+     */
+    public StepperCell(BiConsumer<S, Integer> onStep) {
+        Button decrementButton = new Button("-");
+        Button incrementButton = new Button("+");
+        decrementButton.setOnAction(event -> step(onStep, -1));
+        incrementButton.setOnAction(event -> step(onStep, 1));
+        container = new HBox(10, decrementButton, valueLabel, incrementButton);
+        container.setAlignment(Pos.CENTER);
+    }
+
+    /**
+     * Shows the controls with the row's value on non-empty rows.
+     */
+    @Override
+    protected void updateItem(Number value, boolean empty) {
+        super.updateItem(value, empty);
+        if (empty || value == null) {
+            setGraphic(null);
+            return;
+        }
+        valueLabel.setText(String.valueOf(value.intValue()));
+        setGraphic(container);
+    }
+
+    /**
+     * Passes a click to the callback with the item of the row the cell currently shows.
+     *
+     * @param onStep The callback.
+     * @param step   The step (-1 or +1).
+     */
+    private void step(BiConsumer<S, Integer> onStep, int step) {
+        if (!isEmpty() && getTableView() != null) {
+            onStep.accept(getTableView().getItems().get(getIndex()), step);
+        }
+    }
+}
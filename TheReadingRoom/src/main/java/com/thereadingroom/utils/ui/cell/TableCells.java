@@ -0,0 +1,107 @@
+package com.thereadingroom.utils.ui.cell;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Factories for table cell values and recycled table cells.
+ * Values are read through typed method references instead of PropertyValueFactory's reflective lookups,
+ * and the cells create their controls once and reuse them for every row they show, so scrolling a table
+ * neither allocates controls nor adds listeners.
+ */
+public final class TableCells {
+
+    // Utility class, not instantiated
+    private TableCells() {
+    }
+
+    /**
+     * Returns a cell value factory that shows an observable property of the row's item.
+     * The cell follows changes to the property, and no wrapper is created per row.
+     *
+     * @param property Returns the item's property (e.g. Book::titleProperty).
+     * @param <S>      The table's item type.
+     * @param <T>      The column's value type.
+     * @return The cell value factory.
+     */
+    public static <S, T> Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>> property(
+            Function<S, ? extends ObservableValue<T>> property) {
+        return data -> property.apply(data.getValue());
+    }
+
+    /**
+     * Returns a cell value factory for a value that never changes while the row is shown (e.g. an ID).
+     *
+     * @param getter Returns the item's value (e.g. Order::getOrderId).
+     * @param <S>    The table's item type.
+     * @param <T>    The column's value type.
+     * @return The cell value factory.
+     */
+    public static <S, T> Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>> constant(Function<S, T> getter) {
+        return data -> new ReadOnlyObjectWrapper<>(getter.apply(data.getValue()));
+    }
+
+    /**
+     * Returns a cell factory for cells showing their value as formatted text.
+     *
+     * @param formatter Turns a non-null value into the shown text.
+     * @param <S>       The table's item type.
+     * @param <T>       The column's value type.
+     * @return The cell factory.
+     */
+    public static <S, T> Callback<TableColumn<S, T>, TableCell<S, T>> formatted(Function<? super T, String> formatter) {
+        return column -> new FormattedCell<>(formatter);
+    }
+
+    /**
+     * Returns a cell factory for cells showing a row of action buttons.
+     *
+     * @param buttons The buttons to show, from left to right.
+     * @param <S>     The table's item type.
+     * @param <T>     The column's value type.
+     * @return The cell factory.
+     */
+    @SafeVarargs
+    public static <S, T> Callback<TableColumn<S, T>, TableCell<S, T>> buttons(ActionButton<S>... buttons) {
+        List<ActionButton<S>> descriptions = new ArrayList<>(buttons.length);
+        for (ActionButton<S> button : buttons) {
+            descriptions.add(button);  // Copied one by one: the varargs array itself never leaves this method
+        }
+        return column -> new ActionButtonsCell<>(descriptions);
+    }
+
+    /**
+     * Returns a cell factory for cells showing a check box that edits a boolean property of the row's item.
+     * Use it with a value factory showing the same property.
+     *
+     * @param property Returns the item's boolean property.
+     * @param onToggle Called with the item after the user toggled its check box.
+     * @param <S>      The table's item type.
+     * @return The cell factory.
+     */
+    public static <S> Callback<TableColumn<S, Boolean>, TableCell<S, Boolean>> checkBox(
+            Function<S, BooleanProperty> property, Consumer<S> onToggle) {
+        return column -> new CheckBoxCell<>(property, onToggle);
+    }
+
+    /**
+     * Returns a cell factory for cells showing a number between "-" and "+" buttons.
+     *
+     * @param onStep Called with the item and the step (-1 or +1) when a button is clicked.
+     * @param <S>    The table's item type.
+     * @return The cell factory.
+     */
+    public static <S> Callback<TableColumn<S, Number>, TableCell<S, Number>> stepper(BiConsumer<S, Integer> onStep) {
+        return column -> new StepperCell<>(onStep);
+    }
+}
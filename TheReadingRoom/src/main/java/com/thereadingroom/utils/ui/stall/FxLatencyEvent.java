@@ -0,0 +1,32 @@
+package com.thereadingroom.utils.ui.stall;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Periodic flight recorder event summarizing the JavaFX application thread's latency since the previous event,
+ * measured by FxStallWatchdog's heartbeats.
+ */
+@Name("com.thereadingroom.FxLatency")
+@Label("JavaFX Thread Latency")
+@Category({"The Reading Room", "UI"})
+@Description("Heartbeats run on the JavaFX application thread, their worst latency and the stalls among them")
+@Period("1 s")
+@StackTrace(false)
+public class FxLatencyEvent extends jdk.jfr.Event {
+
+    @Label("Heartbeats")
+    long heartbeats;        // Heartbeats that ran
+
+    @Label("Max Latency")
+    @Timespan(Timespan.MILLISECONDS)
+    long maxLatencyMillis;  // Slowest heartbeat
+
+    @Label("Stalls")
+    long stalls;            // Heartbeats late by more than the stall threshold
+}
@@ -0,0 +1,35 @@
+package com.thereadingroom.utils.ui.stall;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for a stall of the JavaFX application thread, recorded by FxStallWatchdog.
+ * The event spans from when the late heartbeat was posted to when it ran, and is committed on the JavaFX thread.
+ */
+@Name("com.thereadingroom.FxStall")
+@Label("JavaFX Thread Stall")
+@Category({"The Reading Room", "UI"})
+@Description("The JavaFX application thread did not run pulses or events for longer than the stall threshold")
+@StackTrace(false)
+public class FxStallEvent extends jdk.jfr.Event {
+
+    @Label("Stall")
+    @Timespan(Timespan.MILLISECONDS)
+    long stallMillis;   // How long the JavaFX thread was stalled
+
+    @Label("Handler")
+    @Description("Controller method in progress during the stall")
+    String handler;     // Controller method, as "Controller.method"
+
+    @Label("Top Frame")
+    @Description("Innermost application frame on the JavaFX thread during the stall")
+    String topFrame;    // Where the thread was stuck
+
+    @Label("JavaFX Thread Stack")
+    String stack;       // Stack captured during the stall
+}
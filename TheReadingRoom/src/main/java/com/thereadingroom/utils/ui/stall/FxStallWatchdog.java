@@ -0,0 +1,387 @@
+package com.thereadingroom.utils.ui.stall;
+
+import javafx.application.Platform;
+import jdk.jfr.FlightRecorder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Detects stalls of the JavaFX application thread and attributes them to the controller method that caused them.
+ *
+ * A watchdog thread posts a heartbeat to the JavaFX thread every few milliseconds and measures how long it waits
+ * before it runs. While the JavaFX thread is busy in a handler (a JDBC call, for example) no heartbeat runs and no
+ * pulse renders the screen, so the heartbeat latency is the time the user saw a frozen window. Once a heartbeat is
+ * late by more than the threshold, the watchdog captures the JavaFX thread's stack while it is still stuck, and
+ * finds the controller method in progress. When the heartbeat finally runs, the stall is recorded:
+ *
+ * - logged with its duration, controller method and the innermost application frame,
+ * - emitted as an FxStallEvent to Java Flight Recorder, with the captured stack,
+ * - added to the per-handler statistics shown to admins by StallOverlay.
+ *
+ * A modal dialog opened with showAndWait is not a stall: the JavaFX thread keeps running pulses and heartbeats
+ * in the dialog's nested event loop. Heartbeats are only posted one at a time, so an idle application costs one
+ * short task on the JavaFX thread per interval.
+ */
+public class FxStallWatchdog {
+
+    // Latency of the JavaFX thread above which it counts as stalled
+    public static final long DEFAULT_THRESHOLD_MILLIS = 200;
+    // Interval between heartbeats; also how soon a stall is noticed after crossing the threshold
+    public static final long DEFAULT_PROBE_INTERVAL_MILLIS = 50;
+
+    private static final String CONTROLLER_PACKAGE = "com.thereadingroom.controller.";
+    private static final String APPLICATION_PACKAGE = "com.thereadingroom.";
+    private static final String WATCHDOG_PACKAGE = FxStallWatchdog.class.getPackageName() + ".";
+    private static final String UNATTRIBUTED = "(no controller method)";
+    private static final int RECENT_STALLS = 20;
+
+    private static FxStallWatchdog instance;
+
+    private final long thresholdNanos;                 // Heartbeat latency that counts as a stall
+    private final long probeIntervalMillis;            // Interval between heartbeats
+    private final Executor uiExecutor;                 // Runs heartbeats on the UI thread
+    private final Map<String, Offender> offenders = new ConcurrentHashMap<>();  // Handler -> stalls it caused
+    private final Deque<Stall> recentStalls = new ArrayDeque<>();              // Latest stalls, newest first
+    private final AtomicReference<Stall> capturedStall = new AtomicReference<>();  // Stall in progress, if captured
+    private final Object windowLock = new Object();    // Guards the latency window below
+
+    private volatile Thread uiThread;                  // The UI thread, known after the first heartbeat
+    private volatile long probePostedAt;               // When the outstanding heartbeat was posted, 0 if none
+    private volatile FxStallEvent probeEvent;          // Flight recorder event timing the outstanding heartbeat
+    private ScheduledExecutorService scheduler;        // Runs the watchdog, while started
+    private ScheduledFuture<?> task;                   // The periodic check, while started
+    private long windowProbes;                         // Heartbeats since the last FxLatencyEvent
+    private long windowMaxNanos;                       // Slowest heartbeat since the last FxLatencyEvent
+    private long windowStalls;                         // Stalls since the last FxLatencyEvent
+    private final Runnable latencyHook = this::emitLatencyEvent;  // Periodic FxLatencyEvent hook
+
+    /**
+     * Private constructor for the singleton, watching the JavaFX application thread.
+     */
+    private FxStallWatchdog() {
+        this(DEFAULT_THRESHOLD_MILLIS, DEFAULT_PROBE_INTERVAL_MILLIS, Platform::runLater);
+    }
+
+    /**
+     * Creates a watchdog for the thread that runs the given executor's tasks.
+     *
+     * @param thresholdMillis     Latency of the UI thread above which it counts as stalled.
+     * @param probeIntervalMillis Interval between heartbeats.
+     * @param uiExecutor          Runs tasks on the watched UI thread.
+     */
+    public FxStallWatchdog(long thresholdMillis, long probeIntervalMillis, Executor uiExecutor) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.probeIntervalMillis = probeIntervalMillis;
+        this.uiExecutor = uiExecutor;
+    }
+
+    /**
+     * Returns the singleton instance of FxStallWatchdog.
+     *
+     * @return The singleton instance.
+     */
+    public static synchronized FxStallWatchdog getInstance() {
+        if (instance == null) {
+            instance = new FxStallWatchdog();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts watching the UI thread. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx-stall-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        task = scheduler.scheduleAtFixedRate(this::check, probeIntervalMillis, probeIntervalMillis, TimeUnit.MILLISECONDS);
+        FlightRecorder.addPeriodicEvent(FxLatencyEvent.class, latencyHook);
+    }
+
+    /**
+     * Stops watching the UI thread. The statistics are kept.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        task.cancel(false);
+        scheduler.shutdownNow();
+        scheduler = null;
+        FlightRecorder.removePeriodicEvent(latencyHook);
+    }
+
+    /**
+     * Checks the outstanding heartbeat, or posts a new one (watchdog thread).
+     * A heartbeat that is late by more than the threshold means the UI thread is stalled: its stack is captured
+     * once, while the thread is still stuck, so the stall can be attributed when it ends.
+     */
+    void check() {
+        long postedAt = probePostedAt;
+        if (postedAt == 0) {
+            FxStallEvent event = new FxStallEvent();
+            event.begin();
+            long now = System.nanoTime();
+            probeEvent = event;
+            probePostedAt = now;
+            uiExecutor.execute(() -> onHeartbeat(now));
+            return;
+        }
+        long now = System.nanoTime();
+        Thread thread = uiThread;
+        if (now - postedAt >= thresholdNanos && thread != null && capturedStall.get() == null) {
+            capturedStall.compareAndSet(null, Stall.capture(postedAt, thread.getStackTrace()));
+        }
+    }
+
+    /**
+     * Measures a heartbeat's latency and records a stall if it was late by more than the threshold (UI thread).
+     *
+     * @param postedAt When the heartbeat was posted.
+     */
+    private void onHeartbeat(long postedAt) {
+        uiThread = Thread.currentThread();
+        long latency = System.nanoTime() - postedAt;
+        FxStallEvent event = probeEvent;
+        probePostedAt = 0;
+
+        Stall captured = capturedStall.getAndSet(null);
+        boolean stalled = latency >= thresholdNanos;
+        synchronized (windowLock) {
+            windowProbes++;
+            windowMaxNanos = Math.max(windowMaxNanos, latency);
+            if (stalled) {
+                windowStalls++;
+            }
+        }
+        if (!stalled) {
+            return;
+        }
+
+        Stall stall = captured != null && captured.postedAt == postedAt
+                ? captured.withDuration(latency)
+                : Stall.unattributed(postedAt, latency);
+        record(stall);
+        event.end();
+        if (event.shouldCommit()) {
+            event.stallMillis = TimeUnit.NANOSECONDS.toMillis(latency);
+            event.handler = stall.handler;
+            event.topFrame = stall.topFrame;
+            event.stack = stall.stack;
+            event.commit();
+        }
+        System.out.println("JavaFX thread stalled for " + TimeUnit.NANOSECONDS.toMillis(latency) + " ms in "
+                + stall.handler + (stall.topFrame != null ? " at " + stall.topFrame : ""));
+    }
+
+    /**
+     * Adds a stall to the per-handler statistics and the recent stalls.
+     *
+     * @param stall The stall.
+     */
+    void record(Stall stall) {
+        offenders.computeIfAbsent(stall.handler, handler -> new Offender()).record(stall);
+        synchronized (recentStalls) {
+            recentStalls.addFirst(stall);
+            if (recentStalls.size() > RECENT_STALLS) {
+                recentStalls.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Returns the controller methods that stalled the UI thread the longest in total.
+     *
+     * @param limit The maximum number of handlers to return.
+     * @return Statistics by handler, worst first.
+     */
+    public List<StallStats> getWorstOffenders(int limit) {
+        List<StallStats> stats = new ArrayList<>();
+        offenders.forEach((handler, offender) -> stats.add(offender.snapshot(handler)));
+        stats.sort(Comparator.comparingLong(StallStats::getTotalNanos).reversed());
+        return stats.size() > limit ? new ArrayList<>(stats.subList(0, limit)) : stats;
+    }
+
+    /**
+     * Returns the latest stalls as log lines, newest first.
+     *
+     * @return One line per stall.
+     */
+    public List<String> getRecentStalls() {
+        List<String> lines = new ArrayList<>();
+        synchronized (recentStalls) {
+            for (Stall stall : recentStalls) {
+                lines.add(TimeUnit.NANOSECONDS.toMillis(stall.durationNanos) + " ms  " + stall.handler);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Clears the statistics and recent stalls.
+     */
+    public void reset() {
+        offenders.clear();
+        synchronized (recentStalls) {
+            recentStalls.clear();
+        }
+    }
+
+    /**
+     * Returns the stall threshold.
+     *
+     * @return The threshold in milliseconds.
+     */
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * Emits the UI thread's latency since the previous emission to Java Flight Recorder (recorder thread).
+     */
+    private void emitLatencyEvent() {
+        FxLatencyEvent event = new FxLatencyEvent();
+        synchronized (windowLock) {
+            event.heartbeats = windowProbes;
+            event.maxLatencyMillis = TimeUnit.NANOSECONDS.toMillis(windowMaxNanos);
+            event.stalls = windowStalls;
+            windowProbes = 0;
+            windowMaxNanos = 0;
+            windowStalls = 0;
+        }
+        event.commit();
+    }
+
+    /**
+     * Returns the controller method a stack is executing: the outermost controller frame of the innermost event
+     * handler, ignoring handlers that are suspended in a nested event loop (an open modal dialog) further down.
+     * Lambdas are reported as the method that declares them.
+     *
+     * @param stack The stack, innermost frame first.
+     * @return The method as "Controller.method", or null if no controller method is in progress.
+     */
+    static String findHandler(StackTraceElement[] stack) {
+        String handler = null;
+        for (StackTraceElement frame : stack) {
+            if (frame.getMethodName().equals("enterNestedEventLoop")) {
+                break;
+            }
+            if (frame.getClassName().startsWith(CONTROLLER_PACKAGE)) {
+                handler = describe(frame);
+            }
+        }
+        return handler;
+    }
+
+    /**
+     * Returns the innermost application frame of a stack, where the UI thread was actually stuck.
+     *
+     * @param stack The stack, innermost frame first.
+     * @return The frame as "Class.method:line", or null if no application code is on the stack.
+     */
+    static String findTopFrame(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (className.startsWith(APPLICATION_PACKAGE) && !className.startsWith(WATCHDOG_PACKAGE)) {
+                return describe(frame) + ":" + frame.getLineNumber();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Describes a frame as its simple class name and method, resolving lambdas to their declaring method.
+     */
+    private static String describe(StackTraceElement frame) {
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int nested = simpleName.indexOf('$');
+        if (nested >= 0) {
+            simpleName = simpleName.substring(0, nested);
+        }
+        String method = frame.getMethodName();
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', "lambda$".length());
+            method = method.substring("lambda$".length(), end > 0 ? end : method.length());
+        }
+        return simpleName + "." + method;
+    }
+
+    /**
+     * One stall of the UI thread.
+     */
+    static final class Stall {
+
+        private final long postedAt;       // When the late heartbeat was posted
+        private final long durationNanos;  // How long the heartbeat waited, 0 while the stall is in progress
+        private final String handler;      // Controller method in progress
+        private final String topFrame;     // Innermost application frame, or null
+        private final String stack;        // Captured stack, or null if the stall ended before it was captured
+
+        Stall(long postedAt, long durationNanos, String handler, String topFrame, String stack) {
+            this.postedAt = postedAt;
+            this.durationNanos = durationNanos;
+            this.handler = handler;
+            this.topFrame = topFrame;
+            this.stack = stack;
+        }
+
+        static Stall capture(long postedAt, StackTraceElement[] frames) {
+            String handler = findHandler(frames);
+            StringBuilder stack = new StringBuilder();
+            for (StackTraceElement frame : frames) {
+                stack.append("at ").append(frame).append('\n');
+            }
+            return new Stall(postedAt, 0, handler != null ? handler : UNATTRIBUTED, findTopFrame(frames), stack.toString());
+        }
+
+        static Stall unattributed(long postedAt, long durationNanos) {
+            return new Stall(postedAt, durationNanos, UNATTRIBUTED, null, null);
+        }
+
+        Stall withDuration(long nanos) {
+            return new Stall(postedAt, nanos, handler, topFrame, stack);
+        }
+    }
+
+    /**
+     * Running stall statistics of one controller method.
+     */
+    private static final class Offender {
+
+        private long stalls;        // Stalls caused
+        private long totalNanos;    // Total stall time
+        private long maxNanos;      // Longest stall
+        private String topFrame;    // Innermost application frame of the latest stall
+        private String stack;       // Stack of the latest stall
+
+        synchronized void record(Stall stall) {
+            stalls++;
+            totalNanos += stall.durationNanos;
+            maxNanos = Math.max(maxNanos, stall.durationNanos);
+            topFrame = stall.topFrame;
+            stack = stall.stack;
+        }
+
+        synchronized StallStats snapshot(String handler) {
+            return new StallStats(handler, stalls, totalNanos, maxNanos, topFrame, stack);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.thereadingroom.utils.ui.stall;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.VBox;
+import javafx.stage.Popup;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.List;
+
+/**
+ * Floating panel listing the controller methods that stalled the JavaFX thread the longest, for admins.
+ * It stays in the top right corner of its window across screen changes and refreshes every second; hovering
+ * over a handler shows the JavaFX thread's stack during its latest stall.
+ * It is built in code rather than from FXML so it can be opened over any screen.
+ * All methods must be called on the JavaFX application thread.
+ */
+public final class StallOverlay {
+
+    private static final int OFFENDERS_SHOWN = 8;
+    private static final double MARGIN = 16;
+
+    private static StallOverlay instance;
+
+    private final FxStallWatchdog watchdog;  // Source of the stall statistics
+    private final Popup popup = new Popup(); // The floating panel
+    private final VBox offenderList = new VBox(4);  // One line per handler
+    private final Label summaryLabel = new Label();  // Threshold and latest stalls
+    private final Timeline refresh;          // Refreshes the panel while shown
+
+    /**
+     * Private constructor for the singleton, showing the application's watchdog.
+     */
+    private StallOverlay() {
+        this(FxStallWatchdog.getInstance());
+    }
+
+    /**
+     * Builds the panel for a watchdog without showing it.
+     *
+     * @param watchdog The watchdog whose statistics are shown.
+     */
+    public StallOverlay(FxStallWatchdog watchdog) {
+        this.watchdog = watchdog;
+
+        Label titleLabel = new Label("UI stalls (JavaFX thread busy over " + watchdog.getThresholdMillis() + " ms)");
+        titleLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: white;");
+        summaryLabel.setStyle("-fx-text-fill: #d0d0d0;");
+        Button resetButton = new Button("Reset");
+        resetButton.setOnAction(event -> {
+            watchdog.reset();
+            update();
+        });
+        Button closeButton = new Button("Close");
+        closeButton.setOnAction(event -> hide());
+
+        VBox root = new VBox(8, titleLabel, offenderList, summaryLabel, new VBox(4, resetButton, closeButton));
+        root.setStyle("-fx-background-color: rgba(30, 30, 30, 0.85); -fx-background-radius: 8; -fx-padding: 12;");
+        root.setPrefWidth(460);
+        popup.getContent().add(root);
+
+        refresh = new Timeline(new KeyFrame(Duration.seconds(1), event -> update()));
+        refresh.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    /**
+     * Returns the singleton instance of StallOverlay.
+     *
+     * @return The singleton instance.
+     */
+    public static synchronized StallOverlay getInstance() {
+        if (instance == null) {
+            instance = new StallOverlay();
+        }
+        return instance;
+    }
+
+    /**
+     * Shows the panel over a window, or hides it if it is already shown.
+     *
+     * @param owner The window to show the panel over.
+     */
+    public void toggle(Window owner) {
+        if (popup.isShowing()) {
+            hide();
+        } else {
+            show(owner);
+        }
+    }
+
+    /**
+     * Shows the panel in the top right corner of a window.
+     *
+     * @param owner The window to show the panel over.
+     */
+    public void show(Window owner) {
+        update();
+        popup.show(owner);
+        popup.setX(owner.getX() + owner.getWidth() - popup.getWidth() - MARGIN);
+        popup.setY(owner.getY() + MARGIN * 2);
+        refresh.play();
+    }
+
+    /**
+     * Hides the panel.
+     */
+    public void hide() {
+        refresh.stop();
+        popup.hide();
+    }
+
+    /**
+     * Refreshes the list of worst offenders.
+     */
+    private void update() {
+        offenderList.getChildren().clear();
+        List<StallStats> offenders = watchdog.getWorstOffenders(OFFENDERS_SHOWN);
+        if (offenders.isEmpty()) {
+            offenderList.getChildren().add(line("No stalls recorded."));
+        }
+        for (StallStats stats : offenders) {
+            Label label = line(stats.toString());
+            if (stats.getStack() != null) {
+                Tooltip tooltip = new Tooltip(stats.getStack());
+                tooltip.setStyle("-fx-font-family: monospace;");
+                label.setTooltip(tooltip);
+            }
+            offenderList.getChildren().add(label);
+        }
+        List<String> recent = watchdog.getRecentStalls();
+        summaryLabel.setText(recent.isEmpty() ? "" : "Latest: " + recent.get(0));
+    }
+
+    /**
+     * Creates a line of the panel.
+     */
+    private static Label line(String text) {
+        Label label = new Label(text);
+        label.setWrapText(true);
+        label.setStyle("-fx-text-fill: white;");
+        return label;
+    }
+}
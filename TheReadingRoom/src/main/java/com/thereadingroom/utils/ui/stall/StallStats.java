@@ -0,0 +1,93 @@
+package com.thereadingroom.utils.ui.stall;
+
+/**
+ * Snapshot of the stalls of the JavaFX application thread caused by one controller method.
+ */
+public class StallStats {
+
+    private final String handler;      // Controller method, as "Controller.method"
+    private final long stalls;         // Stalls it caused
+    private final long totalNanos;     // Total stall time
+    private final long maxNanos;       // Longest stall
+    private final String topFrame;     // Innermost application frame of the latest stall, or null
+    private final String stack;        // JavaFX thread stack of the latest stall, or null if not captured
+
+    /**
+     * Creates a snapshot of a controller method's stalls.
+     *
+     * @param handler    The controller method.
+     * @param stalls     Stalls it caused.
+     * @param totalNanos Total stall time in nanoseconds.
+     * @param maxNanos   Longest stall in nanoseconds.
+     * @param topFrame   Innermost application frame of the latest stall, or null.
+     * @param stack      Stack of the latest stall, or null.
+     */
+    public StallStats(String handler, long stalls, long totalNanos, long maxNanos, String topFrame, String stack) {
+        this.handler = handler;
+        this.stalls = stalls;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.topFrame = topFrame;
+        this.stack = stack;
+    }
+
+    /**
+     * Returns the controller method.
+     *
+     * @return The method as "Controller.method".
+     */
+    public String getHandler() {
+        return handler;
+    }
+
+    /**
+     * Returns the number of stalls the method caused.
+     *
+     * @return The stall count.
+     */
+    public long getStalls() {
+        return stalls;
+    }
+
+    /**
+     * Returns the total time the method stalled the JavaFX thread.
+     *
+     * @return The total stall time in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the longest stall caused by the method.
+     *
+     * @return The longest stall in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns where the JavaFX thread was stuck during the latest stall.
+     *
+     * @return The innermost application frame as "Class.method:line", or null if unknown.
+     */
+    public String getTopFrame() {
+        return topFrame;
+    }
+
+    /**
+     * Returns the JavaFX thread's stack during the latest stall.
+     *
+     * @return The stack, one frame per line, or null if the stall ended before it was captured.
+     */
+    public String getStack() {
+        return stack;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d stalls, total %.0f ms, max %.0f ms%s", handler, stalls,
+                totalNanos / 1_000_000.0, maxNanos / 1_000_000.0, topFrame != null ? ", at " + topFrame : "");
+    }
+}
@@ -0,0 +1,138 @@
+package com.thereadingroom.utils.ui.store;
+
+import com.thereadingroom.model.dao.cdc.ChangeDataCapture;
+import com.thereadingroom.model.entity.Book;
+import com.thereadingroom.service.book.IBookService;
+import com.thereadingroom.utils.event.DomainEvent;
+import com.thereadingroom.utils.event.DomainEventBus;
+import com.thereadingroom.utils.event.DomainEventHandler;
+import com.thereadingroom.utils.event.DomainEventType;
+import javafx.application.Platform;
+import javafx.beans.Observable;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The catalog shown by the admin stock table and the shopper book tables.
+ * The books are loaded once, as compact views of the catalog snapshot rather than separate entities (the snapshot
+ * is updated before the events are published, so nothing is missed). After that, stock and catalog events patch
+ * single rows (stock values come with the event, added and edited books are re-read one by one), and committed
+ * writes to the books table that bypass the DAOs are picked up through change data capture. Changed books are
+ * re-read on the thread that delivered the change, so the JavaFX thread only applies the results. Sold copies are
+ * reported as list updates, so rankings by sales re-sort as books sell.
+ */
+public class BookStore extends ObservableEntityStore<Book> {
+
+    private final IBookService bookService;  // Service providing the catalog snapshot and re-reading changed books
+    private boolean loaded;                  // Whether the catalog was loaded and changes are being followed
+
+    /**
+     * Creates an empty book store.
+     *
+     * @param bookService Service providing the catalog snapshot and re-reading changed books.
+     */
+    public BookStore(IBookService bookService) {
+        super(Book::getBookId, Book::copyFrom, book -> new Observable[]{book.soldCopiesProperty()});
+        this.bookService = bookService;
+    }
+
+    /**
+     * Loads the catalog on first use and starts following changes to it (JavaFX thread).
+     * Later calls return the same, already current list without querying the database.
+     *
+     * @return The books of the catalog.
+     */
+    public ObservableList<Book> load() {
+        if (!loaded) {
+            // Follow changes before loading, so nothing committed in between is missed (it is applied after the load)
+            DomainEventBus.getInstance().subscribe("book-store", new CatalogChangeHandler(),
+                    DomainEventType.STOCK_CHANGED, DomainEventType.BOOK_UPDATED, DomainEventType.BOOK_DELETED);
+            ChangeDataCapture.getInstance().addListener(changes -> {
+                Set<Integer> changedBooks = new HashSet<>();
+                changes.getRowIds("books").forEach(rowId -> changedBooks.add(rowId.intValue()));
+                Map<Integer, Book> latest = readBooks(changedBooks, Set.of());
+                Platform.runLater(() -> applyChanges(Map.of(), latest, Set.of()));
+            }, "books");
+            replaceAll(bookService.getCatalogSnapshot().views());
+            loaded = true;
+        }
+        return getRows();
+    }
+
+    /**
+     * Re-reads added or edited books (off the JavaFX thread).
+     *
+     * @param updatedBooks IDs of books that were added or edited.
+     * @param deletedBooks IDs of books that were removed, which are not read.
+     * @return The latest version of each book by ID, mapped to null if the book no longer exists.
+     */
+    Map<Integer, Book> readBooks(Set<Integer> updatedBooks, Set<Integer> deletedBooks) {
+        Map<Integer, Book> latest = new HashMap<>();
+        for (int bookId : updatedBooks) {
+            if (!deletedBooks.contains(bookId)) {
+                latest.put(bookId, bookService.findBookById(bookId));
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Applies a batch of stock and catalog changes to the affected rows (JavaFX thread).
+     *
+     * @param stockChanges New {physical, sold} copies by book ID.
+     * @param updatedBooks Re-read books that were added or edited, mapped to null if they no longer exist.
+     * @param deletedBooks IDs of books that were removed.
+     */
+    void applyChanges(Map<Integer, int[]> stockChanges, Map<Integer, Book> updatedBooks, Set<Integer> deletedBooks) {
+        deletedBooks.forEach(this::remove);
+        stockChanges.forEach((bookId, stock) -> update(bookId, book -> {
+            book.setPhysicalCopies(stock[0]);
+            book.setSoldCopies(stock[1]);
+        }));
+        updatedBooks.forEach((bookId, latest) -> {
+            if (latest == null) {
+                remove(bookId);  // Deleted by a write that bypassed the DAOs
+            } else {
+                upsert(latest);
+            }
+        });
+    }
+
+    /**
+     * Collects stock and catalog events on the subscriber thread, re-reads the changed books there and hands each
+     * batch to the JavaFX thread in one go.
+     */
+    private final class CatalogChangeHandler implements DomainEventHandler {
+
+        private Map<Integer, int[]> stockChanges = new HashMap<>();  // Latest {physical, sold} copies by book ID
+        private Set<Integer> updatedBooks = new HashSet<>();         // Books added or edited in this batch
+        private Set<Integer> deletedBooks = new HashSet<>();         // Books removed in this batch
+
+        @Override
+        public void onEvent(DomainEvent event) {
+            switch (event.getType()) {
+                case STOCK_CHANGED -> stockChanges.put(event.getEntityId(), new int[]{(int) event.getValue(), event.getRelatedId()});
+                case BOOK_UPDATED -> updatedBooks.add(event.getEntityId());
+                case BOOK_DELETED -> deletedBooks.add(event.getEntityId());
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void onEndOfBatch() {
+            Map<Integer, int[]> stock = stockChanges;
+            Set<Integer> updated = updatedBooks;
+            Set<Integer> deleted = deletedBooks;
+            stockChanges = new HashMap<>();
+            updatedBooks = new HashSet<>();
+            deletedBooks = new HashSet<>();
+            Map<Integer, Book> latest = readBooks(updated, deleted);
+            Platform.runLater(() -> applyChanges(stock, latest, deleted));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.thereadingroom.utils.ui.store;
+
+import javafx.beans.Observable;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.util.Callback;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * An observable list of entities indexed by ID, shared by every table that shows them.
+ * Each entity is held by exactly one instance: a changed entity is copied into the instance that is
+ * already shown instead of replacing it, so only the bound cells of its row update, and the table keeps
+ * its scroll position and selection. Tables filter or sort the rows through FilteredList and SortedList views.
+ * Once the rows are shown, the store must only be changed on the JavaFX application thread.
+ *
+ * @param <T> The entity type.
+ */
+public class ObservableEntityStore<T> {
+
+    private final ToIntFunction<T> idOf;                  // Reads an entity's ID
+    private final BiConsumer<T, T> patcher;               // Copies a fresh entity (second) into the shown instance (first)
+    private final ObservableList<T> rows;                 // The shown instances, in load order
+    private final ObservableList<T> readOnlyRows;         // Read-only view handed to tables
+    private final Map<Integer, T> rowsById = new HashMap<>();  // ID -> shown instance
+
+    /**
+     * Creates an empty store.
+     *
+     * @param idOf    Reads an entity's ID.
+     * @param patcher Copies the values of a fresh entity (second argument) into the shown instance (first argument).
+     */
+    public ObservableEntityStore(ToIntFunction<T> idOf, BiConsumer<T, T> patcher) {
+        this(idOf, patcher, null);
+    }
+
+    /**
+     * Creates an empty store whose list also reports changes to some properties of its entities,
+     * so sorted and filtered views re-evaluate a row when one of those properties changes.
+     *
+     * @param idOf      Reads an entity's ID.
+     * @param patcher   Copies the values of a fresh entity (second argument) into the shown instance (first argument).
+     * @param extractor Returns the properties whose changes are reported as list updates, or null for none.
+     */
+    public ObservableEntityStore(ToIntFunction<T> idOf, BiConsumer<T, T> patcher, Callback<T, Observable[]> extractor) {
+        this.idOf = idOf;
+        this.patcher = patcher;
+        this.rows = extractor == null ? FXCollections.observableArrayList() : FXCollections.observableArrayList(extractor);
+        this.readOnlyRows = FXCollections.unmodifiableObservableList(rows);
+    }
+
+    /**
+     * Returns the shown entities as a read-only observable list.
+     *
+     * @return The entities of the store.
+     */
+    public ObservableList<T> getRows() {
+        return readOnlyRows;
+    }
+
+    /**
+     * Returns the shown instance of an entity.
+     *
+     * @param id The entity ID.
+     * @return The instance, or null if the store does not hold the entity.
+     */
+    public T get(int id) {
+        return rowsById.get(id);
+    }
+
+    /**
+     * Returns the number of entities in the store.
+     *
+     * @return The entity count.
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Reconciles the store with a complete list of entities: known entities are patched in place,
+     * new ones are appended and entities missing from the list are removed.
+     *
+     * @param fresh The complete, current list of entities.
+     */
+    public void replaceAll(Collection<? extends T> fresh) {
+        Map<Integer, T> stale = new HashMap<>(rowsById);
+        List<T> added = new ArrayList<>();
+        for (T entity : fresh) {
+            int id = idOf.applyAsInt(entity);
+            T shown = rowsById.get(id);
+            if (shown == null) {
+                rowsById.put(id, entity);
+                added.add(entity);
+            } else {
+                stale.remove(id);
+                if (shown != entity) {
+                    patcher.accept(shown, entity);
+                }
+            }
+        }
+        if (!stale.isEmpty()) {
+            Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            removed.addAll(stale.values());
+            stale.keySet().forEach(rowsById::remove);
+            rows.removeAll(removed);
+        }
+        rows.addAll(added);
+    }
+
+    /**
+     * Appends entities after the shown ones, for instance the next page of a query.
+     * Entities that are already shown are patched in place instead.
+     *
+     * @param more The entities to append.
+     */
+    public void appendAll(Collection<? extends T> more) {
+        List<T> added = new ArrayList<>();
+        for (T entity : more) {
+            int id = idOf.applyAsInt(entity);
+            T shown = rowsById.get(id);
+            if (shown == null) {
+                rowsById.put(id, entity);
+                added.add(entity);
+            } else if (shown != entity) {
+                patcher.accept(shown, entity);
+            }
+        }
+        rows.addAll(added);
+    }
+
+    /**
+     * Removes every entity, for instance before showing the results of a different query.
+     */
+    public void clear() {
+        rowsById.clear();
+        rows.clear();
+    }
+
+    /**
+     * Adds a new entity, or copies its values into the instance that is already shown.
+     *
+     * @param fresh The current state of the entity.
+     * @return The shown instance.
+     */
+    public T upsert(T fresh) {
+        int id = idOf.applyAsInt(fresh);
+        T shown = rowsById.get(id);
+        if (shown == null) {
+            rowsById.put(id, fresh);
+            rows.add(fresh);
+            return fresh;
+        }
+        if (shown != fresh) {
+            patcher.accept(shown, fresh);
+        }
+        return shown;
+    }
+
+    /**
+     * Applies a change to the shown instance of an entity, if the store holds it.
+     *
+     * @param id     The entity ID.
+     * @param change The change, typically a few setter calls.
+     * @return The changed instance, or null if the store does not hold the entity.
+     */
+    public T update(int id, Consumer<T> change) {
+        T shown = rowsById.get(id);
+        if (shown != null) {
+            change.accept(shown);
+        }
+        return shown;
+    }
+
+    /**
+     * Removes an entity from the store.
+     *
+     * @param id The entity ID.
+     * @return true if the store held the entity.
+     */
+    public boolean remove(int id) {
+        T shown = rowsById.remove(id);
+        if (shown == null) {
+            return false;
+        }
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            if (rows.get(i) == shown) {
+                rows.remove(i);
+                break;
+            }
+        }
+        return true;
+    }
+}
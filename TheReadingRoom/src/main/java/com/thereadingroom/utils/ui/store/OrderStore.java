@@ -0,0 +1,86 @@
+package com.thereadingroom.utils.ui.store;
+
+import com.thereadingroom.model.dao.cdc.ChangeDataCapture;
+import com.thereadingroom.model.entity.Order;
+import com.thereadingroom.service.order.IOrderService;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The orders shown by the admin order table: the pages of the current order search loaded so far.
+ * The rows are filled by the search; after that, committed writes to the orders table (from any source)
+ * are picked up through change data capture, and shown orders that changed are re-read and patched or
+ * removed. Changed orders are re-read on the thread that delivered the change, so the JavaFX thread only
+ * applies the results. Newly placed orders appear when the search is run again.
+ */
+public class OrderStore extends ObservableEntityStore<Order> {
+
+    private final IOrderService orderService;  // Service used to re-read changed orders
+    private boolean following;                 // Whether changes are being followed
+
+    /**
+     * Creates an empty order store.
+     *
+     * @param orderService Service used to re-read changed orders.
+     */
+    public OrderStore(IOrderService orderService) {
+        super(Order::getOrderId, Order::copyFrom);
+        this.orderService = orderService;
+    }
+
+    /**
+     * Starts following changes to the shown orders on first use (JavaFX thread).
+     *
+     * @return The shown orders, in the order of the search.
+     */
+    public ObservableList<Order> follow() {
+        if (!following) {
+            ChangeDataCapture.getInstance().addListener(changes -> {
+                Set<Integer> changedOrders = new TreeSet<>();
+                changes.getRowIds("orders").forEach(rowId -> changedOrders.add(rowId.intValue()));
+                Map<Integer, Order> latest = readOrders(changedOrders);
+                Platform.runLater(() -> applyChanges(latest));
+            }, "orders");
+            following = true;
+        }
+        return getRows();
+    }
+
+    /**
+     * Re-reads the changed orders (off the JavaFX thread).
+     * Which orders are shown is only known on the JavaFX thread, so every changed order is read.
+     *
+     * @param changedOrders IDs of orders that were placed, changed or removed.
+     * @return The latest version of each order by ID, mapped to null if the order no longer exists.
+     */
+    Map<Integer, Order> readOrders(Set<Integer> changedOrders) {
+        Map<Integer, Order> latest = new HashMap<>();
+        for (int orderId : changedOrders) {
+            latest.put(orderId, orderService.getOrderById(orderId).orElse(null));
+        }
+        return latest;
+    }
+
+    /**
+     * Patches or removes the rows of the changed orders that are shown (JavaFX thread).
+     *
+     * @param changedOrders Re-read orders by ID, mapped to null if they no longer exist.
+     */
+    void applyChanges(Map<Integer, Order> changedOrders) {
+        changedOrders.forEach((orderId, latest) -> {
+            if (get(orderId) == null) {
+                return;  // Not shown; placed orders appear when the search is run again
+            }
+            if (latest == null) {
+                remove(orderId);
+            } else {
+                upsert(latest);
+            }
+        });
+    }
+}
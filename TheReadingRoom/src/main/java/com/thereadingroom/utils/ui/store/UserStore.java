@@ -0,0 +1,115 @@
+package com.thereadingroom.utils.ui.store;
+
+import com.thereadingroom.model.entity.User;
+import com.thereadingroom.service.user.IUserService;
+import com.thereadingroom.utils.event.DomainEvent;
+import com.thereadingroom.utils.event.DomainEventBus;
+import com.thereadingroom.utils.event.DomainEventHandler;
+import com.thereadingroom.utils.event.DomainEventType;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The user accounts shown by the admin user table.
+ * The users are loaded once; after that, registrations, profile edits and removals published on the
+ * DomainEventBus patch, add or remove single rows.
+ */
+public class UserStore extends ObservableEntityStore<User> {
+
+    private final IUserService userService;  // Service used to load the users and re-read changed users
+    private boolean loaded;                  // Whether the users were loaded and changes are being followed
+
+    /**
+     * Creates an empty user store.
+     *
+     * @param userService Service used to load the users and re-read changed users.
+     */
+    public UserStore(IUserService userService) {
+        super(User::getId, User::copyFrom);
+        this.userService = userService;
+    }
+
+    /**
+     * Loads the users on first use and starts following changes to them (JavaFX thread).
+     * Later calls return the same, already current list without querying the database.
+     *
+     * @return All users, including admins.
+     */
+    public ObservableList<User> load() {
+        if (!loaded) {
+            DomainEventBus.getInstance().subscribe("user-store", new UserChangeHandler(),
+                    DomainEventType.USER_UPDATED, DomainEventType.USER_DELETED);
+            replaceAll(userService.getAllUsers());
+            loaded = true;
+        }
+        return getRows();
+    }
+
+    /**
+     * Re-reads users who registered or were edited (off the JavaFX thread).
+     *
+     * @param updatedUsers IDs of users who registered or were edited.
+     * @param deletedUsers IDs of users who were removed, who are not read.
+     * @return The latest version of each user by ID, mapped to null if the user no longer exists.
+     */
+    Map<Integer, User> readUsers(Set<Integer> updatedUsers, Set<Integer> deletedUsers) {
+        Map<Integer, User> latest = new HashMap<>();
+        for (int userId : updatedUsers) {
+            if (!deletedUsers.contains(userId)) {
+                latest.put(userId, userService.getUserById(userId).orElse(null));
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Applies a batch of user changes to the affected rows (JavaFX thread).
+     *
+     * @param updatedUsers Re-read users who registered or were edited, mapped to null if they no longer exist.
+     * @param deletedUsers IDs of users who were removed.
+     */
+    void applyChanges(Map<Integer, User> updatedUsers, Set<Integer> deletedUsers) {
+        deletedUsers.forEach(this::remove);
+        updatedUsers.forEach((userId, latest) -> {
+            if (latest == null) {
+                remove(userId);
+            } else {
+                upsert(latest);
+            }
+        });
+    }
+
+    /**
+     * Collects user events on the subscriber thread, re-reads the changed users there and hands each batch
+     * to the JavaFX thread in one go.
+     */
+    private final class UserChangeHandler implements DomainEventHandler {
+
+        private Set<Integer> updatedUsers = new HashSet<>();  // Users registered or edited in this batch
+        private Set<Integer> deletedUsers = new HashSet<>();  // Users removed in this batch
+
+        @Override
+        public void onEvent(DomainEvent event) {
+            if (event.getType() == DomainEventType.USER_DELETED) {
+                deletedUsers.add(event.getEntityId());
+            } else {
+                updatedUsers.add(event.getEntityId());
+            }
+        }
+
+        @Override
+        public void onEndOfBatch() {
+            Set<Integer> updated = updatedUsers;
+            Set<Integer> deleted = deletedUsers;
+            updatedUsers = new HashSet<>();
+            deletedUsers = new HashSet<>();
+            Map<Integer, User> latest = readUsers(updated, deleted);
+            Platform.runLater(() -> applyChanges(latest, deleted));
+        }
+    }
+}
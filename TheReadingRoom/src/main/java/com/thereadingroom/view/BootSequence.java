@@ -0,0 +1,162 @@
+package com.thereadingroom.view;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the startup phases concurrently on a small pool of background threads.
+ *
+ * Each phase starts as soon as the phases it depends on have completed, and is timed and logged when it
+ * finishes. If a phase fails, the phases depending on it are skipped and whenDone completes with its error.
+ * A listener (the splash screen) hears a status line whenever a phase starts or finishes.
+ */
+public class BootSequence {
+
+    private final long startNanos = System.nanoTime();                  // When the sequence was created
+    private final ExecutorService executor;                             // Runs the phases
+    private final List<CompletableFuture<?>> phases = new ArrayList<>();  // Every phase, in the order added
+    private final Map<String, Long> phaseMillis = new LinkedHashMap<>();  // Duration of each finished phase
+    private final AtomicInteger finishedPhases = new AtomicInteger();   // Phases finished so far
+    private volatile Consumer<String> listener = status -> { };         // Hears the status lines
+
+    /**
+     * Creates a boot sequence running its phases on the given number of daemon threads.
+     *
+     * @param threads The number of phases that can run at the same time.
+     */
+    public BootSequence(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "boot-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a phase that runs once the given phases have completed.
+     *
+     * @param name  The phase name, used in the logs and on the splash screen.
+     * @param task  The work of the phase.
+     * @param after The phases it depends on.
+     * @return The phase, completing when its work is done.
+     */
+    public CompletableFuture<Void> run(String name, Runnable task, CompletableFuture<?>... after) {
+        return supply(name, () -> {
+            task.run();
+            return null;
+        }, after);
+    }
+
+    /**
+     * Adds a phase producing a value, which runs once the given phases have completed.
+     *
+     * @param name  The phase name, used in the logs and on the splash screen.
+     * @param task  The work of the phase.
+     * @param after The phases it depends on.
+     * @param <T>   The type of the value.
+     * @return The phase, completing with the value produced.
+     */
+    public <T> CompletableFuture<T> supply(String name, Supplier<T> task, CompletableFuture<?>... after) {
+        CompletableFuture<T> phase = CompletableFuture.allOf(after).thenApplyAsync(ignored -> {
+            listener.accept("Starting " + name + "...");
+            long phaseStart = System.nanoTime();
+            T value = task.get();
+            long millis = (System.nanoTime() - phaseStart) / 1_000_000;
+            synchronized (phaseMillis) {
+                phaseMillis.put(name, millis);
+            }
+            System.out.println("Startup phase '" + name + "' took " + millis + " ms on " + Thread.currentThread().getName() + ".");
+            listener.accept(statusLine(name));
+            return value;
+        }, executor);
+        synchronized (phases) {
+            phases.add(phase);
+        }
+        return phase;
+    }
+
+    /**
+     * Sets the listener hearing the status lines, and tells it the current status right away.
+     *
+     * @param listener The listener, called on the boot threads.
+     */
+    public void setListener(Consumer<String> listener) {
+        this.listener = listener;
+        listener.accept(finishedPhases.get() == 0 ? "Starting..." : "Started " + finishedPhases.get() + " of " + phaseCount() + " parts");
+    }
+
+    /**
+     * Returns a future completing once every phase added so far has completed, and shuts down the boot threads.
+     *
+     * @return The future, failing with the error of the first failed phase.
+     */
+    public CompletableFuture<Void> whenDone() {
+        CompletableFuture<?>[] all;
+        synchronized (phases) {
+            all = phases.toArray(new CompletableFuture<?>[0]);
+        }
+        return CompletableFuture.allOf(all).whenComplete((ignored, error) -> executor.shutdown());
+    }
+
+    /**
+     * Returns the duration of each finished phase, in the order they finished.
+     *
+     * @return Milliseconds by phase name.
+     */
+    public Map<String, Long> getPhaseMillis() {
+        synchronized (phaseMillis) {
+            return new LinkedHashMap<>(phaseMillis);
+        }
+    }
+
+    /**
+     * Returns the time since the sequence was created.
+     *
+     * @return The elapsed milliseconds.
+     */
+    public long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Logs how long startup took: since the JVM started, since the sequence was created, and how much of the
+     * phases' total time was saved by running them concurrently.
+     *
+     * @param milestone What was reached, e.g. "Login screen shown".
+     */
+    public void logSummary(String milestone) {
+        long elapsed = elapsedMillis();
+        long serial = getPhaseMillis().values().stream().mapToLong(Long::longValue).sum();
+        String sinceJvm = ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis() + " ms after JVM start, ")
+                .orElse("");
+        System.out.println(milestone + " " + sinceJvm + elapsed + " ms after boot began (phases took " + serial + " ms in total: " + getPhaseMillis() + ").");
+    }
+
+    /**
+     * Builds the status line shown after a phase finished.
+     */
+    private String statusLine(String name) {
+        return "Started " + name + " (" + finishedPhases.incrementAndGet() + " of " + phaseCount() + ")";
+    }
+
+    /**
+     * Returns the number of phases added.
+     */
+    private int phaseCount() {
+        synchronized (phases) {
+            return phases.size();
+        }
+    }
+}
@@ -1,67 +1,185 @@
 package com.thereadingroom.view;
 
 import com.thereadingroom.config.AppConfig;
+import com.thereadingroom.model.dao.catalog.BookCatalog;
+import com.thereadingroom.model.dao.database.Database;
 import com.thereadingroom.model.dao.database.DatabaseInitializer;
+import com.thereadingroom.model.dao.ledger.StockLedger;
+import com.thereadingroom.service.checkout.CheckoutService;
+import com.thereadingroom.service.inventory.InventoryService;
+import com.thereadingroom.service.inventory.flashsale.FlashSaleManager;
+import com.thereadingroom.service.recommendation.RecommendationService;
+import com.thereadingroom.utils.event.DomainEventBus;
 import com.thereadingroom.utils.ui.SpringFXMLLoader;
+import com.thereadingroom.utils.ui.stall.FxStallWatchdog;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.css.CssParser;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Main entry point for the JavaFX application.
  * This class is responsible for bootstrapping the Spring application context and launching the JavaFX UI.
+ * Startup runs as a boot sequence of concurrent phases behind a splash screen: the Spring context, the database
+ * and the preloading of the login screen proceed in parallel, and the login screen replaces the splash once all
+ * of them are done.
  */
 public class Main extends Application {
 
-    private ApplicationContext springContext;  // Spring application context for managing beans
+    private static final String LOGIN_FXML = "/com/thereadingroom/fxml/common/login.fxml";
+    // Stylesheets of the screens shown after login, parsed during startup so their first use is quicker
+    private static final List<String> PRELOADED_STYLESHEETS = List.of("/com/thereadingroom/css/table-style.css");
+
+    private BootSequence boot;                                  // Startup phases, running on background threads
+    private CompletableFuture<ApplicationContext> springPhase;  // Creates the Spring context
+    private CompletableFuture<Parent> loginViewPhase;           // Loads the login screen
 
     /**
      * Initializes the application.
-     * This method sets up the Spring context and initializes the database.
+     * This method starts the startup phases on background threads and returns without waiting for them,
+     * so the splash screen shows right away.
      */
     @Override
     public void init() {
-        // Initialize the Spring application context using the AppConfig class
-        springContext = new AnnotationConfigApplicationContext(AppConfig.class);
+        boot = new BootSequence(4);
+
+        // Open the catalog image saved at the last shutdown, so the catalog is readable before the database is up
+        CompletableFuture<Void> catalogImage = boot.run("catalog image", () -> BookCatalog.getInstance().openImage());
+
+        // Initialize the Spring application context using the AppConfig class (no bean touches the database)
+        springPhase = boot.supply("Spring context", () -> new AnnotationConfigApplicationContext(AppConfig.class));
 
         // Initialize the database by creating tables, adding an admin user, and populating initial data
-        DatabaseInitializer.initializeDatabase();
+        CompletableFuture<Void> database = boot.run("database", DatabaseInitializer::initializeDatabase);
+
+        // Keep the catalog image only if the catalog was not edited since it was saved
+        boot.run("catalog check", () -> BookCatalog.getInstance().verifyImage(), catalogImage, database);
+
+        // Close flash sales interrupted by a crash, applying any journaled reservations to the stock
+        CompletableFuture<Void> flashSales = boot.run("flash sale recovery",
+                () -> FlashSaleManager.getInstance().recoverInterruptedSales(), database);
+
+        // Delete checkout tokens too old to be retried, so the idempotency keys do not pile up
+        boot.run("checkout token cleanup", () -> CheckoutService.getInstance().purgeExpiredTokens(), database);
+
+        // Return reserved copies whose revert was deferred because their books stayed locked
+        boot.run("pending stock reverts",
+                () -> springPhase.join().getBean(InventoryService.class).retryPendingReverts(), springPhase, flashSales);
+
+        // Count which books were bought together in past orders, for the "customers also bought" lists
+        boot.run("recommendations", () -> RecommendationService.getInstance().rebuild(), flashSales);
+
+        // Build the login screen (and decode its image) off the JavaFX thread; it is not attached to a window yet
+        loginViewPhase = boot.supply("login view", () -> loadLoginView(springPhase.join()), springPhase);
+
+        // Parse the stylesheets used after login
+        boot.run("stylesheets", Main::preloadStylesheets);
+    }
+
+    /**
+     * Stops the application.
+     * Applies the pending flash sale reservations, writes a final stock snapshot and saves the catalog image before exiting,
+     * and logs how well the prepared statement cache did over the session.
+     */
+    @Override
+    public void stop() {
+        FxStallWatchdog.getInstance().stop();
+        FlashSaleManager.getInstance().shutdown();
+        StockLedger.getInstance().shutdown();
+        BookCatalog.getInstance().saveImage();
+        System.out.println(Database.getInstance().getStatementCacheStats());
+        DomainEventBus.getInstance().shutdown();
     }
 
     /**
-     * Starts the JavaFX application by loading the login screen.
+     * Starts the JavaFX application by showing the splash screen, then the login screen once startup is done.
      * This method sets up the primary stage and displays the login UI.
      *
      * @param primaryStage The primary stage for the JavaFX application.
      */
     @Override
     public void start(Stage primaryStage) {
+        SplashScreen splash = new SplashScreen();
+        splash.show();
+        boot.setListener(status -> Platform.runLater(() -> splash.setStatus(status)));
+
+        boot.whenDone().whenComplete((ignored, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                System.out.println("Error during startup: " + cause.getMessage());
+                cause.printStackTrace();
+                splash.close();
+                Platform.exit();
+                return;
+            }
+            showLogin(primaryStage, loginViewPhase.join());
+            splash.close();  // Only after the login window shows, so the application never runs out of windows
+            boot.logSummary("Login screen shown");
+            FxStallWatchdog.getInstance().start();  // Startup is over; from now on a busy JavaFX thread is a stall
+        }));
+    }
+
+    /**
+     * Loads the login screen using Spring's context-aware loader.
+     *
+     * @param context The Spring application context providing the controllers.
+     * @return The root element of the login screen.
+     */
+    private static Parent loadLoginView(ApplicationContext context) {
         try {
-            // Load the FXML for the login screen using Spring's context-aware loader
-            SpringFXMLLoader loader = new SpringFXMLLoader(springContext);
-            URL fxmlLocation = getClass().getResource("/com/thereadingroom/fxml/common/login.fxml");
-
-            // Load the root element from the FXML file
-            Parent root = (Parent) loader.load(fxmlLocation);
-
-            // Create a new scene with a size of 1280x720
-            Scene scene = new Scene(root, 1280, 720);
-
-            // Configure the primary stage with the scene
-            primaryStage.setScene(scene);
-            primaryStage.setTitle("Login");  // Set the window title
-            primaryStage.setResizable(false);  // Disable window resizing
-            primaryStage.show();  // Display the window
-        } catch (Exception e) {
-            e.printStackTrace();
+            SpringFXMLLoader loader = new SpringFXMLLoader(context);
+            URL fxmlLocation = Main.class.getResource(LOGIN_FXML);
+            return (Parent) loader.load(fxmlLocation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load the login screen: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses the stylesheets used after login, loading the CSS parser classes before the first table is shown.
+     */
+    private static void preloadStylesheets() {
+        CssParser parser = new CssParser();
+        for (String path : PRELOADED_STYLESHEETS) {
+            URL resource = Main.class.getResource(path);
+            try {
+                if (resource != null) {
+                    parser.parse(resource);
+                }
+            } catch (IOException e) {
+                System.out.println("Error preloading stylesheet " + path + ": " + e.getMessage());
+            }
         }
     }
 
+    /**
+     * Shows the login screen on the primary stage.
+     *
+     * @param primaryStage The primary stage.
+     * @param root         The root element of the login screen.
+     */
+    private void showLogin(Stage primaryStage, Parent root) {
+        // Create a new scene with a size of 1280x720
+        Scene scene = new Scene(root, 1280, 720);
+
+        // Configure the primary stage with the scene
+        primaryStage.setScene(scene);
+        primaryStage.setTitle("Login");  // Set the window title
+        primaryStage.setResizable(false);  // Disable window resizing
+        primaryStage.show();  // Display the window
+    }
+
     /**
      * Main method, the entry point of the Java application.
      * Launches the JavaFX application.
@@ -0,0 +1,63 @@
+package com.thereadingroom.view;
+
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+/**
+ * Undecorated window shown while the application starts, with a status line naming the last part started.
+ * It is built in code rather than from FXML so it can be shown before anything else is loaded.
+ * All methods must be called on the JavaFX application thread.
+ */
+public class SplashScreen {
+
+    private final Stage stage;         // The splash window
+    private final Label statusLabel;   // Last status line
+
+    /**
+     * Builds the splash window without showing it.
+     */
+    public SplashScreen() {
+        Label titleLabel = new Label("The Reading Room");
+        titleLabel.setStyle("-fx-font-size: 26px; -fx-font-weight: bold;");
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setPrefSize(48, 48);
+        statusLabel = new Label("Starting...");
+
+        VBox root = new VBox(18, titleLabel, progress, statusLabel);
+        root.setAlignment(Pos.CENTER);
+        root.setStyle("-fx-background-color: white; -fx-border-color: #c8c8c8; -fx-padding: 24;");
+
+        stage = new Stage(StageStyle.UNDECORATED);  // No close button: closing mid-startup would stop a half-initialized app
+        stage.setScene(new Scene(root, 420, 240));
+        stage.setTitle("The Reading Room");
+    }
+
+    /**
+     * Shows the splash window, centered on the screen.
+     */
+    public void show() {
+        stage.centerOnScreen();
+        stage.show();
+    }
+
+    /**
+     * Shows a status line under the progress indicator.
+     *
+     * @param status The status line.
+     */
+    public void setStatus(String status) {
+        statusLabel.setText(status);
+    }
+
+    /**
+     * Closes the splash window.
+     */
+    public void close() {
+        stage.close();
+    }
+}
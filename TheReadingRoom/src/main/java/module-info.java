@@ -18,9 +18,13 @@ module com.thereadingroom {
     requires eu.hansolo.tilesfx;      // TilesFX for creating custom JavaFX tiles
     requires com.almasb.fxgl.all;     // FXGL for game-related features (optional)
 
+    // Java Flight Recorder for custom diagnostic events
+    requires jdk.jfr;                 // Flight recorder events for UI stalls and trace spans
+
     // Java Database Connectivity (JDBC) and connection pooling
     requires java.sql;                // JDBC API for database interaction
     requires com.zaxxer.hikari;       // HikariCP for connection pooling
+    requires org.xerial.sqlitejdbc;   // SQLite driver (update and commit hooks for change data capture)
 
     // Spring Framework modules for dependency injection and context management
     requires spring.context;          // ApplicationContext from Spring
@@ -44,6 +48,14 @@ module com.thereadingroom {
     exports com.thereadingroom.service;                  // General service layer
     exports com.thereadingroom.utils.auth to spring.core, spring.beans, spring.context, javafx.fxml;  // Authentication utilities
     exports com.thereadingroom.utils.ui;                 // UI utilities (SpringFXMLLoader, etc.)
+    exports com.thereadingroom.utils.ui.store;           // Shared observable entity stores for tables
+    exports com.thereadingroom.utils.ui.cell;            // Recycled table cells and typed cell value factories
+    exports com.thereadingroom.utils.ui.stall;           // JavaFX thread stall watchdog and overlay
+    exports com.thereadingroom.utils.id;                 // Unique id and order number generation
+    exports com.thereadingroom.utils.cache;              // Concurrent caches
+    exports com.thereadingroom.utils.lock;               // Striped lock manager
+    exports com.thereadingroom.utils.event;              // Domain event bus
+    exports com.thereadingroom.utils.trace;              // Controller -> service -> DAO tracing spans
     exports com.thereadingroom.controller.admin to javafx.fxml;  // Admin controllers
     exports com.thereadingroom.controller.user to javafx.fxml;   // User controllers
     exports com.thereadingroom.controller.common to javafx.fxml; // Common controllers
@@ -55,16 +67,29 @@ module com.thereadingroom {
     exports com.thereadingroom.service.book;             // Book-related services
     exports com.thereadingroom.service.order;            // Order-related services
     exports com.thereadingroom.service.payment;          // Payment-related services
+    exports com.thereadingroom.service.payment.gateway;  // Payment gateway SPI and simulator
     exports com.thereadingroom.service.user;             // User-related services
     exports com.thereadingroom.service.inventory;        // Inventory-related services
+    exports com.thereadingroom.service.inventory.flashsale;  // Flash sale token allocation
     exports com.thereadingroom.service.CSVExport;        // CSV export services
     exports com.thereadingroom.service.cart;             // Shopping cart services
+    exports com.thereadingroom.service.checkout;         // Idempotent checkout services
+    exports com.thereadingroom.service.report;           // Sales report services
+    exports com.thereadingroom.service.recommendation;   // "Customers also bought" recommendations
 
     // Open DAO packages to JavaFX for reflection (if needed for UI interaction)
     opens com.thereadingroom.model.dao.book to javafx.fxml;  // Book DAO
     opens com.thereadingroom.model.dao.cart to javafx.fxml;  // Cart DAO
     opens com.thereadingroom.model.dao.user to javafx.fxml;  // User DAO
     opens com.thereadingroom.model.dao.order to javafx.fxml; // Order DAO
+    opens com.thereadingroom.model.dao.idempotency to javafx.fxml; // Idempotency key DAO
+    opens com.thereadingroom.model.dao.flashsale to javafx.fxml;   // Flash sale DAO
+    opens com.thereadingroom.model.dao.ledger to javafx.fxml;      // Stock ledger
+    opens com.thereadingroom.model.dao.cdc to javafx.fxml;         // Change data capture
+    opens com.thereadingroom.model.dao.analytics to javafx.fxml;   // Sales rollups
+    opens com.thereadingroom.model.dao.recommendation to javafx.fxml;  // Co-purchase history
+    opens com.thereadingroom.model.dao.search to javafx.fxml;      // Book search index
+    opens com.thereadingroom.model.dao.catalog to javafx.base, javafx.fxml;  // Catalog snapshot and its book views
     opens com.thereadingroom.model.dao.database to javafx.fxml;  // Database initializer
 
     // Open entity models for reflection (e.g., for use in JavaFX bindings)
@@ -5,11 +5,15 @@ import com.thereadingroom.model.entity.CartTableItem;
 import com.thereadingroom.model.entity.Order;
 import com.thereadingroom.model.entity.ShoppingCart;
 import com.thereadingroom.service.cart.ICartService;
+import com.thereadingroom.service.checkout.CheckoutResult;
+import com.thereadingroom.service.checkout.ICheckoutService;
 import com.thereadingroom.service.order.IOrderService;
 import com.thereadingroom.service.payment.IPaymentService;
+import com.thereadingroom.service.payment.PaymentException;
 import com.thereadingroom.utils.auth.PaymentValidator;
 import com.thereadingroom.utils.ui.UIUtils;
 import javafx.application.Platform;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
@@ -23,8 +27,9 @@ import org.mockito.MockitoAnnotations;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -50,6 +55,9 @@ public class PaymentControllerTest {
     @Mock
     private IPaymentService mockPaymentService;
 
+    @Mock
+    private ICheckoutService mockCheckoutService;
+
     @Mock
     private UIUtils mockUiUtils;
 
@@ -65,6 +73,9 @@ public class PaymentControllerTest {
     // Mocked list of CartTableItems for the test setup
     private List<CartTableItem> mockCartItems;
 
+    // How long to wait for checkout work that completes on background threads and the FX thread
+    private static final long ASYNC_TIMEOUT_MILLIS = 2000;
+
     /**
      * Initialize the JavaFX Platform before running the tests.
      * This method ensures that JavaFX components can be tested properly.
@@ -91,12 +102,20 @@ public class PaymentControllerTest {
         paymentController.expiryDateField = new TextField();
         paymentController.cvvField = new TextField();
         paymentController.totalAmountLabel = new Label();
+        paymentController.payButton = new Button();
+        paymentController.cancelButton = new Button();
 
         // Initialize mock shopping cart with some sample data
         when(mockShoppingCart.getBooks()).thenReturn(Map.of(
                 new Book(1, "Book A", "Author A", 10, 15.0, 100), 2,
                 new Book(2, "Book B", "Author B", 5, 20.0, 50), 1
         ));
+        // Run the checkout action directly, as the idempotency layer does for a new token
+        when(mockCheckoutService.checkout(anyString(), any())).thenAnswer(invocation -> {
+            Supplier<CompletableFuture<String>> checkoutAction = invocation.getArgument(1);
+            return checkoutAction.get().thenApply(CheckoutResult::placed);
+        });
+
         // Set payment details in the controller for testing
         paymentController.setPaymentDetails(50.0, 1, mockShoppingCart, mockShoppingCartController);
     }
@@ -125,23 +144,23 @@ public class PaymentControllerTest {
     @Test
     public void testHandlePayment_shouldProcessPaymentSuccessfully() throws Exception {
         // Mock valid payment details
-        paymentController.cardNumberField.setText("1234567890123456");
+        paymentController.cardNumberField.setText("4111111111111111");
         paymentController.cardHolderNameField.setText("John Doe");
-        paymentController.expiryDateField.setText("12/25");
+        paymentController.expiryDateField.setText("12/30");
         paymentController.cvvField.setText("123");
 
         // Mock a successful payment process and order placement
-        when(mockPaymentService.processPayment(anyString(), anyString(), anyString(), anyString()))
-                .thenReturn(Optional.of("ORDER123"));
-        when(mockOrderService.placeOrder(any(Order.class))).thenReturn(true);
+        when(mockPaymentService.processPaymentAsync(anyString(), anyString(), anyString(), anyString(), anyString(), anyDouble()))
+                .thenReturn(CompletableFuture.completedFuture("ORDER123"));
+        when(mockOrderService.placeOrder(any(Order.class), anyString())).thenReturn(true);
 
         // Call the handlePayment method
         paymentController.handlePayment();
 
-        // Verify that the order was placed and UI is updated accordingly
-        verify(mockOrderService, times(1)).placeOrder(any(Order.class));
-        verify(mockUiUtils, times(1)).showAlert(eq("Payment Successful"), contains("ORDER123"));
-        verify(mockShoppingCartController, times(1)).removeCheckedOutItemsFromCart();
+        // Verify that the order was placed and UI is updated accordingly (checkout completes in the background)
+        verify(mockOrderService, timeout(ASYNC_TIMEOUT_MILLIS).times(1)).placeOrder(any(Order.class), anyString());
+        verify(mockUiUtils, timeout(ASYNC_TIMEOUT_MILLIS).times(1)).showAlert(eq("Payment Successful"), contains("ORDER123"));
+        verify(mockShoppingCartController, timeout(ASYNC_TIMEOUT_MILLIS).times(1)).removeCheckedOutItemsFromCart();
     }
 
     /**
@@ -161,7 +180,7 @@ public class PaymentControllerTest {
 
         // Verify that the validation error is shown and payment is not processed
         verify(mockUiUtils, times(1)).showError(eq("Payment Failed"), eq(validationResult));
-        verify(mockPaymentService, never()).processPayment(anyString(), anyString(), anyString(), anyString());
+        verify(mockPaymentService, never()).processPaymentAsync(anyString(), anyString(), anyString(), anyString(), anyString(), anyDouble());
     }
 
     /**
@@ -174,7 +193,7 @@ public class PaymentControllerTest {
         paymentController.handleCancelPayment(null);
 
         // Verify that the stock is reverted and the window is closed
-        verify(mockShoppingCartController, times(1)).revertReservedStock(anyList());
+        verify(mockShoppingCartController, timeout(ASYNC_TIMEOUT_MILLIS).times(1)).revertReservedStock(anyList());
         verify(mockUiUtils, times(1)).closeCurrentWindow(paymentController.totalAmountLabel);
     }
 
@@ -185,21 +204,48 @@ public class PaymentControllerTest {
     @Test
     public void testHandlePayment_shouldHandlePaymentError() throws Exception {
         // Mock valid payment details
-        paymentController.cardNumberField.setText("1234567890123456");
+        paymentController.cardNumberField.setText("4111111111111111");
+        paymentController.cardHolderNameField.setText("John Doe");
+        paymentController.expiryDateField.setText("12/30");
+        paymentController.cvvField.setText("123");
+
+        // Simulate payment failure by returning a failed future
+        when(mockPaymentService.processPaymentAsync(anyString(), anyString(), anyString(), anyString(), anyString(), anyDouble()))
+                .thenReturn(CompletableFuture.failedFuture(new PaymentException("Payment declined: Card declined by issuer.")));
+
+        // Call the handlePayment method
+        paymentController.handlePayment();
+
+        // Verify that an error message is shown, the stock is reverted and no order is placed
+        verify(mockUiUtils, timeout(ASYNC_TIMEOUT_MILLIS).times(1)).showError(eq("Payment Failed"), eq("Payment declined: Card declined by issuer."));
+        verify(mockShoppingCartController, timeout(ASYNC_TIMEOUT_MILLIS).times(1)).revertReservedStock(anyList());
+        verify(mockOrderService, never()).placeOrder(any(Order.class), anyString());
+    }
+
+    /**
+     * Tests a failure after the order was saved (clearing the cart).
+     * Verifies that the stock stays with the order and the user is told the order was placed.
+     */
+    @Test
+    public void testHandlePayment_shouldKeepStockWhenFailingAfterOrderSaved() {
+        // Mock valid payment details
+        paymentController.cardNumberField.setText("4111111111111111");
         paymentController.cardHolderNameField.setText("John Doe");
-        paymentController.expiryDateField.setText("12/25");
+        paymentController.expiryDateField.setText("12/30");
         paymentController.cvvField.setText("123");
 
-        // Simulate payment failure by returning an empty Optional
-        when(mockPaymentService.processPayment(anyString(), anyString(), anyString(), anyString()))
-                .thenReturn(Optional.empty());
+        // The payment and the order succeed, then clearing the cart fails
+        when(mockPaymentService.processPaymentAsync(anyString(), anyString(), anyString(), anyString(), anyString(), anyDouble()))
+                .thenReturn(CompletableFuture.completedFuture("ORDER123"));
+        when(mockOrderService.placeOrder(any(Order.class), anyString())).thenReturn(true);
+        doThrow(new IllegalStateException("Cart unavailable")).when(mockCartService).removeBooksFromCart(anyInt(), anyList());
 
         // Call the handlePayment method
         paymentController.handlePayment();
 
-        // Verify that an error message is shown and the stock is reverted
-        verify(mockUiUtils, times(1)).showError(eq("Payment Failed"), anyString());
-        verify(mockShoppingCartController, times(1)).revertReservedStock(anyList());
+        // Verify that the order is reported as placed and the reserved stock is not released
+        verify(mockUiUtils, timeout(ASYNC_TIMEOUT_MILLIS).times(1)).showAlert(eq("Payment Successful"), contains("ORDER123"));
+        verify(mockShoppingCartController, never()).revertReservedStock(anyList());
     }
 
     /**
@@ -216,6 +262,7 @@ public class PaymentControllerTest {
         assertTrue(paymentController.cardHolderNameField.isDisable());
         assertTrue(paymentController.expiryDateField.isDisable());
         assertTrue(paymentController.cvvField.isDisable());
+        assertTrue(paymentController.cancelButton.isDisable());
 
         // Enable the form fields again
         paymentController.enableForm();
@@ -225,5 +272,6 @@ public class PaymentControllerTest {
         assertFalse(paymentController.cardHolderNameField.isDisable());
         assertFalse(paymentController.expiryDateField.isDisable());
         assertFalse(paymentController.cvvField.isDisable());
+        assertFalse(paymentController.cancelButton.isDisable());
     }
 }
@@ -0,0 +1,37 @@
+package com.thereadingroom.model.dao.analytics;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark for SalesCube, printing aggregation throughput over five million order lines.
+ * Tagged "benchmark", so it only runs with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class SalesCubeBenchmarkTest {
+
+    /**
+     * Measures aggregation throughput over five million lines.
+     */
+    @Test
+    public void testThroughput() {
+        SalesCube cube = new SalesCube();
+        int lineCount = 5_000_000;
+        for (int i = 0; i < lineCount; i++) {
+            SalesCubeTest.append(cube, i);
+        }
+        cube.publish();
+        CubeQuery query = new CubeQuery(CubeQuery.Dimension.AUTHOR, CubeQuery.Dimension.MONTH);
+        cube.query(query);  // Warm up
+
+        long start = System.nanoTime();
+        int runs = 10;
+        for (int run = 0; run < runs; run++) {
+            assertFalse(cube.query(query).isEmpty());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Aggregated %,.0f order lines/sec%n", runs * (double) lineCount / seconds);
+    }
+}
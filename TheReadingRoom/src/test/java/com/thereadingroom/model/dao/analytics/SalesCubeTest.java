@@ -0,0 +1,157 @@
+package com.thereadingroom.model.dao.analytics;
+
+import com.thereadingroom.model.entity.SalesSlice;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SalesCube.
+ * Verifies that grouped and filtered aggregations over several segments match a straightforward
+ * aggregation of the same lines, and that appended lines stay invisible until published.
+ * Aggregation throughput is measured by SalesCubeBenchmarkTest.
+ */
+public class SalesCubeTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final String[] AUTHORS = {"Deitel", "Savitch", "Knuth", "Liskov", "Hopper"};
+
+    /**
+     * Tests that revenue by author and month over several segments matches a direct aggregation.
+     */
+    @Test
+    public void testAuthorByMonthMatchesDirectAggregation() {
+        SalesCube cube = new SalesCube();
+        int lineCount = CubeSegment.CAPACITY * 3 + 1_000;
+        Map<String, long[]> expected = new HashMap<>();
+        for (int i = 0; i < lineCount; i++) {
+            append(cube, i);
+            String key = author(i) + "|" + YearMonth.from(day(i));
+            long[] totals = expected.computeIfAbsent(key, k -> new long[2]);
+            totals[0] += quantity(i);
+            totals[1] += quantity(i) * priceCents(i);
+        }
+        cube.publish();
+
+        CubeQuery query = new CubeQuery(CubeQuery.Dimension.AUTHOR, CubeQuery.Dimension.MONTH);
+        query.setLimit(Integer.MAX_VALUE);
+        List<SalesSlice> slices = cube.query(query);
+
+        assertEquals(lineCount, cube.getLineCount());
+        assertEquals(expected.size(), slices.size());
+        for (SalesSlice slice : slices) {
+            long[] totals = expected.get(slice.getGroupLabel() + "|" + slice.getThenLabel());
+            assertNotNull(totals, slice.getGroupLabel() + " " + slice.getThenLabel());
+            assertEquals(totals[0], slice.getUnitsSold());
+            assertEquals(totals[1] / 100.0, slice.getRevenue(), 0.001);
+        }
+        for (int i = 1; i < slices.size(); i++) {
+            assertTrue(slices.get(i - 1).getRevenue() >= slices.get(i).getRevenue());
+        }
+    }
+
+    /**
+     * Tests that a grouping with too many possible keys for flat arrays (day by one-cent price band)
+     * is summed in hash tables with the same result.
+     */
+    @Test
+    public void testLargeKeySpaceMatchesDirectAggregation() {
+        SalesCube cube = new SalesCube();
+        Map<String, Long> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            append(cube, i);
+            expected.merge(day(i) + "|" + priceCents(i), quantity(i) * priceCents(i), Long::sum);
+        }
+        cube.publish();
+
+        CubeQuery query = new CubeQuery(CubeQuery.Dimension.DAY, CubeQuery.Dimension.PRICE_BAND);
+        query.setPriceBandCents(1);
+        query.setLimit(Integer.MAX_VALUE);
+        List<SalesSlice> slices = cube.query(query);
+
+        assertEquals(expected.size(), slices.size());
+        for (SalesSlice slice : slices) {
+            long priceCents = Math.round(Double.parseDouble(slice.getThenLabel().substring(1, slice.getThenLabel().indexOf(' '))) * 100);
+            assertEquals(expected.get(slice.getGroupLabel() + "|" + priceCents) / 100.0, slice.getRevenue(), 0.001);
+        }
+    }
+
+    /**
+     * Tests the date and author filters and grouping by price band.
+     */
+    @Test
+    public void testFiltersAndPriceBands() {
+        SalesCube cube = new SalesCube();
+        for (int i = 0; i < 10_000; i++) {
+            append(cube, i);
+        }
+        cube.publish();
+
+        CubeQuery query = new CubeQuery(CubeQuery.Dimension.PRICE_BAND, null);
+        query.setFromDate(START.plusDays(10));
+        query.setToDate(START.plusDays(19));
+        query.setAuthor(" Knuth ");
+        query.setPriceBandCents(1_000);
+        long expectedUnits = 0;
+        for (int i = 0; i < 10_000; i++) {
+            LocalDate day = day(i);
+            if (author(i).equals("Knuth") && !day.isBefore(START.plusDays(10)) && !day.isAfter(START.plusDays(19))) {
+                expectedUnits += quantity(i);
+            }
+        }
+
+        List<SalesSlice> slices = cube.query(query);
+
+        assertEquals(expectedUnits, slices.stream().mapToLong(SalesSlice::getUnitsSold).sum());
+        assertTrue(slices.stream().allMatch(slice -> slice.getGroupLabel().matches("\\$\\d+\\.00 - \\$\\d+\\.99")));
+        assertTrue(slices.stream().allMatch(slice -> slice.getThenLabel().isEmpty()));
+
+        query.setAuthor("Nobody");
+        assertTrue(cube.query(query).isEmpty());
+    }
+
+    /**
+     * Tests that lines are only seen by queries after they are published.
+     */
+    @Test
+    public void testLinesAreVisibleOnceOrderIsPublished() {
+        SalesCube cube = new SalesCube();
+        append(cube, 0);
+        assertEquals(0, cube.getLineCount());
+        assertTrue(cube.query(new CubeQuery()).isEmpty());
+
+        cube.publish();
+        assertEquals(1, cube.getLineCount());
+        assertEquals(1, cube.getLastOrderId());
+        assertEquals(1, cube.query(new CubeQuery()).size());
+    }
+
+    /**
+     * Appends synthetic line i: one line per order, spread over authors, days, customers and prices.
+     */
+    static void append(SalesCube cube, int i) {
+        cube.append(i + 1, i % 97, "user" + (i % 97), day(i), i % 31, "Title " + (i % 31), author(i), quantity(i), priceCents(i) / 100.0);
+    }
+
+    private static String author(int i) {
+        return AUTHORS[i % 31 % AUTHORS.length];
+    }
+
+    private static LocalDate day(int i) {
+        return START.plusDays(i % 400);
+    }
+
+    private static int quantity(int i) {
+        return i % 3 + 1;
+    }
+
+    private static long priceCents(int i) {
+        return 499 + (i % 7) * 350;
+    }
+}
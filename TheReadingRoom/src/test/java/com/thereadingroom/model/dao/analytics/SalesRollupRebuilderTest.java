@@ -0,0 +1,100 @@
+package com.thereadingroom.model.dao.analytics;
+
+import com.thereadingroom.model.entity.Order;
+import com.thereadingroom.model.entity.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SalesRollups and SalesRollupRebuilder.
+ * Verifies that removing an order undoes adding it, and that a parallel rebuild reads every order ID
+ * exactly once and produces the same aggregates as adding the orders one by one.
+ */
+public class SalesRollupRebuilderTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    /**
+     * Tests that an order's totals are added to its day and user and that subtracting it restores zero.
+     */
+    @Test
+    public void testAddAndRemoveOrder() {
+        SalesRollups rollups = new SalesRollups();
+        Order order = order(1);
+
+        rollups.addOrder(order, 1);
+        assertArrayEquals(new long[]{1, 3, 2500}, rollups.getDayTotals(order.getOrderDate().toLocalDate()));
+        assertArrayEquals(new long[]{1, 3, 2500}, rollups.getUserTotals(order.getUserId()));
+
+        rollups.addOrder(order, -1);
+        assertArrayEquals(new long[3], rollups.getDayTotals(order.getOrderDate().toLocalDate()));
+        assertArrayEquals(new long[3], rollups.getUserTotals(order.getUserId()));
+    }
+
+    /**
+     * Tests that a parallel rebuild over many chunks reads each order once and matches a sequential aggregate.
+     */
+    @Test
+    public void testParallelRebuildMatchesSequential() throws SQLException {
+        int lastOrderId = SalesRollupRebuilder.CHUNK_SIZE * 5 + 123;
+        ConcurrentHashMap<Integer, AtomicInteger> reads = new ConcurrentHashMap<>();
+        SalesRollupRebuilder rebuilder = new SalesRollupRebuilder((first, last) -> {
+            SalesRollups chunk = new SalesRollups();
+            for (int id = first; id <= last; id++) {
+                reads.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                chunk.addOrder(order(id), 1);
+            }
+            return chunk;
+        }, 4);
+
+        SalesRollups parallel = rebuilder.aggregate(1, lastOrderId);
+
+        SalesRollups sequential = new SalesRollups();
+        for (int id = 1; id <= lastOrderId; id++) {
+            sequential.addOrder(order(id), 1);
+        }
+        assertEquals(lastOrderId, reads.size());
+        assertTrue(reads.values().stream().allMatch(count -> count.get() == 1));
+        for (int day = 0; day < 7; day++) {
+            LocalDate date = START.toLocalDate().plusDays(day);
+            assertArrayEquals(sequential.getDayTotals(date), parallel.getDayTotals(date));
+        }
+        for (int userId = 1; userId <= 5; userId++) {
+            assertArrayEquals(sequential.getUserTotals(userId), parallel.getUserTotals(userId));
+        }
+    }
+
+    /**
+     * Tests that a failing chunk surfaces its SQLException from the rebuild.
+     */
+    @Test
+    public void testChunkFailureIsRethrown() {
+        SalesRollupRebuilder rebuilder = new SalesRollupRebuilder((first, last) -> {
+            if (first > SalesRollupRebuilder.CHUNK_SIZE) {
+                throw new SQLException("disk I/O error");
+            }
+            return new SalesRollups();
+        }, 2);
+
+        SQLException error = assertThrows(SQLException.class, () -> rebuilder.aggregate(1, SalesRollupRebuilder.CHUNK_SIZE * 3));
+        assertEquals("disk I/O error", error.getMessage());
+    }
+
+    /**
+     * Creates an order of two lines (1 x $10.00 and 2 x $7.50), spread over 7 days and 5 users by its ID.
+     */
+    private Order order(int orderId) {
+        List<OrderItem> items = List.of(new OrderItem(orderId % 11, "Book", 1, 10.0), new OrderItem(orderId % 13 + 20, "Book", 2, 7.5));
+        Order order = new Order("ORD-" + orderId, orderId % 5 + 1, 25.0, items, START.plusDays(orderId % 7));
+        order.setOrderId(orderId);
+        return order;
+    }
+}
@@ -0,0 +1,196 @@
+package com.thereadingroom.model.dao.catalog;
+
+import com.thereadingroom.model.entity.Book;
+import com.thereadingroom.model.entity.StockLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookCatalog.
+ * Verifies the lazy load, that changes publish new snapshots while readers keep theirs, that changes before
+ * the load are left to it, and that the catalog image is reopened only while it matches the database.
+ */
+public class BookCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that each change publishes a new snapshot and that a snapshot already taken does not change.
+     */
+    @Test
+    public void testChangesPublishNewSnapshots() {
+        BookCatalog catalog = new BookCatalog(new FakeCatalogDAO(builder -> {
+            builder.add(1, "Absolute Java", "Walter Savitch", 10, 59.99, 2);
+            builder.add(2, "Effective Java", "Joshua Bloch", 3, 45.0, 1);
+            return 2;
+        }));
+        CatalogSnapshot first = catalog.getSnapshot();
+        assertEquals(2, first.size());
+        assertSame(first, catalog.getSnapshot());
+
+        catalog.updateStock(Map.of(2, new int[]{0, 4}));
+        catalog.upsert(new Book(3, "Clean Code", "Robert Martin", 5, 39.0, 0));
+        catalog.remove(1);
+
+        CatalogSnapshot latest = catalog.getSnapshot();
+        assertEquals(2, latest.size());
+        assertEquals(4, latest.getSoldCopies(latest.indexOf(2)));
+        assertEquals("Clean Code", latest.find(3).getTitle());
+        assertNull(latest.find(1));
+        assertEquals(1, first.getSoldCopies(first.indexOf(2)));
+        assertNotNull(first.find(1));
+    }
+
+    /**
+     * Tests that changes before the first load are ignored, and that a failed load returns an empty catalog.
+     */
+    @Test
+    public void testChangesBeforeLoadAreIgnored() {
+        BookCatalog catalog = new BookCatalog(new FakeCatalogDAO(builder -> {
+            builder.add(1, "Absolute Java", "Walter Savitch", 10, 59.99, 2);
+            return 1;
+        }));
+        catalog.upsert(new Book(1, "Stale", "Stale", 0, 0, 0));
+        catalog.remove(1);
+        assertEquals("Absolute Java", catalog.getSnapshot().getTitle(0));
+
+        BookCatalog unreadable = new BookCatalog(new FakeCatalogDAO(builder -> -1));
+        assertSame(CatalogSnapshot.EMPTY, unreadable.getSnapshot());
+        assertFalse(unreadable.load());
+    }
+
+    /**
+     * Tests that a saved image reopens with the same books and that its stock is refreshed from the ledger.
+     */
+    @Test
+    public void testImageReopensWithCurrentStock() {
+        Path image = tempDir.resolve("readingroom.catalog");
+        FakeCatalogDAO dao = new FakeCatalogDAO(FakeCatalogDAO::loadSample);
+        BookCatalog first = new BookCatalog(dao, image);
+        CatalogSnapshot saved = first.getSnapshot();
+        assertTrue(first.saveImage());
+
+        dao.stock.put(2, new StockLevel(2, 0, 6));
+        BookCatalog reopened = new BookCatalog(new FakeCatalogDAO(builder -> {
+            throw new AssertionError("The catalog should come from the image");
+        }, dao), image);
+        assertTrue(reopened.openImage());
+        assertTrue(reopened.verifyImage());
+
+        CatalogSnapshot snapshot = reopened.getSnapshot();
+        assertEquals(saved.size(), snapshot.size());
+        for (int row = 0; row < saved.size(); row++) {
+            assertEquals(saved.getBookId(row), snapshot.getBookId(row));
+            assertEquals(saved.getTitle(row), snapshot.getTitle(row));
+            assertEquals(saved.getAuthor(row), snapshot.getAuthor(row));
+            assertEquals(saved.getPriceCents(row), snapshot.getPriceCents(row));
+        }
+        assertEquals(0, snapshot.getPhysicalCopies(snapshot.indexOf(2)));
+        assertEquals(6, snapshot.getSoldCopies(snapshot.indexOf(2)));
+        assertEquals(10, snapshot.getPhysicalCopies(snapshot.indexOf(1)));
+    }
+
+    /**
+     * Tests that an image is dropped when the database was edited after it was written, or when it is corrupt.
+     */
+    @Test
+    public void testStaleOrCorruptImageIsNotUsed() throws Exception {
+        Path image = tempDir.resolve("readingroom.catalog");
+        FakeCatalogDAO dao = new FakeCatalogDAO(FakeCatalogDAO::loadSample);
+        BookCatalog first = new BookCatalog(dao, image);
+        first.getSnapshot();
+        assertTrue(first.saveImage());
+
+        dao.version++;
+        dao.loader = builder -> {
+            builder.add(7, "Refactoring", "Martin Fowler", 1, 50.0, 0);
+            return 1;
+        };
+        BookCatalog stale = new BookCatalog(dao, image);
+        assertTrue(stale.openImage());
+        assertFalse(stale.verifyImage());
+        assertEquals("Refactoring", stale.getSnapshot().getTitle(0));
+
+        byte[] bytes = Files.readAllBytes(image);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(image, bytes);
+        assertFalse(new BookCatalog(dao, image).openImage());
+    }
+
+    /**
+     * Tests that edits applied through the catalog keep the image in step with the database's version, and that
+     * an edit made around the catalog deletes the image at save.
+     */
+    @Test
+    public void testSaveTracksEditsAgainstVersion() {
+        Path image = tempDir.resolve("readingroom.catalog");
+        FakeCatalogDAO dao = new FakeCatalogDAO(FakeCatalogDAO::loadSample);
+        BookCatalog catalog = new BookCatalog(dao, image);
+        catalog.getSnapshot();
+
+        catalog.upsert(new Book(3, "Clean Code", "Robert Martin", 5, 39.0, 0));
+        dao.version++;
+        assertTrue(catalog.saveImage());
+        BookCatalog reopened = new BookCatalog(dao, image);
+        assertTrue(reopened.openImage());
+        assertTrue(reopened.verifyImage());
+        assertEquals("Clean Code", reopened.getSnapshot().find(3).getTitle());
+
+        reopened.remove(1);
+        dao.version += 2;
+        assertFalse(reopened.saveImage());
+        assertFalse(Files.exists(image));
+    }
+
+    /**
+     * A catalog DAO with a settable loader, catalog version and ledger stock.
+     */
+    private static final class FakeCatalogDAO implements ICatalogDAO {
+
+        ToIntFunction<CatalogSnapshot.Builder> loader;    // Fills the snapshot being loaded
+        long version = 1000;                              // Current catalog version
+        final Map<Integer, StockLevel> stock;             // Ledger stock by book ID
+
+        FakeCatalogDAO(ToIntFunction<CatalogSnapshot.Builder> loader) {
+            this.loader = loader;
+            this.stock = new HashMap<>();
+        }
+
+        FakeCatalogDAO(ToIntFunction<CatalogSnapshot.Builder> loader, FakeCatalogDAO database) {
+            this.loader = loader;
+            this.version = database.version;
+            this.stock = database.stock;
+        }
+
+        static int loadSample(CatalogSnapshot.Builder builder) {
+            builder.add(1, "Absolute Java", "Walter Savitch", 10, 59.99, 2);
+            builder.add(2, "Effective Java", "Joshua Bloch", 3, 45.0, 1);
+            builder.add(5, "Java Puzzlers", "Joshua Bloch", 4, 30.5, 0);
+            return 3;
+        }
+
+        @Override
+        public int loadBooks(CatalogSnapshot.Builder builder) {
+            return loader.applyAsInt(builder);
+        }
+
+        @Override
+        public long getCatalogVersion() {
+            return version;
+        }
+
+        @Override
+        public StockLevel getStockLevel(int bookId) {
+            return stock.get(bookId);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.thereadingroom.model.dao.catalog;
+
+import com.thereadingroom.model.entity.Book;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark for CatalogSnapshot, printing the heap used by a million books as entities, as a snapshot and with
+ * a view per book. Tagged "benchmark", so it only runs with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class CatalogSnapshotBenchmarkTest {
+
+    private static final String[] AUTHORS = {"Paul Deitel", "Walter Savitch", "Donald Knuth", "Barbara Liskov", "Grace Hopper"};
+
+    /**
+     * Compares the heap used by a million Book entities with a snapshot of the same books and its views.
+     */
+    @Test
+    public void testMemoryOverMillionBooks() {
+        int bookCount = 1_000_000;
+        long before = usedHeap();
+        List<Book> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            books.add(new Book(i + 1, title(i), new String(AUTHORS[i % AUTHORS.length] + " " + (i % 50_000)), i % 50, 9.99 + i % 100, i % 7));
+        }
+        long entities = usedHeap() - before;
+        assertEquals(bookCount, books.size());
+        books = null;
+
+        before = usedHeap();
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            builder.add(i + 1, title(i), AUTHORS[i % AUTHORS.length] + " " + (i % 50_000), i % 50, 9.99 + i % 100, i % 7);
+        }
+        CatalogSnapshot snapshot = builder.build();
+        builder = null;
+        long columns = usedHeap() - before;
+        List<Book> views = new ArrayList<>(snapshot.views());
+        long withViews = usedHeap() - before;
+
+        long start = System.nanoTime();
+        CatalogSnapshot restocked = snapshot.withStock(Map.of(500_000, new int[]{1, 2}));
+        double stockMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("A million books: %,d MB as entities, %,d MB as a snapshot (estimated %,d MB), %,d MB with a view per book; stock change %.2f ms%n",
+                entities >> 20, columns >> 20, snapshot.estimateBytes() >> 20, withViews >> 20, stockMillis);
+        assertEquals(bookCount, views.size());
+        assertEquals(1, restocked.getPhysicalCopies(restocked.indexOf(500_000)));
+        assertTrue(columns < entities / 2, "snapshot " + columns + " vs entities " + entities);
+    }
+
+    private static String title(int i) {
+        return "The Collected Works Volume " + i;
+    }
+
+    /**
+     * Returns the heap in use after a garbage collection.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
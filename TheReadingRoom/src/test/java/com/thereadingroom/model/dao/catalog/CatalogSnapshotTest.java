@@ -0,0 +1,113 @@
+package com.thereadingroom.model.dao.catalog;
+
+import com.thereadingroom.model.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CatalogSnapshot and its book views.
+ * Verifies the columnar encoding, that changes produce new snapshots and leave the old ones intact,
+ * and that views can be patched like books. Memory is compared with Book entities by CatalogSnapshotBenchmarkTest.
+ */
+public class CatalogSnapshotTest {
+
+    private static final String[] AUTHORS = {"Paul Deitel", "Walter Savitch", "Donald Knuth", "Barbara Liskov", "Grace Hopper"};
+
+    /**
+     * Tests that every attribute reads back as written, with UTF-8 titles, prices in cents and shared authors.
+     */
+    @Test
+    public void testColumnsReadBack() {
+        CatalogSnapshot snapshot = new CatalogSnapshot.Builder()
+                .add(3, "Absolute Java", "Walter Savitch", 10, 59.99, 2)
+                .add(7, "Les Misérables", "Victor Hugo", 0, 12.5, 40)
+                .add(9, "三体", new String("Walter Savitch"), 4, 19.95, 0)
+                .build();
+
+        assertEquals(3, snapshot.size());
+        assertEquals(1, snapshot.indexOf(7));
+        assertTrue(snapshot.indexOf(8) < 0);
+        assertEquals("Les Misérables", snapshot.getTitle(1));
+        assertEquals("三体", snapshot.getTitle(2));
+        assertEquals(1995, snapshot.getPriceCents(2));
+        assertEquals(12.5, snapshot.getPrice(1), 0.0001);
+        assertEquals(40, snapshot.getSoldCopies(1));
+        assertEquals(4, snapshot.getPhysicalCopies(2));
+        assertSame(snapshot.getAuthor(0), snapshot.getAuthor(2));
+        assertNull(snapshot.find(8));
+        assertThrows(IllegalArgumentException.class, () -> new CatalogSnapshot.Builder().add(2, "A", "B", 1, 1, 0).add(2, "C", "D", 1, 1, 0));
+    }
+
+    /**
+     * Tests that stock changes copy only the pages they touch and that adding, replacing and removing
+     * books keep the ID order, while the previous snapshot stays as it was.
+     */
+    @Test
+    public void testChangesLeavePreviousSnapshotIntact() {
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+        for (int i = 0; i < 3 * CatalogSnapshot.PAGE_SIZE; i++) {
+            builder.add(i * 2 + 1, "Title " + i, AUTHORS[i % AUTHORS.length], i % 50, 9.99, 0);
+        }
+        CatalogSnapshot original = builder.build();
+
+        CatalogSnapshot restocked = original.withStock(Map.of(1, new int[]{100, 5}, 999_999, new int[]{1, 1}));
+        assertEquals(100, restocked.getPhysicalCopies(0));
+        assertEquals(5, restocked.getSoldCopies(0));
+        assertEquals(0, original.getPhysicalCopies(0));
+        assertEquals(original.getPhysicalCopies(CatalogSnapshot.PAGE_SIZE), restocked.getPhysicalCopies(CatalogSnapshot.PAGE_SIZE));
+        assertSame(original, original.withStock(Map.of(999_999, new int[]{1, 1})));
+
+        CatalogSnapshot added = restocked.withBook(new Book(4, "Effective Java", "Joshua Bloch", 3, 45.0, 1));
+        assertEquals(original.size() + 1, added.size());
+        assertEquals(2, added.indexOf(4));
+        assertEquals("Effective Java", added.getTitle(2));
+        assertEquals("Title 2", added.getTitle(3));
+        assertEquals(100, added.getPhysicalCopies(0));
+
+        CatalogSnapshot edited = added.withBook(new Book(4, "Effective Java, 3rd Edition", "Joshua Bloch", 2, 49.0, 1));
+        assertEquals(added.size(), edited.size());
+        assertEquals("Effective Java, 3rd Edition", edited.getTitle(2));
+        assertEquals("Effective Java", added.getTitle(2));
+
+        CatalogSnapshot removed = edited.withoutBook(4);
+        assertEquals(original.size(), removed.size());
+        assertTrue(removed.indexOf(4) < 0);
+        assertEquals("Title 2", removed.getTitle(2));
+        assertSame(removed, removed.withoutBook(4));
+    }
+
+    /**
+     * Tests that views read their row, and that setting or binding an attribute copies it into the book
+     * without changing the snapshot.
+     */
+    @Test
+    public void testViewsBehaveLikeBooks() {
+        CatalogSnapshot snapshot = new CatalogSnapshot.Builder()
+                .add(1, "Absolute Java", "Walter Savitch", 10, 59.99, 2)
+                .add(2, "Effective Java", "Joshua Bloch", 3, 45.0, 1)
+                .build();
+        List<Book> views = snapshot.views();
+        assertEquals(2, views.size());
+
+        Book view = views.get(0);
+        assertEquals(1, view.getBookId());
+        assertEquals("Absolute Java", view.getTitle());
+        assertEquals(59.99, view.getPrice(), 0.0001);
+
+        assertEquals(10, view.physicalCopiesProperty().get());
+        view.setPhysicalCopies(7);
+        assertEquals(7, view.physicalCopiesProperty().get());
+        assertEquals(7, view.getPhysicalCopies());
+
+        view.copyFrom(new Book(1, "Absolute Java, 6th Edition", "Walter Savitch", 6, 64.99, 3));
+        assertEquals("Absolute Java, 6th Edition", view.getTitle());
+        assertEquals(3, view.soldCopiesProperty().get());
+        assertEquals("Absolute Java", snapshot.getTitle(0));
+        assertEquals(10, snapshot.getPhysicalCopies(0));
+        assertEquals("Effective Java", snapshot.find(2).titleProperty().get());
+    }
+}
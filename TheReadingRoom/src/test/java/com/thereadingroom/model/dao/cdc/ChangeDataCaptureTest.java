@@ -0,0 +1,200 @@
+package com.thereadingroom.model.dao.cdc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChangeDataCapture, run against a temporary SQLite database.
+ * Verifies that committed row changes are reported per table, that rolled back changes are not,
+ * that listeners only hear about the tables they registered for, and only after the commit has completed.
+ */
+public class ChangeDataCaptureTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ChangeDataCapture changeDataCapture;
+    private Connection connection;
+    private final List<ChangeSet> bookChanges = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a database with books and orders tables and attaches the capture hooks to a connection.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        changeDataCapture = new ChangeDataCapture(10);
+        connection = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("cdc.db"));
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE books (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT)");
+            stmt.execute("CREATE TABLE orders (order_id INTEGER PRIMARY KEY AUTOINCREMENT, total REAL)");
+            stmt.execute("CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT)");
+        }
+        changeDataCapture.attach(connection);
+        changeDataCapture.addListener(bookChanges::add, "books");
+    }
+
+    /**
+     * Stops the dispatcher and closes the connection.
+     */
+    @AfterEach
+    public void tearDown() throws Exception {
+        changeDataCapture.shutdown();
+        connection.close();
+    }
+
+    /**
+     * Tests that auto-committed and explicitly committed changes are reported with their rowids.
+     */
+    @Test
+    public void testCommittedChangesAreReported() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO books (title) VALUES ('A'), ('B'), ('C')");
+
+            connection.setAutoCommit(false);
+            stmt.executeUpdate("UPDATE books SET title = 'B2' WHERE id = 2");
+            stmt.executeUpdate("UPDATE books SET title = 'B3' WHERE id = 2");
+            stmt.executeUpdate("DELETE FROM books WHERE id = 3");
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+
+        assertEquals(Set.of(1L, 2L, 3L), awaitBookChanges(2));
+        assertEquals(2, changeDataCapture.getCapturedCommits());
+    }
+
+    /**
+     * Tests that the changes of a rolled back transaction are discarded.
+     */
+    @Test
+    public void testRolledBackChangesAreDiscarded() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            stmt.executeUpdate("INSERT INTO books (title) VALUES ('Rolled back')");
+            connection.rollback();
+            stmt.executeUpdate("INSERT INTO books (title) VALUES ('Kept')");
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+
+        assertEquals(1, awaitBookChanges(1).size());
+        assertEquals(1, changeDataCapture.getCapturedCommits());
+    }
+
+    /**
+     * Tests that an ignored transaction is left out of the capture and capturing resumes with the next one.
+     */
+    @Test
+    public void testIgnoredTransactionIsNotReported() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            changeDataCapture.ignoreTransaction(connection);
+            stmt.executeUpdate("INSERT INTO books (title) VALUES ('Already published')");
+            connection.commit();
+            connection.setAutoCommit(true);
+            stmt.executeUpdate("INSERT INTO books (title) VALUES ('Captured')");
+        }
+
+        assertEquals(Set.of(2L), awaitBookChanges(1));
+        assertEquals(1, changeDataCapture.getCapturedCommits());
+    }
+
+    /**
+     * Tests that listeners are not notified about tables they did not register for, and uncaptured tables are ignored.
+     */
+    @Test
+    public void testListenersOnlyReceiveTheirTables() throws Exception {
+        List<ChangeSet> orderChanges = new CopyOnWriteArrayList<>();
+        changeDataCapture.addListener(orderChanges::add, "orders");
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO users (name) VALUES ('Not captured')");
+            stmt.executeUpdate("INSERT INTO orders (total) VALUES (9.99)");
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (orderChanges.isEmpty() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(1, orderChanges.size());
+        assertEquals(Set.of(1L), orderChanges.get(0).getRowIds("orders"));
+        assertFalse(orderChanges.get(0).contains("users"));
+        assertTrue(bookChanges.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> changeDataCapture.addListener(changes -> { }, "users"));
+    }
+
+    /**
+     * Tests that listeners are notified only after the commit has completed, so a re-read from another
+     * connection sees the changed rows even without a coalescing window.
+     */
+    @Test
+    public void testListenersSeeCommittedRows() throws Exception {
+        ChangeDataCapture immediate = new ChangeDataCapture(0);
+        List<Long> missing = new CopyOnWriteArrayList<>();
+        List<ChangeSet> seen = new CopyOnWriteArrayList<>();
+        try (Connection writer = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("cdc.db"));
+             Connection reader = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("cdc.db"))) {
+            immediate.attach(writer);
+            immediate.addListener(changes -> {
+                for (long rowId : changes.getRowIds("books")) {
+                    try (Statement stmt = reader.createStatement();
+                         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM books WHERE id = " + rowId)) {
+                        if (rs.getInt(1) == 0) {
+                            missing.add(rowId);
+                        }
+                    } catch (SQLException e) {
+                        missing.add(rowId);
+                    }
+                }
+                seen.add(changes);
+            }, "books");
+
+            try (Statement stmt = writer.createStatement()) {
+                for (int i = 0; i < 20; i++) {
+                    stmt.executeUpdate("INSERT INTO books (title) VALUES ('Book " + i + "')");
+                }
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (seen.stream().mapToInt(ChangeSet::getCommitCount).sum() < 20) {
+                assertTrue(System.currentTimeMillis() < deadline, "Changes were not reported");
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+        } finally {
+            immediate.shutdown();
+        }
+
+        assertTrue(missing.isEmpty(), "Rows not yet committed when notified: " + missing);
+    }
+
+    /**
+     * Waits until the books listener has seen the given number of commits.
+     *
+     * @param commits The number of commits to wait for.
+     * @return The rowids of all changed books.
+     */
+    private Set<Long> awaitBookChanges(int commits) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (bookChanges.stream().mapToInt(ChangeSet::getCommitCount).sum() < commits) {
+            assertTrue(System.currentTimeMillis() < deadline, "Changes were not reported");
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        Set<Long> rowIds = new HashSet<>();
+        bookChanges.forEach(changes -> rowIds.addAll(changes.getRowIds("books")));
+        return rowIds;
+    }
+}
@@ -0,0 +1,250 @@
+package com.thereadingroom.model.dao.ledger;
+
+import com.thereadingroom.model.entity.StockLevel;
+import com.thereadingroom.model.entity.StockMovement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StockLedger.
+ * Verifies that movements update the projection, adjustments become exact deltas and a restart replays the log.
+ */
+public class StockLedgerTest {
+
+    private static final int BOOK_ID = 1;
+    private static final int INITIAL_STOCK = 100;
+    private static final String REJECTED = "rejected";  // Reference of movements the test DAO refuses to append
+
+    private InMemoryStockLedgerDAO ledgerDAO;
+    private StockLedger stockLedger;
+
+    /**
+     * Starts a ledger over an in-memory DAO holding one book with 100 copies.
+     */
+    @BeforeEach
+    public void setUp() {
+        ledgerDAO = new InMemoryStockLedgerDAO();
+        ledgerDAO.levels.put(BOOK_ID, new StockLevel(BOOK_ID, INITIAL_STOCK, 0));
+        stockLedger = new StockLedger(ledgerDAO);
+        stockLedger.start();
+    }
+
+    /**
+     * Stops the ledger's writer thread.
+     */
+    @AfterEach
+    public void tearDown() {
+        stockLedger.shutdown();
+    }
+
+    /**
+     * Tests that concurrent movements are all committed and reflected in the projection.
+     */
+    @Test
+    public void testConcurrentMovementsUpdateProjection() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 80; i++) {
+            executor.execute(() -> assertTrue(stockLedger.record(
+                    new StockMovement(BOOK_ID, StockMovement.Type.RESERVE, -1, 0, null))));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(INITIAL_STOCK - 80, stockLedger.getStockLevel(BOOK_ID).getPhysicalCopies());
+        assertEquals(80, ledgerDAO.movements.size());
+    }
+
+    /**
+     * Tests that an adjustment records the difference to the target rather than the target itself.
+     */
+    @Test
+    public void testAdjustmentRecordsDelta() {
+        assertTrue(stockLedger.record(new StockMovement(BOOK_ID, StockMovement.Type.RESERVE, -10, 0, null)));
+        assertTrue(stockLedger.recordAdjustment(BOOK_ID, 50, 7, "admin"));
+
+        StockLevel level = stockLedger.getStockLevel(BOOK_ID);
+        assertEquals(50, level.getPhysicalCopies());
+        assertEquals(7, level.getSoldCopies());
+        StockMovement adjustment = ledgerDAO.movements.get(ledgerDAO.movements.size() - 1);
+        assertEquals(StockMovement.Type.ADJUST, adjustment.getType());
+        assertEquals(-40, adjustment.getPhysicalDelta());
+        assertEquals(7, adjustment.getSoldDelta());
+
+        assertFalse(stockLedger.recordAdjustment(99, 1, null, null));  // Unknown book
+    }
+
+    /**
+     * Tests that an adjustment whose transaction step fails is rolled back as a whole.
+     */
+    @Test
+    public void testAdjustmentRolledBackWithFailedStep() {
+        assertFalse(stockLedger.recordAdjustment(BOOK_ID, 40, null, "admin book edit", conn -> false));
+
+        assertEquals(INITIAL_STOCK, stockLedger.getStockLevel(BOOK_ID).getPhysicalCopies());
+        assertTrue(ledgerDAO.movements.isEmpty());
+
+        assertTrue(stockLedger.recordAdjustment(BOOK_ID, 40, null, "admin book edit", conn -> true));
+        assertEquals(40, stockLedger.getStockLevel(BOOK_ID).getPhysicalCopies());
+    }
+
+    /**
+     * Tests that a write failing a group commit fails alone while the rest of its group is committed.
+     */
+    @Test
+    public void testFailedGroupCommitRetriesWritesOneByOne() throws Exception {
+        // Hold the writer inside a transaction step so the next writes queue up and are committed as one group
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<Boolean> blocker = executor.submit(() -> stockLedger.record(List.of(), conn -> {
+            writerBusy.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+
+        Future<Boolean> first = executor.submit(() -> stockLedger.record(new StockMovement(BOOK_ID, StockMovement.Type.RESERVE, -1, 0, null)));
+        Future<Boolean> rejected = executor.submit(() -> stockLedger.record(new StockMovement(BOOK_ID, StockMovement.Type.RESERVE, -2, 0, REJECTED)));
+        Future<Boolean> last = executor.submit(() -> stockLedger.record(new StockMovement(BOOK_ID, StockMovement.Type.RESERVE, -4, 0, null)));
+        Thread.sleep(200);  // Let the writes queue behind the blocked writer
+        release.countDown();
+
+        assertTrue(blocker.get(5, TimeUnit.SECONDS));
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertFalse(rejected.get(5, TimeUnit.SECONDS));
+        assertTrue(last.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(INITIAL_STOCK - 5, stockLedger.getStockLevel(BOOK_ID).getPhysicalCopies());
+        assertEquals(2, ledgerDAO.movements.size());
+    }
+
+    /**
+     * Tests that a restarted ledger rebuilds the projection from the snapshot plus later movements.
+     */
+    @Test
+    public void testRestartReplaysMovementsSinceSnapshot() {
+        assertTrue(stockLedger.record(new StockMovement(BOOK_ID, StockMovement.Type.SALE, 0, 3, null)));
+        assertTrue(stockLedger.snapshotNow());
+        assertTrue(stockLedger.record(new StockMovement(BOOK_ID, StockMovement.Type.RESERVE, -5, 0, null)));
+        assertEquals(INITIAL_STOCK, ledgerDAO.levels.get(BOOK_ID).getPhysicalCopies());  // Not snapshotted yet
+
+        StockLedger restarted = new StockLedger(ledgerDAO);
+        restarted.start();
+        try {
+            StockLevel level = restarted.getStockLevel(BOOK_ID);
+            assertEquals(INITIAL_STOCK - 5, level.getPhysicalCopies());
+            assertEquals(3, level.getSoldCopies());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    /**
+     * Tests that the best sellers are ranked by the ledger's sold copies, including sales not yet snapshotted,
+     * and that deleted books are no longer ranked.
+     */
+    @Test
+    public void testTopSellingRanksCurrentSoldCopies() {
+        for (int bookId = 2; bookId <= 8; bookId++) {
+            ledgerDAO.levels.put(bookId, new StockLevel(bookId, INITIAL_STOCK, bookId));
+        }
+        StockLedger ledger = new StockLedger(ledgerDAO);
+        ledger.start();
+        try {
+            assertTrue(ledger.record(new StockMovement(BOOK_ID, StockMovement.Type.SALE, 0, 20, null)));
+            ledger.forget(8);
+
+            List<StockLevel> topSelling = ledger.getTopSelling(3);
+            assertEquals(List.of(BOOK_ID, 7, 6), topSelling.stream().map(StockLevel::getBookId).toList());
+            assertEquals(20, topSelling.get(0).getSoldCopies());
+        } finally {
+            ledger.shutdown();
+        }
+    }
+
+    /**
+     * In-memory ledger DAO: a movement list plus a snapshot table.
+     */
+    private static class InMemoryStockLedgerDAO implements IStockLedgerDAO {
+        private final Map<Integer, StockLevel> levels = new HashMap<>();
+        private final List<StockMovement> movements = new ArrayList<>();
+        private long snapshotMovementId;
+
+        @Override
+        public synchronized boolean appendMovements(List<StockMovement> newMovements, LedgerTransactionStep step) {
+            try {
+                if (step != null && !step.apply(null)) {
+                    return false;  // Rolled back: nothing is appended
+                }
+            } catch (SQLException e) {
+                return false;
+            }
+            if (newMovements.stream().anyMatch(movement -> REJECTED.equals(movement.getReference()))) {
+                return false;  // Simulates a constraint violation that fails the whole transaction
+            }
+            for (StockMovement movement : newMovements) {
+                movement.setMovementId(movements.size() + 1);
+                movements.add(movement);
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized List<StockLevel> loadStockLevels() {
+            return new ArrayList<>(levels.values());
+        }
+
+        @Override
+        public synchronized StockLevel loadStockLevel(int bookId) {
+            return levels.get(bookId);
+        }
+
+        @Override
+        public synchronized long getSnapshotMovementId() {
+            return snapshotMovementId;
+        }
+
+        @Override
+        public synchronized List<StockMovement> getMovementsSince(long movementId) {
+            return new ArrayList<>(movements.subList((int) movementId, movements.size()));
+        }
+
+        @Override
+        public synchronized boolean writeSnapshot(List<StockLevel> snapshot, long movementId) {
+            for (StockLevel level : snapshot) {
+                levels.put(level.getBookId(), level);
+            }
+            snapshotMovementId = movementId;
+            return true;
+        }
+
+        @Override
+        public int compactMovements(long snapshotMovementId, int retentionDays) {
+            return 0;
+        }
+
+        @Override
+        public synchronized List<StockMovement> getMovementsForBook(int bookId, int limit) {
+            return List.of();
+        }
+    }
+}
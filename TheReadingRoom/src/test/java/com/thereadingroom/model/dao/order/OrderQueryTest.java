@@ -0,0 +1,199 @@
+package com.thereadingroom.model.dao.order;
+
+import com.thereadingroom.model.entity.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OrderQuery, run against a temporary SQLite database with the orders table.
+ * Verifies that the compiled SQL filters like the criteria say, that paging with the cursor visits every
+ * matching order exactly once in sort order, and that the sort keys are served by indexes.
+ */
+public class OrderQueryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private Connection connection;
+
+    /**
+     * Creates the orders table with its search indexes and 60 orders of 3 users; every 3 orders share a date
+     * and every 4 orders share a total, so the cursor has to break ties by order ID.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("orders.db"));
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE orders (order_id INTEGER PRIMARY KEY AUTOINCREMENT, order_number TEXT NOT NULL UNIQUE, "
+                    + "user_id INTEGER NOT NULL, total_price REAL NOT NULL, order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("CREATE INDEX idx_orders_user_date ON orders (user_id, order_date, order_id)");
+            stmt.execute("CREATE INDEX idx_orders_date ON orders (order_date, order_id)");
+            stmt.execute("CREATE INDEX idx_orders_total ON orders (total_price, order_id)");
+            stmt.execute("CREATE INDEX idx_orders_user_total ON orders (user_id, total_price, order_id)");
+            stmt.execute("CREATE INDEX idx_orders_user ON orders (user_id, order_id)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO orders (order_number, user_id, total_price, order_date) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < 60; i++) {
+                insert.setString(1, (i % 2 == 0 ? "ORD-A" : "ORD-B") + String.format("%03d", i));
+                insert.setInt(2, i % 3 + 1);
+                insert.setDouble(3, 10.0 + i / 4);
+                insert.setTimestamp(4, Timestamp.valueOf(START.plusDays(i / 3)));
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Closes the connection.
+     */
+    @AfterEach
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    /**
+     * Tests that the filters are combined and the prefix matches regardless of case.
+     */
+    @Test
+    public void testFiltersAreApplied() throws Exception {
+        OrderQuery query = new OrderQuery();
+        query.setUserId(2);
+        query.setFromDate(START.plusDays(3));
+        query.setToDate(START.plusDays(12));
+        query.setMinTotal(12.0);
+        query.setOrderNumberPrefix(" ord-a ");
+
+        List<Order> orders = run(query);
+
+        assertFalse(orders.isEmpty());
+        for (Order order : orders) {
+            assertEquals(2, order.getUserId());
+            assertFalse(order.getOrderDate().isBefore(START.plusDays(3)));
+            assertTrue(order.getOrderDate().isBefore(START.plusDays(12)));
+            assertTrue(order.getTotalPrice() >= 12.0);
+            assertTrue(order.getOrderNumber().startsWith("ORD-A"));
+        }
+    }
+
+    /**
+     * Tests that paging through each sort key in both directions returns every order once, in sort order.
+     */
+    @Test
+    public void testPagingVisitsEveryOrderOnceInOrder() throws Exception {
+        for (OrderQuery.SortKey sortKey : OrderQuery.SortKey.values()) {
+            for (boolean descending : new boolean[]{true, false}) {
+                OrderQuery query = new OrderQuery();
+                query.setSortKey(sortKey);
+                query.setDescending(descending);
+                query.setLimit(7);
+
+                List<Order> all = new ArrayList<>();
+                List<Order> page = run(query);
+                while (true) {
+                    all.addAll(page);
+                    if (page.size() < query.getLimit()) {
+                        break;
+                    }
+                    query = query.nextPage(page.get(page.size() - 1));
+                    page = run(query);
+                }
+
+                assertEquals(60, all.size(), sortKey + " " + descending);
+                assertEquals(60, all.stream().mapToInt(Order::getOrderId).distinct().count(), sortKey + " " + descending);
+                for (int i = 1; i < all.size(); i++) {
+                    int comparison = compare(sortKey, all.get(i - 1), all.get(i));
+                    assertTrue(descending ? comparison > 0 : comparison < 0, sortKey + " " + descending + " at " + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the sort keys are read from an index instead of sorting the table.
+     */
+    @Test
+    public void testSortKeysUseIndexes() throws Exception {
+        for (OrderQuery.SortKey sortKey : OrderQuery.SortKey.values()) {
+            OrderQuery query = new OrderQuery();
+            query.setSortKey(sortKey);
+            assertFalse(plan(query).contains("TEMP B-TREE"), sortKey.toString());
+        }
+        OrderQuery byUser = new OrderQuery();
+        byUser.setUserId(1);
+        byUser.setSortKey(OrderQuery.SortKey.TOTAL_PRICE);
+        assertFalse(plan(byUser).contains("TEMP B-TREE"));
+    }
+
+    /**
+     * Compares two orders by a sort key, breaking ties by order ID.
+     */
+    private int compare(OrderQuery.SortKey sortKey, Order a, Order b) {
+        int comparison = switch (sortKey) {
+            case ORDER_DATE -> a.getOrderDate().compareTo(b.getOrderDate());
+            case TOTAL_PRICE -> Double.compare(a.getTotalPrice(), b.getTotalPrice());
+            case ORDER_NUMBER -> a.getOrderNumber().compareTo(b.getOrderNumber());
+            case USER_ID -> Integer.compare(a.getUserId(), b.getUserId());
+            case ORDER_ID -> 0;
+        };
+        return comparison != 0 ? comparison : Integer.compare(a.getOrderId(), b.getOrderId());
+    }
+
+    /**
+     * Runs a query's SQL against the test database.
+     */
+    private List<Order> run(OrderQuery query) throws Exception {
+        List<Object> parameters = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(query.toSql(parameters))) {
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Order order = new Order(rs.getString("order_number"), rs.getInt("user_id"), rs.getDouble("total_price"),
+                            new ArrayList<>(), rs.getTimestamp("order_date").toLocalDateTime());
+                    order.setOrderId(rs.getInt("order_id"));
+                    orders.add(order);
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Returns SQLite's query plan for a query.
+     */
+    private String plan(OrderQuery query) throws Exception {
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + query.toSql(parameters))) {
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString("detail")).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package com.thereadingroom.model.dao.search;
+
+import com.thereadingroom.model.dao.search.BookSearchIndexTest.FakeSearchIndexDAO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmarks for BookSearchIndex over synthetic catalogs of up to a million titles, printing load time,
+ * query time and index memory. Tagged "benchmark", so they only run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class BookSearchIndexBenchmarkTest {
+
+    private static final String[] WORDS = {"java", "python", "data", "systems", "design", "patterns", "learning",
+            "modern", "distributed", "algorithms", "networks", "security", "cloud", "mobile", "testing", "compilers"};
+    private static final String[] AUTHORS = {"Deitel", "Savitch", "Knuth", "Liskov", "Hopper", "Kernighan", "Ritchie"};
+
+    /**
+     * Measures load time and query time over a million titles.
+     */
+    @Test
+    public void testQueryTimeOverMillionTitles() {
+        FakeSearchIndexDAO dao = new FakeSearchIndexDAO();
+        int bookCount = 1_000_000;
+        for (int i = 0; i < bookCount; i++) {
+            dao.add(WORDS[i % WORDS.length] + " " + WORDS[i / WORDS.length % WORDS.length] + " vol" + (i % 5_000),
+                    AUTHORS[i % AUTHORS.length] + " " + (i / 1_000));
+        }
+        BookSearchIndex index = new BookSearchIndex(dao);
+        long start = System.nanoTime();
+        assertTrue(index.load());
+        System.out.printf("Indexed %,d titles in %.0f ms%n", bookCount, (System.nanoTime() - start) / 1e6);
+
+        String[] queries = {"j", "ja", "java", "java d", "data sys", "vol12", "knuth vol4999", "mod dis kernighan", "zzz"};
+        for (String query : queries) {
+            index.search(query, 100);  // Warm up
+        }
+        int runs = 500;
+        start = System.nanoTime();
+        for (int run = 0; run < runs; run++) {
+            for (String query : queries) {
+                index.search(query, 100);
+            }
+        }
+        System.out.printf("Search as you type: %.3f ms per query%n", (System.nanoTime() - start) / 1e6 / runs / queries.length);
+        assertEquals(100, index.search("ja", 100).size());
+        assertFalse(index.search("knuth vol4999", 100).isEmpty());
+    }
+
+    /**
+     * Measures fuzzy query time and the memory of the index as the catalog grows, with a vocabulary that grows too.
+     */
+    @Test
+    public void testFuzzyQueryTimeByCatalogSize() {
+        for (int bookCount : new int[]{10_000, 100_000, 1_000_000}) {
+            // A vocabulary of one word per five books, drawn with a skew so some words are in many titles
+            Random random = new Random(42);
+            String[] vocabulary = new String[bookCount / 5];
+            for (int i = 0; i < vocabulary.length; i++) {
+                vocabulary[i] = syntheticWord(random);
+            }
+            FakeSearchIndexDAO dao = new FakeSearchIndexDAO();
+            for (int i = 0; i < bookCount; i++) {
+                dao.add(skewed(vocabulary, random) + " " + skewed(vocabulary, random) + " " + skewed(vocabulary, random),
+                        AUTHORS[i % AUTHORS.length] + " " + skewed(vocabulary, random));
+            }
+            long heapBefore = usedHeap();
+            BookSearchIndex index = new BookSearchIndex(dao);
+            assertTrue(index.load());
+            long heapAfter = usedHeap();
+
+            // Misspell the first word of some titles by swapping two letters, and the second by dropping one
+            List<String> queries = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                String[] words = dao.titles.get(i * (bookCount / 50)).split(" ");
+                queries.add(words[0].substring(0, 2) + words[0].charAt(3) + words[0].charAt(2) + words[0].substring(4)
+                        + " " + words[1].substring(0, 1) + words[1].substring(2));
+            }
+            for (String query : queries) {
+                index.fuzzySearch(query, 2, 100);  // Warm up
+            }
+            int runs = 10;
+            long start = System.nanoTime();
+            for (int run = 0; run < runs; run++) {
+                for (String query : queries) {
+                    assertFalse(index.fuzzySearch(query, 2, 100).isEmpty(), query);
+                }
+            }
+            System.out.printf("Fuzzy search over %,d titles: %.3f ms per query, index about %,d MB%n", bookCount,
+                    (System.nanoTime() - start) / 1e6 / runs / queries.size(), (heapAfter - heapBefore) >> 20);
+        }
+    }
+
+    /**
+     * Returns a pronounceable word of two to four syllables.
+     */
+    private static String syntheticWord(Random random) {
+        String consonants = "bcdfghjklmnprstvwxz";
+        String vowels = "aeiouy";
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(consonants.charAt(random.nextInt(consonants.length()))).append(vowels.charAt(random.nextInt(vowels.length())));
+            if (random.nextInt(4) == 0) {
+                word.append(consonants.charAt(random.nextInt(consonants.length())));
+            }
+        }
+        return word.toString();
+    }
+
+    /**
+     * Returns a word of the vocabulary, the first ones far more often than the last ones.
+     */
+    private static String skewed(String[] vocabulary, Random random) {
+        double r = random.nextDouble();
+        return vocabulary[(int) (r * r * r * vocabulary.length)];
+    }
+
+    /**
+     * Returns the heap in use after a garbage collection.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
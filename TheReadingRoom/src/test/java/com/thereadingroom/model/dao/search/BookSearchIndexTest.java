@@ -0,0 +1,167 @@
+package com.thereadingroom.model.dao.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookSearchIndex.
+ * Verifies prefix matching over title and author words, ranking, typo-tolerant matching, and that writes
+ * after the load are searchable. Query time over large catalogs is measured by BookSearchIndexBenchmarkTest.
+ */
+public class BookSearchIndexTest {
+
+    /**
+     * Catalog served from memory: book i (1-based) has titles[i - 1] and authors[i - 1].
+     */
+    static class FakeSearchIndexDAO implements ISearchIndexDAO {
+
+        final List<String> titles = new ArrayList<>();
+        final List<String> authors = new ArrayList<>();
+
+        void add(String title, String author) {
+            titles.add(title);
+            authors.add(author);
+        }
+
+        @Override
+        public int loadBooks(BookSearchIndex index) {
+            for (int i = 0; i < titles.size(); i++) {
+                index.stage(i + 1, titles.get(i), authors.get(i));
+            }
+            return titles.size();
+        }
+    }
+
+    /**
+     * Tests that every query word must start a title or author word, ignoring case, accents and punctuation.
+     */
+    @Test
+    public void testPrefixMatching() {
+        BookSearchIndex index = indexOf(
+                "Absolute Java", "Walter Savitch",
+                "Java: How to Program", "Paul Deitel",
+                "Les Misérables", "Victor Hugo",
+                "Python Crash Course", "Eric Matthes");
+
+        assertEquals(List.of(1, 2), index.search("jav", 10));
+        assertEquals(List.of(2), index.search("java prog", 10));
+        assertEquals(List.of(2), index.search("DEITEL  java", 10));
+        assertEquals(List.of(3), index.search("miserables", 10));
+        assertEquals(List.of(3), index.search("misér", 10));
+        assertTrue(index.search("ava", 10).isEmpty());
+        assertTrue(index.search("java python", 10).isEmpty());
+        assertTrue(index.search("  ,, ", 10).isEmpty());
+    }
+
+    /**
+     * Tests that whole title words rank before title prefixes, which rank before author matches,
+     * then shorter titles first.
+     */
+    @Test
+    public void testRanking() {
+        BookSearchIndex index = indexOf(
+                "Programming Pearls", "Jon Bentley",
+                "The Art of Computer Programming", "Donald Knuth",
+                "Programs and Proofs", "Someone",
+                "Compilers", "Programmer Jones",
+                "Program Design", "Someone Else");
+
+        assertEquals(List.of(5, 1, 3, 2, 4), index.search("program", 10));
+        assertEquals(List.of(5, 1), index.search("program", 2));
+    }
+
+    /**
+     * Tests that books added, edited and removed after the load are found as they are now.
+     */
+    @Test
+    public void testWritesAfterLoad() {
+        BookSearchIndex index = indexOf("Absolute Java", "Walter Savitch");
+        assertEquals(1, index.getBookCount());
+
+        index.upsert(2, "Effective Java", "Joshua Bloch");
+        assertEquals(List.of(1, 2), index.search("java", 10));
+
+        index.upsert(1, "Absolute C++", "Walter Savitch");
+        assertEquals(List.of(2), index.search("java", 10));
+        assertEquals(List.of(1), index.search("absolute", 10));
+
+        index.remove(2);
+        assertTrue(index.search("java", 10).isEmpty());
+        assertTrue(index.search("bloch", 10).isEmpty());
+        assertEquals(1, index.getBookCount());
+    }
+
+    /**
+     * Tests that writes before the first search are left to the load, which reads them itself.
+     */
+    @Test
+    public void testWritesBeforeLoadAreIgnored() {
+        FakeSearchIndexDAO dao = new FakeSearchIndexDAO();
+        dao.add("Absolute Java", "Walter Savitch");
+        BookSearchIndex index = new BookSearchIndex(dao);
+
+        index.upsert(1, "Absolute Java", "Walter Savitch");
+        index.remove(1);
+
+        assertEquals(List.of(1), index.search("java", 10));
+        assertEquals(1, index.getBookCount());
+    }
+
+    /**
+     * Tests that misspelled words find the books they were meant for, fewest edits first, and that short
+     * words must be spelled exactly.
+     */
+    @Test
+    public void testFuzzySearch() {
+        BookSearchIndex index = indexOf(
+                "Bayesian Statistics the Fun Way", "Will Kurt",
+                "Statistics Done Wrong", "Alex Reinhart",
+                "Absolute Java", "Walter Savitch",
+                "Lava Flows", "Someone",
+                "Python Crash Course", "Eric Matthes");
+
+        assertEquals(List.of(1), index.fuzzySearch("Bayesain Statistics", 2, 10));
+        assertEquals(List.of(2, 1), index.fuzzySearch("statistcs", 2, 10));
+        assertEquals(List.of(5), index.fuzzySearch("pyhton crsh", 2, 10));
+        assertEquals(List.of(3), index.fuzzySearch("jaba", 2, 10));  // "Lava" is two edits away, too many for four letters
+        assertEquals(List.of(3), index.fuzzySearch("Savitch jva", 2, 10));
+        assertTrue(index.fuzzySearch("statistcs", 0, 10).isEmpty());
+        assertTrue(index.fuzzySearch("on", 2, 10).isEmpty());
+        assertEquals(List.of(2), index.fuzzySearch("statistcs", 2, 1));
+    }
+
+    /**
+     * Tests that books added, edited and removed after the load are found by fuzzy search as they are now.
+     */
+    @Test
+    public void testFuzzySearchAfterWrites() {
+        BookSearchIndex index = indexOf("Absolute Java", "Walter Savitch");
+
+        index.upsert(2, "Kubernetes in Action", "Marko Luksa");
+        assertEquals(List.of(2), index.fuzzySearch("kubernets", 2, 10));
+
+        index.upsert(2, "Docker in Action", "Jeff Nickoloff");
+        assertTrue(index.fuzzySearch("kubernets", 2, 10).isEmpty());
+        assertEquals(List.of(2), index.fuzzySearch("dokcer", 2, 10));
+
+        index.remove(2);
+        assertTrue(index.fuzzySearch("dokcer", 2, 10).isEmpty());
+    }
+
+    /**
+     * Creates a loaded index of books 1, 2, ... with the given title and author pairs.
+     */
+    private BookSearchIndex indexOf(String... titlesAndAuthors) {
+        FakeSearchIndexDAO dao = new FakeSearchIndexDAO();
+        for (int i = 0; i < titlesAndAuthors.length; i += 2) {
+            dao.add(titlesAndAuthors[i], titlesAndAuthors[i + 1]);
+        }
+        BookSearchIndex index = new BookSearchIndex(dao);
+        assertTrue(index.load());
+        return index;
+    }
+}
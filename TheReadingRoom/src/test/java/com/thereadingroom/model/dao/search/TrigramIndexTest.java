@@ -0,0 +1,73 @@
+package com.thereadingroom.model.dao.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TrigramIndex.
+ * Verifies the bounded Damerau-Levenshtein distance and that the trigram filter finds every word within the bound
+ * that shares a gram with the query.
+ */
+public class TrigramIndexTest {
+
+    /**
+     * Tests insertions, deletions, substitutions and swaps of adjacent letters, and the bound.
+     */
+    @Test
+    public void testDistance() {
+        assertEquals(0, TrigramIndex.distance("bayesian", "bayesian", 2));
+        assertEquals(1, TrigramIndex.distance("bayesain", "bayesian", 2));   // Swap
+        assertEquals(1, TrigramIndex.distance("statistcs", "statistics", 2)); // Deletion
+        assertEquals(1, TrigramIndex.distance("pyhton", "python", 2));        // Swap
+        assertEquals(1, TrigramIndex.distance("jaba", "java", 2));            // Substitution
+        assertEquals(3, TrigramIndex.distance("kitten", "sitting", 2));       // Over the bound
+        assertEquals(3, TrigramIndex.distance("abc", "abcdef", 2));          // Length difference over the bound
+        assertEquals(1, TrigramIndex.distance("", "a", 1));
+    }
+
+    /**
+     * Tests that every indexed word within the bound that shares a gram is found, including words sharing few grams.
+     */
+    @Test
+    public void testSimilarFindsAllWordsWithinBound() {
+        String[] vocabulary = {"java", "lava", "jvaa", "javascript", "bayesian", "statistics", "python", "pyhton",
+                "cat", "act", "at", "statistic", "static", "basic"};
+        TrigramIndex index = new TrigramIndex();
+        for (String word : vocabulary) {
+            index.add(word);
+        }
+        index.add("java");
+        assertEquals(vocabulary.length, index.size());
+
+        for (String query : new String[]{"java", "bayesain", "statistcs", "pyton", "cta", "jav"}) {
+            for (int maxEdits = 1; maxEdits <= 2; maxEdits++) {
+                List<Map.Entry<String, Integer>> found = index.similar(query, maxEdits);
+                for (String word : vocabulary) {
+                    int distance = TrigramIndex.distance(query, word, maxEdits);
+                    boolean expected = distance <= maxEdits && sharesGram(query, word);
+                    assertEquals(expected, found.contains(Map.entry(word, distance)), query + " ~ " + word + " within " + maxEdits);
+                }
+            }
+        }
+        assertEquals(List.of(Map.entry("java", 0)), index.similar("java", 0));
+        assertFalse(index.similar("java", 1).contains(Map.entry("jvaa", 1)));
+    }
+
+    /**
+     * Returns whether two words padded with boundary marks have a three-letter gram in common.
+     */
+    private static boolean sharesGram(String a, String b) {
+        String paddedA = "$" + a + "$";
+        String paddedB = "$" + b + "$";
+        for (int i = 0; i + 3 <= paddedA.length(); i++) {
+            if (paddedB.contains(paddedA.substring(i, i + 3))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
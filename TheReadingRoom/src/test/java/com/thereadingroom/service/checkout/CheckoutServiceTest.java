@@ -0,0 +1,113 @@
+package com.thereadingroom.service.checkout;
+
+import com.thereadingroom.model.dao.idempotency.IIdempotencyDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CheckoutService.
+ * Verifies that checkouts run at most once per token, whether the duplicate is concurrent, recent or persisted.
+ */
+public class CheckoutServiceTest {
+
+    private IIdempotencyDAO mockIdempotencyDAO;
+    private CheckoutService checkoutService;
+
+    /**
+     * Creates a fresh service with no persisted tokens before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        mockIdempotencyDAO = mock(IIdempotencyDAO.class);
+        when(mockIdempotencyDAO.findOrderNumber(anyString())).thenReturn(Optional.empty());
+        checkoutService = new CheckoutService(mockIdempotencyDAO);
+    }
+
+    /**
+     * Tests that concurrent checkouts with the same token collapse onto one execution.
+     */
+    @Test
+    public void testConcurrentDuplicatesCollapse() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<String> payment = new CompletableFuture<>();
+
+        CompletableFuture<CheckoutResult> first = checkoutService.checkout("token-1", () -> {
+            executions.incrementAndGet();
+            return payment;
+        });
+        CompletableFuture<CheckoutResult> second = checkoutService.checkout("token-1", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture("ORD-OTHER");
+        });
+
+        payment.complete("ORD-1");
+
+        CheckoutResult original = first.get(2, TimeUnit.SECONDS);
+        CheckoutResult duplicate = second.get(2, TimeUnit.SECONDS);
+        assertEquals(1, executions.get());
+        assertFalse(original.isDuplicate());
+        assertTrue(duplicate.isDuplicate());
+        assertEquals("ORD-1", duplicate.getOrderReference());
+    }
+
+    /**
+     * Tests that a completed token is answered from memory without running the checkout again.
+     */
+    @Test
+    public void testCompletedTokenReturnsOriginalOrder() throws Exception {
+        checkoutService.checkout("token-2", () -> CompletableFuture.completedFuture("ORD-2")).get(2, TimeUnit.SECONDS);
+
+        CheckoutResult repeat = checkoutService.checkout("token-2", () -> fail("Checkout must not run twice")).get(2, TimeUnit.SECONDS);
+
+        assertTrue(repeat.isDuplicate());
+        assertEquals("ORD-2", repeat.getOrderReference());
+    }
+
+    /**
+     * Tests that a token persisted by an earlier session is found in the database.
+     */
+    @Test
+    public void testPersistedTokenReturnsOriginalOrder() throws Exception {
+        when(mockIdempotencyDAO.findOrderNumber("token-3")).thenReturn(Optional.of("ORD-3"));
+
+        CheckoutResult repeat = checkoutService.checkout("token-3", () -> fail("Checkout must not run twice")).get(2, TimeUnit.SECONDS);
+
+        assertTrue(repeat.isDuplicate());
+        assertEquals("ORD-3", repeat.getOrderReference());
+    }
+
+    /**
+     * Tests that a failed checkout is not remembered, so the same token can be retried.
+     */
+    @Test
+    public void testFailedCheckoutCanBeRetried() throws Exception {
+        CompletableFuture<CheckoutResult> failed = checkoutService.checkout("token-4",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("declined")));
+        assertThrows(ExecutionException.class, () -> failed.get(2, TimeUnit.SECONDS));
+
+        CheckoutResult retried = checkoutService.checkout("token-4", () -> CompletableFuture.completedFuture("ORD-4")).get(2, TimeUnit.SECONDS);
+
+        assertFalse(retried.isDuplicate());
+        assertEquals("ORD-4", retried.getOrderReference());
+    }
+
+    /**
+     * Tests that expired tokens are deleted after the retention period.
+     */
+    @Test
+    public void testPurgeKeepsTokensForRetentionPeriod() {
+        when(mockIdempotencyDAO.deleteKeysOlderThan(anyInt())).thenReturn(true);
+
+        assertTrue(checkoutService.purgeExpiredTokens());
+        verify(mockIdempotencyDAO).deleteKeysOlderThan(CheckoutService.TOKEN_RETENTION_DAYS);
+    }
+}
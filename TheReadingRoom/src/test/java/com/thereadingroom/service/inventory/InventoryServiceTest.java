@@ -0,0 +1,140 @@
+package com.thereadingroom.service.inventory;
+
+import com.thereadingroom.model.dao.book.IBookDAO;
+import com.thereadingroom.model.dao.flashsale.IFlashSaleDAO;
+import com.thereadingroom.model.dao.inventory.IPendingRevertDAO;
+import com.thereadingroom.model.entity.Book;
+import com.thereadingroom.model.entity.PendingStockRevert;
+import com.thereadingroom.service.inventory.flashsale.FlashSaleManager;
+import com.thereadingroom.utils.lock.StripedLockManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for InventoryService.
+ * Verifies that multi-book reservations are all-or-nothing, that reverts wait for busy books and that deferred
+ * reverts are applied only under their book's lock.
+ */
+public class InventoryServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private IBookDAO mockBookDAO;
+    private IPendingRevertDAO mockPendingRevertDAO;
+    private InventoryService inventoryService;
+    private Book inStock;
+    private Book shortOfStock;
+
+    /**
+     * Creates a service over a mocked DAO with one book in stock and one without enough copies.
+     */
+    @BeforeEach
+    public void setUp() {
+        mockBookDAO = mock(IBookDAO.class);
+        FlashSaleManager flashSaleManager = new FlashSaleManager(mock(IFlashSaleDAO.class), tempDir.resolve("flashsale.journal"));
+        mockPendingRevertDAO = mock(IPendingRevertDAO.class);
+        inventoryService = new InventoryService(mockBookDAO, flashSaleManager, mockPendingRevertDAO);
+
+        inStock = mock(Book.class);
+        when(inStock.getBookId()).thenReturn(1);
+        shortOfStock = mock(Book.class);
+        when(shortOfStock.getBookId()).thenReturn(2);
+        when(mockBookDAO.getAvailableCopies(inStock)).thenReturn(10);
+        when(mockBookDAO.getAvailableCopies(shortOfStock)).thenReturn(1);
+    }
+
+    /**
+     * Tests that no stock is taken when any book in the reservation is short.
+     */
+    @Test
+    public void testReservationIsAllOrNothing() {
+        Map<Book, Integer> books = new LinkedHashMap<>();
+        books.put(inStock, 2);
+        books.put(shortOfStock, 5);
+
+        assertFalse(inventoryService.reserveBooks(books));
+        verify(mockBookDAO, never()).reducePhysicalCopies(anyInt(), anyInt());
+    }
+
+    /**
+     * Tests that every book is reduced when all of them have enough stock.
+     */
+    @Test
+    public void testReservationReducesEveryBook() {
+        Map<Book, Integer> books = new LinkedHashMap<>();
+        books.put(inStock, 2);
+        books.put(shortOfStock, 1);
+
+        assertTrue(inventoryService.reserveBooks(books));
+        verify(mockBookDAO).reducePhysicalCopies(1, 2);
+        verify(mockBookDAO).reducePhysicalCopies(2, 1);
+    }
+
+    /**
+     * Tests that a revert whose books stay locked past the lock timeout retries and is applied under the lock.
+     */
+    @Test
+    public void testRevertRetriesBusyBooks() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (StripedLockManager.LockHandle handle = BookLockManager.getInstance().lockBook(1)) {
+                assertNotNull(handle);
+                locked.countDown();
+                Thread.sleep(2_050);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+
+        inventoryService.revertReservations(Map.of(inStock, 3));
+        holder.join();
+
+        verify(mockBookDAO).restorePhysicalCopies(1, 3);
+    }
+
+    /**
+     * Tests that deferred reverts are applied for free books and stay pending while their book is locked.
+     */
+    @Test
+    public void testPendingRevertsSkipBusyBooks() throws Exception {
+        PendingStockRevert free = new PendingStockRevert(1, 1, 3);
+        PendingStockRevert busy = new PendingStockRevert(2, 2, 4);
+        when(mockPendingRevertDAO.getPendingReverts()).thenReturn(List.of(free, busy));
+        when(mockPendingRevertDAO.applyPendingRevert(any())).thenReturn(true);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (StripedLockManager.LockHandle handle = BookLockManager.getInstance().lockBook(2)) {
+                assertNotNull(handle);
+                locked.countDown();
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+
+        assertEquals(1, inventoryService.retryPendingReverts());
+        done.countDown();
+        holder.join();
+
+        verify(mockPendingRevertDAO).applyPendingRevert(free);
+        verify(mockPendingRevertDAO, never()).applyPendingRevert(busy);
+    }
+}
@@ -0,0 +1,58 @@
+package com.thereadingroom.service.inventory.flashsale;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FlashSaleJournal.
+ * Verifies that concurrent grants are all journaled and share forces to disk through group commit.
+ */
+public class FlashSaleJournalTest {
+
+    private static final long EPOCH = 42;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that every grant is on disk when acknowledged and that concurrent grants are forced together.
+     */
+    @Test
+    public void testConcurrentGrantsShareForces() throws Exception {
+        FlashSaleJournal journal = new FlashSaleJournal(tempDir.resolve("flashsale.journal"));
+        int threads = 8;
+        int grantsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < grantsPerThread; j++) {
+                    journal.recordGrant(1, EPOCH, 1);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(threads * grantsPerThread, journal.readNetGranted().get(EPOCH));
+        assertTrue(journal.getSyncCount() > 0);
+        assertTrue(journal.getSyncCount() < threads * grantsPerThread, "Grants were forced one at a time");
+    }
+}
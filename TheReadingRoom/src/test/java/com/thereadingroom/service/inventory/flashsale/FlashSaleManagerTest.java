@@ -0,0 +1,198 @@
+package com.thereadingroom.service.inventory.flashsale;
+
+import com.thereadingroom.model.dao.flashsale.IFlashSaleDAO;
+import com.thereadingroom.model.entity.FlashSale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FlashSaleManager.
+ * Verifies that flash sales never oversell, reconcile to the books table in batches, stay open when they cannot
+ * be ended and recover from the journal.
+ */
+public class FlashSaleManagerTest {
+
+    private static final int BOOK_ID = 1;
+    private static final int INITIAL_STOCK = 100;
+
+    @TempDir
+    Path tempDir;
+
+    private InMemoryFlashSaleDAO flashSaleDAO;
+    private FlashSaleManager flashSaleManager;
+
+    /**
+     * Creates a manager over an in-memory DAO holding one book with 100 copies.
+     */
+    @BeforeEach
+    public void setUp() {
+        flashSaleDAO = new InMemoryFlashSaleDAO();
+        flashSaleDAO.stock.put(BOOK_ID, INITIAL_STOCK);
+        flashSaleManager = new FlashSaleManager(flashSaleDAO, tempDir.resolve("flashsale.journal"));
+    }
+
+    /**
+     * Tests that many threads reserving at once never get more copies than the sale holds.
+     */
+    @Test
+    public void testConcurrentReservationsNeverOversell() throws Exception {
+        assertTrue(flashSaleManager.startSale(BOOK_ID));
+
+        int threads = 16;
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int quantity = 1 + (t % 3);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 50; i++) {
+                        if (flashSaleManager.tryReserve(BOOK_ID, quantity) == FlashSaleManager.Reservation.GRANTED) {
+                            granted.addAndGet(quantity);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(granted.get() <= INITIAL_STOCK);
+        assertEquals(INITIAL_STOCK - granted.get(), flashSaleManager.getAvailableCopies(BOOK_ID));
+
+        assertTrue(flashSaleManager.endSale(BOOK_ID));
+        assertEquals(INITIAL_STOCK - granted.get(), flashSaleDAO.stock.get(BOOK_ID));
+        assertFalse(flashSaleManager.isInSale(BOOK_ID));
+    }
+
+    /**
+     * Tests that grants and returns are applied to the books table in batches.
+     */
+    @Test
+    public void testReconcileAppliesNetGrants() {
+        assertTrue(flashSaleManager.startSale(BOOK_ID));
+        assertEquals(FlashSaleManager.Reservation.GRANTED, flashSaleManager.tryReserve(BOOK_ID, 5));
+        assertEquals(INITIAL_STOCK, flashSaleDAO.stock.get(BOOK_ID));  // Not touched until the next batch
+
+        flashSaleManager.reconcileAll();
+        assertEquals(INITIAL_STOCK - 5, flashSaleDAO.stock.get(BOOK_ID));
+
+        assertTrue(flashSaleManager.release(BOOK_ID, 2));
+        flashSaleManager.reconcileAll();
+        assertEquals(INITIAL_STOCK - 3, flashSaleDAO.stock.get(BOOK_ID));
+        assertEquals(INITIAL_STOCK - 3, flashSaleManager.getAvailableCopies(BOOK_ID));
+    }
+
+    /**
+     * Tests that reservations beyond the allocation are rejected and other books use regular stock.
+     */
+    @Test
+    public void testRejectsWhenSoldOut() {
+        assertTrue(flashSaleManager.startSale(BOOK_ID));
+        assertEquals(FlashSaleManager.Reservation.GRANTED, flashSaleManager.tryReserve(BOOK_ID, INITIAL_STOCK));
+        assertEquals(FlashSaleManager.Reservation.REJECTED, flashSaleManager.tryReserve(BOOK_ID, 1));
+        assertEquals(FlashSaleManager.Reservation.NOT_IN_SALE, flashSaleManager.tryReserve(BOOK_ID + 1, 1));
+    }
+
+    /**
+     * Tests that a sale whose end cannot be written stays open with its unsold copies, and can be ended later.
+     */
+    @Test
+    public void testFailedEndKeepsSaleOpen() {
+        assertTrue(flashSaleManager.startSale(BOOK_ID));
+        assertEquals(FlashSaleManager.Reservation.GRANTED, flashSaleManager.tryReserve(BOOK_ID, 10));
+        flashSaleDAO.failEndSale = true;
+
+        assertFalse(flashSaleManager.endSale(BOOK_ID));
+        assertTrue(flashSaleManager.isInSale(BOOK_ID));
+        assertEquals(INITIAL_STOCK - 10, flashSaleManager.getAvailableCopies(BOOK_ID));
+        assertEquals(FlashSaleManager.Reservation.GRANTED, flashSaleManager.tryReserve(BOOK_ID, 5));
+
+        flashSaleDAO.failEndSale = false;
+        assertTrue(flashSaleManager.endSale(BOOK_ID));
+        assertFalse(flashSaleManager.isInSale(BOOK_ID));
+        assertEquals(INITIAL_STOCK - 15, flashSaleDAO.stock.get(BOOK_ID));
+    }
+
+    /**
+     * Tests that a sale interrupted by a crash is reconciled from the journal at the next startup.
+     */
+    @Test
+    public void testRecoversUnreconciledGrantsAfterCrash() {
+        assertTrue(flashSaleManager.startSale(BOOK_ID));
+        flashSaleManager.tryReserve(BOOK_ID, 3);
+        flashSaleManager.reconcileAll();
+        flashSaleManager.tryReserve(BOOK_ID, 4);  // Journaled but never reconciled
+
+        // Simulate a restart: a new manager over the same database and journal
+        FlashSaleManager restarted = new FlashSaleManager(flashSaleDAO, tempDir.resolve("flashsale.journal"));
+        restarted.recoverInterruptedSales();
+
+        assertEquals(INITIAL_STOCK - 7, flashSaleDAO.stock.get(BOOK_ID));
+        assertTrue(flashSaleDAO.getActiveSales().isEmpty());
+        assertFalse(restarted.isInSale(BOOK_ID));
+    }
+
+    /**
+     * In-memory stand-in for the flash_sales and books tables.
+     */
+    private static class InMemoryFlashSaleDAO implements IFlashSaleDAO {
+        private final Map<Integer, Integer> stock = new HashMap<>();
+        private final Map<Integer, FlashSale> sales = new HashMap<>();
+        private volatile boolean failEndSale;  // Makes endSale fail, as if the database write failed
+
+        @Override
+        public synchronized int beginSale(int bookId, long epoch) {
+            int allocated = stock.getOrDefault(bookId, 0);
+            if (allocated > 0) {
+                sales.put(bookId, new FlashSale(bookId, epoch, allocated, 0));
+            }
+            return allocated;
+        }
+
+        @Override
+        public synchronized boolean applyReconciliation(int bookId, long epoch, int delta) {
+            FlashSale sale = sales.get(bookId);
+            if (sale == null || sale.getEpoch() != epoch) {
+                return false;
+            }
+            sales.put(bookId, new FlashSale(bookId, epoch, sale.getAllocated(), sale.getReconciled() + delta));
+            stock.merge(bookId, -delta, Integer::sum);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean endSale(int bookId, long epoch, int delta) {
+            FlashSale sale = sales.get(bookId);
+            if (failEndSale || sale == null || sale.getEpoch() != epoch) {
+                return false;
+            }
+            sales.remove(bookId);
+            stock.merge(bookId, -delta, Integer::sum);
+            return true;
+        }
+
+        @Override
+        public synchronized List<FlashSale> getActiveSales() {
+            return new ArrayList<>(sales.values());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.thereadingroom.service.payment;
+
+import com.thereadingroom.service.payment.gateway.GatewayResponse;
+import com.thereadingroom.service.payment.gateway.IPaymentGateway;
+import com.thereadingroom.service.payment.gateway.PaymentRequest;
+import com.thereadingroom.service.payment.gateway.SimulatedPaymentGateway;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the asynchronous payment pipeline in PaymentService.
+ * Covers retries with idempotency keys, timeouts, unknown outcomes, the bulkhead and the circuit breaker.
+ */
+public class PaymentServiceTest {
+
+    private static final String CARD = "4111111111111111";
+    private static final String TOKEN = "3f2b9c1e-checkout";
+    private static final String EXPIRY = YearMonth.now().plusYears(1).format(DateTimeFormatter.ofPattern("MM/yy"));
+
+    /**
+     * Tests that transient failures are retried with the same idempotency key.
+     */
+    @Test
+    public void testRetriesReuseIdempotencyKey() throws Exception {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        IPaymentGateway gateway = request -> {
+            keys.add(request.getIdempotencyKey());
+            return keys.size() < 3
+                    ? CompletableFuture.failedFuture(new RuntimeException("connection reset"))
+                    : CompletableFuture.completedFuture(GatewayResponse.approved("TXN-1"));
+        };
+        PaymentService service = new PaymentService(gateway, 4, 500, 3, 10, new CircuitBreaker(10, 1000));
+
+        String reference = service.processPaymentAsync(TOKEN, CARD, "Jane Doe", EXPIRY, "123", 25.0).get(2, TimeUnit.SECONDS);
+
+        assertTrue(reference.startsWith("ORD-"));
+        assertEquals(3, keys.size());
+        assertTrue(keys.get(0).contains(TOKEN));
+        assertTrue(keys.stream().allMatch(keys.get(0)::equals));
+        assertEquals(4, service.getAvailablePaymentSlots());
+    }
+
+    /**
+     * Tests that paying the same checkout again reuses its idempotency key, so the gateway returns the
+     * original charge instead of charging the card a second time.
+     */
+    @Test
+    public void testRepeatedPaymentOfCheckoutIsNotChargedTwice() throws Exception {
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(0, 0, 0.0, 0.0, 0.0);
+        PaymentService service = new PaymentService(gateway, 4, 500, 1, 10, new CircuitBreaker(10, 1000));
+
+        service.processPaymentAsync(TOKEN, CARD, "Jane Doe", EXPIRY, "123", 25.0).get(2, TimeUnit.SECONDS);
+        service.processPaymentAsync(TOKEN, CARD, "Jane Doe", EXPIRY, "123", 25.0).get(2, TimeUnit.SECONDS);
+        service.processPaymentAsync("another-checkout", CARD, "Jane Doe", EXPIRY, "123", 25.0).get(2, TimeUnit.SECONDS);
+
+        assertEquals(2, gateway.getRememberedChargeCount());
+    }
+
+    /**
+     * Tests that a hanging gateway times out per attempt and the retry picks up the original charge
+     * from the gateway instead of charging again.
+     */
+    @Test
+    public void testTimedOutAttemptIsNotChargedTwice() throws Exception {
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(0, 0, 0.0, 1.0, 0.0);
+        gateway.setHangMillis(300);
+        PaymentService service = new PaymentService(gateway, 4, 200, 3, 50, new CircuitBreaker(10, 1000));
+
+        String reference = service.processPaymentAsync(TOKEN, CARD, "Jane Doe", EXPIRY, "123", 25.0).get(2, TimeUnit.SECONDS);
+
+        assertTrue(reference.startsWith("ORD-"));
+        assertEquals(1, gateway.getRememberedChargeCount());
+    }
+
+    /**
+     * Tests that when the last attempt times out, the payment is resolved by finding the charge at the gateway
+     * instead of being reported as failed.
+     */
+    @Test
+    public void testTimedOutLastAttemptIsResolvedByFindingTheCharge() throws Exception {
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(0, 0, 0.0, 1.0, 0.0);
+        gateway.setHangMillis(250);
+        PaymentService service = new PaymentService(gateway, 4, 150, 1, 10, new CircuitBreaker(10, 1000));
+
+        String reference = service.processPaymentAsync(TOKEN, CARD, "Jane Doe", EXPIRY, "123", 25.0).get(2, TimeUnit.SECONDS);
+
+        assertTrue(reference.startsWith("ORD-"));
+        assertEquals(1, gateway.getRememberedChargeCount());
+    }
+
+    /**
+     * Tests that a payment keeps its bulkhead slot while an abandoned attempt is still open at the gateway.
+     */
+    @Test
+    public void testAbandonedAttemptKeepsBulkheadSlot() throws Exception {
+        CompletableFuture<GatewayResponse> hung = new CompletableFuture<>();
+        List<PaymentRequest> calls = new CopyOnWriteArrayList<>();
+        IPaymentGateway gateway = request -> {
+            calls.add(request);
+            return calls.size() == 1 ? hung : CompletableFuture.completedFuture(GatewayResponse.approved("TXN-3"));
+        };
+        PaymentService service = new PaymentService(gateway, 1, 50, 2, 10, new CircuitBreaker(10, 1000));
+
+        assertNotNull(service.processPaymentAsync(TOKEN, CARD, "Jane Doe", EXPIRY, "123", 10.0).get(2, TimeUnit.SECONDS));
+        assertEquals(0, service.getAvailablePaymentSlots());
+
+        hung.complete(GatewayResponse.approved("TXN-3"));
+        assertEquals(1, service.getAvailablePaymentSlots());
+    }
+
+    /**
+     * Tests that invalid card details fail fast without contacting the gateway.
+     */
+    @Test
+    public void testInvalidCardFailsWithoutCallingGateway() {
+        IPaymentGateway gateway = request -> fail("Gateway must not be called");
+        PaymentService service = new PaymentService(gateway, 1, 100, 1, 10, new CircuitBreaker(1, 1000));
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> service.processPaymentAsync(TOKEN, "4111111111111112", "Jane Doe", EXPIRY, "123", 25.0).get());
+        assertInstanceOf(PaymentException.class, error.getCause());
+    }
+
+    /**
+     * Tests that the bulkhead rejects payments beyond its capacity instead of queueing them.
+     */
+    @Test
+    public void testBulkheadRejectsWhenFull() throws Exception {
+        CompletableFuture<GatewayResponse> pending = new CompletableFuture<>();
+        IPaymentGateway gateway = request -> pending.copy();
+        PaymentService service = new PaymentService(gateway, 1, 5_000, 1, 10, new CircuitBreaker(10, 1000));
+
+        CompletableFuture<String> first = service.processPaymentAsync(TOKEN, CARD, "Jane Doe", EXPIRY, "123", 10.0);
+        CompletableFuture<String> second = service.processPaymentAsync(TOKEN, CARD, "John Doe", EXPIRY, "456", 10.0);
+
+        assertTrue(second.isCompletedExceptionally());
+        pending.complete(GatewayResponse.approved("TXN-2"));
+        assertNotNull(first.get(2, TimeUnit.SECONDS));
+        assertEquals(1, service.getAvailablePaymentSlots());
+    }
+
+    /**
+     * Tests that repeated failures open the circuit breaker and later payments fail fast.
+     */
+    @Test
+    public void testCircuitBreakerOpensAfterFailures() {
+        List<PaymentRequest> calls = new CopyOnWriteArrayList<>();
+        IPaymentGateway gateway = request -> {
+            calls.add(request);
+            return CompletableFuture.failedFuture(new RuntimeException("gateway down"));
+        };
+        PaymentService service = new PaymentService(gateway, 4, 100, 1, 10, new CircuitBreaker(2, 60_000));
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ExecutionException.class, () -> service.processPaymentAsync(TOKEN, CARD, "Jane Doe", EXPIRY, "123", 5.0).get());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, service.getCircuitBreakerState());
+
+        assertThrows(ExecutionException.class, () -> service.processPaymentAsync(TOKEN, CARD, "Jane Doe", EXPIRY, "123", 5.0).get());
+        assertEquals(2, calls.size());
+    }
+}
@@ -0,0 +1,43 @@
+package com.thereadingroom.service.recommendation;
+
+import com.thereadingroom.service.recommendation.RecommendationServiceTest.FakeCoPurchaseDAO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark for RecommendationService, printing the rebuild time over 100,000 orders and the cart lookup time.
+ * Tagged "benchmark", so it only runs with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class RecommendationServiceBenchmarkTest {
+
+    /**
+     * Measures the time of a cart lookup over a rebuilt history of 100,000 orders.
+     */
+    @Test
+    public void testLookupTime() {
+        FakeCoPurchaseDAO dao = new FakeCoPurchaseDAO();
+        for (int i = 0; i < 100_000; i++) {
+            dao.orders.add(RecommendationServiceTest.syntheticOrder(i));
+        }
+        RecommendationService service = new RecommendationService(dao);
+        long start = System.nanoTime();
+        assertEquals(100_000, service.rebuild());
+        System.out.printf("Rebuilt recommendations from 100,000 orders in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        List<Integer> cart = List.of(3, 17, 42);
+        int lookups = 100_000;
+        for (int i = 0; i < lookups; i++) {
+            service.getRecommendations(cart, 5);  // Warm up
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertFalse(service.getRecommendations(cart, 5).isEmpty());
+        }
+        System.out.printf("Cart recommendation lookup: %.2f us%n", (System.nanoTime() - start) / 1e3 / lookups);
+    }
+}
@@ -0,0 +1,152 @@
+package com.thereadingroom.service.recommendation;
+
+import com.thereadingroom.model.dao.recommendation.ICoPurchaseDAO;
+import com.thereadingroom.model.entity.Order;
+import com.thereadingroom.model.entity.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RecommendationService.
+ * Verifies that a parallel rebuild from the order history gives the same top lists as recording the
+ * orders one by one, how the lists are ranked, and that cart recommendations leave out the cart's books.
+ * Rebuild and lookup times are measured by RecommendationServiceBenchmarkTest.
+ */
+public class RecommendationServiceTest {
+
+    /**
+     * Order history served from memory: order i (1-based) has the books of orders[i - 1].
+     */
+    static class FakeCoPurchaseDAO implements ICoPurchaseDAO {
+
+        final List<int[]> orders = new ArrayList<>();
+
+        @Override
+        public int[] getOrderIdRange() {
+            return orders.isEmpty() ? new int[]{0, 0, 0} : new int[]{1, orders.size(), orders.size()};
+        }
+
+        @Override
+        public List<int[]> getOrderBooks(int firstOrderId, int lastOrderId) {
+            return new ArrayList<>(orders.subList(firstOrderId - 1, Math.min(lastOrderId, orders.size())));
+        }
+    }
+
+    /**
+     * Tests that rebuilding from thousands of orders in parallel matches recording the same orders one by one.
+     */
+    @Test
+    public void testRebuildMatchesRecordedOrders() {
+        FakeCoPurchaseDAO dao = new FakeCoPurchaseDAO();
+        RecommendationService recorded = new RecommendationService(new FakeCoPurchaseDAO());
+        for (int i = 0; i < RecommendationService.CHUNK_SIZE * 5 + 17; i++) {
+            int[] bookIds = syntheticOrder(i);
+            dao.orders.add(bookIds);
+            recorded.recordOrder(order(i + 1, bookIds));
+        }
+        RecommendationService rebuilt = new RecommendationService(dao);
+
+        assertEquals(dao.orders.size(), rebuilt.rebuild());
+        for (int bookId = 1; bookId <= 200; bookId++) {
+            assertEquals(recorded.getAlsoBought(bookId, RecommendationService.TOP_K),
+                    rebuilt.getAlsoBought(bookId, RecommendationService.TOP_K), "Book " + bookId);
+        }
+        assertFalse(rebuilt.getAlsoBought(1, RecommendationService.TOP_K).isEmpty());
+    }
+
+    /**
+     * Tests that books are ranked by how often they were bought together, then by ID, and that an order's
+     * repeated lines and single-book orders are not counted.
+     */
+    @Test
+    public void testRanking() {
+        RecommendationService service = new RecommendationService(new FakeCoPurchaseDAO());
+        service.recordOrder(order(1, 1, 2, 3));
+        service.recordOrder(order(2, 1, 3, 3));
+        service.recordOrder(order(3, 1, 4));
+        service.recordOrder(order(4, 1, 3));
+        service.recordOrder(order(5, 2));
+
+        assertEquals(List.of(3, 2, 4), service.getAlsoBought(1, 10));
+        assertEquals(List.of(3, 2), service.getAlsoBought(1, 2));
+        assertEquals(List.of(1, 3), service.getAlsoBought(2, 10));
+        assertTrue(service.getAlsoBought(99, 10).isEmpty());
+    }
+
+    /**
+     * Tests that cart recommendations add up the counts of each book in the cart and leave out the cart's books.
+     */
+    @Test
+    public void testRecommendationsExcludeCartBooks() {
+        RecommendationService service = new RecommendationService(new FakeCoPurchaseDAO());
+        service.recordOrder(order(1, 1, 2, 5));
+        service.recordOrder(order(2, 1, 6));
+        service.recordOrder(order(3, 2, 6));
+        service.recordOrder(order(4, 2, 6, 7));
+
+        assertEquals(List.of(6, 5, 7), service.getRecommendations(Set.of(1, 2), 10));
+        assertEquals(List.of(6), service.getRecommendations(Set.of(1, 2), 1));
+        assertTrue(service.getRecommendations(Set.of(), 10).isEmpty());
+    }
+
+    /**
+     * Tests that orders placed while a rebuild runs are kept, and that orders the rebuild read are not counted twice.
+     */
+    @Test
+    public void testOrdersPlacedDuringRebuildAreKept() {
+        FakeCoPurchaseDAO dao = new FakeCoPurchaseDAO();
+        dao.orders.add(new int[]{1, 2});
+        RecommendationService[] service = new RecommendationService[1];
+        service[0] = new RecommendationService(new ICoPurchaseDAO() {
+            @Override
+            public int[] getOrderIdRange() {
+                return dao.getOrderIdRange();
+            }
+
+            @Override
+            public List<int[]> getOrderBooks(int firstOrderId, int lastOrderId) {
+                service[0].recordOrder(order(1, 1, 2));   // Read by the rebuild as well
+                service[0].recordOrder(order(2, 1, 3));   // Placed after the rebuild read the history
+                return dao.getOrderBooks(firstOrderId, lastOrderId);
+            }
+        });
+
+        assertEquals(1, service[0].rebuild());
+        assertEquals(List.of(2, 3), service[0].getAlsoBought(1, 10));
+        assertEquals(List.of(2, 3), service[0].getRecommendations(Set.of(1), 10));
+        service[0].recordOrder(order(3, 1, 3));
+        assertEquals(List.of(3, 2), service[0].getAlsoBought(1, 10));
+    }
+
+    /**
+     * Returns the books of synthetic order i: two to four books, clustered so some pairs are much more common.
+     */
+    static int[] syntheticOrder(int i) {
+        int first = i % 200 + 1;
+        int size = i % 3 + 2;
+        int[] bookIds = new int[size];
+        for (int j = 0; j < size; j++) {
+            bookIds[j] = (first + j * (j + i % 7)) % 200 + 1;
+        }
+        return Arrays.stream(bookIds).distinct().toArray();
+    }
+
+    /**
+     * Creates a saved order with one line per given book.
+     */
+    private static Order order(int orderId, int... bookIds) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int bookId : bookIds) {
+            items.add(new OrderItem(bookId, "Book " + bookId, 1, 10.0));
+        }
+        Order order = new Order("ORD-" + orderId, 1, 10.0 * bookIds.length, items);
+        order.setOrderId(orderId);
+        return order;
+    }
+}
@@ -0,0 +1,83 @@
+package com.thereadingroom.utils.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PaymentValidator.
+ * Covers the Luhn checksum, brand detection, expiry checks and reuse of the result object.
+ */
+public class PaymentValidatorTest {
+
+    private static final DateTimeFormatter EXPIRY_FORMAT = DateTimeFormatter.ofPattern("MM/yy");
+
+    /**
+     * Tests that a well-formed card passes and its brand is detected.
+     */
+    @Test
+    public void testValidCardDetectsBrand() {
+        String nextYear = YearMonth.now().plusYears(1).format(EXPIRY_FORMAT);
+
+        CardValidationResult result = PaymentValidator.validate("4111111111111111", nextYear, "123");
+        assertTrue(result.isValid());
+        assertEquals(CardBrand.VISA, result.getBrand());
+
+        assertEquals(CardBrand.MASTERCARD, PaymentValidator.validate("5555555555554444", nextYear, "123").getBrand());
+        assertEquals(CardBrand.DISCOVER, PaymentValidator.validate("6011111111111117", nextYear, "123").getBrand());
+    }
+
+    /**
+     * Tests each card number failure in turn.
+     */
+    @Test
+    public void testCardNumberErrors() {
+        assertEquals(CardValidationError.EMPTY_CARD_NUMBER.getMessage(), PaymentValidator.validateCardNumber(""));
+        assertEquals(CardValidationError.INVALID_CARD_NUMBER_FORMAT.getMessage(), PaymentValidator.validateCardNumber("123"));
+        assertEquals(CardValidationError.INVALID_CARD_NUMBER_FORMAT.getMessage(), PaymentValidator.validateCardNumber("4111-1111-1111-1"));
+        assertEquals(CardValidationError.FAILED_CHECKSUM.getMessage(), PaymentValidator.validateCardNumber("4111111111111112"));
+        assertNull(PaymentValidator.validateCardNumber("4111111111111111"));
+    }
+
+    /**
+     * Tests expiry date parsing and the comparison against the current month.
+     */
+    @Test
+    public void testExpiryDate() {
+        YearMonth now = YearMonth.now();
+        assertNull(PaymentValidator.validateExpiryDate(now.format(EXPIRY_FORMAT)));
+        assertEquals(CardValidationError.EXPIRED.getMessage(), PaymentValidator.validateExpiryDate(now.minusMonths(1).format(EXPIRY_FORMAT)));
+        assertEquals(CardValidationError.INVALID_EXPIRY_DATE_FORMAT.getMessage(), PaymentValidator.validateExpiryDate("13/30"));
+        assertEquals(CardValidationError.INVALID_EXPIRY_DATE_FORMAT.getMessage(), PaymentValidator.validateExpiryDate("1/30"));
+        assertEquals(CardValidationError.INVALID_EXPIRY_DATE_FORMAT.getMessage(), PaymentValidator.validateExpiryDate("12-30"));
+    }
+
+    /**
+     * Tests CVV validation.
+     */
+    @Test
+    public void testCVV() {
+        assertNull(PaymentValidator.validateCVV("007"));
+        assertEquals(CardValidationError.EMPTY_CVV.getMessage(), PaymentValidator.validateCVV(null));
+        assertEquals(CardValidationError.INVALID_CVV_FORMAT.getMessage(), PaymentValidator.validateCVV("12a"));
+        assertEquals(CardValidationError.INVALID_CVV_FORMAT.getMessage(), PaymentValidator.validateCVV("1234"));
+    }
+
+    /**
+     * Tests that the same result object is reused per thread and reflects the latest inputs.
+     */
+    @Test
+    public void testResultIsReused() {
+        String expiry = YearMonth.now().plusYears(2).format(EXPIRY_FORMAT);
+
+        CardValidationResult first = PaymentValidator.validate("4111111111111111", expiry, "123");
+        assertTrue(first.isValid());
+
+        CardValidationResult second = PaymentValidator.validate("4111111111111111", expiry, "12");
+        assertSame(first, second);
+        assertEquals(CardValidationError.INVALID_CVV_FORMAT, second.getError());
+    }
+}
@@ -0,0 +1,161 @@
+package com.thereadingroom.utils.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DomainEventBus.
+ * Verifies that every subscriber sees every matching event in publish order, that slow subscribers
+ * apply backpressure instead of losing events, and that a failing handler does not stop its subscriber.
+ */
+public class DomainEventBusTest {
+
+    private DomainEventBus eventBus;
+
+    /**
+     * Creates a small bus so that the buffer wraps many times during a test.
+     */
+    @BeforeEach
+    public void setUp() {
+        eventBus = new DomainEventBus(64);
+    }
+
+    /**
+     * Stops the subscriber threads.
+     */
+    @AfterEach
+    public void tearDown() {
+        eventBus.shutdown();
+    }
+
+    /**
+     * Tests that concurrent publishers' events reach each subscriber once, in order per publisher, filtered by type.
+     */
+    @Test
+    public void testSubscribersReceiveMatchingEventsInOrder() throws Exception {
+        int publishers = 4;
+        int eventsPerPublisher = 5_000;
+        CountDownLatch stockDone = new CountDownLatch(publishers * eventsPerPublisher);
+        Map<Integer, Integer> lastSeen = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        AtomicInteger orderEvents = new AtomicInteger();
+
+        eventBus.subscribe("stock", event -> {
+            Integer previous = lastSeen.put(event.getEntityId(), (int) event.getValue());
+            if (previous != null && previous + 1 != event.getValue()) {
+                outOfOrder.incrementAndGet();
+            }
+            stockDone.countDown();
+        }, DomainEventType.STOCK_CHANGED);
+        eventBus.subscribe("orders", event -> orderEvents.incrementAndGet(), DomainEventType.ORDER_PLACED);
+
+        ExecutorService executor = Executors.newFixedThreadPool(publishers);
+        for (int p = 0; p < publishers; p++) {
+            int publisher = p;
+            executor.execute(() -> {
+                for (int i = 0; i < eventsPerPublisher; i++) {
+                    eventBus.publish(DomainEventType.STOCK_CHANGED, publisher, 0, i);
+                    if (i % 100 == 0) {
+                        eventBus.publish(DomainEventType.ORDER_PLACED, i, publisher, 0);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(stockDone.await(10, TimeUnit.SECONDS));
+
+        assertEquals(0, outOfOrder.get());
+        for (int p = 0; p < publishers; p++) {
+            assertEquals(eventsPerPublisher - 1, lastSeen.get(p));
+        }
+        waitForLag(0);
+        assertEquals(publishers * eventsPerPublisher / 100, orderEvents.get());
+    }
+
+    /**
+     * Tests that a slow subscriber makes publishers wait rather than overwrite unread events.
+     */
+    @Test
+    public void testSlowSubscriberAppliesBackpressure() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        eventBus.subscribe("slow", event -> {
+            if (received.getAndIncrement() % 16 == 0) {
+                sleep(1);
+            }
+        }, DomainEventType.CART_CHANGED);
+
+        for (int i = 0; i < 1_000; i++) {
+            eventBus.publish(DomainEventType.CART_CHANGED, 1, i, i);
+        }
+        waitForLag(0);
+
+        assertEquals(1_000, received.get());
+        assertTrue(eventBus.getPublisherStalls() > 0);
+        EventSubscriberStats stats = eventBus.getStats().get(0);
+        assertEquals(1_000, stats.getDelivered());
+        assertTrue(stats.getLargestBatch() <= 64);
+    }
+
+    /**
+     * Tests that an exception in a handler is counted and the subscriber keeps receiving events.
+     */
+    @Test
+    public void testFailingHandlerDoesNotStopSubscriber() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        eventBus.subscribe("flaky", event -> {
+            received.incrementAndGet();
+            if (event.getEntityId() == 3) {
+                throw new IllegalStateException("boom");
+            }
+        }, DomainEventType.BOOK_UPDATED);
+
+        for (int i = 0; i < 10; i++) {
+            eventBus.publish(DomainEventType.BOOK_UPDATED, i);
+        }
+        waitForLag(0);
+
+        assertEquals(10, received.get());
+        List<EventSubscriberStats> stats = eventBus.getStats();
+        assertEquals(1, stats.get(0).getFailures());
+        assertEquals(9, stats.get(0).getDelivered());
+    }
+
+    /**
+     * Waits until every subscriber has read up to the given lag.
+     *
+     * @param lag The lag to wait for.
+     */
+    private void waitForLag(long lag) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (eventBus.getStats().stream().anyMatch(s -> s.getLag() > lag)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Subscribers did not catch up");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Sleeps without a checked exception (used inside handlers).
+     *
+     * @param millis The time to sleep.
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
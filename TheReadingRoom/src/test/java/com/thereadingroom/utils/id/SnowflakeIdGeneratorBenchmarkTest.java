@@ -0,0 +1,33 @@
+package com.thereadingroom.utils.id;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static com.thereadingroom.utils.id.SnowflakeIdGeneratorTest.IDS_PER_THREAD;
+import static com.thereadingroom.utils.id.SnowflakeIdGeneratorTest.THREADS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark for SnowflakeIdGenerator, printing the ids generated per second under contention.
+ * Tagged "benchmark", so it only runs with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class SnowflakeIdGeneratorBenchmarkTest {
+
+    /**
+     * Checks that the generator sustains millions of ids per second under contention.
+     */
+    @Test
+    public void testThroughput() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        SnowflakeIdGeneratorTest.generateConcurrently(generator);  // Warm up the JIT
+
+        long start = System.nanoTime();
+        SnowflakeIdGeneratorTest.generateConcurrently(generator);
+        long elapsedNanos = System.nanoTime() - start;
+
+        double idsPerSecond = (double) THREADS * IDS_PER_THREAD / elapsedNanos * 1_000_000_000L;
+        System.out.printf("Generated %,.0f ids/sec with %d threads%n", idsPerSecond, THREADS);
+        assertTrue(idsPerSecond > 1_000_000, "Expected at least one million ids per second, got " + idsPerSecond);
+    }
+}
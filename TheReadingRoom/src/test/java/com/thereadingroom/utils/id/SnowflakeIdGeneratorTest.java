@@ -0,0 +1,142 @@
+package com.thereadingroom.utils.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SnowflakeIdGenerator and OrderNumberCodec.
+ * Covers uniqueness under contention, clock regressions and order number encoding.
+ * Throughput is measured by SnowflakeIdGeneratorBenchmarkTest.
+ */
+public class SnowflakeIdGeneratorTest {
+
+    static final int THREADS = 8;
+    static final int IDS_PER_THREAD = 500_000;
+
+    /**
+     * Generates ids from several threads at once and checks that none collide
+     * and that each thread sees strictly increasing ids.
+     */
+    @Test
+    public void testIdsAreUniqueAcrossThreads() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42);
+        long[][] results = generateConcurrently(generator);
+
+        long[] all = new long[THREADS * IDS_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 1; i < IDS_PER_THREAD; i++) {
+                assertTrue(results[t][i] > results[t][i - 1], "Ids must increase within a thread");
+            }
+            System.arraycopy(results[t], 0, all, t * IDS_PER_THREAD, IDS_PER_THREAD);
+        }
+
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertNotEquals(all[i - 1], all[i], "Duplicate id generated: " + all[i]);
+        }
+        assertTrue(all[0] > 0, "Ids must be positive");
+        assertEquals(42, SnowflakeIdGenerator.extractNodeId(all[all.length - 1]));
+    }
+
+    /**
+     * Moves the clock backwards and checks that ids keep increasing on the logical clock.
+     */
+    @Test
+    public void testClockRegressionKeepsIdsIncreasing() {
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH + 1_000_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, clock::get);
+
+        long before = generator.nextId();
+        clock.addAndGet(-5_000);  // Simulate an NTP step backwards
+        long during = generator.nextId();
+        clock.addAndGet(10_000);  // Clock catches up again
+        long after = generator.nextId();
+
+        assertTrue(during > before);
+        assertTrue(after > during);
+        assertEquals(1, generator.getClockRegressions());
+        assertEquals(SnowflakeIdGenerator.EPOCH + 1_005_000, SnowflakeIdGenerator.extractTimestamp(after));
+    }
+
+    /**
+     * Exhausts the per-millisecond sequence and checks that the generator borrows the next millisecond.
+     */
+    @Test
+    public void testSequenceOverflowBorrowsNextMillisecond() {
+        long frozen = SnowflakeIdGenerator.EPOCH + 2_000_000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, () -> frozen);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < SnowflakeIdGenerator.MAX_SEQUENCE + 10; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertEquals(frozen + 1, SnowflakeIdGenerator.extractTimestamp(previous));
+        assertEquals(3, SnowflakeIdGenerator.extractNodeId(previous));
+    }
+
+    /**
+     * Checks that order numbers round-trip, keep a fixed length and sort like their ids.
+     */
+    @Test
+    public void testOrderNumberEncoding() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5);
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        String firstNumber = OrderNumberCodec.encode(first);
+        String secondNumber = OrderNumberCodec.encode(second);
+
+        assertTrue(firstNumber.startsWith(OrderNumberCodec.PREFIX));
+        assertEquals(firstNumber.length(), secondNumber.length());
+        assertTrue(firstNumber.compareTo(secondNumber) < 0);
+        assertEquals(first, OrderNumberCodec.decode(firstNumber));
+        assertEquals(second, OrderNumberCodec.decode(secondNumber.toLowerCase()));
+        assertEquals(Long.MAX_VALUE, OrderNumberCodec.decode(OrderNumberCodec.encode(Long.MAX_VALUE)));
+        assertThrows(IllegalArgumentException.class, () -> OrderNumberCodec.decode("ORD-123"));
+        assertThrows(IllegalArgumentException.class, () -> OrderNumberCodec.decode("ORD-U000000000000"));
+    }
+
+    /**
+     * Runs the generator on several threads that start together.
+     *
+     * @param generator The generator under test.
+     * @return The ids generated by each thread, in generation order.
+     */
+    static long[][] generateConcurrently(SnowflakeIdGenerator generator) throws InterruptedException {
+        long[][] results = new long[THREADS][IDS_PER_THREAD];
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            long[] ids = results[t];
+            Thread thread = new Thread(() -> {
+                try {
+                    startSignal.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    ids[i] = generator.nextId();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,108 @@
+package com.thereadingroom.utils.lock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StripedLockManager.
+ * Verifies deadlock-free multi-id locking, timeouts and contention metrics.
+ */
+public class StripedLockManagerTest {
+
+    /**
+     * Tests that callers locking overlapping ids in opposite orders never deadlock.
+     */
+    @Test
+    public void testOppositeOrdersDoNotDeadlock() throws Exception {
+        StripedLockManager lockManager = new StripedLockManager(16);
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            List<Integer> ids = (t % 2 == 0) ? List.of(1, 2, 3) : List.of(3, 2, 1);
+            executor.execute(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    try (StripedLockManager.LockHandle locks = lockManager.tryLockAll(ids, 5, TimeUnit.SECONDS)) {
+                        if (locks != null) {
+                            completed.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(8_000, completed.get());
+        assertEquals(0, lockManager.getTotalTimeouts());
+    }
+
+    /**
+     * Tests that a held stripe makes other callers time out and that the timeout is recorded.
+     */
+    @Test
+    public void testTimeoutWhenStripeIsHeld() throws Exception {
+        StripedLockManager lockManager = new StripedLockManager(16);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (StripedLockManager.LockHandle locks = lockManager.tryLock(7, 1, TimeUnit.SECONDS)) {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holder.start();
+        assertTrue(held.await(1, TimeUnit.SECONDS));
+
+        assertNull(lockManager.tryLockAll(List.of(1, 7), 50, TimeUnit.MILLISECONDS));
+        release.countDown();
+        holder.join();
+
+        // The other stripe was released after the timeout, and the lock is free again
+        try (StripedLockManager.LockHandle locks = lockManager.tryLockAll(List.of(1, 7), 50, TimeUnit.MILLISECONDS)) {
+            assertNotNull(locks);
+        }
+        LockStripeStats stats = lockManager.getStats().get(lockManager.stripeFor(7));
+        assertEquals(1, stats.getTimeouts());
+        assertTrue(stats.getMaxWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(40));
+    }
+
+    /**
+     * Tests that ids on different stripes can be held at the same time by different threads.
+     */
+    @Test
+    public void testUnrelatedIdsDoNotBlock() throws Exception {
+        StripedLockManager lockManager = new StripedLockManager(64);
+        int other = 2;
+        while (lockManager.stripeFor(other) == lockManager.stripeFor(1)) {
+            other++;
+        }
+        int otherId = other;
+        try (StripedLockManager.LockHandle first = lockManager.tryLock(1, 1, TimeUnit.SECONDS)) {
+            assertNotNull(first);
+            AtomicInteger acquired = new AtomicInteger();
+            Thread thread = new Thread(() -> {
+                try (StripedLockManager.LockHandle second = lockManager.tryLock(otherId, 10, TimeUnit.MILLISECONDS)) {
+                    if (second != null) {
+                        acquired.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            thread.join();
+            assertEquals(1, acquired.get());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.thereadingroom.utils.trace;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Tracer.
+ * Verifies that nothing is recorded when tracing is off, that spans nest across threads and traced services,
+ * and that the ring buffer keeps the latest spans.
+ */
+public class TracerTest {
+
+    /**
+     * Turns tracing off again after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        Tracer.disableRingBuffer();
+    }
+
+    /**
+     * Tests that no span is started, and nothing is wrapped, while nothing is recording.
+     */
+    @Test
+    public void testNothingIsRecordedWhenOff() {
+        Runnable task = () -> { };
+        try (Span span = Tracer.begin("controller", "Controller.handle")) {
+            assertFalse(span.isRecording());
+            assertNull(Tracer.current());
+            assertSame(task, Tracer.wrap(task));
+        }
+    }
+
+    /**
+     * Tests that a trace follows its work onto another thread and through a traced service, and that the
+     * service span of an asynchronous call ends when the call completes.
+     */
+    @Test
+    public void testSpansNestAcrossThreadsAndServices() throws Exception {
+        Tracer.enableRingBuffer(64);
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        AsyncService service = Tracer.traced(AsyncService.class,
+                text -> CompletableFuture.supplyAsync(Tracer.wrap((Supplier<String>) () -> {
+                    Tracer.beginChild("dao", "TestDAO.find").close();
+                    return text.toUpperCase();
+                }), worker));
+
+        long traceId;
+        CompletableFuture<String> result;
+        Span root = Tracer.begin("controller", "Controller.handle");
+        try {
+            traceId = root.getTraceId();
+            result = service.apply("ok");
+            assertSame(root, Tracer.current());
+        } finally {
+            root.detach();
+        }
+        assertNull(Tracer.current());
+        assertEquals("OK", result.get());
+        worker.shutdown();
+        assertTrue(worker.awaitTermination(5, TimeUnit.SECONDS));  // The service span ends on the worker
+        root.close();
+
+        List<SpanRecord> trace = Tracer.getRingBuffer().getTrace(traceId);
+        assertEquals(3, trace.size());
+        SpanRecord controller = trace.get(0);
+        SpanRecord call = trace.get(1);
+        SpanRecord dao = trace.get(2);
+        assertEquals("controller", controller.getLayer());
+        assertEquals(0, controller.getParentId());
+        assertEquals("service", call.getLayer());
+        assertTrue(call.getName().endsWith(".apply"), call.getName());
+        assertEquals(controller.getSpanId(), call.getParentId());
+        assertEquals("TestDAO.find", dao.getName());
+        assertEquals(call.getSpanId(), dao.getParentId());
+        assertNotEquals(controller.getThread(), dao.getThread());
+        assertTrue(Tracer.getRingBuffer().formatTrace(traceId).contains("\n    dao TestDAO.find"));
+    }
+
+    /**
+     * Tests that a failing traced call records the failure and still rethrows it.
+     */
+    @Test
+    public void testFailuresAreRecorded() {
+        Tracer.enableRingBuffer(8);
+        Lookup failing = Tracer.traced(Lookup.class, () -> {
+            throw new IllegalStateException("boom");
+        });
+        try (Span root = Tracer.begin("controller", "Controller.handle")) {
+            assertThrows(IllegalStateException.class, failing::get);
+        }
+        List<SpanRecord> spans = Tracer.getRingBuffer().getSpans();
+        assertEquals(2, spans.size());
+        assertEquals("IllegalStateException: boom", spans.get(0).getError());
+        assertNull(spans.get(1).getError());
+    }
+
+    /**
+     * Tests that the ring buffer keeps only the latest spans, oldest first.
+     */
+    @Test
+    public void testRingBufferKeepsLatestSpans() {
+        SpanRingBuffer buffer = new SpanRingBuffer(2);
+        for (int i = 1; i <= 3; i++) {
+            buffer.add(new SpanRecord(1, i, 0, "dao", "span" + i, null, "main", i, 1, null));
+        }
+        List<SpanRecord> spans = buffer.getSpans();
+        assertEquals(2, spans.size());
+        assertEquals("span2", spans.get(0).getName());
+        assertEquals("span3", spans.get(1).getName());
+        assertThrows(IllegalArgumentException.class, () -> new SpanRingBuffer(0));
+    }
+
+    /**
+     * A service answering asynchronously.
+     */
+    public interface AsyncService extends Function<String, CompletableFuture<String>> {
+    }
+
+    /**
+     * A service answering synchronously.
+     */
+    public interface Lookup extends Supplier<String> {
+    }
+}
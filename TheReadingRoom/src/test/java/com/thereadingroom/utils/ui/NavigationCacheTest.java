@@ -0,0 +1,89 @@
+package com.thereadingroom.utils.ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NavigationCache.
+ * Verifies that templates and stylesheets are resolved once, that only registered screens are retained,
+ * and that navigation latency is accumulated per screen.
+ */
+public class NavigationCacheTest {
+
+    private static final String LOGIN_FXML = "/com/thereadingroom/fxml/common/login.fxml";
+    private static final String TABLE_CSS = "/com/thereadingroom/css/table-style.css";
+
+    /**
+     * Tests that a template is read once and that missing files return null.
+     */
+    @Test
+    public void testTemplatesAreReadOnce() {
+        NavigationCache cache = new NavigationCache();
+        NavigationCache.Template template = cache.getTemplate(LOGIN_FXML);
+        assertNotNull(template);
+        assertSame(template, cache.getTemplate(LOGIN_FXML));
+        assertEquals(NavigationCache.class.getResource(LOGIN_FXML), template.getLocation());
+        assertTrue(new String(template.getFxml(), StandardCharsets.UTF_8).contains("LoginController"));
+        assertNull(cache.getTemplate("/com/thereadingroom/fxml/missing.fxml"));
+    }
+
+    /**
+     * Tests that stylesheet URLs are interned, so every node shares the same string.
+     */
+    @Test
+    public void testStylesheetsAreInterned() {
+        NavigationCache cache = new NavigationCache();
+        String stylesheet = cache.getStylesheet(TABLE_CSS);
+        assertNotNull(stylesheet);
+        assertSame(stylesheet, new NavigationCache().getStylesheet(TABLE_CSS));
+        assertEquals(NavigationCache.class.getResource(TABLE_CSS).toExternalForm(), stylesheet);
+        assertNull(cache.getStylesheet("/com/thereadingroom/css/missing.css"));
+    }
+
+    /**
+     * Tests that only registered screens keep their scene, and that eviction drops it.
+     */
+    @Test
+    public void testOnlyRegisteredScreensAreRetained() {
+        NavigationCache cache = new NavigationCache();
+        Object controller = new Object();
+        cache.putRetainedScene(LOGIN_FXML, null, controller);
+        assertNull(cache.getRetainedScene(LOGIN_FXML));
+
+        cache.retain(LOGIN_FXML);
+        assertTrue(cache.isRetained(LOGIN_FXML));
+        cache.putRetainedScene(LOGIN_FXML, null, controller);
+        assertSame(controller, cache.getRetainedScene(LOGIN_FXML).getController());
+
+        cache.evict(LOGIN_FXML);
+        assertNull(cache.getRetainedScene(LOGIN_FXML));
+        assertTrue(cache.isRetained(LOGIN_FXML));
+    }
+
+    /**
+     * Tests that navigation latency is accumulated per screen and reported sorted by screen.
+     */
+    @Test
+    public void testNavigationStatsPerScreen() {
+        NavigationCache cache = new NavigationCache();
+        cache.recordNavigation("/b.fxml", 30_000_000, false);
+        cache.recordNavigation("/b.fxml", 10_000_000, true);
+        NavigationStats latest = cache.recordNavigation("/b.fxml", 20_000_000, true);
+        cache.recordNavigation("/a.fxml", 5_000_000, false);
+
+        assertEquals(3, latest.getNavigations());
+        assertEquals(2, latest.getReused());
+        assertEquals(30_000_000, latest.getMaxNanos());
+        assertEquals(20_000_000, latest.getLastNanos());
+        assertEquals(20.0, latest.getAverageMillis(), 1e-9);
+
+        Map<String, NavigationStats> stats = cache.getNavigationStats();
+        assertEquals(List.of("/a.fxml", "/b.fxml"), List.copyOf(stats.keySet()));
+        assertEquals(1, stats.get("/a.fxml").getNavigations());
+    }
+}
@@ -0,0 +1,45 @@
+package com.thereadingroom.utils.ui.cell;
+
+import com.thereadingroom.model.entity.Book;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TableCells value factories.
+ * Verifies that property columns hand out the item's own property (so cells follow changes and
+ * no wrapper is created per row), and that constant columns read the value through the getter.
+ */
+public class TableCellsTest {
+
+    private final Book book = new Book(7, "Dune", "Herbert", 10, 9.99, 3);
+
+    /**
+     * Tests that a property value factory returns the item's property itself.
+     */
+    @Test
+    public void testPropertyFactoryReturnsItemProperty() {
+        Callback<TableColumn.CellDataFeatures<Book, Number>, ObservableValue<Number>> factory =
+                TableCells.property(Book::soldCopiesProperty);
+
+        ObservableValue<Number> value = factory.call(new TableColumn.CellDataFeatures<>(null, null, book));
+
+        assertSame(book.soldCopiesProperty(), value);
+        book.setSoldCopies(4);
+        assertEquals(4, value.getValue().intValue());
+    }
+
+    /**
+     * Tests that a constant value factory reads the value through the getter.
+     */
+    @Test
+    public void testConstantFactoryReadsGetter() {
+        Callback<TableColumn.CellDataFeatures<Book, Integer>, ObservableValue<Integer>> factory =
+                TableCells.constant(Book::getBookId);
+
+        assertEquals(7, factory.call(new TableColumn.CellDataFeatures<>(null, null, book)).getValue());
+    }
+}
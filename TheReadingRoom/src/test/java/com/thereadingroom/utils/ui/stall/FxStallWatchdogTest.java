@@ -0,0 +1,89 @@
+package com.thereadingroom.utils.ui.stall;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FxStallWatchdog.
+ * Verifies that stalls are attributed to the controller method in progress, and that a busy UI thread is
+ * detected and its stack captured, using a plain thread in place of the JavaFX thread.
+ */
+public class FxStallWatchdogTest {
+
+    /**
+     * Tests that a stall is attributed to the outermost controller method of the innermost event handler,
+     * with lambdas resolved to their declaring method and the DAO call reported as the top frame.
+     */
+    @Test
+    public void testStallIsAttributedToControllerMethod() {
+        StackTraceElement[] stack = {
+                frame("org.sqlite.core.NativeDB", "step"),
+                frame("com.thereadingroom.model.dao.book.BookDAO", "updateBookStock"),
+                frame("com.thereadingroom.controller.admin.AdminStockController", "saveStock"),
+                frame("com.thereadingroom.controller.admin.AdminStockController", "lambda$handleUpdateStock$2"),
+                frame("javafx.event.CompositeEventHandler", "dispatchBubblingEvent"),
+                frame("com.sun.javafx.tk.quantum.QuantumToolkit", "enterNestedEventLoop"),
+                frame("javafx.scene.control.Dialog", "showAndWait"),
+                frame("com.thereadingroom.controller.user.PaymentController", "handlePayment"),
+        };
+        assertEquals("AdminStockController.handleUpdateStock", FxStallWatchdog.findHandler(stack));
+        assertEquals("BookDAO.updateBookStock:1", FxStallWatchdog.findTopFrame(stack));
+
+        StackTraceElement[] noController = {frame("javafx.scene.Parent", "layout")};
+        assertNull(FxStallWatchdog.findHandler(noController));
+        assertNull(FxStallWatchdog.findTopFrame(noController));
+    }
+
+    /**
+     * Tests that a task blocking the UI thread is recorded as one stall with the blocked stack, and that
+     * short tasks are not.
+     */
+    @Test
+    public void testBusyUiThreadIsRecordedAsStall() throws Exception {
+        ExecutorService ui = Executors.newSingleThreadExecutor();
+        FxStallWatchdog watchdog = new FxStallWatchdog(100, 10, ui);
+        watchdog.start();
+        try {
+            Thread.sleep(50);  // Let a heartbeat run, so the watchdog knows the UI thread
+            ui.submit(() -> sleep(20)).get();
+            assertTrue(watchdog.getWorstOffenders(10).isEmpty());
+
+            ui.submit(() -> sleep(400)).get();
+            Thread.sleep(50);  // Let the late heartbeat run
+        } finally {
+            watchdog.stop();
+            ui.shutdownNow();
+            ui.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        List<StallStats> offenders = watchdog.getWorstOffenders(10);
+        assertEquals(1, offenders.size());
+        StallStats stats = offenders.get(0);
+        assertEquals(1, stats.getStalls());
+        assertTrue(stats.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(300), stats.toString());
+        assertNotNull(stats.getStack());
+        assertTrue(stats.getStack().contains("sleep"), stats.getStack());
+        assertEquals(1, watchdog.getRecentStalls().size());
+
+        watchdog.reset();
+        assertTrue(watchdog.getWorstOffenders(10).isEmpty());
+    }
+
+    private static StackTraceElement frame(String className, String method) {
+        return new StackTraceElement(className, method, "Source.java", 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.thereadingroom.utils.ui.store;
+
+import com.thereadingroom.model.entity.Book;
+import javafx.beans.Observable;
+import javafx.collections.ListChangeListener;
+import javafx.collections.transformation.SortedList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ObservableEntityStore.
+ * Verifies that changed entities are patched into the instances already shown (so bound cells update
+ * and rows keep their identity), and that reloading only adds and removes the rows that changed.
+ */
+public class ObservableEntityStoreTest {
+
+    private ObservableEntityStore<Book> store;
+
+    /**
+     * Creates a store of two books whose sold copies are reported as list updates.
+     */
+    @BeforeEach
+    public void setUp() {
+        store = new ObservableEntityStore<>(Book::getBookId, Book::copyFrom, book -> new Observable[]{book.soldCopiesProperty()});
+        store.replaceAll(List.of(new Book(1, "Dune", "Herbert", 10, 9.99, 3), new Book(2, "Emma", "Austen", 5, 7.50, 8)));
+    }
+
+    /**
+     * Tests that an upserted book is copied into the shown instance and fires its property, without replacing the row.
+     */
+    @Test
+    public void testUpsertPatchesShownInstance() {
+        Book shown = store.get(1);
+        List<String> titles = new ArrayList<>();
+        shown.titleProperty().addListener((observable, oldTitle, newTitle) -> titles.add(newTitle));
+        List<ListChangeListener.Change<? extends Book>> changes = new ArrayList<>();
+        store.getRows().addListener((ListChangeListener<Book>) changes::add);
+
+        Book returned = store.upsert(new Book(1, "Dune Messiah", "Herbert", 4, 10.99, 9));
+
+        assertSame(shown, returned);
+        assertSame(shown, store.getRows().get(0));
+        assertEquals(List.of("Dune Messiah"), titles);
+        assertEquals(4, shown.getPhysicalCopies());
+        assertEquals(1, changes.size());  // Only the update of the extracted sold copies property
+        assertTrue(changes.get(0).next() && changes.get(0).wasUpdated());
+    }
+
+    /**
+     * Tests that reconciling with a full list patches kept rows, removes missing rows and appends new ones.
+     */
+    @Test
+    public void testReplaceAllReconcilesRows() {
+        Book kept = store.get(2);
+
+        store.replaceAll(List.of(new Book(3, "Ulysses", "Joyce", 2, 12.00, 0), new Book(2, "Emma", "Austen", 1, 7.50, 12)));
+
+        assertEquals(2, store.size());
+        assertNull(store.get(1));
+        assertSame(kept, store.getRows().get(0));
+        assertEquals(12, kept.getSoldCopies());
+        assertEquals(3, store.getRows().get(1).getBookId());
+        assertFalse(store.remove(1));
+        assertTrue(store.remove(3));
+        assertEquals(List.of(kept), store.getRows());
+    }
+
+    /**
+     * Tests that a sorted view re-sorts when an extracted property of a row changes.
+     */
+    @Test
+    public void testSortedViewFollowsPropertyChanges() {
+        SortedList<Book> bySales = new SortedList<>(store.getRows(), Comparator.comparingInt(Book::getSoldCopies).reversed());
+        assertEquals(2, bySales.get(0).getBookId());
+
+        store.update(1, book -> book.setSoldCopies(20));
+
+        assertEquals(1, bySales.get(0).getBookId());
+        assertNull(store.update(99, book -> book.setSoldCopies(1)));
+    }
+}
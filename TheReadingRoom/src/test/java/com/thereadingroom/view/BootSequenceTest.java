@@ -0,0 +1,75 @@
+package com.thereadingroom.view;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BootSequence.
+ * Verifies that independent phases run at the same time, that a phase waits for the phases it depends on,
+ * and that a failed phase skips its dependents and fails the sequence.
+ */
+public class BootSequenceTest {
+
+    /**
+     * Tests that two independent phases overlap, and that a dependent phase sees the values of both.
+     */
+    @Test
+    public void testIndependentPhasesRunConcurrently() throws Exception {
+        BootSequence boot = new BootSequence(2);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CompletableFuture<String> first = boot.supply("first", () -> awaitOther(bothStarted, "a"));
+        CompletableFuture<String> second = boot.supply("second", () -> awaitOther(bothStarted, "b"));
+        CompletableFuture<String> joined = boot.supply("joined", () -> first.join() + second.join(), first, second);
+
+        boot.whenDone().get(5, TimeUnit.SECONDS);
+        assertEquals("ab", joined.join());
+        List<String> finished = List.copyOf(boot.getPhaseMillis().keySet());
+        assertEquals(3, finished.size());
+        assertEquals("joined", finished.get(2));
+    }
+
+    /**
+     * Tests that a failed phase skips the phases depending on it but not the others, and fails the sequence.
+     */
+    @Test
+    public void testFailureSkipsDependents() throws Exception {
+        BootSequence boot = new BootSequence(2);
+        List<String> statuses = new CopyOnWriteArrayList<>();
+        boot.setListener(statuses::add);
+        AtomicBoolean dependentRan = new AtomicBoolean();
+        CompletableFuture<Void> failing = boot.run("failing", () -> {
+            throw new IllegalStateException("no database");
+        });
+        boot.run("dependent", () -> dependentRan.set(true), failing);
+        CompletableFuture<Void> independent = boot.run("independent", () -> { });
+
+        CompletionException error = assertThrows(CompletionException.class, () -> boot.whenDone().join());
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertFalse(dependentRan.get());
+        independent.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("independent"), List.copyOf(boot.getPhaseMillis().keySet()));
+        assertTrue(statuses.contains("Starting failing..."));
+    }
+
+    /**
+     * Counts down and waits for the other phase to do the same, failing if the phases do not overlap.
+     */
+    private static String awaitOther(CountDownLatch bothStarted, String value) {
+        bothStarted.countDown();
+        try {
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "The phases did not run at the same time");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return value;
+    }
+}